@@ -49,6 +49,8 @@ abstract class BaseRowSet implements Comparable<RowSet>, RowSet {
   protected volatile String remoteSlaveServerName;
   private ReadWriteLock lock;
 
+  private volatile RowSetNotifier consumerNotifier;
+
   public BaseRowSet() {
     // not done putting data into this RowSet
     done = new AtomicBoolean( false );
@@ -135,6 +137,28 @@ abstract class BaseRowSet implements Comparable<RowSet>, RowSet {
   @Override
   public void setDone() {
     done.set( true );
+    signalConsumer();
+  }
+
+  @Override
+  public void setConsumerNotifier( RowSetNotifier notifier ) {
+    this.consumerNotifier = notifier;
+  }
+
+  @Override
+  public RowSetNotifier getConsumerNotifier() {
+    return consumerNotifier;
+  }
+
+  /**
+   * Let the consuming step know that rows became available or that this rowset is done. Implementations call this
+   * after every successful put.
+   */
+  protected void signalConsumer() {
+    RowSetNotifier notifier = consumerNotifier;
+    if ( notifier != null ) {
+      notifier.signal();
+    }
   }
 
   /*
@@ -0,0 +1,240 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMetaInterface;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contains a buffer of rows, just like {@link BlockingRowSet}. On top of passing single rows, this row set can transfer
+ * arrays of rows with a single lock acquisition (see {@link #putRowsWait(RowMetaInterface, Object[][], int, int, long,
+ * TimeUnit)} and {@link #getRowsImmediate(Object[][], int, int)}). Steps that process their rows in batches then pay
+ * the locking cost once per batch instead of once per row.
+ */
+public class BlockingArrayRowSet extends BaseRowSet implements Comparable<RowSet>, RowSet {
+  private final Object[][] buffer;
+
+  /**
+   * The index of the next row to get
+   */
+  private int getIndex;
+
+  /**
+   * The number of rows in the buffer
+   */
+  private int count;
+
+  private final ReentrantLock lock;
+  private final Condition notEmpty;
+  private final Condition notFull;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new row set with maxSize capacity.
+   *
+   * @param maxSize
+   */
+  public BlockingArrayRowSet( int maxSize ) {
+    super();
+
+    buffer = new Object[ Math.max( 1, maxSize ) ][];
+    lock = new ReentrantLock();
+    notEmpty = lock.newCondition();
+    notFull = lock.newCondition();
+
+    timeoutGet = Const.toInt( System.getProperty( Const.HOP_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.HOP_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  @Override
+  public boolean putRow( RowMetaInterface rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( rowData == null ) {
+      return false;
+    }
+    return putRowsWait( rowMeta, new Object[][] { rowData }, 0, 1, time, tu ) == 1;
+  }
+
+  /**
+   * Put as many of the given rows as fit in the buffer in one go. If the buffer is full, wait (block) for a period of
+   * time defined in this call.
+   */
+  @Override
+  public int putRowsWait( RowMetaInterface rowMeta, Object[][] rows, int offset, int nrRows, long time,
+                          TimeUnit tu ) {
+    this.rowMeta = rowMeta;
+    if ( nrRows <= 0 ) {
+      return 0;
+    }
+
+    int nr;
+    try {
+      lock.lockInterruptibly();
+    } catch ( InterruptedException e ) {
+      return 0;
+    }
+    try {
+      long nanos = tu.toNanos( time );
+      while ( count == buffer.length ) {
+        if ( nanos <= 0L ) {
+          return 0;
+        }
+        nanos = notFull.awaitNanos( nanos );
+      }
+
+      nr = Math.min( nrRows, buffer.length - count );
+      int putIndex = ( getIndex + count ) % buffer.length;
+
+      // Copy in at most two stretches: up to the end of the buffer and from the start.
+      //
+      int first = Math.min( nr, buffer.length - putIndex );
+      System.arraycopy( rows, offset, buffer, putIndex, first );
+      if ( first < nr ) {
+        System.arraycopy( rows, offset + first, buffer, 0, nr - first );
+      }
+      count += nr;
+
+      notEmpty.signal();
+    } catch ( InterruptedException e ) {
+      return 0;
+    } finally {
+      lock.unlock();
+    }
+
+    signalConsumer();
+    return nr;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    lock.lock();
+    try {
+      return count == 0 ? null : dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    try {
+      lock.lockInterruptibly();
+    } catch ( InterruptedException e ) {
+      return null;
+    }
+    try {
+      long nanos = tu.toNanos( timeout );
+      while ( count == 0 ) {
+        if ( nanos <= 0L ) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos( nanos );
+      }
+      return dequeue();
+    } catch ( InterruptedException e ) {
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get all the rows that are available in the buffer, up to max, in one go.
+   */
+  @Override
+  public int getRowsImmediate( Object[][] rows, int offset, int max ) {
+    lock.lock();
+    try {
+      int nr = Math.min( max, count );
+      if ( nr <= 0 ) {
+        return 0;
+      }
+
+      int first = Math.min( nr, buffer.length - getIndex );
+      System.arraycopy( buffer, getIndex, rows, offset, first );
+      Arrays.fill( buffer, getIndex, getIndex + first, null ); // prevent any hold-up to GC
+      if ( first < nr ) {
+        System.arraycopy( buffer, 0, rows, offset + first, nr - first );
+        Arrays.fill( buffer, 0, nr - first, null );
+      }
+      getIndex = ( getIndex + nr ) % buffer.length;
+      count -= nr;
+
+      notFull.signalAll();
+      return nr;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Must be called while holding the lock with at least one row in the buffer.
+   */
+  private Object[] dequeue() {
+    Object[] row = buffer[ getIndex ];
+    buffer[ getIndex ] = null;
+    getIndex = ( getIndex + 1 ) % buffer.length;
+    count--;
+    notFull.signal();
+    return row;
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      Arrays.fill( buffer, null );
+      getIndex = 0;
+      count = 0;
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    done.set( false );
+  }
+}
@@ -105,6 +105,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
       try {
         getArray.offer( inputBuffer, time, tu );
         inputBuffer = null;
+        signalConsumer();
       } catch ( InterruptedException e ) {
         return false;
       }
@@ -132,8 +133,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
    */
   @Override
   public Object[] getRowImmediate() {
-
-    return getRow();
+    return getRowWait( 0, TimeUnit.MILLISECONDS );
   }
 
   @Override
@@ -169,7 +169,6 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
 
   @Override
   public void setDone() {
-    super.setDone();
     if ( putIndex > 0 && putIndex < size && inputBuffer != null ) {
       inputBuffer[ putIndex ] = null; // signal the end of buffer
       for ( int i = putIndex + 1; i < size; i++ ) {
@@ -178,6 +177,8 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
       getArray.offer( inputBuffer );
     }
     putArray.clear();
+    // Only flag done once the last buffer is available, this also wakes up the consumer
+    super.setDone();
   }
 
   @Override
@@ -77,7 +77,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
     this.rowMeta = rowMeta;
     try {
 
-      return queArray.offer( rowData, time, tu );
+      if ( queArray.offer( rowData, time, tu ) ) {
+        signalConsumer();
+        return true;
+      }
+      return false;
     } catch ( InterruptedException e ) {
       return false;
     } catch ( NullPointerException e ) {
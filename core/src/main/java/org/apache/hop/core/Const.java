@@ -125,6 +125,11 @@ public class Const {
    */
   public static final int TIMEOUT_PUT_MILLIS = 50;
 
+  /**
+   * The size of the rowsets of transformations running in low latency streaming mode (the default)
+   */
+  public static final int LOW_LATENCY_ROWSET_SIZE = 32;
+
   /**
    * print update every ... lines
    */
@@ -853,6 +858,37 @@ public class Const {
    */
   public static final String HOP_MAX_LOG_SIZE_IN_LINES = "HOP_MAX_LOG_SIZE_IN_LINES";
 
+  /**
+   * System wide flag to set the maximum number of log lines that are kept internally by Hop for a single log channel,
+   * so that one busy transformation or step can't push the lines of all others out. Set to 0 to only apply
+   * {@link #HOP_MAX_LOG_SIZE_IN_LINES} (default)
+   */
+  public static final String HOP_MAX_LOG_SIZE_PER_CHANNEL_IN_LINES = "HOP_MAX_LOG_SIZE_PER_CHANNEL_IN_LINES";
+
+  /**
+   * Set this variable to Y to write the console, slf4j and log file output on a background thread instead of on the
+   * threads doing the logging. Default is N.
+   */
+  public static final String HOP_LOG_ASYNC = "HOP_LOG_ASYNC";
+
+  /**
+   * The maximum number of logging events waiting to be written when {@link #HOP_LOG_ASYNC} is enabled. Default is
+   * 10000.
+   */
+  public static final String HOP_LOG_ASYNC_QUEUE_SIZE = "HOP_LOG_ASYNC_QUEUE_SIZE";
+
+  /**
+   * What to do with new logging events when the queue of {@link #HOP_LOG_ASYNC} is full: BLOCK (wait, default), DROP
+   * (drop detailed, debug and row level events) or SAMPLE (keep 1 out of 10 of those).
+   */
+  public static final String HOP_LOG_ASYNC_OVERFLOW_POLICY = "HOP_LOG_ASYNC_OVERFLOW_POLICY";
+
+  /**
+   * Set this variable to Y to write the step, job entry, log channel and metrics log tables of a finished
+   * transformation or job on the logging writer thread instead of on the thread ending it. Default is N.
+   */
+  public static final String HOP_LOG_TABLES_ASYNC = "HOP_LOG_TABLES_ASYNC";
+
   /**
    * System wide flag to set the maximum age (in minutes) of a log line while being kept internally by Hop. Set to 0
    * to keep all rows indefinitely (default)
@@ -893,6 +929,41 @@ public class Const {
    */
   public static final String HOP_MAX_JOB_ENTRIES_LOGGED = "HOP_MAX_JOB_ENTRIES_LOGGED";
 
+  /**
+   * A variable to configure the maximum number of job entries a single job runs in parallel. (default = 0, no limit)
+   */
+  public static final String HOP_JOB_MAX_PARALLEL_ENTRIES = "HOP_JOB_MAX_PARALLEL_ENTRIES";
+
+  /**
+   * A variable to configure the number of threads shared by all jobs to run parallel job entries. (default = 0, no
+   * limit)
+   */
+  public static final String HOP_SERVER_MAX_PARALLEL_JOB_ENTRIES = "HOP_SERVER_MAX_PARALLEL_JOB_ENTRIES";
+
+  /**
+   * A variable to configure the maximum number of parsed transformation and job files kept in memory, 0 disables the
+   * cache. (default = 0, the cache is off)
+   */
+  public static final String HOP_META_CACHE_SIZE = "HOP_META_CACHE_SIZE";
+
+  /**
+   * A variable to configure the maximum estimated memory in bytes taken by the parsed transformation and job files kept
+   * in memory together, 0 disables the cache. (default = 67108864)
+   */
+  public static final String HOP_META_CACHE_MAX_BYTES = "HOP_META_CACHE_MAX_BYTES";
+
+  /**
+   * A variable to configure the size in bytes from which transformation and job files are read in a streaming fashion
+   * instead of being parsed completely in memory, 0 disables streaming. (default = 10485760)
+   */
+  public static final String HOP_META_STREAMING_THRESHOLD = "HOP_META_STREAMING_THRESHOLD";
+
+  /**
+   * A variable to configure the number of result rows kept in memory before they are written to a temporary file, 0
+   * keeps all result rows in memory. (default = 0)
+   */
+  public static final String HOP_RESULT_ROWS_SPILL_SIZE = "HOP_RESULT_ROWS_SPILL_SIZE";
+
   /**
    * A variable to configure the maximum number of logging registry entries kept in memory for logging purposes.
    */
@@ -1036,6 +1107,18 @@ public class Const {
    */
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * Set this variable to Y if you want to use row sets that transfer arrays of rows in one go between steps that
+   * process their rows in batches. (default = N)
+   */
+  public static final String HOP_ARRAY_ROWSET = "HOP_ARRAY_ROWSET";
+
+  /**
+   * Set this variable to change the size of the rowsets used by transformations running in low latency streaming mode.
+   * (default = 32)
+   */
+  public static final String HOP_LOW_LATENCY_ROWSET_SIZE = "HOP_LOW_LATENCY_ROWSET_SIZE";
+
   /**
    * Set this variable to limit max number of files the Text File Output step can have open at one time.
    */
@@ -30,6 +30,7 @@ import org.apache.hop.core.extension.ExtensionPointPluginType;
 import org.apache.hop.core.gui.plugin.GuiElement;
 import org.apache.hop.core.gui.plugin.GuiPluginType;
 import org.apache.hop.core.gui.plugin.GuiRegistry;
+import org.apache.hop.core.logging.AsyncLoggingEventListener;
 import org.apache.hop.core.logging.ConsoleLoggingEventListener;
 import org.apache.hop.core.logging.HopLogStore;
 import org.apache.hop.core.logging.LoggingPluginInterface;
@@ -120,9 +121,11 @@ public class HopClientEnvironment {
     // TODO: make this configurable...
     //
     if ( !"Y".equalsIgnoreCase( System.getProperty( Const.HOP_DISABLE_CONSOLE_LOGGING, "N" ) ) ) {
-      HopLogStore.getAppender().addLoggingEventListener( new ConsoleLoggingEventListener() );
+      HopLogStore.getAppender().addLoggingEventListener(
+        AsyncLoggingEventListener.wrapIfConfigured( new ConsoleLoggingEventListener() ) );
     }
-    HopLogStore.getAppender().addLoggingEventListener( new Slf4jLoggingEventListener() );
+    HopLogStore.getAppender().addLoggingEventListener(
+      AsyncLoggingEventListener.wrapIfConfigured( new Slf4jLoggingEventListener() ) );
 
     // Load plugins
     //
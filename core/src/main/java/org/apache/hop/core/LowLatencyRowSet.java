@@ -0,0 +1,158 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMetaInterface;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small buffer of rows for transformations that are tuned for the latency of single rows. Every row is handed over
+ * to the reading step as soon as it is put, and it carries the time at which it entered the transformation.
+ * <p>
+ * The origin time travels along with the rows from step to step: reading a row makes its origin the origin of the
+ * reading thread (see {@link #getOriginNanos()}), and rows put by that thread inherit it. A step that aggregates rows,
+ * like Group By, so passes on the origin of the last row it read. Rows put into an injecting row set, or by a thread
+ * that didn't read a row yet, start a new event at the current time.
+ */
+public class LowLatencyRowSet extends BaseRowSet implements Comparable<RowSet>, RowSet {
+
+  private static final ThreadLocal<long[]> ORIGIN_NANOS = ThreadLocal.withInitial( () -> new long[ 1 ] );
+
+  private final BlockingQueue<Entry> queArray;
+  private final boolean injecting;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  private static class Entry {
+    private final Object[] row;
+    private final long originNanos;
+
+    private Entry( Object[] row, long originNanos ) {
+      this.row = row;
+      this.originNanos = originNanos;
+    }
+  }
+
+  /**
+   * Create a new row set with maxSize capacity.
+   *
+   * @param maxSize
+   */
+  public LowLatencyRowSet( int maxSize ) {
+    this( maxSize, false );
+  }
+
+  /**
+   * Create a new row set with maxSize capacity.
+   *
+   * @param maxSize
+   * @param injecting true if rows are injected into the transformation through this row set: they then start a new
+   *                  event at the time they are put
+   */
+  public LowLatencyRowSet( int maxSize, boolean injecting ) {
+    super();
+
+    queArray = new ArrayBlockingQueue<Entry>( Math.max( 1, maxSize ), false );
+    this.injecting = injecting;
+
+    timeoutGet = Const.toInt( System.getProperty( Const.HOP_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.HOP_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  /**
+   * @return the time in nanoseconds (see {@link System#nanoTime()}) at which the last row read by the current thread
+   * entered the transformation, 0 if the current thread didn't read a row from a low latency row set
+   */
+  public static long getOriginNanos() {
+    return ORIGIN_NANOS.get()[ 0 ];
+  }
+
+  @Override
+  public boolean putRow( RowMetaInterface rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( rowData == null ) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long originNanos = injecting ? 0L : getOriginNanos();
+    if ( originNanos == 0L ) {
+      originNanos = System.nanoTime();
+    }
+    try {
+      if ( queArray.offer( new Entry( rowData, originNanos ), time, tu ) ) {
+        signalConsumer();
+        return true;
+      }
+      return false;
+    } catch ( InterruptedException e ) {
+      return false;
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return take( queArray.poll() );
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    try {
+      return take( queArray.poll( timeout, tu ) );
+    } catch ( InterruptedException e ) {
+      return null;
+    }
+  }
+
+  private Object[] take( Entry entry ) {
+    if ( entry == null ) {
+      return null;
+    }
+    ORIGIN_NANOS.get()[ 0 ] = entry.originNanos;
+    return entry.row;
+  }
+
+  @Override
+  public int size() {
+    return queArray.size();
+  }
+
+  @Override
+  public void clear() {
+    queArray.clear();
+    done.set( false );
+  }
+}
@@ -197,7 +197,7 @@ public class Result implements Cloneable {
     result = false;
 
     exitStatus = 0;
-    rows = new ArrayList<RowMetaAndData>();
+    rows = new ResultRowList();
     resultFiles = new ConcurrentHashMap<String, ResultFile>();
 
     stopped = false;
@@ -253,9 +253,9 @@ public class Result implements Cloneable {
 
       // Clone result rows and files as well...
       if ( rows != null ) {
-        List<RowMetaAndData> clonedRows = new ArrayList<RowMetaAndData>();
-        for ( int i = 0; i < rows.size(); i++ ) {
-          clonedRows.add( ( rows.get( i ) ).clone() );
+        List<RowMetaAndData> clonedRows = new ResultRowList();
+        for ( RowMetaAndData row : rows ) {
+          clonedRows.add( row.clone() );
         }
         result.setRows( clonedRows );
       }
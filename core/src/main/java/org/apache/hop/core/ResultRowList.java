@@ -0,0 +1,510 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The list of result rows passed between transformations and job entries. The rows are kept in memory. If
+ * {@link Const#HOP_RESULT_ROWS_SPILL_SIZE} is set and there are more rows than that, all rows are written to a
+ * temporary binary file from then on and read back from it when they're needed. Reading the rows in order, with an
+ * iterator or with increasing indexes, streams through the file.
+ * <p>
+ * Rows are only written to disk while their layout can be serialized: a row with a serializable or plugin value type
+ * brings the rows back in memory, as does inserting, replacing or removing a row. From then on the list stays in
+ * memory. Rows that are sent along with the XML of a {@link Result} are all serialized in memory anyway.
+ * <p>
+ * Clearing the list deletes the file. The file of a list that is dropped without being cleared is deleted after the
+ * list is garbage collected, the next time a list is written to disk, or when the JVM exits. An iterator that is not
+ * read up to the end keeps a file open until it is closed, see {@link #close(Iterator)}.
+ */
+public class ResultRowList extends AbstractList<RowMetaAndData> {
+
+  public static final int DEFAULT_SPILL_SIZE = 0;
+
+  /**
+   * The row metadata is repeated in the file every this many rows so reading can start there.
+   */
+  private static final int CHECKPOINT_INTERVAL = 1024;
+
+  private final int spillSize;
+
+  private List<RowMetaAndData> memoryRows;
+
+  /**
+   * False once a row layout couldn't be written or rows were changed in place: the rows stay in memory from then on
+   */
+  private boolean spillable = true;
+
+  private SpillFile spillFile;
+  private File file;
+  private CountingOutputStream counter;
+  private DataOutputStream output;
+  private RowMetaInterface lastWrittenRowMeta;
+  private List<Long> checkpoints;
+  private int spilledSize;
+
+  private RowReader cursor;
+
+  /**
+   * The files of the lists that were written to disk and not cleared yet
+   */
+  private static final Set<SpillFile> spillFiles = ConcurrentHashMap.newKeySet();
+
+  /**
+   * The lists that were garbage collected without being cleared
+   */
+  private static final ReferenceQueue<ResultRowList> droppedLists = new ReferenceQueue<>();
+
+  private static final AtomicBoolean shutdownHookAdded = new AtomicBoolean();
+
+  public ResultRowList() {
+    this( Const.toInt( System.getProperty( Const.HOP_RESULT_ROWS_SPILL_SIZE ), DEFAULT_SPILL_SIZE ) );
+  }
+
+  /**
+   * @param spillSize the number of rows kept in memory before they're written to disk, 0 or less to never spill
+   */
+  public ResultRowList( int spillSize ) {
+    this.spillSize = spillSize;
+    this.memoryRows = new ArrayList<RowMetaAndData>();
+  }
+
+  /**
+   * Close an iterator of result rows that was not read up to the end. This closes the file it reads the rows from,
+   * if the rows were written to disk.
+   *
+   * @param iterator the iterator to close, can be any iterator
+   */
+  public static void close( Iterator<RowMetaAndData> iterator ) {
+    if ( iterator instanceof Closeable ) {
+      try {
+        ( (Closeable) iterator ).close();
+      } catch ( IOException e ) {
+        // Nothing left to do
+      }
+    }
+  }
+
+  /**
+   * @return true if the rows of this list are kept in a file on disk
+   */
+  public boolean isSpilled() {
+    return memoryRows == null;
+  }
+
+  /**
+   * @return the file the rows are kept in, or null if they are in memory
+   */
+  File getFile() {
+    return file;
+  }
+
+  @Override
+  public int size() {
+    return isSpilled() ? spilledSize : memoryRows.size();
+  }
+
+  @Override
+  public boolean add( RowMetaAndData row ) {
+    if ( isSpilled() && row.getRowMeta() != lastWrittenRowMeta && !canWrite( row.getRowMeta() ) ) {
+      unspill();
+    }
+    if ( !isSpilled() ) {
+      memoryRows.add( row );
+      if ( spillable && spillSize > 0 && memoryRows.size() > spillSize ) {
+        spill();
+      }
+    } else {
+      try {
+        writeRow( row );
+      } catch ( Exception e ) {
+        throw new RuntimeException( "Unable to write result row to file " + file, e );
+      }
+    }
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public void add( int index, RowMetaAndData row ) {
+    if ( index == size() ) {
+      add( row );
+    } else {
+      unspill();
+      memoryRows.add( index, row );
+      modCount++;
+    }
+  }
+
+  @Override
+  public RowMetaAndData set( int index, RowMetaAndData row ) {
+    unspill();
+    return memoryRows.set( index, row );
+  }
+
+  @Override
+  public RowMetaAndData remove( int index ) {
+    unspill();
+    modCount++;
+    return memoryRows.remove( index );
+  }
+
+  @Override
+  public RowMetaAndData get( int index ) {
+    if ( !isSpilled() ) {
+      return memoryRows.get( index );
+    }
+    if ( index < 0 || index >= spilledSize ) {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + spilledSize );
+    }
+    try {
+      flushOutput();
+
+      // Only go back to a checkpoint if we can't simply read on from where we are.
+      //
+      int checkpoint = index / CHECKPOINT_INTERVAL;
+      if ( cursor == null || cursor.index > index || cursor.index < checkpoint * CHECKPOINT_INTERVAL ) {
+        closeReader( cursor );
+        cursor = openReader( checkpoint );
+      }
+      RowMetaAndData row = cursor.read();
+      while ( cursor.index <= index ) {
+        row = cursor.read();
+      }
+      return row;
+    } catch ( Exception e ) {
+      throw new RuntimeException( "Unable to read result row " + index + " from file " + file, e );
+    }
+  }
+
+  @Override
+  public Iterator<RowMetaAndData> iterator() {
+    if ( !isSpilled() ) {
+      return super.iterator();
+    }
+    return new RowIterator();
+  }
+
+  /**
+   * Reads the rows written to disk in order. The file is closed once all rows are read, or when the iterator is closed.
+   * If the rows are brought back in memory, it reads on from there.
+   */
+  private class RowIterator implements Iterator<RowMetaAndData>, Closeable {
+    private RowReader reader;
+    private int next;
+
+    @Override
+    public boolean hasNext() {
+      if ( next < size() ) {
+        return true;
+      }
+      close();
+      return false;
+    }
+
+    @Override
+    public void close() {
+      closeReader( reader );
+      reader = null;
+    }
+
+    @Override
+    public RowMetaAndData next() {
+      if ( !hasNext() ) {
+        throw new NoSuchElementException();
+      }
+      if ( !isSpilled() ) {
+        // The rows were brought back in memory
+        close();
+        return memoryRows.get( next++ );
+      }
+      try {
+        flushOutput();
+        if ( reader == null ) {
+          reader = openReader( 0 );
+        }
+        next++;
+        return reader.read();
+      } catch ( Exception e ) {
+        throw new RuntimeException( "Unable to read result row " + next + " from file " + file, e );
+      }
+    }
+  }
+
+  /**
+   * Removes all the rows, deleting the temporary file if there was one.
+   */
+  @Override
+  public void clear() {
+    if ( isSpilled() ) {
+      deleteFile( new ArrayList<RowMetaAndData>() );
+    } else {
+      memoryRows.clear();
+    }
+    modCount++;
+  }
+
+  /**
+   * Read the rows written to disk back in memory and keep them there from now on.
+   */
+  private void unspill() {
+    spillable = false;
+    if ( !isSpilled() ) {
+      return;
+    }
+    List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>( spilledSize );
+    RowReader reader = null;
+    try {
+      flushOutput();
+      reader = openReader( 0 );
+      while ( rows.size() < spilledSize ) {
+        rows.add( reader.read() );
+      }
+    } catch ( Exception e ) {
+      throw new RuntimeException( "Unable to read result rows back from file " + file, e );
+    } finally {
+      closeReader( reader );
+    }
+    deleteFile( rows );
+  }
+
+  private void deleteFile( List<RowMetaAndData> rows ) {
+    cursor = null;
+    spillFile.delete();
+    spillFile = null;
+    file = null;
+    counter = null;
+    output = null;
+    lastWrittenRowMeta = null;
+    checkpoints = null;
+    spilledSize = 0;
+    memoryRows = rows;
+  }
+
+  /**
+   * @return true if the data of the row layout can be written to disk and read back
+   */
+  private static boolean canWrite( RowMetaInterface rowMeta ) {
+    for ( ValueMetaInterface valueMeta : rowMeta.getValueMetaList() ) {
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_STRING:
+        case ValueMetaInterface.TYPE_NUMBER:
+        case ValueMetaInterface.TYPE_INTEGER:
+        case ValueMetaInterface.TYPE_DATE:
+        case ValueMetaInterface.TYPE_BIGNUMBER:
+        case ValueMetaInterface.TYPE_BOOLEAN:
+        case ValueMetaInterface.TYPE_BINARY:
+        case ValueMetaInterface.TYPE_TIMESTAMP:
+        case ValueMetaInterface.TYPE_INET:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private void spill() {
+    RowMetaInterface checked = null;
+    for ( RowMetaAndData row : memoryRows ) {
+      if ( row.getRowMeta() != checked ) {
+        if ( !canWrite( row.getRowMeta() ) ) {
+          spillable = false;
+          return;
+        }
+        checked = row.getRowMeta();
+      }
+    }
+
+    deleteDroppedFiles();
+    try {
+      file = File.createTempFile( "hop-result-rows-", ".bin" );
+      counter = new CountingOutputStream( new BufferedOutputStream( new FileOutputStream( file ), 65536 ) );
+      output = new DataOutputStream( counter );
+      spillFile = new SpillFile( this, file, output );
+      checkpoints = new ArrayList<Long>();
+      spilledSize = 0;
+      for ( RowMetaAndData row : memoryRows ) {
+        writeRow( row );
+      }
+      memoryRows = null;
+    } catch ( Exception e ) {
+      throw new RuntimeException( "Unable to write result rows to a temporary file", e );
+    }
+  }
+
+  private void writeRow( RowMetaAndData row ) throws HopException, IOException {
+    RowMetaInterface rowMeta = row.getRowMeta();
+    boolean checkpoint = spilledSize % CHECKPOINT_INTERVAL == 0;
+    if ( checkpoint ) {
+      checkpoints.add( counter.getByteCount() );
+    }
+    if ( checkpoint || rowMeta != lastWrittenRowMeta ) {
+      output.writeBoolean( true );
+      rowMeta.writeMeta( output );
+      lastWrittenRowMeta = rowMeta;
+    } else {
+      output.writeBoolean( false );
+    }
+    rowMeta.writeData( output, row.getData() );
+    spilledSize++;
+  }
+
+  private void flushOutput() throws IOException {
+    output.flush();
+  }
+
+  private RowReader openReader( int checkpoint ) throws IOException {
+    RowReader reader = new RowReader( checkpoint );
+    spillFile.readers.add( reader.input );
+    return reader;
+  }
+
+  private void closeReader( RowReader reader ) {
+    if ( reader != null ) {
+      if ( spillFile != null ) {
+        spillFile.readers.remove( reader.input );
+      }
+      reader.close();
+    }
+  }
+
+  /**
+   * Delete the files of the lists that were garbage collected without being cleared.
+   */
+  private static void deleteDroppedFiles() {
+    Reference<? extends ResultRowList> dropped;
+    while ( ( dropped = droppedLists.poll() ) != null ) {
+      ( (SpillFile) dropped ).delete();
+    }
+  }
+
+  private static void addShutdownHook() {
+    if ( shutdownHookAdded.compareAndSet( false, true ) ) {
+      Runtime.getRuntime().addShutdownHook( new Thread( () -> {
+        for ( SpillFile spillFile : spillFiles ) {
+          spillFile.delete();
+        }
+      }, "Result rows cleanup" ) );
+    }
+  }
+
+  /**
+   * The temporary file of a list, with the streams writing and reading it. It doesn't refer to the list itself, so it
+   * can be deleted once the list is garbage collected.
+   */
+  private static class SpillFile extends PhantomReference<ResultRowList> {
+    private final File file;
+    private final Closeable output;
+    private final Set<Closeable> readers = ConcurrentHashMap.newKeySet();
+
+    SpillFile( ResultRowList list, File file, Closeable output ) {
+      super( list, droppedLists );
+      this.file = file;
+      this.output = output;
+      spillFiles.add( this );
+      addShutdownHook();
+    }
+
+    void delete() {
+      if ( !spillFiles.remove( this ) ) {
+        return;
+      }
+      for ( Closeable reader : readers ) {
+        closeQuietly( reader );
+      }
+      readers.clear();
+      closeQuietly( output );
+      file.delete();
+      clear();
+    }
+
+    private static void closeQuietly( Closeable closeable ) {
+      try {
+        closeable.close();
+      } catch ( IOException e ) {
+        // Ignore, we're throwing the file away
+      }
+    }
+  }
+
+  /**
+   * Reads the rows from the file sequentially, starting at a checkpoint.
+   */
+  private class RowReader implements Closeable {
+    private final DataInputStream input;
+    private RowMetaInterface rowMeta;
+    private int index;
+
+    RowReader( int checkpoint ) throws IOException {
+      FileInputStream fileInput = new FileInputStream( file );
+      fileInput.getChannel().position( checkpoints.get( checkpoint ) );
+      input = new DataInputStream( new BufferedInputStream( fileInput, 65536 ) );
+      index = checkpoint * CHECKPOINT_INTERVAL;
+    }
+
+    RowMetaAndData read() throws HopException, IOException {
+      if ( input.readBoolean() ) {
+        rowMeta = new RowMeta( input );
+      }
+      Object[] data = rowMeta.readData( input );
+      index++;
+      return new RowMetaAndData( rowMeta, data );
+    }
+
+    @Override
+    public void close() {
+      try {
+        input.close();
+      } catch ( IOException e ) {
+        // Nothing left to do
+      }
+    }
+  }
+}
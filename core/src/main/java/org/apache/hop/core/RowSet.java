@@ -144,4 +144,60 @@ public interface RowSet {
    * Clear this rowset: remove all rows and remove the "done" flag.
    */
   public abstract void clear();
+
+  /**
+   * Offer a number of rows to this rowset. If the buffer is full, wait (block) for a period of time defined in this call
+   * for every row that doesn't fit. Row set implementations that can transfer arrays of rows in one go override this
+   * method.
+   *
+   * @param rowMeta The description of the row data
+   * @param rows    the rows of data
+   * @param offset  the index of the first row to offer
+   * @param count   the number of rows to offer
+   * @param time    The number of units of time
+   * @param tu      The unit of time to use
+   * @return the number of rows that were added to the rowset. This is less than count if the buffer stayed full.
+   */
+  public default int putRowsWait( RowMetaInterface rowMeta, Object[][] rows, int offset, int count, long time,
+                                  TimeUnit tu ) {
+    int nr = 0;
+    while ( nr < count && putRowWait( rowMeta, rows[ offset + nr ], time, tu ) ) {
+      nr++;
+    }
+    return nr;
+  }
+
+  /**
+   * Get the rows that are immediately available in this rowset, without waiting. Row set implementations that can
+   * transfer arrays of rows in one go override this method.
+   *
+   * @param rows   the array to copy the rows into
+   * @param offset the index in the array of the first row to copy
+   * @param max    the maximum number of rows to copy
+   * @return the number of rows copied into the array
+   */
+  public default int getRowsImmediate( Object[][] rows, int offset, int max ) {
+    int nr = 0;
+    Object[] row;
+    while ( nr < max && ( row = getRowImmediate() ) != null ) {
+      rows[ offset + nr++ ] = row;
+    }
+    return nr;
+  }
+
+  /**
+   * Set the notifier of the step that reads from this rowset. The rowset signals it when rows become available and
+   * when it's done, so that the reading step doesn't have to poll. Row sets that can't signal ignore the notifier.
+   *
+   * @param notifier the notifier of the consuming step
+   */
+  public default void setConsumerNotifier( RowSetNotifier notifier ) {
+  }
+
+  /**
+   * @return the notifier of the consuming step, or null if this rowset doesn't signal its consumer
+   */
+  public default RowSetNotifier getConsumerNotifier() {
+    return null;
+  }
 }
@@ -0,0 +1,99 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wakes up a step that is waiting for input. The row sets that feed a step signal its notifier when rows become
+ * available or when they are done, and the step signals it when it is stopped, paused or resumed. This way a waiting
+ * step doesn't need to poll its input row sets with short timeouts.
+ * <p>
+ * Signalling is cheap when nobody waits: it only increments a version counter. The lock is only taken when a consumer
+ * is actually waiting.
+ *
+ * @see RowSet#setConsumerNotifier(RowSetNotifier)
+ */
+public class RowSetNotifier {
+
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+
+  /**
+   * @return the current version, pass it to {@link #await(long, long, TimeUnit)} to wait for the next signal
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Signal a change to the waiting consumer, if any.
+   */
+  public void signal() {
+    version.incrementAndGet();
+    if ( waiters.get() > 0 ) {
+      lock.lock();
+      try {
+        changed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Wait until this notifier is signalled after the given version was read.
+   *
+   * @param seenVersion the version read before checking the input for the last time
+   * @param timeout     the maximum time to wait
+   * @param unit        the unit of the timeout
+   * @return true if a signal arrived, false if the timeout elapsed
+   * @throws InterruptedException in case the waiting thread is interrupted
+   */
+  public boolean await( long seenVersion, long timeout, TimeUnit unit ) throws InterruptedException {
+    long nanos = unit.toNanos( timeout );
+    lock.lock();
+    try {
+      waiters.incrementAndGet();
+      try {
+        while ( version.get() == seenVersion ) {
+          if ( nanos <= 0L ) {
+            return false;
+          }
+          nanos = changed.awaitNanos( nanos );
+        }
+        return true;
+      } finally {
+        waiters.decrementAndGet();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+}
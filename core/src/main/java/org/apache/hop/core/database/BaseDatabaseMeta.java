@@ -873,6 +873,102 @@ public abstract class BaseDatabaseMeta implements Cloneable, DatabaseInterface {
     return "TRUNCATE TABLE " + tableName;
   }
 
+  /**
+   * @return false: only databases known to support MERGE or an equivalent enable set-based inserts and updates
+   */
+  @Override
+  public boolean supportsMergeStatement() {
+    return false;
+  }
+
+  @Override
+  public String getStagingTableName( String tableName ) {
+    return tableName;
+  }
+
+  /**
+   * @return a regular table by default, the step drops it again when it's done
+   */
+  @Override
+  public String getCreateStagingTableStatement( String tableName, String fieldDefinitions ) {
+    return "CREATE TABLE " + tableName + " ( " + fieldDefinitions + " )";
+  }
+
+  /**
+   * @return a standard SQL MERGE statement
+   */
+  @Override
+  public String getMergeStatement( String tableName, String stagingTableName, String[] keyFields,
+                                   String[] insertFields, String[] updateFields ) {
+    StringBuilder sql = new StringBuilder( 200 );
+    sql.append( "MERGE INTO " ).append( tableName ).append( " t USING " ).append( stagingTableName ).append( " s ON ( " )
+      .append( getStagingJoinCondition( "t", "s", keyFields ) ).append( " )" );
+    if ( updateFields.length > 0 ) {
+      sql.append( " WHEN MATCHED THEN UPDATE SET " ).append( getStagingSetClause( "s", updateFields ) );
+    }
+    sql.append( " WHEN NOT MATCHED THEN INSERT ( " ).append( String.join( ", ", insertFields ) )
+      .append( " ) VALUES ( " );
+    for ( int i = 0; i < insertFields.length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( "s." ).append( insertFields[ i ] );
+    }
+    sql.append( " )" );
+    return sql.toString();
+  }
+
+  /**
+   * @return an UPDATE with correlated sub-queries, which works on about any database
+   */
+  @Override
+  public String getUpdateFromStatement( String tableName, String stagingTableName, String[] keyFields,
+                                        String[] updateFields ) {
+    String condition = getStagingJoinCondition( tableName, "s", keyFields );
+    StringBuilder sql = new StringBuilder( 200 );
+    sql.append( "UPDATE " ).append( tableName ).append( " SET " );
+    for ( int i = 0; i < updateFields.length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( updateFields[ i ] ).append( " = ( SELECT s." ).append( updateFields[ i ] ).append( " FROM " )
+        .append( stagingTableName ).append( " s WHERE " ).append( condition ).append( " )" );
+    }
+    sql.append( " WHERE EXISTS ( SELECT 1 FROM " ).append( stagingTableName ).append( " s WHERE " ).append( condition )
+      .append( " )" );
+    return sql.toString();
+  }
+
+  /**
+   * @return the condition matching the key fields of the target and the staging table, e.g. "t.id = s.id AND ..."
+   */
+  protected String getStagingJoinCondition( String targetAlias, String stagingAlias, String[] keyFields ) {
+    StringBuilder condition = new StringBuilder();
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      if ( i > 0 ) {
+        condition.append( " AND " );
+      }
+      condition.append( targetAlias ).append( '.' ).append( keyFields[ i ] ).append( " = " ).append( stagingAlias )
+        .append( '.' ).append( keyFields[ i ] );
+    }
+    return condition.toString();
+  }
+
+  /**
+   * @return the assignments of the SET clause, e.g. "name = s.name, ..."
+   */
+  protected String getStagingSetClause( String stagingAlias, String[] updateFields ) {
+    StringBuilder set = new StringBuilder();
+    for ( int i = 0; i < updateFields.length; i++ ) {
+      if ( i > 0 ) {
+        set.append( ", " );
+      }
+      set.append( updateFields[ i ] ).append( " = " ).append( stagingAlias ).append( '.' )
+        .append( updateFields[ i ] );
+    }
+    return set.toString();
+  }
+
   /**
    * Returns the minimal SQL to launch in order to determine the layout of the resultset for a given database table
    *
@@ -3538,6 +3538,89 @@ public class Database implements VariableSpace, LoggingObjectInterface {
     }
   }
 
+  /**
+   * Write the log records of a number of subjects, for example all the steps of a transformation, to a log table. New
+   * records are inserted with a single prepared statement, in batches if the database supports it. Updates of records
+   * with a key field are still written one by one. The records are written right away, on the calling thread; use
+   * {@link org.apache.hop.core.logging.AsyncLogTableWriter} to write them on the logging writer thread instead.
+   *
+   * @param logTable the log table to write to
+   * @param status   the logging status
+   * @param subjects the subjects to write a log record for
+   * @param parent   the parent of the subjects
+   * @throws HopDatabaseException in case the log table is configured to fail on logging errors
+   */
+  public void writeLogRecords( LogTableCoreInterface logTable, LogStatus status, List<?> subjects, Object parent )
+    throws HopDatabaseException {
+    boolean update = ( logTable.getKeyField() != null ) && !status.equals( LogStatus.START );
+    if ( update ) {
+      for ( Object subject : subjects ) {
+        writeLogRecord( logTable, status, subject, parent );
+      }
+      return;
+    }
+
+    List<RowMetaAndData> logRecords = new ArrayList<>( subjects.size() );
+    try {
+      for ( Object subject : subjects ) {
+        RowMetaAndData logRecord = logTable.getLogRecord( status, subject, parent );
+        if ( logRecord != null ) {
+          logRecords.add( logRecord );
+        }
+      }
+    } catch ( Exception e ) {
+      DatabaseLogExceptionFactory.getExceptionStrategy( logTable, e )
+        .registerException( log, e, PKG, "Database.Error.WriteLogTable",
+          environmentSubstitute( logTable.getActualTableName() ) );
+      return;
+    }
+    insertLogRecords( logTable, logRecords );
+  }
+
+  /**
+   * Insert log records that were taken earlier, with a single prepared statement and in batches if the database
+   * supports it.
+   *
+   * @param logTable   the log table to write to
+   * @param logRecords the log records, all with the same row metadata
+   * @throws HopDatabaseException in case the log table is configured to fail on logging errors
+   */
+  public void insertLogRecords( LogTableCoreInterface logTable, List<RowMetaAndData> logRecords )
+    throws HopDatabaseException {
+    PreparedStatement ps = null;
+    try {
+      RowMetaInterface rowMeta = null;
+      boolean batch = false;
+      int pending = 0;
+      for ( RowMetaAndData logRecord : logRecords ) {
+        if ( ps == null ) {
+          rowMeta = logRecord.getRowMeta();
+          ps = prepareSQL( getInsertStatement( environmentSubstitute( logTable.getActualSchemaName() ),
+            environmentSubstitute( logTable.getActualTableName() ), rowMeta ) );
+          batch = getUseBatchInsert( true );
+        }
+        setValues( rowMeta, logRecord.getData(), ps );
+        pending = insertRow( ps, batch ) ? 0 : pending + 1;
+      }
+      if ( ps != null ) {
+        emptyAndCommit( ps, batch, pending );
+        ps = null;
+      }
+    } catch ( Exception e ) {
+      DatabaseLogExceptionFactory.getExceptionStrategy( logTable, e )
+        .registerException( log, e, PKG, "Database.Error.WriteLogTable",
+          environmentSubstitute( logTable.getActualTableName() ) );
+    } finally {
+      if ( ps != null ) {
+        try {
+          ps.close();
+        } catch ( SQLException e ) {
+          // Already handled the original error
+        }
+      }
+    }
+  }
+
   public void cleanupLogRecords( LogTableCoreInterface logTable ) throws HopDatabaseException {
     double timeout = Const.toDouble( Const.trim( environmentSubstitute( logTable.getTimeoutInDays() ) ), 0.0 );
     if ( timeout < 0.000001 ) {
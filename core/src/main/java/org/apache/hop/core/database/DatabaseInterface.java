@@ -510,6 +510,66 @@ public interface DatabaseInterface extends Cloneable {
    */
   public String getTruncateTableStatement( String tableName );
 
+  /**
+   * @return true if this database can insert and update the rows of a table from a staging table with a single
+   * statement, see {@link #getMergeStatement(String, String, String[], String[], String[])}. False by default.
+   */
+  public default boolean supportsMergeStatement() {
+    return false;
+  }
+
+  /**
+   * @param tableName The name for the staging table, without schema
+   * @return The name to use for a staging table, private to the connection if this database supports that
+   */
+  public default String getStagingTableName( String tableName ) {
+    return tableName;
+  }
+
+  /**
+   * @param tableName        The name of the staging table, as returned by {@link #getStagingTableName(String)}
+   * @param fieldDefinitions The comma separated column definitions
+   * @return The SQL statement to create a staging table, dropped again when the rows are merged, or null if staging
+   * tables are not supported (the default)
+   */
+  public default String getCreateStagingTableStatement( String tableName, String fieldDefinitions ) {
+    return null;
+  }
+
+  /**
+   * Get the statement to insert the rows of the staging table that are not found in the target table and to update the
+   * ones that are. The key fields are compared with "=". Field names are quoted already and are the same in both
+   * tables.
+   *
+   * @param tableName        The quoted schema and table name of the target table
+   * @param stagingTableName The name of the staging table
+   * @param keyFields        The fields to match the rows on
+   * @param insertFields     The fields to insert
+   * @param updateFields     The fields to update, none to leave the existing rows alone
+   * @return The SQL statement to merge the staging table into the target table, or null if it's not supported (the
+   * default)
+   */
+  public default String getMergeStatement( String tableName, String stagingTableName, String[] keyFields,
+                                           String[] insertFields, String[] updateFields ) {
+    return null;
+  }
+
+  /**
+   * Get the statement to update the rows of the target table that are found in the staging table. The key fields are
+   * compared with "=". Field names are quoted already and are the same in both tables.
+   *
+   * @param tableName        The quoted schema and table name of the target table
+   * @param stagingTableName The name of the staging table
+   * @param keyFields        The fields to match the rows on
+   * @param updateFields     The fields to update
+   * @return The SQL statement to update the target table from the staging table, or null if it's not supported (the
+   * default)
+   */
+  public default String getUpdateFromStatement( String tableName, String stagingTableName, String[] keyFields,
+                                                String[] updateFields ) {
+    return null;
+  }
+
   /**
    * @return true if the database rounds floating point numbers to the right precision. For example if the target field
    * is number(7,2) the value 12.399999999 is converted into 12.40
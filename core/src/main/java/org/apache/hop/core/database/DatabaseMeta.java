@@ -1517,6 +1517,57 @@ public class DatabaseMeta implements Cloneable, VariableSpace, IHopMetaStoreElem
     return databaseInterface.getTruncateTableStatement( getQuotedSchemaTableCombination( schema, tableName ) );
   }
 
+  /**
+   * @return true if the database can insert and update the rows of a table from a staging table with a single
+   * statement
+   */
+  public boolean supportsMergeStatement() {
+    return databaseInterface.supportsMergeStatement();
+  }
+
+  /**
+   * @param tableName The name for the staging table, without schema
+   * @return The name to use for a staging table, private to the connection if the database supports that
+   */
+  public String getStagingTableName( String tableName ) {
+    return databaseInterface.getStagingTableName( tableName );
+  }
+
+  /**
+   * @param tableName        The name of the staging table
+   * @param fieldDefinitions The comma separated column definitions
+   * @return The SQL statement to create the staging table, or null if the database doesn't support staging tables
+   */
+  public String getCreateStagingTableStatement( String tableName, String fieldDefinitions ) {
+    return databaseInterface.getCreateStagingTableStatement( tableName, fieldDefinitions );
+  }
+
+  /**
+   * @param schemaTable      The quoted schema and table name of the target table
+   * @param stagingTableName The name of the staging table
+   * @param keyFields        The quoted fields to match the rows on
+   * @param insertFields     The quoted fields to insert
+   * @param updateFields     The quoted fields to update, none to leave existing rows alone
+   * @return The SQL statement to insert and update the target table from the staging table, or null if not supported
+   */
+  public String getMergeStatement( String schemaTable, String stagingTableName, String[] keyFields,
+                                   String[] insertFields, String[] updateFields ) {
+    return databaseInterface.getMergeStatement( schemaTable, stagingTableName, keyFields, insertFields,
+      updateFields );
+  }
+
+  /**
+   * @param schemaTable      The quoted schema and table name of the target table
+   * @param stagingTableName The name of the staging table
+   * @param keyFields        The quoted fields to match the rows on
+   * @param updateFields     The quoted fields to update
+   * @return The SQL statement to update the target table from the staging table, or null if not supported
+   */
+  public String getUpdateFromStatement( String schemaTable, String stagingTableName, String[] keyFields,
+                                        String[] updateFields ) {
+    return databaseInterface.getUpdateFromStatement( schemaTable, stagingTableName, keyFields, updateFields );
+  }
+
   /**
    * @return true if the database rounds floating point numbers to the right precision. For example if the target field
    * is number(7,2) the value 12.399999999 is converted into 12.40
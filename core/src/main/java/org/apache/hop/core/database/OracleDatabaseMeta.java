@@ -596,6 +596,11 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements DatabaseInte
     return false;
   }
 
+  @Override
+  public boolean supportsMergeStatement() {
+    return true;
+  }
+
   /**
    * @return true if Hop can create a repository on this type of database.
    */
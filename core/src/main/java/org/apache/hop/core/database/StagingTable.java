@@ -0,0 +1,354 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.i18n.BaseMessages;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A table on the same connection that rows are loaded into with batched inserts, so that they can be applied to the
+ * target table with a single set-based statement like {@link DatabaseMeta#getMergeStatement}. The columns of the
+ * staging table have the same names as the target table columns they're meant for. The table is created private to
+ * the connection where the database supports it, and dropped again with {@link #drop()}.
+ * <p>
+ * The input rows are collected in chunks. Of the rows in a chunk with the same key only the last one is loaded into the
+ * staging table, a single statement can't insert or update the same target row twice. Every staging row also gets its
+ * number in the chunk, so that the rows the target table doesn't have can be told apart.
+ */
+public class StagingTable {
+  private static final Class<?> PKG = StagingTable.class; // for i18n purposes, needed by Translator!!
+
+  /**
+   * The extra column holding the number of the staging row in the chunk
+   */
+  public static final String ROW_NUMBER_COLUMN = "HOP_STG_ROWNR";
+
+  private final Database db;
+  private final DatabaseMeta databaseMeta;
+  private final String name;
+
+  // Column name (upper case) --> stream field and --> column name as given
+  //
+  private final Map<String, String> columnFields = new LinkedHashMap<String, String>();
+  private final Map<String, String> columnNames = new HashMap<String, String>();
+
+  private RowMetaInterface rowMeta;
+  private RowMetaInterface columns;
+  private RowMetaInterface stagingRowMeta;
+  private int[] fieldIndexes;
+  private int[] keyIndexes;
+
+  private PreparedStatement insertStatement;
+  private boolean useBatch;
+
+  // The current chunk: the input rows with their keys, and the staging rows by key, the last one wins
+  //
+  private final List<Object[]> chunkRows = new ArrayList<Object[]>();
+  private final List<List<Object>> chunkKeys = new ArrayList<List<Object>>();
+  private final Map<List<Object>, Object[]> stagingRows = new LinkedHashMap<List<Object>, Object[]>();
+  private final List<List<Object>> loadedKeys = new ArrayList<List<Object>>();
+
+  /**
+   * @param db the connected database holding the target table
+   */
+  public StagingTable( Database db ) {
+    this.db = db;
+    this.databaseMeta = db.getDatabaseMeta();
+
+    // Short enough for the databases with a 30 character limit on identifiers
+    //
+    String id = UUID.randomUUID().toString().replace( "-", "" ).substring( 0, 16 ).toUpperCase();
+    this.name = databaseMeta.getStagingTableName( "HOP_STG_" + id );
+  }
+
+  /**
+   * Add a column of the target table, before the staging table is created.
+   *
+   * @param column      the name of the column in the target table
+   * @param streamField the field of the input rows holding the values for the column
+   * @return false if the column was added before, from the same field
+   * @throws HopDatabaseException if the column was added before from another field
+   */
+  public boolean addColumn( String column, String streamField ) throws HopDatabaseException {
+    String previous = columnFields.put( column.toUpperCase(), streamField );
+    if ( previous != null && !previous.equalsIgnoreCase( streamField ) ) {
+      throw new HopDatabaseException( BaseMessages.getString( PKG, "StagingTable.Exception.ColumnTwice", column,
+        previous, streamField ) );
+    }
+    columnNames.put( column.toUpperCase(), column );
+    return previous == null;
+  }
+
+  /**
+   * Create the staging table and prepare the insert statement. The columns get the type of the column in the target
+   * table, or of the field when the target table doesn't know the column.
+   *
+   * @param schemaName the schema of the target table
+   * @param tableName  the target table
+   * @param rowMeta    the layout of the input rows
+   * @param keyIndexes the indexes of the key fields in the input rows
+   */
+  public void create( String schemaName, String tableName, RowMetaInterface rowMeta, int[] keyIndexes )
+    throws HopDatabaseException {
+    this.rowMeta = rowMeta;
+    this.keyIndexes = keyIndexes;
+
+    RowMetaInterface tableRowMeta = db.getTableFieldsMeta( schemaName, tableName );
+    columns = new RowMeta();
+    stagingRowMeta = new RowMeta();
+    fieldIndexes = new int[ columnFields.size() ];
+    int index = 0;
+    for ( Map.Entry<String, String> column : columnFields.entrySet() ) {
+      String columnName = columnNames.get( column.getKey() );
+      fieldIndexes[ index ] = rowMeta.indexOfValue( column.getValue() );
+      ValueMetaInterface streamValue = rowMeta.getValueMeta( fieldIndexes[ index ] );
+      ValueMetaInterface tableValue = tableRowMeta == null ? null : tableRowMeta.searchValueMeta( columnName );
+      ValueMetaInterface stagingColumn = tableValue != null ? tableValue.clone() : streamValue.clone();
+      stagingColumn.setName( columnName );
+      columns.addValueMeta( stagingColumn );
+      stagingRowMeta.addValueMeta( streamValue.clone() );
+      index++;
+    }
+    ValueMetaInterface rowNumber = new ValueMetaInteger( ROW_NUMBER_COLUMN );
+    rowNumber.setLength( 9 );
+    columns.addValueMeta( rowNumber );
+    stagingRowMeta.addValueMeta( rowNumber.clone() );
+
+    StringBuilder definitions = new StringBuilder();
+    StringBuilder fields = new StringBuilder();
+    StringBuilder parameters = new StringBuilder();
+    for ( int i = 0; i < columns.size(); i++ ) {
+      ValueMetaInterface column = columns.getValueMeta( i );
+      String field = databaseMeta.quoteField( column.getName() );
+      if ( i > 0 ) {
+        definitions.append( ", " );
+        fields.append( ", " );
+        parameters.append( ", " );
+      }
+      definitions.append( field ).append( ' ' )
+        .append( databaseMeta.getFieldDefinition( column, null, null, false, false, false ) );
+      fields.append( field );
+      parameters.append( '?' );
+    }
+
+    String createStatement = databaseMeta.getCreateStagingTableStatement( name, definitions.toString() );
+    if ( createStatement == null ) {
+      throw new HopDatabaseException( BaseMessages.getString( PKG, "StagingTable.Exception.NotSupported" ) );
+    }
+    execute( createStatement );
+    insertStatement = db.prepareSQL( "INSERT INTO " + name + " ( " + fields + " ) VALUES ( " + parameters + " )" );
+    useBatch = db.getUseBatchInsert( true );
+  }
+
+  /**
+   * Add an input row to the current chunk.
+   *
+   * @param row the input row
+   */
+  public void addRow( Object[] row ) throws HopException {
+    Object[] stagingRow = new Object[ fieldIndexes.length + 1 ];
+    for ( int i = 0; i < fieldIndexes.length; i++ ) {
+      stagingRow[ i ] = row[ fieldIndexes[ i ] ];
+    }
+    Object[] key = new Object[ keyIndexes.length ];
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      key[ i ] = rowMeta.getValueMeta( keyIndexes[ i ] ).convertToNormalStorageType( row[ keyIndexes[ i ] ] );
+    }
+    List<Object> chunkKey = Arrays.asList( key );
+    stagingRows.put( chunkKey, stagingRow );
+    chunkRows.add( row );
+    chunkKeys.add( chunkKey );
+  }
+
+  /**
+   * Insert the staging rows of the current chunk into the staging table.
+   */
+  public void load() throws HopDatabaseException {
+    loadedKeys.clear();
+    for ( Map.Entry<List<Object>, Object[]> stagingRow : stagingRows.entrySet() ) {
+      stagingRow.getValue()[ fieldIndexes.length ] = (long) loadedKeys.size();
+      loadedKeys.add( stagingRow.getKey() );
+      db.setValues( stagingRowMeta, stagingRow.getValue(), insertStatement );
+      try {
+        if ( useBatch ) {
+          insertStatement.addBatch();
+        } else {
+          insertStatement.executeUpdate();
+        }
+      } catch ( SQLException e ) {
+        throw new HopDatabaseException( "Unable to add row to staging table " + name, e );
+      }
+    }
+    if ( useBatch && !loadedKeys.isEmpty() ) {
+      try {
+        insertStatement.executeBatch();
+        insertStatement.clearBatch();
+      } catch ( SQLException e ) {
+        throw new HopDatabaseException( "Unable to insert rows into staging table " + name, e );
+      }
+    }
+  }
+
+  /**
+   * @param schemaTable the quoted schema and table name of the target table
+   * @param keyFields   the quoted key fields, the same in both tables
+   * @return the number of loaded staging rows without a match in the target table
+   */
+  public long countRowsNotIn( String schemaTable, String[] keyFields ) throws HopDatabaseException {
+    Long count = db.getOneRow( "SELECT COUNT(*) FROM " + name + " s WHERE " + getNotExists( schemaTable, keyFields ) )
+      .getInteger( 0, 0L );
+    return count == null ? 0L : count;
+  }
+
+  /**
+   * Take the rows of the current chunk without a match in the target table out of the chunk. They stay in the staging
+   * table, a statement joining it with the target table won't find them either.
+   *
+   * @param schemaTable the quoted schema and table name of the target table
+   * @param keyFields   the quoted key fields, the same in both tables
+   * @return the input rows taken out of the chunk
+   */
+  public List<Object[]> removeRowsNotIn( String schemaTable, String[] keyFields ) throws HopDatabaseException {
+    String sql = "SELECT s." + databaseMeta.quoteField( ROW_NUMBER_COLUMN ) + " FROM " + name + " s WHERE "
+      + getNotExists( schemaTable, keyFields );
+    List<Object[]> numbers = db.getRows( sql, -1 );
+    RowMetaInterface numbersMeta = db.getReturnRowMeta();
+    List<Object[]> removed = new ArrayList<Object[]>();
+    if ( numbers == null || numbers.isEmpty() ) {
+      return removed;
+    }
+
+    Set<List<Object>> missing = new HashSet<List<Object>>();
+    for ( Object[] number : numbers ) {
+      try {
+        missing.add( loadedKeys.get( numbersMeta.getInteger( number, 0 ).intValue() ) );
+      } catch ( HopException e ) {
+        throw new HopDatabaseException( "Unable to read a row number from staging table " + name, e );
+      }
+    }
+    for ( int i = chunkRows.size() - 1; i >= 0; i-- ) {
+      if ( missing.contains( chunkKeys.get( i ) ) ) {
+        removed.add( 0, chunkRows.remove( i ) );
+        chunkKeys.remove( i );
+      }
+    }
+    stagingRows.keySet().removeAll( missing );
+    return removed;
+  }
+
+  private String getNotExists( String schemaTable, String[] keyFields ) {
+    StringBuilder condition = new StringBuilder();
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      if ( i > 0 ) {
+        condition.append( " AND " );
+      }
+      condition.append( "t." ).append( keyFields[ i ] ).append( " = s." ).append( keyFields[ i ] );
+    }
+    return "NOT EXISTS ( SELECT 1 FROM " + schemaTable + " t WHERE " + condition + " )";
+  }
+
+  /**
+   * Execute a statement that works with the staging table.
+   *
+   * @param sql the SQL statement
+   * @return the number of rows affected
+   */
+  public int execute( String sql ) throws HopDatabaseException {
+    try ( Statement statement = db.getConnection().createStatement() ) {
+      return Math.max( statement.executeUpdate( databaseMeta.stripCR( sql ) ), 0 );
+    } catch ( SQLException e ) {
+      throw new HopDatabaseException( "Unable to execute SQL statement [" + sql + "]", e );
+    }
+  }
+
+  /**
+   * Remove all rows from the staging table and start a new chunk.
+   */
+  public void clear() throws HopDatabaseException {
+    try {
+      if ( !loadedKeys.isEmpty() ) {
+        execute( "DELETE FROM " + name );
+      }
+    } finally {
+      chunkRows.clear();
+      chunkKeys.clear();
+      stagingRows.clear();
+      loadedKeys.clear();
+    }
+  }
+
+  /**
+   * Drop the staging table.
+   */
+  public void drop() throws HopDatabaseException {
+    if ( insertStatement != null ) {
+      db.closePreparedStatement( insertStatement );
+      insertStatement = null;
+    }
+    execute( "DROP TABLE " + name );
+  }
+
+  /**
+   * @return the name of the staging table, to be used as is in SQL statements
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the input rows of the current chunk
+   */
+  public List<Object[]> getChunkRows() {
+    return chunkRows;
+  }
+
+  /**
+   * @return the number of rows of the current chunk that are not loaded into the staging table because a later row has
+   * the same key
+   */
+  public int getNrDuplicates() {
+    return chunkRows.size() - stagingRows.size();
+  }
+
+  public RowMetaInterface getColumns() {
+    return columns;
+  }
+}
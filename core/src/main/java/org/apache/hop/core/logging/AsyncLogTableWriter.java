@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.logging;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.variables.VariableSpace;
+import org.apache.hop.i18n.BaseMessages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the log records of the steps, job entries, log channels and metrics of a finished transformation or job to
+ * their log table on the writer thread of {@link AsyncLoggingEventListener}, if that's configured with
+ * {@link Const#HOP_LOG_TABLES_ASYNC}. The records themselves are taken right away on the calling thread, since the
+ * steps and job entries they describe keep on changing; only connecting to the database, inserting the records and
+ * cleaning up old records is left to the writer thread.
+ */
+public class AsyncLogTableWriter {
+
+  private static final Class<?> PKG = AsyncLogTableWriter.class; // for i18n purposes, needed by Translator!!
+
+  private AsyncLogTableWriter() {
+  }
+
+  /**
+   * @return true if the log tables are written on the logging writer thread
+   */
+  public static boolean isEnabled() {
+    return "Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.HOP_LOG_TABLES_ASYNC, "N" ) );
+  }
+
+  /**
+   * Take the log records of the given subjects and hand them over to the writer thread.
+   *
+   * @param db         the database to write to, not connected yet
+   * @param space      the variables to use for the database connection
+   * @param commitSize the log commit size
+   * @param logTable   the log table to write to
+   * @param status     the logging status
+   * @param subjects   the subjects to write a log record for
+   * @param parent     the parent of the subjects
+   * @param log        the log channel to report errors to
+   * @throws HopException in case a log record can't be taken
+   */
+  public static void write( final Database db, final VariableSpace space, final int commitSize,
+                            final LogTableCoreInterface logTable, LogStatus status, List<?> subjects, Object parent,
+                            final LogChannelInterface log ) throws HopException {
+    final List<RowMetaAndData> logRecords = new ArrayList<>( subjects.size() );
+    for ( Object subject : subjects ) {
+      RowMetaAndData logRecord = logTable.getLogRecord( status, subject, parent );
+      if ( logRecord != null ) {
+        logRecords.add( logRecord );
+      }
+    }
+
+    AsyncLoggingEventListener.submit( new Runnable() {
+      @Override
+      public void run() {
+        insert( db, space, commitSize, logTable, logRecords, log );
+      }
+    } );
+  }
+
+  static void insert( Database db, VariableSpace space, int commitSize, LogTableCoreInterface logTable,
+                      List<RowMetaAndData> logRecords, LogChannelInterface log ) {
+    try {
+      db.shareVariablesWith( space );
+      db.connect();
+      db.setCommit( commitSize );
+
+      if ( !logRecords.isEmpty() ) {
+        db.insertLogRecords( logTable, logRecords );
+      }
+
+      // Also time-out the log records in here...
+      //
+      db.cleanupLogRecords( logTable );
+
+      if ( !db.isAutoCommit() ) {
+        db.commitLog( true, logTable );
+      }
+    } catch ( Exception e ) {
+      log.logError( BaseMessages.getString( PKG, "AsyncLogTableWriter.Error.WriteLogTable",
+        space.environmentSubstitute( logTable.getActualTableName() ) ), e );
+    } finally {
+      db.disconnect();
+    }
+  }
+}
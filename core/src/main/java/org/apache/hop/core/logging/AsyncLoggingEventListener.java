@@ -0,0 +1,381 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.logging;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.EnvUtil;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands the logging events over to another listener on a background thread. The threads doing the logging only add
+ * the event to a bounded queue; the writer thread takes the events off the queue in batches, passes them on and
+ * flushes the listener after every batch if it's {@link Flushable}. What happens with an event when the queue is full
+ * is decided by the {@link OverflowPolicy}.
+ * <p>
+ * All the asynchronous listeners share a single writer thread and a single shutdown hook, so wrapping the listener of
+ * every job entry doesn't start a thread each. The same thread also runs the log table writes handed over by
+ * {@link AsyncLogTableWriter}. The writer thread stops once all listeners are closed and there are no log table writes
+ * left. The flip side is that a slow listener or log table holds up the others.
+ */
+public class AsyncLoggingEventListener implements HopLoggingEventListener {
+
+  public enum OverflowPolicy {
+    /**
+     * Wait until there is room in the queue.
+     */
+    BLOCK,
+    /**
+     * Drop detailed, debug and row level events, wait for the others.
+     */
+    DROP,
+    /**
+     * Keep one out of every {@link #SAMPLE_RATE} detailed, debug and row level events, wait for the others.
+     */
+    SAMPLE;
+
+    public static OverflowPolicy getPolicy( String code ) {
+      for ( OverflowPolicy policy : values() ) {
+        if ( policy.name().equalsIgnoreCase( code ) ) {
+          return policy;
+        }
+      }
+      return BLOCK;
+    }
+  }
+
+  public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+  public static final int SAMPLE_RATE = 10;
+
+  /**
+   * The maximum number of events passed on before the listener is flushed.
+   */
+  private static final int BATCH_SIZE = 1000;
+
+  private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+  private static final long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+
+  private final HopLoggingEventListener listener;
+  private final int queueSize;
+  private final OverflowPolicy overflowPolicy;
+
+  private final Queue<HopLoggingEvent> queue;
+  private final AtomicInteger nrQueued;
+  private final AtomicLong nrWritten;
+  private final AtomicLong nrDropped;
+  private final AtomicLong nrOverflowed;
+
+  private final Object writeLock;
+  private volatile boolean closed;
+
+  /**
+   * The listeners that are not closed yet, served by the writer thread
+   */
+  private static final Set<AsyncLoggingEventListener> openListeners = new CopyOnWriteArraySet<>();
+
+  /**
+   * Other work for the writer thread, like writing log tables
+   */
+  private static final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+  private static volatile Thread writer;
+  private static Thread shutdownHook;
+
+  /**
+   * @param listener       the listener to pass the events on to
+   * @param queueSize      the maximum number of events waiting to be passed on
+   * @param overflowPolicy what to do with new events when the queue is full
+   */
+  public AsyncLoggingEventListener( HopLoggingEventListener listener, int queueSize, OverflowPolicy overflowPolicy ) {
+    this.listener = listener;
+    this.queueSize = queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE;
+    this.overflowPolicy = overflowPolicy;
+
+    queue = new ConcurrentLinkedQueue<>();
+    nrQueued = new AtomicInteger();
+    nrWritten = new AtomicLong();
+    nrDropped = new AtomicLong();
+    nrOverflowed = new AtomicLong();
+    writeLock = new Object();
+
+    register( this );
+  }
+
+  private static synchronized void register( AsyncLoggingEventListener listener ) {
+    openListeners.add( listener );
+    startWriter();
+  }
+
+  /**
+   * Run the given task on the writer thread, after the tasks submitted before it.
+   *
+   * @param task the task to run
+   */
+  static void submit( Runnable task ) {
+    tasks.offer( task );
+    synchronized ( AsyncLoggingEventListener.class ) {
+      startWriter();
+    }
+    LockSupport.unpark( writer );
+  }
+
+  private static void startWriter() {
+    if ( writer == null ) {
+      Thread thread = new Thread( AsyncLoggingEventListener::writeEvents, "Hop logging writer" );
+      thread.setDaemon( true );
+      writer = thread;
+      thread.start();
+    }
+    if ( shutdownHook == null ) {
+      // Don't lose the last events when the JVM stops
+      //
+      shutdownHook = new Thread( AsyncLoggingEventListener::closeAll, "Hop logging writer shutdown" );
+      Runtime.getRuntime().addShutdownHook( shutdownHook );
+    }
+  }
+
+  /**
+   * @return true if the writer thread stopped because there are no open listeners and no tasks left
+   */
+  private static synchronized boolean stopWriterIfIdle() {
+    if ( openListeners.isEmpty() && tasks.isEmpty() ) {
+      writer = null;
+      return true;
+    }
+    return false;
+  }
+
+  private static void closeAll() {
+    for ( AsyncLoggingEventListener listener : openListeners ) {
+      listener.close();
+    }
+    runTasks();
+  }
+
+  private static int runTasks() {
+    int done = 0;
+    Runnable task;
+    while ( ( task = tasks.poll() ) != null ) {
+      try {
+        task.run();
+      } catch ( RuntimeException e ) {
+        // The task reports its own errors, keep on running the others
+      }
+      done++;
+    }
+    return done;
+  }
+
+  /**
+   * Wrap the given listener so that it receives the events on a background thread, if that's configured with
+   * {@link Const#HOP_LOG_ASYNC}.
+   *
+   * @param listener the listener
+   * @return the asynchronous listener or the given listener if asynchronous logging is not enabled
+   */
+  public static HopLoggingEventListener wrapIfConfigured( HopLoggingEventListener listener ) {
+    if ( !"Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.HOP_LOG_ASYNC, "N" ) ) ) {
+      return listener;
+    }
+    int queueSize = Const.toInt( EnvUtil.getSystemProperty( Const.HOP_LOG_ASYNC_QUEUE_SIZE ), DEFAULT_QUEUE_SIZE );
+    OverflowPolicy policy =
+      OverflowPolicy.getPolicy( EnvUtil.getSystemProperty( Const.HOP_LOG_ASYNC_OVERFLOW_POLICY ) );
+    return new AsyncLoggingEventListener( listener, queueSize, policy );
+  }
+
+  /**
+   * Close the given listener if it's an asynchronous one, passing on the events still in the queue.
+   *
+   * @param listener the listener
+   */
+  public static void closeIfAsync( HopLoggingEventListener listener ) {
+    if ( listener instanceof AsyncLoggingEventListener ) {
+      ( (AsyncLoggingEventListener) listener ).close();
+    }
+  }
+
+  @Override
+  public void eventAdded( HopLoggingEvent event ) {
+    if ( closed ) {
+      synchronized ( writeLock ) {
+        listener.eventAdded( event );
+      }
+      return;
+    }
+    if ( nrQueued.get() >= queueSize && !acceptOverflow( event ) ) {
+      nrDropped.incrementAndGet();
+      return;
+    }
+    queue.offer( event );
+    nrQueued.incrementAndGet();
+    LockSupport.unpark( writer );
+
+    // Closed while we were adding the event: the writer doesn't look at this listener anymore
+    //
+    if ( closed ) {
+      writeAll();
+    }
+  }
+
+  private boolean acceptOverflow( HopLoggingEvent event ) {
+    boolean important = event.getLevel() == null || event.getLevel().getLevel() <= LogLevel.BASIC.getLevel();
+    switch ( overflowPolicy ) {
+      case DROP:
+        if ( !important ) {
+          return false;
+        }
+        break;
+      case SAMPLE:
+        if ( !important && nrOverflowed.incrementAndGet() % SAMPLE_RATE != 0 ) {
+          return false;
+        }
+        break;
+      default:
+        break;
+    }
+    waitForRoom();
+    return true;
+  }
+
+  private void waitForRoom() {
+    // The listener itself might log something: the writer can't wait for itself.
+    //
+    if ( Thread.currentThread() == writer ) {
+      return;
+    }
+    while ( nrQueued.get() >= queueSize && !closed ) {
+      LockSupport.unpark( writer );
+      LockSupport.parkNanos( this, FULL_WAIT_NANOS );
+    }
+  }
+
+  private static void writeEvents() {
+    while ( true ) {
+      int written = 0;
+      for ( AsyncLoggingEventListener listener : openListeners ) {
+        written += listener.writeBatch();
+      }
+      written += runTasks();
+      if ( written == 0 ) {
+        if ( stopWriterIfIdle() ) {
+          return;
+        }
+        LockSupport.parkNanos( IDLE_WAIT_NANOS );
+      }
+    }
+  }
+
+  private void writeAll() {
+    synchronized ( writeLock ) {
+      while ( doWriteBatch() > 0 ) {
+        // Keep on writing until the queue is empty
+      }
+    }
+  }
+
+  private int writeBatch() {
+    synchronized ( writeLock ) {
+      return doWriteBatch();
+    }
+  }
+
+  private int doWriteBatch() {
+    int written = 0;
+    HopLoggingEvent event;
+    while ( written < BATCH_SIZE && ( event = queue.poll() ) != null ) {
+      nrQueued.decrementAndGet();
+      try {
+        listener.eventAdded( event );
+      } catch ( RuntimeException e ) {
+        // Keep on writing the other events, there's no one to report this to
+      }
+      written++;
+    }
+    if ( written > 0 ) {
+      nrWritten.addAndGet( written );
+      if ( listener instanceof Flushable ) {
+        try {
+          ( (Flushable) listener ).flush();
+        } catch ( IOException e ) {
+          // Try again after the next batch
+        }
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Pass on the events still in the queue. Events added afterwards are passed on right away.
+   */
+  public void close() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    openListeners.remove( this );
+    writeAll();
+  }
+
+  public HopLoggingEventListener getListener() {
+    return listener;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * @return the number of events waiting to be passed on
+   */
+  public int getNrQueued() {
+    return nrQueued.get();
+  }
+
+  /**
+   * @return the number of events passed on so far
+   */
+  public long getNrWritten() {
+    return nrWritten.get();
+  }
+
+  /**
+   * @return the number of events dropped because the queue was full
+   */
+  public long getNrDropped() {
+    return nrDropped.get();
+  }
+}
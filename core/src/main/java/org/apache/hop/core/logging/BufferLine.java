@@ -35,6 +35,15 @@ public class BufferLine {
     this.nr = sequence.incrementAndGet();
   }
 
+  /**
+   * @param event the logging event
+   * @param nr    the line number, handed out by the buffer the line is added to
+   */
+  BufferLine( HopLoggingEvent event, int nr ) {
+    this.event = event;
+    this.nr = nr;
+  }
+
   public int getNr() {
     return nr;
   }
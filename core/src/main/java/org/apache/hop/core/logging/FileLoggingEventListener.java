@@ -27,10 +27,12 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.vfs.HopVFS;
 
+import java.io.Flushable;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 
-public class FileLoggingEventListener implements HopLoggingEventListener {
+public class FileLoggingEventListener implements HopLoggingEventListener, Flushable {
 
   private String filename;
   private FileObject file;
@@ -110,6 +112,13 @@ public class FileLoggingEventListener implements HopLoggingEventListener {
     }
   }
 
+  @Override
+  public void flush() throws IOException {
+    if ( outputStream != null ) {
+      outputStream.flush();
+    }
+  }
+
   public void close() throws HopException {
     try {
       if ( outputStream != null ) {
@@ -63,6 +63,7 @@ public class HopLogStore {
    */
   private HopLogStore( int maxSize, int maxLogTimeoutMinutes, boolean redirectStdOut, boolean redirectStdErr ) {
     this.appender = new LoggingBuffer( maxSize );
+    this.appender.setMaxNrLinesPerChannel( getMaxNrLinesPerChannel() );
     replaceLogCleaner( maxLogTimeoutMinutes );
 
     if ( redirectStdOut ) {
@@ -156,6 +157,7 @@ public class HopLogStore {
     if ( store != null ) {
       // CentralLogStore already initialized. Just update the values.
       store.appender.setMaxNrLines( maxSize );
+      store.appender.setMaxNrLinesPerChannel( getMaxNrLinesPerChannel() );
       store.replaceLogCleaner( maxLogTimeoutMinutes );
     } else {
       store = new HopLogStore( maxSize, maxLogTimeoutMinutes, redirectStdOut, redirectStdErr );
@@ -163,6 +165,10 @@ public class HopLogStore {
     initialized.set( true );
   }
 
+  private static int getMaxNrLinesPerChannel() {
+    return Const.toInt( EnvUtil.getSystemProperty( Const.HOP_MAX_LOG_SIZE_PER_CHANNEL_IN_LINES ), 0 );
+  }
+
   public static HopLogStore getInstance() {
     if ( store == null ) {
       throw new RuntimeException( "Central Log Store is not initialized!!!" );
@@ -24,9 +24,8 @@ package org.apache.hop.core.logging;
 
 import org.apache.hop.core.Const;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class LogChannelFileWriterBuffer {
 
@@ -34,7 +33,7 @@ public class LogChannelFileWriterBuffer {
 
   private String logChannelId;
 
-  private final List<HopLoggingEvent> buffer = Collections.synchronizedList( new LinkedList<HopLoggingEvent>() );
+  private final Queue<HopLoggingEvent> buffer = new ConcurrentLinkedQueue<>();
 
   public LogChannelFileWriterBuffer( String logChannelId ) {
     this.logChannelId = logChannelId;
@@ -42,20 +41,17 @@ public class LogChannelFileWriterBuffer {
   }
 
   public void addEvent( HopLoggingEvent event ) {
-    synchronized ( buffer ) {
-      buffer.add( event );
-    }
+    buffer.offer( event );
   }
 
   public StringBuffer getBuffer() {
     StringBuffer stringBuffer = new StringBuffer( 1000 );
 
-    synchronized ( buffer ) {
-      for ( HopLoggingEvent event : buffer ) {
-        stringBuffer.append( layout.format( event ) ).append( Const.CR );
-      }
-
-      buffer.clear();
+    // Lines logged while we're at it are picked up now or next time, no need to hold up the logging threads
+    //
+    HopLoggingEvent event;
+    while ( ( event = buffer.poll() ) != null ) {
+      stringBuffer.append( layout.format( event ) ).append( Const.CR );
     }
 
     return stringBuffer;
@@ -26,28 +26,57 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.hop.core.Const;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * This class keeps the last N lines in a buffer
+ * This class keeps the last N lines in a buffer.
+ * <p>
+ * The lines are kept in order of their line number and are also indexed by log channel, so fetching the log of a
+ * transformation or job only touches the lines of its own channels. The oldest lines are removed once there are more
+ * than {@link #getMaxNrLines()} lines in total or more than {@link #getMaxNrLinesPerChannel()} for a single channel.
+ * <p>
+ * Neither reading nor adding lines takes a lock. A line gets its number from an atomic counter and is put in the
+ * concurrent maps of the buffer and of its channel. The lines of a channel are added and removed with the atomic
+ * per-key operations of the channel map, so a channel is never dropped while a line is being added to it. Only then is
+ * the line number published: an append waits for the appends with a lower number to publish theirs first, which only
+ * takes the few map updates they're doing. So once {@link #getLastBufferLineNr()} returns N, all the lines up to N are
+ * in the buffer, and a reader going from one last line number to the next doesn't skip lines.
  *
  * @author matt
  */
 public class LoggingBuffer {
   private String name;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ConcurrentSkipListMap<Integer, BufferLine> buffer;
+  private final ConcurrentMap<String, ChannelLines> channels;
+  private final AtomicInteger nrLines;
 
-  private int bufferSize;
+  /**
+   * The number handed out to the last line added
+   */
+  private final AtomicInteger lastLineNr;
+
+  /**
+   * The number of the last line of which all lines up to it are in the buffer
+   */
+  private final AtomicInteger publishedLineNr;
+
+  private volatile int bufferSize;
+  private volatile int channelBufferSize;
 
   private HopLogLayout layout;
 
@@ -55,30 +84,47 @@ public class LoggingBuffer {
 
   private LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
 
+  /**
+   * The lines of a single log channel, by line number.
+   */
+  private static class ChannelLines {
+    private final ConcurrentSkipListMap<Integer, BufferLine> lines = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+  }
+
+  /**
+   * The next line of a single log channel while merging channels.
+   */
+  private static class ChannelCursor {
+    private final Iterator<BufferLine> lines;
+    private BufferLine line;
+
+    private ChannelCursor( Iterator<BufferLine> lines ) {
+      this.lines = lines;
+    }
+
+    private boolean advance() {
+      line = lines.hasNext() ? lines.next() : null;
+      return line != null;
+    }
+  }
+
   public LoggingBuffer( int bufferSize ) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>( (int) ( bufferSize * 1.1 ) );
+    buffer = new ConcurrentSkipListMap<>();
+    channels = new ConcurrentHashMap<>();
+    nrLines = new AtomicInteger();
+    lastLineNr = new AtomicInteger();
+    publishedLineNr = new AtomicInteger();
     layout = new HopLogLayout( true );
     eventListeners = new CopyOnWriteArrayList<>();
   }
 
   /**
-   * @return the number (sequence, 1..N) of the last log line. If no records are present in the buffer, 0 is returned.
+   * @return the number (sequence, 1..N) of the last log line. If no lines were added to the buffer yet, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if ( buffer.size() > 0 ) {
-        return buffer.get( buffer.size() - 1 ).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
-    }
+    return publishedLineNr.get();
   }
 
   /**
@@ -90,19 +136,81 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo( List<String> channelId, boolean includeGeneral, int from,
                                                    int to ) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream = buffer.stream().filter( line -> line.getNr() > from && line.getNr() <= to );
-      if ( channelId != null ) {
-        bufferStream = bufferStream.filter( line -> {
-          String logChannelId = getLogChId( line );
-          return includeGeneral ? isGeneral( logChannelId ) || channelId.contains( logChannelId ) : channelId.contains( logChannelId );
-        } );
+    List<HopLoggingEvent> events = new ArrayList<>();
+    getLogBufferIterator( channelId, includeGeneral, from, to ).forEachRemaining( events::add );
+    return events;
+  }
+
+  /**
+   * Go over the lines of the given channels without copying them first. The lines of the channels are merged by line
+   * number while iterating.
+   *
+   * @param channelId      channel IDs to grab, null for all lines
+   * @param includeGeneral include general log lines
+   * @param from           the line number to start after
+   * @param to             the last line number to include
+   * @return the events of the lines, in the order they were logged in
+   */
+  public Iterator<HopLoggingEvent> getLogBufferIterator( List<String> channelId, boolean includeGeneral, int from,
+                                                         int to ) {
+    if ( from >= to ) {
+      return Collections.emptyIterator();
+    }
+    if ( channelId == null ) {
+      return buffer.subMap( from, false, to, true ).values().stream().map( BufferLine::getEvent ).iterator();
+    }
+
+    Set<String> ids = new LinkedHashSet<>( channelId );
+    if ( includeGeneral ) {
+      for ( String logChannelId : channels.keySet() ) {
+        if ( isGeneral( logChannelId ) ) {
+          ids.add( logChannelId );
+        }
       }
-      return bufferStream.map( BufferLine::getEvent ).collect( Collectors.toList() );
-    } finally {
-      lock.readLock().unlock();
     }
+
+    final PriorityQueue<ChannelCursor> cursors = new PriorityQueue<>( Comparator.comparingInt( c -> c.line.getNr() ) );
+    for ( String id : ids ) {
+      ChannelLines channel = id == null ? null : channels.get( id );
+      if ( channel != null ) {
+        ChannelCursor cursor = new ChannelCursor( channel.lines.subMap( from, false, to, true ).values().iterator() );
+        if ( cursor.advance() ) {
+          cursors.add( cursor );
+        }
+      }
+    }
+    return new Iterator<HopLoggingEvent>() {
+      @Override
+      public boolean hasNext() {
+        return !cursors.isEmpty();
+      }
+
+      @Override
+      public HopLoggingEvent next() {
+        ChannelCursor cursor = cursors.poll();
+        if ( cursor == null ) {
+          throw new NoSuchElementException();
+        }
+        HopLoggingEvent event = cursor.line.getEvent();
+        if ( cursor.advance() ) {
+          cursors.add( cursor );
+        }
+        return event;
+      }
+    };
+  }
+
+  /**
+   * @param parentLogChannelId the parent log channel ID to grab
+   * @param includeGeneral     include general log lines
+   * @param from               the line number to start after
+   * @param to                 the last line number to include
+   * @return the events of the lines of the channel and its children, in the order they were logged in
+   */
+  public Iterator<HopLoggingEvent> getLogBufferIterator( String parentLogChannelId, boolean includeGeneral, int from,
+                                                         int to ) {
+    return getLogBufferIterator( loggingRegistry.getLogChannelChildren( parentLogChannelId ), includeGeneral, from,
+      to );
   }
 
   /**
@@ -153,18 +261,100 @@ public class LoggingBuffer {
 
   public void doAppend( HopLoggingEvent event ) {
     if ( event.getMessage() instanceof LogMessage ) {
-      lock.writeLock().lock();
+      int nr = lastLineNr.incrementAndGet();
+      BufferLine line = new BufferLine( event, nr );
+      String logChannelId = getLogChId( line );
+      ChannelLines channel = null;
       try {
-        buffer.add( new BufferLine( event ) );
-        while ( bufferSize > 0 && buffer.size() > bufferSize ) {
-          buffer.remove( 0 );
+        if ( logChannelId != null ) {
+          channel = channels.compute( logChannelId, ( id, lines ) -> {
+            ChannelLines result = lines == null ? new ChannelLines() : lines;
+            result.lines.put( nr, line );
+            result.size.incrementAndGet();
+            return result;
+          } );
         }
+        buffer.put( nr, line );
+        nrLines.incrementAndGet();
       } finally {
-        lock.writeLock().unlock();
+        publish( nr );
+      }
+
+      if ( channel != null ) {
+        while ( channelBufferSize > 0 && channel.size.get() > channelBufferSize ) {
+          Map.Entry<Integer, BufferLine> oldest = channel.lines.firstEntry();
+          if ( oldest == null ) {
+            break;
+          }
+          if ( buffer.remove( oldest.getKey() ) != null ) {
+            nrLines.decrementAndGet();
+          }
+          removeFromChannel( oldest.getValue() );
+        }
       }
+
+      while ( bufferSize > 0 && nrLines.get() > bufferSize ) {
+        Map.Entry<Integer, BufferLine> oldest = buffer.pollFirstEntry();
+        if ( oldest == null ) {
+          break;
+        }
+        nrLines.decrementAndGet();
+        removeFromChannel( oldest.getValue() );
+      }
+    }
+  }
+
+  /**
+   * Publish the given line number once the lines with a lower number are published.
+   */
+  private void publish( int nr ) {
+    while ( !publishedLineNr.compareAndSet( nr - 1, nr ) ) {
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Remove a line from its channel, and the channel once it has no lines left.
+   */
+  private void removeFromChannel( BufferLine line ) {
+    String logChannelId = getLogChId( line );
+    if ( logChannelId == null ) {
+      return;
+    }
+    channels.computeIfPresent( logChannelId, ( id, channel ) -> {
+      if ( channel.lines.remove( line.getNr() ) != null && channel.size.decrementAndGet() == 0 ) {
+        return null;
+      }
+      return channel;
+    } );
+  }
+
+  private void removeLine( BufferLine line ) {
+    if ( buffer.remove( line.getNr() ) != null ) {
+      nrLines.decrementAndGet();
+      removeFromChannel( line );
     }
   }
 
+  private void removeChannel( String logChannelId ) {
+    ChannelLines channel = channels.remove( logChannelId );
+    if ( channel != null ) {
+      for ( Integer nr : channel.lines.keySet() ) {
+        if ( buffer.remove( nr ) != null ) {
+          nrLines.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of log channels with lines in this buffer
+   */
+  @VisibleForTesting
+  int getNrChannels() {
+    return channels.size();
+  }
+
   public void setName( String name ) {
     this.name = name;
   }
@@ -185,12 +375,15 @@ public class LoggingBuffer {
     return true;
   }
 
+  /**
+   * Remove all lines. The line numbers go on from where they were, so readers don't read the new lines twice.
+   */
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
+    for ( String logChannelId : channels.keySet() ) {
+      removeChannel( logChannelId );
+    }
+    while ( buffer.pollFirstEntry() != null ) {
+      nrLines.decrementAndGet();
     }
   }
 
@@ -208,11 +401,26 @@ public class LoggingBuffer {
     this.bufferSize = maxNrLines;
   }
 
+  /**
+   * @return the maximum number of lines kept for a single log channel, 0 or lower means: no limit
+   */
+  public int getMaxNrLinesPerChannel() {
+    return channelBufferSize;
+  }
+
+  /**
+   * @param maxNrLinesPerChannel the maximum number of lines to keep for a single log channel, 0 or lower means: no
+   *                             limit
+   */
+  public void setMaxNrLinesPerChannel( int maxNrLinesPerChannel ) {
+    this.channelBufferSize = maxNrLinesPerChannel;
+  }
+
   /**
    * @return the nrLines
    */
   public int getNrLines() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   /**
@@ -221,24 +429,18 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer( String id ) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf( line -> id.equals( getLogChId( line ) ) );
-    } finally {
-      lock.writeLock().unlock();
-    }
+    removeChannel( id );
   }
 
   public int size() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf( line -> isGeneral( getLogChId( line ) ) );
-    } finally {
-      lock.writeLock().unlock();
+    for ( String logChannelId : channels.keySet() ) {
+      if ( isGeneral( logChannelId ) ) {
+        removeChannel( logChannelId );
+      }
     }
   }
 
@@ -252,7 +454,7 @@ public class LoggingBuffer {
   @Deprecated
   @VisibleForTesting
   public Iterator<BufferLine> getBufferIterator() {
-    return buffer.iterator();
+    return buffer.values().iterator();
   }
 
   /**
@@ -261,17 +463,12 @@ public class LoggingBuffer {
   @Deprecated
   public String dump() {
     StringBuilder buf = new StringBuilder( 50000 );
-    lock.readLock().lock();
-    try {
-      buffer.forEach( line -> {
-        LogMessage message = (LogMessage) line.getEvent().getMessage();
-        buf.append( message.getLogChannelId() ).append( "\t" )
-          .append( message.getSubject() ).append( "\n" );
-      } );
-      return buf.toString();
-    } finally {
-      lock.readLock().unlock();
-    }
+    buffer.values().forEach( line -> {
+      LogMessage message = (LogMessage) line.getEvent().getMessage();
+      buf.append( message.getLogChannelId() ).append( "\t" )
+        .append( message.getSubject() ).append( "\n" );
+    } );
+    return buf.toString();
   }
 
   /**
@@ -281,12 +478,7 @@ public class LoggingBuffer {
    */
   @Deprecated
   public void removeBufferLines( List<BufferLine> linesToRemove ) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeAll( linesToRemove );
-    } finally {
-      lock.writeLock().unlock();
-    }
+    linesToRemove.forEach( this::removeLine );
   }
 
   /**
@@ -296,34 +488,19 @@ public class LoggingBuffer {
    */
   @Deprecated
   public List<BufferLine> getBufferLinesBefore( long minTimeBoundary ) {
-    lock.readLock().lock();
-    try {
-      return buffer.stream().filter( line -> line.getEvent().timeStamp < minTimeBoundary )
-        .collect( Collectors.toList() );
-    } finally {
-      lock.readLock().unlock();
-    }
+    return buffer.values().stream().filter( line -> line.getEvent().timeStamp < minTimeBoundary )
+      .collect( Collectors.toList() );
   }
 
   public void removeBufferLinesBefore( long minTimeBoundary ) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for ( BufferLine bufferLine : buffer ) {
-        if ( bufferLine.getEvent().timeStamp < minTimeBoundary ) {
-          linesToRemove.add( bufferLine );
-        } else {
-          break;
-        }
+    // The lines are sorted by line number, which follows the time they were logged in.
+    //
+    for ( BufferLine bufferLine : buffer.values() ) {
+      if ( bufferLine.getEvent().timeStamp < minTimeBoundary ) {
+        removeLine( bufferLine );
+      } else {
+        break;
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll( linesToRemove );
-    } finally {
-      lock.writeLock().unlock();
     }
   }
 
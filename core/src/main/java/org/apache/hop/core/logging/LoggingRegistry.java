@@ -36,6 +36,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class LoggingRegistry {
   private static LoggingRegistry registry = new LoggingRegistry();
@@ -97,7 +98,7 @@ public class LoggingRegistry {
         String parentLogChannelId = loggingSource.getParent().getLogChannelId();
         if ( parentLogChannelId != null ) {
           List<String> parentChildren =
-            this.childrenMap.computeIfAbsent( parentLogChannelId, k -> new ArrayList<String>() );
+            this.childrenMap.computeIfAbsent( parentLogChannelId, k -> new CopyOnWriteArrayList<String>() );
           parentChildren.add( logChannelId );
         }
       }
@@ -174,23 +175,24 @@ public class LoggingRegistry {
   }
 
   private List<String> getLogChannelChildren( List<String> children, String parentLogChannelId ) {
-    synchronized ( this.syncObject ) {
-      List<String> list = this.childrenMap.get( parentLogChannelId );
-      if ( list == null ) {
-        // Don't do anything, just return the input.
-        return children;
-      }
+    // The lists of children are copy-on-write, so we can walk them without blocking the registration of new
+    // logging sources.
+    //
+    List<String> list = this.childrenMap.get( parentLogChannelId );
+    if ( list == null ) {
+      // Don't do anything, just return the input.
+      return children;
+    }
 
-      Iterator<String> kids = list.iterator();
-      while ( kids.hasNext() ) {
-        String logChannelId = kids.next();
+    Iterator<String> kids = list.iterator();
+    while ( kids.hasNext() ) {
+      String logChannelId = kids.next();
 
-        // Add the children recursively
-        getLogChannelChildren( children, logChannelId );
+      // Add the children recursively
+      getLogChannelChildren( children, logChannelId );
 
-        // Also add the current parent
-        children.add( logChannelId );
-      }
+      // Also add the current parent
+      children.add( logChannelId );
     }
 
     return children;
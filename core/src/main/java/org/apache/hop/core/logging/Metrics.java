@@ -134,6 +134,34 @@ public class Metrics implements MetricsInterface {
   public static Metrics METRIC_STEP_INIT_STOP = new Metrics(
     MetricsSnapshotType.STOP, "METRIC_STEP_INIT", "Initialize a step" );
 
+  // Scripting steps
+  //
+  public static Metrics METRIC_STEP_SCRIPT_ROW_COUNT = new Metrics(
+    MetricsSnapshotType.COUNT, "METRIC_STEP_SCRIPT_ROW_COUNT", "Execute a script for a row (count)" );
+  public static Metrics METRIC_STEP_SCRIPT_ROW_SUM_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_SCRIPT_ROW_SUM_TIME", "Execute a script for a row (total time, ns)" );
+  public static Metrics METRIC_STEP_SCRIPT_ROW_MIN_TIME = new Metrics(
+    MetricsSnapshotType.MIN, "METRIC_STEP_SCRIPT_ROW_MIN_TIME", "Execute a script for a row (min time, ns)" );
+  public static Metrics METRIC_STEP_SCRIPT_ROW_MAX_TIME = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_SCRIPT_ROW_MAX_TIME", "Execute a script for a row (max time, ns)" );
+
+  // Database join step
+  //
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERY_COUNT = new Metrics(
+    MetricsSnapshotType.COUNT, "METRIC_STEP_DATABASE_JOIN_QUERY_COUNT", "Execute a join query (count)" );
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERY_SUM_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_DATABASE_JOIN_QUERY_SUM_TIME", "Execute a join query (total time, ns)" );
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERY_MAX_TIME = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_DATABASE_JOIN_QUERY_MAX_TIME", "Execute a join query (max time, ns)" );
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERY_P50_TIME = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_DATABASE_JOIN_QUERY_P50_TIME", "Execute a join query (p50 time, ns)" );
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERY_P90_TIME = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_DATABASE_JOIN_QUERY_P90_TIME", "Execute a join query (p90 time, ns)" );
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERY_P99_TIME = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_DATABASE_JOIN_QUERY_P99_TIME", "Execute a join query (p99 time, ns)" );
+  public static Metrics METRIC_STEP_DATABASE_JOIN_QUERIES_IN_FLIGHT = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_DATABASE_JOIN_QUERIES_IN_FLIGHT", "Join queries running at once (max)" );
+
   // Logging back-end
   //
   public static Metrics METRIC_CENTRAL_LOG_STORE_TIMEOUT_CLEAN_TIME = new Metrics(
@@ -0,0 +1,206 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.metrics;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.xml.XMLHandler;
+import org.w3c.dom.Node;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds which can be updated concurrently without locking. Values are counted in
+ * logarithmic buckets with 16 linear sub-buckets each, so percentiles are accurate to about 6%.
+ */
+public class LatencyHistogram {
+
+  public static final String XML_TAG = "latency_histogram";
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NR_OF_BUCKETS = ( 64 - SUB_BUCKET_BITS ) * SUB_BUCKETS;
+
+  private static final double[] REPORTED_PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+  private final AtomicLongArray buckets = new AtomicLongArray( NR_OF_BUCKETS );
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  public LatencyHistogram() {
+  }
+
+  /**
+   * Read a histogram back from its XML representation.
+   *
+   * @param histogramNode the node written by {@link #getXML()}
+   */
+  public LatencyHistogram( Node histogramNode ) {
+    sum.add( Const.toLong( XMLHandler.getTagValue( histogramNode, "sum_ns" ), 0L ) );
+    max.set( Const.toLong( XMLHandler.getTagValue( histogramNode, "max_ns" ), 0L ) );
+
+    Node bucketsNode = XMLHandler.getSubNode( histogramNode, "buckets" );
+    int nr = XMLHandler.countNodes( bucketsNode, "bucket" );
+    for ( int i = 0; i < nr; i++ ) {
+      Node bucketNode = XMLHandler.getSubNodeByNr( bucketsNode, "bucket", i );
+      int index = Const.toInt( XMLHandler.getTagValue( bucketNode, "index" ), -1 );
+      long bucketCount = Const.toLong( XMLHandler.getTagValue( bucketNode, "count" ), 0L );
+      if ( index >= 0 && index < NR_OF_BUCKETS ) {
+        buckets.addAndGet( index, bucketCount );
+        count.add( bucketCount );
+      }
+    }
+  }
+
+  /**
+   * Count one latency.
+   *
+   * @param nanos the latency in nanoseconds, negative values are counted as 0
+   */
+  public void record( long nanos ) {
+    long value = Math.max( 0L, nanos );
+    buckets.incrementAndGet( bucketIndex( value ) );
+    count.increment();
+    sum.add( value );
+
+    long currentMax = max.get();
+    while ( value > currentMax && !max.compareAndSet( currentMax, value ) ) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * @return the number of recorded latencies
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return the largest recorded latency in nanoseconds
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @return the average recorded latency in nanoseconds, 0 if nothing was recorded
+   */
+  public long getMean() {
+    long nr = count.sum();
+    return nr == 0 ? 0L : sum.sum() / nr;
+  }
+
+  /**
+   * Get the latency below which the given percentage of the recorded latencies falls.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency in nanoseconds, 0 if nothing was recorded
+   */
+  public long getValueAtPercentile( double percentile ) {
+    long total = 0L;
+    long[] counts = new long[ NR_OF_BUCKETS ];
+    for ( int i = 0; i < NR_OF_BUCKETS; i++ ) {
+      counts[ i ] = buckets.get( i );
+      total += counts[ i ];
+    }
+    if ( total == 0L ) {
+      return 0L;
+    }
+
+    long rank = (long) Math.ceil( Math.min( 100.0, Math.max( 0.0, percentile ) ) / 100.0 * total );
+    rank = Math.max( 1L, rank );
+    long seen = 0L;
+    for ( int i = 0; i < NR_OF_BUCKETS; i++ ) {
+      seen += counts[ i ];
+      if ( seen >= rank ) {
+        return Math.min( bucketUpperBound( i ), max.get() );
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Forget all recorded latencies.
+   */
+  public void reset() {
+    for ( int i = 0; i < NR_OF_BUCKETS; i++ ) {
+      buckets.set( i, 0L );
+    }
+    count.reset();
+    sum.reset();
+    max.set( 0L );
+  }
+
+  /**
+   * @return the XML representation of this histogram: the summary in microseconds followed by the non-empty buckets
+   */
+  public String getXML() {
+    StringBuilder xml = new StringBuilder();
+    xml.append( XMLHandler.openTag( XML_TAG ) ).append( Const.CR );
+    xml.append( "  " ).append( XMLHandler.addTagValue( "count", getCount() ) );
+    xml.append( "  " ).append( XMLHandler.addTagValue( "sum_ns", sum.sum() ) );
+    xml.append( "  " ).append( XMLHandler.addTagValue( "max_ns", getMax() ) );
+    xml.append( "  " ).append( XMLHandler.addTagValue( "mean_us", getMean() / 1000 ) );
+    for ( double percentile : REPORTED_PERCENTILES ) {
+      String tag = "p" + ( percentile == Math.rint( percentile )
+        ? Long.toString( (long) percentile ) : Double.toString( percentile ).replace( '.', '_' ) ) + "_us";
+      xml.append( "  " ).append( XMLHandler.addTagValue( tag, getValueAtPercentile( percentile ) / 1000 ) );
+    }
+    xml.append( "  " ).append( XMLHandler.addTagValue( "max_us", getMax() / 1000 ) );
+
+    xml.append( "  " ).append( XMLHandler.openTag( "buckets" ) ).append( Const.CR );
+    for ( int i = 0; i < NR_OF_BUCKETS; i++ ) {
+      long bucketCount = buckets.get( i );
+      if ( bucketCount > 0 ) {
+        xml.append( "    " ).append( XMLHandler.openTag( "bucket" ) );
+        xml.append( XMLHandler.addTagValue( "index", i, false ) );
+        xml.append( XMLHandler.addTagValue( "count", bucketCount, false ) );
+        xml.append( XMLHandler.closeTag( "bucket" ) ).append( Const.CR );
+      }
+    }
+    xml.append( "  " ).append( XMLHandler.closeTag( "buckets" ) ).append( Const.CR );
+    xml.append( XMLHandler.closeTag( XML_TAG ) ).append( Const.CR );
+    return xml.toString();
+  }
+
+  static int bucketIndex( long value ) {
+    if ( value < SUB_BUCKETS ) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros( value );
+    int subBucket = (int) ( value >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKETS - 1 );
+    return ( exponent - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound( int index ) {
+    if ( index < SUB_BUCKETS ) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lower = (long) ( SUB_BUCKETS + index % SUB_BUCKETS ) << shift;
+    return lower + ( 1L << shift ) - 1;
+  }
+}
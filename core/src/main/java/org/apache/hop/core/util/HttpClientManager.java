@@ -125,7 +125,7 @@ public class HttpClientManager {
         requestConfigBuilder.setSocketTimeout( socketTimeout );
       }
       if ( connectionTimeout > 0 ) {
-        requestConfigBuilder.setConnectTimeout( socketTimeout );
+        requestConfigBuilder.setConnectTimeout( connectionTimeout );
       }
       if ( proxy != null ) {
         requestConfigBuilder.setProxy( proxy );
@@ -0,0 +1,400 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.util;
+
+import org.apache.hop.core.metrics.LatencyHistogram;
+
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a number of HTTP exchanges in flight for a single step copy and hands the results back in the order the
+ * requests were submitted.
+ * <p>
+ * The exchanges are blocking calls on clients created through {@link HttpClientManager}, so they share its pool of
+ * kept-alive connections. A fixed set of worker threads limits the number of requests on the wire, failed exchanges
+ * are retried with an exponential, jittered backoff and an optional rate limit spaces out the requests of the copy.
+ * <p>
+ * A request that is not idempotent, like a POST or PATCH, is only retried when it can't have reached the server: when
+ * the connection could not be made, or on a 429 or 503 status. Other transport errors, or a 502 or 504 from a gateway,
+ * could mean the server did process the request, and sending it again would process it twice.
+ * <p>
+ * The engine is driven from the step thread: {@link #submit(Object, Exchange)} queues a request and
+ * {@link #poll()} / {@link #take(long)} return the finished calls in submission order. Only the exchange itself runs
+ * on a worker thread, preparing requests and turning responses into rows stays on the step thread.
+ *
+ * @param <T> the tag handed back with a call, typically the input row
+ * @param <R> the result of an exchange
+ */
+public class HttpRequestEngine<T, R> {
+
+  /**
+   * The number of submitted calls allowed per request in flight, so that a slow call at the head of the output does
+   * not stall the requests behind it right away.
+   */
+  private static final int CALLS_PER_REQUEST = 4;
+
+  private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis( 1 );
+
+  /**
+   * Performs a single request and reads its response, called on a worker thread.
+   */
+  public interface Exchange<R> {
+    /**
+     * @return the result of the request
+     * @throws IOException when the request failed on the transport level and may be retried
+     * @throws Exception   when the request failed and should not be retried
+     */
+    R execute() throws Exception;
+  }
+
+  /**
+   * Decides whether a result that came back from the server warrants another attempt, e.g. for a 503 status.
+   */
+  public interface RetryCondition<R> {
+    /**
+     * @param result     the result of the exchange
+     * @param idempotent true if the request can safely be sent more than once
+     * @return true if the request should be sent again
+     */
+    boolean isRetryable( R result, boolean idempotent );
+  }
+
+  /**
+   * A submitted request. The result and error are safe to read once the call was handed back by the engine.
+   */
+  public static class Call<T, R> {
+    private final T tag;
+    private final Exchange<R> exchange;
+    private final boolean idempotent;
+    private R result;
+    private Exception error;
+    private int attempts;
+    private long nanos;
+    private volatile boolean done;
+
+    Call( T tag, Exchange<R> exchange, boolean idempotent ) {
+      this.tag = tag;
+      this.exchange = exchange;
+      this.idempotent = idempotent;
+    }
+
+    public T getTag() {
+      return tag;
+    }
+
+    /**
+     * @return the result of the last attempt or null if the call failed
+     */
+    public R getResult() {
+      return result;
+    }
+
+    /**
+     * @return the error of the last attempt or null if the call succeeded
+     */
+    public Exception getError() {
+      return error;
+    }
+
+    /**
+     * @return the number of times the request was sent
+     */
+    public int getAttempts() {
+      return attempts;
+    }
+
+    /**
+     * @return the time spent on the call including retries and waiting for the rate limit, in nanoseconds
+     */
+    public long getNanos() {
+      return nanos;
+    }
+  }
+
+  private final int maxInFlight;
+  private final ExecutorService executor;
+  private final ArrayDeque<Call<T, R>> calls = new ArrayDeque<>();
+
+  private int maxRetries;
+  private long retryDelay;
+  private RetryCondition<R> retryCondition;
+
+  private long permitInterval;
+  private long nextPermit;
+  private final Object permitLock = new Object();
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicLong retries = new AtomicLong();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * @param name        the prefix of the worker thread names
+   * @param maxInFlight the maximum number of requests sent at the same time
+   */
+  public HttpRequestEngine( String name, int maxInFlight ) {
+    this.maxInFlight = Math.max( 1, maxInFlight );
+    AtomicInteger threadNr = new AtomicInteger();
+    executor = Executors.newFixedThreadPool( this.maxInFlight, runnable -> {
+      Thread thread = new Thread( runnable, name + " - request " + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
+
+  /**
+   * Retry failed requests. Transport errors are retried, for requests that are not idempotent only when the connection
+   * could not be made. Results are retried when the condition says so.
+   *
+   * @param maxRetries the number of retries after the first attempt
+   * @param retryDelay the delay before the first retry in milliseconds, doubled for every next retry
+   * @param condition  the results to retry or null to only retry transport errors
+   */
+  public void setRetries( int maxRetries, long retryDelay, RetryCondition<R> condition ) {
+    this.maxRetries = Math.max( 0, maxRetries );
+    this.retryDelay = Math.max( 0L, retryDelay );
+    this.retryCondition = condition;
+  }
+
+  /**
+   * @param requestsPerSecond the maximum number of requests started per second, 0 or less for no limit
+   */
+  public void setMaxRequestsPerSecond( double requestsPerSecond ) {
+    permitInterval = requestsPerSecond > 0 ? (long) ( TimeUnit.SECONDS.toNanos( 1 ) / requestsPerSecond ) : 0L;
+  }
+
+  /**
+   * @return true for the statuses a server sends when it is overloaded or briefly unavailable
+   */
+  public static boolean isRetryableStatus( int statusCode ) {
+    return isRetryableStatus( statusCode, true );
+  }
+
+  /**
+   * @param statusCode the HTTP status
+   * @param idempotent true if the request can safely be sent more than once
+   * @return true for the statuses a server sends when it is overloaded or briefly unavailable. For requests that are
+   * not idempotent only 429 and 503, a gateway sending 502 or 504 might have passed the request on already.
+   */
+  public static boolean isRetryableStatus( int statusCode, boolean idempotent ) {
+    if ( statusCode == 429 || statusCode == 503 ) {
+      return true;
+    }
+    return idempotent && ( statusCode == 502 || statusCode == 504 );
+  }
+
+  /**
+   * @param method the HTTP method
+   * @return true if sending a request with the method more than once has the same effect as sending it once
+   */
+  public static boolean isIdempotent( String method ) {
+    return !"POST".equalsIgnoreCase( method ) && !"PATCH".equalsIgnoreCase( method );
+  }
+
+  /**
+   * @return true if the request failed before it reached the server, so that it can be sent again in any case
+   */
+  static boolean isConnectFailure( IOException e ) {
+    return e instanceof ConnectException || e instanceof ConnectTimeoutException || e instanceof UnknownHostException
+      || e instanceof NoRouteToHostException;
+  }
+
+  /**
+   * Queue an idempotent request. The caller should hand back finished calls while {@link #isFull()} to limit the
+   * backlog.
+   */
+  public void submit( T tag, Exchange<R> exchange ) {
+    submit( tag, exchange, true );
+  }
+
+  /**
+   * Queue a request. The caller should hand back finished calls while {@link #isFull()} to limit the backlog.
+   *
+   * @param idempotent true if the request can safely be sent more than once, false for a POST for example
+   */
+  public void submit( T tag, Exchange<R> exchange, boolean idempotent ) {
+    Call<T, R> call = new Call<>( tag, exchange, idempotent );
+    synchronized ( this ) {
+      calls.add( call );
+    }
+    executor.execute( () -> execute( call ) );
+  }
+
+  /**
+   * @return true if enough calls are outstanding that no more should be submitted before one was handed back
+   */
+  public synchronized boolean isFull() {
+    return calls.size() >= maxInFlight * CALLS_PER_REQUEST;
+  }
+
+  /**
+   * @return the number of calls submitted and not handed back yet
+   */
+  public synchronized int getOutstanding() {
+    return calls.size();
+  }
+
+  /**
+   * @return the number of requests on the wire or waiting for a retry
+   */
+  public int getInFlight() {
+    return running.get();
+  }
+
+  /**
+   * @return the next call in submission order if it finished, null otherwise
+   */
+  public synchronized Call<T, R> poll() {
+    Call<T, R> head = calls.peek();
+    if ( head != null && head.done ) {
+      return finish( calls.poll() );
+    }
+    return null;
+  }
+
+  /**
+   * Wait for the next call in submission order.
+   *
+   * @param timeout the maximum time to wait in milliseconds
+   * @return the call or null if there are no outstanding calls or the next one did not finish in time
+   */
+  public synchronized Call<T, R> take( long timeout ) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeout );
+    for ( Call<T, R> head = calls.peek(); head != null; head = calls.peek() ) {
+      if ( head.done ) {
+        return finish( calls.poll() );
+      }
+      long wait = TimeUnit.NANOSECONDS.toMillis( deadline - System.nanoTime() );
+      if ( wait <= 0 ) {
+        return null;
+      }
+      wait( wait );
+    }
+    return null;
+  }
+
+  /**
+   * Stop sending requests. Calls that did not finish are dropped.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+    synchronized ( this ) {
+      calls.clear();
+    }
+  }
+
+  /**
+   * @return the number of retries sent so far
+   */
+  public long getRetries() {
+    return retries.get();
+  }
+
+  /**
+   * @return the latency of the calls handed back so far, including retries
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  private Call<T, R> finish( Call<T, R> call ) {
+    latency.record( call.nanos );
+    return call;
+  }
+
+  private void execute( Call<T, R> call ) {
+    running.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      for ( int attempt = 0; ; attempt++ ) {
+        if ( attempt > 0 ) {
+          retries.incrementAndGet();
+          backoff( attempt );
+        }
+        acquirePermit();
+        call.attempts++;
+        try {
+          R result = call.exchange.execute();
+          if ( attempt < maxRetries && retryCondition != null
+            && retryCondition.isRetryable( result, call.idempotent ) ) {
+            continue;
+          }
+          call.result = result;
+          call.error = null;
+          break;
+        } catch ( IOException e ) {
+          call.error = e;
+          if ( attempt >= maxRetries || ( !call.idempotent && !isConnectFailure( e ) ) ) {
+            break;
+          }
+        }
+      }
+    } catch ( Exception e ) {
+      call.error = e;
+    } finally {
+      call.nanos = System.nanoTime() - start;
+      running.decrementAndGet();
+      synchronized ( this ) {
+        call.done = true;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Sleeps somewhere between half and all of the delay for this attempt, so that copies failing together do not
+   * retry in lock step.
+   */
+  private void backoff( int attempt ) throws InterruptedException {
+    long delay = Math.min( MAX_RETRY_DELAY, retryDelay << Math.min( attempt - 1, 20 ) );
+    if ( delay > 0 ) {
+      Thread.sleep( delay / 2 + ThreadLocalRandom.current().nextLong( delay / 2 + 1 ) );
+    }
+  }
+
+  private void acquirePermit() throws InterruptedException {
+    if ( permitInterval <= 0 ) {
+      return;
+    }
+    long now = System.nanoTime();
+    long permit;
+    synchronized ( permitLock ) {
+      permit = Math.max( now, nextPermit );
+      nextPermit = permit + permitInterval;
+    }
+    if ( permit > now ) {
+      TimeUnit.NANOSECONDS.sleep( permit - now );
+    }
+  }
+}
@@ -0,0 +1,281 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.xml;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopXMLException;
+import org.apache.hop.core.vfs.HopVFS;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton keeping the parsed XML of the transformation and job files that were loaded in memory. A job that runs the
+ * same transformation over and over again then only reads and parses the file the first time. The cache is off unless
+ * {@link Const#HOP_META_CACHE_SIZE} is set.<br>
+ * <br>
+ * Files are cached by their resolved VFS URI. As long as the size and modification time of the file are unchanged the
+ * file isn't read at all. Otherwise it's read, and only when the size is still the same a digest of the content tells
+ * whether it really changed, for example after a checkout that touched it. A change that keeps both the size and the
+ * modification time goes unnoticed.<br>
+ * <br>
+ * The parsed documents themselves are never handed out: every load gets its own deep copy which the caller is free to
+ * modify. That copy, and building the steps or job entries with their plugins from it, is what a cached load still
+ * costs. The least recently used files are dropped when more than {@link Const#HOP_META_CACHE_SIZE} files are cached,
+ * or when the estimated memory taken by the parsed documents together is larger than
+ * {@link Const#HOP_META_CACHE_MAX_BYTES}.
+ */
+public class XMLDocumentCache {
+
+  /**
+   * The cache is off by default
+   */
+  public static final int DEFAULT_MAX_SIZE = 0;
+
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private static XMLDocumentCache instance;
+
+  private final int maxSize;
+  private final long maxBytes;
+
+  private final LinkedHashMap<String, XMLDocumentCacheEntry> cache;
+  private long bytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  XMLDocumentCache( int maxSize ) {
+    this( maxSize, DEFAULT_MAX_BYTES );
+  }
+
+  XMLDocumentCache( int maxSize, long maxBytes ) {
+    this.maxSize = maxSize;
+    this.maxBytes = maxBytes;
+    this.cache = new LinkedHashMap<String, XMLDocumentCacheEntry>( 16, 0.75f, true );
+  }
+
+  public static synchronized XMLDocumentCache getInstance() {
+    if ( instance == null ) {
+      instance = new XMLDocumentCache(
+        Const.toInt( System.getProperty( Const.HOP_META_CACHE_SIZE ), DEFAULT_MAX_SIZE ),
+        Const.toLong( System.getProperty( Const.HOP_META_CACHE_MAX_BYTES ), DEFAULT_MAX_BYTES ) );
+    }
+    return instance;
+  }
+
+  /**
+   * Load a file into an XML document, re-using the parsed document of an earlier load if the content of the file
+   * didn't change since.
+   *
+   * @param fileObject The fileObject to load into a document
+   * @return a new document, null if an error occurred
+   * @throws HopXMLException in case the file can't be read or parsed
+   */
+  public Document loadXMLFile( FileObject fileObject ) throws HopXMLException {
+    if ( maxSize <= 0 || maxBytes <= 0 ) {
+      return XMLHandler.loadXMLFile( fileObject );
+    }
+
+    String uri = fileObject.getName().getURI();
+    long lastModified;
+    long fileSize;
+    try {
+      lastModified = fileObject.getContent().getLastModifiedTime();
+      fileSize = fileObject.getContent().getSize();
+    } catch ( FileSystemException e ) {
+      throw new HopXMLException( "Unable to read file [" + fileObject.toString() + "]", e );
+    }
+
+    XMLDocumentCacheEntry entry;
+    synchronized ( cache ) {
+      entry = cache.get( uri );
+    }
+    boolean cached = entry != null && entry.isUnchanged( lastModified, fileSize );
+    if ( cached ) {
+      Document copy = entry.copyDocument();
+      if ( copy != null ) {
+        hits.incrementAndGet();
+        return copy;
+      }
+    }
+
+    byte[] content;
+    try ( InputStream inputStream = HopVFS.getInputStream( fileObject ) ) {
+      content = IOUtils.toByteArray( inputStream );
+    } catch ( IOException e ) {
+      throw new HopXMLException( "Unable to read file [" + fileObject.toString() + "]", e );
+    }
+
+    // Only hash the content when the size gives no answer
+    //
+    byte[] digest = null;
+    if ( !cached && entry != null && entry.getFileSize() == content.length ) {
+      digest = digest( content );
+      if ( entry.isValid( digest ) ) {
+        entry.setLastModified( lastModified );
+        cached = true;
+        Document copy = entry.copyDocument();
+        if ( copy != null ) {
+          hits.incrementAndGet();
+          return copy;
+        }
+      }
+    }
+
+    // Not cached, changed or another thread is copying the cached document: parse what we read
+    //
+    misses.incrementAndGet();
+    Document document = XMLHandler.loadXMLFile( new ByteArrayInputStream( content ) );
+    if ( document != null && !cached ) {
+      Document copy = (Document) document.cloneNode( true );
+      long retainedSize = XMLDocumentCacheEntry.estimateSize( copy );
+      if ( retainedSize <= maxBytes ) {
+        if ( digest == null ) {
+          digest = digest( content );
+        }
+        put( uri, new XMLDocumentCacheEntry( copy, digest, lastModified, content.length, retainedSize ) );
+      }
+    }
+    return document;
+  }
+
+  private void put( String uri, XMLDocumentCacheEntry entry ) {
+    synchronized ( cache ) {
+      XMLDocumentCacheEntry previous = cache.put( uri, entry );
+      if ( previous != null ) {
+        bytes -= previous.getSize();
+      }
+      bytes += entry.getSize();
+
+      // Drop the least recently used files, the one just added is the most recently used one
+      //
+      Iterator<XMLDocumentCacheEntry> iterator = cache.values().iterator();
+      while ( ( cache.size() > maxSize || bytes > maxBytes ) && iterator.hasNext() ) {
+        bytes -= iterator.next().getSize();
+        iterator.remove();
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  private static byte[] digest( byte[] content ) throws HopXMLException {
+    try {
+      return MessageDigest.getInstance( DIGEST_ALGORITHM ).digest( content );
+    } catch ( NoSuchAlgorithmException e ) {
+      throw new HopXMLException( e );
+    }
+  }
+
+  /**
+   * Forget about a file, the next load parses it again.
+   *
+   * @param fileObject the file to remove from the cache
+   */
+  public void remove( FileObject fileObject ) {
+    synchronized ( cache ) {
+      XMLDocumentCacheEntry entry = cache.remove( fileObject.getName().getURI() );
+      if ( entry != null ) {
+        bytes -= entry.getSize();
+      }
+    }
+  }
+
+  /**
+   * Clears the cache, the statistics are kept.
+   */
+  public void clear() {
+    synchronized ( cache ) {
+      cache.clear();
+      bytes = 0L;
+    }
+  }
+
+  /**
+   * @return the number of files in the cache
+   */
+  public int getSize() {
+    synchronized ( cache ) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * @return the estimated memory in bytes taken by the parsed documents in the cache
+   */
+  public long getBytes() {
+    synchronized ( cache ) {
+      return bytes;
+    }
+  }
+
+  /**
+   * @return the maximum number of files kept in the cache, 0 or less if caching is disabled
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return the maximum estimated memory in bytes taken by the parsed documents in the cache, 0 or less if caching is
+   * disabled
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * @return the number of loads served from the cache
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of loads that had to parse the file
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return the number of files dropped from the cache to stay within the maximum size
+   */
+  public long getEvictions() {
+    return evictions.get();
+  }
+}
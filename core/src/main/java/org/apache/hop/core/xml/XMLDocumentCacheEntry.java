@@ -0,0 +1,152 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.xml;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A parsed file in the {@link XMLDocumentCache}, together with the modification time, size and digest of the content
+ * it was parsed from.
+ */
+class XMLDocumentCacheEntry {
+
+  /**
+   * Rough memory taken by a DOM node and by a string, apart from its characters
+   */
+  private static final int NODE_BYTES = 64;
+  private static final int STRING_BYTES = 40;
+
+  private final AtomicReference<Document> document;
+  private final byte[] digest;
+  private volatile long lastModified;
+  private final long fileSize;
+  private final long size;
+
+  /**
+   * @param document     the parsed document
+   * @param digest       the digest of the file content
+   * @param lastModified the modification time of the file
+   * @param fileSize     the size of the file in bytes
+   * @param size         the estimated memory taken by the document, see {@link #estimateSize(Node)}
+   */
+  XMLDocumentCacheEntry( Document document, byte[] digest, long lastModified, long fileSize, long size ) {
+    this.document = new AtomicReference<>( document );
+    this.digest = digest;
+    this.lastModified = lastModified;
+    this.fileSize = fileSize;
+    this.size = size;
+  }
+
+  /**
+   * @return true if the file still has the size and modification time it had when it was parsed
+   */
+  boolean isUnchanged( long lastModified, long fileSize ) {
+    return this.lastModified == lastModified && this.fileSize == fileSize;
+  }
+
+  boolean isValid( byte[] digest ) {
+    return MessageDigest.isEqual( this.digest, digest );
+  }
+
+  /**
+   * The file was touched without changing its content.
+   */
+  void setLastModified( long lastModified ) {
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * @return the size in bytes of the file the document was parsed from
+   */
+  long getFileSize() {
+    return fileSize;
+  }
+
+  /**
+   * @return the estimated memory in bytes taken by the document
+   */
+  long getSize() {
+    return size;
+  }
+
+  /**
+   * Estimate the memory a parsed document takes from its nodes, names, values and attributes. Depending on the DOM
+   * implementation this comes down to 5 to 10 times the size of the file.
+   *
+   * @param root the node to start from
+   * @return the estimated memory in bytes taken by the node and everything below it
+   */
+  static long estimateSize( Node root ) {
+    long size = 0L;
+    Node node = root;
+    while ( node != null ) {
+      size += NODE_BYTES + stringSize( node.getNodeName() ) + stringSize( node.getNodeValue() );
+      NamedNodeMap attributes = node.getAttributes();
+      if ( attributes != null ) {
+        for ( int i = 0; i < attributes.getLength(); i++ ) {
+          Node attribute = attributes.item( i );
+          size += 2 * NODE_BYTES + stringSize( attribute.getNodeName() ) + stringSize( attribute.getNodeValue() );
+        }
+      }
+
+      // Depth first without recursion, deeply nested files don't run out of stack
+      //
+      if ( node.getFirstChild() != null ) {
+        node = node.getFirstChild();
+      } else {
+        while ( node != null && node != root && node.getNextSibling() == null ) {
+          node = node.getParentNode();
+        }
+        node = node == null || node == root ? null : node.getNextSibling();
+      }
+    }
+    return size;
+  }
+
+  private static long stringSize( String string ) {
+    return string == null ? 0L : STRING_BYTES + 2L * string.length();
+  }
+
+  /**
+   * The DOM implementation doesn't guarantee that concurrent reads are safe, so only one thread at a time copies the
+   * document. A thread that finds it being copied doesn't wait for it but gets null.
+   *
+   * @return a deep copy of the cached document, null if another thread is copying it
+   */
+  Document copyDocument() {
+    Document cached = document.getAndSet( null );
+    if ( cached == null ) {
+      return null;
+    }
+    try {
+      return (Document) cached.cloneNode( true );
+    } finally {
+      document.set( cached );
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.xml;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopXMLException;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reads an XML document in a single streaming pass, handing out the elements found at a given path one at a time as
+ * separate DOM nodes. Everything else in the document is kept in a small DOM which is available through
+ * {@link #getRootNode()} once all the streamed elements were read.<br>
+ * <br>
+ * This is used to load large transformation and job files: only the step (or job entry) which is being loaded needs
+ * to be in memory as a DOM instead of the complete document. The nodes look exactly like the ones loaded by
+ * {@link XMLHandler#loadXMLFile(InputStream, String, boolean, boolean)}: comments are ignored and namespaces are not
+ * resolved.
+ */
+public class XMLElementStream implements AutoCloseable {
+
+  /**
+   * Files of this size (in bytes) or larger are streamed by default.
+   */
+  public static final long DEFAULT_STREAMING_THRESHOLD = 10L * 1024 * 1024;
+
+  private final InputStream inputStream;
+  private final XMLStreamReader reader;
+  private final String[] path;
+
+  private final Document document;
+  private final Element root;
+
+  /**
+   * The elements of the skeleton document currently open, the root element at the bottom
+   */
+  private final Deque<Element> openElements = new ArrayDeque<>();
+
+  private boolean finished;
+
+  /**
+   * Start streaming a document. The stream is positioned right after the root element.
+   *
+   * @param inputStream the stream to read the document from, closed with {@link #close()}
+   * @param rootTag     the expected tag of the root element
+   * @param path        the tags leading from the root element to the elements to stream, e.g. "entries", "entry"
+   * @throws HopXMLException in case the document can't be read or doesn't start with the given root element
+   */
+  public XMLElementStream( InputStream inputStream, String rootTag, String... path ) throws HopXMLException {
+    if ( path.length == 0 ) {
+      throw new IllegalArgumentException( "At least one tag is needed to find the elements to stream" );
+    }
+    this.inputStream = inputStream;
+    this.path = path;
+    try {
+      reader = XMLParserFactoryProducer.createSecureXMLInputFactory().createXMLStreamReader( inputStream );
+      document = XMLParserFactoryProducer.createSecureDocBuilderFactory().newDocumentBuilder().newDocument();
+
+      while ( reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT ) {
+        // skip the prolog
+      }
+      if ( !reader.isStartElement() || !rootTag.equals( getTagName() ) ) {
+        throw new HopXMLException( "The document doesn't start with a <" + rootTag + "> element" );
+      }
+      root = createElement();
+      document.appendChild( root );
+      openElements.push( root );
+    } catch ( XMLStreamException | ParserConfigurationException e ) {
+      close();
+      throw new HopXMLException( "Unable to start reading the XML document", e );
+    } catch ( HopXMLException e ) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * See if a file is large enough to be streamed, the threshold is set with
+   * {@link Const#HOP_META_STREAMING_THRESHOLD}.
+   *
+   * @param fileObject the file to load
+   * @return true if the file should be loaded with an {@link XMLElementStream}
+   */
+  public static boolean isStreamed( FileObject fileObject ) {
+    long threshold =
+      Const.toLong( System.getProperty( Const.HOP_META_STREAMING_THRESHOLD ), DEFAULT_STREAMING_THRESHOLD );
+    if ( threshold <= 0 ) {
+      return false;
+    }
+    try {
+      return fileObject.getContent().getSize() >= threshold;
+    } catch ( FileSystemException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * Read up to and including the next streamed element.
+   *
+   * @return the next streamed element as a node which isn't attached to the document, null if there are no more
+   * @throws HopXMLException in case the document can't be read
+   */
+  public Node nextElement() throws HopXMLException {
+    try {
+      while ( !finished && reader.hasNext() ) {
+        switch ( reader.next() ) {
+          case XMLStreamConstants.START_ELEMENT:
+            if ( isStreamedElement() ) {
+              return readElement();
+            }
+            Element element = createElement();
+            openElements.peek().appendChild( element );
+            openElements.push( element );
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            openElements.pop();
+            finished = openElements.isEmpty();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+          case XMLStreamConstants.CDATA:
+            appendText( openElements.peek() );
+            break;
+          default:
+            break;
+        }
+      }
+      finished = true;
+      return null;
+    } catch ( XMLStreamException e ) {
+      throw new HopXMLException( "Unable to read the XML document", e );
+    }
+  }
+
+  /**
+   * @return the root element of the document without the streamed elements, complete after the last streamed element
+   * was read.
+   */
+  public Node getRootNode() {
+    return root;
+  }
+
+  @Override
+  public void close() {
+    try {
+      if ( reader != null ) {
+        reader.close();
+      }
+    } catch ( XMLStreamException e ) {
+      // Nothing to be done about it, the stream is closed below
+    }
+    try {
+      inputStream.close();
+    } catch ( IOException e ) {
+      // Ignore, we only read from it
+    }
+  }
+
+  private boolean isStreamedElement() {
+    // The root element is open as well, so the parent of the streamed elements is at depth path.length
+    //
+    if ( openElements.size() != path.length ) {
+      return false;
+    }
+    if ( !path[ path.length - 1 ].equals( getTagName() ) ) {
+      return false;
+    }
+    int i = path.length - 2;
+    for ( Element open : openElements ) {
+      if ( open == root ) {
+        break;
+      }
+      if ( !path[ i-- ].equals( open.getTagName() ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the element the stream is positioned at, with all its content, into a new detached node.
+   */
+  private Element readElement() throws XMLStreamException {
+    Element element = createElement();
+    Element current = element;
+    while ( current != null ) {
+      switch ( reader.next() ) {
+        case XMLStreamConstants.START_ELEMENT:
+          Element child = createElement();
+          current.appendChild( child );
+          current = child;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          current = current == element ? null : (Element) current.getParentNode();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+        case XMLStreamConstants.CDATA:
+          appendText( current );
+          break;
+        default:
+          break;
+      }
+    }
+    return element;
+  }
+
+  private Element createElement() {
+    Element element = document.createElement( getTagName() );
+    for ( int i = 0; i < reader.getAttributeCount(); i++ ) {
+      String prefix = reader.getAttributePrefix( i );
+      String name = reader.getAttributeLocalName( i );
+      element.setAttribute( prefix == null || prefix.isEmpty() ? name : prefix + ":" + name,
+        reader.getAttributeValue( i ) );
+    }
+    return element;
+  }
+
+  private String getTagName() {
+    String prefix = reader.getPrefix();
+    return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+  }
+
+  /**
+   * Adds the current text or CDATA event to the element. Like the DOM parser, consecutive pieces of text end up in a
+   * single node.
+   */
+  private void appendText( Element element ) {
+    String text = reader.getText();
+    boolean cdata = reader.getEventType() == XMLStreamConstants.CDATA;
+    Node last = element.getLastChild();
+    if ( last != null && last.getNodeType() == ( cdata ? Node.CDATA_SECTION_NODE : Node.TEXT_NODE ) ) {
+      ( (CharacterData) last ).appendData( text );
+    } else {
+      element.appendChild( cdata ? document.createCDATASection( text ) : document.createTextNode( text ) );
+    }
+  }
+}
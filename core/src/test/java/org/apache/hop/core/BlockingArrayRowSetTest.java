@@ -0,0 +1,122 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BlockingArrayRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private RowMetaInterface createRowMetaInterface() {
+    RowMetaInterface rm = new RowMeta();
+    rm.addValueMeta( new ValueMetaInteger( "ROWNR" ) );
+    return rm;
+  }
+
+  private Object[][] createRows( int nr ) {
+    Object[][] rows = new Object[ nr ][];
+    for ( int i = 0; i < nr; i++ ) {
+      rows[ i ] = new Object[] { (long) i };
+    }
+    return rows;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RowSet set = new BlockingArrayRowSet( 10 );
+
+    assertFalse( set.isDone() );
+    assertEquals( 0, set.size() );
+    assertNull( set.getRowImmediate() );
+  }
+
+  @Test
+  public void testSingleRows() {
+    BlockingArrayRowSet set = new BlockingArrayRowSet( 3 );
+    RowMetaInterface rm = createRowMetaInterface();
+    Object[][] rows = createRows( 4 );
+
+    assertTrue( set.putRow( rm, rows[ 0 ] ) );
+    assertTrue( set.putRow( rm, rows[ 1 ] ) );
+    assertTrue( set.putRow( rm, rows[ 2 ] ) );
+    assertFalse( set.putRowWait( rm, rows[ 3 ], 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 3, set.size() );
+    assertSame( rm, set.getRowMeta() );
+
+    assertSame( rows[ 0 ], set.getRow() );
+    assertTrue( set.putRow( rm, rows[ 3 ] ) );
+    assertSame( rows[ 1 ], set.getRowImmediate() );
+    assertSame( rows[ 2 ], set.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+    assertSame( rows[ 3 ], set.getRow() );
+    assertNull( set.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testArraysOfRowsWrapAround() {
+    BlockingArrayRowSet set = new BlockingArrayRowSet( 5 );
+    RowMetaInterface rm = createRowMetaInterface();
+    Object[][] rows = createRows( 8 );
+
+    // Only 5 rows fit in the buffer
+    //
+    assertEquals( 5, set.putRowsWait( rm, rows, 0, 8, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 0, set.putRowsWait( rm, rows, 5, 3, 1, TimeUnit.MILLISECONDS ) );
+
+    Object[][] target = new Object[ 8 ][];
+    assertEquals( 4, set.getRowsImmediate( target, 0, 4 ) );
+    assertEquals( 1, set.size() );
+
+    // The next rows are stored at the end and the start of the buffer
+    //
+    assertEquals( 3, set.putRowsWait( rm, rows, 5, 3, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 4, set.getRowsImmediate( target, 4, 8 ) );
+    assertEquals( 0, set.size() );
+    assertArrayEquals( rows, target );
+  }
+
+  @Test
+  public void testClear() {
+    BlockingArrayRowSet set = new BlockingArrayRowSet( 5 );
+    set.putRowsWait( createRowMetaInterface(), createRows( 3 ), 0, 3, 1, TimeUnit.MILLISECONDS );
+    set.setDone();
+
+    set.clear();
+    assertEquals( 0, set.size() );
+    assertFalse( set.isDone() );
+    assertNull( set.getRowImmediate() );
+  }
+}
@@ -125,4 +125,27 @@ public class BlockingBatchingRowSetTest {
     assertNotNull( r );
     assertArrayEquals( rows.get( 2 ), r );
   }
+
+  /**
+   * getRowImmediate() polls, it doesn't wait for the get timeout like getRow() does.
+   */
+  @Test
+  public void testGetRowImmediateDoesNotWait() {
+    BlockingBatchingRowSet set = new BlockingBatchingRowSet( 10 );
+
+    long start = System.currentTimeMillis();
+    for ( int i = 0; i < 100; i++ ) {
+      assertNull( set.getRowImmediate() );
+    }
+    assertTrue( System.currentTimeMillis() - start < 50L * Const.TIMEOUT_GET_MILLIS );
+
+    RowMetaInterface rm = createRowMetaInterface();
+    for ( int i = 0; i < 5; i++ ) {
+      set.putRow( rm, new Object[] { new Long( i ), } );
+    }
+    for ( int i = 0; i < 5; i++ ) {
+      assertArrayEquals( new Object[] { new Long( i ), }, set.getRowImmediate() );
+    }
+    assertNull( set.getRowImmediate() );
+  }
 }
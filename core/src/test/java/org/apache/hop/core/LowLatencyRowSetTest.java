@@ -0,0 +1,115 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LowLatencyRowSetTest {
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    LowLatencyRowSet rowSet = new LowLatencyRowSet( 2 );
+    Object[] row1 = new Object[] { "a" };
+    Object[] row2 = new Object[] { "b" };
+
+    assertTrue( rowSet.putRow( new RowMeta(), row1 ) );
+    assertTrue( rowSet.putRowWait( new RowMeta(), row2, 1, TimeUnit.MILLISECONDS ) );
+    assertFalse( "The row set is full", rowSet.putRowWait( new RowMeta(), row1, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 2, rowSet.size() );
+
+    assertSame( row1, rowSet.getRowImmediate() );
+    assertSame( row2, rowSet.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+    assertNull( rowSet.getRowImmediate() );
+  }
+
+  @Test
+  public void testOriginIsPassedOn() throws Exception {
+    LowLatencyRowSet injected = new LowLatencyRowSet( 10, true );
+    LowLatencyRowSet next = new LowLatencyRowSet( 10 );
+
+    long before = System.nanoTime();
+    injected.putRow( new RowMeta(), new Object[] {} );
+    Thread.sleep( 2 );
+
+    // Reading the row makes its origin the origin of this thread...
+    //
+    injected.getRowImmediate();
+    long origin = LowLatencyRowSet.getOriginNanos();
+    assertTrue( origin >= before );
+
+    // ... and rows put by this thread keep it.
+    //
+    next.putRow( new RowMeta(), new Object[] {} );
+    next.getRowImmediate();
+    assertEquals( origin, LowLatencyRowSet.getOriginNanos() );
+
+    // Injected rows always start a new event.
+    //
+    injected.putRow( new RowMeta(), new Object[] {} );
+    injected.getRowImmediate();
+    assertTrue( LowLatencyRowSet.getOriginNanos() > origin );
+  }
+
+  @Test
+  public void testAggregateKeepsOriginOfLastRow() throws Exception {
+    LowLatencyRowSet injected = new LowLatencyRowSet( 10, true );
+    LowLatencyRowSet next = new LowLatencyRowSet( 10 );
+
+    injected.putRow( new RowMeta(), new Object[] { "first" } );
+    Thread.sleep( 2 );
+    injected.putRow( new RowMeta(), new Object[] { "last" } );
+
+    injected.getRowImmediate();
+    long firstOrigin = LowLatencyRowSet.getOriginNanos();
+    injected.getRowImmediate();
+    long lastOrigin = LowLatencyRowSet.getOriginNanos();
+    assertTrue( lastOrigin > firstOrigin );
+
+    // The end of the input doesn't reset the origin: the aggregate is put with the origin of the last row.
+    //
+    assertNull( injected.getRowImmediate() );
+    next.putRow( new RowMeta(), new Object[] { "aggregate" } );
+    next.getRowImmediate();
+    assertEquals( lastOrigin, LowLatencyRowSet.getOriginNanos() );
+  }
+
+  @Test
+  public void testSignalsConsumer() throws Exception {
+    RowSetNotifier notifier = new RowSetNotifier();
+    LowLatencyRowSet rowSet = new LowLatencyRowSet( 10 );
+    rowSet.setConsumerNotifier( notifier );
+
+    long version = notifier.getVersion();
+    rowSet.putRow( new RowMeta(), new Object[] {} );
+    assertTrue( notifier.await( version, 0, TimeUnit.MILLISECONDS ) );
+  }
+}
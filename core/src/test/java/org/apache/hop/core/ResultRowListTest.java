@@ -0,0 +1,242 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaSerializable;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultRowListTest {
+
+  private static RowMetaInterface rowMeta;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopClientEnvironment.init();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+  }
+
+  private static RowMetaAndData row( long id ) {
+    return new RowMetaAndData( rowMeta, id, "row " + id );
+  }
+
+  @Test
+  public void testKeepsSmallListsInMemory() {
+    ResultRowList rows = new ResultRowList( 10 );
+    for ( long i = 0; i < 10; i++ ) {
+      rows.add( row( i ) );
+    }
+    assertFalse( rows.isSpilled() );
+    assertEquals( 10, rows.size() );
+    rows.remove( 0 );
+    assertEquals( 1L, rows.get( 0 ).getData()[ 0 ] );
+  }
+
+  @Test
+  public void testSpillsToDisk() {
+    ResultRowList rows = new ResultRowList( 10 );
+    for ( long i = 0; i < 5000; i++ ) {
+      rows.add( row( i ) );
+    }
+    assertTrue( rows.isSpilled() );
+    assertEquals( 5000, rows.size() );
+
+    long expected = 0;
+    for ( RowMetaAndData row : rows ) {
+      assertEquals( expected, row.getData()[ 0 ] );
+      assertEquals( "row " + expected, row.getData()[ 1 ] );
+      expected++;
+    }
+    assertEquals( 5000, expected );
+
+    // Sequential, backward and random access
+    //
+    for ( int i = 0; i < 5000; i++ ) {
+      assertEquals( (long) i, rows.get( i ).getData()[ 0 ] );
+    }
+    assertEquals( 4999L, rows.get( 4999 ).getData()[ 0 ] );
+    assertEquals( 3L, rows.get( 3 ).getData()[ 0 ] );
+    assertEquals( 2500L, rows.get( 2500 ).getData()[ 0 ] );
+    assertEquals( "id", rows.get( 2500 ).getRowMeta().getValueMeta( 0 ).getName() );
+  }
+
+  @Test
+  public void testAppendWhileReading() {
+    ResultRowList rows = new ResultRowList( 2 );
+    rows.add( row( 0 ) );
+    rows.add( row( 1 ) );
+    rows.add( row( 2 ) );
+
+    Iterator<RowMetaAndData> iterator = rows.iterator();
+    assertEquals( 0L, iterator.next().getData()[ 0 ] );
+    rows.add( row( 3 ) );
+    assertEquals( 1L, iterator.next().getData()[ 0 ] );
+    assertEquals( 2L, iterator.next().getData()[ 0 ] );
+    assertEquals( 3L, iterator.next().getData()[ 0 ] );
+    assertFalse( iterator.hasNext() );
+  }
+
+  @Test
+  public void testDifferentRowLayouts() {
+    RowMetaInterface otherRowMeta = new RowMeta();
+    otherRowMeta.addValueMeta( new ValueMetaString( "code" ) );
+
+    ResultRowList rows = new ResultRowList( 1 );
+    rows.add( row( 0 ) );
+    rows.add( new RowMetaAndData( otherRowMeta, "A" ) );
+    rows.add( row( 2 ) );
+
+    List<RowMetaAndData> copy = new ArrayList<RowMetaAndData>( rows );
+    assertEquals( 3, copy.size() );
+    assertEquals( 2, copy.get( 0 ).size() );
+    assertEquals( "code", copy.get( 1 ).getRowMeta().getValueMeta( 0 ).getName() );
+    assertEquals( "A", copy.get( 1 ).getData()[ 0 ] );
+    assertEquals( 2L, copy.get( 2 ).getData()[ 0 ] );
+  }
+
+  @Test
+  public void testKeepsRowsInMemoryByDefault() {
+    ResultRowList rows = new ResultRowList();
+    for ( long i = 0; i < 5000; i++ ) {
+      rows.add( row( i ) );
+    }
+    assertFalse( rows.isSpilled() );
+  }
+
+  @Test
+  public void testChangingSpilledRowsBringsThemBackInMemory() {
+    ResultRowList rows = new ResultRowList( 1 );
+    for ( long i = 0; i < 5; i++ ) {
+      rows.add( row( i ) );
+    }
+    File file = rows.getFile();
+    Iterator<RowMetaAndData> iterator = rows.iterator();
+    assertEquals( 0L, iterator.next().getData()[ 0 ] );
+
+    assertEquals( 0L, rows.remove( 0 ).getData()[ 0 ] );
+    assertFalse( rows.isSpilled() );
+    assertFalse( file.exists() );
+    rows.set( 0, row( 10 ) );
+    rows.add( 0, row( 20 ) );
+    assertEquals( 20L, rows.get( 0 ).getData()[ 0 ] );
+    assertEquals( 10L, rows.get( 1 ).getData()[ 0 ] );
+    assertEquals( 5, rows.size() );
+    assertEquals( 10L, iterator.next().getData()[ 0 ] );
+
+    // It stays in memory
+    for ( long i = 0; i < 10; i++ ) {
+      rows.add( row( i ) );
+    }
+    assertFalse( rows.isSpilled() );
+  }
+
+  @Test
+  public void testRowsThatCantBeWrittenStayInMemory() {
+    RowMetaInterface serializableRowMeta = new RowMeta();
+    serializableRowMeta.addValueMeta( new ValueMetaSerializable( "object" ) );
+
+    ResultRowList rows = new ResultRowList( 2 );
+    rows.add( row( 0 ) );
+    rows.add( row( 1 ) );
+    rows.add( row( 2 ) );
+    assertTrue( rows.isSpilled() );
+    rows.add( new RowMetaAndData( serializableRowMeta, new StringBuilder( "three" ) ) );
+    assertFalse( rows.isSpilled() );
+    assertEquals( 4, rows.size() );
+    assertEquals( 2L, rows.get( 2 ).getData()[ 0 ] );
+    assertEquals( "three", rows.get( 3 ).getData()[ 0 ].toString() );
+
+    ResultRowList objects = new ResultRowList( 2 );
+    for ( int i = 0; i < 5; i++ ) {
+      objects.add( new RowMetaAndData( serializableRowMeta, new StringBuilder( "row " + i ) ) );
+    }
+    assertFalse( objects.isSpilled() );
+    assertEquals( 5, objects.size() );
+  }
+
+  @Test
+  public void testClear() {
+    ResultRowList rows = new ResultRowList( 1 );
+    rows.add( row( 0 ) );
+    rows.add( row( 1 ) );
+    assertTrue( rows.isSpilled() );
+
+    rows.clear();
+    assertFalse( rows.isSpilled() );
+    assertTrue( rows.isEmpty() );
+
+    rows.add( row( 5 ) );
+    assertEquals( 5L, rows.get( 0 ).getData()[ 0 ] );
+  }
+
+  @Test
+  public void testClearDeletesFile() {
+    ResultRowList rows = new ResultRowList( 1 );
+    rows.add( row( 0 ) );
+    rows.add( row( 1 ) );
+    File file = rows.getFile();
+    assertTrue( file.exists() );
+
+    Iterator<RowMetaAndData> iterator = rows.iterator();
+    iterator.next();
+    rows.clear();
+    assertFalse( file.exists() );
+    assertNull( rows.getFile() );
+  }
+
+  @Test
+  public void testCloseUnfinishedIterator() {
+    ResultRowList rows = new ResultRowList( 1 );
+    for ( long i = 0; i < 5; i++ ) {
+      rows.add( row( i ) );
+    }
+    Iterator<RowMetaAndData> iterator = rows.iterator();
+    assertEquals( 0L, iterator.next().getData()[ 0 ] );
+    assertTrue( iterator instanceof Closeable );
+    ResultRowList.close( iterator );
+
+    // In memory iterators are ignored
+    ResultRowList.close( new ArrayList<RowMetaAndData>().iterator() );
+
+    rows.clear();
+    assertTrue( rows.isEmpty() );
+  }
+}
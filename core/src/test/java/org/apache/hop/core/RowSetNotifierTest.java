@@ -0,0 +1,92 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RowSetNotifierTest {
+
+  @Test
+  public void testAwaitTimesOutWithoutSignal() throws Exception {
+    RowSetNotifier notifier = new RowSetNotifier();
+    assertFalse( notifier.await( notifier.getVersion(), 10, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testSignalBeforeAwaitIsNotLost() throws Exception {
+    RowSetNotifier notifier = new RowSetNotifier();
+    long version = notifier.getVersion();
+    notifier.signal();
+    assertTrue( notifier.await( version, 0, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testPutRowWakesUpWaitingConsumer() throws Exception {
+    final RowSetNotifier notifier = new RowSetNotifier();
+    final BlockingRowSet rowSet = new BlockingRowSet( 10 );
+    rowSet.setConsumerNotifier( notifier );
+    assertSame( notifier, rowSet.getConsumerNotifier() );
+
+    final long version = notifier.getVersion();
+    final CountDownLatch waiting = new CountDownLatch( 1 );
+    final AtomicBoolean signalled = new AtomicBoolean();
+    Thread consumer = new Thread( () -> {
+      waiting.countDown();
+      try {
+        signalled.set( notifier.await( version, 10, TimeUnit.SECONDS ) );
+      } catch ( InterruptedException e ) {
+        // fails below
+      }
+    } );
+    consumer.start();
+    waiting.await();
+
+    Object[] row = new Object[] {};
+    rowSet.putRow( new RowMeta(), row );
+    consumer.join( 10000 );
+
+    assertTrue( signalled.get() );
+    assertSame( row, rowSet.getRowImmediate() );
+  }
+
+  @Test
+  public void testSetDoneSignals() throws Exception {
+    RowSetNotifier notifier = new RowSetNotifier();
+    QueueRowSet rowSet = new QueueRowSet();
+    rowSet.setConsumerNotifier( notifier );
+
+    long version = notifier.getVersion();
+    rowSet.setDone();
+    assertNotEquals( version, notifier.getVersion() );
+  }
+}
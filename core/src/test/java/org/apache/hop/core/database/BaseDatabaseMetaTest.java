@@ -206,6 +206,26 @@ public class BaseDatabaseMetaTest {
     assertEquals( "DROP TABLE IF EXISTS FOO", nativeMeta.getDropTableIfExistsStatement( "FOO" ) );
   }
 
+  @Test
+  public void testDefaultStagingStatements() {
+    assertFalse( nativeMeta.supportsMergeStatement() );
+    assertEquals( "STG", nativeMeta.getStagingTableName( "STG" ) );
+    assertEquals( "CREATE TABLE STG ( ID INTEGER, NAME VARCHAR(10) )",
+      nativeMeta.getCreateStagingTableStatement( "STG", "ID INTEGER, NAME VARCHAR(10)" ) );
+    assertEquals( "MERGE INTO FOO t USING STG s ON ( t.ID = s.ID AND t.NR = s.NR )"
+        + " WHEN MATCHED THEN UPDATE SET NAME = s.NAME"
+        + " WHEN NOT MATCHED THEN INSERT ( ID, NR, NAME ) VALUES ( s.ID, s.NR, s.NAME )",
+      nativeMeta.getMergeStatement( "FOO", "STG", new String[] { "ID", "NR" }, new String[] { "ID", "NR", "NAME" },
+        new String[] { "NAME" } ) );
+    assertEquals( "MERGE INTO FOO t USING STG s ON ( t.ID = s.ID )"
+        + " WHEN NOT MATCHED THEN INSERT ( ID, NAME ) VALUES ( s.ID, s.NAME )",
+      nativeMeta.getMergeStatement( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[ 0 ] ) );
+    assertEquals( "UPDATE FOO SET NAME = ( SELECT s.NAME FROM STG s WHERE FOO.ID = s.ID )"
+        + " WHERE EXISTS ( SELECT 1 FROM STG s WHERE FOO.ID = s.ID )",
+      nativeMeta.getUpdateFromStatement( "FOO", "STG", new String[] { "ID" }, new String[] { "NAME" } ) );
+  }
+
   @Test
   public void testGettersSetters() {
     nativeMeta.setUsername( "FOO" );
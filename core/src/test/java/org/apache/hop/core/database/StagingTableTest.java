@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StagingTableTest {
+
+  private Database db;
+  private PreparedStatement insertStatement;
+  private RowMetaInterface rowMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.getStagingTableName( anyString() ) ).thenAnswer( invocation -> invocation.getArguments()[ 0 ] );
+    when( databaseMeta.quoteField( anyString() ) ).thenAnswer( invocation -> invocation.getArguments()[ 0 ] );
+    when( databaseMeta.stripCR( anyString() ) ).thenAnswer( invocation -> invocation.getArguments()[ 0 ] );
+    when( databaseMeta.getFieldDefinition( any(), anyString(), anyString(), anyBoolean(), anyBoolean(),
+      anyBoolean() ) ).thenReturn( "VARCHAR(10)" );
+    when( databaseMeta.getCreateStagingTableStatement( anyString(), anyString() ) ).thenReturn( "CREATE TABLE" );
+
+    Connection connection = mock( Connection.class );
+    when( connection.createStatement() ).thenReturn( mock( Statement.class ) );
+    insertStatement = mock( PreparedStatement.class );
+
+    db = mock( Database.class );
+    when( db.getDatabaseMeta() ).thenReturn( databaseMeta );
+    when( db.getConnection() ).thenReturn( connection );
+    when( db.prepareSQL( anyString() ) ).thenReturn( insertStatement );
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+  }
+
+  @Test
+  public void testColumns() throws Exception {
+    StagingTable stagingTable = new StagingTable( db );
+    assertTrue( stagingTable.addColumn( "ID", "id" ) );
+    assertFalse( stagingTable.addColumn( "id", "id" ) );
+    try {
+      stagingTable.addColumn( "Id", "value" );
+      fail( "A column can't get values from two fields" );
+    } catch ( HopDatabaseException e ) {
+      // expected
+    }
+    stagingTable.addColumn( "VALUE", "value" );
+    stagingTable.create( null, "target", rowMeta, new int[] { 0 } );
+
+    RowMetaInterface columns = stagingTable.getColumns();
+    assertEquals( 3, columns.size() );
+    assertEquals( "ID", columns.getValueMeta( 0 ).getName() );
+    assertEquals( "VALUE", columns.getValueMeta( 1 ).getName() );
+    assertEquals( StagingTable.ROW_NUMBER_COLUMN, columns.getValueMeta( 2 ).getName() );
+  }
+
+  @Test
+  public void testRemoveRowsNotIn() throws Exception {
+    StagingTable stagingTable = new StagingTable( db );
+    stagingTable.addColumn( "ID", "id" );
+    stagingTable.addColumn( "VALUE", "value" );
+    stagingTable.create( null, "target", rowMeta, new int[] { 0 } );
+
+    Object[] a1 = { "a", 1L };
+    Object[] b = { "b", 2L };
+    Object[] a2 = { "a", 3L };
+    Object[] c = { "c", 4L };
+    for ( Object[] row : new Object[][] { a1, b, a2, c } ) {
+      stagingTable.addRow( row );
+    }
+    assertEquals( 4, stagingTable.getChunkRows().size() );
+    assertEquals( 1, stagingTable.getNrDuplicates() );
+
+    stagingTable.load();
+    // The staging rows of a, b and c get numbers 0, 1 and 2, only the last row with key a is loaded
+    verify( insertStatement, times( 3 ) ).executeUpdate();
+
+    RowMetaInterface numbersMeta = new RowMeta();
+    numbersMeta.addValueMeta( new ValueMetaInteger( StagingTable.ROW_NUMBER_COLUMN ) );
+    when( db.getRows( anyString(), eq( -1 ) ) ).thenReturn( Collections.singletonList( new Object[] { 0L } ) );
+    when( db.getReturnRowMeta() ).thenReturn( numbersMeta );
+
+    List<Object[]> removed = stagingTable.removeRowsNotIn( "target", new String[] { "ID" } );
+    assertEquals( 2, removed.size() );
+    assertSame( a1, removed.get( 0 ) );
+    assertSame( a2, removed.get( 1 ) );
+    assertEquals( 2, stagingTable.getChunkRows().size() );
+    assertSame( b, stagingTable.getChunkRows().get( 0 ) );
+    assertSame( c, stagingTable.getChunkRows().get( 1 ) );
+    assertEquals( 0, stagingTable.getNrDuplicates() );
+
+    stagingTable.clear();
+    assertTrue( stagingTable.getChunkRows().isEmpty() );
+  }
+}
@@ -0,0 +1,80 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.logging;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.variables.VariableSpace;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncLogTableWriterTest {
+
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testRecordsAreTakenRightAwayAndInsertedOnTheWriterThread() throws Exception {
+    Database db = mock( Database.class );
+    LogTableCoreInterface logTable = mock( LogTableCoreInterface.class );
+    RowMetaAndData first = new RowMetaAndData();
+    RowMetaAndData second = new RowMetaAndData();
+    when( logTable.getLogRecord( LogStatus.START, "first", null ) ).thenReturn( first );
+    when( logTable.getLogRecord( LogStatus.START, "second", null ) ).thenReturn( second );
+
+    AsyncLogTableWriter.write( db, mock( VariableSpace.class ), 100, logTable, LogStatus.START,
+      Arrays.asList( "first", "none", "second" ), null, mock( LogChannelInterface.class ) );
+
+    ArgumentCaptor<List> records = ArgumentCaptor.forClass( List.class );
+    verify( db, timeout( 10000 ) ).disconnect();
+    verify( db ).connect();
+    verify( db ).setCommit( 100 );
+    verify( db ).insertLogRecords( eq( logTable ), records.capture() );
+    verify( db ).cleanupLogRecords( logTable );
+    assertEquals( Arrays.asList( first, second ), records.getValue() );
+  }
+
+  @Test
+  public void testErrorsAreLogged() throws Exception {
+    Database db = mock( Database.class );
+    LogTableCoreInterface logTable = mock( LogTableCoreInterface.class );
+    LogChannelInterface log = mock( LogChannelInterface.class );
+    doThrow( new RuntimeException( "unreachable" ) ).when( db ).connect();
+
+    AsyncLogTableWriter.insert( db, mock( VariableSpace.class ), 0, logTable, Arrays.<RowMetaAndData>asList(), log );
+
+    verify( log ).logError( anyString(), any( Exception.class ) );
+    verify( db ).disconnect();
+  }
+}
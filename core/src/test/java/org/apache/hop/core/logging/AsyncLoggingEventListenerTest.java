@@ -0,0 +1,182 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.logging;
+
+import org.junit.Test;
+
+import java.io.Flushable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLoggingEventListenerTest {
+
+  private static class CollectingListener implements HopLoggingEventListener, Flushable {
+    final List<HopLoggingEvent> events = new CopyOnWriteArrayList<>();
+    final AtomicInteger flushes = new AtomicInteger();
+    final CountDownLatch release;
+
+    CollectingListener( CountDownLatch release ) {
+      this.release = release;
+    }
+
+    @Override
+    public void eventAdded( HopLoggingEvent event ) {
+      try {
+        release.await();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      events.add( event );
+    }
+
+    @Override
+    public void flush() {
+      flushes.incrementAndGet();
+    }
+  }
+
+  private static HopLoggingEvent event( String message, LogLevel level ) {
+    return new HopLoggingEvent( message, System.currentTimeMillis(), level );
+  }
+
+  @Test
+  public void testEventsArePassedOnInOrder() {
+    CollectingListener listener = new CollectingListener( new CountDownLatch( 0 ) );
+    AsyncLoggingEventListener async =
+      new AsyncLoggingEventListener( listener, 100, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    for ( int i = 0; i < 1000; i++ ) {
+      async.eventAdded( event( "line " + i, LogLevel.BASIC ) );
+    }
+    async.close();
+
+    assertEquals( 1000, listener.events.size() );
+    for ( int i = 0; i < 1000; i++ ) {
+      assertEquals( "line " + i, listener.events.get( i ).getMessage() );
+    }
+    assertEquals( 1000, async.getNrWritten() );
+    assertEquals( 0, async.getNrDropped() );
+    assertEquals( 0, async.getNrQueued() );
+    assertTrue( listener.flushes.get() > 0 );
+  }
+
+  @Test
+  public void testDropPolicyDropsDetailedEventsOnly() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    CollectingListener listener = new CollectingListener( release );
+    AsyncLoggingEventListener async =
+      new AsyncLoggingEventListener( listener, 10, AsyncLoggingEventListener.OverflowPolicy.DROP );
+
+    // The writer takes the first event and waits, the next 10 fill up the queue
+    //
+    for ( int i = 0; i < 11; i++ ) {
+      async.eventAdded( event( "basic " + i, LogLevel.BASIC ) );
+    }
+    waitForQueue( async, 10 );
+    for ( int i = 0; i < 5; i++ ) {
+      async.eventAdded( event( "row " + i, LogLevel.ROWLEVEL ) );
+    }
+    assertEquals( 5, async.getNrDropped() );
+
+    release.countDown();
+    async.eventAdded( event( "error", LogLevel.ERROR ) );
+    async.close();
+
+    assertEquals( 12, listener.events.size() );
+    assertEquals( "error", listener.events.get( 11 ).getMessage() );
+  }
+
+  @Test
+  public void testSamplePolicyKeepsSomeDetailedEvents() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    CollectingListener listener = new CollectingListener( release );
+    AsyncLoggingEventListener async =
+      new AsyncLoggingEventListener( listener, 10, AsyncLoggingEventListener.OverflowPolicy.SAMPLE );
+
+    for ( int i = 0; i < 11; i++ ) {
+      async.eventAdded( event( "basic " + i, LogLevel.BASIC ) );
+    }
+    waitForQueue( async, 10 );
+
+    // Every 10th overflowing event waits for room, so let the writer go on just before it
+    //
+    for ( int i = 1; i < AsyncLoggingEventListener.SAMPLE_RATE; i++ ) {
+      async.eventAdded( event( "debug " + i, LogLevel.DEBUG ) );
+    }
+    release.countDown();
+    async.eventAdded( event( "debug " + AsyncLoggingEventListener.SAMPLE_RATE, LogLevel.DEBUG ) );
+    async.close();
+
+    assertEquals( AsyncLoggingEventListener.SAMPLE_RATE - 1, async.getNrDropped() );
+    assertEquals( 12, listener.events.size() );
+  }
+
+  @Test
+  public void testEventsAfterCloseArePassedOnDirectly() {
+    CollectingListener listener = new CollectingListener( new CountDownLatch( 0 ) );
+    AsyncLoggingEventListener async =
+      new AsyncLoggingEventListener( listener, 10, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    async.close();
+    async.eventAdded( event( "late", LogLevel.BASIC ) );
+
+    assertEquals( 1, listener.events.size() );
+  }
+
+  @Test
+  public void testListenersShareOneWriterThread() throws Exception {
+    final List<Thread> threads = new CopyOnWriteArrayList<>();
+    final CountDownLatch written = new CountDownLatch( 2 );
+    HopLoggingEventListener listener = new HopLoggingEventListener() {
+      @Override
+      public void eventAdded( HopLoggingEvent event ) {
+        threads.add( Thread.currentThread() );
+        written.countDown();
+      }
+    };
+    AsyncLoggingEventListener first =
+      new AsyncLoggingEventListener( listener, 10, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    AsyncLoggingEventListener second =
+      new AsyncLoggingEventListener( listener, 10, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    first.eventAdded( event( "first", LogLevel.BASIC ) );
+    second.eventAdded( event( "second", LogLevel.BASIC ) );
+
+    assertTrue( written.await( 10, TimeUnit.SECONDS ) );
+    first.close();
+    second.close();
+    assertEquals( 2, threads.size() );
+    assertEquals( threads.get( 0 ), threads.get( 1 ) );
+  }
+
+  private static void waitForQueue( AsyncLoggingEventListener async, int size ) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+    while ( async.getNrQueued() < size && System.nanoTime() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( size, async.getNrQueued() );
+  }
+}
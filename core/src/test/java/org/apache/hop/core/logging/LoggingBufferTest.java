@@ -25,7 +25,9 @@ import org.apache.hop.core.Const;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -185,4 +187,123 @@ public class LoggingBufferTest {
     Assert.assertEquals( 10, loggingBuffer.size() );
   }
 
+  @Test
+  public void testGetLogBufferFromToByChannel() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    addEvent( loggingBuffer, "1", "first" );
+    addEvent( loggingBuffer, "2", "other" );
+    addEvent( loggingBuffer, "3", "child" );
+    int from = loggingBuffer.getLastBufferLineNr();
+    addEvent( loggingBuffer, "1", "second" );
+    int to = loggingBuffer.getLastBufferLineNr();
+
+    List<HopLoggingEvent> events = loggingBuffer.getLogBufferFromTo( Arrays.asList( "1", "3" ), false, 0, to );
+    Assert.assertEquals( 3, events.size() );
+    Assert.assertEquals( "first", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+    Assert.assertEquals( "child", ( (LogMessage) events.get( 1 ).getMessage() ).getMessage() );
+    Assert.assertEquals( "second", ( (LogMessage) events.get( 2 ).getMessage() ).getMessage() );
+
+    events = loggingBuffer.getLogBufferFromTo( Arrays.asList( "1", "3" ), false, from, to );
+    Assert.assertEquals( 1, events.size() );
+    Assert.assertEquals( "second", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+
+    Assert.assertEquals( 4, loggingBuffer.getLogBufferFromTo( (List<String>) null, false, 0, to ).size() );
+  }
+
+  @Test
+  public void testMaxNrLinesPerChannel() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    loggingBuffer.setMaxNrLinesPerChannel( 5 );
+    for ( int i = 0; i < 20; i++ ) {
+      addEvent( loggingBuffer, "busy", "busy #" + i );
+    }
+    addEvent( loggingBuffer, "quiet", "quiet" );
+
+    Assert.assertEquals( 6, loggingBuffer.size() );
+    List<HopLoggingEvent> events =
+      loggingBuffer.getLogBufferFromTo( Arrays.asList( "busy" ), false, 0, loggingBuffer.getLastBufferLineNr() );
+    Assert.assertEquals( 5, events.size() );
+    Assert.assertEquals( "busy #15", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+  }
+
+  @Test
+  public void testEmptyChannelsAreRemoved() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 5 );
+    addEvent( loggingBuffer, "1", "first" );
+    addEvent( loggingBuffer, "2", "second" );
+    Assert.assertEquals( 2, loggingBuffer.getNrChannels() );
+
+    // Channel 1 loses its only line to the buffer limit
+    //
+    for ( int i = 0; i < 5; i++ ) {
+      addEvent( loggingBuffer, "2", "more #" + i );
+    }
+    Assert.assertEquals( 1, loggingBuffer.getNrChannels() );
+
+    loggingBuffer.removeBufferLinesBefore( Long.MAX_VALUE );
+    Assert.assertEquals( 0, loggingBuffer.size() );
+    Assert.assertEquals( 0, loggingBuffer.getNrChannels() );
+  }
+
+  @Test
+  public void testCursorDoesNotSkipLines() throws Exception {
+    final LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    final int nrThreads = 4;
+    final int nrEvents = 5000;
+    final CountDownLatch done = new CountDownLatch( nrThreads );
+    for ( int t = 0; t < nrThreads; t++ ) {
+      final String logChannelId = "channel " + t;
+      new Thread( new Runnable() {
+        @Override public void run() {
+          try {
+            for ( int i = 0; i < nrEvents; i++ ) {
+              addEvent( loggingBuffer, logChannelId, "line " + i );
+            }
+          } finally {
+            done.countDown();
+          }
+        }
+      } ).start();
+    }
+
+    // Read the way the log servlet does: from the last line number seen up to the current last line number
+    //
+    int cursor = 0;
+    int nrRead = 0;
+    boolean finished = false;
+    while ( !finished ) {
+      finished = done.getCount() == 0;
+      int last = loggingBuffer.getLastBufferLineNr();
+      nrRead += loggingBuffer.getLogBufferFromTo( (List<String>) null, false, cursor, last ).size();
+      cursor = Math.max( cursor, last );
+    }
+    Assert.assertEquals( nrThreads * nrEvents, nrRead );
+  }
+
+  @Test
+  public void testLineNumbersGoOnAfterClear() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    addEvent( loggingBuffer, "1", "first" );
+    addEvent( loggingBuffer, "2", "second" );
+    Assert.assertEquals( 2, loggingBuffer.getLastBufferLineNr() );
+
+    loggingBuffer.clear();
+    Assert.assertEquals( 0, loggingBuffer.size() );
+    Assert.assertEquals( 0, loggingBuffer.getNrChannels() );
+    Assert.assertEquals( 2, loggingBuffer.getLastBufferLineNr() );
+
+    addEvent( loggingBuffer, "1", "third" );
+    List<HopLoggingEvent> events =
+      loggingBuffer.getLogBufferFromTo( Arrays.asList( "1" ), false, 2, loggingBuffer.getLastBufferLineNr() );
+    Assert.assertEquals( 1, events.size() );
+    Assert.assertEquals( "third", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+  }
+
+  private static void addEvent( LoggingBuffer loggingBuffer, String logChannelId, String message ) {
+    HopLoggingEvent event = new HopLoggingEvent();
+    event.setMessage( new LogMessage( message, logChannelId, LogLevel.BASIC ) );
+    event.setTimeStamp( System.currentTimeMillis() );
+    loggingBuffer.addLogggingEvent( event );
+  }
+
 }
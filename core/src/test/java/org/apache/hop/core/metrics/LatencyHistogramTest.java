@@ -0,0 +1,87 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.metrics;
+
+import org.apache.hop.core.xml.XMLHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals( 0, histogram.getCount() );
+    assertEquals( 0, histogram.getMean() );
+    assertEquals( 0, histogram.getValueAtPercentile( 99.0 ) );
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for ( long i = 1; i <= 1000; i++ ) {
+      histogram.record( i * 1000L );
+    }
+    assertEquals( 1000, histogram.getCount() );
+    assertEquals( 1000000L, histogram.getMax() );
+    assertEquals( 500500L, histogram.getMean() );
+
+    assertWithin( 500000L, histogram.getValueAtPercentile( 50.0 ) );
+    assertWithin( 990000L, histogram.getValueAtPercentile( 99.0 ) );
+    assertEquals( 1000000L, histogram.getValueAtPercentile( 100.0 ) );
+  }
+
+  @Test
+  public void testBuckets() {
+    for ( long value : new long[] { 0L, 1L, 15L, 16L, 17L, 31L, 32L, 1000L, 123456789L, Long.MAX_VALUE } ) {
+      int index = LatencyHistogram.bucketIndex( value );
+      assertTrue( value <= LatencyHistogram.bucketUpperBound( index ) );
+      assertTrue( index == 0 || value > LatencyHistogram.bucketUpperBound( index - 1 ) );
+    }
+  }
+
+  @Test
+  public void testXML() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record( 42000L );
+    histogram.record( 7000000L );
+    histogram.record( -5L );
+
+    String xml = histogram.getXML();
+    LatencyHistogram restored =
+      new LatencyHistogram( XMLHandler.getSubNode( XMLHandler.loadXMLString( xml ), LatencyHistogram.XML_TAG ) );
+
+    assertEquals( 3, restored.getCount() );
+    assertEquals( histogram.getMax(), restored.getMax() );
+    assertEquals( histogram.getMean(), restored.getMean() );
+    assertEquals( histogram.getValueAtPercentile( 50.0 ), restored.getValueAtPercentile( 50.0 ) );
+    assertEquals( xml, restored.getXML() );
+  }
+
+  private static void assertWithin( long expected, long actual ) {
+    assertTrue( "expected about " + expected + " but was " + actual,
+      Math.abs( actual - expected ) <= expected / 16 + 1 );
+  }
+}
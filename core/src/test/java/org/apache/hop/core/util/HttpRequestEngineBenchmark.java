@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sending one request at a time with several in flight, against a local server answering after a fixed
+ * latency.
+ * Usage: HttpRequestEngineBenchmark [number of requests] [requests in flight] [latency in ms]
+ */
+public class HttpRequestEngineBenchmark {
+  public static void main( String[] args ) throws Exception {
+    int nrRequests = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 100;
+    int maxInFlight = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 16;
+    int latency = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 20;
+
+    HttpServer server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+    ExecutorService serverThreads = Executors.newFixedThreadPool( Math.max( 1, maxInFlight ) * 2 );
+    server.setExecutor( serverThreads );
+    server.createContext( "/", exchange -> {
+      try {
+        Thread.sleep( latency );
+        byte[] body = "OK".getBytes( StandardCharsets.UTF_8 );
+        exchange.sendResponseHeaders( 200, body.length );
+        try ( OutputStream out = exchange.getResponseBody() ) {
+          out.write( body );
+        }
+      } catch ( InterruptedException e ) {
+        exchange.sendResponseHeaders( 500, -1 );
+      } finally {
+        exchange.close();
+      }
+    } );
+    server.start();
+    String url = "http://localhost:" + server.getAddress().getPort() + "/";
+    CloseableHttpClient client = HttpClientManager.getInstance().createBuilder().build();
+
+    try {
+      long sequential = runRequests( client, url, 1, nrRequests );
+      long concurrent = runRequests( client, url, maxInFlight, nrRequests );
+      System.out.println( String.format( "%d requests with %dms latency: %d ms one at a time, %d ms with %d in flight",
+        nrRequests, latency, sequential, concurrent, maxInFlight ) );
+    } finally {
+      client.close();
+      server.stop( 0 );
+      serverThreads.shutdownNow();
+    }
+  }
+
+  private static long runRequests( CloseableHttpClient client, String url, int maxInFlight, int nrRequests )
+    throws Exception {
+    HttpRequestEngine<Integer, Integer> engine = new HttpRequestEngine<>( "benchmark", maxInFlight );
+    long start = System.nanoTime();
+    int nrFailed = 0;
+    for ( int i = 0; i < nrRequests; i++ ) {
+      engine.submit( i, () -> {
+        try ( CloseableHttpResponse response = client.execute( new HttpGet( url ) ) ) {
+          EntityUtils.consume( response.getEntity() );
+          return response.getStatusLine().getStatusCode();
+        }
+      } );
+      while ( engine.isFull() ) {
+        nrFailed += isFailed( engine.take( 10000 ) ) ? 1 : 0;
+      }
+    }
+    while ( engine.getOutstanding() > 0 ) {
+      nrFailed += isFailed( engine.take( 10000 ) ) ? 1 : 0;
+    }
+    engine.shutdown();
+    if ( nrFailed > 0 ) {
+      System.out.println( nrFailed + " requests failed with " + maxInFlight + " in flight" );
+    }
+    return TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+  }
+
+  private static boolean isFailed( HttpRequestEngine.Call<Integer, Integer> call ) {
+    return call == null || call.getError() != null || call.getResult() != 200;
+  }
+}
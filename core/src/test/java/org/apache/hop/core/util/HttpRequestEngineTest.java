@@ -0,0 +1,263 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HttpRequestEngineTest {
+
+  private HttpServer server;
+  private ExecutorService serverThreads;
+  private String baseUrl;
+  private CloseableHttpClient client;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger maxActive = new AtomicInteger();
+  private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+  /**
+   * A stub server answering /echo/{nr}?delay={ms} with the number after the delay, and /unavailable/{nr}?failures={n}
+   * with a 503 for the first n hits of a path.
+   */
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+    serverThreads = Executors.newFixedThreadPool( 32 );
+    server.setExecutor( serverThreads );
+    server.createContext( "/", exchange -> {
+      int running = active.incrementAndGet();
+      maxActive.accumulateAndGet( running, Math::max );
+      try {
+        String path = exchange.getRequestURI().getPath();
+        int parameter = Integer.parseInt( exchange.getRequestURI().getQuery().replaceAll( "\\D", "" ) );
+        int status = 200;
+        if ( path.startsWith( "/echo/" ) ) {
+          Thread.sleep( parameter );
+        } else if ( hits.computeIfAbsent( path, p -> new AtomicInteger() ).incrementAndGet() <= parameter ) {
+          status = 503;
+        }
+        byte[] body = path.substring( path.lastIndexOf( '/' ) + 1 ).getBytes( StandardCharsets.UTF_8 );
+        exchange.sendResponseHeaders( status, body.length );
+        try ( OutputStream out = exchange.getResponseBody() ) {
+          out.write( body );
+        }
+      } catch ( InterruptedException e ) {
+        exchange.sendResponseHeaders( 500, -1 );
+      } finally {
+        active.decrementAndGet();
+        exchange.close();
+      }
+    } );
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+    client = HttpClientManager.getInstance().createBuilder().build();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop( 0 );
+    serverThreads.shutdownNow();
+  }
+
+  @Test
+  public void testResultsKeepSubmissionOrder() throws Exception {
+    HttpRequestEngine<Integer, Response> engine = new HttpRequestEngine<>( "test", 8 );
+    int count = 200;
+    int next = 0;
+    for ( int i = 0; i < count; i++ ) {
+      // Later requests often finish before earlier ones
+      engine.submit( i, get( "/echo/" + i + "?delay=" + ( ( i * 7 ) % 20 ) ) );
+      while ( engine.isFull() ) {
+        next = check( engine.take( 10000 ), next );
+      }
+      for ( HttpRequestEngine.Call<Integer, Response> call = engine.poll(); call != null; call = engine.poll() ) {
+        next = check( call, next );
+      }
+    }
+    while ( engine.getOutstanding() > 0 ) {
+      next = check( engine.take( 10000 ), next );
+    }
+    engine.shutdown();
+
+    assertEquals( count, next );
+    assertEquals( count, engine.getLatency().getCount() );
+    assertTrue( "Requests should run concurrently", maxActive.get() > 1 );
+    assertTrue( "No more than 8 requests should be in flight", maxActive.get() <= 8 );
+  }
+
+  @Test
+  public void testRetriesUnavailableResponses() throws Exception {
+    HttpRequestEngine<Integer, Response> engine = new HttpRequestEngine<>( "test", 2 );
+    engine.setRetries( 3, 10L,
+      ( response, idempotent ) -> HttpRequestEngine.isRetryableStatus( response.status, idempotent ) );
+    engine.submit( 0, get( "/unavailable/0?failures=2" ) );
+    engine.submit( 1, get( "/unavailable/1?failures=5" ) );
+
+    HttpRequestEngine.Call<Integer, Response> call = engine.take( 10000 );
+    assertEquals( 200, call.getResult().status );
+    assertEquals( 3, call.getAttempts() );
+
+    // Out of retries, the last response is handed back
+    call = engine.take( 10000 );
+    assertEquals( 503, call.getResult().status );
+    assertEquals( 4, call.getAttempts() );
+    assertEquals( 5L, engine.getRetries() );
+    engine.shutdown();
+  }
+
+  @Test
+  public void testRetriesTransportErrors() throws Exception {
+    HttpRequestEngine<Integer, Integer> engine = new HttpRequestEngine<>( "test", 1 );
+    engine.setRetries( 2, 1L, null );
+    AtomicInteger attempts = new AtomicInteger();
+    engine.submit( 0, () -> {
+      if ( attempts.incrementAndGet() < 3 ) {
+        throw new IOException( "connection reset" );
+      }
+      return 42;
+    } );
+    engine.submit( 1, () -> {
+      throw new IllegalStateException( "not retried" );
+    } );
+
+    HttpRequestEngine.Call<Integer, Integer> call = engine.take( 10000 );
+    assertNull( call.getError() );
+    assertEquals( Integer.valueOf( 42 ), call.getResult() );
+    assertEquals( 3, call.getAttempts() );
+
+    call = engine.take( 10000 );
+    assertTrue( call.getError() instanceof IllegalStateException );
+    assertEquals( 1, call.getAttempts() );
+    engine.shutdown();
+  }
+
+  @Test
+  public void testRateLimit() throws Exception {
+    HttpRequestEngine<Integer, Response> engine = new HttpRequestEngine<>( "test", 4 );
+    engine.setMaxRequestsPerSecond( 100 );
+    long start = System.nanoTime();
+    for ( int i = 0; i < 21; i++ ) {
+      engine.submit( i, get( "/echo/" + i + "?delay=0" ) );
+    }
+    int next = 0;
+    while ( engine.getOutstanding() > 0 ) {
+      next = check( engine.take( 10000 ), next );
+    }
+    long elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+    engine.shutdown();
+
+    // 21 requests are spaced 10ms apart
+    assertTrue( "Took " + elapsed + "ms", elapsed >= 190 );
+  }
+
+  @Test
+  public void testRetriesOnlyConnectFailuresOfNonIdempotentRequests() throws Exception {
+    HttpRequestEngine<Integer, Integer> engine = new HttpRequestEngine<>( "test", 1 );
+    engine.setRetries( 2, 1L, ( result, idempotent ) -> HttpRequestEngine.isRetryableStatus( result, idempotent ) );
+    AtomicInteger refused = new AtomicInteger();
+    engine.submit( 0, () -> {
+      if ( refused.incrementAndGet() < 3 ) {
+        throw new ConnectException( "connection refused" );
+      }
+      return 200;
+    }, false );
+    engine.submit( 1, () -> {
+      throw new IOException( "connection reset" );
+    }, false );
+    engine.submit( 2, () -> 504, false );
+    engine.submit( 3, () -> 504, true );
+
+    // The request never reached the server
+    HttpRequestEngine.Call<Integer, Integer> call = engine.take( 10000 );
+    assertEquals( Integer.valueOf( 200 ), call.getResult() );
+    assertEquals( 3, call.getAttempts() );
+
+    // The server might have processed these
+    call = engine.take( 10000 );
+    assertTrue( call.getError() instanceof IOException );
+    assertEquals( 1, call.getAttempts() );
+    call = engine.take( 10000 );
+    assertEquals( Integer.valueOf( 504 ), call.getResult() );
+    assertEquals( 1, call.getAttempts() );
+
+    call = engine.take( 10000 );
+    assertEquals( Integer.valueOf( 504 ), call.getResult() );
+    assertEquals( 3, call.getAttempts() );
+    engine.shutdown();
+
+    assertFalse( HttpRequestEngine.isIdempotent( "POST" ) );
+    assertFalse( HttpRequestEngine.isIdempotent( "PATCH" ) );
+    assertTrue( HttpRequestEngine.isIdempotent( "PUT" ) );
+  }
+
+  private int check( HttpRequestEngine.Call<Integer, Response> call, int expected ) {
+    assertNull( call.getError() );
+    assertEquals( Integer.valueOf( expected ), call.getTag() );
+    assertEquals( 200, call.getResult().status );
+    assertEquals( String.valueOf( expected ), call.getResult().body );
+    return expected + 1;
+  }
+
+  private HttpRequestEngine.Exchange<Response> get( String path ) {
+    return () -> {
+      HttpGet method = new HttpGet( baseUrl + path );
+      try ( CloseableHttpResponse response = client.execute( method ) ) {
+        return new Response( response.getStatusLine().getStatusCode(), EntityUtils.toString( response.getEntity() ) );
+      }
+    };
+  }
+
+  private static class Response {
+    private final int status;
+    private final String body;
+
+    Response( int status, String body ) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.xml;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.vfs.HopVFS;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Compares parsing a generated transformation file on every load with loading it through the XML document cache,
+ * which still makes a copy of the cached document for every load. Also shows the estimated memory of a cached document
+ * next to the size of the file.
+ * Usage: XMLDocumentCacheBenchmark [number of steps] [number of loads]
+ */
+public class XMLDocumentCacheBenchmark {
+  public static void main( String[] args ) throws Exception {
+    int nrSteps = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000;
+    int nrLoads = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 100;
+
+    File file = File.createTempFile( "benchmark", ".ktr" );
+    file.deleteOnExit();
+    Files.write( file.toPath(), generate( nrSteps ).getBytes( StandardCharsets.UTF_8 ) );
+    FileObject fileObject = HopVFS.getFileObject( file.getAbsolutePath() );
+
+    XMLDocumentCache cache = new XMLDocumentCache( 10, Long.MAX_VALUE );
+    cache.loadXMLFile( fileObject );
+    System.out.println( String.format( "Generated %d steps, %d kB file, %d kB estimated in the cache", nrSteps,
+      file.length() / 1024, cache.getBytes() / 1024 ) );
+
+    for ( int round = 0; round < 3; round++ ) {
+      long start = System.nanoTime();
+      for ( int i = 0; i < nrLoads; i++ ) {
+        XMLHandler.loadXMLFile( fileObject );
+      }
+      long parse = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for ( int i = 0; i < nrLoads; i++ ) {
+        cache.loadXMLFile( fileObject );
+      }
+      long cached = System.nanoTime() - start;
+
+      System.out.println( String.format( "parse %8.3f ms/load, cached copy %8.3f ms/load, %d hits",
+        parse / 1e6 / nrLoads, cached / 1e6 / nrLoads, cache.getHits() ) );
+    }
+  }
+
+  private static String generate( int nrSteps ) {
+    StringBuilder xml = new StringBuilder( "<transformation><info><name>benchmark</name></info><order>" );
+    for ( int i = 1; i < nrSteps; i++ ) {
+      xml.append( "<hop><from>Step " ).append( i - 1 ).append( "</from><to>Step " ).append( i )
+        .append( "</to><enabled>Y</enabled></hop>" );
+    }
+    xml.append( "</order>" );
+    for ( int i = 0; i < nrSteps; i++ ) {
+      xml.append( "<step><name>Step " ).append( i ).append( "</name><type>Dummy</type><description/>" )
+        .append( "<distribute>Y</distribute><copies>1</copies><GUI><xloc>" ).append( ( i % 100 ) * 50 )
+        .append( "</xloc><yloc>" ).append( ( i / 100 ) * 50 ).append( "</yloc><draw>Y</draw></GUI></step>" );
+    }
+    return xml.append( "</transformation>" ).toString();
+  }
+}
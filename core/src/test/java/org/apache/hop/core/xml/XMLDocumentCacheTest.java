@@ -0,0 +1,212 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.xml;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.vfs.HopVFS;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class XMLDocumentCacheTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testUnchangedFileIsParsedOnce() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 10 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+
+    Document first = cache.loadXMLFile( file );
+    Document second = cache.loadXMLFile( file );
+
+    assertEquals( "one", XMLHandler.getTagValue( first, "transformation", "name" ) );
+    assertEquals( "one", XMLHandler.getTagValue( second, "transformation", "name" ) );
+    assertEquals( 1, cache.getMisses() );
+    assertEquals( 1, cache.getHits() );
+    assertEquals( 1, cache.getSize() );
+  }
+
+  @Test
+  public void testEveryLoadGetsItsOwnDocument() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 10 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+
+    Document first = cache.loadXMLFile( file );
+    Node name = XMLHandler.getSubNode( XMLHandler.getSubNode( first, "transformation" ), "name" );
+    name.getFirstChild().setNodeValue( "changed" );
+    Document second = cache.loadXMLFile( file );
+
+    assertNotSame( first, second );
+    assertEquals( "one", XMLHandler.getTagValue( second, "transformation", "name" ) );
+  }
+
+  @Test
+  public void testModifiedFileIsParsedAgain() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 10 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+    cache.loadXMLFile( file );
+
+    file = writeFile( "trans.ktr", "<transformation><name>three</name></transformation>", 2000000L );
+    Document document = cache.loadXMLFile( file );
+
+    assertEquals( "three", XMLHandler.getTagValue( document, "transformation", "name" ) );
+    assertEquals( 2, cache.getMisses() );
+    assertEquals( 0, cache.getHits() );
+  }
+
+  @Test
+  public void testChangeWithSameSizeIsParsedAgain() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 10 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+    cache.loadXMLFile( file );
+
+    file = writeFile( "trans.ktr", "<transformation><name>two</name></transformation>", 2000000L );
+    Document document = cache.loadXMLFile( file );
+
+    assertEquals( "two", XMLHandler.getTagValue( document, "transformation", "name" ) );
+    assertEquals( 2, cache.getMisses() );
+  }
+
+  @Test
+  public void testTouchedFileIsNotParsedAgain() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 10 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+    cache.loadXMLFile( file );
+
+    file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 2000000L );
+    Document document = cache.loadXMLFile( file );
+    cache.loadXMLFile( file );
+
+    assertEquals( "one", XMLHandler.getTagValue( document, "transformation", "name" ) );
+    assertEquals( 1, cache.getMisses() );
+    assertEquals( 2, cache.getHits() );
+  }
+
+  @Test
+  public void testUnchangedFileIsNotRead() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 10 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+    cache.loadXMLFile( file );
+
+    // Same size and modification time: the cached document is used without looking at the content
+    //
+    file = writeFile( "trans.ktr", "<transformation><name>two</name></transformation>", 1000000L );
+    Document document = cache.loadXMLFile( file );
+
+    assertEquals( "one", XMLHandler.getTagValue( document, "transformation", "name" ) );
+    assertEquals( 1, cache.getHits() );
+  }
+
+  @Test
+  public void testEstimatedSizeGrowsWithTheDocument() throws Exception {
+    Document small = XMLHandler.loadXMLString( "<transformation><name>one</name></transformation>" );
+    Document large = XMLHandler.loadXMLString( "<transformation><name>one</name><description>"
+      + StringUtils.repeat( "x", 1000 ) + "</description></transformation>" );
+
+    long smallSize = XMLDocumentCacheEntry.estimateSize( small );
+    assertTrue( smallSize > "<transformation><name>one</name></transformation>".length() );
+    assertTrue( XMLDocumentCacheEntry.estimateSize( large ) > smallSize + 2000 );
+  }
+
+  @Test
+  public void testCachedBytesAreBounded() throws Exception {
+    String xml = "<transformation><name>one</name></transformation>";
+    long size = XMLDocumentCacheEntry.estimateSize( XMLHandler.loadXMLString( xml ) );
+    XMLDocumentCache cache = new XMLDocumentCache( 10, 2L * size );
+    FileObject a = writeFile( "a.ktr", xml, 1000000L );
+    FileObject b = writeFile( "b.ktr", xml, 1000000L );
+    FileObject c = writeFile( "c.ktr", xml, 1000000L );
+    FileObject large = writeFile( "large.ktr", "<transformation><description>" + StringUtils.repeat( "x", 1000 )
+      + "</description></transformation>", 1000000L );
+
+    cache.loadXMLFile( a );
+    cache.loadXMLFile( b );
+    cache.loadXMLFile( c );
+    assertEquals( 2, cache.getSize() );
+    assertEquals( 2L * size, cache.getBytes() );
+    assertEquals( 1, cache.getEvictions() );
+
+    // A file larger than the cache is never cached
+    //
+    cache.loadXMLFile( large );
+    cache.loadXMLFile( large );
+    assertEquals( 2, cache.getSize() );
+    assertEquals( 0, cache.getHits() );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedFileIsEvicted() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 2 );
+    FileObject a = writeFile( "a.ktr", "<transformation/>", 1000000L );
+    FileObject b = writeFile( "b.ktr", "<transformation/>", 1000000L );
+    FileObject c = writeFile( "c.ktr", "<transformation/>", 1000000L );
+
+    cache.loadXMLFile( a );
+    cache.loadXMLFile( b );
+    cache.loadXMLFile( a );
+    cache.loadXMLFile( c );
+
+    assertEquals( 2, cache.getSize() );
+    assertEquals( 1, cache.getEvictions() );
+
+    cache.loadXMLFile( a );
+    assertEquals( 2, cache.getHits() );
+    cache.loadXMLFile( b );
+    assertEquals( 4, cache.getMisses() );
+  }
+
+  @Test
+  public void testDisabledCacheAlwaysParses() throws Exception {
+    XMLDocumentCache cache = new XMLDocumentCache( 0 );
+    FileObject file = writeFile( "trans.ktr", "<transformation><name>one</name></transformation>", 1000000L );
+
+    cache.loadXMLFile( file );
+    Document document = cache.loadXMLFile( file );
+
+    assertEquals( "one", XMLHandler.getTagValue( document, "transformation", "name" ) );
+    assertEquals( 0, cache.getSize() );
+    assertEquals( 0, cache.getHits() );
+  }
+
+  private FileObject writeFile( String name, String xml, long lastModified ) throws Exception {
+    File file = new File( folder.getRoot(), name );
+    Files.write( file.toPath(), xml.getBytes( StandardCharsets.UTF_8 ) );
+    file.setLastModified( lastModified );
+    return HopVFS.getFileObject( file.getAbsolutePath() );
+  }
+}
@@ -0,0 +1,117 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.xml;
+
+import org.apache.hop.core.exception.HopXMLException;
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class XMLElementStreamTest {
+
+  private static final String TRANSFORMATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+    + "<transformation>\n"
+    + "  <info><name>big</name></info>\n"
+    + "  <!-- a comment -->\n"
+    + "  <step><name>one</name><type>Dummy</type><script><![CDATA[a < b]]></script></step>\n"
+    + "  <step><name>two &amp; three</name><type>Dummy</type></step>\n"
+    + "  <slave_transformation>N</slave_transformation>\n"
+    + "</transformation>\n";
+
+  private static final String JOB = "<job>\n"
+    + "  <name>big</name>\n"
+    + "  <entries>\n"
+    + "    <entry><name>START</name><entry><name>nested</name></entry></entry>\n"
+    + "    <entry attr=\"x\"><name>Dummy</name></entry>\n"
+    + "  </entries>\n"
+    + "  <hops><hop><from>START</from></hop></hops>\n"
+    + "</job>\n";
+
+  @Test
+  public void testStepsAreStreamed() throws Exception {
+    try ( XMLElementStream stream = open( TRANSFORMATION, "transformation", "step" ) ) {
+      Node first = stream.nextElement();
+      assertEquals( "one", XMLHandler.getTagValue( first, "name" ) );
+      assertEquals( "a < b", XMLHandler.getTagValue( first, "script" ) );
+      assertNull( first.getParentNode() );
+
+      Node second = stream.nextElement();
+      assertEquals( "two & three", XMLHandler.getTagValue( second, "name" ) );
+
+      assertNull( stream.nextElement() );
+      assertNull( stream.nextElement() );
+
+      Node root = stream.getRootNode();
+      assertEquals( "transformation", root.getNodeName() );
+      assertEquals( 0, XMLHandler.countNodes( root, "step" ) );
+      assertEquals( "big", XMLHandler.getTagValue( root, "info", "name" ) );
+      assertEquals( "N", XMLHandler.getTagValue( root, "slave_transformation" ) );
+    }
+  }
+
+  @Test
+  public void testEntriesAreStreamed() throws Exception {
+    try ( XMLElementStream stream = open( JOB, "job", "entries", "entry" ) ) {
+      Node first = stream.nextElement();
+      assertEquals( "START", XMLHandler.getTagValue( first, "name" ) );
+      assertEquals( "nested", XMLHandler.getTagValue( first, "entry", "name" ) );
+
+      Node second = stream.nextElement();
+      assertEquals( "Dummy", XMLHandler.getTagValue( second, "name" ) );
+      assertEquals( "x", XMLHandler.getTagAttribute( second, "attr" ) );
+
+      assertNull( stream.nextElement() );
+
+      Node root = stream.getRootNode();
+      assertEquals( 0, XMLHandler.countNodes( XMLHandler.getSubNode( root, "entries" ), "entry" ) );
+      assertEquals( "START", XMLHandler.getTagValue( XMLHandler.getSubNode( root, "hops" ), "hop", "from" ) );
+    }
+  }
+
+  @Test
+  public void testSkeletonMatchesParsedDocument() throws Exception {
+    String withoutSteps = TRANSFORMATION.replaceAll( "<step>.*</step>", "" );
+    Node parsed = XMLHandler.getSubNode( XMLHandler.loadXMLString( withoutSteps ), "transformation" );
+
+    try ( XMLElementStream stream = open( TRANSFORMATION, "transformation", "step" ) ) {
+      while ( stream.nextElement() != null ) {
+        // read all the steps
+      }
+      assertEquals( XMLHandler.formatNode( parsed ), XMLHandler.formatNode( stream.getRootNode() ) );
+    }
+  }
+
+  @Test( expected = HopXMLException.class )
+  public void testWrongRootElement() throws Exception {
+    open( JOB, "transformation", "step" );
+  }
+
+  private XMLElementStream open( String xml, String rootTag, String... path ) throws HopXMLException {
+    return new XMLElementStream( new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) ), rootTag, path );
+  }
+}
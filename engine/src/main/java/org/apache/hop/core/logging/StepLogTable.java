@@ -33,6 +33,7 @@ import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metastore.api.IMetaStore;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.step.StepMetaDataCombi;
+import org.apache.hop.trans.step.StepStatusCounters;
 import org.w3c.dom.Node;
 
 import java.util.ArrayList;
@@ -175,6 +176,7 @@ public class StepLogTable extends BaseLogTable implements Cloneable, LogTableInt
     if ( subject == null || subject instanceof StepMetaDataCombi ) {
 
       StepMetaDataCombi combi = (StepMetaDataCombi) subject;
+      StepStatusCounters counters = combi != null ? combi.step.getStatusCounters() : null;
 
       RowMetaAndData row = new RowMetaAndData();
 
@@ -203,25 +205,25 @@ public class StepLogTable extends BaseLogTable implements Cloneable, LogTableInt
                 value = new Long( combi.copy );
                 break;
               case LINES_READ:
-                value = new Long( combi.step.getLinesRead() );
+                value = new Long( counters.getLinesRead() );
                 break;
               case LINES_WRITTEN:
-                value = new Long( combi.step.getLinesWritten() );
+                value = new Long( counters.getLinesWritten() );
                 break;
               case LINES_UPDATED:
-                value = new Long( combi.step.getLinesUpdated() );
+                value = new Long( counters.getLinesUpdated() );
                 break;
               case LINES_INPUT:
-                value = new Long( combi.step.getLinesInput() );
+                value = new Long( counters.getLinesInput() );
                 break;
               case LINES_OUTPUT:
-                value = new Long( combi.step.getLinesOutput() );
+                value = new Long( counters.getLinesOutput() );
                 break;
               case LINES_REJECTED:
-                value = new Long( combi.step.getLinesRejected() );
+                value = new Long( counters.getLinesRejected() );
                 break;
               case ERRORS:
-                value = new Long( combi.step.getErrors() );
+                value = new Long( counters.getErrors() );
                 break;
               case LOG_FIELD:
                 value = getLogBuffer( combi.step, combi.step.getLogChannel().getLogChannelId(), status, null );
@@ -0,0 +1,313 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.util;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact set of keys, numbering every key in the order it was added. Steps that keep a large lookup table in memory
+ * hold their values in primitive arrays indexed on that number.
+ * <p>
+ * The key values are serialized into large shared byte pages instead of being kept as objects. A key is found through
+ * an open addressing hash table on the hash of its serialized form and verified by comparing the serialized bytes, so
+ * a hash collision never returns the wrong entry. Two keys are the same when their serialized forms are: use
+ * {@link #canIndex(RowMetaInterface)} to see if that matches the comparison of the key metadata.
+ * <p>
+ * The values handed to the index need to be of the type of the key metadata, in normal storage.
+ */
+public class SerializedKeyIndex {
+
+  /**
+   * Returned by {@link #find(Object[])} for a key that is not in the index
+   */
+  public static final int NOT_FOUND = -1;
+
+  private static final int PAGE_SIZE = 1 << 20;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final RowMetaInterface keyMeta;
+
+  // Per entry: the location of the serialized key and its hash
+  //
+  private long[] locations;
+  private int[] hashes;
+  private int size;
+
+  // The hash table holds entry numbers plus one, zero is an empty slot
+  //
+  private int[] table;
+  private int mask;
+
+  private final List<byte[]> pages = new ArrayList<>();
+  private byte[] page;
+  private int pagePosition;
+  private long pageBytes;
+
+  private final ScratchBuffer scratch = new ScratchBuffer();
+  private final DataOutputStream scratchOut = new DataOutputStream( scratch );
+
+  /**
+   * @param keyMeta      the layout of the key, the values are serialized in normal storage
+   * @param expectedSize the number of keys to size the index for
+   */
+  public SerializedKeyIndex( RowMetaInterface keyMeta, int expectedSize ) {
+    this.keyMeta = new RowMeta();
+    for ( ValueMetaInterface valueMeta : keyMeta.getValueMetaList() ) {
+      ValueMetaInterface normal = valueMeta.clone();
+      normal.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+      this.keyMeta.addValueMeta( normal );
+    }
+
+    int capacity = INITIAL_CAPACITY;
+    while ( capacity < expectedSize / 3 * 4 && capacity < ( 1 << 30 ) ) {
+      capacity <<= 1;
+    }
+    table = new int[ capacity ];
+    mask = capacity - 1;
+    int entries = Math.max( 16, Math.min( expectedSize, capacity ) );
+    locations = new long[ entries ];
+    hashes = new int[ entries ];
+  }
+
+  /**
+   * Keys are the same in the index when their serialized forms are. That is also how the key metadata compares them,
+   * unless a string is compared ignoring case or white space or with a collator, or a value has a type that doesn't
+   * serialize all of its content.
+   *
+   * @param keyMeta the layout of the key
+   * @return true if keys the key metadata compares as equal are the same key in the index, and the other way around
+   */
+  public static boolean canIndex( RowMetaInterface keyMeta ) {
+    for ( ValueMetaInterface valueMeta : keyMeta.getValueMetaList() ) {
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_STRING:
+          if ( valueMeta.isCaseInsensitive() || valueMeta.isIgnoreWhitespace() || !valueMeta.isCollatorDisabled() ) {
+            return false;
+          }
+          break;
+        case ValueMetaInterface.TYPE_NUMBER:
+        case ValueMetaInterface.TYPE_INTEGER:
+        case ValueMetaInterface.TYPE_DATE:
+        case ValueMetaInterface.TYPE_BIGNUMBER:
+        case ValueMetaInterface.TYPE_BOOLEAN:
+        case ValueMetaInterface.TYPE_BINARY:
+        case ValueMetaInterface.TYPE_TIMESTAMP:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param key the key values
+   * @return the entry number of the key or {@link #NOT_FOUND}
+   */
+  public int find( Object[] key ) throws HopException {
+    int length = serialize( key );
+    return find( hash( scratch.bytes(), length ), scratch.bytes(), length );
+  }
+
+  /**
+   * Add a key if it's not in the index yet. New keys get the next entry number, see {@link #size()}.
+   *
+   * @param key the key values
+   * @return the entry number of the key
+   */
+  public int add( Object[] key ) throws HopException {
+    int length = serialize( key );
+    int hash = hash( scratch.bytes(), length );
+    int entry = find( hash, scratch.bytes(), length );
+    if ( entry >= 0 ) {
+      return entry;
+    }
+
+    if ( size == locations.length ) {
+      int entries = locations.length + ( locations.length >> 1 );
+      locations = Arrays.copyOf( locations, entries );
+      hashes = Arrays.copyOf( hashes, entries );
+    }
+    entry = size++;
+    locations[ entry ] = store( scratch.bytes(), length );
+    hashes[ entry ] = hash;
+
+    if ( size > table.length / 4 * 3 ) {
+      rehash( table.length << 1 );
+    } else {
+      insert( entry );
+    }
+    return entry;
+  }
+
+  /**
+   * @return the number of keys in the index
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return an estimate of the memory used by the index, in bytes
+   */
+  public long getMemorySize() {
+    return 4L * table.length + ( 8L + 4L ) * locations.length + pageBytes;
+  }
+
+  private int serialize( Object[] key ) throws HopException {
+    scratch.reset();
+    for ( int i = 0; i < keyMeta.size(); i++ ) {
+      ValueMetaInterface valueMeta = keyMeta.getValueMeta( i );
+      Object value = key[ i ];
+      if ( valueMeta.isNull( value ) ) {
+        // An empty string can be null
+        value = null;
+      } else if ( value instanceof BigDecimal && ( (BigDecimal) value ).signum() != 0 ) {
+        // 1.0 and 1.00 are the same key
+        value = ( (BigDecimal) value ).stripTrailingZeros();
+      } else if ( value instanceof BigDecimal ) {
+        value = BigDecimal.ZERO;
+      }
+      valueMeta.writeData( scratchOut, value );
+    }
+    return scratch.size();
+  }
+
+  private int find( int hash, byte[] bytes, int length ) {
+    for ( int slot = hash & mask; table[ slot ] != 0; slot = ( slot + 1 ) & mask ) {
+      int entry = table[ slot ] - 1;
+      if ( hashes[ entry ] == hash && sameBytes( locations[ entry ], bytes, length ) ) {
+        return entry;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  private boolean sameBytes( long location, byte[] bytes, int length ) {
+    byte[] entryPage = pages.get( (int) ( location >>> 32 ) );
+    int position = (int) location;
+    if ( readLength( entryPage, position ) != length ) {
+      return false;
+    }
+    position += lengthSize( length );
+    for ( int i = 0; i < length; i++ ) {
+      if ( entryPage[ position + i ] != bytes[ i ] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long store( byte[] bytes, int length ) {
+    int needed = lengthSize( length ) + length;
+    if ( page == null || pagePosition + needed > page.length ) {
+      page = new byte[ Math.max( PAGE_SIZE, needed ) ];
+      pages.add( page );
+      pagePosition = 0;
+      pageBytes += page.length;
+    }
+    long location = ( (long) ( pages.size() - 1 ) << 32 ) | pagePosition;
+    pagePosition = writeLength( page, pagePosition, length );
+    System.arraycopy( bytes, 0, page, pagePosition, length );
+    pagePosition += length;
+    return location;
+  }
+
+  private void rehash( int capacity ) {
+    table = new int[ capacity ];
+    mask = capacity - 1;
+    for ( int entry = 0; entry < size; entry++ ) {
+      insert( entry );
+    }
+  }
+
+  private void insert( int entry ) {
+    int slot = hashes[ entry ] & mask;
+    while ( table[ slot ] != 0 ) {
+      slot = ( slot + 1 ) & mask;
+    }
+    table[ slot ] = entry + 1;
+  }
+
+  private static int lengthSize( int length ) {
+    return length < 0x80 ? 1 : length < 0x4000 ? 2 : length < 0x200000 ? 3 : length < 0x10000000 ? 4 : 5;
+  }
+
+  private static int writeLength( byte[] bytes, int position, int length ) {
+    while ( ( length & ~0x7F ) != 0 ) {
+      bytes[ position++ ] = (byte) ( ( length & 0x7F ) | 0x80 );
+      length >>>= 7;
+    }
+    bytes[ position++ ] = (byte) length;
+    return position;
+  }
+
+  private static int readLength( byte[] bytes, int position ) {
+    int length = 0;
+    for ( int shift = 0; ; shift += 7 ) {
+      byte b = bytes[ position++ ];
+      length |= ( b & 0x7F ) << shift;
+      if ( ( b & 0x80 ) == 0 ) {
+        return length;
+      }
+    }
+  }
+
+  /**
+   * 64 bit FNV-1a, folded and mixed so that the low bits used for the slots are well distributed.
+   */
+  static int hash( byte[] bytes, int length ) {
+    long h = 0xcbf29ce484222325L;
+    for ( int i = 0; i < length; i++ ) {
+      h ^= bytes[ i ] & 0xFF;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  /**
+   * Gives access to the serialized key without copying it.
+   */
+  private static class ScratchBuffer extends ByteArrayOutputStream {
+    ScratchBuffer() {
+      super( 256 );
+    }
+
+    byte[] bytes() {
+      return buf;
+    }
+  }
+}
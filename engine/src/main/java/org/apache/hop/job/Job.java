@@ -41,6 +41,7 @@ import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.extension.ExtensionPointHandler;
 import org.apache.hop.core.extension.HopExtensionPoint;
 import org.apache.hop.core.gui.JobTracker;
+import org.apache.hop.core.logging.AsyncLogTableWriter;
 import org.apache.hop.core.logging.ChannelLogTable;
 import org.apache.hop.core.logging.DefaultLogLevel;
 import org.apache.hop.core.logging.HasLogChannelInterface;
@@ -85,8 +86,10 @@ import org.apache.hop.www.StartJobServlet;
 import org.apache.hop.www.WebResult;
 
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -96,8 +99,10 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -212,6 +217,8 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
 
   private Map<String, Object> extensionDataMap;
 
+  private JobEntryThreadPool jobEntryThreadPool;
+
   /**
    * The command line arguments for the job.
    */
@@ -595,8 +602,45 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
   }
 
   /**
-   * Execute a job entry recursively and move to the next job entry automatically.<br>
-   * Uses a back-tracking algorithm.<br>
+   * A job entry on the path through the job: the entry to execute, its result and the next job entries that still need
+   * to be looked at.
+   */
+  private static class JobEntryFrame {
+    private final int nr;
+    private final Result previousResult;
+    private final JobEntryCopy jobEntryCopy;
+    private final JobEntryCopy previous;
+    private final String reason;
+
+    private boolean root;
+    private boolean logWhenFinished;
+    private boolean executed;
+    private Result prevResult;
+    private Result newResult;
+    private Result res;
+
+    private int nrNext;
+    private int nextIndex;
+    private JobEntryCopy runningEntry;
+
+    private final List<FutureTask<Result>> branches = new ArrayList<>();
+    private final List<JobEntryCopy> branchEntries = new ArrayList<>();
+    private final Queue<HopException> branchExceptions = new ConcurrentLinkedQueue<>();
+
+    private JobEntryFrame( int nr, Result previousResult, JobEntryCopy jobEntryCopy, JobEntryCopy previous,
+                           String reason ) {
+      this.nr = nr;
+      this.previousResult = previousResult;
+      this.jobEntryCopy = jobEntryCopy;
+      this.previous = previous;
+      this.reason = reason;
+    }
+  }
+
+  /**
+   * Execute a job entry and move on to the next job entries automatically.<br>
+   * The hop graph is walked iteratively with an explicit stack, so long chains of job entries and loops don't grow
+   * the call stack. Job entries launched in parallel run on the {@link JobEntryThreadPool} of this job.
    *
    * @param nr
    * @param prev_result
@@ -608,13 +652,152 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
    */
   private Result execute( final int nr, Result prev_result, final JobEntryCopy jobEntryCopy, JobEntryCopy previous,
                           String reason ) throws HopException {
-    Result res = null;
+    Deque<JobEntryFrame> stack = new ArrayDeque<>();
+    JobEntryFrame rootFrame = new JobEntryFrame( nr, prev_result, jobEntryCopy, previous, reason );
+    rootFrame.root = true;
+    stack.push( rootFrame );
 
-    if ( isStopped() ) {
-      res = new Result( nr );
-      res.stopped = true;
-      return res;
+    Result returned = null;
+    while ( !stack.isEmpty() ) {
+      JobEntryFrame frame = stack.peek();
+
+      if ( returned != null ) {
+        // The job entry we were running sequentially finished
+        //
+        frame.res = returned;
+        returned = null;
+        if ( log.isBasic() ) {
+          log.logBasic( BaseMessages.getString( PKG, "Job.Log.FinishedJobEntry", frame.runningEntry.getName(), frame.res
+            .getResult()
+            + "" ) );
+        }
+        frame.runningEntry = null;
+        frame.nextIndex++;
+      } else if ( !frame.executed ) {
+        if ( isStopped() ) {
+          stack.pop();
+          returned = new Result( frame.nr );
+          returned.stopped = true;
+          logFinished( frame, returned );
+          continue;
+        }
+        try {
+          executeJobEntry( frame );
+        } catch ( Throwable e ) {
+          if ( frame.root ) {
+            throw e;
+          }
+          throw unexpectedError( frame, e );
+        }
+      }
+
+      // Try all next job entries.
+      // Launch only those where the hop indicates true or false
+      //
+      JobEntryFrame next = null;
+      for ( ; frame.nextIndex < frame.nrNext && !isStopped(); frame.nextIndex++ ) {
+        // The next entry is...
+        final JobEntryCopy nextEntry = jobMeta.findNextJobEntry( frame.jobEntryCopy, frame.nextIndex );
+
+        // See if we need to execute this...
+        final JobHopMeta hi = jobMeta.findJobHop( frame.jobEntryCopy, nextEntry );
+
+        //
+        // If the link is unconditional, execute the next job entry (entries).
+        // If the start point was an evaluation and the link color is correct:
+        // green or red, execute the next job entry...
+        //
+        if ( !isFollowed( frame, hi ) ) {
+          continue;
+        }
+
+        // The next comment...
+        final String nextComment;
+        if ( hi.isUnconditional() ) {
+          nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedUnconditional" );
+        } else {
+          if ( frame.newResult.getResult() ) {
+            nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedSuccess" );
+          } else {
+            nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedFailure" );
+          }
+        }
+
+        // Start this next step!
+        if ( log.isBasic() ) {
+          log.logBasic( BaseMessages.getString( PKG, "Job.Log.StartingEntry", nextEntry.getName() ) );
+        }
+
+        // Pass along the previous result, perhaps the next job can use it...
+        // However, set the number of errors back to 0 (if it should be reset)
+        // When an evaluation is executed the errors e.g. should not be reset.
+        if ( nextEntry.resetErrorsBeforeExecution() ) {
+          frame.newResult.setNrErrors( 0 );
+        }
+
+        // Now execute!
+        //
+        // if we launch in parallel, hand the execution to the thread pool...
+        //
+        if ( frame.jobEntryCopy.isLaunchingInParallel() ) {
+          launchInParallel( frame, nextEntry, nextComment );
+          if ( log.isBasic() ) {
+            log.logBasic( BaseMessages.getString( PKG, "Job.Log.LaunchedJobEntryInParallel", nextEntry.getName() ) );
+          }
+        } else {
+          // Same as before: we continue once it's done
+          //
+          frame.runningEntry = nextEntry;
+          next = new JobEntryFrame( frame.nr + 1, frame.newResult, nextEntry, frame.jobEntryCopy, nextComment );
+          break;
+        }
+      }
+
+      if ( next != null ) {
+        if ( !frame.root && isLastFollowed( frame ) ) {
+          // Nothing is left to do for this job entry once the next one is done: its result is our result.
+          // Dropping it here keeps loops in the job from growing the stack.
+          //
+          stack.pop();
+          logFinished( frame, frame.newResult );
+          next.logWhenFinished = true;
+        }
+        stack.push( next );
+        continue;
+      }
+
+      stack.pop();
+      try {
+        returned = finishJobEntry( frame );
+      } catch ( HopException e ) {
+        if ( frame.root ) {
+          throw e;
+        }
+        throw unexpectedError( frame, e );
+      }
+      logFinished( frame, returned );
+    }
+    return returned;
+  }
+
+  /**
+   * Log that the job entry of the frame finished, if the job entry that launched it was dropped from the stack.
+   */
+  private void logFinished( JobEntryFrame frame, Result result ) {
+    if ( frame.logWhenFinished && log.isBasic() ) {
+      log.logBasic( BaseMessages.getString( PKG, "Job.Log.FinishedJobEntry", frame.jobEntryCopy.getName(), result
+        .getResult()
+        + "" ) );
     }
+  }
+
+  /**
+   * Execute the job entry of the frame itself.
+   */
+  private void executeJobEntry( JobEntryFrame frame ) throws HopException {
+    final int nr = frame.nr;
+    final Result prev_result = frame.previousResult;
+    final JobEntryCopy jobEntryCopy = frame.jobEntryCopy;
 
     // if we didn't have a previous result, create one, otherwise, copy the content...
     //
@@ -647,8 +830,8 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
 
       // Track the fact that we are going to launch the next job entry...
       JobEntryResult jerBefore =
-        new JobEntryResult( null, null, BaseMessages.getString( PKG, "Job.Comment.JobStarted" ), reason, jobEntryCopy
-          .getName(), jobEntryCopy.getNr(), environmentSubstitute( jobEntryCopy.getEntry().getFilename() ) );
+        new JobEntryResult( null, null, BaseMessages.getString( PKG, "Job.Comment.JobStarted" ), frame.reason,
+          jobEntryCopy.getName(), jobEntryCopy.getNr(), environmentSubstitute( jobEntryCopy.getEntry().getFilename() ) );
       jobTracker.addJobTracker( new JobTracker( jobMeta, jerBefore ) );
 
       ClassLoader cl = Thread.currentThread().getContextClassLoader();
@@ -730,150 +913,99 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     extension = new JobExecutionExtension( this, prevResult, jobEntryCopy, extension.executeEntry );
     ExtensionPointHandler.callExtensionPoint( log, HopExtensionPoint.JobAfterJobEntryExecution.id, extension );
 
-    // Try all next job entries.
-    //
-    // Keep track of all the threads we fired in case of parallel execution...
-    // Keep track of the results of these executions too.
-    //
-    final List<Thread> threads = new ArrayList<Thread>();
-    // next 2 lists is being modified concurrently so must be synchronized for this case.
-    final Queue<Result> threadResults = new ConcurrentLinkedQueue<Result>();
-    final Queue<HopException> threadExceptions = new ConcurrentLinkedQueue<HopException>();
-    final List<JobEntryCopy> threadEntries = new ArrayList<JobEntryCopy>();
-
-    // Launch only those where the hop indicates true or false
-    //
-    int nrNext = jobMeta.findNrNextJobEntries( jobEntryCopy );
-    for ( int i = 0; i < nrNext && !isStopped(); i++ ) {
-      // The next entry is...
-      final JobEntryCopy nextEntry = jobMeta.findNextJobEntry( jobEntryCopy, i );
-
-      // See if we need to execute this...
-      final JobHopMeta hi = jobMeta.findJobHop( jobEntryCopy, nextEntry );
-
-      // The next comment...
-      final String nextComment;
-      if ( hi.isUnconditional() ) {
-        nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedUnconditional" );
-      } else {
-        if ( newResult.getResult() ) {
-          nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedSuccess" );
-        } else {
-          nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedFailure" );
-        }
-      }
-
-      //
-      // If the link is unconditional, execute the next job entry (entries).
-      // If the start point was an evaluation and the link color is correct:
-      // green or red, execute the next job entry...
-      //
-      if ( hi.isUnconditional() || ( jobEntryCopy.evaluates() && ( !( hi.getEvaluation() ^ newResult
-        .getResult() ) ) ) ) {
-        // Start this next step!
-        if ( log.isBasic() ) {
-          log.logBasic( BaseMessages.getString( PKG, "Job.Log.StartingEntry", nextEntry.getName() ) );
-        }
-
-        // Pass along the previous result, perhaps the next job can use it...
-        // However, set the number of errors back to 0 (if it should be reset)
-        // When an evaluation is executed the errors e.g. should not be reset.
-        if ( nextEntry.resetErrorsBeforeExecution() ) {
-          newResult.setNrErrors( 0 );
-        }
+    frame.prevResult = prevResult;
+    frame.newResult = newResult;
+    frame.nrNext = jobMeta.findNrNextJobEntries( jobEntryCopy );
+    frame.executed = true;
+  }
 
-        // Now execute!
-        //
-        // if (we launch in parallel, fire the execution off in a new thread...
-        //
-        if ( jobEntryCopy.isLaunchingInParallel() ) {
-          threadEntries.add( nextEntry );
+  /**
+   * @return true if the hop is followed after the job entry of the frame finished
+   */
+  private boolean isFollowed( JobEntryFrame frame, JobHopMeta hi ) {
+    return hi.isUnconditional()
+      || ( frame.jobEntryCopy.evaluates() && ( !( hi.getEvaluation() ^ frame.newResult.getResult() ) ) );
+  }
 
-          Runnable runnable = new Runnable() {
-            @Override public void run() {
-              try {
-                Result threadResult = execute( nr + 1, newResult, nextEntry, jobEntryCopy, nextComment );
-                threadResults.add( threadResult );
-              } catch ( Throwable e ) {
-                log.logError( Const.getStackTracker( e ) );
-                threadExceptions.add( new HopException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError",
-                  nextEntry.toString() ), e ) );
-                Result threadResult = new Result();
-                threadResult.setResult( false );
-                threadResult.setNrErrors( 1L );
-                threadResults.add( threadResult );
-              }
-            }
-          };
-          Thread thread = new Thread( runnable );
-          threads.add( thread );
-          thread.start();
-          if ( log.isBasic() ) {
-            log.logBasic( BaseMessages.getString( PKG, "Job.Log.LaunchedJobEntryInParallel", nextEntry.getName() ) );
-          }
-        } else {
-          try {
-            // Same as before: blocks until it's done
-            //
-            res = execute( nr + 1, newResult, nextEntry, jobEntryCopy, nextComment );
-          } catch ( Throwable e ) {
-            log.logError( Const.getStackTracker( e ) );
-            throw new HopException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError", nextEntry.toString() ),
-              e );
-          }
-          if ( log.isBasic() ) {
-            log.logBasic( BaseMessages.getString( PKG, "Job.Log.FinishedJobEntry", nextEntry.getName(), res.getResult()
-              + "" ) );
-          }
-        }
+  /**
+   * @return true if none of the hops after the current one of the frame is followed
+   */
+  private boolean isLastFollowed( JobEntryFrame frame ) {
+    for ( int i = frame.nextIndex + 1; i < frame.nrNext; i++ ) {
+      JobEntryCopy nextEntry = jobMeta.findNextJobEntry( frame.jobEntryCopy, i );
+      if ( isFollowed( frame, jobMeta.findJobHop( frame.jobEntryCopy, nextEntry ) ) ) {
+        return false;
       }
     }
+    return true;
+  }
+
+  /**
+   * Hand the execution of the next job entry to the thread pool of this job.
+   */
+  private void launchInParallel( final JobEntryFrame frame, final JobEntryCopy nextEntry, final String nextComment ) {
+    final Result newResult = frame.newResult;
+    final int nr = frame.nr;
+    FutureTask<Result> branch = getJobEntryThreadPool().launch( () -> {
+      try {
+        return execute( nr + 1, newResult, nextEntry, frame.jobEntryCopy, nextComment );
+      } catch ( Throwable e ) {
+        log.logError( Const.getStackTracker( e ) );
+        frame.branchExceptions.add( new HopException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError",
+          nextEntry.toString() ), e ) );
+        Result threadResult = new Result();
+        threadResult.setResult( false );
+        threadResult.setNrErrors( 1L );
+        return threadResult;
+      }
+    } );
+    frame.branches.add( branch );
+    frame.branchEntries.add( nextEntry );
+  }
 
+  /**
+   * Wait for the job entries launched in parallel and work out the result of the job entry of the frame.
+   */
+  private Result finishJobEntry( JobEntryFrame frame ) throws HopException {
     // OK, if we run in parallel, we need to wait for all the job entries to
     // finish...
+    // In parallel execution, we aggregate all the results, in the order the job entries were launched.
     //
-    if ( jobEntryCopy.isLaunchingInParallel() ) {
-      for ( int i = 0; i < threads.size(); i++ ) {
-        Thread thread = threads.get( i );
-        JobEntryCopy nextEntry = threadEntries.get( i );
-
-        try {
-          thread.join();
-        } catch ( InterruptedException e ) {
-          log.logError( jobMeta.toString(), BaseMessages.getString( PKG,
-            "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ) );
-          threadExceptions.add( new HopException( BaseMessages.getString( PKG,
-            "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ), e ) );
-        }
+    List<Result> threadResults = new ArrayList<>();
+    for ( int i = 0; i < frame.branches.size(); i++ ) {
+      JobEntryCopy nextEntry = frame.branchEntries.get( i );
+      try {
+        threadResults.add( getJobEntryThreadPool().join( frame.branches.get( i ) ) );
+      } catch ( InterruptedException | ExecutionException e ) {
+        log.logError( jobMeta.toString(), BaseMessages.getString( PKG,
+          "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ) );
+        frame.branchExceptions.add( new HopException( BaseMessages.getString( PKG,
+          "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ), e ) );
       }
-      // if(log.isBasic()) log.logBasic(BaseMessages.getString(PKG,
-      // "Job.Log.FinishedJobEntry",startpoint.getName(),res.getResult()+""));
     }
 
     // Perhaps we don't have next steps??
     // In this case, return the previous result.
+    Result res = frame.res;
     if ( res == null ) {
-      res = prevResult;
+      res = frame.prevResult;
     }
 
     // See if there where any errors in the parallel execution
     //
-    if ( threadExceptions.size() > 0 ) {
+    if ( frame.branchExceptions.size() > 0 ) {
       res.setResult( false );
-      res.setNrErrors( threadExceptions.size() );
+      res.setNrErrors( frame.branchExceptions.size() );
 
-      for ( HopException e : threadExceptions ) {
+      for ( HopException e : frame.branchExceptions ) {
         log.logError( jobMeta.toString(), e.getMessage(), e );
       }
 
       // Now throw the first Exception for good measure...
       //
-      throw threadExceptions.poll();
+      throw frame.branchExceptions.poll();
     }
 
-    // In parallel execution, we aggregate all the results, simply add them to
-    // the previous result...
-    //
     for ( Result threadResult : threadResults ) {
       res.add( threadResult );
     }
@@ -888,6 +1020,26 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     return res;
   }
 
+  /**
+   * Wrap an unexpected error in a job entry the way the job entry that launched it reports it.
+   */
+  private HopException unexpectedError( JobEntryFrame frame, Throwable e ) {
+    log.logError( Const.getStackTracker( e ) );
+    return new HopException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError", frame.jobEntryCopy.toString() ),
+      e );
+  }
+
+  /**
+   * @return the pool running the job entries this job launches in parallel
+   */
+  private synchronized JobEntryThreadPool getJobEntryThreadPool() {
+    if ( jobEntryThreadPool == null ) {
+      jobEntryThreadPool = new JobEntryThreadPool( Const.toInt( environmentSubstitute( "${"
+        + Const.HOP_JOB_MAX_PARALLEL_ENTRIES + "}" ), JobEntryThreadPool.DEFAULT_JOB_MAX_PARALLEL_ENTRIES ) );
+    }
+    return jobEntryThreadPool;
+  }
+
   /**
    * Wait until this job has finished.
    */
@@ -1187,16 +1339,20 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     }
     // end PDI-7070
 
+    List<LoggingHierarchy> loggingHierarchyList = getLoggingHierarchy();
+    if ( AsyncLogTableWriter.isEnabled() ) {
+      AsyncLogTableWriter.write( createDataBase( channelLogTable.getDatabaseMeta() ), this, logCommitSize,
+        channelLogTable, LogStatus.START, loggingHierarchyList, null, log );
+      return;
+    }
+
     try {
       db = new Database( this, channelLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
       db.setCommit( logCommitSize );
 
-      List<LoggingHierarchy> loggingHierarchyList = getLoggingHierarchy();
-      for ( LoggingHierarchy loggingHierarchy : loggingHierarchyList ) {
-        db.writeLogRecord( channelLogTable, LogStatus.START, loggingHierarchy, null );
-      }
+      db.writeLogRecords( channelLogTable, LogStatus.START, loggingHierarchyList, null );
 
       // Also time-out the log records in here...
       //
@@ -1221,15 +1377,19 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
   protected void writeJobEntryLogInformation() throws HopException {
     Database db = null;
     JobEntryLogTable jobEntryLogTable = getJobMeta().getJobEntryLogTable();
+    if ( AsyncLogTableWriter.isEnabled() ) {
+      AsyncLogTableWriter.write( createDataBase( jobEntryLogTable.getDatabaseMeta() ), this, logCommitSize,
+        jobEntryLogTable, LogStatus.START, getJobMeta().getJobCopies(), this, log );
+      return;
+    }
+
     try {
       db = createDataBase( jobEntryLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
       db.setCommit( logCommitSize );
 
-      for ( JobEntryCopy copy : getJobMeta().getJobCopies() ) {
-        db.writeLogRecord( jobEntryLogTable, LogStatus.START, copy, this );
-      }
+      db.writeLogRecords( jobEntryLogTable, LogStatus.START, getJobMeta().getJobCopies(), this );
 
       db.cleanupLogRecords( jobEntryLogTable );
     } catch ( Exception e ) {
@@ -0,0 +1,149 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.job;
+
+import org.apache.hop.core.Const;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the job entries a job launches in parallel. All the jobs in the JVM share one pool of threads, so the threads of
+ * finished branches are used again instead of starting a thread for every branch.
+ * <p>
+ * By default every launched branch starts right away. Limits are opt-in: the number of threads shared by all jobs (see
+ * {@link Const#HOP_SERVER_MAX_PARALLEL_JOB_ENTRIES}) and the number of threads a job occupies (see
+ * {@link Const#HOP_JOB_MAX_PARALLEL_ENTRIES}). Branches beyond a limit wait until a thread is free, so with a limit
+ * branches that wait for each other, for example for a file another branch writes, can wait forever.
+ * <p>
+ * A job that waits for a branch which didn't start yet runs it itself. That way parallel job entries nested in
+ * parallel job entries can't starve a limited pool.
+ */
+public class JobEntryThreadPool {
+
+  /**
+   * No limit on the number of branches a job runs in parallel
+   */
+  public static final int DEFAULT_JOB_MAX_PARALLEL_ENTRIES = 0;
+
+  /**
+   * No limit on the number of threads shared by all jobs
+   */
+  public static final int DEFAULT_SERVER_MAX_PARALLEL_JOB_ENTRIES = 0;
+
+  private static ThreadPoolExecutor serverExecutor;
+
+  private final Semaphore permits;
+  private final Queue<FutureTask<?>> waiting = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param maxParallelEntries the maximum number of branches of the job that run in the shared pool at the same time,
+   *                           0 or less for no limit
+   */
+  public JobEntryThreadPool( int maxParallelEntries ) {
+    this.permits = maxParallelEntries > 0 ? new Semaphore( maxParallelEntries ) : null;
+  }
+
+  /**
+   * Launch a branch in parallel.
+   *
+   * @param callable the work of the branch
+   * @return the branch, pass it to {@link #join(FutureTask)} to wait for its result
+   */
+  public <T> FutureTask<T> launch( Callable<T> callable ) {
+    FutureTask<T> task = new FutureTask<>( callable );
+    waiting.add( task );
+    startWorker();
+    return task;
+  }
+
+  /**
+   * Wait for a branch to finish. If the branch didn't start yet, it is run in the calling thread.
+   *
+   * @param task the branch returned by {@link #launch(Callable)}
+   * @return the result of the branch
+   * @throws InterruptedException in case the calling thread is interrupted while waiting
+   * @throws ExecutionException   in case the branch threw an exception
+   */
+  public <T> T join( FutureTask<T> task ) throws InterruptedException, ExecutionException {
+    if ( waiting.remove( task ) ) {
+      task.run();
+    }
+    return task.get();
+  }
+
+  private void startWorker() {
+    if ( waiting.isEmpty() || ( permits != null && !permits.tryAcquire() ) ) {
+      return;
+    }
+    getServerExecutor().execute( () -> {
+      try {
+        FutureTask<?> task;
+        while ( ( task = waiting.poll() ) != null ) {
+          task.run();
+        }
+      } finally {
+        if ( permits != null ) {
+          permits.release();
+        }
+      }
+      // A branch launched just before the permit was released needs a worker too.
+      //
+      startWorker();
+    } );
+  }
+
+  private static synchronized ThreadPoolExecutor getServerExecutor() {
+    if ( serverExecutor == null ) {
+      int nrThreads = Const.toInt( System.getProperty( Const.HOP_SERVER_MAX_PARALLEL_JOB_ENTRIES ),
+        DEFAULT_SERVER_MAX_PARALLEL_JOB_ENTRIES );
+      final AtomicInteger threadNr = new AtomicInteger();
+      ThreadFactory threadFactory = runnable -> {
+        Thread thread = new Thread( runnable, "Parallel job entry " + threadNr.incrementAndGet() );
+        thread.setDaemon( true );
+        return thread;
+      };
+      if ( nrThreads > 0 ) {
+        serverExecutor = new ThreadPoolExecutor( nrThreads, nrThreads, 60L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), threadFactory );
+        serverExecutor.allowCoreThreadTimeOut( true );
+      } else {
+        // Start a thread whenever none is idle: a launched branch never waits.
+        //
+        serverExecutor = new ThreadPoolExecutor( 0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+          new SynchronousQueue<Runnable>(), threadFactory );
+      }
+    }
+    return serverExecutor;
+  }
+}
@@ -68,6 +68,8 @@ import org.apache.hop.core.util.StringUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.VariableSpace;
 import org.apache.hop.core.vfs.HopVFS;
+import org.apache.hop.core.xml.XMLDocumentCache;
+import org.apache.hop.core.xml.XMLElementStream;
 import org.apache.hop.core.xml.XMLFormatter;
 import org.apache.hop.core.xml.XMLHandler;
 import org.apache.hop.core.xml.XMLInterface;
@@ -615,7 +617,17 @@ public class JobMeta extends AbstractMeta implements Cloneable, Comparable<JobMe
     this.metaStore = metaStore;
     try {
       // OK, try to load using the VFS stuff...
-      Document doc = XMLHandler.loadXMLFile( HopVFS.getFileObject( fname, this ) );
+      FileObject jobFile = HopVFS.getFileObject( fname, this );
+      if ( XMLElementStream.isStreamed( jobFile ) ) {
+        // Large jobs are read one job entry at a time instead of parsing the complete file in memory
+        //
+        try ( XMLElementStream entryStream =
+                new XMLElementStream( HopVFS.getInputStream( jobFile ), XML_TAG, "entries", "entry" ) ) {
+          loadXML( null, entryStream, fname, metaStore );
+        }
+        return;
+      }
+      Document doc = XMLDocumentCache.getInstance().loadXMLFile( jobFile );
       if ( doc != null ) {
         // The jobnode
         Node jobnode = XMLHandler.getSubNode( doc, XML_TAG );
@@ -766,6 +778,21 @@ public class JobMeta extends AbstractMeta implements Cloneable, Comparable<JobMe
    */
   public void loadXML( Node jobnode, String fname, IMetaStore metaStore,
                        boolean ignoreRepositorySharedObjects ) throws HopXMLException {
+    loadXML( jobnode, null, fname, metaStore );
+  }
+
+  /**
+   * Load a job either from a complete DOM or from a stream handing out the job entries one at a time.
+   *
+   * @param jobnode     The node to load from, null if the job entries are streamed
+   * @param entryStream The stream to read the job entries from, the rest of the job is read from its root node after
+   *                    the last job entry. Null to read the job entries from the job node.
+   * @param fname       The filename
+   * @param metaStore   the MetaStore to use
+   * @throws HopXMLException
+   */
+  private void loadXML( Node jobnode, XMLElementStream entryStream, String fname, IMetaStore metaStore )
+    throws HopXMLException {
     Props props = null;
     if ( Props.isInitialized() ) {
       props = Props.getInstance();
@@ -777,6 +804,22 @@ public class JobMeta extends AbstractMeta implements Cloneable, Comparable<JobMe
 
       setFilename( fname );
 
+      /*
+       * read the job entries first, when they are streamed the rest of the job is only complete after the last one
+       */
+      if ( entryStream != null ) {
+        for ( Node entrynode = entryStream.nextElement(); entrynode != null; entrynode = entryStream.nextElement() ) {
+          loadJobEntry( entrynode, metaStore );
+        }
+        jobnode = entryStream.getRootNode();
+      } else {
+        Node entriesnode = XMLHandler.getSubNode( jobnode, "entries" );
+        int tr = XMLHandler.countNodes( entriesnode, "entry" );
+        for ( int i = 0; i < tr; i++ ) {
+          loadJobEntry( XMLHandler.getSubNodeByNr( entriesnode, "entry", i ), metaStore );
+        }
+      }
+
       // get job info:
       //
       setName( XMLHandler.getTagValue( jobnode, "name" ) );
@@ -853,51 +896,6 @@ public class JobMeta extends AbstractMeta implements Cloneable, Comparable<JobMe
 
       batchIdPassed = "Y".equalsIgnoreCase( XMLHandler.getTagValue( jobnode, "pass_batchid" ) );
 
-      /*
-       * read the job entries...
-       */
-      Node entriesnode = XMLHandler.getSubNode( jobnode, "entries" );
-      int tr = XMLHandler.countNodes( entriesnode, "entry" );
-      for ( int i = 0; i < tr; i++ ) {
-        Node entrynode = XMLHandler.getSubNodeByNr( entriesnode, "entry", i );
-        // System.out.println("Reading entry:\n"+entrynode);
-
-        JobEntryCopy je = new JobEntryCopy( entrynode, metaStore );
-
-        if ( je.isSpecial() && je.isMissing() ) {
-          addMissingEntry( (MissingEntry) je.getEntry() );
-        }
-        JobEntryCopy prev = findJobEntry( je.getName(), 0, true );
-        if ( prev != null ) {
-          // See if the #0 (root entry) already exists!
-          //
-          if ( je.getNr() == 0 ) {
-
-            // Replace previous version with this one: remove it first
-            //
-            int idx = indexOfJobEntry( prev );
-            removeJobEntry( idx );
-
-          } else if ( je.getNr() > 0 ) {
-
-            // Use previously defined JobEntry info!
-            //
-            je.setEntry( prev.getEntry() );
-
-            // See if entry already exists...
-            prev = findJobEntry( je.getName(), je.getNr(), true );
-            if ( prev != null ) {
-              // remove the old one!
-              //
-              int idx = indexOfJobEntry( prev );
-              removeJobEntry( idx );
-            }
-          }
-        }
-        // Add the JobEntryCopy...
-        addJobEntry( je );
-      }
-
       Node hopsnode = XMLHandler.getSubNode( jobnode, "hops" );
       int ho = XMLHandler.countNodes( hopsnode, "hop" );
       for ( int i = 0; i < ho; i++ ) {
@@ -929,6 +927,43 @@ public class JobMeta extends AbstractMeta implements Cloneable, Comparable<JobMe
     }
   }
 
+  private void loadJobEntry( Node entrynode, IMetaStore metaStore ) throws HopXMLException {
+    JobEntryCopy je = new JobEntryCopy( entrynode, metaStore );
+
+    if ( je.isSpecial() && je.isMissing() ) {
+      addMissingEntry( (MissingEntry) je.getEntry() );
+    }
+    JobEntryCopy prev = findJobEntry( je.getName(), 0, true );
+    if ( prev != null ) {
+      // See if the #0 (root entry) already exists!
+      //
+      if ( je.getNr() == 0 ) {
+
+        // Replace previous version with this one: remove it first
+        //
+        int idx = indexOfJobEntry( prev );
+        removeJobEntry( idx );
+
+      } else if ( je.getNr() > 0 ) {
+
+        // Use previously defined JobEntry info!
+        //
+        je.setEntry( prev.getEntry() );
+
+        // See if entry already exists...
+        prev = findJobEntry( je.getName(), je.getNr(), true );
+        if ( prev != null ) {
+          // remove the old one!
+          //
+          int idx = indexOfJobEntry( prev );
+          removeJobEntry( idx );
+        }
+      }
+    }
+    // Add the JobEntryCopy...
+    addJobEntry( je );
+  }
+
   /**
    * Gets the job entry copy.
    *
@@ -28,6 +28,7 @@ import org.apache.hop.core.CheckResultInterface;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.ResultRowList;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.SQLStatement;
 import org.apache.hop.core.exception.HopException;
@@ -44,6 +45,7 @@ import org.apache.hop.core.parameters.NamedParamsDefault;
 import org.apache.hop.core.util.CurrentDirectoryResolver;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.VariableSpace;
+import org.apache.hop.core.variables.Variables;
 import org.apache.hop.core.vfs.HopVFS;
 import org.apache.hop.core.xml.XMLHandler;
 import org.apache.hop.i18n.BaseMessages;
@@ -54,6 +56,7 @@ import org.apache.hop.job.JobMeta;
 import org.apache.hop.job.entry.JobEntryBase;
 import org.apache.hop.job.entry.JobEntryInterface;
 import org.apache.hop.job.entry.JobEntryRunConfigurableInterface;
+import org.apache.hop.job.entry.ParallelRowExecutor;
 import org.apache.hop.job.entry.validator.AndValidator;
 import org.apache.hop.job.entry.validator.JobEntryValidatorUtils;
 import org.apache.hop.metastore.api.IMetaStore;
@@ -93,6 +96,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
   public boolean argFromPrevious;
   public boolean paramsFromPrevious;
   public boolean execPerRow;
+  private String parallelism;
+  private boolean failingFast = true;
 
   public String[] parameters;
   public String[] parameterFieldNames;
@@ -215,6 +220,34 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
     this.passingExport = passingExport;
   }
 
+  /**
+   * @return the maximum number of input rows to execute the job for at the same time
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism the maximum number of input rows to execute the job for at the same time
+   */
+  public void setParallelism( String parallelism ) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @return true if no new input rows are executed once an execution failed
+   */
+  public boolean isFailingFast() {
+    return failingFast;
+  }
+
+  /**
+   * @param failingFast true if no new input rows should be executed once an execution failed
+   */
+  public void setFailingFast( boolean failingFast ) {
+    this.failingFast = failingFast;
+  }
+
   public String getRunConfiguration() {
     return runConfiguration;
   }
@@ -257,6 +290,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
     retval.append( "      " ).append( XMLHandler.addTagValue( "arg_from_previous", argFromPrevious ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "params_from_previous", paramsFromPrevious ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "exec_per_row", execPerRow ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "parallelism", parallelism ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "fail_fast", failingFast ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "set_logfile", setLogfile ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "logfile", logfile ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "logext", logext ) );
@@ -316,6 +351,9 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
       argFromPrevious = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "arg_from_previous" ) );
       paramsFromPrevious = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "params_from_previous" ) );
       execPerRow = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "exec_per_row" ) );
+      parallelism = XMLHandler.getTagValue( entrynode, "parallelism" );
+      String failFast = XMLHandler.getTagValue( entrynode, "fail_fast" );
+      failingFast = Utils.isEmpty( failFast ) || "Y".equalsIgnoreCase( failFast );
       setLogfile = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "set_logfile" ) );
       addDate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "add_date" ) );
       addTime = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "add_time" ) );
@@ -410,6 +448,47 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
       jobLogLevel = logFileLevel;
     }
 
+    executeJob( result, nr, jobLogLevel, logChannelFileWriter );
+
+    if ( setLogfile ) {
+      if ( logChannelFileWriter != null ) {
+        logChannelFileWriter.stopLogging();
+
+        ResultFile resultFile =
+          new ResultFile(
+            ResultFile.FILE_TYPE_LOG, logChannelFileWriter.getLogFile(), parentJob.getJobname(), getName() );
+        result.getResultFiles().put( resultFile.getFile().toString(), resultFile );
+
+        // See if anything went wrong during file writing...
+        //
+        if ( logChannelFileWriter.getException() != null ) {
+          logError( "Unable to open log file [" + getLogFilename() + "] : " );
+          logError( Const.getStackTracker( logChannelFileWriter.getException() ) );
+          result.setNrErrors( 1 );
+          result.setResult( false );
+          return result;
+        }
+      }
+    }
+
+    if ( result.getNrErrors() > 0 ) {
+      result.setResult( false );
+    } else {
+      result.setResult( true );
+    }
+
+    return result;
+  }
+
+  /**
+   * Load the job and execute it once, or once for every input row.
+   *
+   * @param result               the result of the previous execution, updated with the result of this one
+   * @param nr                   the job entry number
+   * @param jobLogLevel          the log level to run the job with
+   * @param logChannelFileWriter the writer of the log file of this job entry or null if it doesn't log to a file
+   */
+  private void executeJob( Result result, int nr, LogLevel jobLogLevel, LogChannelFileWriter logChannelFileWriter ) {
     try {
       // First load the job, outside of the loop...
       if ( parentJob.getJobMeta() != null ) {
@@ -435,6 +514,19 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
       verifyRecursiveExecution( parentJob, jobMeta );
 
+      // Every row gets its own copy of the job when running rows in parallel
+      //
+      int realParallelism = execPerRow ? Const.toInt( environmentSubstitute( parallelism ), 1 ) : 1;
+      if ( realParallelism > 1 ) {
+        new ParallelRowExecutor( getName(), realParallelism, failingFast, parentJob, log ).execute( result,
+          rowResult -> {
+            JobEntryJob rowEntry = createRowEntry();
+            rowEntry.executeJob( rowResult, nr, jobLogLevel, logChannelFileWriter );
+            return rowResult;
+          } );
+        return;
+      }
+
       int iteration = 0;
       String[] args1 = arguments;
       // no arguments? Check the parent jobs arguments
@@ -459,7 +551,12 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
       RowMetaAndData resultRow = null;
       boolean first = true;
-      List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>( result.getRows() );
+      List<RowMetaAndData> rows = result.getRows();
+      if ( execPerRow ) {
+        // The input rows are read one at a time and can stay on disk, the result gets a new list for every row.
+        //
+        result.setRows( new ResultRowList() );
+      }
 
       while ( ( first && !execPerRow )
         || ( execPerRow && rows != null && iteration < rows.size() && result.getNrErrors() == 0 ) ) {
@@ -641,7 +738,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
             }
             if ( !executionConfiguration.isExecutingLocally() && !executionConfiguration.isExecutingRemotely() ) {
               result.setResult( true );
-              return result;
+              return;
             }
             remoteSlaveServer = executionConfiguration.getRemoteServer();
             doFallback = false;
@@ -649,7 +746,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
             log.logError( e.getMessage(), getName() );
             result.setNrErrors( 1 );
             result.setResult( false );
-            return result;
+            return;
           }
         }
 
@@ -915,41 +1012,30 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
         iteration++;
       }
 
+      if ( execPerRow && rows != null ) {
+        // The input rows are no longer used, this deletes their temporary file if they were written to disk
+        //
+        rows.clear();
+      }
+
     } catch ( HopException ke ) {
       logError( "Error running job entry 'job' : ", ke );
 
       result.setResult( false );
       result.setNrErrors( 1L );
     }
+  }
 
-    if ( setLogfile ) {
-      if ( logChannelFileWriter != null ) {
-        logChannelFileWriter.stopLogging();
-
-        ResultFile resultFile =
-          new ResultFile(
-            ResultFile.FILE_TYPE_LOG, logChannelFileWriter.getLogFile(), parentJob.getJobname(), getName() );
-        result.getResultFiles().put( resultFile.getFile().toString(), resultFile );
-
-        // See if anything went wrong during file writing...
-        //
-        if ( logChannelFileWriter.getException() != null ) {
-          logError( "Unable to open log file [" + getLogFilename() + "] : " );
-          logError( Const.getStackTracker( logChannelFileWriter.getException() ) );
-          result.setNrErrors( 1 );
-          result.setResult( false );
-          return result;
-        }
-      }
-    }
-
-    if ( result.getNrErrors() > 0 ) {
-      result.setResult( false );
-    } else {
-      result.setResult( true );
-    }
-
-    return result;
+  /**
+   * @return a copy of this job entry to execute a single input row with, next to the other rows
+   */
+  private JobEntryJob createRowEntry() {
+    JobEntryJob rowEntry = (JobEntryJob) clone();
+    rowEntry.parallelism = null;
+    rowEntry.variables = new Variables();
+    rowEntry.copyVariablesFrom( this );
+    rowEntry.setParentVariableSpace( getParentVariableSpace() );
+    return rowEntry;
   }
 
   private boolean createParentFolder( String filename ) {
@@ -1048,6 +1134,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
     directory = null;
     arguments = null;
     argFromPrevious = false;
+    parallelism = null;
+    failingFast = true;
     addDate = false;
     addTime = false;
     logfile = null;
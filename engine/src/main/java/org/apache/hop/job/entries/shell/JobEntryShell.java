@@ -31,8 +31,10 @@ import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopXMLException;
+import org.apache.hop.core.logging.AsyncLoggingEventListener;
 import org.apache.hop.core.logging.FileLoggingEventListener;
 import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.HopLoggingEventListener;
 import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.util.StreamLogger;
 import org.apache.hop.core.util.Utils;
@@ -265,6 +267,7 @@ public class JobEntryShell extends JobEntryBase implements Cloneable, JobEntryIn
 
   public Result execute( Result result, int nr ) throws HopException {
     FileLoggingEventListener loggingEventListener = null;
+    HopLoggingEventListener appenderListener = null;
     LogLevel shellLogLevel = parentJob.getLogLevel();
     if ( setLogfile ) {
       String realLogFilename = environmentSubstitute( getLogFilename() );
@@ -279,7 +282,8 @@ public class JobEntryShell extends JobEntryBase implements Cloneable, JobEntryIn
 
       try {
         loggingEventListener = new FileLoggingEventListener( getLogChannelId(), realLogFilename, setAppendLogfile );
-        HopLogStore.getAppender().addLoggingEventListener( loggingEventListener );
+        appenderListener = AsyncLoggingEventListener.wrapIfConfigured( loggingEventListener );
+        HopLogStore.getAppender().addLoggingEventListener( appenderListener );
       } catch ( HopException e ) {
         logError( BaseMessages.getString( PKG, "JobEntryShell.Error.UnableopenAppenderFile", getLogFilename(), e
           .toString() ) );
@@ -369,7 +373,8 @@ public class JobEntryShell extends JobEntryBase implements Cloneable, JobEntryIn
 
     if ( setLogfile ) {
       if ( loggingEventListener != null ) {
-        HopLogStore.getAppender().removeLoggingEventListener( loggingEventListener );
+        HopLogStore.getAppender().removeLoggingEventListener( appenderListener );
+        AsyncLoggingEventListener.closeIfAsync( appenderListener );
         loggingEventListener.close();
 
         ResultFile resultFile =
@@ -28,6 +28,7 @@ import org.apache.hop.core.CheckResultInterface;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.ResultRowList;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.SQLStatement;
 import org.apache.hop.core.exception.HopException;
@@ -43,6 +44,7 @@ import org.apache.hop.core.util.CurrentDirectoryResolver;
 import org.apache.hop.core.util.FileUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.VariableSpace;
+import org.apache.hop.core.variables.Variables;
 import org.apache.hop.core.vfs.HopVFS;
 import org.apache.hop.core.xml.XMLHandler;
 import org.apache.hop.i18n.BaseMessages;
@@ -52,6 +54,7 @@ import org.apache.hop.job.JobMeta;
 import org.apache.hop.job.entry.JobEntryBase;
 import org.apache.hop.job.entry.JobEntryInterface;
 import org.apache.hop.job.entry.JobEntryRunConfigurableInterface;
+import org.apache.hop.job.entry.ParallelRowExecutor;
 import org.apache.hop.job.entry.validator.AndValidator;
 import org.apache.hop.job.entry.validator.JobEntryValidatorUtils;
 import org.apache.hop.metastore.api.IMetaStore;
@@ -96,6 +99,10 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
 
   public boolean execPerRow;
 
+  private String parallelism;
+
+  private boolean failingFast = true;
+
   public String[] parameters;
 
   public String[] parameterFieldNames;
@@ -226,6 +233,8 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
     retval.append( "      " ).append( XMLHandler.addTagValue( "arg_from_previous", argFromPrevious ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "params_from_previous", paramsFromPrevious ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "exec_per_row", execPerRow ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "parallelism", parallelism ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "fail_fast", failingFast ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "clear_rows", clearResultRows ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "clear_files", clearResultFiles ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "set_logfile", setLogfile ) );
@@ -284,6 +293,9 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
       argFromPrevious = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "arg_from_previous" ) );
       paramsFromPrevious = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "params_from_previous" ) );
       execPerRow = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "exec_per_row" ) );
+      parallelism = XMLHandler.getTagValue( entrynode, "parallelism" );
+      String failFast = XMLHandler.getTagValue( entrynode, "fail_fast" );
+      failingFast = Utils.isEmpty( failFast ) || "Y".equalsIgnoreCase( failFast );
       clearResultRows = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "clear_rows" ) );
       clearResultFiles = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "clear_files" ) );
       setLogfile = "Y".equalsIgnoreCase( XMLHandler.getTagValue( entrynode, "set_logfile" ) );
@@ -349,6 +361,8 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
     arguments = null;
     argFromPrevious = false;
     execPerRow = false;
+    parallelism = null;
+    failingFast = true;
     addDate = false;
     addTime = false;
     logfile = null;
@@ -415,6 +429,46 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
       }
     }
 
+    executeTrans( result, transLogLevel, realLogFilename );
+
+    if ( setLogfile ) {
+      if ( logChannelFileWriter != null ) {
+        logChannelFileWriter.stopLogging();
+
+        ResultFile resultFile =
+          new ResultFile(
+            ResultFile.FILE_TYPE_LOG, logChannelFileWriter.getLogFile(), parentJob.getJobname(), getName() );
+        result.getResultFiles().put( resultFile.getFile().toString(), resultFile );
+
+        // See if anything went wrong during file writing...
+        //
+        if ( logChannelFileWriter.getException() != null ) {
+          logError( "Unable to open log file [" + getLogFilename() + "] : " );
+          logError( Const.getStackTracker( logChannelFileWriter.getException() ) );
+          result.setNrErrors( 1 );
+          result.setResult( false );
+          return result;
+        }
+      }
+    }
+
+    if ( result.getNrErrors() == 0 ) {
+      result.setResult( true );
+    } else {
+      result.setResult( false );
+    }
+
+    return result;
+  }
+
+  /**
+   * Load the transformation and execute it once, or once for every input row.
+   *
+   * @param result          the result of the previous execution, updated with the result of this one
+   * @param transLogLevel   the log level to run the transformation with
+   * @param realLogFilename the log file of this job entry or an empty string if it doesn't log to a file
+   */
+  private void executeTrans( Result result, LogLevel transLogLevel, String realLogFilename ) throws HopException {
     logDetailed( BaseMessages.getString( PKG, "JobTrans.Log.OpeningTrans", environmentSubstitute( getFilename() ) ) );
 
     // Load the transformation only once for the complete loop!
@@ -430,7 +484,20 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
         getName(), StringUtils.trim( e.getMessage() ) ), e );
       result.setNrErrors( 1 );
       result.setResult( false );
-      return result;
+      return;
+    }
+
+    // Every row gets its own copy of the transformation when running rows in parallel
+    //
+    int realParallelism = execPerRow ? Const.toInt( environmentSubstitute( parallelism ), 1 ) : 1;
+    if ( realParallelism > 1 ) {
+      new ParallelRowExecutor( getName(), realParallelism, failingFast, parentJob, log ).execute( result,
+        rowResult -> {
+          JobEntryTrans rowEntry = createRowEntry();
+          rowEntry.executeTrans( rowResult, transLogLevel, realLogFilename );
+          return rowResult;
+        } );
+      return;
     }
 
     int iteration = 0;
@@ -455,7 +522,12 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
 
     RowMetaAndData resultRow = null;
     boolean first = true;
-    List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>( result.getRows() );
+    List<RowMetaAndData> rows = result.getRows();
+    if ( execPerRow ) {
+      // The input rows are read one at a time and can stay on disk, the result gets a new list for every row.
+      //
+      result.setRows( new ResultRowList() );
+    }
 
     while ( ( first && !execPerRow )
       || ( execPerRow && rows != null && iteration < rows.size() && result.getNrErrors() == 0 )
@@ -508,7 +580,12 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
         }
 
         if ( clearResultRows ) {
-          previousResult.setRows( new ArrayList<RowMetaAndData>() );
+          // Clearing the rows we drop deletes their temporary file if they were written to disk
+          //
+          if ( previousResult.getRows() != null ) {
+            previousResult.getRows().clear();
+          }
+          previousResult.setRows( new ResultRowList() );
         }
 
         if ( clearResultFiles ) {
@@ -637,7 +714,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
             }
             if ( !executionConfiguration.isExecutingLocally() && !executionConfiguration.isExecutingRemotely() && !executionConfiguration.isExecutingClustered() ) {
               result.setResult( true );
-              return result;
+              return;
             }
             clustering = executionConfiguration.isExecutingClustered();
             remoteSlaveServer = executionConfiguration.getRemoteServer();
@@ -646,7 +723,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
             log.logError( e.getMessage(), getName() );
             result.setNrErrors( 1 );
             result.setResult( false );
-            return result;
+            return;
           }
         }
 
@@ -933,34 +1010,23 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
       iteration++;
     }
 
-    if ( setLogfile ) {
-      if ( logChannelFileWriter != null ) {
-        logChannelFileWriter.stopLogging();
-
-        ResultFile resultFile =
-          new ResultFile(
-            ResultFile.FILE_TYPE_LOG, logChannelFileWriter.getLogFile(), parentJob.getJobname(), getName() );
-        result.getResultFiles().put( resultFile.getFile().toString(), resultFile );
-
-        // See if anything went wrong during file writing...
-        //
-        if ( logChannelFileWriter.getException() != null ) {
-          logError( "Unable to open log file [" + getLogFilename() + "] : " );
-          logError( Const.getStackTracker( logChannelFileWriter.getException() ) );
-          result.setNrErrors( 1 );
-          result.setResult( false );
-          return result;
-        }
-      }
-    }
-
-    if ( result.getNrErrors() == 0 ) {
-      result.setResult( true );
-    } else {
-      result.setResult( false );
+    if ( execPerRow && rows != null ) {
+      // The input rows are no longer used, this deletes their temporary file if they were written to disk
+      //
+      rows.clear();
     }
+  }
 
-    return result;
+  /**
+   * @return a copy of this job entry to execute a single input row with, next to the other rows
+   */
+  private JobEntryTrans createRowEntry() {
+    JobEntryTrans rowEntry = (JobEntryTrans) clone();
+    rowEntry.parallelism = null;
+    rowEntry.variables = new Variables();
+    rowEntry.copyVariablesFrom( this );
+    rowEntry.setParentVariableSpace( getParentVariableSpace() );
+    return rowEntry;
   }
 
   protected void updateResult( Result result ) {
@@ -1209,6 +1275,34 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
     this.runConfiguration = runConfiguration;
   }
 
+  /**
+   * @return the maximum number of input rows to execute the transformation for at the same time
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism the maximum number of input rows to execute the transformation for at the same time
+   */
+  public void setParallelism( String parallelism ) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @return true if no new input rows are executed once an execution failed
+   */
+  public boolean isFailingFast() {
+    return failingFast;
+  }
+
+  /**
+   * @param failingFast true if no new input rows should be executed once an execution failed
+   */
+  public void setFailingFast( boolean failingFast ) {
+    this.failingFast = failingFast;
+  }
+
   public Trans getTrans() {
     return trans;
   }
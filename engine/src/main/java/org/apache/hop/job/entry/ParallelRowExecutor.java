@@ -0,0 +1,202 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.job.entry;
+
+import org.apache.hop.core.Result;
+import org.apache.hop.core.ResultRowList;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.LogChannelInterface;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.job.Job;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes a job entry once for every result row of the previous job entry with several rows running at the same
+ * time. The rows are read one after the other and handed to a bounded pool of threads in the order they arrived, with
+ * only a few rows waiting ahead of the running ones. The results are added up in that same order as the executions
+ * finish, regardless of which execution finished first.
+ * <p>
+ * When failing fast, rows that didn't start yet are skipped as soon as one execution reports an error. Rows are also
+ * skipped once the parent job is stopped.
+ */
+public class ParallelRowExecutor {
+  private static Class<?> PKG = ParallelRowExecutor.class; // for i18n purposes, needed by Translator2!!
+
+  /**
+   * The execution of a job entry for a single row.
+   */
+  public interface RowExecution {
+    /**
+     * @param rowResult a copy of the previous result holding only the row to execute for
+     * @return the result of the execution
+     * @throws HopException in case the execution failed
+     */
+    Result execute( Result rowResult ) throws HopException;
+  }
+
+  private final String name;
+  private final int parallelism;
+  private final boolean failingFast;
+  private final Job parentJob;
+  private final LogChannelInterface log;
+
+  /**
+   * @param name        the name of the job entry, used to name the threads
+   * @param parallelism the maximum number of rows executing at the same time
+   * @param failingFast true if no new rows should be started after an error
+   * @param parentJob   the job executing the job entry
+   * @param log         the log channel of the job entry
+   */
+  public ParallelRowExecutor( String name, int parallelism, boolean failingFast, Job parentJob,
+                              LogChannelInterface log ) {
+    this.name = name;
+    this.parallelism = Math.max( 1, parallelism );
+    this.failingFast = failingFast;
+    this.parentJob = parentJob;
+    this.log = log;
+  }
+
+  /**
+   * Execute for all the rows of the given result and replace the numbers and rows of the result with the sum of the
+   * results of the executions. Like the sequential loop, nothing is executed if the result already contains errors.
+   *
+   * @param result    the result of the previous job entry
+   * @param execution the execution to run for every row
+   */
+  public void execute( Result result, RowExecution execution ) {
+    List<RowMetaAndData> rows = result.getRows();
+    if ( rows.isEmpty() || result.getNrErrors() > 0 ) {
+      return;
+    }
+
+    final AtomicBoolean failed = new AtomicBoolean();
+    final AtomicInteger threadNr = new AtomicInteger();
+    int nrThreads = Math.min( parallelism, rows.size() );
+    ThreadPoolExecutor executor = new ThreadPoolExecutor( nrThreads, nrThreads, 0L, TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<Runnable>(), runnable -> {
+        Thread thread = new Thread( runnable, name + " (row executor " + threadNr.incrementAndGet() + ")" );
+        thread.setDaemon( true );
+        return thread;
+      } );
+
+    // Every row starts from the previous result without its rows and numbers
+    //
+    Result template = result.lightClone();
+    template.clear();
+    result.clear(); // clear only the numbers, NOT the files
+    result.setRows( new ResultRowList() );
+
+    // Keep only a few rows waiting for a thread, the result of the oldest row is added before the next row is read
+    //
+    int maxQueued = nrThreads * 2;
+    Deque<Future<Result>> queued = new ArrayDeque<>( maxQueued );
+    int nrRows = rows.size();
+    int nrAdded = 0;
+    int nrExecuted = 0;
+    try {
+      for ( RowMetaAndData row : rows ) {
+        if ( failingFast && failed.get() ) {
+          break;
+        }
+        if ( queued.size() >= maxQueued ) {
+          nrExecuted += addResult( result, queued.poll(), ++nrAdded, failed );
+        }
+        final Result rowResult = template.lightClone();
+        rowResult.setRows( new ArrayList<>( Collections.singletonList( row ) ) );
+
+        queued.add( executor.submit( () -> {
+          if ( ( failingFast && failed.get() ) || parentJob.isStopped() ) {
+            return null;
+          }
+          Result executionResult = execution.execute( rowResult );
+          if ( executionResult.getNrErrors() > 0 ) {
+            failed.set( true );
+          }
+          return executionResult;
+        } ) );
+      }
+      while ( !queued.isEmpty() ) {
+        nrExecuted += addResult( result, queued.poll(), ++nrAdded, failed );
+      }
+    } catch ( InterruptedException e ) {
+      // Drop the rows that didn't start yet, the executions that are running finish on their own
+      //
+      executor.shutdownNow();
+      result.add( errorResult() );
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+    }
+
+    // The rows were executed, this deletes the temporary file if they were written to disk
+    //
+    rows.clear();
+
+    int nrSkipped = nrRows - nrExecuted;
+    if ( nrSkipped > 0 ) {
+      log.logBasic( BaseMessages.getString( PKG, "ParallelRowExecutor.Log.SkippedRows", nrSkipped, nrRows ) );
+    }
+  }
+
+  /**
+   * Wait for the execution of a row and add its result.
+   *
+   * @return 1 if the row was executed, 0 if it was skipped
+   */
+  private int addResult( Result result, Future<Result> execution, int rowNr, AtomicBoolean failed )
+    throws InterruptedException {
+    Result rowResult;
+    try {
+      rowResult = execution.get();
+    } catch ( ExecutionException e ) {
+      failed.set( true );
+      log.logError( BaseMessages.getString( PKG, "ParallelRowExecutor.Error.RowFailed", rowNr ), e.getCause() );
+      rowResult = errorResult();
+    }
+    if ( rowResult == null ) {
+      return 0;
+    }
+    result.add( rowResult );
+    return 1;
+  }
+
+  private static Result errorResult() {
+    Result errorResult = new Result();
+    errorResult.setNrErrors( 1 );
+    errorResult.setResult( false );
+    return errorResult;
+  }
+}
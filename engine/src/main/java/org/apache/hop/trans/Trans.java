@@ -28,17 +28,21 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.cluster.SlaveServer;
+import org.apache.hop.core.BlockingArrayRowSet;
 import org.apache.hop.core.BlockingBatchingRowSet;
 import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Counter;
 import org.apache.hop.core.ExecutorInterface;
 import org.apache.hop.core.ExtensionDataInterface;
+import org.apache.hop.core.LowLatencyRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.ResultRowList;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.RowSet;
+import org.apache.hop.core.RowSetNotifier;
 import org.apache.hop.core.SingleRowRowSet;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
@@ -51,6 +55,7 @@ import org.apache.hop.core.exception.HopTransException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.extension.ExtensionPointHandler;
 import org.apache.hop.core.extension.HopExtensionPoint;
+import org.apache.hop.core.logging.AsyncLogTableWriter;
 import org.apache.hop.core.logging.ChannelLogTable;
 import org.apache.hop.core.logging.HasLogChannelInterface;
 import org.apache.hop.core.logging.HopLogStore;
@@ -69,6 +74,7 @@ import org.apache.hop.core.logging.MetricsRegistry;
 import org.apache.hop.core.logging.PerformanceLogTable;
 import org.apache.hop.core.logging.StepLogTable;
 import org.apache.hop.core.logging.TransLogTable;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.metrics.MetricsDuration;
 import org.apache.hop.core.metrics.MetricsSnapshotInterface;
 import org.apache.hop.core.metrics.MetricsUtil;
@@ -104,6 +110,7 @@ import org.apache.hop.trans.step.StepListener;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.step.StepMetaDataCombi;
 import org.apache.hop.trans.step.StepPartitioningMeta;
+import org.apache.hop.trans.step.StepStatusCounters;
 import org.apache.hop.trans.steps.mappinginput.MappingInput;
 import org.apache.hop.trans.steps.mappingoutput.MappingOutput;
 import org.apache.hop.www.PrepareExecutionTransServlet;
@@ -382,6 +389,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   private AtomicInteger status;
 
+  /**
+   * Signalled when the transformation starts running or is stopped, it wakes up the steps waiting for the start
+   */
+  private final RowSetNotifier runningNotifier = new RowSetNotifier();
+
   /**
    * <p>This enum stores bit masks which are used to manipulate with
    * statuses over field {@link Trans#status}
@@ -536,6 +548,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
   private Map<String, Object> extensionDataMap;
 
+  /**
+   * The end-to-end latencies of the rows, only kept in low latency streaming mode.
+   */
+  private LatencyHistogram eventLatencyHistogram;
+
   private ExecutorService heartbeat = null; // this transformations's heartbeat scheduled executor
 
   /**
@@ -560,7 +577,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     activeSubtransformations = new ConcurrentHashMap<>();
     activeSubjobs = new HashMap<>();
 
-    resultRows = new ArrayList<>();
+    resultRows = new ResultRowList();
     resultFiles = new ArrayList<>();
     counters = new Hashtable<>();
 
@@ -807,6 +824,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     //
     steps = new ArrayList<>();
     rowsets = new ArrayList<>();
+    eventLatencyHistogram = transMeta.isLowLatencyStreaming() ? new LatencyHistogram() : null;
 
     List<StepMeta> hopsteps = transMeta.getTransHopSteps( false );
 
@@ -898,8 +916,14 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
                 //
                 Boolean batchingRowSet =
                   ValueMetaString.convertStringToBoolean( System.getProperty( Const.HOP_BATCHING_ROWSET ) );
-                if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
+                Boolean arrayRowSet =
+                  ValueMetaString.convertStringToBoolean( System.getProperty( Const.HOP_ARRAY_ROWSET ) );
+                if ( transMeta.isLowLatencyStreaming() ) {
+                  rowSet = new LowLatencyRowSet( getLowLatencyRowSetSize() );
+                } else if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
                   rowSet = new BlockingBatchingRowSet( transMeta.getSizeRowset() );
+                } else if ( arrayRowSet != null && arrayRowSet.booleanValue() ) {
+                  rowSet = new BlockingArrayRowSet( transMeta.getSizeRowset() );
                 } else {
                   rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
                 }
@@ -947,7 +971,8 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           // distribution...
           for ( int s = 0; s < thisCopies; s++ ) {
             for ( int t = 0; t < nextCopies; t++ ) {
-              BlockingRowSet rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+              RowSet rowSet = transMeta.isLowLatencyStreaming()
+                ? new LowLatencyRowSet( getLowLatencyRowSetSize() ) : new BlockingRowSet( transMeta.getSizeRowset() );
               rowSet.setThreadNameFromToCopy( thisStep.getName(), s, nextStep.getName(), t );
               rowsets.add( rowSet );
               if ( log.isDetailed() ) {
@@ -1008,7 +1033,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           // don't share. Each copy of the step has its own variables.
           //
           step.initializeVariablesFrom( this );
-          step.setUsingThreadPriorityManagment( transMeta.isUsingThreadPriorityManagment() );
+          // Yielding on almost empty input buffers only adds latency in low latency streaming mode.
+          //
+          step.setUsingThreadPriorityManagment( transMeta.isUsingThreadPriorityManagment()
+            && !transMeta.isLowLatencyStreaming() );
 
           // Pass the connected repository & metaStore to the steps runtime
           //
@@ -1623,10 +1651,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
         StepMeta stepMeta = steps.get( i ).stepMeta;
         StepInterface step = steps.get( i ).step;
 
+        StepStatusCounters counters = step.getStatusCounters();
         StepPerformanceSnapShot snapShot =
           new StepPerformanceSnapShot( seqNr, getBatchId(), new Date(), getName(), stepMeta.getName(), step.getCopy(),
-            step.getLinesRead(), step.getLinesWritten(), step.getLinesInput(), step.getLinesOutput(), step
-            .getLinesUpdated(), step.getLinesRejected(), step.getErrors() );
+            counters.getLinesRead(), counters.getLinesWritten(), counters.getLinesInput(), counters.getLinesOutput(),
+            counters.getLinesUpdated(), counters.getLinesRejected(), counters.getErrors() );
 
         synchronized ( stepPerformanceSnapShots ) {
           List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( step.toString() );
@@ -1676,10 +1705,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    * @param si the step interface
    */
   public void logSummary( StepInterface si ) {
-    log.logBasic( si.getStepname(), BaseMessages.getString( PKG, "Trans.Log.FinishedProcessing", String.valueOf( si
-      .getLinesInput() ), String.valueOf( si.getLinesOutput() ), String.valueOf( si.getLinesRead() ) ) + BaseMessages
-      .getString( PKG, "Trans.Log.FinishedProcessing2", String.valueOf( si.getLinesWritten() ), String.valueOf( si
-        .getLinesUpdated() ), String.valueOf( si.getErrors() ) ) );
+    StepStatusCounters counters = si.getStatusCounters();
+    log.logBasic( si.getStepname(), BaseMessages.getString( PKG, "Trans.Log.FinishedProcessing", String.valueOf(
+      counters.getLinesInput() ), String.valueOf( counters.getLinesOutput() ), String.valueOf( counters
+      .getLinesRead() ) ) + BaseMessages.getString( PKG, "Trans.Log.FinishedProcessing2", String.valueOf( counters
+      .getLinesWritten() ), String.valueOf( counters.getLinesUpdated() ), String.valueOf( counters.getErrors() ) ) );
   }
 
   /**
@@ -2533,15 +2563,19 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     // end PDI-7070
 
     try {
+      List<LoggingHierarchy> loggingHierarchyList = getLoggingHierarchy();
+      if ( AsyncLogTableWriter.isEnabled() ) {
+        AsyncLogTableWriter.write( createDataBase( channelLogTable.getDatabaseMeta() ), this, logCommitSize,
+          channelLogTable, LogStatus.START, loggingHierarchyList, null, log );
+        return;
+      }
+
       db = new Database( this, channelLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
       db.setCommit( logCommitSize );
 
-      List<LoggingHierarchy> loggingHierarchyList = getLoggingHierarchy();
-      for ( LoggingHierarchy loggingHierarchy : loggingHierarchyList ) {
-        db.writeLogRecord( channelLogTable, LogStatus.START, loggingHierarchy, null );
-      }
+      db.writeLogRecords( channelLogTable, LogStatus.START, loggingHierarchyList, null );
 
       // Also time-out the log records in here...
       //
@@ -2563,14 +2597,18 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     Database db = null;
     StepLogTable stepLogTable = getTransMeta().getStepLogTable();
     try {
+      if ( AsyncLogTableWriter.isEnabled() ) {
+        AsyncLogTableWriter.write( createDataBase( stepLogTable.getDatabaseMeta() ), this, logCommitSize, stepLogTable,
+          LogStatus.START, getSteps(), null, log );
+        return;
+      }
+
       db = createDataBase( stepLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
       db.setCommit( logCommitSize );
 
-      for ( StepMetaDataCombi combi : getSteps() ) {
-        db.writeLogRecord( stepLogTable, LogStatus.START, combi, null );
-      }
+      db.writeLogRecords( stepLogTable, LogStatus.START, getSteps(), null );
 
       db.cleanupLogRecords( stepLogTable );
     } catch ( Exception e ) {
@@ -2613,11 +2651,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     Database db = null;
     MetricsLogTable metricsLogTable = transMeta.getMetricsLogTable();
     try {
-      db = new Database( this, metricsLogTable.getDatabaseMeta() );
-      db.shareVariablesWith( this );
-      db.connect();
-      db.setCommit( logCommitSize );
-
+      List<LoggingMetric> loggingMetrics = new ArrayList<>();
       List<String> logChannelIds = LoggingRegistry.getInstance().getLogChannelChildren( getLogChannelId() );
       for ( String logChannelId : logChannelIds ) {
         Queue<MetricsSnapshotInterface> snapshotList =
@@ -2626,7 +2660,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           Iterator<MetricsSnapshotInterface> iterator = snapshotList.iterator();
           while ( iterator.hasNext() ) {
             MetricsSnapshotInterface snapshot = iterator.next();
-            db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
+            loggingMetrics.add( new LoggingMetric( batchId, snapshot ) );
           }
         }
 
@@ -2637,11 +2671,23 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
             Iterator<MetricsSnapshotInterface> iterator = snapshotMap.values().iterator();
             while ( iterator.hasNext() ) {
               MetricsSnapshotInterface snapshot = iterator.next();
-              db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
+              loggingMetrics.add( new LoggingMetric( batchId, snapshot ) );
             }
           }
         }
       }
+      if ( AsyncLogTableWriter.isEnabled() ) {
+        AsyncLogTableWriter.write( createDataBase( metricsLogTable.getDatabaseMeta() ), this, logCommitSize,
+          metricsLogTable, LogStatus.START, loggingMetrics, null, log );
+        return;
+      }
+
+      db = new Database( this, metricsLogTable.getDatabaseMeta() );
+      db.shareVariablesWith( this );
+      db.connect();
+      db.setCommit( logCommitSize );
+
+      db.writeLogRecords( metricsLogTable, LogStatus.START, loggingMetrics, null );
 
       // Also time-out the log records in here...
       //
@@ -2684,7 +2730,8 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       StepMetaDataCombi sid = steps.get( i );
       StepInterface step = sid.step;
 
-      result.setNrErrors( result.getNrErrors() + sid.step.getErrors() );
+      StepStatusCounters counters = step.getStatusCounters();
+      result.setNrErrors( result.getNrErrors() + counters.getErrors() );
       result.getResultFiles().putAll( step.getResultFiles() );
 
       if ( step.isSafeStopped() ) {
@@ -2692,22 +2739,22 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       }
 
       if ( step.getStepname().equals( transLogTable.getSubjectString( TransLogTable.ID.LINES_READ ) ) ) {
-        result.setNrLinesRead( result.getNrLinesRead() + step.getLinesRead() );
+        result.setNrLinesRead( result.getNrLinesRead() + counters.getLinesRead() );
       }
       if ( step.getStepname().equals( transLogTable.getSubjectString( TransLogTable.ID.LINES_INPUT ) ) ) {
-        result.setNrLinesInput( result.getNrLinesInput() + step.getLinesInput() );
+        result.setNrLinesInput( result.getNrLinesInput() + counters.getLinesInput() );
       }
       if ( step.getStepname().equals( transLogTable.getSubjectString( TransLogTable.ID.LINES_WRITTEN ) ) ) {
-        result.setNrLinesWritten( result.getNrLinesWritten() + step.getLinesWritten() );
+        result.setNrLinesWritten( result.getNrLinesWritten() + counters.getLinesWritten() );
       }
       if ( step.getStepname().equals( transLogTable.getSubjectString( TransLogTable.ID.LINES_OUTPUT ) ) ) {
-        result.setNrLinesOutput( result.getNrLinesOutput() + step.getLinesOutput() );
+        result.setNrLinesOutput( result.getNrLinesOutput() + counters.getLinesOutput() );
       }
       if ( step.getStepname().equals( transLogTable.getSubjectString( TransLogTable.ID.LINES_UPDATED ) ) ) {
-        result.setNrLinesUpdated( result.getNrLinesUpdated() + step.getLinesUpdated() );
+        result.setNrLinesUpdated( result.getNrLinesUpdated() + counters.getLinesUpdated() );
       }
       if ( step.getStepname().equals( transLogTable.getSubjectString( TransLogTable.ID.LINES_REJECTED ) ) ) {
-        result.setNrLinesRejected( result.getNrLinesRejected() + step.getLinesRejected() );
+        result.setNrLinesRejected( result.getNrLinesRejected() + counters.getLinesRejected() );
       }
     }
 
@@ -3357,7 +3404,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     RowSet rowSet;
     switch ( transMeta.getTransformationType() ) {
       case Normal:
-        rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+        if ( transMeta.isLowLatencyStreaming() ) {
+          rowSet = new LowLatencyRowSet( getLowLatencyRowSetSize(), true );
+        } else {
+          rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+        }
         break;
       case SerialSingleThreaded:
         rowSet = new SingleRowRowSet();
@@ -3375,6 +3426,26 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return new RowProducer( stepInterface, rowSet );
   }
 
+  /**
+   * @return the size of the rowsets in low latency streaming mode, never larger than the regular rowset size
+   */
+  private int getLowLatencyRowSetSize() {
+    int size = Const.toInt( System.getProperty( Const.HOP_LOW_LATENCY_ROWSET_SIZE ), Const.LOW_LATENCY_ROWSET_SIZE );
+    return Math.max( 1, Math.min( size, transMeta.getSizeRowset() ) );
+  }
+
+  /**
+   * Gets the end-to-end latencies of the rows processed by this transformation: the time between a row entering the
+   * transformation, usually through a {@link RowProducer}, and the moment it is read by a final step (a step without
+   * output hops). The latencies are only kept when the transformation runs in low latency streaming mode.
+   *
+   * @return the latency histogram, or null if the transformation doesn't run in low latency streaming mode
+   * @see TransMeta#isLowLatencyStreaming()
+   */
+  public LatencyHistogram getEventLatencyHistogram() {
+    return eventLatencyHistogram;
+  }
+
   /**
    * Gets the parent job, or null if there is no parent.
    *
@@ -3624,6 +3695,16 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   public void setRunning( boolean running ) {
     status.updateAndGet( v -> running ? v | RUNNING.mask : ( BIT_STATUS_SUM ^ RUNNING.mask ) & v );
+    if ( running ) {
+      runningNotifier.signal();
+    }
+  }
+
+  /**
+   * @return the notifier that is signalled when the transformation starts running or is stopped
+   */
+  public RowSetNotifier getRunningNotifier() {
+    return runningNotifier;
   }
 
   /**
@@ -4688,6 +4769,9 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
   public void setStopped( boolean stopped ) {
     status.updateAndGet( v -> stopped ? v | STOPPED.mask : ( BIT_STATUS_SUM ^ STOPPED.mask ) & v );
+    if ( stopped ) {
+      runningNotifier.signal();
+    }
   }
 
   /**
@@ -52,6 +52,7 @@ import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopMissingPluginsException;
+import org.apache.hop.core.exception.HopPluginLoaderException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.exception.HopStepException;
 import org.apache.hop.core.exception.HopXMLException;
@@ -79,6 +80,8 @@ import org.apache.hop.core.util.StringUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.VariableSpace;
 import org.apache.hop.core.vfs.HopVFS;
+import org.apache.hop.core.xml.XMLDocumentCache;
+import org.apache.hop.core.xml.XMLElementStream;
 import org.apache.hop.core.xml.XMLFormatter;
 import org.apache.hop.core.xml.XMLHandler;
 import org.apache.hop.core.xml.XMLInterface;
@@ -305,6 +308,11 @@ public class TransMeta extends AbstractMeta
    */
   protected boolean usingThreadPriorityManagment;
 
+  /**
+   * Flag to indicate that the transformation is tuned for the latency of single rows instead of for throughput.
+   */
+  protected boolean lowLatencyStreaming;
+
   /**
    * The slave-step-copy/partition distribution. Only used for slave transformations in a clustering environment.
    */
@@ -754,6 +762,7 @@ public class TransMeta extends AbstractMeta
     // - re-enabling in version 3.0.1 to prevent excessive locking (PDI-491)
     //
     usingThreadPriorityManagment = true;
+    lowLatencyStreaming = false;
 
     // The performance monitoring options
     //
@@ -2391,6 +2400,7 @@ public class TransMeta extends AbstractMeta
     retval.append( "    " ).append( XMLHandler.addTagValue( "feedback_shown", feedbackShown ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "feedback_size", feedbackSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "using_thread_priorities", usingThreadPriorityManagment ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "low_latency_streaming", lowLatencyStreaming ) );
 
     // Performance monitoring
     //
@@ -2550,12 +2560,19 @@ public class TransMeta extends AbstractMeta
 
     // OK, try to load using the VFS stuff...
     Document doc = null;
+    XMLElementStream stepStream = null;
     try {
       final FileObject transFile = HopVFS.getFileObject( fname, parentVariableSpace );
       if ( !transFile.exists() ) {
         throw new HopXMLException( BaseMessages.getString( PKG, "TransMeta.Exception.InvalidXMLPath", fname ) );
       }
-      doc = XMLHandler.loadXMLFile( transFile );
+      if ( XMLElementStream.isStreamed( transFile ) ) {
+        // Large transformations are read one step at a time instead of parsing the complete file in memory
+        //
+        stepStream = new XMLElementStream( HopVFS.getInputStream( transFile ), XML_TAG, StepMeta.XML_TAG );
+      } else {
+        doc = XMLDocumentCache.getInstance().loadXMLFile( transFile );
+      }
     } catch ( HopXMLException ke ) {
       // if we have a HopXMLException, simply re-throw it
       throw ke;
@@ -2564,7 +2581,13 @@ public class TransMeta extends AbstractMeta
         PKG, "TransMeta.Exception.ErrorOpeningOrValidatingTheXMLFile", fname ), e );
     }
 
-    if ( doc != null ) {
+    if ( stepStream != null ) {
+      try {
+        loadXML( null, stepStream, fname, metaStore, setInternalVariables, parentVariableSpace );
+      } finally {
+        stepStream.close();
+      }
+    } else if ( doc != null ) {
       // Root node:
       Node transnode = XMLHandler.getSubNode( doc, XML_TAG );
 
@@ -2663,6 +2686,19 @@ public class TransMeta extends AbstractMeta
    */
   public void loadXML( Node transnode, String fname, IMetaStore metaStore, boolean setInternalVariables, VariableSpace parentVariableSpace )
     throws HopXMLException, HopMissingPluginsException {
+    loadXML( transnode, null, fname, metaStore, setInternalVariables, parentVariableSpace );
+  }
+
+  /**
+   * Parses the transformation either from a complete DOM or from a stream handing out the steps one at a time.
+   *
+   * @param transnode  The XML node to load from, null if the steps are streamed
+   * @param stepStream The stream to read the steps from, the rest of the transformation is read from its root node
+   *                   after the last step. Null to read the steps from the transformation node.
+   */
+  private void loadXML( Node transnode, XMLElementStream stepStream, String fname, IMetaStore metaStore,
+                        boolean setInternalVariables, VariableSpace parentVariableSpace )
+    throws HopXMLException, HopMissingPluginsException {
 
     HopMissingPluginsException
       missingPluginsException =
@@ -2688,6 +2724,26 @@ public class TransMeta extends AbstractMeta
         //
         setFilename( fname );
 
+        // Handle Steps
+        if ( stepStream != null ) {
+          // The rest of the transformation is only complete once the last step was read
+          //
+          int i = 0;
+          for ( Node stepnode = stepStream.nextElement(); stepnode != null; stepnode = stepStream.nextElement() ) {
+            loadStep( stepnode, i++ );
+          }
+          transnode = stepStream.getRootNode();
+        } else {
+          int s = XMLHandler.countNodes( transnode, StepMeta.XML_TAG );
+
+          if ( log.isDebug() ) {
+            log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + s + " steps..." );
+          }
+          for ( int i = 0; i < s; i++ ) {
+            loadStep( XMLHandler.getSubNodeByNr( transnode, StepMeta.XML_TAG, i ), i );
+          }
+        }
+
         // Read the notes...
         Node notepadsnode = XMLHandler.getSubNode( transnode, XML_TAG_NOTEPADS );
         int nrnotes = XMLHandler.countNodes( notepadsnode, NotePadMeta.XML_TAG );
@@ -2697,28 +2753,6 @@ public class TransMeta extends AbstractMeta
           notes.add( ni );
         }
 
-        // Handle Steps
-        int s = XMLHandler.countNodes( transnode, StepMeta.XML_TAG );
-
-        if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + s + " steps..." );
-        }
-        for ( int i = 0; i < s; i++ ) {
-          Node stepnode = XMLHandler.getSubNodeByNr( transnode, StepMeta.XML_TAG, i );
-
-          if ( log.isDebug() ) {
-            log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtStep" ) + i );
-          }
-
-          StepMeta stepMeta = new StepMeta( stepnode, metaStore );
-          stepMeta.setParentTransMeta( this ); // for tracing, retain hierarchy
-
-          if ( stepMeta.isMissing() ) {
-            addMissingTrans( (MissingTrans) stepMeta.getStepMetaInterface() );
-          }
-          addOrReplaceStep( stepMeta );
-        }
-
         // Read the error handling code of the steps...
         //
         Node errorHandlingNode = XMLHandler.getSubNode( transnode, XML_TAG_STEP_ERROR_HANDLING );
@@ -2921,6 +2955,7 @@ public class TransMeta extends AbstractMeta
         feedbackSize = Const.toInt( XMLHandler.getTagValue( infonode, "feedback_size" ), Const.ROWS_UPDATE );
         usingThreadPriorityManagment =
           !"N".equalsIgnoreCase( XMLHandler.getTagValue( infonode, "using_thread_priorities" ) );
+        lowLatencyStreaming = "Y".equalsIgnoreCase( XMLHandler.getTagValue( infonode, "low_latency_streaming" ) );
 
         // Performance monitoring for steps...
         //
@@ -2996,6 +3031,20 @@ public class TransMeta extends AbstractMeta
     }
   }
 
+  private void loadStep( Node stepnode, int nr ) throws HopXMLException, HopPluginLoaderException {
+    if ( log.isDebug() ) {
+      log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtStep" ) + nr );
+    }
+
+    StepMeta stepMeta = new StepMeta( stepnode, metaStore );
+    stepMeta.setParentTransMeta( this ); // for tracing, retain hierarchy
+
+    if ( stepMeta.isMissing() ) {
+      addMissingTrans( (MissingTrans) stepMeta.getStepMetaInterface() );
+    }
+    addOrReplaceStep( stepMeta );
+  }
+
   public byte[] getKey() {
     return keyForSessionKey;
   }
@@ -4853,6 +4902,27 @@ public class TransMeta extends AbstractMeta
     this.usingThreadPriorityManagment = usingThreadPriorityManagment;
   }
 
+  /**
+   * Checks whether the transformation runs in low latency streaming mode. In this mode the steps are connected with
+   * small rowsets that hand over every row immediately, hot hops are read with a short busy-spin before blocking and
+   * the end-to-end latency of every row is recorded.
+   *
+   * @return true if the transformation is tuned for the latency of single rows, false otherwise
+   * @see org.apache.hop.trans.Trans#getEventLatencyHistogram()
+   */
+  public boolean isLowLatencyStreaming() {
+    return lowLatencyStreaming;
+  }
+
+  /**
+   * Sets whether the transformation runs in low latency streaming mode.
+   *
+   * @param lowLatencyStreaming true if the transformation is tuned for the latency of single rows, false otherwise
+   */
+  public void setLowLatencyStreaming( boolean lowLatencyStreaming ) {
+    this.lowLatencyStreaming = lowLatencyStreaming;
+  }
+
   /**
    * Check a step to see if there are no multiple steps to read from. If so, check to see if the receiving rows are all
    * the same in layout. We only want to ONLY use the DBCache for this to prevent GUI stalls.
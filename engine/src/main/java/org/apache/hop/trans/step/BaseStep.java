@@ -29,9 +29,11 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ExtensionDataInterface;
+import org.apache.hop.core.LowLatencyRowSet;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.RowSet;
+import org.apache.hop.core.RowSetNotifier;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.exception.HopStepException;
@@ -41,6 +43,7 @@ import org.apache.hop.core.logging.LogChannelInterface;
 import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.logging.LoggingObjectInterface;
 import org.apache.hop.core.logging.LoggingObjectType;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
@@ -81,6 +84,7 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -160,63 +164,44 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private Trans trans;
 
-  private final Object statusCountersLock = new Object();
-
+  // The status counters are updated for every row by the step thread and read concurrently by the status servlets,
+  // the performance snapshots and the logging tables. Atomic longs keep these updates free of monitor entry and
+  // still hand the running value back to the steps that use it: other threads rarely update them.
+  //
   /**
    * nr of lines read from previous step(s)
-   *
-   * @deprecated use {@link #getLinesRead()}, {@link #incrementLinesRead()}, or {@link #decrementLinesRead()}
    */
-  @Deprecated
-  public long linesRead;
+  private final AtomicLong linesRead = new AtomicLong();
 
   /**
    * nr of lines written to next step(s)
-   *
-   * @deprecated use {@link #getLinesWritten()}, {@link #incrementLinesWritten()}, or {@link #decrementLinesWritten()}
    */
-  @Deprecated
-  public long linesWritten;
+  private final AtomicLong linesWritten = new AtomicLong();
 
   /**
    * nr of lines read from file or database
-   *
-   * @deprecated use {@link #getLinesInput()} or {@link #incrementLinesInput()}
    */
-  @Deprecated
-  public long linesInput;
+  private final AtomicLong linesInput = new AtomicLong();
 
   /**
    * nr of lines written to file or database
-   *
-   * @deprecated use {@link #getLinesOutput()} or {@link #incrementLinesOutput()}
    */
-  @Deprecated
-  public long linesOutput;
+  private final AtomicLong linesOutput = new AtomicLong();
 
   /**
    * nr of updates in a database table or file
-   *
-   * @deprecated use {@link #getLinesUpdated()} or {@link #incrementLinesUpdated()}
    */
-  @Deprecated
-  public long linesUpdated;
+  private final AtomicLong linesUpdated = new AtomicLong();
 
   /**
    * nr of lines skipped
-   *
-   * @deprecated use {@link #getLinesSkipped()} or {@link #incrementLinesSkipped()}
    */
-  @Deprecated
-  public long linesSkipped;
+  private final AtomicLong linesSkipped = new AtomicLong();
 
   /**
-   * total sleep time in ns caused by an empty input buffer (previous step is slow)
-   *
-   * @deprecated use {@link #getLinesRejected()} or {@link #incrementLinesRejected()}
+   * nr of lines rejected to an error handling step
    */
-  @Deprecated
-  public long linesRejected;
+  private final AtomicLong linesRejected = new AtomicLong();
 
   private boolean distributed;
 
@@ -239,6 +224,36 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private final ReentrantReadWriteLock inputRowSetsLock = new ReentrantReadWriteLock();
 
+  /**
+   * Signalled by the input rowsets when rows arrive or when they are done, and by this step when it is stopped, paused
+   * or resumed.
+   */
+  private final RowSetNotifier inputNotifier = new RowSetNotifier();
+
+  /**
+   * The maximum time in ms to wait for a signal of the input rowsets before checking them again
+   */
+  private final int rowSetGetTimeout =
+    Const.toInt( System.getProperty( Const.HOP_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+
+  /**
+   * The maximum number of times to check for a signal of the input rowsets before blocking in low latency streaming
+   * mode
+   */
+  private static final int MAX_INPUT_SPINS = 2000;
+
+  /**
+   * The minimum number of times to check for a signal of the input rowsets before blocking in low latency streaming
+   * mode
+   */
+  private static final int MIN_INPUT_SPINS = 50;
+
+  /**
+   * The number of times to check for input before blocking: reset to the maximum when input arrived while spinning (a
+   * hot hop), halved every time it didn't.
+   */
+  private int inputSpins = MAX_INPUT_SPINS;
+
   /**
    * the rowsets on the output, size() == nr of target steps
    */
@@ -370,6 +385,12 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private static int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /**
+   * The default maximum number of rows for steps that process their rows in batches, see {@link #getRows(int)} and
+   * {@link #putRows(RowMetaInterface, Object[][], int)}
+   */
+  protected static final int ROW_BATCH_SIZE = 100;
+
   private int blockPointer;
 
   /**
@@ -478,16 +499,6 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     init = false;
 
-    synchronized ( statusCountersLock ) {
-      linesRead = 0L; // new AtomicLong(0L); // Keep some statistics!
-      linesWritten = 0L; // new AtomicLong(0L);
-      linesUpdated = 0L; // new AtomicLong(0L);
-      linesSkipped = 0L; // new AtomicLong(0L);
-      linesRejected = 0L; // new AtomicLong(0L);
-      linesInput = 0L; // new AtomicLong(0L);
-      linesOutput = 0L; // new AtomicLong(0L);
-    }
-
     inputRowSets = null;
     outputRowSets = null;
     nextSteps = null;
@@ -899,14 +910,26 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     errors = e;
   }
 
+  /**
+   * Take a snapshot of the status counters of this step. The values are read once, so all the users of the snapshot
+   * see the same numbers while the step keeps on counting. The counters are read one after the other, not under a
+   * common lock: a snapshot taken while rows flow can be a few rows apart between two counters, lines read ahead of
+   * lines written for example. A consistent snapshot would make every row pay for a lock or a sequence update again.
+   *
+   * @return the current values of the status counters
+   */
+  @Override
+  public StepStatusCounters getStatusCounters() {
+    return new StepStatusCounters( getLinesRead(), getLinesWritten(), getLinesInput(), getLinesOutput(),
+      getLinesUpdated(), getLinesRejected(), getLinesSkipped(), getErrors() );
+  }
+
   /**
    * @return Returns the number of lines read from previous steps
    */
   @Override
   public long getLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return linesRead;
-    }
+    return linesRead.get();
   }
 
   /**
@@ -915,9 +938,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRead;
-    }
+    return linesRead.incrementAndGet();
   }
 
   /**
@@ -926,18 +947,18 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return --linesRead;
-    }
+    return linesRead.decrementAndGet();
   }
 
   /**
    * @param newLinesReadValue the new number of lines read from previous steps
    */
   public void setLinesRead( long newLinesReadValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRead = newLinesReadValue;
-    }
+    linesRead.set( newLinesReadValue );
+  }
+
+  private void addLinesRead( long nrLines ) {
+    linesRead.addAndGet( nrLines );
   }
 
   /**
@@ -945,9 +966,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return linesInput;
-    }
+    return linesInput.get();
   }
 
   /**
@@ -956,18 +975,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesInput;
-    }
+    return linesInput.incrementAndGet();
   }
 
   /**
    * @param newLinesInputValue the new number of lines read from an input source: database, file, socket, etc.
    */
   public void setLinesInput( long newLinesInputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesInput = newLinesInputValue;
-    }
+    linesInput.set( newLinesInputValue );
   }
 
   /**
@@ -975,9 +990,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return linesOutput;
-    }
+    return linesOutput.get();
   }
 
   /**
@@ -986,18 +999,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesOutput;
-    }
+    return linesOutput.incrementAndGet();
   }
 
   /**
    * @param newLinesOutputValue the new number of lines written to an output target: database, file, socket, etc.
    */
   public void setLinesOutput( long newLinesOutputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutput.set( newLinesOutputValue );
   }
 
   /**
@@ -1005,9 +1014,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return linesWritten;
-    }
+    return linesWritten.get();
   }
 
   /**
@@ -1016,9 +1023,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return ++linesWritten;
-    }
+    return linesWritten.incrementAndGet();
   }
 
   /**
@@ -1027,18 +1032,18 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return --linesWritten;
-    }
+    return linesWritten.decrementAndGet();
+  }
+
+  private void addLinesWritten( long nrLines ) {
+    linesWritten.addAndGet( nrLines );
   }
 
   /**
    * @param newLinesWrittenValue the new number of lines written to next steps
    */
   public void setLinesWritten( long newLinesWrittenValue ) {
-    synchronized ( statusCountersLock ) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWritten.set( newLinesWrittenValue );
   }
 
   /**
@@ -1046,9 +1051,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return linesUpdated;
-    }
+    return linesUpdated.get();
   }
 
   /**
@@ -1057,18 +1060,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return ++linesUpdated;
-    }
+    return linesUpdated.incrementAndGet();
   }
 
   /**
    * @param newLinesUpdatedValue the new number of lines updated in an output target: database, file, socket, etc.
    */
   public void setLinesUpdated( long newLinesUpdatedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdated.set( newLinesUpdatedValue );
   }
 
   /**
@@ -1076,9 +1075,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return linesRejected;
-    }
+    return linesRejected.get();
   }
 
   /**
@@ -1087,9 +1084,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRejected;
-    }
+    return linesRejected.incrementAndGet();
   }
 
   /**
@@ -1097,18 +1092,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void setLinesRejected( long newLinesRejectedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejected.set( newLinesRejectedValue );
   }
 
   /**
    * @return the number of lines skipped
    */
   public long getLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return linesSkipped;
-    }
+    return linesSkipped.get();
   }
 
   /**
@@ -1117,18 +1108,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return ++linesSkipped;
-    }
+    return linesSkipped.incrementAndGet();
   }
 
   /**
    * @param newLinesSkippedValue lines number of lines skipped
    */
   public void setLinesSkipped( long newLinesSkippedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkipped.set( newLinesSkippedValue );
   }
 
   /*
@@ -1244,6 +1231,30 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void putRow( RowMetaInterface rowMeta, Object[] row ) throws HopStepException {
+    verifyOutputRowMeta( rowMeta );
+    getRowHandler().putRow( rowMeta, row );
+  }
+
+  /**
+   * putRows is used to copy a batch of rows to the output rowset(s). It does the same as calling
+   * {@link #putRow(RowMetaInterface, Object[])} for every row, but the checks and the bookkeeping of the step are done
+   * once for the whole batch. When distributing rows round robin, the rows still go to the target rowsets one by one
+   * in turn, the rows for every target rowset are handed over together.
+   *
+   * @param rowMeta The row metadata of all the rows in the batch
+   * @param rows    The rows to put to the destination rowset(s).
+   * @param nrRows  The number of rows in the batch, starting at index 0
+   * @throws HopStepException
+   */
+  public void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws HopStepException {
+    if ( nrRows <= 0 ) {
+      return;
+    }
+    verifyOutputRowMeta( rowMeta );
+    getRowHandler().putRows( rowMeta, rows, nrRows );
+  }
+
+  private void verifyOutputRowMeta( RowMetaInterface rowMeta ) throws HopStepException {
     if ( rowMeta != null ) {
       if ( !allowEmptyFieldNamesAndTypes ) {
         // check row meta for empty field name (BACKLOG-18004)
@@ -1257,19 +1268,12 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         }
       }
     }
-    getRowHandler().putRow( rowMeta, row );
   }
 
   private void handlePutRow( RowMetaInterface rowMeta, Object[] row ) throws HopStepException {
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 1 );
-      } catch ( InterruptedException e ) {
-        throw new HopStepException( e );
-      }
-    }
+    waitWhilePaused();
 
     // Right after the pause loop we have to check if this thread is stopped or
     // not.
@@ -1283,19 +1287,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
 
     // Have all threads started?
-    // Are we running yet? If not, wait a bit until all threads have been
-    // started.
+    // Are we running yet? If not, wait until all threads have been started.
     //
-    if ( this.checkTransRunning == false ) {
-      while ( !trans.isRunning() && !stopped.get() ) {
-        try {
-          Thread.sleep( 1 );
-        } catch ( InterruptedException e ) {
-          // Ignore
-        }
-      }
-      this.checkTransRunning = true;
-    }
+    waitUntilTransformationIsStarted();
 
     // call all row listeners...
     //
@@ -1347,6 +1341,135 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
   }
 
+  private void handlePutRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws HopStepException {
+    // Are we pausing the step? If so, stall forever...
+    //
+    waitWhilePaused();
+
+    if ( stopped.get() && !safeStopped.get() ) {
+      if ( log.isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "BaseStep.Log.StopPuttingARow" ) );
+      }
+      stopAll();
+      return;
+    }
+
+    waitUntilTransformationIsStarted();
+
+    // call all row listeners...
+    //
+    if ( !rowListeners.isEmpty() ) {
+      for ( int i = 0; i < nrRows; i++ ) {
+        for ( RowListener listener : rowListeners ) {
+          listener.rowWrittenEvent( rowMeta, rows[ i ] );
+        }
+      }
+    }
+
+    // Keep adding to terminator_rows buffer...
+    //
+    if ( terminator && terminator_rows != null ) {
+      try {
+        for ( int i = 0; i < nrRows; i++ ) {
+          terminator_rows.add( rowMeta.cloneRow( rows[ i ] ) );
+        }
+      } catch ( HopValueException e ) {
+        throw new HopStepException( "Unable to clone row while adding rows to the terminator rows.", e );
+      }
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if ( outputRowSets.isEmpty() ) {
+        // No more output rowsets!
+        // Still update the nr of lines written.
+        //
+        addLinesWritten( nrRows );
+        return;
+      }
+
+      if ( repartitioning != StepPartitioningMeta.PARTITIONING_METHOD_NONE || ( distributed && rowDistribution != null ) ) {
+        // The rows can end up in different rowsets: hand them over one by one
+        //
+        for ( int i = 0; i < nrRows; i++ ) {
+          switch ( repartitioning ) {
+            case StepPartitioningMeta.PARTITIONING_METHOD_NONE:
+              noPartitioning( rowMeta, rows[ i ] );
+              break;
+            case StepPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
+              specialPartitioning( rowMeta, rows[ i ] );
+              break;
+            case StepPartitioningMeta.PARTITIONING_METHOD_MIRROR:
+              mirrorPartitioning( rowMeta, rows[ i ] );
+              break;
+            default:
+              throw new HopStepException( "Internal error: invalid repartitioning type: " + repartitioning );
+          }
+        }
+      } else if ( distributed ) {
+        // ROUND ROBIN DISTRIBUTION: every row goes to the "next" output rowset, like with putRow.
+        // The rows that end up in the same rowset are handed over together.
+        //
+        int nrRowSets = outputRowSets.size();
+        if ( nrRowSets == 1 ) {
+          putRowsToRowSet( outputRowSets.get( 0 ), rowMeta, rows, nrRows );
+        } else {
+          Object[][] targetRows = new Object[ ( nrRows + nrRowSets - 1 ) / nrRowSets ][];
+          for ( int r = 0; r < nrRowSets && r < nrRows; r++ ) {
+            int nrTargetRows = 0;
+            for ( int i = r; i < nrRows; i += nrRowSets ) {
+              targetRows[ nrTargetRows++ ] = rows[ i ];
+            }
+            RowSet rs = outputRowSets.get( ( currentOutputRowSetNr + r ) % nrRowSets );
+            putRowsToRowSet( rs, rowMeta, targetRows, nrTargetRows );
+          }
+          currentOutputRowSetNr = ( currentOutputRowSetNr + nrRows ) % nrRowSets;
+        }
+        addLinesWritten( nrRows );
+      } else {
+        // Copy the rows to all output rowsets, the other rowsets get clones of the rows
+        //
+        for ( int r = 1; r < outputRowSets.size(); r++ ) { // start at 1
+          Object[][] clones = new Object[ nrRows ][];
+          try {
+            for ( int i = 0; i < nrRows; i++ ) {
+              clones[ i ] = rowMeta.cloneRow( rows[ i ] );
+            }
+          } catch ( HopValueException e ) {
+            throw new HopStepException( "Unable to clone row while copying rows to multiple target steps", e );
+          }
+          putRowsToRowSet( outputRowSets.get( r ), rowMeta, clones, nrRows );
+          addLinesWritten( nrRows );
+        }
+
+        putRowsToRowSet( outputRowSets.get( 0 ), rowMeta, rows, nrRows );
+        addLinesWritten( nrRows );
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  private void putRowsToRowSet( RowSet rs, RowMetaInterface rowMeta, Object[][] rows, int nrRows ) {
+    RowMetaInterface toBeSent;
+    RowMetaInterface metaFromRs = rs.getRowMeta();
+    if ( metaFromRs == null ) {
+      // RowSet is not initialised so far
+      toBeSent = rowMeta.clone();
+    } else {
+      // use the existing
+      toBeSent = metaFromRs;
+    }
+
+    int nrPut = 0;
+    while ( nrPut < nrRows ) {
+      nrPut += rs.putRowsWait( toBeSent, rows, nrPut, nrRows - nrPut, Const.TIMEOUT_PUT_MILLIS, TimeUnit.MILLISECONDS );
+      if ( nrPut < nrRows && isStopped() && !safeStopped.get() ) {
+        return;
+      }
+    }
+  }
+
   /**
    * Copy always to all target steps/copies
    */
@@ -1517,11 +1640,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // the buffer to grow to its full capacity.
         //
         if ( isUsingThreadPriorityManagment() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
-          try {
-            Thread.sleep( 0, 1 );
-          } catch ( InterruptedException e ) {
-            // Ignore sleep interruption exception
-          }
+          Thread.yield();
         }
 
         // Loop until we find room in the target rowset
@@ -1553,11 +1672,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // the buffer to grow to its full capacity.
         //
         if ( isUsingThreadPriorityManagment() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
-          try {
-            Thread.sleep( 0, 1 );
-          } catch ( InterruptedException e ) {
-            // Ignore sleep interruption exception
-          }
+          Thread.yield();
         }
 
         try {
@@ -1612,13 +1727,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 1 );
-      } catch ( InterruptedException e ) {
-        throw new HopStepException( e );
-      }
-    }
+    waitWhilePaused();
 
     // call all row listeners...
     //
@@ -1792,21 +1901,125 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   protected void waitUntilTransformationIsStarted() {
     // Have all threads started?
-    // Are we running yet? If not, wait a bit until all threads have been
-    // started.
+    // Are we running yet? If not, wait until the transformation signals that it runs or is stopped. Stopping this
+    // step signals its own notifier, the timeout covers a transformation without a notifier.
     //
     if ( this.checkTransRunning == false ) {
+      RowSetNotifier notifier = trans.getRunningNotifier();
+      if ( notifier == null ) {
+        notifier = inputNotifier;
+      }
       while ( !trans.isRunning() && !stopped.get() ) {
+        long signalVersion = notifier.getVersion();
+        if ( trans.isRunning() || stopped.get() ) {
+          break;
+        }
         try {
-          Thread.sleep( 1 );
+          notifier.await( signalVersion, 100, TimeUnit.MILLISECONDS );
         } catch ( InterruptedException e ) {
-          // Ignore sleep interruption exception
+          // Ignore the interruption, as the polling loop did
         }
       }
       this.checkTransRunning = true;
     }
   }
 
+  /**
+   * Wait as long as this step is paused and not stopped. Resuming or stopping the step wakes it up immediately.
+   *
+   * @throws HopStepException in case the thread is interrupted while waiting
+   */
+  private void waitWhilePaused() throws HopStepException {
+    while ( paused.get() && !stopped.get() ) {
+      long signalVersion = inputNotifier.getVersion();
+      if ( !paused.get() || stopped.get() ) {
+        break;
+      }
+      try {
+        inputNotifier.await( signalVersion, 100, TimeUnit.MILLISECONDS );
+      } catch ( InterruptedException e ) {
+        throw new HopStepException( e );
+      }
+    }
+  }
+
+  /**
+   * Busy-spin for a little while on the notifier of the input rowsets. On a hot hop the next row usually arrives before
+   * the spin ends, which saves a park and wake-up of this thread. The spin gets shorter every time it's in vain.
+   *
+   * @param signalVersion the version of the notifier read before the input rowsets were checked
+   * @return true if a signal arrived while spinning
+   */
+  private boolean spinForInput( long signalVersion ) {
+    for ( int i = 0; i < inputSpins; i++ ) {
+      if ( inputNotifier.getVersion() != signalVersion ) {
+        inputSpins = MAX_INPUT_SPINS;
+        return true;
+      }
+      if ( ( i & 0xff ) == 0xff ) {
+        Thread.yield();
+      }
+    }
+    inputSpins = Math.max( MIN_INPUT_SPINS, inputSpins / 2 );
+    return false;
+  }
+
+  /**
+   * In low latency streaming mode, a final step (without output rowsets) records how long ago the row it just read
+   * entered the transformation.
+   */
+  private void recordEventLatency() {
+    if ( !outputRowSets.isEmpty() || !transMeta.isLowLatencyStreaming() ) {
+      return;
+    }
+    LatencyHistogram histogram = trans.getEventLatencyHistogram();
+    long originNanos = LowLatencyRowSet.getOriginNanos();
+    if ( histogram != null && originNanos != 0L ) {
+      histogram.record( System.nanoTime() - originNanos );
+    }
+  }
+
+  /**
+   * Wait until one of the input rowsets signals new rows or that it is done, or until this step is stopped. The
+   * notifier of this step is attached to the input rowsets the first time we need to wait on them. The caller holds the
+   * read lock of the input rowsets, it is released while we wait so that rowsets can be added or removed meanwhile.
+   *
+   * @param signalVersion the version of the notifier read before the input rowsets were checked
+   * @throws HopStepException in case the thread is interrupted while waiting
+   */
+  private void awaitInput( long signalVersion ) throws HopStepException {
+    boolean attached = false;
+    boolean signalling = true;
+    for ( RowSet rowSet : inputRowSets ) {
+      if ( rowSet.getConsumerNotifier() != inputNotifier ) {
+        rowSet.setConsumerNotifier( inputNotifier );
+        if ( rowSet.getConsumerNotifier() == inputNotifier ) {
+          attached = true;
+        } else {
+          signalling = false;
+        }
+      }
+    }
+    if ( attached ) {
+      // Rows put before the notifier was attached didn't signal: look at the rowsets again first.
+      //
+      return;
+    }
+    inputRowSetsLock.readLock().unlock();
+    try {
+      if ( signalling && transMeta.isLowLatencyStreaming() && spinForInput( signalVersion ) ) {
+        return;
+      }
+      // Rowsets that can't signal are polled, the timeout covers the rest.
+      //
+      inputNotifier.await( signalVersion, signalling ? rowSetGetTimeout : 1, TimeUnit.MILLISECONDS );
+    } catch ( InterruptedException e ) {
+      throw new HopStepException( e );
+    } finally {
+      inputRowSetsLock.readLock().lock();
+    }
+  }
+
 
   /**
    * In case of getRow, we receive data from previous steps through the input rowset. In case we split the stream, we
@@ -1818,18 +2031,70 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   }
 
 
-  private Object[] handleGetRow() throws HopException {
+  /**
+   * Get a batch of rows from the input rowset(s). This blocks until at least one row is available, just like
+   * {@link #getRow()}. On top of that row it adds the rows that are immediately available in the same input rowset,
+   * up to the given maximum, without waiting for more rows to arrive. The checks and the bookkeeping of the step are
+   * done once for the whole batch.
+   *
+   * @param max the maximum number of rows to return
+   * @return the rows read, all with the same row metadata (see {@link #getInputRowMeta()}), or null if there are no
+   * more rows to be had.
+   * @throws HopException
+   */
+  public Object[][] getRows( int max ) throws HopException {
+    return getRowHandler().getRows( max );
+  }
 
-    // Are we pausing the step? If so, stall forever...
+  private Object[][] handleGetRows( int max ) throws HopException {
+    Object[] first = getRow();
+    if ( first == null ) {
+      return null;
+    }
+
+    Object[][] rows = new Object[ Math.max( 1, max ) ][];
+    rows[ 0 ] = first;
+    int nrRows = 1;
+
+    // Don't read beyond the current block, so that the other input rowsets keep their turn
     //
-    while ( paused.get() && !stopped.get() ) {
+    int nrExtra = Math.min( rows.length - 1, NR_OF_ROWS_IN_BLOCK - blockPointer );
+    if ( nrExtra > 0 ) {
+      // Take what is already waiting in the rowset that delivered the first row
+      //
+      inputRowSetsLock.readLock().lock();
       try {
-        Thread.sleep( 100 );
-      } catch ( InterruptedException e ) {
-        throw new HopStepException( e );
+        if ( !inputRowSets.isEmpty() && !stopped.get() ) {
+          RowSet inputRowSet = currentInputStream();
+          if ( inputRowSet.getRowMeta() == inputRowMeta || prevSteps.length <= 1 ) {
+            nrRows += inputRowSet.getRowsImmediate( rows, 1, nrExtra );
+          }
+        }
+      } finally {
+        inputRowSetsLock.readLock().unlock();
+      }
+
+      if ( nrRows > 1 ) {
+        addLinesRead( nrRows - 1 );
+        blockPointer += nrRows - 1;
+
+        for ( int i = 1; i < nrRows; i++ ) {
+          for ( RowListener listener : rowListeners ) {
+            listener.rowReadEvent( inputRowMeta, rows[ i ] );
+          }
+        }
       }
     }
 
+    return nrRows == rows.length ? rows : Arrays.copyOf( rows, nrRows );
+  }
+
+  private Object[] handleGetRow() throws HopException {
+
+    // Are we pausing the step? If so, stall forever...
+    //
+    waitWhilePaused();
+
     if ( stopped.get() ) {
       if ( log.isDebug() ) {
         logDebug( BaseMessages.getString( PKG, "BaseStep.Log.StopLookingForMoreRows" ) );
@@ -1848,6 +2113,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     RowSet inputRowSet = null;
     Object[] row = null;
+    boolean rowFromGetRowFrom = false;
 
     inputRowSetsLock.readLock().lock();
     try {
@@ -1884,11 +2150,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       //
       if ( isUsingThreadPriorityManagment()
         && !inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped() ) {
-        try {
-          Thread.sleep( 0, 1 );
-        } catch ( InterruptedException e ) {
-          // Ignore sleep interruption exception
-        }
+        Thread.yield();
       }
 
       // See if this step is receiving partitioned data...
@@ -1903,12 +2165,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       // rowset, then switch to another etc.
       // We can use timeouts to switch from one to another...
       //
+      long signalVersion = 0L;
+      int nrEmptyRowSets = 0;
       while ( row == null && !isStopped() ) {
+        // Remember where the notifications are at when we start a round over the input row sets.
+        // Anything put after this point wakes us up again.
+        //
+        if ( nrEmptyRowSets == 0 ) {
+          signalVersion = inputNotifier.getVersion();
+        }
+
         // Get a row from the input in row set ...
-        // Timeout immediately if nothing is there to read.
+        // Don't wait if nothing is there to read.
         // We will then switch to the next row set to read from...
         //
-        row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+        row = inputRowSet.getRowImmediate();
         if ( row != null ) {
           incrementLinesRead();
           blockPointer++;
@@ -1919,7 +2190,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
           // the input stream and move on to the next one...
           //
           if ( inputRowSet.isDone() ) {
-            row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+            nrEmptyRowSets = 0;
+            row = inputRowSet.getRowImmediate();
             if ( row == null ) {
 
               // Must release the read lock before acquisition of the write lock to prevent deadlocks.
@@ -1943,6 +2215,15 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
             } else {
               incrementLinesRead();
             }
+          } else if ( ++nrEmptyRowSets >= inputRowSets.size() ) {
+            // All input row sets are empty: wait until a previous step puts a row or finishes,
+            // or until this step is stopped.
+            //
+            awaitInput( signalVersion );
+            nrEmptyRowSets = 0;
+            if ( inputRowSets.isEmpty() ) {
+              return null; // The input rowsets were removed while we waited.
+            }
           }
           nextInputStream();
           inputRowSet = currentInputStream();
@@ -1964,6 +2245,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         nextInputStream();
         inputRowSet = currentInputStream();
         row = getRowFrom( inputRowSet );
+        rowFromGetRowFrom = true;
       }
     } finally {
       inputRowSetsLock.readLock().unlock();
@@ -1983,6 +2265,10 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         transMeta.checkRowMixingStatically( stepMeta, null );
       }
 
+      if ( !rowFromGetRowFrom ) {
+        recordEventLatency();
+      }
+
       for ( RowListener listener : rowListeners ) {
         listener.rowReadEvent( inputRowMeta, row );
       }
@@ -2208,27 +2494,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public Object[] handleGetRowFrom( RowSet rowSet ) throws HopStepException {
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 10 );
-      } catch ( InterruptedException e ) {
-        throw new HopStepException( e );
-      }
-    }
+    waitWhilePaused();
 
     // Have all threads started?
-    // Are we running yet? If not, wait a bit until all threads have been
-    // started.
-    if ( this.checkTransRunning == false ) {
-      while ( !trans.isRunning() && !stopped.get() ) {
-        try {
-          Thread.sleep( 1 );
-        } catch ( InterruptedException e ) {
-          // Ignore sleep interruption exception
-        }
-      }
-      this.checkTransRunning = true;
-    }
+    // Are we running yet? If not, wait until all threads have been started.
+    //
+    waitUntilTransformationIsStarted();
+
     Object[] rowData = null;
 
     // To reduce stress on the locking system we are going to allow
@@ -2237,25 +2509,29 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     if ( isUsingThreadPriorityManagment()
       && !rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped() ) {
-      try {
-        Thread.sleep( 0, 1 );
-      } catch ( InterruptedException e ) {
-        // Ignore sleep interruption exception
-      }
+      Thread.yield();
     }
 
-    // Grab a row... If nothing received after a timeout, try again.
+    // Grab a row... If nothing is there, wait until the rowset signals new rows or that it's done.
     //
-    rowData = rowSet.getRow();
+    rowData = rowSet.getRowImmediate();
     while ( rowData == null && !rowSet.isDone() && !stopped.get() ) {
-      rowData = rowSet.getRow();
-
-      // Verify deadlocks!
-      //
-      /*
-       * if (rowData==null) { if (getInputRowSets().size()>1 && getLinesRead()==deadLockCounter) {
-       * verifyInputDeadLock(); } deadLockCounter=getLinesRead(); }
-       */
+      long signalVersion = inputNotifier.getVersion();
+      rowData = rowSet.getRowImmediate();
+      if ( rowData == null && !rowSet.isDone() && !stopped.get() ) {
+        if ( rowSet.getConsumerNotifier() != inputNotifier ) {
+          rowSet.setConsumerNotifier( inputNotifier );
+          if ( rowSet.getConsumerNotifier() == inputNotifier ) {
+            continue;
+          }
+        }
+        try {
+          inputNotifier.await( signalVersion,
+            rowSet.getConsumerNotifier() == inputNotifier ? rowSetGetTimeout : 1, TimeUnit.MILLISECONDS );
+        } catch ( InterruptedException e ) {
+          throw new HopStepException( e );
+        }
+      }
     }
 
     // Still nothing: no more rows to be had?
@@ -2309,6 +2585,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       }
     }
     incrementLinesRead();
+    recordEventLatency();
 
     // call all rowlisteners...
     //
@@ -2997,6 +3274,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   @Override
   public void stopAll() {
     stopped.set( true );
+    inputNotifier.signal();
     trans.stopAll();
   }
 
@@ -3038,11 +3316,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   @Override
   public void setStopped( boolean stopped ) {
     this.stopped.set( stopped );
+    inputNotifier.signal();
   }
 
   @Override
   public void setSafeStopped( boolean stopped ) {
     this.safeStopped.set( stopped );
+    inputNotifier.signal();
   }
 
   @Override
@@ -3087,6 +3367,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   public void setPaused( boolean paused ) {
     this.paused.set( paused );
+    inputNotifier.signal();
   }
 
   /**
@@ -3096,6 +3377,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   public void setPaused( AtomicBoolean paused ) {
     this.paused = paused;
+    inputNotifier.signal();
   }
 
   /**
@@ -3376,22 +3658,22 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * Log summary.
    */
   public void logSummary() {
-    synchronized ( statusCountersLock ) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
-        logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      } else {
-        logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      }
+    StepStatusCounters counters = getStatusCounters();
+    long li = counters.getLinesInput();
+    long lo = counters.getLinesOutput();
+    long lr = counters.getLinesRead();
+    long lw = counters.getLinesWritten();
+    long lu = counters.getLinesUpdated();
+    long lj = counters.getLinesRejected();
+    long le = counters.getErrors();
+    if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || le > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( le + lj ) ) );
+    } else {
+      logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( le + lj ) ) );
     }
   }
 
@@ -4336,6 +4618,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       handlePutRow( rowMeta, row );
     }
 
+    @Override public Object[][] getRows( int max ) throws HopException {
+      return handleGetRows( max );
+    }
+
+    @Override public void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws HopStepException {
+      handlePutRows( rowMeta, rows, nrRows );
+    }
+
     @Override public void putError( RowMetaInterface rowMeta, Object[] row, long nrErrors, String errorDescriptions,
                                     String fieldNames, String errorCodes ) throws HopStepException {
       handlePutError( rowMeta, row, nrErrors, errorDescriptions, fieldNames, errorCodes );
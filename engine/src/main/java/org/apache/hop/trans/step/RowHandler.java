@@ -59,6 +59,27 @@ public interface RowHandler {
         this.getClass().getName() ) );
   }
 
+  /**
+   * Get a batch of at most max rows, or null if there are no more rows. By default this returns a batch holding the
+   * single row from {@link #getRow()}.
+   */
+  default Object[][] getRows( int max ) throws HopException {
+    Object[] row = getRow();
+    if ( row == null ) {
+      return null;
+    }
+    return new Object[][] { row };
+  }
+
+  /**
+   * Put a batch of rows. By default this calls {@link #putRow(RowMetaInterface, Object[])} for every row.
+   */
+  default void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws HopStepException {
+    for ( int i = 0; i < nrRows; i++ ) {
+      putRow( rowMeta, rows[ i ] );
+    }
+  }
+
   default Object[] getRowFrom( RowSet rowSet ) throws HopStepException {
     throw new UnsupportedOperationException(
       BaseMessages.getString( PKG, "BaseStep.RowHandler.GetRowFromNotSupported",
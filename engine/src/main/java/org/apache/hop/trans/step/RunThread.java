@@ -99,13 +99,14 @@ public class RunThread implements Runnable {
       step.dispose( meta, data );
       step.getLogChannel().snap( Metrics.METRIC_STEP_EXECUTION_STOP );
       try {
-        long li = step.getLinesInput();
-        long lo = step.getLinesOutput();
-        long lr = step.getLinesRead();
-        long lw = step.getLinesWritten();
-        long lu = step.getLinesUpdated();
-        long lj = step.getLinesRejected();
-        long e = step.getErrors();
+        StepStatusCounters counters = step.getStatusCounters();
+        long li = counters.getLinesInput();
+        long lo = counters.getLinesOutput();
+        long lr = counters.getLinesRead();
+        long lw = counters.getLinesWritten();
+        long lu = counters.getLinesUpdated();
+        long lj = counters.getLinesRejected();
+        long e = counters.getErrors();
         if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || e > 0 ) {
           log.logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ),
             String.valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ),
@@ -229,6 +229,14 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
    */
   public long getLinesRejected();
 
+  /**
+   * @return a snapshot of the status counters of this step, read in one go.
+   */
+  default StepStatusCounters getStatusCounters() {
+    return new StepStatusCounters( getLinesRead(), getLinesWritten(), getLinesInput(), getLinesOutput(),
+      getLinesUpdated(), getLinesRejected(), 0L, getErrors() );
+  }
+
   /**
    * Put a row on the destination rowsets.
    *
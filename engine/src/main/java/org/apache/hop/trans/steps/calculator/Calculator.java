@@ -72,8 +72,8 @@ public class Calculator extends BaseStep implements StepInterface {
     meta = (CalculatorMeta) smi;
     data = (CalculatorData) sdi;
 
-    Object[] r = getRow(); // get row, set busy!
-    if ( r == null ) { // no more input to be expected...
+    Object[][] rows = getRows( ROW_BATCH_SIZE ); // get rows, set busy!
+    if ( rows == null ) { // no more input to be expected...
       setOutputDone();
       data.clearValuesMetaMapping();
       return false;
@@ -155,29 +155,43 @@ public class Calculator extends BaseStep implements StepInterface {
       }
     }
 
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString( PKG, "Calculator.Log.ReadRow" )
-        + getLinesRead() + " : " + getInputRowMeta().getString( r ) );
-    }
+    Object[][] outputRows = new Object[ rows.length ][];
+    int nrOutputRows = 0;
 
     try {
-      Object[] row = calcFields( getInputRowMeta(), r );
-      putRow( data.getOutputRowMeta(), row ); // copy row to possible alternate rowset(s).
+      for ( Object[] r : rows ) {
+        if ( log.isRowLevel() ) {
+          logRowlevel( BaseMessages.getString( PKG, "Calculator.Log.ReadRow" )
+            + getLinesRead() + " : " + getInputRowMeta().getString( r ) );
+        }
+
+        try {
+          Object[] row = calcFields( getInputRowMeta(), r );
+          outputRows[ nrOutputRows++ ] = row;
 
-      if ( log.isRowLevel() ) {
-        logRowlevel( "Wrote row #" + getLinesWritten() + " : " + getInputRowMeta().getString( r ) );
+          if ( log.isRowLevel() ) {
+            logRowlevel( "Wrote row #" + ( getLinesWritten() + nrOutputRows ) + " : "
+              + getInputRowMeta().getString( r ) );
+          }
+        } catch ( HopFileNotFoundException e ) {
+          if ( meta.isFailIfNoFile() ) {
+            // The rows calculated before this one still go out
+            //
+            putRows( data.getOutputRowMeta(), outputRows, nrOutputRows );
+            logError( BaseMessages.getString( PKG, "Calculator.Log.NoFile" ) + " : " + e.getFilepath() );
+            setErrors( getErrors() + 1 );
+            return false;
+          }
+        }
       }
+
+      putRows( data.getOutputRowMeta(), outputRows, nrOutputRows ); // copy rows to possible alternate rowset(s).
+
       if ( checkFeedback( getLinesRead() ) ) {
         if ( log.isBasic() ) {
           logBasic( BaseMessages.getString( PKG, "Calculator.Log.Linenr", "" + getLinesRead() ) );
         }
       }
-    } catch ( HopFileNotFoundException e ) {
-      if ( meta.isFailIfNoFile() ) {
-        logError( BaseMessages.getString( PKG, "Calculator.Log.NoFile" ) + " : " + e.getFilepath() );
-        setErrors( getErrors() + 1 );
-        return false;
-      }
     } catch ( HopException e ) {
       logError( BaseMessages.getString( PKG, "Calculator.ErrorInStepRunning" + " : " + e.getMessage() ) );
       throw new HopStepException( BaseMessages.getString( PKG, "Calculator.ErrorInStepRunning" ), e );
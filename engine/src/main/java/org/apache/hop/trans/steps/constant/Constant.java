@@ -220,10 +220,9 @@ public class Constant extends BaseStep implements StepInterface {
 
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws HopException {
-    Object[] r = null;
-    r = getRow();
+    Object[][] rows = getRows( ROW_BATCH_SIZE );
 
-    if ( r == null ) { // no more rows to be expected from the previous step(s)
+    if ( rows == null ) { // no more rows to be expected from the previous step(s)
       setOutputDone();
       return false;
     }
@@ -237,14 +236,19 @@ public class Constant extends BaseStep implements StepInterface {
       meta.getFields( data.outputMeta, getStepname(), null, null, this, metaStore );
     }
 
-    // Add the constant data to the end of the row.
-    r = RowDataUtil.addRowData( r, getInputRowMeta().size(), data.getConstants().getData() );
+    // Add the constant data to the end of the rows.
+    for ( int i = 0; i < rows.length; i++ ) {
+      rows[ i ] = RowDataUtil.addRowData( rows[ i ], getInputRowMeta().size(), data.getConstants().getData() );
+    }
 
-    putRow( data.outputMeta, r );
+    putRows( data.outputMeta, rows, rows.length );
 
     if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString(
-        PKG, "Constant.Log.Wrote.Row", Long.toString( getLinesWritten() ), getInputRowMeta().getString( r ) ) );
+      long lineNr = getLinesWritten() - rows.length;
+      for ( Object[] r : rows ) {
+        logRowlevel( BaseMessages.getString(
+          PKG, "Constant.Log.Wrote.Row", Long.toString( ++lineNr ), getInputRowMeta().getString( r ) ) );
+      }
     }
 
     if ( checkFeedback( getLinesWritten() ) ) {
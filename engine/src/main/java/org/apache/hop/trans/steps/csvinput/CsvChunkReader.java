@@ -0,0 +1,408 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.csvinput;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.RowDataUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a local CSV file in chunks on a fork-join pool and hands back the rows in batches in file order.
+ * <p>
+ * The file is split in chunks of a fixed size which are memory mapped and scanned in parallel. A chunk can start
+ * anywhere in a record, even inside a quoted field that spans lines, so the scan runs a small state machine over the
+ * chunk for every state the chunk could start in. It keeps the state at the end of the chunk and the first record
+ * boundary found. Walking the chunks in file order then gives the actual start state of each chunk and with it the
+ * records it owns, which are parsed into rows on the pool as well.
+ * <p>
+ * Only single byte encodings with a single byte delimiter and enclosure are supported. The fields of the rows are kept
+ * as binary strings, the way the step hands them out with lazy conversion.
+ */
+public class CsvChunkReader {
+
+  public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  // The scanner states at the start of a byte
+  //
+  static final int FIELD_START = 0;
+  static final int UNQUOTED = 1;
+  static final int QUOTED = 2;
+  /** An enclosure in a quoted field, either the closing one or the first of an escaped pair */
+  static final int QUOTE = 3;
+  /** After a line end character, a second one belongs to the same line end */
+  static final int LINE_END = 4;
+  static final int STATE_COUNT = 5;
+
+  private static final int STATE_MASK = 7;
+  private static final int BOUNDARY_AFTER = 8;
+  private static final int BOUNDARY_BEFORE = 16;
+
+  /**
+   * The number of bytes scanned for all start states before checking which of them ended up in the same state.
+   */
+  private static final int CONVERGENCE_CHECK = 4096;
+
+  /**
+   * The size of the regions of the file that are memory mapped. The chunks are slices of these regions, so that
+   * there are only a few mappings around while they wait to be garbage collected.
+   */
+  private static final long REGION_SIZE = 256L * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long start;
+  private final long end;
+  private final byte delimiter;
+  private final int enclosure;
+  private final int fieldCount;
+  private final int rowSize;
+  private boolean skipFirstRecord;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+  private final int maxChunksAhead;
+  private final byte[] transitions;
+  private final CsvRecordSplitter splitter;
+  private final Map<Long, MappedByteBuffer> regions = new ConcurrentHashMap<>();
+
+  private long nextChunk;
+  private final ArrayDeque<ForkJoinTask<ChunkScan>> scans = new ArrayDeque<>();
+  private final ArrayDeque<ForkJoinTask<List<Object[]>>> batches = new ArrayDeque<>();
+  private int state = FIELD_START;
+  private long recordStart = -1L;
+
+  /**
+   * @param channel         the file to read, only used for positional reads and mapping
+   * @param start           the position of the first record, e.g. after a byte order mark
+   * @param end             the size of the file
+   * @param delimiter       the field delimiter
+   * @param enclosure       the enclosure byte or -1 if fields are not enclosed
+   * @param fieldCount      the number of fields to read from each record
+   * @param rowSize         the number of values in the rows handed back
+   * @param skipFirstRecord true to skip the header row
+   * @param pool            the pool running the scans and parsing
+   */
+  public CsvChunkReader( FileChannel channel, long start, long end, byte delimiter, int enclosure, int fieldCount,
+                         int rowSize, boolean skipFirstRecord, ForkJoinPool pool ) {
+    this( channel, start, end, delimiter, enclosure, fieldCount, rowSize, skipFirstRecord, pool, DEFAULT_CHUNK_SIZE );
+  }
+
+  CsvChunkReader( FileChannel channel, long start, long end, byte delimiter, int enclosure, int fieldCount,
+                  int rowSize, boolean skipFirstRecord, ForkJoinPool pool, int chunkSize ) {
+    this.channel = channel;
+    this.start = start;
+    this.end = end;
+    this.delimiter = delimiter;
+    this.enclosure = enclosure;
+    this.fieldCount = fieldCount;
+    this.rowSize = rowSize;
+    this.skipFirstRecord = skipFirstRecord;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+    this.maxChunksAhead = pool.getParallelism() * 2;
+    this.transitions = buildTransitions( delimiter, enclosure );
+    this.splitter = new CsvRecordSplitter( delimiter, enclosure );
+    this.nextChunk = start;
+  }
+
+  /**
+   * @return the rows of the next records in file order, possibly empty, or null when the file was read completely
+   * @throws HopFileException in case the file can't be read
+   */
+  public List<Object[]> nextBatch() throws HopFileException {
+    while ( batches.size() < maxChunksAhead ) {
+      submitScans();
+      if ( !resolveNextChunk() ) {
+        break;
+      }
+    }
+    ForkJoinTask<List<Object[]>> batch = batches.poll();
+    return batch == null ? null : get( batch );
+  }
+
+  /**
+   * Stop reading, the scans and batches that are still running are cancelled.
+   */
+  public void close() {
+    for ( ForkJoinTask<?> task : scans ) {
+      task.cancel( true );
+    }
+    for ( ForkJoinTask<?> task : batches ) {
+      task.cancel( true );
+    }
+    scans.clear();
+    batches.clear();
+    regions.clear();
+  }
+
+  private void submitScans() {
+    while ( nextChunk < end && scans.size() < maxChunksAhead ) {
+      final long from = nextChunk;
+      final long to = Math.min( end, from + chunkSize );
+      scans.add( pool.submit( () -> scan( from, to ) ) );
+      nextChunk = to;
+    }
+  }
+
+  /**
+   * Determine the start state of the next chunk in file order. Once the first record in the chunk is known, the
+   * records since the previous record boundary are handed to the pool for parsing.
+   *
+   * @return false if all chunks were resolved
+   */
+  private boolean resolveNextChunk() throws HopFileException {
+    ForkJoinTask<ChunkScan> task = scans.poll();
+    if ( task == null ) {
+      if ( recordStart < 0 ) {
+        return false;
+      }
+      submitBatch( recordStart, end );
+      recordStart = -1L;
+      return true;
+    }
+    ChunkScan scan = get( task );
+    long boundary = scan.start == start ? start : scan.boundaries[ state ];
+    state = scan.states[ state ];
+    if ( boundary >= 0 ) {
+      if ( recordStart >= 0 ) {
+        submitBatch( recordStart, boundary );
+      }
+      recordStart = boundary;
+      long region = recordStart / REGION_SIZE;
+      regions.keySet().removeIf( r -> r < region );
+    }
+    return true;
+  }
+
+  private void submitBatch( final long from, final long to ) {
+    if ( from >= to ) {
+      return;
+    }
+    final boolean skipRecord = skipFirstRecord;
+    skipFirstRecord = false;
+    batches.add( pool.submit( () -> parse( from, to, skipRecord ) ) );
+  }
+
+  private <T> T get( ForkJoinTask<T> task ) throws HopFileException {
+    try {
+      return task.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopFileException( "Interrupted while reading CSV chunks", e );
+    } catch ( ExecutionException e ) {
+      throw new HopFileException( "Exception reading CSV chunk", e.getCause() );
+    }
+  }
+
+  /**
+   * The transition table of the scanner, indexed by state and byte. The entries hold the next state and whether a
+   * record starts after or before the byte.
+   */
+  static byte[] buildTransitions( byte delimiter, int enclosure ) {
+    byte[] table = new byte[ STATE_COUNT << 8 ];
+    for ( int b = 0; b < 256; b++ ) {
+      boolean isDelimiter = b == ( delimiter & 0xff );
+      boolean isLineEnd = b == '\n' || b == '\r';
+      boolean isEnclosure = b == enclosure;
+
+      // The delimiter goes before a line end, which goes before an enclosure at the start of a field
+      //
+      int unquoted = isDelimiter ? FIELD_START : isLineEnd ? LINE_END : UNQUOTED;
+      int fieldStart = !isDelimiter && !isLineEnd && isEnclosure ? QUOTED : unquoted;
+
+      table[ FIELD_START << 8 | b ] = (byte) fieldStart;
+      table[ UNQUOTED << 8 | b ] = (byte) unquoted;
+      table[ QUOTED << 8 | b ] = (byte) ( isEnclosure ? QUOTE : QUOTED );
+      table[ QUOTE << 8 | b ] = (byte) ( isEnclosure ? QUOTED : unquoted );
+      table[ LINE_END << 8 | b ] = (byte) ( isLineEnd ? FIELD_START | BOUNDARY_AFTER : fieldStart | BOUNDARY_BEFORE );
+    }
+    return table;
+  }
+
+  /**
+   * Scan a chunk for every possible start state.
+   */
+  ChunkScan scan( long from, long to ) throws IOException {
+    ByteBuffer buffer = map( from, to );
+    int length = (int) ( to - from );
+
+    int[] states = new int[ STATE_COUNT ];
+    long[] boundaries = new long[ STATE_COUNT ];
+    // Start states that ended up in the same state as an earlier one and found a boundary follow that one
+    int[] leaders = new int[ STATE_COUNT ];
+    for ( int s = 0; s < STATE_COUNT; s++ ) {
+      states[ s ] = s;
+      boundaries[ s ] = -1L;
+      leaders[ s ] = s;
+    }
+
+    for ( int position = 0; position < length; position += CONVERGENCE_CHECK ) {
+      int stop = Math.min( length, position + CONVERGENCE_CHECK );
+      for ( int s = 0; s < STATE_COUNT; s++ ) {
+        if ( leaders[ s ] != s ) {
+          continue;
+        }
+        int current = states[ s ];
+        long boundary = boundaries[ s ];
+        for ( int i = position; i < stop; i++ ) {
+          if ( current == UNQUOTED || current == QUOTED ) {
+            // Only a structural character changes these states, skip to the next one 8 bytes at a time
+            //
+            i = splitter.nextStructural( buffer, i, stop );
+            if ( i >= stop ) {
+              break;
+            }
+          }
+          int transition = transitions[ current << 8 | ( buffer.get( i ) & 0xff ) ];
+          if ( transition > STATE_MASK && boundary < 0 ) {
+            boundary = from + i + ( ( transition & BOUNDARY_AFTER ) != 0 ? 1 : 0 );
+          }
+          current = transition & STATE_MASK;
+        }
+        states[ s ] = current;
+        boundaries[ s ] = boundary;
+      }
+      for ( int s = 1; s < STATE_COUNT; s++ ) {
+        for ( int t = 0; t < s && leaders[ s ] == s; t++ ) {
+          if ( leaders[ t ] == t && states[ t ] == states[ s ] && boundaries[ t ] >= 0 && boundaries[ s ] >= 0 ) {
+            leaders[ s ] = t;
+          }
+        }
+      }
+    }
+
+    for ( int s = 0; s < STATE_COUNT; s++ ) {
+      int leader = s;
+      while ( leaders[ leader ] != leader ) {
+        leader = leaders[ leader ];
+      }
+      states[ s ] = states[ leader ];
+    }
+
+    // A line end at the end of the chunk finishes the record unless the next chunk starts with a second one
+    //
+    if ( to < end && !CsvRecordSplitter.isLineEnd( readByte( to ) ) ) {
+      for ( int s = 0; s < STATE_COUNT; s++ ) {
+        if ( states[ s ] == LINE_END ) {
+          states[ s ] = FIELD_START;
+          if ( boundaries[ s ] < 0 ) {
+            boundaries[ s ] = to;
+          }
+        }
+      }
+    }
+
+    return new ChunkScan( from, states, boundaries );
+  }
+
+  /**
+   * @return the bytes of a range of the file, starting at position 0 of a little endian buffer
+   */
+  private ByteBuffer map( long from, long to ) throws IOException {
+    long region = from / REGION_SIZE;
+    if ( ( to - 1 ) / REGION_SIZE != region ) {
+      // The range crosses a region boundary
+      return channel.map( FileChannel.MapMode.READ_ONLY, from, to - from ).order( ByteOrder.LITTLE_ENDIAN );
+    }
+    MappedByteBuffer mapped = regions.get( region );
+    if ( mapped == null ) {
+      long regionStart = region * REGION_SIZE;
+      mapped = channel.map( FileChannel.MapMode.READ_ONLY, regionStart, Math.min( end, regionStart + REGION_SIZE )
+        - regionStart );
+      MappedByteBuffer other = regions.putIfAbsent( region, mapped );
+      if ( other != null ) {
+        mapped = other;
+      }
+    }
+    ByteBuffer buffer = mapped.duplicate();
+    buffer.limit( (int) ( to - region * REGION_SIZE ) );
+    buffer.position( (int) ( from - region * REGION_SIZE ) );
+    return buffer.slice().order( ByteOrder.LITTLE_ENDIAN );
+  }
+
+  private byte readByte( long position ) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate( 1 );
+    while ( buffer.hasRemaining() ) {
+      if ( channel.read( buffer, position ) < 0 ) {
+        return 0;
+      }
+    }
+    return buffer.get( 0 );
+  }
+
+  /**
+   * Parse the records in a range of the file that starts at a record boundary and ends at one. The fields the step
+   * reads are copied out of the file for every record as it is parsed, the header and any extra fields in a record are
+   * skipped without being copied.
+   */
+  List<Object[]> parse( long from, long to, boolean skipRecord ) throws IOException {
+    ByteBuffer buffer = map( from, to );
+    int length = (int) ( to - from );
+    CsvRecordSplitter splitter = new CsvRecordSplitter( delimiter, enclosure );
+    List<Object[]> rows = new ArrayList<>();
+    int position = 0;
+    boolean skip = skipRecord;
+    while ( position < length ) {
+      position = splitter.splitRecord( buffer, position, length );
+      if ( skip ) {
+        skip = false;
+        continue;
+      }
+      Object[] row = RowDataUtil.allocateRowData( rowSize );
+      int fields = Math.min( fieldCount, splitter.getFieldCount() );
+      for ( int i = 0; i < fields; i++ ) {
+        row[ i ] = splitter.getField( buffer, i );
+      }
+      rows.add( row );
+    }
+    return rows;
+  }
+
+  /**
+   * The outcome of scanning a chunk, by the state the chunk starts in.
+   */
+  static class ChunkScan {
+    final long start;
+    /** The state at the end of the chunk */
+    final int[] states;
+    /** The first position in the chunk a record starts at or -1 if no record starts in the chunk */
+    final long[] boundaries;
+
+    ChunkScan( long start, int[] states, long[] boundaries ) {
+      this.start = start;
+      this.states = states;
+      this.boundaries = boundaries;
+    }
+  }
+}
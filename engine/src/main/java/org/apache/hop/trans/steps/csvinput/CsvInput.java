@@ -60,6 +60,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Read a simple CSV file Just output Strings found in the file...
@@ -99,6 +100,18 @@ public class CsvInput extends BaseStep implements StepInterface {
       //
       data.parallel = meta.isRunningInParallel() && data.totalNumberOfSteps > 1;
 
+      // A single step copy can also read the files in chunks on a pool of threads
+      //
+      if ( data.readerThreads > 1 && !data.parallel ) {
+        if ( isReadingInChunksPossible() ) {
+          data.readerPool = new ForkJoinPool( data.readerThreads );
+          logBasic( BaseMessages.getString( PKG, "CsvInput.Log.ReadingInChunks", Integer
+            .toString( data.readerThreads ) ) );
+        } else {
+          logBasic( BaseMessages.getString( PKG, "CsvInput.Log.ReadingInChunksNotPossible" ) );
+        }
+      }
+
       // The conversion logic for when the lazy conversion is turned of is simple:
       // Pretend it's a lazy conversion object anyway and get the native type during conversion.
       //
@@ -148,7 +161,8 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
 
     try {
-      Object[] outputRowData = readOneRow( false, false ); // get row, set busy!
+      // get row, set busy!
+      Object[] outputRowData = data.chunkReader != null ? readChunkRow() : readOneRow( false, false );
       // no more input to be expected...
       if ( outputRowData == null ) {
         if ( openNextFile() ) {
@@ -191,6 +205,81 @@ public class CsvInput extends BaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * Chunks are split at record boundaries found by looking at single bytes, see {@link CsvChunkReader}.
+   */
+  private boolean isReadingInChunksPossible() {
+    return data.encodingType.getLength() == 1 && data.delimiter.length == 1
+      && ( data.enclosure == null || data.enclosure.length == 1 ) && !meta.isNewlinePossibleInFields();
+  }
+
+  /**
+   * Get the next row from the batches read by the chunk reader.
+   *
+   * @return the row or null if the file was read completely
+   */
+  private Object[] readChunkRow() throws HopException {
+    while ( data.chunkRows == null || data.chunkRowIndex >= data.chunkRows.size() ) {
+      data.chunkRows = data.chunkReader.nextBatch();
+      data.chunkRowIndex = 0;
+      if ( data.chunkRows == null ) {
+        return null;
+      }
+    }
+    Object[] outputRowData = data.chunkRows.get( data.chunkRowIndex );
+    data.chunkRows.set( data.chunkRowIndex++, null );
+
+    // Optionally add the current filename to the mix as well...
+    //
+    if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
+      if ( meta.isLazyConversionActive() ) {
+        outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
+      } else {
+        outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
+      }
+    }
+
+    if ( data.isAddingRowNumber ) {
+      outputRowData[ data.rownumFieldIndex ] = data.rowNumber++;
+    }
+
+    incrementLinesInput();
+
+    if ( !meta.isLazyConversionActive() ) {
+      // The chunks are read as binary strings, convert them the way readOneRow() does
+      //
+      List<Exception> conversionExceptions = null;
+      List<ValueMetaInterface> exceptionFields = null;
+      for ( int i = 0; i < meta.getInputFields().length; i++ ) {
+        if ( outputRowData[ i ] == null ) {
+          continue;
+        }
+        ValueMetaInterface sourceValueMeta = data.convertRowMeta.getValueMeta( i );
+        try {
+          outputRowData[ i ] = sourceValueMeta.convertBinaryStringToNativeType( (byte[]) outputRowData[ i ] );
+        } catch ( HopValueException e ) {
+          outputRowData[ i ] = null;
+
+          if ( conversionExceptions == null ) {
+            conversionExceptions = new ArrayList<Exception>();
+            exceptionFields = new ArrayList<ValueMetaInterface>();
+          }
+
+          conversionExceptions.add( e );
+          exceptionFields.add( sourceValueMeta );
+        }
+      }
+
+      if ( conversionExceptions != null ) {
+        throw new HopConversionException(
+          "There were " + conversionExceptions.size() + " conversion errors on line " + getLinesInput(),
+          conversionExceptions, exceptionFields, outputRowData );
+      }
+    }
+
+    return outputRowData;
+  }
+
   private void prepareToRunInParallel() throws HopException {
     try {
       // At this point it doesn't matter if we have 1 or more files.
@@ -313,6 +402,13 @@ public class CsvInput extends BaseStep implements StepInterface {
       logError( "Error closing file input stream", e );
     }
 
+    if ( data.chunkReader != null ) {
+      data.chunkReader.close();
+    }
+    if ( data.readerPool != null ) {
+      data.readerPool.shutdownNow();
+    }
+
     super.dispose( smi, sdi );
   }
 
@@ -353,6 +449,12 @@ public class CsvInput extends BaseStep implements StepInterface {
       data.fc = data.fis.getChannel();
       data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
 
+      if ( data.readerPool != null ) {
+        data.chunkReader = new CsvChunkReader( data.fc, bomSize, data.fc.size(), data.delimiter[ 0 ],
+          data.enclosure == null ? -1 : data.enclosure[ 0 ] & 0xff, meta.getInputFields().length,
+          data.outputRowMeta.size(), meta.isHeaderPresent(), data.readerPool );
+      }
+
       // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
       //
       if ( data.parallel ) {
@@ -399,7 +501,9 @@ public class CsvInput extends BaseStep implements StepInterface {
       if ( meta.isHeaderPresent() ) {
         // Standard flat file : skip header
         if ( !data.parallel || data.bytesToSkipInFirstFile <= 0 ) {
-          readOneRow( true, false ); // skip this row.
+          if ( data.chunkReader == null ) {
+            readOneRow( true, false ); // skip this row, the chunk reader skips it by itself
+          }
           logBasic( BaseMessages.getString( PKG, "CsvInput.Log.HeaderRowSkipped", data.filenames[ data.filenr - 1 ] ) );
           if ( data.fieldsMapping.size() == 0 ) {
             return false;
@@ -849,6 +953,7 @@ public class CsvInput extends BaseStep implements StepInterface {
       // PDI-10242 see if a variable is used as encoding value
       String realEncoding = environmentSubstitute( meta.getEncoding() );
       data.preferredBufferSize = Integer.parseInt( environmentSubstitute( meta.getBufferSize() ) );
+      data.readerThreads = Const.toInt( environmentSubstitute( meta.getReaderThreads() ), 1 );
 
       // If the step doesn't have any previous steps, we just get the filename.
       // Otherwise, we'll grab the list of file names later...
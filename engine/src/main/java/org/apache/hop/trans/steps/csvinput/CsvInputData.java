@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Matt
@@ -83,6 +84,12 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
 
   public FieldsMapping fieldsMapping;
 
+  public int readerThreads;
+  public ForkJoinPool readerPool;
+  public CsvChunkReader chunkReader;
+  public List<Object[]> chunkRows;
+  public int chunkRowIndex;
+
   /**
    * Data class for CsvInput step
    *
@@ -265,6 +272,11 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
   }
 
   void closeFile() throws HopException {
+    if ( chunkReader != null ) {
+      chunkReader.close();
+      chunkReader = null;
+      chunkRows = null;
+    }
     try {
       if ( fc != null ) {
         fc.close();
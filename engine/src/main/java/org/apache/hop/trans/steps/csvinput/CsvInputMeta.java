@@ -103,6 +103,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
 
   private boolean newlinePossibleInFields;
 
+  private String readerThreads;
+
   public CsvInputMeta() {
     super(); // allocate BaseStepMeta
     allocate( 0 );
@@ -131,6 +133,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     lazyConversionActive = true;
     isaddresult = false;
     bufferSize = "50000";
+    readerThreads = "1";
   }
 
   private void readData( Node stepnode ) throws HopXMLException {
@@ -159,6 +162,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
         newlinePossibleInFields = "Y".equalsIgnoreCase( nlp );
       }
       encoding = XMLHandler.getTagValue( stepnode, getXmlCode( "ENCODING" ) );
+      readerThreads = XMLHandler.getTagValue( stepnode, getXmlCode( "READER_THREADS" ) );
 
       Node fields = XMLHandler.getSubNode( stepnode, getXmlCode( "FIELDS" ) );
       int nrfields = XMLHandler.countNodes( fields, getXmlCode( "FIELD" ) );
@@ -212,6 +216,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     retval.append( "    " ).append(
       XMLHandler.addTagValue( getXmlCode( "NEWLINE_POSSIBLE" ), newlinePossibleInFields ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "ENCODING" ), encoding ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "READER_THREADS" ), readerThreads ) );
 
     retval.append( "    " ).append( XMLHandler.openTag( getXmlCode( "FIELDS" ) ) ).append( Const.CR );
     for ( int i = 0; i < inputFields.length; i++ ) {
@@ -699,6 +704,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
           isaddresult = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "ENCODING" ) ) {
           encoding = (String) entry.getValue();
+        } else if ( attr.getKey().equals( "READER_THREADS" ) ) {
+          readerThreads = (String) entry.getValue();
         } else {
           throw new RuntimeException( "Unhandled metadata injection of attribute: "
             + attr.toString() + " - " + attr.getDescription() );
@@ -780,6 +787,20 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     this.newlinePossibleInFields = newlinePossibleInFields;
   }
 
+  /**
+   * @return the number of threads reading chunks of a file, more than one to read in chunks
+   */
+  public String getReaderThreads() {
+    return readerThreads;
+  }
+
+  /**
+   * @param readerThreads the number of threads reading chunks of a file
+   */
+  public void setReaderThreads( String readerThreads ) {
+    this.readerThreads = readerThreads;
+  }
+
   @Override
   public FileObject getHeaderFileObject( final TransMeta transMeta ) {
     final String filename = transMeta.environmentSubstitute( getFilename() );
@@ -0,0 +1,306 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.csvinput;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A SWAR record splitter for the chunk reader: splits CSV records in fields, looking at 8 bytes at a time for the
+ * structural characters, the delimiter, the enclosure and the line end characters.
+ * <p>
+ * The bytes are read as little endian longs and compared to the structural characters in all 8 lanes at once (SWAR,
+ * SIMD within a register), so long runs of field content are skipped without looking at every byte. A split record is
+ * kept as field offsets in a reusable array. {@link #getField(ByteBuffer, int)} copies a field into a byte array, since
+ * Hop's binary string storage needs a byte array per value. The chunk reader copies the fields of a row when it builds
+ * the row and never copies the header or the extra fields of a record.
+ * <p>
+ * Only {@link CsvChunkReader} uses the splitter, so only when a single step copy reads in chunks on several threads.
+ * The sequential CsvInput.readOneRow() path, reading one row at a time from a refilled buffer, keeps using the
+ * pattern matchers.
+ * <p>
+ * The rules are the ones {@link CsvInput} applies when reading a row: an enclosure only counts at the start of a
+ * field, a doubled enclosure in an enclosed field is an escaped one and a second line end character belongs to the
+ * same line end.
+ */
+class CsvRecordSplitter {
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  /** The field started with an enclosure that was closed */
+  private static final int ENCLOSED = 1;
+  /** The enclosed part of the field contains doubled enclosures */
+  private static final int ESCAPED = 2;
+
+  private final byte delimiter;
+  private final byte enclosure;
+  private final boolean hasEnclosure;
+  private final long delimiterPattern;
+  private final long enclosurePattern;
+  private final long lineFeedPattern;
+  private final long carriageReturnPattern;
+
+  /** The start, end and flags of every field of the last record */
+  private int[] offsets = new int[ 3 * 16 ];
+  private int fieldCount;
+
+  /**
+   * @param delimiter the field delimiter
+   * @param enclosure the enclosure byte or -1 if fields are not enclosed
+   */
+  CsvRecordSplitter( byte delimiter, int enclosure ) {
+    this.delimiter = delimiter;
+    this.hasEnclosure = enclosure >= 0;
+    this.enclosure = (byte) enclosure;
+    this.delimiterPattern = broadcast( delimiter );
+    this.enclosurePattern = broadcast( this.enclosure );
+    this.lineFeedPattern = broadcast( (byte) '\n' );
+    this.carriageReturnPattern = broadcast( (byte) '\r' );
+  }
+
+  /**
+   * @return the byte repeated in all 8 lanes of a long
+   */
+  static long broadcast( byte b ) {
+    return ONES * ( b & 0xff );
+  }
+
+  /**
+   * @return a long with the high bit set in every lane where the word holds the byte of the pattern
+   */
+  static long matches( long word, long pattern ) {
+    long value = word ^ pattern;
+    long t = ( value & LOW_BITS ) + LOW_BITS;
+    return ~( t | value | LOW_BITS );
+  }
+
+  /**
+   * @param buffer a little endian buffer
+   * @return the lanes of the 8 bytes at the position that hold a structural character
+   */
+  long structural( ByteBuffer buffer, int position ) {
+    long word = buffer.getLong( position );
+    long mask = matches( word, delimiterPattern ) | matches( word, lineFeedPattern )
+      | matches( word, carriageReturnPattern );
+    if ( hasEnclosure ) {
+      mask |= matches( word, enclosurePattern );
+    }
+    return mask;
+  }
+
+  /**
+   * @return the position of the first structural character at or after the position, or the limit
+   */
+  int nextStructural( ByteBuffer buffer, int position, int limit ) {
+    while ( position + 8 <= limit ) {
+      long mask = structural( buffer, position );
+      if ( mask != 0 ) {
+        return position + ( Long.numberOfTrailingZeros( mask ) >>> 3 );
+      }
+      position += 8;
+    }
+    while ( position < limit && !isStructural( buffer.get( position ) ) ) {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * @return the position of the first delimiter or line end character at or after the position, or the limit
+   */
+  private int nextDelimiterOrLineEnd( ByteBuffer buffer, int position, int limit ) {
+    while ( position + 8 <= limit ) {
+      long word = buffer.getLong( position );
+      long mask = matches( word, delimiterPattern ) | matches( word, lineFeedPattern )
+        | matches( word, carriageReturnPattern );
+      if ( mask != 0 ) {
+        return position + ( Long.numberOfTrailingZeros( mask ) >>> 3 );
+      }
+      position += 8;
+    }
+    while ( position < limit ) {
+      byte b = buffer.get( position );
+      if ( b == delimiter || isLineEnd( b ) ) {
+        break;
+      }
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * @return the position of the first enclosure at or after the position, or the limit
+   */
+  private int nextEnclosure( ByteBuffer buffer, int position, int limit ) {
+    while ( position + 8 <= limit ) {
+      long mask = matches( buffer.getLong( position ), enclosurePattern );
+      if ( mask != 0 ) {
+        return position + ( Long.numberOfTrailingZeros( mask ) >>> 3 );
+      }
+      position += 8;
+    }
+    while ( position < limit && buffer.get( position ) != enclosure ) {
+      position++;
+    }
+    return position;
+  }
+
+  boolean isStructural( byte b ) {
+    return b == delimiter || isLineEnd( b ) || ( hasEnclosure && b == enclosure );
+  }
+
+  static boolean isLineEnd( byte b ) {
+    return b == '\n' || b == '\r';
+  }
+
+  /**
+   * @return a view of the buffer that reads longs as little endian
+   */
+  static ByteBuffer littleEndian( ByteBuffer buffer ) {
+    return buffer.order() == ByteOrder.LITTLE_ENDIAN ? buffer : buffer.duplicate().order( ByteOrder.LITTLE_ENDIAN );
+  }
+
+  /**
+   * Split the record at the position and keep the offsets of its fields.
+   *
+   * @param buffer   a little endian buffer, see {@link #littleEndian(ByteBuffer)}
+   * @param position the start of the record
+   * @param limit    the end of the data, a record is never read beyond it
+   * @return the position after the line end of the record
+   */
+  public int splitRecord( ByteBuffer buffer, int position, int limit ) {
+    fieldCount = 0;
+    while ( true ) {
+      int fieldStart = position;
+      int flags = 0;
+      if ( hasEnclosure && position < limit && buffer.get( position ) == enclosure && enclosure != delimiter ) {
+        // Skip over the enclosed part, a doubled enclosure is an escaped one
+        //
+        position++;
+        while ( true ) {
+          position = nextEnclosure( buffer, position, limit );
+          if ( position >= limit ) {
+            break;
+          }
+          if ( position + 1 < limit && buffer.get( position + 1 ) == enclosure ) {
+            flags |= ESCAPED;
+            position += 2;
+          } else {
+            flags |= ENCLOSED;
+            position++;
+            break;
+          }
+        }
+      }
+      position = nextDelimiterOrLineEnd( buffer, position, limit );
+      addField( fieldStart, position, flags );
+
+      if ( position >= limit ) {
+        return position;
+      }
+      if ( buffer.get( position ) == delimiter ) {
+        position++;
+        if ( position >= limit ) {
+          return position;
+        }
+      } else {
+        position++;
+        if ( position < limit && isLineEnd( buffer.get( position ) ) ) {
+          position++;
+        }
+        return position;
+      }
+    }
+  }
+
+  private void addField( int start, int end, int flags ) {
+    int index = fieldCount * 3;
+    if ( index + 3 > offsets.length ) {
+      offsets = Arrays.copyOf( offsets, offsets.length * 2 );
+    }
+    offsets[ index ] = start;
+    offsets[ index + 1 ] = end;
+    offsets[ index + 2 ] = flags;
+    fieldCount++;
+  }
+
+  /**
+   * @return the number of fields in the last split record
+   */
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * @return the position of the field content in the buffer, after the opening enclosure
+   */
+  public int getFieldStart( int field ) {
+    int start = offsets[ field * 3 ];
+    return ( offsets[ field * 3 + 2 ] & ENCLOSED ) != 0 ? start + 1 : start;
+  }
+
+  /**
+   * @return the position after the field content in the buffer, before the closing enclosure
+   */
+  public int getFieldEnd( int field ) {
+    int end = offsets[ field * 3 + 1 ];
+    return ( offsets[ field * 3 + 2 ] & ENCLOSED ) != 0 ? Math.max( getFieldStart( field ), end - 1 ) : end;
+  }
+
+  /**
+   * Copy a field of the last split record, without its enclosures and with the escaped enclosures replaced.
+   *
+   * @param buffer the buffer the record was split in, its position is changed
+   * @param field  the field index
+   * @return the content of the field
+   */
+  public byte[] getField( ByteBuffer buffer, int field ) {
+    int start = getFieldStart( field );
+    int end = getFieldEnd( field );
+    byte[] bytes = new byte[ end - start ];
+    // The scanning only uses absolute positions, so the buffer position is free for a bulk copy
+    buffer.position( start );
+    buffer.get( bytes );
+    if ( ( offsets[ field * 3 + 2 ] & ESCAPED ) != 0 ) {
+      return removeEscapedEnclosures( bytes, enclosure );
+    }
+    return bytes;
+  }
+
+  /**
+   * Replace every doubled enclosure by a single one.
+   */
+  static byte[] removeEscapedEnclosures( byte[] field, byte enclosure ) {
+    byte[] result = new byte[ field.length ];
+    int length = 0;
+    for ( int i = 0; i < field.length; i++ ) {
+      result[ length++ ] = field[ i ];
+      if ( field[ i ] == enclosure && i + 1 < field.length && field[ i + 1 ] == enclosure ) {
+        i++;
+      }
+    }
+    return length == field.length ? result : Arrays.copyOf( result, length );
+  }
+}
@@ -25,9 +25,12 @@ package org.apache.hop.trans.steps.databasejoin;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.trans.Trans;
 import org.apache.hop.trans.TransMeta;
@@ -36,8 +39,23 @@ import org.apache.hop.trans.step.StepDataInterface;
 import org.apache.hop.trans.step.StepInterface;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.step.StepMetaInterface;
+import org.apache.hop.trans.steps.databasejoin.DatabaseJoinData.JoinConnection;
+import org.apache.hop.trans.steps.databasejoin.DatabaseJoinData.JoinQuery;
+import org.apache.hop.trans.steps.databasejoin.DatabaseJoinData.PendingRow;
 
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Use values from input streams to joins with values in a database. Freehand SQL can be used to do this.
@@ -48,6 +66,11 @@ import java.sql.ResultSet;
 public class DatabaseJoin extends BaseStep implements StepInterface {
   private static Class<?> PKG = DatabaseJoinMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /**
+   * The number of input rows that can wait for their results per concurrent query, in ordered mode
+   */
+  private static final int PENDING_ROWS_PER_QUERY = 16;
+
   private DatabaseJoinMeta meta;
   private DatabaseJoinData data;
 
@@ -59,34 +82,26 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
   private synchronized void lookupValues( RowMetaInterface rowMeta, Object[] rowData ) throws HopException {
     if ( first ) {
       first = false;
-
-      data.outputRowMeta = rowMeta.clone();
-      meta.getFields(
-        data.outputRowMeta, getStepname(), new RowMetaInterface[] { meta.getTableFields(), }, null, this, metaStore );
-
-      data.lookupRowMeta = new RowMeta();
-
-      if ( log.isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "DatabaseJoin.Log.CheckingRow" ) + rowMeta.getString( rowData ) );
-      }
-
-      data.keynrs = new int[ meta.getParameterField().length ];
-
-      for ( int i = 0; i < meta.getParameterField().length; i++ ) {
-        data.keynrs[ i ] = rowMeta.indexOfValue( meta.getParameterField()[ i ] );
-        if ( data.keynrs[ i ] < 0 ) {
-          throw new HopStepException( BaseMessages.getString( PKG, "DatabaseJoin.Exception.FieldNotFound", meta
-            .getParameterField()[ i ] ) );
-        }
-
-        data.lookupRowMeta.addValueMeta( rowMeta.getValueMeta( data.keynrs[ i ] ).clone() );
-      }
+      prepareLookup( rowMeta, rowData );
     }
 
     // Construct the parameters row...
-    Object[] lookupRowData = new Object[ data.lookupRowMeta.size() ];
-    for ( int i = 0; i < data.keynrs.length; i++ ) {
-      lookupRowData[ i ] = rowData[ data.keynrs[ i ] ];
+    Object[] lookupRowData = getParameters( rowData );
+
+    if ( data.resultCache != null ) {
+      List<Object> key = getCacheKey( lookupRowData );
+      List<Object[]> results = data.resultCache.get( key );
+      if ( results == null ) {
+        results = readResults( data.db, data.pstmt, data.lookupRowMeta, lookupRowData );
+        for ( int i = 0; i <= results.size(); i++ ) {
+          incrementLinesInput();
+        }
+        data.resultCache.put( key, results );
+      } else {
+        data.resultCacheHits++;
+      }
+      putResults( rowMeta, rowData, results );
+      return;
     }
 
     // Set the values on the prepared statement (for faster exec.)
@@ -141,6 +156,260 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
     data.db.closeQuery( rs );
   }
 
+  private void prepareLookup( RowMetaInterface rowMeta, Object[] rowData ) throws HopException {
+    data.outputRowMeta = rowMeta.clone();
+    meta.getFields(
+      data.outputRowMeta, getStepname(), new RowMetaInterface[] { meta.getTableFields(), }, null, this, metaStore );
+
+    data.lookupRowMeta = new RowMeta();
+
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseJoin.Log.CheckingRow" ) + rowMeta.getString( rowData ) );
+    }
+
+    data.keynrs = new int[ meta.getParameterField().length ];
+
+    for ( int i = 0; i < meta.getParameterField().length; i++ ) {
+      data.keynrs[ i ] = rowMeta.indexOfValue( meta.getParameterField()[ i ] );
+      if ( data.keynrs[ i ] < 0 ) {
+        throw new HopStepException( BaseMessages.getString( PKG, "DatabaseJoin.Exception.FieldNotFound", meta
+          .getParameterField()[ i ] ) );
+      }
+
+      data.lookupRowMeta.addValueMeta( rowMeta.getValueMeta( data.keynrs[ i ] ).clone() );
+    }
+  }
+
+  private Object[] getParameters( Object[] rowData ) {
+    Object[] lookupRowData = new Object[ data.lookupRowMeta.size() ];
+    for ( int i = 0; i < data.keynrs.length; i++ ) {
+      lookupRowData[ i ] = rowData[ data.keynrs[ i ] ];
+    }
+    return lookupRowData;
+  }
+
+  /**
+   * @return the key of the parameters for the running queries and the result cache. Lazily converted values are
+   * binary strings, they are converted to normal storage and byte arrays are wrapped, so that equal values give equal
+   * keys.
+   */
+  private List<Object> getCacheKey( Object[] parameters ) throws HopException {
+    Object[] key = parameters;
+    for ( int i = 0; i < parameters.length; i++ ) {
+      ValueMetaInterface valueMeta = data.lookupRowMeta.getValueMeta( i );
+      Object value = parameters[ i ];
+      if ( valueMeta.isStorageBinaryString() ) {
+        value = valueMeta.convertToNormalStorageType( value );
+      }
+      if ( value instanceof byte[] ) {
+        value = ByteBuffer.wrap( (byte[]) value );
+      }
+      if ( value != parameters[ i ] ) {
+        if ( key == parameters ) {
+          key = parameters.clone();
+        }
+        key[ i ] = value;
+      }
+    }
+    return Arrays.asList( key );
+  }
+
+  /**
+   * Run the query of a row on one of the connections while the queries of earlier rows are still running. The joined
+   * rows are passed on as the queries finish, in the order of the input rows unless the output is unordered.
+   */
+  private void joinConcurrently( RowMetaInterface rowMeta, Object[] rowData ) throws HopException {
+    if ( first ) {
+      first = false;
+      prepareLookup( rowMeta, rowData );
+    }
+
+    // Keep the number of queries in flight and the number of rows waiting for them bounded
+    //
+    int maxInFlight = data.connections.size();
+    waitForQueries( maxInFlight - 1, maxInFlight * PENDING_ROWS_PER_QUERY - 1 );
+
+    Object[] parameters = getParameters( rowData );
+    List<Object> key = getCacheKey( parameters );
+    JoinQuery query = data.runningQueries.get( key );
+    if ( query == null ) {
+      List<Object[]> results = data.resultCache == null ? null : data.resultCache.get( key );
+      if ( results != null ) {
+        data.resultCacheHits++;
+        query = new JoinQuery( key, parameters );
+        query.results = results;
+        query.done = true;
+      } else {
+        query = startQuery( key, parameters );
+      }
+    }
+
+    if ( meta.isUnorderedOutput() ) {
+      if ( query.done && !data.runningQueries.containsKey( key ) ) {
+        putResults( rowMeta, rowData, query );
+      } else {
+        query.rows.add( rowData );
+      }
+    } else {
+      data.pendingRows.add( new PendingRow( rowData, query ) );
+      putPendingRows( rowMeta );
+    }
+  }
+
+  private JoinQuery startQuery( List<Object> key, Object[] parameters ) {
+    final JoinQuery query = new JoinQuery( key, parameters );
+    data.runningQueries.put( key, query );
+    data.queriesInFlight++;
+    if ( log.isGatheringMetrics() ) {
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERIES_IN_FLIGHT, getStepname(), data.queriesInFlight );
+    }
+
+    data.executor.execute( () -> {
+      long startTime = System.nanoTime();
+      JoinConnection connection = null;
+      try {
+        connection = data.freeConnections.take();
+        if ( connection.lookupRowMeta == null ) {
+          connection.lookupRowMeta = data.lookupRowMeta.clone();
+        }
+        query.results = readResults( connection.db, connection.pstmt, connection.lookupRowMeta, query.parameters );
+      } catch ( Exception e ) {
+        query.error = e;
+      } finally {
+        if ( connection != null ) {
+          data.freeConnections.add( connection );
+        }
+        query.nanos = System.nanoTime() - startTime;
+        query.done = true;
+        data.finishedQueries.add( query );
+      }
+    } );
+    return query;
+  }
+
+  /**
+   * Handle finished queries until no more than the given numbers of queries are in flight and rows are waiting.
+   */
+  private void waitForQueries( int maxInFlight, int maxPendingRows ) throws HopException {
+    while ( data.queriesInFlight > maxInFlight
+      || ( data.queriesInFlight > 0 && data.pendingRows.size() > maxPendingRows ) ) {
+      JoinQuery query;
+      try {
+        query = data.finishedQueries.poll( 100, TimeUnit.MILLISECONDS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new HopException( e );
+      }
+      if ( query == null ) {
+        if ( isStopped() ) {
+          throw new HopException( BaseMessages.getString( PKG, "DatabaseJoin.Exception.StoppedWaitingForQueries" ) );
+        }
+        continue;
+      }
+      finishQuery( query );
+    }
+  }
+
+  private void finishQuery( JoinQuery query ) throws HopException {
+    data.queriesInFlight--;
+    data.runningQueries.remove( query.key );
+    data.queryLatency.record( query.nanos );
+    if ( log.isGatheringMetrics() ) {
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERY_SUM_TIME, getStepname(), query.nanos );
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERY_MAX_TIME, getStepname(), query.nanos );
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERY_COUNT, getStepname() );
+    }
+
+    if ( query.error == null ) {
+      for ( int i = 0; i <= query.results.size(); i++ ) {
+        incrementLinesInput();
+      }
+      if ( data.resultCache != null ) {
+        data.resultCache.put( query.key, query.results );
+      }
+    }
+
+    if ( meta.isUnorderedOutput() ) {
+      for ( Object[] rowData : query.rows ) {
+        putResults( getInputRowMeta(), rowData, query );
+      }
+      query.rows = null;
+    } else {
+      putPendingRows( getInputRowMeta() );
+    }
+  }
+
+  private void putPendingRows( RowMetaInterface rowMeta ) throws HopException {
+    while ( !data.pendingRows.isEmpty() && data.pendingRows.peek().query.done ) {
+      PendingRow pendingRow = data.pendingRows.poll();
+      putResults( rowMeta, pendingRow.row, pendingRow.query );
+    }
+  }
+
+  private void putResults( RowMetaInterface rowMeta, Object[] rowData, JoinQuery query ) throws HopException {
+    if ( query.error == null ) {
+      putResults( rowMeta, rowData, query.results );
+    } else if ( getStepMeta().isDoingErrorHandling() ) {
+      putError( rowMeta, rowData, 1, query.error.toString(), null, "DBJOIN001" );
+    } else {
+      throw new HopException( BaseMessages.getString( PKG, "DatabaseJoin.Exception.QueryFailed" ), query.error );
+    }
+  }
+
+  /**
+   * Pass on the input row joined with each of the results, or with nulls for an outer join without results.
+   */
+  private void putResults( RowMetaInterface rowMeta, Object[] rowData, List<Object[]> results ) throws HopException {
+    for ( Object[] add : results ) {
+      Object[] newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
+      System.arraycopy( add, 0, newRow, rowMeta.size(), data.outputRowMeta.size() - rowMeta.size() );
+      // the results can be passed on again, the values are cloned
+      putRow( data.outputRowMeta, data.outputRowMeta.cloneRow( newRow ) );
+
+      if ( log.isRowLevel() ) {
+        logRowlevel( BaseMessages.getString( PKG, "DatabaseJoin.Log.PutoutRow" )
+          + data.outputRowMeta.getString( newRow ) );
+      }
+    }
+
+    if ( results.isEmpty() && meta.isOuterJoin() ) {
+      Object[] newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
+      Arrays.fill( newRow, rowMeta.size(), data.outputRowMeta.size(), null );
+      putRow( data.outputRowMeta, newRow );
+    }
+  }
+
+  private List<Object[]> readResults( Database db, PreparedStatement pstmt, RowMetaInterface lookupRowMeta,
+                                      Object[] lookupRowData ) throws HopException {
+    List<Object[]> results = new ArrayList<>();
+    ResultSet rs = db.openQuery( pstmt, lookupRowMeta, lookupRowData );
+    try {
+      for ( Object[] add = db.getRow( rs ); add != null; add = db.getRow( rs ) ) {
+        results.add( add );
+        if ( meta.getRowLimit() > 0 && results.size() >= meta.getRowLimit() ) {
+          break;
+        }
+      }
+    } finally {
+      db.closeQuery( rs );
+    }
+    return results;
+  }
+
+  /**
+   * @return the number of queries running on the connections of the step
+   */
+  public int getQueriesInFlight() {
+    return data.queriesInFlight;
+  }
+
+  /**
+   * @return the latencies of the queries run on the connections of the step
+   */
+  public LatencyHistogram getQueryLatency() {
+    return data.queryLatency;
+  }
+
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws HopException {
     meta = (DatabaseJoinMeta) smi;
     data = (DatabaseJoinData) sdi;
@@ -150,12 +419,25 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.executor != null ) {
+        try {
+          waitForQueries( 0, 0 );
+        } catch ( HopException e ) {
+          logError( BaseMessages.getString( PKG, "DatabaseJoin.Log.ErrorInStepRunning" ) + e.getMessage(), e );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
       setOutputDone();
       return false;
     }
 
     try {
-      lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      if ( data.executor != null ) {
+        joinConcurrently( getInputRowMeta(), r );
+      } else {
+        lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      }
 
       if ( checkFeedback( getLinesRead() ) ) {
         if ( log.isBasic() ) {
@@ -199,6 +481,13 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
 
     if ( data.db != null && data.db.getConnection() != null && !data.isCanceled ) {
       data.db.cancelStatement( data.pstmt );
+      if ( data.connections != null ) {
+        for ( JoinConnection connection : data.connections.subList( 1, data.connections.size() ) ) {
+          if ( connection.db.getConnection() != null ) {
+            connection.db.cancelStatement( connection.pstmt );
+          }
+        }
+      }
       setStopped( true );
       data.isCanceled = true;
     }
@@ -240,6 +529,25 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
         }
         data.db.setQueryLimit( meta.getRowLimit() );
 
+        if ( meta.getResultCacheSize() > 0 ) {
+          final int resultCacheSize = meta.getResultCacheSize();
+          data.resultCache = new LinkedHashMap<List<Object>, List<Object[]>>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<List<Object>, List<Object[]>> eldest ) {
+              return size() > resultCacheSize;
+            }
+          };
+        }
+
+        if ( meta.getConcurrentQueries() > 1 ) {
+          if ( getTransMeta().isUsingUniqueConnections() ) {
+            // All queries have to go over the one connection of the transaction
+            logBasic( BaseMessages.getString( PKG, "DatabaseJoin.Log.NoConcurrentQueriesOnUniqueConnection" ) );
+          } else {
+            openConcurrentConnections( sql, meta.getConcurrentQueries() );
+          }
+        }
+
         return true;
       } catch ( HopException e ) {
         logError( BaseMessages.getString( PKG, "DatabaseJoin.Log.DatabaseError" ) + e.getMessage(), e );
@@ -252,10 +560,70 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
     return false;
   }
 
+  private void openConcurrentConnections( String sql, int nrConnections ) throws HopException {
+    data.connections = new ArrayList<>( nrConnections );
+    data.freeConnections = new ArrayBlockingQueue<>( nrConnections );
+    data.connections.add( new JoinConnection( data.db, data.pstmt ) );
+    for ( int i = 1; i < nrConnections; i++ ) {
+      Database db = new Database( this, meta.getDatabaseMeta() );
+      db.shareVariablesWith( this );
+      // Added first so that dispose also disconnects it when connecting fails
+      JoinConnection connection = new JoinConnection( db, null );
+      data.connections.add( connection );
+      db.connect( getPartitionID() );
+      connection.pstmt = db.prepareSQL( sql );
+      db.setQueryLimit( meta.getRowLimit() );
+    }
+    data.freeConnections.addAll( data.connections );
+
+    final AtomicInteger threadNr = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread( runnable, getStepname() + " query " + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    };
+    data.executor = Executors.newFixedThreadPool( nrConnections, threadFactory );
+
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseJoin.Log.ConcurrentQueries", nrConnections ) );
+    }
+  }
+
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (DatabaseJoinMeta) smi;
     data = (DatabaseJoinData) sdi;
 
+    if ( data.executor != null ) {
+      data.executor.shutdownNow();
+      try {
+        data.executor.awaitTermination( 10, TimeUnit.SECONDS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      data.executor = null;
+    }
+    if ( data.connections != null ) {
+      for ( JoinConnection connection : data.connections.subList( 1, data.connections.size() ) ) {
+        connection.db.disconnect();
+      }
+      data.connections = null;
+    }
+    if ( data.queryLatency.getCount() > 0 && log.isGatheringMetrics() ) {
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERY_P50_TIME, getStepname(),
+        data.queryLatency.getValueAtPercentile( 50.0 ) );
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERY_P90_TIME, getStepname(),
+        data.queryLatency.getValueAtPercentile( 90.0 ) );
+      log.snap( Metrics.METRIC_STEP_DATABASE_JOIN_QUERY_P99_TIME, getStepname(),
+        data.queryLatency.getValueAtPercentile( 99.0 ) );
+    }
+    if ( data.queryLatency.getCount() > 0 && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseJoin.Log.QueryStatistics", data.queryLatency.getCount(),
+        data.queryLatency.getValueAtPercentile( 50.0 ) / 1000000L,
+        data.queryLatency.getValueAtPercentile( 90.0 ) / 1000000L,
+        data.queryLatency.getValueAtPercentile( 99.0 ) / 1000000L,
+        data.queryLatency.getMax() / 1000000L, data.resultCacheHits ) );
+    }
+
     if ( data.db != null ) {
       data.db.disconnect();
     }
@@ -23,11 +23,21 @@
 package org.apache.hop.trans.steps.databasejoin;
 
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 
 import java.sql.PreparedStatement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * @author Matt
@@ -44,6 +54,38 @@ public class DatabaseJoinData extends BaseStepData implements StepDataInterface
   public Object[] notfound; // Values in case nothing is found...
   public boolean isCanceled;
 
+  /**
+   * The connections running concurrent queries, the first one is db. Null when the queries run one at a time.
+   */
+  public List<JoinConnection> connections;
+  public BlockingQueue<JoinConnection> freeConnections;
+  public ExecutorService executor;
+
+  /**
+   * The queries that finished, handed back to the step by the threads running them
+   */
+  public BlockingQueue<JoinQuery> finishedQueries = new LinkedBlockingQueue<>();
+
+  /**
+   * The queries running, by parameter values, so that rows with the same parameters wait for the same query
+   */
+  public Map<List<Object>, JoinQuery> runningQueries = new HashMap<>();
+
+  /**
+   * The input rows waiting for their results to be passed on in order
+   */
+  public Deque<PendingRow> pendingRows = new ArrayDeque<>();
+
+  public volatile int queriesInFlight;
+
+  /**
+   * The results by parameter values, least recently used first. Null when the results are not cached.
+   */
+  public Map<List<Object>, List<Object[]>> resultCache;
+  public long resultCacheHits;
+
+  public LatencyHistogram queryLatency = new LatencyHistogram();
+
   public DatabaseJoinData() {
     super();
 
@@ -51,4 +93,52 @@ public class DatabaseJoinData extends BaseStepData implements StepDataInterface
     notfound = null;
   }
 
+  /**
+   * A connection with the prepared join query, used by one query at a time.
+   */
+  public static class JoinConnection {
+    public Database db;
+    public PreparedStatement pstmt;
+    public RowMetaInterface lookupRowMeta;
+
+    public JoinConnection( Database db, PreparedStatement pstmt ) {
+      this.db = db;
+      this.pstmt = pstmt;
+    }
+  }
+
+  /**
+   * A query for one combination of parameter values. The results and error are set before the query is done.
+   */
+  public static class JoinQuery {
+    public final List<Object> key;
+    public final Object[] parameters;
+    public volatile List<Object[]> results;
+    public volatile Exception error;
+    public volatile long nanos;
+    public volatile boolean done;
+
+    // The input rows waiting for this query in unordered mode, only used by the step thread
+    //
+    public List<Object[]> rows = new ArrayList<>( 1 );
+
+    public JoinQuery( List<Object> key, Object[] parameters ) {
+      this.key = key;
+      this.parameters = parameters;
+    }
+  }
+
+  /**
+   * An input row waiting for the results of its query.
+   */
+  public static class PendingRow {
+    public final Object[] row;
+    public final JoinQuery query;
+
+    public PendingRow( Object[] row, JoinQuery query ) {
+      this.row = row;
+      this.query = query;
+    }
+  }
+
 }
@@ -91,6 +91,21 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
    */
   private boolean replacevars;
 
+  /**
+   * The number of queries to keep running at the same time, each on its own connection (1=one at a time)
+   */
+  private int concurrentQueries;
+
+  /**
+   * false: the joined rows come out in the order of the input rows true: in the order in which the queries finish
+   */
+  private boolean unorderedOutput;
+
+  /**
+   * The number of parameter combinations to keep the results of (0=no caching)
+   */
+  private int resultCacheSize;
+
   public DatabaseJoinMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -193,12 +208,55 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
     this.sql = sql;
   }
 
+  /**
+   * @return the number of queries to keep running at the same time
+   */
+  public int getConcurrentQueries() {
+    return concurrentQueries;
+  }
+
+  /**
+   * @param concurrentQueries the number of queries to keep running at the same time
+   */
+  public void setConcurrentQueries( int concurrentQueries ) {
+    this.concurrentQueries = concurrentQueries;
+  }
+
+  /**
+   * @return true if the joined rows are passed on in the order in which the queries finish
+   */
+  public boolean isUnorderedOutput() {
+    return unorderedOutput;
+  }
+
+  /**
+   * @param unorderedOutput true to pass on the joined rows in the order in which the queries finish
+   */
+  public void setUnorderedOutput( boolean unorderedOutput ) {
+    this.unorderedOutput = unorderedOutput;
+  }
+
+  /**
+   * @return the number of parameter combinations to keep the results of
+   */
+  public int getResultCacheSize() {
+    return resultCacheSize;
+  }
+
+  /**
+   * @param resultCacheSize the number of parameter combinations to keep the results of
+   */
+  public void setResultCacheSize( int resultCacheSize ) {
+    this.resultCacheSize = resultCacheSize;
+  }
+
   @Override
   public void loadXML( Node stepnode, IMetaStore metaStore ) throws HopXMLException {
     parameterField = null;
     parameterType = null;
     outerJoin = false;
     replacevars = false;
+    unorderedOutput = false;
     readData( stepnode, metaStore );
   }
 
@@ -229,6 +287,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
       outerJoin = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "outer_join" ) );
       replacevars = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "replace_vars" ) );
       rowLimit = Const.toInt( XMLHandler.getTagValue( stepnode, "rowlimit" ), 0 );
+      concurrentQueries = Const.toInt( XMLHandler.getTagValue( stepnode, "concurrent_queries" ), 1 );
+      unorderedOutput = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "unordered_output" ) );
+      resultCacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "result_cache_size" ), 0 );
 
       Node param = XMLHandler.getSubNode( stepnode, "parameter" );
       int nrparam = XMLHandler.countNodes( param, "field" );
@@ -257,6 +318,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
     parameterType = null;
     outerJoin = false;
     replacevars = false;
+    concurrentQueries = 1;
+    unorderedOutput = false;
+    resultCacheSize = 0;
 
     int nrparam = 0;
 
@@ -346,6 +410,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
     retval.append( "    " ).append( XMLHandler.addTagValue( "sql", sql ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "outer_join", outerJoin ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "replace_vars", replacevars ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "concurrent_queries", concurrentQueries ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "unordered_output", unorderedOutput ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "result_cache_size", resultCacheSize ) );
     retval.append( "    <parameter>" ).append( Const.CR );
     for ( int i = 0; i < parameterField.length; i++ ) {
       retval.append( "      <field>" ).append( Const.CR );
@@ -23,8 +23,10 @@
 package org.apache.hop.trans.steps.dimensionlookup;
 
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.row.ValueMetaInterface;
+import org.apache.hop.core.util.SerializedKeyIndex;
 
 import java.util.Collections;
 import java.util.Comparator;
@@ -37,6 +39,17 @@ import java.util.List;
  * <p>
  * The way to achieve that result is to keep a sorted list in memory. Because we want as few conversion errors as
  * possible, we'll use the same row as we get from the database.
+ * <p>
+ * Once the rows are indexed with {@link #indexRows()} a lookup no longer searches the sorted list but goes through a
+ * {@link DimensionVersionIndex}: the natural key is hashed and the version is found with a binary search on the start
+ * dates of the versions of that key only. The rows then don't need to be sorted. The index holds the serialized natural
+ * keys and the date range of every version, see {@link DimensionVersionIndex#getMemorySize()}. The rows themselves are
+ * kept to be returned, {@link #releaseIndexedValues(int[])} lets go of the values in them that were only needed to
+ * look them up.
+ * <p>
+ * The Dimension lookup step only pre-loads this cache when it doesn't update the dimension. When it does, new versions
+ * are inserted in the table and looked up with the step's regular cache, so rows are never added to this one while
+ * the transformation runs. {@link #addRow(Object[])} keeps the index up to date for other callers.
  *
  * @author matt
  */
@@ -46,6 +59,9 @@ public class DimensionCache implements Comparator<Object[]> {
   private int[] keyIndexes;
   private int fromDateIndex;
   private int toDateIndex;
+  private DimensionVersionIndex versionIndex;
+  private Object[] indexKey;
+  private boolean released;
 
   /**
    * Create a new dimension cache object
@@ -67,8 +83,11 @@ public class DimensionCache implements Comparator<Object[]> {
    *
    * @param row the row to add
    */
-  public void addRow( Object[] row ) {
+  public void addRow( Object[] row ) throws HopException {
     rowCache.add( row );
+    if ( versionIndex != null ) {
+      versionIndex.addVersion( getIndexKey( row ), getFrom( row ), getTo( row ), rowCache.size() - 1 );
+    }
   }
 
   /**
@@ -88,16 +107,111 @@ public class DimensionCache implements Comparator<Object[]> {
    * @param row   the row to add
    */
   public void addRow( int index, Object[] row ) {
+    checkNotReleased();
     rowCache.add( index, row );
+    // The rows after the index moved: back to searching the sorted list
+    versionIndex = null;
+  }
+
+  /**
+   * Index the rows in the cache on natural key and date range. The rows are then looked up through the index and new
+   * rows added with {@link #addRow(Object[])} are indexed as well. When the natural key can't be indexed, for example
+   * because a string in it is compared ignoring case, the rows are sorted instead and {@link #getVersionIndex()} stays
+   * null.
+   *
+   * @throws HopException in case there are conversion errors while indexing the rows
+   * @see SerializedKeyIndex#canIndex(RowMetaInterface)
+   */
+  public void indexRows() throws HopException {
+    RowMetaInterface keyMeta = new RowMeta();
+    for ( int keyIndex : keyIndexes ) {
+      keyMeta.addValueMeta( rowMeta.getValueMeta( keyIndex ) );
+    }
+    if ( !SerializedKeyIndex.canIndex( keyMeta ) ) {
+      sortRows();
+      return;
+    }
+    indexKey = new Object[ keyIndexes.length ];
+    DimensionVersionIndex index = new DimensionVersionIndex( keyMeta, rowCache.size() );
+
+    // Reserving first keeps the versions of a key together, whatever the order of the rows
+    //
+    for ( Object[] row : rowCache ) {
+      index.reserveVersion( getIndexKey( row ) );
+    }
+    for ( int i = 0; i < rowCache.size(); i++ ) {
+      Object[] row = rowCache.get( i );
+      index.addVersion( getIndexKey( row ), getFrom( row ), getTo( row ), i );
+    }
+    versionIndex = index;
+  }
+
+  /**
+   * Let go of the values in the cached rows that are not on one of the given field indexes, typically the natural key
+   * and the date range that the index now holds. The rows keep their length, the released values are set to null.
+   * After this the rows can only be looked up through the index: they can't be sorted or inserted on a position.
+   *
+   * @param keptIndexes the field indexes of the values that are still returned with {@link #getRow(int)}
+   */
+  public void releaseIndexedValues( int[] keptIndexes ) {
+    if ( versionIndex == null ) {
+      throw new IllegalStateException( "The rows need to be indexed before their values can be released" );
+    }
+    boolean[] kept = new boolean[ rowMeta.size() ];
+    for ( int keptIndex : keptIndexes ) {
+      kept[ keptIndex ] = true;
+    }
+    for ( Object[] row : rowCache ) {
+      for ( int i = 0; i < row.length; i++ ) {
+        if ( i >= kept.length || !kept[ i ] ) {
+          row[ i ] = null;
+        }
+      }
+    }
+    released = true;
+  }
+
+  private void checkNotReleased() {
+    if ( released ) {
+      throw new IllegalStateException( "The indexed values of the rows were released, they can't be sorted any more" );
+    }
+  }
+
+  /**
+   * @return the index on natural key and date range, or null if the rows are looked up in the sorted list
+   */
+  public DimensionVersionIndex getVersionIndex() {
+    return versionIndex;
+  }
+
+  private Object[] getIndexKey( Object[] row ) {
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      indexKey[ i ] = row[ keyIndexes[ i ] ];
+    }
+    return indexKey;
+  }
+
+  private long getFrom( Object[] row ) throws HopException {
+    Date date = rowMeta.getDate( row, fromDateIndex );
+    return date == null ? DimensionVersionIndex.NEGATIVE_INFINITY : date.getTime();
+  }
+
+  private long getTo( Object[] row ) throws HopException {
+    Date date = rowMeta.getDate( row, toDateIndex );
+    return date == null ? DimensionVersionIndex.POSITIVE_INFINITY : date.getTime();
   }
 
   /**
    * Looks up a row in the (sorted) cache.
    *
    * @param lookupRowData The data of the lookup row. Make sure that on the index of the from date, you put the lookup date.
+   * @return the index of the row found, negative if there is no row for the natural key valid on the lookup date
    * @throws a HopException in case there are conversion errors during the lookup of the row
    */
   public int lookupRow( Object[] lookupRowData ) throws HopException {
+    if ( versionIndex != null ) {
+      return versionIndex.lookup( getIndexKey( lookupRowData ), getFrom( lookupRowData ) );
+    }
     try {
       // First perform the lookup!
       //
@@ -174,6 +288,7 @@ public class DimensionCache implements Comparator<Object[]> {
   }
 
   public void sortRows() {
+    checkNotReleased();
     Collections.sort( rowCache, this );
   }
 
@@ -256,6 +371,8 @@ public class DimensionCache implements Comparator<Object[]> {
    */
   public void setRowCache( List<Object[]> rowCache ) {
     this.rowCache = rowCache;
+    this.versionIndex = null;
+    this.released = false;
   }
 
   /**
@@ -180,6 +180,9 @@ public class DimensionLookup extends BaseStep implements StepInterface {
 
       }
 
+      // The pre-load cache only holds the versions that were in the table at the start, so it can't be used while
+      // updating the dimension: the versions inserted along the way are looked up with the regular cache.
+      //
       if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
         preloadCache();
       } else {
@@ -309,9 +312,14 @@ public class DimensionLookup extends BaseStep implements StepInterface {
         new DimensionCache( rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex );
       data.preloadCache.setRowCache( rows );
 
-      logDetailed( "Sorting the cache rows..." );
-      data.preloadCache.sortRows();
-      logDetailed( "Sorting of cached rows finished." );
+      logDetailed( "Indexing the cache rows..." );
+      data.preloadCache.indexRows();
+      DimensionVersionIndex versionIndex = data.preloadCache.getVersionIndex();
+      if ( versionIndex == null ) {
+        logDetailed( "The natural key can't be indexed, the cache rows were sorted instead." );
+      } else {
+        releaseIndexedValues( rowMeta, versionIndex );
+      }
 
       // Also see what indexes to take to populate the lookup row...
       // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
@@ -334,6 +342,29 @@ public class DimensionLookup extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * The natural keys and date ranges of the pre-loaded rows are in the index now. The output only takes the technical
+   * key and the values after the (skipped) version position of the returned row, see lookupValues(), so the rest of the
+   * values can go.
+   */
+  private void releaseIndexedValues( RowMetaInterface rowMeta, DimensionVersionIndex versionIndex ) {
+    int returnedValues = data.outputRowMeta.size() - data.inputRowMeta.size() - 1;
+    List<Integer> keptIndexes = new ArrayList<Integer>();
+    keptIndexes.add( 0 );
+    for ( int i = 2; i < 2 + returnedValues && i < rowMeta.size(); i++ ) {
+      keptIndexes.add( i );
+    }
+    int[] kept = new int[ keptIndexes.size() ];
+    for ( int i = 0; i < kept.length; i++ ) {
+      kept[ i ] = keptIndexes.get( i );
+    }
+    data.preloadCache.releaseIndexedValues( kept );
+
+    logDetailed( "Indexing of cached rows finished: " + versionIndex.getKeyCount() + " keys, "
+      + versionIndex.getVersionCount() + " versions, the index takes about " + versionIndex.getMemorySize() / 1024
+      + "KB. The rows only keep the " + kept.length + " returned values." );
+  }
+
   private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws HopException {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
 
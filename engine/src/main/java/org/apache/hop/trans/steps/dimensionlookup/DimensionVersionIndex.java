@@ -0,0 +1,239 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.dimensionlookup;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.util.SerializedKeyIndex;
+
+import java.util.Arrays;
+
+/**
+ * An index over all the versions of a slowly changing dimension. A natural key is found through a hash table, after
+ * which the version valid on a given date is found with a binary search on the start dates of its versions.
+ * <p>
+ * The natural keys are held in a {@link SerializedKeyIndex}, so only use it for keys where
+ * {@link SerializedKeyIndex#canIndex(RowMetaInterface)} holds. The versions of a key are kept next to each other in
+ * primitive arrays, as start date, end date and value, sorted on the start date. The segment of a key has room to grow,
+ * a new version is appended in place and only when the segment is full it moves to the end of the arrays with twice the
+ * room. Reserving the versions of all keys with {@link #reserveVersion(Object[])} before adding them lays the segments
+ * out without any gaps.
+ * <p>
+ * A version is valid from its start date (inclusive) up to its end date (exclusive). The dates are kept in milliseconds,
+ * {@link #NEGATIVE_INFINITY} and {@link #POSITIVE_INFINITY} stand for an open range.
+ */
+public class DimensionVersionIndex {
+
+  public static final long NEGATIVE_INFINITY = Long.MIN_VALUE;
+  public static final long POSITIVE_INFINITY = Long.MAX_VALUE;
+
+  /**
+   * Returned by {@link #lookup(Object[], long)} when there is no version of the key valid on the date
+   */
+  public static final int NOT_FOUND = -1;
+
+  private final SerializedKeyIndex keys;
+
+  // Per entry of the key index: the segment holding the versions of the key
+  //
+  private int[] segmentStarts;
+  private int[] segmentLengths;
+  private int[] segmentCapacities;
+
+  // The versions of all keys, segment by segment
+  //
+  private long[] dateFroms;
+  private long[] dateTos;
+  private int[] values;
+  private int versionSlots;
+  private int versionCount;
+
+  /**
+   * @param keyMeta      the layout of the natural key, the values are serialized in normal storage
+   * @param expectedKeys the number of natural keys to size the index for
+   */
+  public DimensionVersionIndex( RowMetaInterface keyMeta, int expectedKeys ) {
+    keys = new SerializedKeyIndex( keyMeta, expectedKeys );
+
+    int entries = Math.max( 16, Math.min( expectedKeys, 1 << 20 ) );
+    segmentStarts = new int[ entries ];
+    segmentLengths = new int[ entries ];
+    segmentCapacities = new int[ entries ];
+
+    dateFroms = new long[ entries ];
+    dateTos = new long[ entries ];
+    values = new int[ entries ];
+  }
+
+  /**
+   * Make room for one more version of a key, before any version of the key is added.
+   *
+   * @param key the natural key values
+   */
+  public void reserveVersion( Object[] key ) throws HopException {
+    int entry = findOrAddKey( key );
+    if ( segmentStarts[ entry ] >= 0 ) {
+      throw new IllegalStateException( "Versions of this key were already added" );
+    }
+    segmentCapacities[ entry ]++;
+  }
+
+  /**
+   * Add a version of a natural key.
+   *
+   * @param key      the natural key values
+   * @param dateFrom the start of the validity of the version, in milliseconds
+   * @param dateTo   the end of the validity of the version, in milliseconds
+   * @param value    the value to return for the version, not negative
+   */
+  public void addVersion( Object[] key, long dateFrom, long dateTo, int value ) throws HopException {
+    int entry = findOrAddKey( key );
+    if ( segmentStarts[ entry ] < 0 ) {
+      segmentStarts[ entry ] = allocate( Math.max( 1, segmentCapacities[ entry ] ) );
+      segmentCapacities[ entry ] = Math.max( 1, segmentCapacities[ entry ] );
+    } else if ( segmentLengths[ entry ] == segmentCapacities[ entry ] ) {
+      grow( entry );
+    }
+
+    int start = segmentStarts[ entry ];
+    int length = segmentLengths[ entry ];
+
+    // Versions usually arrive in order: look for the insertion point from the back
+    //
+    int position = start + length;
+    while ( position > start && dateFroms[ position - 1 ] > dateFrom ) {
+      position--;
+    }
+    int moved = start + length - position;
+    if ( moved > 0 ) {
+      System.arraycopy( dateFroms, position, dateFroms, position + 1, moved );
+      System.arraycopy( dateTos, position, dateTos, position + 1, moved );
+      System.arraycopy( values, position, values, position + 1, moved );
+    }
+    dateFroms[ position ] = dateFrom;
+    dateTos[ position ] = dateTo;
+    values[ position ] = value;
+    segmentLengths[ entry ]++;
+    versionCount++;
+  }
+
+  /**
+   * @param key  the natural key values
+   * @param date the date on which the version needs to be valid, in milliseconds
+   * @return the value of the version of the key valid on the date or {@link #NOT_FOUND}
+   */
+  public int lookup( Object[] key, long date ) throws HopException {
+    int entry = keys.find( key );
+    if ( entry == SerializedKeyIndex.NOT_FOUND || segmentStarts[ entry ] < 0 ) {
+      return NOT_FOUND;
+    }
+
+    // The last version starting on or before the date
+    //
+    int low = segmentStarts[ entry ];
+    int high = low + segmentLengths[ entry ] - 1;
+    int found = -1;
+    while ( low <= high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( dateFroms[ middle ] <= date ) {
+        found = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    if ( found >= 0 && date < dateTos[ found ] ) {
+      return values[ found ];
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * @return the number of natural keys in the index
+   */
+  public int getKeyCount() {
+    return keys.size();
+  }
+
+  /**
+   * @return the number of versions in the index
+   */
+  public int getVersionCount() {
+    return versionCount;
+  }
+
+  /**
+   * @return an estimate of the memory used by the index, in bytes
+   */
+  public long getMemorySize() {
+    return keys.getMemorySize() + 4L * 3 * segmentStarts.length + ( 8L + 8L + 4L ) * dateFroms.length;
+  }
+
+  private int findOrAddKey( Object[] key ) throws HopException {
+    int keyCount = keys.size();
+    int entry = keys.add( key );
+    if ( entry < keyCount ) {
+      return entry;
+    }
+
+    if ( entry == segmentStarts.length ) {
+      int entries = segmentStarts.length + ( segmentStarts.length >> 1 );
+      segmentStarts = Arrays.copyOf( segmentStarts, entries );
+      segmentLengths = Arrays.copyOf( segmentLengths, entries );
+      segmentCapacities = Arrays.copyOf( segmentCapacities, entries );
+    }
+    segmentStarts[ entry ] = -1;
+    segmentLengths[ entry ] = 0;
+    segmentCapacities[ entry ] = 0;
+    return entry;
+  }
+
+  private void grow( int entry ) {
+    int start = segmentStarts[ entry ];
+    int capacity = segmentCapacities[ entry ];
+    if ( start + capacity == versionSlots ) {
+      // The last segment simply extends
+      //
+      allocate( capacity );
+    } else {
+      int newStart = allocate( capacity * 2 );
+      System.arraycopy( dateFroms, start, dateFroms, newStart, capacity );
+      System.arraycopy( dateTos, start, dateTos, newStart, capacity );
+      System.arraycopy( values, start, values, newStart, capacity );
+      segmentStarts[ entry ] = newStart;
+    }
+    segmentCapacities[ entry ] = capacity * 2;
+  }
+
+  private int allocate( int slots ) {
+    int start = versionSlots;
+    if ( start + slots > dateFroms.length ) {
+      int size = Math.max( start + slots, dateFroms.length + ( dateFroms.length >> 1 ) );
+      dateFroms = Arrays.copyOf( dateFroms, size );
+      dateTos = Arrays.copyOf( dateTos, size );
+      values = Arrays.copyOf( values, size );
+    }
+    versionSlots += slots;
+    return start;
+  }
+}
@@ -28,9 +28,11 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.trans.Trans;
@@ -80,6 +82,11 @@ public class HTTP extends BaseStep implements StepInterface {
   }
 
   private Object[] execHttp( RowMetaInterface rowMeta, Object[] row ) throws HopException {
+    lookupArguments( rowMeta );
+    return callHttpService( rowMeta, row );
+  }
+
+  private void lookupArguments( RowMetaInterface rowMeta ) throws HopException {
     if ( first ) {
       first = false;
       data.argnrs = new int[ meta.getArgumentField().length ];
@@ -93,160 +100,189 @@ public class HTTP extends BaseStep implements StepInterface {
         }
       }
     }
-
-    return callHttpService( rowMeta, row );
   }
 
   @VisibleForTesting
   Object[] callHttpService( RowMetaInterface rowMeta, Object[] rowData ) throws HopException {
-    HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
-
-    if ( data.realConnectionTimeout > -1 ) {
-      clientBuilder.setConnectionTimeout( data.realConnectionTimeout );
-    }
-    if ( data.realSocketTimeout > -1 ) {
-      clientBuilder.setSocketTimeout( data.realSocketTimeout );
-    }
-    if ( StringUtils.isNotBlank( data.realHttpLogin ) ) {
-      clientBuilder.setCredentials( data.realHttpLogin, data.realHttpPassword );
+    URI uri = null;
+    try {
+      HttpGet method = createRequest( rowMeta, rowData );
+      uri = method.getURI();
+      return addResponse( rowMeta, rowData, executeRequest( method ) );
+    } catch ( Exception e ) {
+      throw requestError( uri, e );
     }
-    if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
-      clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
+  }
+
+  private HopException requestError( URI uri, Exception e ) {
+    if ( e instanceof UnknownHostException ) {
+      return new HopException( BaseMessages.getString( PKG, "HTTP.Error.UnknownHostException", e.getMessage() ) );
     }
+    return new HopException( BaseMessages.getString( PKG, "HTTP.Log.UnableGetResult", uri ), e );
+  }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+  /**
+   * The client is built once per step copy. It runs on the shared connection pool of the {@link HttpClientManager}
+   * and is never closed, since that would shut down the pool.
+   */
+  private CloseableHttpClient getHttpClient() {
+    if ( data.httpClient == null ) {
+      HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
 
-    // Prepare HTTP get
-    URI uri = null;
-    try {
-      URIBuilder uriBuilder = constructUrlBuilder( rowMeta, rowData );
-
-      uri = uriBuilder.build();
-      HttpGet method = new HttpGet( uri );
-
-      // Add Custom HTTP headers
-      if ( data.useHeaderParameters ) {
-        for ( int i = 0; i < data.header_parameters_nrs.length; i++ ) {
-          method.addHeader( data.headerParameters[ i ].getName(), data.inputRowMeta.getString( rowData,
-            data.header_parameters_nrs[ i ] ) );
-          if ( isDebug() ) {
-            log.logDebug( BaseMessages.getString( PKG, "HTTPDialog.Log.HeaderValue",
-              data.headerParameters[ i ].getName(), data.inputRowMeta
-                .getString( rowData, data.header_parameters_nrs[ i ] ) ) );
-          }
-        }
+      if ( data.realConnectionTimeout > -1 ) {
+        clientBuilder.setConnectionTimeout( data.realConnectionTimeout );
       }
-
-      Object[] newRow = null;
-      if ( rowData != null ) {
-        newRow = rowData.clone();
+      if ( data.realSocketTimeout > -1 ) {
+        clientBuilder.setSocketTimeout( data.realSocketTimeout );
       }
-      // Execute request
-      CloseableHttpResponse httpResponse = null;
-      try {
-        // used for calculating the responseTime
-        long startTime = System.currentTimeMillis();
-
-        // Preemptive authentication
-        if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
-          HttpHost target = new HttpHost( data.realProxyHost, data.realProxyPort, "http" );
-          // Create AuthCache instance
-          AuthCache authCache = new BasicAuthCache();
-          // Generate BASIC scheme object and add it to the local
-          // auth cache
-          BasicScheme basicAuth = new BasicScheme();
-          authCache.put( target, basicAuth );
-          // Add AuthCache to the execution context
-          HttpClientContext localContext = HttpClientContext.create();
-          localContext.setAuthCache( authCache );
-          httpResponse = httpClient.execute( target, method, localContext );
-        } else {
-          httpResponse = httpClient.execute( method );
-        }
-        // calculate the responseTime
-        long responseTime = System.currentTimeMillis() - startTime;
-        if ( log.isDetailed() ) {
-          log.logDetailed( BaseMessages.getString( PKG, "HTTP.Log.ResponseTime", responseTime, uri ) );
-        }
-        int statusCode = requestStatusCode( httpResponse );
-        // The status code
+      if ( StringUtils.isNotBlank( data.realHttpLogin ) ) {
+        clientBuilder.setCredentials( data.realHttpLogin, data.realHttpPassword );
+      }
+      if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
+        clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
+      }
+
+      data.httpClient = clientBuilder.build();
+    }
+    return data.httpClient;
+  }
+
+  private HttpGet createRequest( RowMetaInterface rowMeta, Object[] rowData ) throws Exception {
+    // Prepare HTTP get
+    URIBuilder uriBuilder = constructUrlBuilder( rowMeta, rowData );
+
+    HttpGet method = new HttpGet( uriBuilder.build() );
+
+    // Add Custom HTTP headers
+    if ( data.useHeaderParameters ) {
+      for ( int i = 0; i < data.header_parameters_nrs.length; i++ ) {
+        method.addHeader( data.headerParameters[ i ].getName(), data.inputRowMeta.getString( rowData,
+          data.header_parameters_nrs[ i ] ) );
         if ( isDebug() ) {
-          logDebug( BaseMessages.getString( PKG, "HTTP.Log.ResponseStatusCode", "" + statusCode ) );
+          log.logDebug( BaseMessages.getString( PKG, "HTTPDialog.Log.HeaderValue",
+            data.headerParameters[ i ].getName(), data.inputRowMeta
+              .getString( rowData, data.header_parameters_nrs[ i ] ) ) );
         }
+      }
+    }
+    return method;
+  }
 
-        String body;
-        switch ( statusCode ) {
-          case HttpURLConnection.HTTP_UNAUTHORIZED:
-            throw new HopStepException( BaseMessages
-              .getString( PKG, "HTTP.Exception.Authentication", data.realUrl ) );
-          case -1:
-            throw new HopStepException( BaseMessages
-              .getString( PKG, "HTTP.Exception.IllegalStatusCode", data.realUrl ) );
-          case HttpURLConnection.HTTP_NO_CONTENT:
-            body = "";
-            break;
-          default:
-            HttpEntity entity = httpResponse.getEntity();
-            if ( entity != null ) {
-              body = StringUtils.isEmpty( meta.getEncoding() ) ? EntityUtils.toString( entity ) : EntityUtils.toString( entity, meta.getEncoding() );
-            } else {
-              body = "";
-            }
-            break;
-        }
+  /**
+   * Sends the request and reads the response. This doesn't touch the row metadata, so it can run on the request
+   * threads of the {@link HttpRequestEngine}.
+   */
+  private Response executeRequest( HttpGet method ) throws Exception {
+    CloseableHttpClient httpClient = getHttpClient();
 
-        Header[] headers = searchForHeaders( httpResponse );
+    // Execute request
+    CloseableHttpResponse httpResponse = null;
+    try {
+      // used for calculating the responseTime
+      long startTime = System.currentTimeMillis();
+
+      // Preemptive authentication
+      if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
+        HttpHost target = new HttpHost( data.realProxyHost, data.realProxyPort, "http" );
+        // Create AuthCache instance
+        AuthCache authCache = new BasicAuthCache();
+        // Generate BASIC scheme object and add it to the local
+        // auth cache
+        BasicScheme basicAuth = new BasicScheme();
+        authCache.put( target, basicAuth );
+        // Add AuthCache to the execution context
+        HttpClientContext localContext = HttpClientContext.create();
+        localContext.setAuthCache( authCache );
+        httpResponse = httpClient.execute( target, method, localContext );
+      } else {
+        httpResponse = httpClient.execute( method );
+      }
+      // calculate the responseTime
+      long responseTime = System.currentTimeMillis() - startTime;
+      if ( log.isDetailed() ) {
+        log.logDetailed( BaseMessages.getString( PKG, "HTTP.Log.ResponseTime", responseTime, method.getURI() ) );
+      }
+      int statusCode = requestStatusCode( httpResponse );
+      // The status code
+      if ( isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "HTTP.Log.ResponseStatusCode", "" + statusCode ) );
+      }
 
-        JSONObject json = new JSONObject();
-        for ( Header header : headers ) {
-          Object previousValue = json.get( header.getName() );
-          if ( previousValue == null ) {
-            json.put( header.getName(), header.getValue() );
-          } else if ( previousValue instanceof List ) {
-            List<String> list = (List<String>) previousValue;
-            list.add( header.getValue() );
+      String body;
+      switch ( statusCode ) {
+        case HttpURLConnection.HTTP_UNAUTHORIZED:
+          throw new HopStepException( BaseMessages
+            .getString( PKG, "HTTP.Exception.Authentication", data.realUrl ) );
+        case -1:
+          throw new HopStepException( BaseMessages
+            .getString( PKG, "HTTP.Exception.IllegalStatusCode", data.realUrl ) );
+        case HttpURLConnection.HTTP_NO_CONTENT:
+          body = "";
+          break;
+        default:
+          HttpEntity entity = httpResponse.getEntity();
+          if ( entity != null ) {
+            body = StringUtils.isEmpty( meta.getEncoding() ) ? EntityUtils.toString( entity ) : EntityUtils.toString( entity, meta.getEncoding() );
           } else {
-            ArrayList<String> list = new ArrayList<String>();
-            list.add( (String) previousValue );
-            list.add( header.getValue() );
-            json.put( header.getName(), list );
+            body = "";
           }
-        }
-        String headerString = json.toJSONString();
+          break;
+      }
 
-        int returnFieldsOffset = rowMeta.size();
-        if ( !Utils.isEmpty( meta.getFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, body );
-          returnFieldsOffset++;
-        }
+      Header[] headers = searchForHeaders( httpResponse );
 
-        if ( !Utils.isEmpty( meta.getResultCodeFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( statusCode ) );
-          returnFieldsOffset++;
-        }
-        if ( !Utils.isEmpty( meta.getResponseTimeFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( responseTime ) );
-          returnFieldsOffset++;
-        }
-        if ( !Utils.isEmpty( meta.getResponseHeaderFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, headerString );
+      JSONObject json = new JSONObject();
+      for ( Header header : headers ) {
+        Object previousValue = json.get( header.getName() );
+        if ( previousValue == null ) {
+          json.put( header.getName(), header.getValue() );
+        } else if ( previousValue instanceof List ) {
+          List<String> list = (List<String>) previousValue;
+          list.add( header.getValue() );
+        } else {
+          ArrayList<String> list = new ArrayList<String>();
+          list.add( (String) previousValue );
+          list.add( header.getValue() );
+          json.put( header.getName(), list );
         }
+      }
 
-      } finally {
-        if ( httpResponse != null ) {
-          httpResponse.close();
-        }
-        // Release current connection to the connection pool once you are done
-        method.releaseConnection();
+      return new Response( statusCode, body, responseTime, json.toJSONString() );
+    } finally {
+      if ( httpResponse != null ) {
+        httpResponse.close();
       }
-      return newRow;
-    } catch ( UnknownHostException uhe ) {
-      throw new HopException( BaseMessages.getString( PKG, "HTTP.Error.UnknownHostException", uhe.getMessage() ) );
-    } catch ( Exception e ) {
-      throw new HopException( BaseMessages.getString( PKG, "HTTP.Log.UnableGetResult", uri ), e );
+      // Release current connection to the connection pool once you are done
+      method.releaseConnection();
     }
   }
 
+  private Object[] addResponse( RowMetaInterface rowMeta, Object[] rowData, Response response ) {
+    Object[] newRow = null;
+    if ( rowData != null ) {
+      newRow = rowData.clone();
+    }
+
+    int returnFieldsOffset = rowMeta.size();
+    if ( !Utils.isEmpty( meta.getFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, response.body );
+      returnFieldsOffset++;
+    }
+
+    if ( !Utils.isEmpty( meta.getResultCodeFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( response.statusCode ) );
+      returnFieldsOffset++;
+    }
+    if ( !Utils.isEmpty( meta.getResponseTimeFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( response.responseTime ) );
+      returnFieldsOffset++;
+    }
+    if ( !Utils.isEmpty( meta.getResponseHeaderFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, response.headers );
+    }
+    return newRow;
+  }
+
   private URIBuilder constructUrlBuilder( RowMetaInterface outputRowMeta, Object[] row ) throws HopValueException,
     HopException {
     URIBuilder uriBuilder;
@@ -293,6 +329,9 @@ public class HTTP extends BaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.requestEngine != null && !putFinishedRequests( true ) ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -351,6 +390,10 @@ public class HTTP extends BaseStep implements StepInterface {
 
     } // end if first
 
+    if ( data.requestEngine != null ) {
+      return submitRequest( r );
+    }
+
     try {
       Object[] outputRowData = execHttp( getInputRowMeta(), r ); // add new values to the row
       putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
@@ -361,25 +404,95 @@ public class HTTP extends BaseStep implements StepInterface {
         }
       }
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleRowError( r, e );
+    }
 
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "HTTP.ErrorInStepRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTP001" );
-      }
+    return true;
+  }
+
+  private boolean handleRowError( Object[] r, HopException e ) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError( BaseMessages.getString( PKG, "HTTP.ErrorInStepRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if ( sendToErrorRow ) {
+      // Simply add this row to the error row
+      putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTP001" );
+    }
+    return true;
+  }
+
+  /**
+   * Hands the row to the request engine and passes on the rows whose responses came in, in input order.
+   */
+  private boolean submitRequest( Object[] r ) throws HopException {
+    URI uri = null;
+    try {
+      lookupArguments( getInputRowMeta() );
+      getHttpClient();
+      HttpGet method = createRequest( getInputRowMeta(), r );
+      uri = method.getURI();
+      data.requestEngine.submit( new Request( r, uri ), () -> executeRequest( method ) );
+    } catch ( HopException e ) {
+      return handleRowError( r, e );
+    } catch ( Exception e ) {
+      return handleRowError( r, requestError( uri, e ) );
     }
+    return putFinishedRequests( false );
+  }
+
+  /**
+   * Passes on the rows of the finished requests. Waits for requests while the engine is full or, at the end of the
+   * input, until all requests are done.
+   *
+   * @return false if the step stopped on an error
+   */
+  private boolean putFinishedRequests( boolean all ) throws HopException {
+    try {
+      while ( !isStopped() ) {
+        HttpRequestEngine.Call<Request, Response> call;
+        if ( all ? data.requestEngine.getOutstanding() > 0 : data.requestEngine.isFull() ) {
+          call = data.requestEngine.take( 100 );
+          if ( call == null ) {
+            continue;
+          }
+        } else {
+          call = data.requestEngine.poll();
+          if ( call == null ) {
+            return true;
+          }
+        }
+
+        Object[] r = call.getTag().row;
+        try {
+          if ( call.getError() != null ) {
+            throw requestError( call.getTag().uri, call.getError() );
+          }
+          putRow( data.outputRowMeta, addResponse( getInputRowMeta(), r, call.getResult() ) );
 
+          if ( checkFeedback( getLinesRead() ) ) {
+            if ( isDetailed() ) {
+              logDetailed( BaseMessages.getString( PKG, "HTTP.LineNumber" ) + getLinesRead() );
+            }
+          }
+        } catch ( HopException e ) {
+          if ( !handleRowError( r, e ) ) {
+            return false;
+          }
+        }
+      }
+    } catch ( InterruptedException e ) {
+      throw new HopException( e );
+    }
     return true;
   }
 
@@ -395,7 +508,18 @@ public class HTTP extends BaseStep implements StepInterface {
       data.realHttpPassword = Utils.resolvePassword( variables, meta.getHttpPassword() );
 
       data.realSocketTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
-      data.realConnectionTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
+      data.realConnectionTimeout = Const.toInt( environmentSubstitute( meta.getConnectionTimeout() ), -1 );
+
+      int concurrentRequests = Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ), 1 );
+      int maxRetries = Const.toInt( environmentSubstitute( meta.getMaxRetries() ), 0 );
+      double requestsPerSecond = Const.toDouble( environmentSubstitute( meta.getRequestsPerSecond() ), 0 );
+      if ( concurrentRequests > 1 || maxRetries > 0 || requestsPerSecond > 0 ) {
+        data.requestEngine = new HttpRequestEngine<>( getStepname(), concurrentRequests );
+        data.requestEngine.setRetries( maxRetries, Const.toLong( environmentSubstitute( meta.getRetryDelay() ),
+          HTTPMeta.DEFAULT_RETRY_DELAY ),
+          ( response, idempotent ) -> HttpRequestEngine.isRetryableStatus( response.statusCode, idempotent ) );
+        data.requestEngine.setMaxRequestsPerSecond( requestsPerSecond );
+      }
 
       return true;
     }
@@ -406,7 +530,47 @@ public class HTTP extends BaseStep implements StepInterface {
     meta = (HTTPMeta) smi;
     data = (HTTPData) sdi;
 
+    if ( data.requestEngine != null ) {
+      data.requestEngine.shutdown();
+      LatencyHistogram latency = data.requestEngine.getLatency();
+      if ( isDetailed() && latency.getCount() > 0 ) {
+        logDetailed( BaseMessages.getString( PKG, "HTTP.Log.RequestStatistics", latency.getCount(),
+          data.requestEngine.getRetries(), latency.getValueAtPercentile( 50.0 ) / 1000000L,
+          latency.getValueAtPercentile( 99.0 ) / 1000000L, latency.getMax() / 1000000L ) );
+      }
+      data.requestEngine = null;
+    }
+
     super.dispose( smi, sdi );
   }
 
+  /**
+   * A row waiting for its response in the request engine
+   */
+  static class Request {
+    final Object[] row;
+    final URI uri;
+
+    Request( Object[] row, URI uri ) {
+      this.row = row;
+      this.uri = uri;
+    }
+  }
+
+  /**
+   * What is kept of a response to add it to the row
+   */
+  static class Response {
+    final int statusCode;
+    final String body;
+    final long responseTime;
+    final String headers;
+
+    Response( int statusCode, String body, long responseTime, String headers ) {
+      this.statusCode = statusCode;
+      this.body = body;
+      this.responseTime = responseTime;
+      this.headers = headers;
+    }
+  }
 }
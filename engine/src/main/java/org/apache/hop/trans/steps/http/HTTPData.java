@@ -23,9 +23,11 @@
 package org.apache.hop.trans.steps.http;
 
 import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 /**
  * @author Matt
@@ -49,6 +51,9 @@ public class HTTPData extends BaseStepData implements StepDataInterface {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  public CloseableHttpClient httpClient;
+  public HttpRequestEngine<HTTP.Request, HTTP.Response> requestEngine;
+
   /**
    * Default constructor.
    */
@@ -64,10 +64,21 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  // the number of requests a step copy keeps in flight
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+
+  // the delay before the first retry of a failed request (milliseconds), doubled for every next retry
+  public static final int DEFAULT_RETRY_DELAY = 1000;
+
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
 
+  private String concurrentRequests;
+  private String maxRetries;
+  private String retryDelay;
+  private String requestsPerSecond;
+
   /**
    * URL / service to be called
    */
@@ -158,6 +169,62 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
     this.socketTimeout = socketTimeout;
   }
 
+  /**
+   * @return the number of requests a step copy keeps in flight
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests the number of requests a step copy keeps in flight
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return the number of times a failed request is retried
+   */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @param maxRetries the number of times a failed request is retried
+   */
+  public void setMaxRetries( String maxRetries ) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * @return the delay before the first retry in milliseconds
+   */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /**
+   * @param retryDelay the delay before the first retry in milliseconds
+   */
+  public void setRetryDelay( String retryDelay ) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * @return the maximum number of requests per second of a step copy, empty or 0 for no limit
+   */
+  public String getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * @param requestsPerSecond the maximum number of requests per second of a step copy, empty or 0 for no limit
+   */
+  public void setRequestsPerSecond( String requestsPerSecond ) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
   /**
    * @return Returns the argument.
    */
@@ -304,6 +371,10 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
     socketTimeout = String.valueOf( DEFAULT_SOCKET_TIMEOUT );
     connectionTimeout = String.valueOf( DEFAULT_CONNECTION_TIMEOUT );
     closeIdleConnectionsTime = String.valueOf( DEFAULT_CLOSE_CONNECTIONS_TIME );
+    concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    maxRetries = "0";
+    retryDelay = String.valueOf( DEFAULT_RETRY_DELAY );
+    requestsPerSecond = "";
     int i;
     int nrargs;
     int nrquery;
@@ -372,6 +443,10 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "socketTimeout", socketTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "connectionTimeout", connectionTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "closeIdleConnectionsTime", closeIdleConnectionsTime ) );
+    retval.append( "    " + XMLHandler.addTagValue( "concurrentRequests", concurrentRequests ) );
+    retval.append( "    " + XMLHandler.addTagValue( "maxRetries", maxRetries ) );
+    retval.append( "    " + XMLHandler.addTagValue( "retryDelay", retryDelay ) );
+    retval.append( "    " + XMLHandler.addTagValue( "requestsPerSecond", requestsPerSecond ) );
 
     retval.append( "    <lookup>" ).append( Const.CR );
 
@@ -416,6 +491,10 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
       socketTimeout = XMLHandler.getTagValue( stepnode, "socketTimeout" );
       connectionTimeout = XMLHandler.getTagValue( stepnode, "connectionTimeout" );
       closeIdleConnectionsTime = XMLHandler.getTagValue( stepnode, "closeIdleConnectionsTime" );
+      concurrentRequests = XMLHandler.getTagValue( stepnode, "concurrentRequests" );
+      maxRetries = XMLHandler.getTagValue( stepnode, "maxRetries" );
+      retryDelay = XMLHandler.getTagValue( stepnode, "retryDelay" );
+      requestsPerSecond = XMLHandler.getTagValue( stepnode, "requestsPerSecond" );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrargs = XMLHandler.countNodes( lookup, "arg" );
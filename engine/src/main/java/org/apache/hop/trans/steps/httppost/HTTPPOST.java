@@ -28,8 +28,10 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.core.util.StringUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -53,7 +55,7 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.FileEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
@@ -63,7 +65,6 @@ import org.apache.http.util.EntityUtils;
 import org.json.simple.JSONObject;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
@@ -98,245 +99,270 @@ public class HTTPPOST extends BaseStep implements StepInterface {
   }
 
   private Object[] callHTTPPOST( Object[] rowData ) throws HopException {
-    HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
-
-    if ( data.realConnectionTimeout > -1 ) {
-      clientBuilder.setConnectionTimeout( data.realConnectionTimeout );
-    }
-    if ( data.realSocketTimeout > -1 ) {
-      clientBuilder.setSocketTimeout( data.realSocketTimeout );
+    // get dynamic url ?
+    if ( meta.isUrlInField() ) {
+      data.realUrl = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
     }
-    if ( StringUtils.isNotBlank( data.realHttpLogin ) ) {
-      clientBuilder.setCredentials( data.realHttpLogin, data.realHttpPassword );
+    String url = data.realUrl;
+    try {
+      HttpPost post = createRequest( url, rowData );
+      return addResponse( rowData, executeRequest( url, post ) );
+    } catch ( Exception e ) {
+      throw requestError( url, e );
     }
-    if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
-      clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
+  }
+
+  private HopException requestError( String url, Exception e ) {
+    if ( e instanceof UnknownHostException ) {
+      return new HopException( BaseMessages.getString( PKG,
+        "HTTPPOST.Error.UnknownHostException", e.getMessage() ) );
     }
+    return new HopException( BaseMessages.getString( PKG, "HTTPPOST.Error.CanNotReadURL", url ), e );
+  }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+  /**
+   * The client is built once per step copy. It runs on the shared connection pool of the {@link HttpClientManager}
+   * and is never closed, since that would shut down the pool.
+   */
+  private CloseableHttpClient getHttpClient() {
+    if ( data.httpClient == null ) {
+      HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
 
-    // get dynamic url ?
-    if ( meta.isUrlInField() ) {
-      data.realUrl = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
+      if ( data.realConnectionTimeout > -1 ) {
+        clientBuilder.setConnectionTimeout( data.realConnectionTimeout );
+      }
+      if ( data.realSocketTimeout > -1 ) {
+        clientBuilder.setSocketTimeout( data.realSocketTimeout );
+      }
+      if ( StringUtils.isNotBlank( data.realHttpLogin ) ) {
+        clientBuilder.setCredentials( data.realHttpLogin, data.realHttpPassword );
+      }
+      if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
+        clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
+      }
+
+      data.httpClient = clientBuilder.build();
     }
+    return data.httpClient;
+  }
+
+  private HttpPost createRequest( String url, Object[] rowData ) throws Exception {
     // Prepare HTTP POST
-    FileInputStream fis = null;
-    try {
-      if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.ConnectingToURL", data.realUrl ) );
-      }
-      URIBuilder uriBuilder = new URIBuilder( data.realUrl );
-      HttpPost post = new HttpPost( uriBuilder.build() );
-
-      // Specify content type and encoding
-      // If content encoding is not explicitly specified
-      // ISO-8859-1 is assumed by the POSTMethod
-      if ( !data.contentTypeHeaderOverwrite ) { // can be overwritten now
-        if ( Utils.isEmpty( data.realEncoding ) ) {
-          post.setHeader( CONTENT_TYPE, CONTENT_TYPE_TEXT_XML );
-          if ( isDebug() ) {
-            logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.HeaderValue", CONTENT_TYPE, CONTENT_TYPE_TEXT_XML ) );
-          }
-        } else {
-          post.setHeader( CONTENT_TYPE, CONTENT_TYPE_TEXT_XML + "; " + data.realEncoding );
-          if ( isDebug() ) {
-            logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.HeaderValue", CONTENT_TYPE, CONTENT_TYPE_TEXT_XML
-              + "; " + data.realEncoding ) );
-          }
+    if ( isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.ConnectingToURL", url ) );
+    }
+    URIBuilder uriBuilder = new URIBuilder( url );
+    HttpPost post = new HttpPost( uriBuilder.build() );
+
+    // Specify content type and encoding
+    // If content encoding is not explicitly specified
+    // ISO-8859-1 is assumed by the POSTMethod
+    if ( !data.contentTypeHeaderOverwrite ) { // can be overwritten now
+      if ( Utils.isEmpty( data.realEncoding ) ) {
+        post.setHeader( CONTENT_TYPE, CONTENT_TYPE_TEXT_XML );
+        if ( isDebug() ) {
+          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.HeaderValue", CONTENT_TYPE, CONTENT_TYPE_TEXT_XML ) );
+        }
+      } else {
+        post.setHeader( CONTENT_TYPE, CONTENT_TYPE_TEXT_XML + "; " + data.realEncoding );
+        if ( isDebug() ) {
+          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.HeaderValue", CONTENT_TYPE, CONTENT_TYPE_TEXT_XML
+            + "; " + data.realEncoding ) );
         }
       }
+    }
 
-      // HEADER PARAMETERS
-      if ( data.useHeaderParameters ) {
-        // set header parameters that we want to send
-        for ( int i = 0; i < data.header_parameters_nrs.length; i++ ) {
-          post.addHeader( data.headerParameters[ i ].getName(), data.inputRowMeta.getString( rowData,
-            data.header_parameters_nrs[ i ] ) );
-          if ( isDebug() ) {
-            logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.HeaderValue", data.headerParameters[ i ].getName(),
-              data.inputRowMeta.getString( rowData, data.header_parameters_nrs[ i ] ) ) );
-          }
+    // HEADER PARAMETERS
+    if ( data.useHeaderParameters ) {
+      // set header parameters that we want to send
+      for ( int i = 0; i < data.header_parameters_nrs.length; i++ ) {
+        post.addHeader( data.headerParameters[ i ].getName(), data.inputRowMeta.getString( rowData,
+          data.header_parameters_nrs[ i ] ) );
+        if ( isDebug() ) {
+          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.HeaderValue", data.headerParameters[ i ].getName(),
+            data.inputRowMeta.getString( rowData, data.header_parameters_nrs[ i ] ) ) );
         }
       }
+    }
 
-      // BODY PARAMETERS
-      if ( data.useBodyParameters ) {
-        // set body parameters that we want to send
-        for ( int i = 0; i < data.body_parameters_nrs.length; i++ ) {
-          String bodyParameterName = data.bodyParameters[ i ].getName();
-          String bodyParameterValue = data.inputRowMeta.getString( rowData, data.body_parameters_nrs[ i ] );
-          data.bodyParameters[ i ] = new BasicNameValuePair( bodyParameterName, bodyParameterValue );
-          if ( isDebug() ) {
-            logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.BodyValue", bodyParameterName,
-              bodyParameterValue ) );
-          }
+    // BODY PARAMETERS
+    if ( data.useBodyParameters ) {
+      // set body parameters that we want to send
+      for ( int i = 0; i < data.body_parameters_nrs.length; i++ ) {
+        String bodyParameterName = data.bodyParameters[ i ].getName();
+        String bodyParameterValue = data.inputRowMeta.getString( rowData, data.body_parameters_nrs[ i ] );
+        data.bodyParameters[ i ] = new BasicNameValuePair( bodyParameterName, bodyParameterValue );
+        if ( isDebug() ) {
+          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.BodyValue", bodyParameterName,
+            bodyParameterValue ) );
         }
-        String bodyParams = getRequestBodyParamsAsStr( data.bodyParameters, data.realEncoding );
-        post.setEntity( ( new StringEntity( bodyParams, ContentType.TEXT_XML.withCharset( "US-ASCII" ) ) ) );
       }
+      String bodyParams = getRequestBodyParamsAsStr( data.bodyParameters, data.realEncoding );
+      post.setEntity( ( new StringEntity( bodyParams, ContentType.TEXT_XML.withCharset( "US-ASCII" ) ) ) );
+    }
 
-      // QUERY PARAMETERS
-      if ( data.useQueryParameters ) {
-        for ( int i = 0; i < data.query_parameters_nrs.length; i++ ) {
-          String queryParameterName = data.queryParameters[ i ].getName();
-          String queryParameterValue = data.inputRowMeta.getString( rowData, data.query_parameters_nrs[ i ] );
-          data.queryParameters[ i ] = new BasicNameValuePair( queryParameterName, queryParameterValue );
-          if ( isDebug() ) {
-            logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.QueryValue", queryParameterName,
-              queryParameterValue ) );
-          }
+    // QUERY PARAMETERS
+    if ( data.useQueryParameters ) {
+      for ( int i = 0; i < data.query_parameters_nrs.length; i++ ) {
+        String queryParameterName = data.queryParameters[ i ].getName();
+        String queryParameterValue = data.inputRowMeta.getString( rowData, data.query_parameters_nrs[ i ] );
+        data.queryParameters[ i ] = new BasicNameValuePair( queryParameterName, queryParameterValue );
+        if ( isDebug() ) {
+          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.QueryValue", queryParameterName,
+            queryParameterValue ) );
         }
-        post.setEntity( new UrlEncodedFormEntity( Arrays.asList( data.queryParameters ) ) );
       }
+      post.setEntity( new UrlEncodedFormEntity( Arrays.asList( data.queryParameters ) ) );
+    }
 
-      // Set request entity?
-      if ( data.indexOfRequestEntity >= 0 ) {
-        String tmp = data.inputRowMeta.getString( rowData, data.indexOfRequestEntity );
-        // Request content will be retrieved directly
-        // from the input stream
-        // Per default, the request content needs to be buffered
-        // in order to determine its length.
-        // Request body buffering can be avoided when
-        // content length is explicitly specified
-
-        if ( meta.isPostAFile() ) {
-          File input = new File( tmp );
-          fis = new FileInputStream( input );
-          post.setEntity( new InputStreamEntity( fis, input.length() ) );
+    // Set request entity?
+    if ( data.indexOfRequestEntity >= 0 ) {
+      String tmp = data.inputRowMeta.getString( rowData, data.indexOfRequestEntity );
+      // The file is only opened when the request is sent, so a retry can send it again.
+      // Per default, the request content needs to be buffered
+      // in order to determine its length.
+      // Request body buffering can be avoided when
+      // content length is explicitly specified
+
+      if ( meta.isPostAFile() ) {
+        post.setEntity( new FileEntity( new File( tmp ) ) );
+      } else {
+        byte[] bytes;
+        if ( ( data.realEncoding != null ) && ( data.realEncoding.length() > 0 ) ) {
+          bytes = tmp.getBytes( data.realEncoding );
         } else {
-          byte[] bytes;
-          if ( ( data.realEncoding != null ) && ( data.realEncoding.length() > 0 ) ) {
-            bytes = tmp.getBytes( data.realEncoding );
-          } else {
-            bytes = tmp.getBytes();
-          }
-          post.setEntity( new ByteArrayEntity( bytes ) );
+          bytes = tmp.getBytes();
         }
+        post.setEntity( new ByteArrayEntity( bytes ) );
       }
+    }
+    return post;
+  }
+
+  /**
+   * Sends the request and reads the response. This doesn't touch the row metadata, so it can run on the request
+   * threads of the {@link HttpRequestEngine}.
+   */
+  private Response executeRequest( String url, HttpPost post ) throws Exception {
+    CloseableHttpClient httpClient = getHttpClient();
 
-      // Execute request
-      Object[] newRow = null;
-      if ( rowData != null ) {
-        newRow = rowData.clone();
+    // Execute request
+    CloseableHttpResponse httpResponse = null;
+    try {
+      // used for calculating the responseTime
+      long startTime = System.currentTimeMillis();
+
+      // Execute the POST method
+      if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
+        HttpHost target = new HttpHost( data.realProxyHost, data.realProxyPort, "http" );
+        // Create AuthCache instance
+        AuthCache authCache = new BasicAuthCache();
+        // Generate BASIC scheme object and add it to the local
+        // auth cache
+        BasicScheme basicAuth = new BasicScheme();
+        authCache.put( target, basicAuth );
+        // Add AuthCache to the execution context
+        HttpClientContext localContext = HttpClientContext.create();
+        localContext.setAuthCache( authCache );
+        httpResponse = httpClient.execute( target, post, localContext );
+      } else {
+        httpResponse = httpClient.execute( post );
       }
-      CloseableHttpResponse httpResponse = null;
-      try {
-        // used for calculating the responseTime
-        long startTime = System.currentTimeMillis();
-
-        // Execute the POST method
-        if ( StringUtils.isNotBlank( data.realProxyHost ) ) {
-          HttpHost target = new HttpHost( data.realProxyHost, data.realProxyPort, "http" );
-          // Create AuthCache instance
-          AuthCache authCache = new BasicAuthCache();
-          // Generate BASIC scheme object and add it to the local
-          // auth cache
-          BasicScheme basicAuth = new BasicScheme();
-          authCache.put( target, basicAuth );
-          // Add AuthCache to the execution context
-          HttpClientContext localContext = HttpClientContext.create();
-          localContext.setAuthCache( authCache );
-          httpResponse = httpClient.execute( target, post, localContext );
-        } else {
-          httpResponse = httpClient.execute( post );
-        }
-        int statusCode = requestStatusCode( httpResponse );
+      int statusCode = requestStatusCode( httpResponse );
 
-        // calculate the responseTime
-        long responseTime = System.currentTimeMillis() - startTime;
+      // calculate the responseTime
+      long responseTime = System.currentTimeMillis() - startTime;
 
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseTime", responseTime, data.realUrl ) );
-        }
+      if ( isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseTime", responseTime, url ) );
+      }
 
-        // Display status code
-        if ( isDebug() ) {
-          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseCode", String.valueOf( statusCode ) ) );
-        }
+      // Display status code
+      if ( isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseCode", String.valueOf( statusCode ) ) );
+      }
 
-        String body;
-        String headerString = "";
-        switch ( statusCode ) {
-          case HttpURLConnection.HTTP_UNAUTHORIZED:
-            throw new HopStepException( BaseMessages
-              .getString( PKG, "HTTPPOST.Exception.Authentication", data.realUrl ) );
-          case -1:
-            throw new HopStepException( BaseMessages
-              .getString( PKG, "HTTPPOST.Exception.IllegalStatusCode", data.realUrl ) );
-          case HttpURLConnection.HTTP_NO_CONTENT:
+      String body;
+      String headerString = "";
+      switch ( statusCode ) {
+        case HttpURLConnection.HTTP_UNAUTHORIZED:
+          throw new HopStepException( BaseMessages
+            .getString( PKG, "HTTPPOST.Exception.Authentication", url ) );
+        case -1:
+          throw new HopStepException( BaseMessages
+            .getString( PKG, "HTTPPOST.Exception.IllegalStatusCode", url ) );
+        case HttpURLConnection.HTTP_NO_CONTENT:
+          body = "";
+          break;
+        default:
+          HttpEntity entity = httpResponse.getEntity();
+          if ( entity != null ) {
+            body = EntityUtils.toString( entity );
+          } else {
             body = "";
-            break;
-          default:
-            HttpEntity entity = httpResponse.getEntity();
-            if ( entity != null ) {
-              body = EntityUtils.toString( entity );
+          }
+          Header[] headers = searchForHeaders( httpResponse );
+          // Use request encoding if specified in component to avoid strange response encodings
+          // See PDI-3815
+
+          JSONObject json = new JSONObject();
+          for ( Header header : headers ) {
+            Object previousValue = json.get( header.getName() );
+            if ( previousValue == null ) {
+              json.put( header.getName(), header.getValue() );
+            } else if ( previousValue instanceof List ) {
+              List<String> list = (List<String>) previousValue;
+              list.add( header.getValue() );
             } else {
-              body = "";
-            }
-            Header[] headers = searchForHeaders( httpResponse );
-            // Use request encoding if specified in component to avoid strange response encodings
-            // See PDI-3815
-
-            JSONObject json = new JSONObject();
-            for ( Header header : headers ) {
-              Object previousValue = json.get( header.getName() );
-              if ( previousValue == null ) {
-                json.put( header.getName(), header.getValue() );
-              } else if ( previousValue instanceof List ) {
-                List<String> list = (List<String>) previousValue;
-                list.add( header.getValue() );
-              } else {
-                ArrayList<String> list = new ArrayList<String>();
-                list.add( (String) previousValue );
-                list.add( header.getValue() );
-                json.put( header.getName(), list );
-              }
+              ArrayList<String> list = new ArrayList<String>();
+              list.add( (String) previousValue );
+              list.add( header.getValue() );
+              json.put( header.getName(), list );
             }
-            headerString = json.toJSONString();
-        }
-
-        if ( isDebug() ) {
-          logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseBody", body ) );
-        }
-
-        int returnFieldsOffset = data.inputRowMeta.size();
-        if ( !Utils.isEmpty( meta.getFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, body );
-          returnFieldsOffset++;
-        }
+          }
+          headerString = json.toJSONString();
+      }
 
-        if ( !Utils.isEmpty( meta.getResultCodeFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( statusCode ) );
-          returnFieldsOffset++;
-        }
-        if ( !Utils.isEmpty( meta.getResponseTimeFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( responseTime ) );
-          returnFieldsOffset++;
-        }
-        if ( !Utils.isEmpty( meta.getResponseHeaderFieldName() ) ) {
-          newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, headerString );
-        }
-      } finally {
-        // Release current connection to the connection pool once you are done
-        post.releaseConnection();
-        if ( httpResponse != null ) {
-          httpResponse.close();
-        }
+      if ( isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseBody", body ) );
       }
-      return newRow;
-    } catch ( UnknownHostException uhe ) {
-      throw new HopException( BaseMessages.getString( PKG,
-        "HTTPPOST.Error.UnknownHostException", uhe.getMessage() ) );
-    } catch ( Exception e ) {
-      throw new HopException( BaseMessages.getString( PKG, "HTTPPOST.Error.CanNotReadURL", data.realUrl ), e );
 
+      return new Response( statusCode, body, responseTime, headerString );
     } finally {
-      if ( fis != null ) {
-        BaseStep.closeQuietly( fis );
+      // Release current connection to the connection pool once you are done
+      post.releaseConnection();
+      if ( httpResponse != null ) {
+        httpResponse.close();
       }
     }
   }
 
+  private Object[] addResponse( Object[] rowData, Response response ) {
+    Object[] newRow = null;
+    if ( rowData != null ) {
+      newRow = rowData.clone();
+    }
+
+    int returnFieldsOffset = data.inputRowMeta.size();
+    if ( !Utils.isEmpty( meta.getFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, response.body );
+      returnFieldsOffset++;
+    }
+
+    if ( !Utils.isEmpty( meta.getResultCodeFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( response.statusCode ) );
+      returnFieldsOffset++;
+    }
+    if ( !Utils.isEmpty( meta.getResponseTimeFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( response.responseTime ) );
+      returnFieldsOffset++;
+    }
+    if ( !Utils.isEmpty( meta.getResponseHeaderFieldName() ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, response.headers );
+    }
+    return newRow;
+  }
+
   protected int requestStatusCode( HttpResponse httpResponse ) {
     return httpResponse.getStatusLine().getStatusCode();
   }
@@ -359,6 +385,9 @@ public class HTTPPOST extends BaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.requestEngine != null && !putFinishedRequests( true ) ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -468,6 +497,10 @@ public class HTTPPOST extends BaseStep implements StepInterface {
       data.realEncoding = environmentSubstitute( meta.getEncoding() );
     } // end if first
 
+    if ( data.requestEngine != null ) {
+      return submitRequest( r );
+    }
+
     try {
       Object[] outputRowData = callHTTPPOST( r );
       putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
@@ -478,28 +511,100 @@ public class HTTPPOST extends BaseStep implements StepInterface {
         }
       }
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleRowError( r, e );
+    }
 
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "HTTPPOST.ErrorInStepRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        logError( Const.getStackTracker( e ) );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
+    return true;
+  }
 
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTPPOST001" );
-      }
+  private boolean handleRowError( Object[] r, HopException e ) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError( BaseMessages.getString( PKG, "HTTPPOST.ErrorInStepRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      logError( Const.getStackTracker( e ) );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    if ( sendToErrorRow ) {
+      // Simply add this row to the error row
+      putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTPPOST001" );
+    }
+    return true;
+  }
 
+  /**
+   * Hands the row to the request engine and passes on the rows whose responses came in, in input order.
+   */
+  private boolean submitRequest( Object[] r ) throws HopException {
+    try {
+      if ( meta.isUrlInField() ) {
+        data.realUrl = data.inputRowMeta.getString( r, data.indexOfUrlField );
+      }
+      String url = data.realUrl;
+      try {
+        getHttpClient();
+        HttpPost post = createRequest( url, r );
+        data.requestEngine.submit( new Request( r, url ), () -> executeRequest( url, post ), false );
+      } catch ( Exception e ) {
+        throw requestError( url, e );
+      }
+    } catch ( HopException e ) {
+      return handleRowError( r, e );
     }
+    return putFinishedRequests( false );
+  }
 
+  /**
+   * Passes on the rows of the finished requests. Waits for requests while the engine is full or, at the end of the
+   * input, until all requests are done.
+   *
+   * @return false if the step stopped on an error
+   */
+  private boolean putFinishedRequests( boolean all ) throws HopException {
+    try {
+      while ( !isStopped() ) {
+        HttpRequestEngine.Call<Request, Response> call;
+        if ( all ? data.requestEngine.getOutstanding() > 0 : data.requestEngine.isFull() ) {
+          call = data.requestEngine.take( 100 );
+          if ( call == null ) {
+            continue;
+          }
+        } else {
+          call = data.requestEngine.poll();
+          if ( call == null ) {
+            return true;
+          }
+        }
+
+        Object[] r = call.getTag().row;
+        try {
+          if ( call.getError() != null ) {
+            throw requestError( call.getTag().url, call.getError() );
+          }
+          putRow( data.outputRowMeta, addResponse( r, call.getResult() ) );
+
+          if ( checkFeedback( getLinesRead() ) ) {
+            if ( isDetailed() ) {
+              logDetailed( BaseMessages.getString( PKG, "HTTPPOST.LineNumber" ) + getLinesRead() );
+            }
+          }
+        } catch ( HopException e ) {
+          if ( !handleRowError( r, e ) ) {
+            return false;
+          }
+        }
+      }
+    } catch ( InterruptedException e ) {
+      throw new HopException( e );
+    }
     return true;
   }
 
@@ -539,10 +644,21 @@ public class HTTPPOST extends BaseStep implements StepInterface {
       data.realHttpPassword = Utils.resolvePassword( variables, meta.getHttpPassword() );
 
       data.realSocketTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
-      data.realConnectionTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
+      data.realConnectionTimeout = Const.toInt( environmentSubstitute( meta.getConnectionTimeout() ), -1 );
       data.realcloseIdleConnectionsTime =
         Const.toInt( environmentSubstitute( meta.getCloseIdleConnectionsTime() ), -1 );
 
+      int concurrentRequests = Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ), 1 );
+      int maxRetries = Const.toInt( environmentSubstitute( meta.getMaxRetries() ), 0 );
+      double requestsPerSecond = Const.toDouble( environmentSubstitute( meta.getRequestsPerSecond() ), 0 );
+      if ( concurrentRequests > 1 || maxRetries > 0 || requestsPerSecond > 0 ) {
+        data.requestEngine = new HttpRequestEngine<>( getStepname(), concurrentRequests );
+        data.requestEngine.setRetries( maxRetries, Const.toLong( environmentSubstitute( meta.getRetryDelay() ),
+          HTTPPOSTMeta.DEFAULT_RETRY_DELAY ),
+          ( response, idempotent ) -> HttpRequestEngine.isRetryableStatus( response.statusCode, idempotent ) );
+        data.requestEngine.setMaxRequestsPerSecond( requestsPerSecond );
+      }
+
       return true;
     }
     return false;
@@ -552,6 +668,47 @@ public class HTTPPOST extends BaseStep implements StepInterface {
     meta = (HTTPPOSTMeta) smi;
     data = (HTTPPOSTData) sdi;
 
+    if ( data.requestEngine != null ) {
+      data.requestEngine.shutdown();
+      LatencyHistogram latency = data.requestEngine.getLatency();
+      if ( isDetailed() && latency.getCount() > 0 ) {
+        logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.RequestStatistics", latency.getCount(),
+          data.requestEngine.getRetries(), latency.getValueAtPercentile( 50.0 ) / 1000000L,
+          latency.getValueAtPercentile( 99.0 ) / 1000000L, latency.getMax() / 1000000L ) );
+      }
+      data.requestEngine = null;
+    }
+
     super.dispose( smi, sdi );
   }
+
+  /**
+   * A row waiting for its response in the request engine
+   */
+  static class Request {
+    final Object[] row;
+    final String url;
+
+    Request( Object[] row, String url ) {
+      this.row = row;
+      this.url = url;
+    }
+  }
+
+  /**
+   * What is kept of a response to add it to the row
+   */
+  static class Response {
+    final int statusCode;
+    final String body;
+    final long responseTime;
+    final String headers;
+
+    Response( int statusCode, String body, long responseTime, String headers ) {
+      this.statusCode = statusCode;
+      this.body = body;
+      this.responseTime = responseTime;
+      this.headers = headers;
+    }
+  }
 }
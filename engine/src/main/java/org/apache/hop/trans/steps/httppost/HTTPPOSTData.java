@@ -24,9 +24,11 @@ package org.apache.hop.trans.steps.httppost;
 
 
 import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 /**
  * @author Matt
@@ -59,6 +61,9 @@ public class HTTPPOSTData extends BaseStepData implements StepDataInterface {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  public CloseableHttpClient httpClient;
+  public HttpRequestEngine<HTTPPOST.Request, HTTPPOST.Response> requestEngine;
+
   public HTTPPOSTData() {
     super();
     indexOfUrlField = -1;
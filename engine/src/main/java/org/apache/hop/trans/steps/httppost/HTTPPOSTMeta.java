@@ -65,12 +65,23 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  // the number of requests a step copy keeps in flight
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+
+  // the delay before the first retry of a failed request (milliseconds), doubled for every next retry
+  public static final int DEFAULT_RETRY_DELAY = 1000;
+
   public static final String DEFAULT_ENCODING = "UTF-8";
 
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
 
+  private String concurrentRequests;
+  private String maxRetries;
+  private String retryDelay;
+  private String requestsPerSecond;
+
   private static final String YES = "Y";
 
   /**
@@ -204,6 +215,62 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
     this.socketTimeout = socketTimeout;
   }
 
+  /**
+   * @return the number of requests a step copy keeps in flight
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests the number of requests a step copy keeps in flight
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return the number of times a failed request is retried
+   */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @param maxRetries the number of times a failed request is retried
+   */
+  public void setMaxRetries( String maxRetries ) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * @return the delay before the first retry in milliseconds
+   */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /**
+   * @param retryDelay the delay before the first retry in milliseconds
+   */
+  public void setRetryDelay( String retryDelay ) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * @return the maximum number of requests per second of a step copy, empty or 0 for no limit
+   */
+  public String getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * @param requestsPerSecond the maximum number of requests per second of a step copy, empty or 0 for no limit
+   */
+  public void setRequestsPerSecond( String requestsPerSecond ) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
   /**
    * @return Returns the argumentDirection.
    */
@@ -372,6 +439,10 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
     socketTimeout = String.valueOf( DEFAULT_SOCKET_TIMEOUT );
     connectionTimeout = String.valueOf( DEFAULT_CONNECTION_TIMEOUT );
     closeIdleConnectionsTime = String.valueOf( DEFAULT_CLOSE_CONNECTIONS_TIME );
+    concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    maxRetries = "0";
+    retryDelay = String.valueOf( DEFAULT_RETRY_DELAY );
+    requestsPerSecond = "";
   }
 
   public void getFields( RowMetaInterface inputRowMeta, String name, RowMetaInterface[] info, StepMeta nextStep,
@@ -417,6 +488,10 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "socketTimeout", socketTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "connectionTimeout", connectionTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "closeIdleConnectionsTime", closeIdleConnectionsTime ) );
+    retval.append( "    " + XMLHandler.addTagValue( "concurrentRequests", concurrentRequests ) );
+    retval.append( "    " + XMLHandler.addTagValue( "maxRetries", maxRetries ) );
+    retval.append( "    " + XMLHandler.addTagValue( "retryDelay", retryDelay ) );
+    retval.append( "    " + XMLHandler.addTagValue( "requestsPerSecond", requestsPerSecond ) );
 
     retval.append( "    <lookup>" + Const.CR );
 
@@ -462,6 +537,10 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
       socketTimeout = XMLHandler.getTagValue( stepnode, "socketTimeout" );
       connectionTimeout = XMLHandler.getTagValue( stepnode, "connectionTimeout" );
       closeIdleConnectionsTime = XMLHandler.getTagValue( stepnode, "closeIdleConnectionsTime" );
+      concurrentRequests = XMLHandler.getTagValue( stepnode, "concurrentRequests" );
+      maxRetries = XMLHandler.getTagValue( stepnode, "maxRetries" );
+      retryDelay = XMLHandler.getTagValue( stepnode, "retryDelay" );
+      requestsPerSecond = XMLHandler.getTagValue( stepnode, "requestsPerSecond" );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
 
@@ -26,6 +26,7 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.StagingTable;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
@@ -48,6 +49,10 @@ import java.util.List;
 /**
  * Performs a lookup in a database table. If the key doesn't exist it inserts values into the table, otherwise it
  * performs an update of the changed values. If nothing changed, do nothing.
+ * <p>
+ * In set-based mode the rows are loaded into a staging table instead, and merged into the table with one statement
+ * every commit size rows. That only works with "=" key conditions, and the rows found are updated whether something
+ * changed or not.
  *
  * @author Matt
  * @since 26-apr-2003
@@ -55,6 +60,11 @@ import java.util.List;
 public class InsertUpdate extends BaseStep implements StepInterface {
   private static Class<?> PKG = InsertUpdateMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /**
+   * The number of rows merged at a time in set-based mode without a commit size.
+   */
+  private static final int DEFAULT_CHUNK_SIZE = 1000;
+
   private InsertUpdateMeta meta;
   private InsertUpdateData data;
 
@@ -185,6 +195,9 @@ public class InsertUpdate extends BaseStep implements StepInterface {
     if ( r == null ) {
       // no more input to be expected...
 
+      if ( data.setBased && !first && !mergeChunk() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -261,8 +274,6 @@ public class InsertUpdate extends BaseStep implements StepInterface {
         }
       }
 
-      setLookup( getInputRowMeta() );
-
       data.insertRowMeta = new RowMeta();
 
       // Insert the update fields: just names. Type doesn't matter!
@@ -280,21 +291,30 @@ public class InsertUpdate extends BaseStep implements StepInterface {
             + insValue.getName() ); // TODO i18n
         }
       }
-      data.db.prepareInsert(
-        data.insertRowMeta, environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta
-          .getTableName() ) );
 
-      if ( !meta.isUpdateBypassed() ) {
-        List<String> updateColumns = new ArrayList<String>();
-        for ( int i = 0; i < meta.getUpdate().length; i++ ) {
-          if ( meta.getUpdate()[ i ].booleanValue() ) {
-            updateColumns.add( meta.getUpdateLookup()[ i ] );
-          }
+      if ( data.setBased ) {
+        data.setBased = prepareSetBased( getInputRowMeta() );
+      }
+      if ( !data.setBased ) {
+        setLookup( getInputRowMeta() );
+        data.db.prepareInsert(
+          data.insertRowMeta, environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta
+            .getTableName() ) );
+
+        if ( !meta.isUpdateBypassed() ) {
+          prepareUpdate( getInputRowMeta() );
         }
-        prepareUpdate( getInputRowMeta() );
       }
     }
 
+    if ( data.setBased ) {
+      data.stagingTable.addRow( r );
+      if ( data.stagingTable.getChunkRows().size() >= data.chunkSize ) {
+        return mergeChunk();
+      }
+      return true;
+    }
+
     try {
       lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
       putRow( data.outputRowMeta, r ); // Nothing changed to the input, return the same row, pass a "cloned" metadata
@@ -464,6 +484,124 @@ public class InsertUpdate extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Create the staging table and the statement to merge it into the target table. The staging table has a column for
+   * every key and every insert field, with the type of the column in the target table.
+   *
+   * @return false if the database can't merge the staging table, the rows are then handled one by one
+   */
+  public boolean prepareSetBased( RowMetaInterface rowMeta ) throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    StagingTable stagingTable = new StagingTable( data.db );
+    data.keyFields = new String[ meta.getKeyLookup().length ];
+    for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+      stagingTable.addColumn( meta.getKeyLookup()[ i ], meta.getKeyStream()[ i ] );
+      data.keyFields[ i ] = databaseMeta.quoteField( meta.getKeyLookup()[ i ] );
+    }
+    List<String> insertFields = new ArrayList<String>();
+    List<String> updateFields = new ArrayList<String>();
+    for ( int i = 0; i < meta.getUpdateLookup().length; i++ ) {
+      boolean added = stagingTable.addColumn( meta.getUpdateLookup()[ i ], meta.getUpdateStream()[ i ] );
+      insertFields.add( databaseMeta.quoteField( meta.getUpdateLookup()[ i ] ) );
+      // Keys can't be updated: they're equal anyway
+      if ( !meta.isUpdateBypassed() && meta.getUpdate()[ i ].booleanValue() && added ) {
+        updateFields.add( databaseMeta.quoteField( meta.getUpdateLookup()[ i ] ) );
+      }
+    }
+
+    data.mergeStatement = databaseMeta.getMergeStatement( data.schemaTable, stagingTable.getName(), data.keyFields,
+      insertFields.toArray( new String[ 0 ] ), updateFields.toArray( new String[ 0 ] ) );
+    if ( data.mergeStatement == null ) {
+      logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.SetBasedNotPossible" ) );
+      return false;
+    }
+
+    stagingTable.create( environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTableName() ),
+      rowMeta, data.keynrs );
+    data.stagingTable = stagingTable;
+    // Keep the staging table when a chunk is rolled back
+    data.db.commit();
+
+    if ( log.isDetailed() ) {
+      logDetailed( "Merging rows with [" + data.mergeStatement + "]" );
+    }
+    return true;
+  }
+
+  /**
+   * Load the current chunk into the staging table and merge it into the target table.
+   *
+   * @return false if the step has to stop
+   */
+  private boolean mergeChunk() throws HopException {
+    List<Object[]> rows = data.stagingTable.getChunkRows();
+    if ( rows.isEmpty() ) {
+      return true;
+    }
+    try {
+      data.stagingTable.load();
+
+      // Everything in the staging table that isn't in the table yet gets inserted, the rest gets updated.
+      //
+      long inserted = data.stagingTable.countRowsNotIn( data.schemaTable, data.keyFields );
+      int affected = data.stagingTable.execute( data.mergeStatement );
+
+      long updated = meta.isUpdateBypassed() ? 0L : Math.max( affected - inserted, 0L )
+        + data.stagingTable.getNrDuplicates();
+      setLinesOutput( getLinesOutput() + inserted );
+      setLinesUpdated( getLinesUpdated() + updated );
+      setLinesSkipped( getLinesSkipped() + rows.size() - inserted - updated );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "InsertUpdate.Log.ChunkMerged", rows.size(), inserted, updated ) );
+      }
+
+      for ( Object[] row : rows ) {
+        putRow( data.outputRowMeta, row );
+      }
+      data.stagingTable.clear();
+      data.db.commit();
+      if ( checkFeedback( getLinesRead() ) ) {
+        if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.LineNumber" ) + getLinesRead() );
+        }
+      }
+    } catch ( HopException e ) {
+      if ( !getStepMeta().isDoingErrorHandling() ) {
+        logError( BaseMessages.getString( PKG, "InsertUpdate.Log.ErrorInStep" ), e );
+        setErrors( 1 );
+        stopAll();
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+
+      // The statement works on the chunk as a whole, we can't tell which row caused the problem: all of them go to
+      // the error rows
+      //
+      data.db.rollback();
+      for ( Object[] row : rows ) {
+        putError( getInputRowMeta(), row, 1, e.toString(), null, "ISU001" );
+      }
+      data.stagingTable.clear();
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the rows can be merged into the table in one statement per chunk
+   */
+  private boolean isSetBasedPossible() {
+    if ( !meta.getDatabaseMeta().supportsMergeStatement() || meta.getKeyCondition().length == 0 ) {
+      return false;
+    }
+    for ( String condition : meta.getKeyCondition() ) {
+      if ( !"=".equals( condition ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (InsertUpdateMeta) smi;
     data = (InsertUpdateData) sdi;
@@ -485,6 +623,14 @@ public class InsertUpdate extends BaseStep implements StepInterface {
         }
         data.db.setCommit( meta.getCommitSize( this ) );
 
+        if ( meta.isSetBased() ) {
+          data.setBased = isSetBasedPossible();
+          if ( !data.setBased ) {
+            logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.SetBasedNotPossible" ) );
+          }
+          data.chunkSize = meta.getCommitSize( this ) > 0 ? meta.getCommitSize( this ) : DEFAULT_CHUNK_SIZE;
+        }
+
         return true;
       } catch ( HopException ke ) {
         logError( BaseMessages.getString( PKG, "InsertUpdate.Log.ErrorOccurredDuringStepInitialize" )
@@ -509,6 +655,13 @@ public class InsertUpdate extends BaseStep implements StepInterface {
         }
         data.db.closeUpdate();
         data.db.closeInsert();
+        if ( data.stagingTable != null ) {
+          data.stagingTable.drop();
+          data.stagingTable = null;
+          if ( !data.db.isAutoCommit() ) {
+            data.db.commit();
+          }
+        }
       } catch ( HopDatabaseException e ) {
         logError( BaseMessages.getString( PKG, "InsertUpdate.Log.UnableToCommitConnection" ) + e.toString() );
         setErrors( 1 );
@@ -23,6 +23,7 @@
 package org.apache.hop.trans.steps.insertupdate;
 
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.StagingTable;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
@@ -54,6 +55,12 @@ public class InsertUpdateData extends BaseStepData implements StepDataInterface
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface insertRowMeta;
 
+  public boolean setBased;
+  public int chunkSize;
+  public StagingTable stagingTable;
+  public String[] keyFields; // The quoted key columns of the target table
+  public String mergeStatement;
+
   /**
    * Default constructor.
    */
@@ -138,6 +138,12 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
   @Injection( name = "DO_NOT" )
   private boolean updateBypassed;
 
+  /**
+   * Load the rows into a staging table and merge them into the target table one commit size at a time
+   */
+  @Injection( name = "SET_BASED" )
+  private boolean setBased;
+
   @Injection( name = "CONNECTIONNAME" )
   public void setConnection( String connectionName ) {
     try {
@@ -357,6 +363,7 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
       schemaName = XMLHandler.getTagValue( stepnode, "lookup", "schema" );
       tableName = XMLHandler.getTagValue( stepnode, "lookup", "table" );
       updateBypassed = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "update_bypassed" ) );
+      setBased = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "set_based" ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrkeys = XMLHandler.countNodes( lookup, "key" );
@@ -437,6 +444,7 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
       XMLHandler.addTagValue( "connection", databaseMeta == null ? "" : databaseMeta.getName() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "commit", commitSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "update_bypassed", updateBypassed ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "set_based", setBased ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( "      " ).append( XMLHandler.addTagValue( "schema", schemaName ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "table", tableName ) );
@@ -792,6 +800,20 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
     this.updateBypassed = updateBypassed;
   }
 
+  /**
+   * @return true if the rows are merged into the table from a staging table instead of row by row
+   */
+  public boolean isSetBased() {
+    return setBased;
+  }
+
+  /**
+   * @param setBased true to merge the rows into the table from a staging table instead of row by row
+   */
+  public void setSetBased( boolean setBased ) {
+    this.setBased = setBased;
+  }
+
   public RowMetaInterface getRequiredFields( VariableSpace space ) throws HopException {
     String realSchemaName = space.environmentSubstitute( schemaName );
     String realTableName = space.environmentSubstitute( tableName );
@@ -25,10 +25,12 @@ package org.apache.hop.trans.steps.mysqlbulkloader;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.DBCache;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.plugins.DatabasePluginType;
 import org.apache.hop.core.plugins.PluginInterface;
 import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.core.row.value.ValueMetaDate;
@@ -50,7 +52,13 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Date;
 
 /**
@@ -69,6 +77,10 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
   private final long threadWaitTime = 300000;
   private final String threadWaitTimeText = "5min";
 
+  private static final String ALLOW_LOCAL_INFILE_OPTION = "allowLoadLocalInfile";
+  private static final String STREAM_FILE_NAME = "hop-stream";
+  private static final int STREAM_BUFFER_SIZE = 256 * 1024;
+
   public MySQLBulkLoader( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                           Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
@@ -80,11 +92,14 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
     try {
       // 1) Create the FIFO file using the "mkfifo" command...
       // Make sure to log all the possible output, also from STDERR
+      // When streaming through the JDBC driver there is no FIFO file.
       //
-      data.fifoFilename = environmentSubstitute( meta.getFifoFileName() );
+      if ( !meta.isLocalInfileStream() ) {
+        data.fifoFilename = environmentSubstitute( meta.getFifoFileName() );
+      }
 
-      File fifoFile = new File( data.fifoFilename );
-      if ( !fifoFile.exists() ) {
+      File fifoFile = data.fifoFilename == null ? null : new File( data.fifoFilename );
+      if ( fifoFile != null && !fifoFile.exists() ) {
         // MKFIFO!
         //
         String mkFifoCmd = "mkfifo " + data.fifoFilename;
@@ -120,7 +135,7 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
         logError( BaseMessages.getString( PKG, "MySQLBulkLoader.Init.ConnectionMissing", getStepname() ) );
         return false;
       }
-      data.db = new Database( this, meta.getDatabaseMeta() );
+      data.db = new Database( this, getLoadDatabaseMeta() );
       data.db.shareVariablesWith( this );
       PluginInterface dbPlugin =
         PluginRegistry.getInstance().getPlugin( DatabasePluginType.class, meta.getDatabaseMeta().getDatabaseInterface() );
@@ -147,12 +162,30 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * Connector/J refuses LOAD DATA LOCAL unless it's allowed on the connection, so we allow it on a copy of the
+   * connection when streaming through the driver.
+   */
+  private DatabaseMeta getLoadDatabaseMeta() {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    if ( !meta.isLocalInfileStream()
+      || databaseMeta.getExtraOptions().containsKey( databaseMeta.getPluginId() + "." + ALLOW_LOCAL_INFILE_OPTION ) ) {
+      return databaseMeta;
+    }
+    databaseMeta = (DatabaseMeta) databaseMeta.clone();
+    databaseMeta.addExtraOption( databaseMeta.getPluginId(), ALLOW_LOCAL_INFILE_OPTION, "true" );
+    return databaseMeta;
+  }
+
   private void executeLoadCommand() throws Exception {
 
+    // The driver reads from the input stream set on the statement, the file name is not used
+    //
+    boolean streaming = meta.isLocalInfileStream();
     String loadCommand = "";
     loadCommand +=
-      "LOAD DATA " + ( meta.isLocalFile() ? "LOCAL" : "" ) + " INFILE '"
-        + environmentSubstitute( meta.getFifoFileName() ) + "' ";
+      "LOAD DATA " + ( streaming || meta.isLocalFile() ? "LOCAL" : "" ) + " INFILE '"
+        + ( streaming ? STREAM_FILE_NAME : environmentSubstitute( meta.getFifoFileName() ) ) + "' ";
     if ( meta.isReplacingData() ) {
       loadCommand += "REPLACE ";
     } else if ( meta.isIgnoringErrors() ) {
@@ -188,6 +221,16 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
 
     logBasic( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.STARTING", data.dbDescription, loadCommand ) );
 
+    if ( streaming ) {
+      data.localInfileStream = new MySQLLocalInfileStream(
+        ( out, row ) -> writeRow( out, data.streamRowMeta, row, data.streamKeynrs ), STREAM_BUFFER_SIZE );
+      data.localInfileStream.start( getStepname() + " - encoder (" + getCopy() + ")" );
+      data.streamBatch = new ArrayList<>( data.streamBatchSize );
+      data.sqlRunner = new SqlRunner( data, loadCommand, data.localInfileStream );
+      data.sqlRunner.start();
+      return;
+    }
+
     data.sqlRunner = new SqlRunner( data, loadCommand );
     data.sqlRunner.start();
 
@@ -274,6 +317,17 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
           }
         }
 
+        // The rows are encoded in a background thread when streaming: it gets copies of the loaded values only
+        //
+        if ( meta.isLocalInfileStream() ) {
+          data.streamRowMeta = new RowMeta();
+          data.streamKeynrs = new int[ data.keynrs.length ];
+          for ( int i = 0; i < data.keynrs.length; i++ ) {
+            data.streamRowMeta.addValueMeta( getInputRowMeta().getValueMeta( data.keynrs[ i ] ).clone() );
+            data.streamKeynrs[ i ] = i;
+          }
+        }
+
         // execute the client statement...
         //
         execute( meta );
@@ -287,7 +341,11 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
         executeLoadCommand();
       }
 
-      writeRowToBulk( getInputRowMeta(), r );
+      if ( meta.isLocalInfileStream() ) {
+        writeRowToStream( r );
+      } else {
+        writeRowToBulk( getInputRowMeta(), r );
+      }
       putRow( getInputRowMeta(), r );
       incrementLinesOutput();
 
@@ -303,6 +361,19 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
 
   private void closeOutput() throws Exception {
 
+    if ( data.localInfileStream != null ) {
+      // Send the last rows and let the driver reach the end of the data
+      //
+      MySQLLocalInfileStream stream = data.localInfileStream;
+      data.localInfileStream = null;
+      sendStreamBatch( stream );
+      try {
+        stream.finish();
+      } catch ( HopException e ) {
+        throwLoadError( e );
+      }
+    }
+
     if ( data.fifoStream != null ) {
       // Close the fifo file...
       //
@@ -324,138 +395,181 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
   private void writeRowToBulk( RowMetaInterface rowMeta, Object[] r ) throws HopException {
 
     try {
-      // So, we have this output stream to which we can write CSV data to.
-      // Basically, what we need to do is write the binary data (from strings to it as part of this proof of concept)
-      //
-      // The data format required is essentially:
-      //
-      for ( int i = 0; i < data.keynrs.length; i++ ) {
-        if ( i > 0 ) {
-          // Write a separator
-          //
-          data.fifoStream.write( data.separator );
-        }
+      writeRow( data.fifoStream, rowMeta, r, data.keynrs );
+
+      if ( ( getLinesOutput() % 5000 ) == 0 ) {
+        data.fifoStream.flush();
+      }
+    } catch ( IOException e ) {
+      // If something went wrong with writing to the fifo, get the underlying error from MySQL
+      throwLoadError( e );
+    } catch ( Exception e2 ) {
+      // Null pointer exceptions etc.
+      throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.ERRORSERIALIZING" ), e2 );
+    }
+  }
+
+  /**
+   * Writes the loaded fields of a row in the text format of the LOAD DATA command.
+   *
+   * @param out     the FIFO file or a buffer of the local infile stream
+   * @param rowMeta the layout of the row
+   * @param r       the row data
+   * @param keynrs  the indexes of the loaded fields in the row
+   */
+  void writeRow( OutputStream out, RowMetaInterface rowMeta, Object[] r, int[] keynrs ) throws HopException,
+    IOException {
+    // So, we have this output stream to which we can write CSV data to.
+    // Basically, what we need to do is write the binary data (from strings to it as part of this proof of concept)
+    //
+    // The data format required is essentially:
+    //
+    for ( int i = 0; i < keynrs.length; i++ ) {
+      if ( i > 0 ) {
+        // Write a separator
+        //
+        out.write( data.separator );
+      }
 
-        int index = data.keynrs[ i ];
-        ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
-        Object valueData = r[ index ];
+      int index = keynrs[ i ];
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+      Object valueData = r[ index ];
 
-        if ( valueData == null ) {
-          data.fifoStream.write( "NULL".getBytes() );
-        } else {
-          switch ( valueMeta.getType() ) {
-            case ValueMetaInterface.TYPE_STRING:
-              data.fifoStream.write( data.quote );
-              if ( valueMeta.isStorageBinaryString()
-                && meta.getFieldFormatType()[ i ] == MySQLBulkLoaderMeta.FIELD_FORMAT_TYPE_OK ) {
-                // We had a string, just dump it back.
-                data.fifoStream.write( (byte[]) valueData );
-              } else {
-                String string = valueMeta.getString( valueData );
-                if ( string != null ) {
-                  if ( meta.getFieldFormatType()[ i ] == MySQLBulkLoaderMeta.FIELD_FORMAT_TYPE_STRING_ESCAPE ) {
-                    string = Const.replace( string, meta.getEscapeChar(), meta.getEscapeChar() + meta.getEscapeChar() );
-                    string = Const.replace( string, meta.getEnclosure(), meta.getEscapeChar() + meta.getEnclosure() );
-                  }
-                  data.fifoStream.write( string.getBytes() );
+      if ( valueData == null ) {
+        out.write( "NULL".getBytes() );
+      } else {
+        switch ( valueMeta.getType() ) {
+          case ValueMetaInterface.TYPE_STRING:
+            out.write( data.quote );
+            if ( valueMeta.isStorageBinaryString()
+              && meta.getFieldFormatType()[ i ] == MySQLBulkLoaderMeta.FIELD_FORMAT_TYPE_OK ) {
+              // We had a string, just dump it back.
+              out.write( (byte[]) valueData );
+            } else {
+              String string = valueMeta.getString( valueData );
+              if ( string != null ) {
+                if ( meta.getFieldFormatType()[ i ] == MySQLBulkLoaderMeta.FIELD_FORMAT_TYPE_STRING_ESCAPE ) {
+                  string = Const.replace( string, meta.getEscapeChar(), meta.getEscapeChar() + meta.getEscapeChar() );
+                  string = Const.replace( string, meta.getEnclosure(), meta.getEscapeChar() + meta.getEnclosure() );
                 }
+                out.write( string.getBytes() );
               }
-              data.fifoStream.write( data.quote );
-              break;
-            case ValueMetaInterface.TYPE_INTEGER:
-              if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
-                data.fifoStream.write( valueMeta.getBinaryString( valueData ) );
-              } else {
-                Long integer = valueMeta.getInteger( valueData );
-                if ( integer != null ) {
-                  data.fifoStream.write( data.bulkFormatMeta[ i ].getString( integer ).getBytes() );
-                }
+            }
+            out.write( data.quote );
+            break;
+          case ValueMetaInterface.TYPE_INTEGER:
+            if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
+              out.write( valueMeta.getBinaryString( valueData ) );
+            } else {
+              Long integer = valueMeta.getInteger( valueData );
+              if ( integer != null ) {
+                out.write( data.bulkFormatMeta[ i ].getString( integer ).getBytes() );
               }
-              break;
-            case ValueMetaInterface.TYPE_DATE:
-              if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
-                data.fifoStream.write( valueMeta.getBinaryString( valueData ) );
-              } else {
-                Date date = valueMeta.getDate( valueData );
-                if ( date != null ) {
-                  data.fifoStream.write( data.bulkFormatMeta[ i ].getString( date ).getBytes() );
-                }
+            }
+            break;
+          case ValueMetaInterface.TYPE_DATE:
+            if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
+              out.write( valueMeta.getBinaryString( valueData ) );
+            } else {
+              Date date = valueMeta.getDate( valueData );
+              if ( date != null ) {
+                out.write( data.bulkFormatMeta[ i ].getString( date ).getBytes() );
               }
-              break;
-            case ValueMetaInterface.TYPE_BOOLEAN:
-              if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
-                data.fifoStream.write( valueMeta.getBinaryString( valueData ) );
-              } else {
-                Boolean b = valueMeta.getBoolean( valueData );
-                if ( b != null ) {
-                  data.fifoStream.write( data.bulkFormatMeta[ i ].getString( b ).getBytes() );
-                }
+            }
+            break;
+          case ValueMetaInterface.TYPE_BOOLEAN:
+            if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
+              out.write( valueMeta.getBinaryString( valueData ) );
+            } else {
+              Boolean b = valueMeta.getBoolean( valueData );
+              if ( b != null ) {
+                out.write( data.bulkFormatMeta[ i ].getString( b ).getBytes() );
+              }
+            }
+            break;
+          case ValueMetaInterface.TYPE_NUMBER:
+            if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
+              out.write( (byte[]) valueData );
+            } else {
+              /**
+               * If this is the first line, reset default conversion mask for Number type (#.#;-#.#).
+               * This will make conversion mask to be calculated according to meta data (length, precision).
+               *
+               * http://jira.pentaho.com/browse/PDI-11421
+               */
+              if ( getLinesWritten() == 0 ) {
+                data.bulkFormatMeta[ i ].setConversionMask( null );
               }
-              break;
-            case ValueMetaInterface.TYPE_NUMBER:
-              if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
-                data.fifoStream.write( (byte[]) valueData );
-              } else {
-                /**
-                 * If this is the first line, reset default conversion mask for Number type (#.#;-#.#).
-                 * This will make conversion mask to be calculated according to meta data (length, precision).
-                 *
-                 * http://jira.pentaho.com/browse/PDI-11421
-                 */
-                if ( getLinesWritten() == 0 ) {
-                  data.bulkFormatMeta[ i ].setConversionMask( null );
-                }
 
-                Double d = valueMeta.getNumber( valueData );
-                if ( d != null ) {
-                  data.fifoStream.write( data.bulkFormatMeta[ i ].getString( d ).getBytes() );
-                }
+              Double d = valueMeta.getNumber( valueData );
+              if ( d != null ) {
+                out.write( data.bulkFormatMeta[ i ].getString( d ).getBytes() );
               }
-              break;
-            case ValueMetaInterface.TYPE_BIGNUMBER:
-              if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
-                data.fifoStream.write( (byte[]) valueData );
-              } else {
-                BigDecimal bn = valueMeta.getBigNumber( valueData );
-                if ( bn != null ) {
-                  data.fifoStream.write( data.bulkFormatMeta[ i ].getString( bn ).getBytes() );
-                }
+            }
+            break;
+          case ValueMetaInterface.TYPE_BIGNUMBER:
+            if ( valueMeta.isStorageBinaryString() && data.bulkFormatMeta[ i ] == null ) {
+              out.write( (byte[]) valueData );
+            } else {
+              BigDecimal bn = valueMeta.getBigNumber( valueData );
+              if ( bn != null ) {
+                out.write( data.bulkFormatMeta[ i ].getString( bn ).getBytes() );
               }
-              break;
-            default:
-              break;
-          }
+            }
+            break;
+          default:
+            break;
         }
       }
+    }
 
-      // finally write a newline
-      //
-      data.fifoStream.write( data.newline );
+    // finally write a newline
+    //
+    out.write( data.newline );
+  }
 
-      if ( ( getLinesOutput() % 5000 ) == 0 ) {
-        data.fifoStream.flush();
-      }
-    } catch ( IOException e ) {
-      // If something went wrong with writing to the fifo, get the underlying error from MySQL
-      try {
-        logError( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.IOERROR", this.threadWaitTimeText ) );
-        try {
-          data.sqlRunner.join( this.threadWaitTime );
-        } catch ( InterruptedException ex ) {
-          // Ignore errors
-        }
-        data.sqlRunner.checkExcn();
-      } catch ( Exception loadEx ) {
-        throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.ERRORSERIALIZING" ), loadEx );
-      }
+  /**
+   * Hands the loaded values of a row to the local infile stream, a batch at a time.
+   */
+  private void writeRowToStream( Object[] r ) throws HopException {
+    Object[] values = new Object[ data.keynrs.length ];
+    for ( int i = 0; i < data.keynrs.length; i++ ) {
+      values[ i ] = r[ data.keynrs[ i ] ];
+    }
+    data.streamBatch.add( values );
+    if ( data.streamBatch.size() >= data.streamBatchSize ) {
+      sendStreamBatch( data.localInfileStream );
+    }
+  }
 
-      // MySQL didn't finish, throw the generic "Pipe" exception.
-      throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.ERRORSERIALIZING" ), e );
+  private void sendStreamBatch( MySQLLocalInfileStream stream ) throws HopException {
+    if ( data.streamBatch.isEmpty() ) {
+      return;
+    }
+    try {
+      stream.putRows( data.streamBatch );
+    } catch ( HopException e ) {
+      // The statement stopped reading, get the underlying error from MySQL
+      throwLoadError( e );
+    }
+    data.streamBatch = new ArrayList<>( data.streamBatchSize );
+  }
 
-    } catch ( Exception e2 ) {
-      // Null pointer exceptions etc.
-      throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.ERRORSERIALIZING" ), e2 );
+  private void throwLoadError( Exception e ) throws HopException {
+    try {
+      logError( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.IOERROR", this.threadWaitTimeText ) );
+      try {
+        data.sqlRunner.join( this.threadWaitTime );
+      } catch ( InterruptedException ex ) {
+        // Ignore errors
+      }
+      data.sqlRunner.checkExcn();
+    } catch ( Exception loadEx ) {
+      throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.ERRORSERIALIZING" ), loadEx );
     }
+
+    // MySQL didn't finish, throw the generic "Pipe" exception.
+    throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Message.ERRORSERIALIZING" ), e );
   }
 
   protected void verifyDatabaseConnection() throws HopException {
@@ -508,6 +622,7 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
       data.bulkNumberMeta.setStringEncoding( realEncoding );
 
       data.bulkSize = Const.toLong( environmentSubstitute( meta.getBulkSize() ), -1L );
+      data.streamBatchSize = Math.max( 1, Const.toInt( environmentSubstitute( meta.getStreamBatchSize() ), 1000 ) );
 
       // Schema-table combination...
       data.schemaTable =
@@ -531,6 +646,13 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
         data.fifoStream.close();
       }
 
+      // Stop feeding the local infile stream, the statement fails if it didn't get all the data
+      //
+      if ( data.localInfileStream != null ) {
+        data.localInfileStream.close();
+        data.localInfileStream = null;
+      }
+
       // Stop the SQL execution thread
       //
       if ( data.sqlRunner != null ) {
@@ -602,6 +724,8 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
 
     private String loadCommand;
 
+    private MySQLLocalInfileStream stream;
+
     private Exception ex;
 
     SqlRunner( MySQLBulkLoaderData data, String loadCommand ) {
@@ -609,10 +733,24 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
       this.loadCommand = loadCommand;
     }
 
+    SqlRunner( MySQLBulkLoaderData data, String loadCommand, MySQLLocalInfileStream stream ) {
+      this( data, loadCommand );
+      this.stream = stream;
+    }
+
     @Override
     public void run() {
       try {
-        data.db.execStatement( loadCommand );
+        if ( stream == null ) {
+          data.db.execStatement( loadCommand );
+        } else {
+          try ( Statement statement = data.db.getConnection().createStatement() ) {
+            setLocalInfileInputStream( statement, stream );
+            statement.execute( data.db.getDatabaseMeta().stripCR( loadCommand.trim() ) );
+          } finally {
+            stream.close();
+          }
+        }
       } catch ( Exception ex ) {
         this.ex = ex;
       }
@@ -626,4 +764,25 @@ public class MySQLBulkLoader extends BaseStep implements StepInterface {
       }
     }
   }
+
+  /**
+   * Sets the input stream the MySQL Connector/J and MariaDB drivers read the data of the next LOAD DATA LOCAL INFILE
+   * statement from, instead of the file named in the statement. The drivers aren't a compile time dependency so the
+   * method is looked up on the statement.
+   */
+  static void setLocalInfileInputStream( Statement statement, InputStream stream ) throws HopException {
+    Method method;
+    try {
+      method = statement.getClass().getMethod( "setLocalInfileInputStream", InputStream.class );
+    } catch ( NoSuchMethodException e ) {
+      throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Exception.LocalInfileStreamNotSupported",
+        statement.getClass().getName() ), e );
+    }
+    try {
+      method.invoke( statement, stream );
+    } catch ( IllegalAccessException | InvocationTargetException e ) {
+      throw new HopException( BaseMessages.getString( PKG, "MySQLBulkLoader.Exception.LocalInfileStreamNotSupported",
+        statement.getClass().getName() ), e );
+    }
+  }
 }
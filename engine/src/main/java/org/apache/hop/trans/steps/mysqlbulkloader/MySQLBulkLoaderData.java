@@ -23,12 +23,14 @@
 package org.apache.hop.trans.steps.mysqlbulkloader;
 
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.core.util.StreamLogger;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 
 import java.io.OutputStream;
+import java.util.List;
 
 /**
  * Stores data for the MySQL bulk load step.
@@ -66,6 +68,16 @@ public class MySQLBulkLoaderData extends BaseStepData implements StepDataInterfa
 
   public long bulkSize;
 
+  public MySQLLocalInfileStream localInfileStream;
+
+  public RowMetaInterface streamRowMeta;
+
+  public int[] streamKeynrs;
+
+  public List<Object[]> streamBatch;
+
+  public int streamBatchSize;
+
   /**
    * Default constructor.
    */
@@ -68,6 +68,11 @@ import java.util.List;
  * - Write to the FIFO file<br>
  * - At the end, close the output stream to the FIFO file<br>
  * * At the end, remove the FIFO file <br>
+ * <br>
+ * Alternatively the data is streamed without a FIFO file, through the local infile input stream of the JDBC driver:
+ * <br>
+ * - Execute the LOAD DATA LOCAL SQL Command with an input stream set on the statement<br>
+ * - Encode batches of rows in a background thread into the buffers read by the driver<br>
  * <p>
  * <p>
  * Created on 24-oct-2007<br>
@@ -182,6 +187,18 @@ public class MySQLBulkLoaderMeta extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "BULK_SIZE" )
   private String bulkSize;
 
+  /**
+   * Stream the data through the local infile hook of the JDBC driver instead of through a FIFO file
+   */
+  @Injection( name = "LOCAL_INFILE_STREAM" )
+  private boolean localInfileStream;
+
+  /**
+   * The number of rows encoded at a time when streaming through the JDBC driver
+   */
+  @Injection( name = "STREAM_BATCH_SIZE" )
+  private String streamBatchSize;
+
   private IMetaStore metaStore;
 
   /**
@@ -279,10 +296,12 @@ public class MySQLBulkLoaderMeta extends BaseStepMeta implements StepMetaInterfa
       escapeChar = XMLHandler.getTagValue( stepnode, "escape_char" );
 
       bulkSize = XMLHandler.getTagValue( stepnode, "bulk_size" );
+      streamBatchSize = XMLHandler.getTagValue( stepnode, "stream_batch_size" );
 
       replacingData = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "replace" ) );
       ignoringErrors = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ignore" ) );
       localFile = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "local" ) );
+      localInfileStream = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "local_infile_stream" ) );
 
       int nrvalues = XMLHandler.countNodes( stepnode, "mapping" );
       allocate( nrvalues );
@@ -317,6 +336,8 @@ public class MySQLBulkLoaderMeta extends BaseStepMeta implements StepMetaInterfa
     ignoringErrors = false;
     localFile = true;
     bulkSize = null;
+    localInfileStream = false;
+    streamBatchSize = "1000";
 
     allocate( 0 );
   }
@@ -337,6 +358,8 @@ public class MySQLBulkLoaderMeta extends BaseStepMeta implements StepMetaInterfa
     retval.append( "    " ).append( XMLHandler.addTagValue( "local", localFile ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "fifo_file_name", fifoFileName ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "bulk_size", bulkSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "local_infile_stream", localInfileStream ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "stream_batch_size", streamBatchSize ) );
 
     for ( int i = 0; i < fieldTable.length; i++ ) {
       retval.append( "      <mapping>" ).append( Const.CR );
@@ -770,6 +793,34 @@ public class MySQLBulkLoaderMeta extends BaseStepMeta implements StepMetaInterfa
     this.localFile = localFile;
   }
 
+  /**
+   * @return true if the data is streamed through the local infile hook of the JDBC driver instead of a FIFO file
+   */
+  public boolean isLocalInfileStream() {
+    return localInfileStream;
+  }
+
+  /**
+   * @param localInfileStream true to stream the data through the local infile hook of the JDBC driver
+   */
+  public void setLocalInfileStream( boolean localInfileStream ) {
+    this.localInfileStream = localInfileStream;
+  }
+
+  /**
+   * @return the number of rows encoded at a time when streaming through the JDBC driver
+   */
+  public String getStreamBatchSize() {
+    return streamBatchSize;
+  }
+
+  /**
+   * @param streamBatchSize the number of rows encoded at a time when streaming through the JDBC driver
+   */
+  public void setStreamBatchSize( String streamBatchSize ) {
+    this.streamBatchSize = streamBatchSize;
+  }
+
   @Override
   public String getMissingDatabaseConnectionInformationMessage() {
     // TODO Auto-generated method stub
@@ -0,0 +1,239 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.mysqlbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The data of a LOAD DATA LOCAL INFILE command, handed to the JDBC driver as an input stream instead of going through
+ * a FIFO file. The step hands over batches of rows with {@link #putRows(List)}. A background thread encodes them into
+ * one of two buffers while the driver reads the other one, so encoding and sending overlap.
+ */
+public class MySQLLocalInfileStream extends InputStream implements Runnable {
+
+  /**
+   * Encodes a row in the text format of the LOAD DATA command.
+   */
+  public interface RowEncoder {
+    void encode( OutputStream out, Object[] row ) throws Exception;
+  }
+
+  private static final int NR_BUFFERS = 2;
+  private static final long POLL_MILLIS = 100;
+
+  private static final List<Object[]> END_OF_ROWS = new ArrayList<>( 0 );
+  private static final Buffer END_OF_DATA = new Buffer( 0 );
+
+  private final RowEncoder encoder;
+  private final BlockingQueue<List<Object[]>> rowQueue = new ArrayBlockingQueue<>( NR_BUFFERS );
+  private final BlockingQueue<Buffer> freeBuffers = new ArrayBlockingQueue<>( NR_BUFFERS );
+  private final BlockingQueue<Buffer> filledBuffers = new ArrayBlockingQueue<>( NR_BUFFERS + 1 );
+
+  private Thread thread;
+  private volatile Exception error;
+  private volatile boolean closed;
+
+  // Only used by the thread of the driver reading the stream
+  //
+  private Buffer current;
+  private int position;
+  private long bytes;
+
+  /**
+   * @param encoder    the encoder for the rows, only used by the background thread
+   * @param bufferSize the initial size of each of the two buffers, in bytes
+   */
+  public MySQLLocalInfileStream( RowEncoder encoder, int bufferSize ) {
+    this.encoder = encoder;
+    for ( int i = 0; i < NR_BUFFERS; i++ ) {
+      freeBuffers.add( new Buffer( bufferSize ) );
+    }
+  }
+
+  /**
+   * Start the background thread encoding the rows.
+   *
+   * @param threadName the name of the thread
+   */
+  public void start( String threadName ) {
+    thread = new Thread( this, threadName );
+    thread.setDaemon( true );
+    thread.start();
+  }
+
+  /**
+   * Hand a batch of rows over to the background thread, waiting for room if both buffers are in use.
+   *
+   * @param rows the rows, which are not changed by the caller anymore
+   */
+  public void putRows( List<Object[]> rows ) throws HopException {
+    checkError();
+    try {
+      offer( rowQueue, rows );
+    } catch ( IOException e ) {
+      checkError();
+      throw new HopException( "The LOAD DATA statement stopped reading rows", e );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while handing rows to the LOAD DATA statement", e );
+    }
+  }
+
+  /**
+   * Signal the end of the data once the rows handed over so far are read. The statement then completes.
+   */
+  public void finish() throws HopException {
+    putRows( END_OF_ROWS );
+  }
+
+  private void checkError() throws HopException {
+    if ( error != null ) {
+      throw new HopException( "Error encoding rows for the LOAD DATA statement", error );
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      for ( List<Object[]> rows = take( rowQueue ); rows != END_OF_ROWS; rows = take( rowQueue ) ) {
+        Buffer buffer = take( freeBuffers );
+        buffer.reset();
+        for ( Object[] row : rows ) {
+          encoder.encode( buffer, row );
+        }
+        offer( filledBuffers, buffer );
+      }
+      offer( filledBuffers, END_OF_DATA );
+    } catch ( Exception e ) {
+      // Also when the stream is closed before all the rows are read
+      if ( !closed ) {
+        error = e;
+      }
+      filledBuffers.offer( END_OF_DATA );
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] one = new byte[ 1 ];
+    int n = read( one, 0, 1 );
+    return n < 0 ? -1 : one[ 0 ] & 0xFF;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    while ( current == null || position >= current.size() ) {
+      if ( current == END_OF_DATA ) {
+        return -1;
+      }
+      if ( current != null ) {
+        freeBuffers.offer( current );
+      }
+      try {
+        current = take( filledBuffers );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new IOException( "Interrupted while waiting for rows to load", e );
+      }
+      position = 0;
+      if ( current == END_OF_DATA && error != null ) {
+        throw new IOException( "Error encoding rows for the LOAD DATA statement", error );
+      }
+    }
+    int n = Math.min( len, current.size() - position );
+    System.arraycopy( current.bytes(), position, b, off, n );
+    position += n;
+    bytes += n;
+    return n;
+  }
+
+  /**
+   * Stop the background thread. Called once the statement is done with the stream, or failed.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    if ( thread != null && thread != Thread.currentThread() ) {
+      thread.interrupt();
+      try {
+        thread.join();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes read by the driver
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  private <T> void offer( BlockingQueue<T> queue, T item ) throws IOException, InterruptedException {
+    while ( !queue.offer( item, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+      checkClosed();
+    }
+  }
+
+  private <T> T take( BlockingQueue<T> queue ) throws IOException, InterruptedException {
+    T item = queue.poll( POLL_MILLIS, TimeUnit.MILLISECONDS );
+    while ( item == null ) {
+      checkClosed();
+      item = queue.poll( POLL_MILLIS, TimeUnit.MILLISECONDS );
+    }
+    return item;
+  }
+
+  private void checkClosed() throws IOException {
+    if ( closed ) {
+      throw new IOException( "The LOAD DATA stream is closed" );
+    }
+  }
+
+  /**
+   * A buffer giving access to its bytes without copying them.
+   */
+  private static class Buffer extends ByteArrayOutputStream {
+    Buffer( int size ) {
+      super( size );
+    }
+
+    byte[] bytes() {
+      return buf;
+    }
+  }
+}
@@ -0,0 +1,916 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.parallelgzipcsv;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A seek index for a gzip file: access points from which the file can be decompressed without decompressing what
+ * comes before them, in the spirit of the zran example of zlib.
+ * <p>
+ * An access point is the start of a deflate block. It keeps the compressed byte and bit the block starts at, the
+ * uncompressed offset of the block and the last 32KB of uncompressed data before it, the window the block can refer
+ * back to. The index also keeps where the compressed data of every gzip member starts, so a file made of several
+ * members (concatenated gzip files, BGZF) is read across member boundaries. BGZF members (blocked gzip, as written by
+ * bgzip) carry their compressed size in their header and are indexed without decompressing them.
+ * <p>
+ * java.util.zip can't report deflate block boundaries, so building the index decodes the file once here. Reading from
+ * an access point uses a regular {@link Inflater}. It can't be told to start at a bit within a byte, so it is first
+ * handed empty deflate blocks that end at the bit the block starts at, like inflatePrime of zlib. The compressed
+ * data keeps its place in the bytes that way, which stored blocks depend on.
+ */
+public class GzipIndex {
+
+  /** The extension of the index file, saved next to the gzip file */
+  public static final String EXTENSION = ".gzidx";
+
+  /** The minimum number of uncompressed bytes between two access points */
+  static final long MIN_SPAN = 1024L * 1024L;
+
+  private static final int WINDOW_SIZE = 32768;
+  private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+  private static final int MAGIC = 0x485a4958; // HZIX
+  private static final int VERSION = 1;
+
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+
+  private static final int[] LENGTH_BASE = {
+    3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258 };
+  private static final int[] LENGTH_EXTRA = {
+    0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0 };
+  private static final int[] DISTANCE_BASE = {
+    1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097,
+    6145, 8193, 12289, 16385, 24577 };
+  private static final int[] DISTANCE_EXTRA = {
+    0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13 };
+  private static final int[] CODE_LENGTH_ORDER = {
+    16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15 };
+
+  private final long compressedSize;
+  private final long lastModified;
+  private final long uncompressedSize;
+  private final List<AccessPoint> points;
+  /** The offset of the compressed data of every member, followed by its uncompressed offset */
+  private final long[] members;
+
+  private GzipIndex( long compressedSize, long lastModified, long uncompressedSize, List<AccessPoint> points,
+                     long[] members ) {
+    this.compressedSize = compressedSize;
+    this.lastModified = lastModified;
+    this.uncompressedSize = uncompressedSize;
+    this.points = points;
+    this.members = members;
+  }
+
+  /**
+   * Build the index of a gzip file, with about a thousand access points for a large file.
+   *
+   * @param in             the gzip file, from the start
+   * @param compressedSize the size of the file
+   * @param lastModified   the last modification time of the file, to see later on if the index is still current
+   * @return the index
+   * @throws IOException in case the file can't be read or is not a gzip file
+   */
+  public static GzipIndex build( InputStream in, long compressedSize, long lastModified ) throws IOException {
+    return build( in, compressedSize, lastModified, Math.max( MIN_SPAN, compressedSize / 256 ) );
+  }
+
+  static GzipIndex build( InputStream in, long compressedSize, long lastModified, long span ) throws IOException {
+    return new Builder( in, span ).build( compressedSize, lastModified );
+  }
+
+  /**
+   * @return true if the index was built for a file of this size and modification time
+   */
+  public boolean isCurrent( long compressedSize, long lastModified ) {
+    return this.compressedSize == compressedSize && this.lastModified == lastModified;
+  }
+
+  /**
+   * @return the size of the decompressed file
+   */
+  public long getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  /**
+   * @return the number of access points
+   */
+  public int getAccessPointCount() {
+    return points.size();
+  }
+
+  /**
+   * Open the decompressed file at an offset. Only the data from the last access point before the offset is
+   * decompressed.
+   *
+   * @param in                 the gzip file, from the start. It is closed with the returned stream.
+   * @param uncompressedOffset the offset in the decompressed file to start reading at
+   * @return the decompressed file from the offset onwards
+   * @throws IOException in case of a read error
+   */
+  public InputStream open( InputStream in, long uncompressedOffset ) throws IOException {
+    AccessPoint point = points.get( 0 );
+    for ( AccessPoint candidate : points ) {
+      if ( candidate.uncompressedOffset > uncompressedOffset ) {
+        break;
+      }
+      point = candidate;
+    }
+    skipFully( in, point.compressedOffset );
+
+    int member = 0;
+    while ( member + 1 < members.length / 2 && members[ ( member + 1 ) * 2 ] <= point.compressedOffset ) {
+      member++;
+    }
+
+    InputStream stream = new IndexedInputStream( in, point, member );
+    try {
+      skipFully( stream, uncompressedOffset - point.uncompressedOffset );
+    } catch ( IOException e ) {
+      stream.close();
+      throw e;
+    }
+    return stream;
+  }
+
+  /**
+   * Write the index, see {@link #read(InputStream)}.
+   */
+  public void write( OutputStream out ) throws IOException {
+    DataOutputStream data = new DataOutputStream( out );
+    data.writeInt( MAGIC );
+    data.writeInt( VERSION );
+    data.writeLong( compressedSize );
+    data.writeLong( lastModified );
+    data.writeLong( uncompressedSize );
+    data.writeInt( members.length / 2 );
+    for ( long value : members ) {
+      data.writeLong( value );
+    }
+    data.writeInt( points.size() );
+    for ( AccessPoint point : points ) {
+      data.writeLong( point.compressedOffset );
+      data.writeByte( point.bits );
+      data.writeLong( point.uncompressedOffset );
+      data.writeInt( point.windowLength );
+      data.writeInt( point.window.length );
+      data.write( point.window );
+    }
+    data.flush();
+  }
+
+  /**
+   * Read an index written by {@link #write(OutputStream)}.
+   *
+   * @throws IOException in case of a read error or if this is not an index file
+   */
+  public static GzipIndex read( InputStream in ) throws IOException {
+    DataInputStream data = new DataInputStream( in );
+    if ( data.readInt() != MAGIC || data.readInt() != VERSION ) {
+      throw new IOException( "Not a gzip seek index" );
+    }
+    long compressedSize = data.readLong();
+    long lastModified = data.readLong();
+    long uncompressedSize = data.readLong();
+    long[] members = new long[ data.readInt() * 2 ];
+    for ( int i = 0; i < members.length; i++ ) {
+      members[ i ] = data.readLong();
+    }
+    int nrPoints = data.readInt();
+    if ( members.length == 0 || nrPoints == 0 ) {
+      throw new IOException( "Empty gzip seek index" );
+    }
+    List<AccessPoint> points = new ArrayList<>( nrPoints );
+    for ( int i = 0; i < nrPoints; i++ ) {
+      long compressedOffset = data.readLong();
+      int bits = data.readByte();
+      long uncompressedOffset = data.readLong();
+      int windowLength = data.readInt();
+      byte[] window = new byte[ data.readInt() ];
+      data.readFully( window );
+      points.add( new AccessPoint( compressedOffset, bits, uncompressedOffset, window, windowLength ) );
+    }
+    return new GzipIndex( compressedSize, lastModified, uncompressedSize, Collections.unmodifiableList( points ),
+      members );
+  }
+
+  private static void skipFully( InputStream in, long bytes ) throws IOException {
+    while ( bytes > 0 ) {
+      long skipped = in.skip( bytes );
+      if ( skipped <= 0 ) {
+        if ( in.read() < 0 ) {
+          throw new EOFException( "Unexpected end of the gzip file" );
+        }
+        skipped = 1;
+      }
+      bytes -= skipped;
+    }
+  }
+
+  /**
+   * Empty, non-final deflate blocks to hand an {@link Inflater} ahead of an access point that starts at a bit within a
+   * byte. The blocks end at that bit of their last byte, followed by the bits of the first compressed byte from that bit
+   * onwards.
+   * <p>
+   * An empty block with the fixed codes is 10 bits. An empty block with dynamic codes is made 91 bits long here, so
+   * adding fixed blocks to it reaches any odd bit.
+   *
+   * @param bits      the bit the access point starts at, 1 to 7
+   * @param firstByte the compressed byte the access point starts in
+   * @return the empty blocks followed by the bits of firstByte the access point starts with
+   */
+  private static byte[] primer( int bits, int firstByte ) {
+    byte[] data = new byte[ 16 ];
+    int position = 0;
+    if ( ( bits & 1 ) != 0 ) {
+      // Codes for the end of block symbol and 2 distances only, coded with 1 bit code lengths for 1 and for 18
+      //
+      position = writeBits( data, position, 4, 3 );
+      position = writeBits( data, position, 0, 5 );
+      position = writeBits( data, position, 2 - 1, 5 );
+      position = writeBits( data, position, 18 - 4, 4 );
+      for ( int i = 0; i < 18; i++ ) {
+        int symbol = CODE_LENGTH_ORDER[ i ];
+        position = writeBits( data, position, symbol == 1 || symbol == 18 ? 1 : 0, 3 );
+      }
+      // Code length 0 for the 256 literals, repeated 138 and 118 times, then 1 for the end of block and the distances
+      //
+      position = writeBits( data, position, 1, 1 );
+      position = writeBits( data, position, 138 - 11, 7 );
+      position = writeBits( data, position, 1, 1 );
+      position = writeBits( data, position, 118 - 11, 7 );
+      position = writeBits( data, position, 0, 3 );
+      // The end of the block
+      position = writeBits( data, position, 0, 1 );
+    }
+    while ( ( position & 7 ) != bits ) {
+      position = writeBits( data, position, 2, 3 );
+      position = writeBits( data, position, 0, 7 );
+    }
+    data[ position >>> 3 ] |= (byte) ( firstByte & ( 0xff << bits ) );
+    return Arrays.copyOf( data, ( position >>> 3 ) + 1 );
+  }
+
+  private static int writeBits( byte[] data, int position, int value, int count ) {
+    for ( int i = 0; i < count; i++ ) {
+      if ( ( ( value >>> i ) & 1 ) != 0 ) {
+        data[ position >>> 3 ] |= (byte) ( 1 << ( position & 7 ) );
+      }
+      position++;
+    }
+    return position;
+  }
+
+  private static final class AccessPoint {
+    /** The byte the first deflate block starts in */
+    private final long compressedOffset;
+    /** The bit in that byte the block starts at */
+    private final int bits;
+    private final long uncompressedOffset;
+    /** The deflated window */
+    private final byte[] window;
+    private final int windowLength;
+
+    private AccessPoint( long compressedOffset, int bits, long uncompressedOffset, byte[] window, int windowLength ) {
+      this.compressedOffset = compressedOffset;
+      this.bits = bits;
+      this.uncompressedOffset = uncompressedOffset;
+      this.window = window;
+      this.windowLength = windowLength;
+    }
+
+    private byte[] getWindow() throws IOException {
+      byte[] result = new byte[ windowLength ];
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput( window );
+        int length = 0;
+        while ( length < windowLength && !inflater.finished() ) {
+          length += inflater.inflate( result, length, windowLength - length );
+          if ( inflater.needsInput() ) {
+            break;
+          }
+        }
+        if ( length != windowLength ) {
+          throw new ZipException( "Corrupt window in the gzip seek index" );
+        }
+      } catch ( DataFormatException e ) {
+        throw new ZipException( "Corrupt window in the gzip seek index" );
+      } finally {
+        inflater.end();
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Decompresses from an access point onwards, moving on to the next member at the end of a member.
+   */
+  private final class IndexedInputStream extends InputStream {
+    private final InputStream in;
+    private final Inflater inflater = new Inflater( true );
+    private final byte[] raw = new byte[ 65536 ];
+    private final byte[] single = new byte[ 1 ];
+    private byte[] skipBuffer;
+
+    /** The compressed offset of the data in the raw buffer and its length */
+    private long rawStart;
+    private int rawLength;
+
+    private int member;
+    private boolean eof;
+
+    private IndexedInputStream( InputStream in, AccessPoint point, int member ) throws IOException {
+      this.in = in;
+      this.member = member;
+      this.rawStart = point.compressedOffset;
+      if ( point.windowLength > 0 ) {
+        inflater.setDictionary( point.getWindow() );
+      }
+      if ( point.bits != 0 ) {
+        int firstByte = in.read();
+        if ( firstByte < 0 ) {
+          throw new EOFException( "Unexpected end of the gzip file" );
+        }
+        rawStart++;
+        inflater.setInput( primer( point.bits, firstByte ) );
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      return read( single, 0, 1 ) < 0 ? -1 : single[ 0 ] & 0xff;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+      if ( len == 0 ) {
+        return 0;
+      }
+      try {
+        while ( !eof ) {
+          int n = inflater.inflate( b, off, len );
+          if ( n > 0 ) {
+            return n;
+          }
+          if ( inflater.finished() ) {
+            nextMember();
+          } else if ( inflater.needsDictionary() ) {
+            throw new ZipException( "Unexpected preset dictionary in the gzip file" );
+          } else if ( inflater.needsInput() ) {
+            fill();
+          }
+        }
+        return -1;
+      } catch ( DataFormatException e ) {
+        throw new ZipException( e.getMessage() );
+      }
+    }
+
+    private void fill() throws IOException {
+      rawStart += rawLength;
+      rawLength = Math.max( 0, in.read( raw ) );
+      if ( rawLength == 0 ) {
+        throw new EOFException( "Unexpected end of the gzip file" );
+      }
+      inflater.setInput( raw, 0, rawLength );
+    }
+
+    private void nextMember() throws IOException {
+      member++;
+      if ( member >= members.length / 2 ) {
+        eof = true;
+        return;
+      }
+      long dataOffset = members[ member * 2 ];
+      inflater.reset();
+      if ( dataOffset < rawStart + rawLength ) {
+        int offset = (int) ( dataOffset - rawStart );
+        inflater.setInput( raw, offset, rawLength - offset );
+      } else {
+        skipFully( in, dataOffset - rawStart - rawLength );
+        rawStart = dataOffset;
+        rawLength = 0;
+      }
+    }
+
+    @Override
+    public long skip( long n ) throws IOException {
+      if ( skipBuffer == null ) {
+        skipBuffer = new byte[ 65536 ];
+      }
+      long skipped = 0;
+      while ( skipped < n ) {
+        int read = read( skipBuffer, 0, (int) Math.min( skipBuffer.length, n - skipped ) );
+        if ( read < 0 ) {
+          break;
+        }
+        skipped += read;
+      }
+      return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+      inflater.end();
+      in.close();
+    }
+  }
+
+  /**
+   * Decodes the gzip file once, keeping an access point at a block start every span uncompressed bytes.
+   */
+  private static final class Builder {
+    private final InputStream in;
+    private final long span;
+    private final byte[] buffer = new byte[ 65536 ];
+    private int bufferPosition;
+    private int bufferLength;
+    /** The number of bytes taken from the file so far */
+    private long bytesRead;
+    private int padding;
+
+    private long bitBuffer;
+    private int bitCount;
+
+    private final byte[] window = new byte[ WINDOW_SIZE ];
+    private long out;
+    private long memberStart;
+    private long lastPoint = -1L;
+
+    private final Huffman literals = new Huffman();
+    private final Huffman distances = new Huffman();
+    private final Huffman codeLengths = new Huffman();
+    private final int[] lengths = new int[ 320 ];
+    private final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+
+    private final List<AccessPoint> points = new ArrayList<>();
+    private long[] members = new long[ 16 ];
+    private int nrMembers;
+
+    private Builder( InputStream in, long span ) {
+      this.in = in;
+      this.span = span;
+    }
+
+    private GzipIndex build( long compressedSize, long lastModified ) throws IOException {
+      try {
+        while ( readHeader() ) {
+          // Read the next member
+        }
+      } finally {
+        deflater.end();
+      }
+      if ( nrMembers == 0 ) {
+        throw new ZipException( "Not in GZIP format" );
+      }
+      return new GzipIndex( compressedSize, lastModified, out, Collections.unmodifiableList( points ),
+        Arrays.copyOf( members, nrMembers * 2 ) );
+    }
+
+    /**
+     * Read the header of the next member and the member itself.
+     *
+     * @return false at the end of the file
+     */
+    private boolean readHeader() throws IOException {
+      long headerStart = position() >>> 3;
+      int id1 = readByte();
+      int id2 = id1 < 0 ? -1 : readByte();
+      if ( id1 != 0x1f || id2 != 0x8b ) {
+        if ( nrMembers == 0 ) {
+          throw new ZipException( "Not in GZIP format" );
+        }
+        // Like GZIPInputStream, anything after the last member is ignored
+        return false;
+      }
+      if ( readByteFully() != 8 ) {
+        throw new ZipException( "Unsupported compression method" );
+      }
+      int flags = readByteFully();
+      skipBytes( 6 );
+
+      int blockSize = -1;
+      if ( ( flags & FEXTRA ) != 0 ) {
+        int extraLength = readShort();
+        while ( extraLength >= 4 ) {
+          int subfield1 = readByteFully();
+          int subfield2 = readByteFully();
+          int subfieldLength = readShort();
+          extraLength -= 4;
+          if ( subfield1 == 'B' && subfield2 == 'C' && subfieldLength == 2 ) {
+            blockSize = readShort();
+          } else {
+            skipBytes( Math.min( subfieldLength, extraLength ) );
+          }
+          extraLength -= subfieldLength;
+        }
+        skipBytes( Math.max( 0, extraLength ) );
+      }
+      if ( ( flags & FNAME ) != 0 ) {
+        while ( readByteFully() != 0 ) {
+          // Skip the file name
+        }
+      }
+      if ( ( flags & FCOMMENT ) != 0 ) {
+        while ( readByteFully() != 0 ) {
+          // Skip the comment
+        }
+      }
+      if ( ( flags & FHCRC ) != 0 ) {
+        skipBytes( 2 );
+      }
+
+      long dataStart = position() >>> 3;
+      addMember( dataStart );
+      memberStart = out;
+      if ( blockSize >= 0 ) {
+        // A BGZF member: skip the compressed data, the uncompressed size is in the trailer
+        //
+        long dataLength = headerStart + blockSize + 1 - 8 - dataStart;
+        if ( dataLength < 0 ) {
+          throw new ZipException( "Invalid BGZF block size" );
+        }
+        if ( points.isEmpty() || out - lastPoint >= span ) {
+          addPoint( dataStart * 8 );
+        }
+        skipBytes( dataLength );
+        skipBytes( 4 );
+        out += readInt() & 0xffffffffL;
+      } else {
+        inflateMember();
+        dropBits( bitCount & 7 );
+        skipBytes( 4 );
+        if ( ( readInt() & 0xffffffffL ) != ( ( out - memberStart ) & 0xffffffffL ) ) {
+          throw new ZipException( "Corrupt GZIP trailer" );
+        }
+      }
+      return true;
+    }
+
+    private void addMember( long dataStart ) {
+      if ( nrMembers * 2 == members.length ) {
+        members = Arrays.copyOf( members, members.length * 2 );
+      }
+      members[ nrMembers * 2 ] = dataStart;
+      members[ nrMembers * 2 + 1 ] = out;
+      nrMembers++;
+    }
+
+    private void addPoint( long bitPosition ) {
+      int windowLength = (int) Math.min( WINDOW_SIZE, out - memberStart );
+      byte[] data = new byte[ windowLength ];
+      for ( int i = 0; i < windowLength; i++ ) {
+        data[ i ] = window[ (int) ( out - windowLength + i ) & WINDOW_MASK ];
+      }
+      deflater.reset();
+      deflater.setInput( data );
+      deflater.finish();
+      byte[] compressed = new byte[ windowLength + 64 ];
+      int length = 0;
+      while ( !deflater.finished() ) {
+        if ( length == compressed.length ) {
+          compressed = Arrays.copyOf( compressed, compressed.length * 2 );
+        }
+        length += deflater.deflate( compressed, length, compressed.length - length );
+      }
+      points.add( new AccessPoint( bitPosition >>> 3, (int) ( bitPosition & 7 ), out,
+        Arrays.copyOf( compressed, length ), windowLength ) );
+      lastPoint = out;
+    }
+
+    private void inflateMember() throws IOException {
+      boolean last;
+      do {
+        if ( points.isEmpty() || out - lastPoint >= span ) {
+          addPoint( position() );
+        }
+        last = bits( 1 ) == 1;
+        int type = bits( 2 );
+        switch ( type ) {
+          case 0:
+            stored();
+            break;
+          case 1:
+            literals.buildFixedLiterals();
+            distances.buildFixedDistances();
+            codes();
+            break;
+          case 2:
+            dynamicTables();
+            codes();
+            break;
+          default:
+            throw new ZipException( "Invalid deflate block type" );
+        }
+        if ( padding > 0 && ( padding * 8 ) > bitCount ) {
+          throw new EOFException( "Unexpected end of the gzip file" );
+        }
+      } while ( !last );
+    }
+
+    private void stored() throws IOException {
+      dropBits( bitCount & 7 );
+      int length = bits( 16 );
+      int complement = bits( 16 );
+      if ( length != ( ~complement & 0xffff ) ) {
+        throw new ZipException( "Invalid stored block length" );
+      }
+      for ( int i = 0; i < length; i++ ) {
+        window[ (int) out++ & WINDOW_MASK ] = (byte) readByteFully();
+      }
+    }
+
+    private void dynamicTables() throws IOException {
+      int nrLiterals = bits( 5 ) + 257;
+      int nrDistances = bits( 5 ) + 1;
+      int nrCodeLengths = bits( 4 ) + 4;
+      if ( nrLiterals > 286 || nrDistances > 30 ) {
+        throw new ZipException( "Invalid dynamic block code counts" );
+      }
+      Arrays.fill( lengths, 0, 19, 0 );
+      for ( int i = 0; i < nrCodeLengths; i++ ) {
+        lengths[ CODE_LENGTH_ORDER[ i ] ] = bits( 3 );
+      }
+      codeLengths.build( lengths, 0, 19 );
+
+      int index = 0;
+      while ( index < nrLiterals + nrDistances ) {
+        int symbol = decode( codeLengths );
+        if ( symbol < 16 ) {
+          lengths[ index++ ] = symbol;
+          continue;
+        }
+        int value = 0;
+        int repeat;
+        if ( symbol == 16 ) {
+          if ( index == 0 ) {
+            throw new ZipException( "Invalid code length repeat" );
+          }
+          value = lengths[ index - 1 ];
+          repeat = 3 + bits( 2 );
+        } else if ( symbol == 17 ) {
+          repeat = 3 + bits( 3 );
+        } else {
+          repeat = 11 + bits( 7 );
+        }
+        if ( index + repeat > nrLiterals + nrDistances ) {
+          throw new ZipException( "Invalid code length repeat" );
+        }
+        while ( repeat-- > 0 ) {
+          lengths[ index++ ] = value;
+        }
+      }
+      if ( lengths[ 256 ] == 0 ) {
+        throw new ZipException( "Missing end of block code" );
+      }
+      literals.build( lengths, 0, nrLiterals );
+      distances.build( lengths, nrLiterals, nrDistances );
+    }
+
+    private void codes() throws IOException {
+      while ( true ) {
+        int symbol = decode( literals );
+        if ( symbol < 256 ) {
+          window[ (int) out++ & WINDOW_MASK ] = (byte) symbol;
+        } else if ( symbol == 256 ) {
+          return;
+        } else {
+          symbol -= 257;
+          if ( symbol >= 29 ) {
+            throw new ZipException( "Invalid literal/length code" );
+          }
+          int length = LENGTH_BASE[ symbol ] + bits( LENGTH_EXTRA[ symbol ] );
+          int distanceSymbol = decode( distances );
+          if ( distanceSymbol >= 30 ) {
+            throw new ZipException( "Invalid distance code" );
+          }
+          int distance = DISTANCE_BASE[ distanceSymbol ] + bits( DISTANCE_EXTRA[ distanceSymbol ] );
+          if ( distance > out - memberStart ) {
+            throw new ZipException( "Invalid distance too far back" );
+          }
+          for ( int i = 0; i < length; i++ ) {
+            window[ (int) out & WINDOW_MASK ] = window[ (int) ( out - distance ) & WINDOW_MASK ];
+            out++;
+          }
+        }
+      }
+    }
+
+    private int decode( Huffman huffman ) throws IOException {
+      need( huffman.bits );
+      int entry = huffman.table[ (int) bitBuffer & ( ( 1 << huffman.bits ) - 1 ) ];
+      if ( entry == 0 ) {
+        throw new ZipException( "Invalid Huffman code" );
+      }
+      dropBits( entry & 15 );
+      return entry >>> 4;
+    }
+
+    /**
+     * @return the position in the file in bits
+     */
+    private long position() {
+      return bytesRead * 8 - bitCount;
+    }
+
+    private void need( int n ) throws IOException {
+      while ( bitCount < n ) {
+        int b = nextByte();
+        if ( b < 0 ) {
+          // Pad with zeros so a code at the very end can be looked up, taking them is an error
+          //
+          padding++;
+          b = 0;
+        }
+        bitBuffer |= (long) b << bitCount;
+        bitCount += 8;
+      }
+    }
+
+    private int bits( int n ) throws IOException {
+      if ( n == 0 ) {
+        return 0;
+      }
+      need( n );
+      int value = (int) bitBuffer & ( ( 1 << n ) - 1 );
+      dropBits( n );
+      return value;
+    }
+
+    private void dropBits( int n ) {
+      bitBuffer >>>= n;
+      bitCount -= n;
+    }
+
+    private int nextByte() throws IOException {
+      if ( bufferPosition == bufferLength ) {
+        bufferLength = in.read( buffer );
+        bufferPosition = 0;
+        if ( bufferLength <= 0 ) {
+          bufferLength = 0;
+          return -1;
+        }
+      }
+      bytesRead++;
+      return buffer[ bufferPosition++ ] & 0xff;
+    }
+
+    /**
+     * @return the next byte of a byte aligned position or -1 at the end of the file
+     */
+    private int readByte() throws IOException {
+      if ( bitCount >= 8 ) {
+        int value = (int) bitBuffer & 0xff;
+        dropBits( 8 );
+        return padding > 0 && bitCount < padding * 8 ? -1 : value;
+      }
+      return nextByte();
+    }
+
+    private int readByteFully() throws IOException {
+      int value = readByte();
+      if ( value < 0 ) {
+        throw new EOFException( "Unexpected end of the gzip file" );
+      }
+      return value;
+    }
+
+    private int readShort() throws IOException {
+      return readByteFully() | readByteFully() << 8;
+    }
+
+    private int readInt() throws IOException {
+      return readShort() | readShort() << 16;
+    }
+
+    private void skipBytes( long n ) throws IOException {
+      while ( n > 0 && bitCount >= 8 ) {
+        readByteFully();
+        n--;
+      }
+      int buffered = Math.min( (int) Math.min( n, Integer.MAX_VALUE ), bufferLength - bufferPosition );
+      bufferPosition += buffered;
+      bytesRead += buffered;
+      n -= buffered;
+      if ( n > 0 ) {
+        skipFully( in, n );
+        bytesRead += n;
+      }
+    }
+  }
+
+  /**
+   * A canonical Huffman code as a table indexed by the next (bit reversed) bits of the data, giving the symbol and the
+   * length of its code.
+   */
+  private static final class Huffman {
+    private static final int[] FIXED_LITERAL_LENGTHS = new int[ 288 ];
+    private static final int[] FIXED_DISTANCE_LENGTHS = new int[ 30 ];
+
+    static {
+      Arrays.fill( FIXED_LITERAL_LENGTHS, 0, 144, 8 );
+      Arrays.fill( FIXED_LITERAL_LENGTHS, 144, 256, 9 );
+      Arrays.fill( FIXED_LITERAL_LENGTHS, 256, 280, 7 );
+      Arrays.fill( FIXED_LITERAL_LENGTHS, 280, 288, 8 );
+      Arrays.fill( FIXED_DISTANCE_LENGTHS, 5 );
+    }
+
+    private final int[] table = new int[ 1 << 15 ];
+    private final int[] counts = new int[ 16 ];
+    private final int[] nextCodes = new int[ 16 ];
+    private int bits;
+    private int fixed;
+
+    private void buildFixedLiterals() throws ZipException {
+      if ( fixed != 1 ) {
+        build( FIXED_LITERAL_LENGTHS, 0, 288 );
+        fixed = 1;
+      }
+    }
+
+    private void buildFixedDistances() throws ZipException {
+      if ( fixed != 2 ) {
+        build( FIXED_DISTANCE_LENGTHS, 0, 30 );
+        fixed = 2;
+      }
+    }
+
+    private void build( int[] lengths, int offset, int count ) throws ZipException {
+      fixed = 0;
+      Arrays.fill( counts, 0 );
+      int maxBits = 1;
+      for ( int i = 0; i < count; i++ ) {
+        int length = lengths[ offset + i ];
+        counts[ length ]++;
+        maxBits = Math.max( maxBits, length );
+      }
+      counts[ 0 ] = 0;
+      int left = 1;
+      for ( int length = 1; length < 16; length++ ) {
+        left = ( left << 1 ) - counts[ length ];
+        if ( left < 0 ) {
+          throw new ZipException( "Over-subscribed Huffman code" );
+        }
+      }
+      int code = 0;
+      for ( int length = 1; length < 16; length++ ) {
+        code = ( code + counts[ length - 1 ] ) << 1;
+        nextCodes[ length ] = code;
+      }
+
+      bits = maxBits;
+      int size = 1 << maxBits;
+      Arrays.fill( table, 0, size, 0 );
+      for ( int symbol = 0; symbol < count; symbol++ ) {
+        int length = lengths[ offset + symbol ];
+        if ( length == 0 ) {
+          continue;
+        }
+        int reversed = Integer.reverse( nextCodes[ length ]++ ) >>> ( 32 - length );
+        int entry = symbol << 4 | length;
+        for ( int i = reversed; i < size; i += 1 << length ) {
+          table[ i ] = entry;
+        }
+      }
+    }
+  }
+}
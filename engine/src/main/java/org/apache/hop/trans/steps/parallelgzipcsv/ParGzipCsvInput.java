@@ -40,9 +40,18 @@ import org.apache.hop.trans.step.StepInterface;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.step.StepMetaInterface;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -54,6 +63,20 @@ import java.util.zip.GZIPInputStream;
 public class ParGzipCsvInput extends BaseStep implements StepInterface {
   private static Class<?> PKG = ParGzipCsvInputMeta.class; // for i18n purposes, needed by Translator2!!
 
+  private static final int MAX_CACHED_SEEK_INDEXES = 16;
+
+  /**
+   * The seek indexes loaded or built in this JVM, shared by the step copies reading the same file.
+   */
+  private static final Map<String, GzipIndex> seekIndexes =
+    Collections.synchronizedMap( new LinkedHashMap<String, GzipIndex>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, GzipIndex> eldest ) {
+        return size() > MAX_CACHED_SEEK_INDEXES;
+      }
+    } );
+  private static final Map<String, Object> seekIndexLocks = new ConcurrentHashMap<>();
+
   private ParGzipCsvInputMeta meta;
   private ParGzipCsvInputData data;
 
@@ -166,6 +189,11 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
     if ( data.eofReached ) {
       return true; // next file please!
     }
+    if ( data.index != null ) {
+      // With a seek index every step copy reads a single region of the file
+      //
+      return true;
+    }
     // Reset the bytes read in the current block of data
     //
     data.totalBytesRead = 0L;
@@ -286,7 +314,10 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
         data.binaryFilename = data.filenames[ data.filenr ].getBytes();
       }
 
-      data.gzis = new GZIPInputStream( data.fis, data.bufferSize );
+      // With a seek index every step copy only decompresses its own region of the file
+      //
+      data.index = data.parallel && meta.isUsingSeekIndex() ? getSeekIndex( fileObject ) : null;
+      data.gzis = data.index == null ? new GZIPInputStream( data.fis, data.bufferSize ) : null;
 
       clearBuffer();
       data.fileReadPosition = 0L;
@@ -320,28 +351,47 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
         //
         // So our first act is to skip to the correct position in the compressed stream...
         //
-        data.blockSize = 2 * data.bufferSize; // for now.
-        long bytesToSkip = data.stepNumber * data.blockSize;
+        // With a seek index there is a single block per step copy, a contiguous region of the file.
+        // Decompression starts at the access point of the index right before it.
+        //
+        long bytesToSkip;
+        if ( data.index != null ) {
+          long uncompressedSize = data.index.getUncompressedSize();
+          data.blockSize = ( uncompressedSize + data.totalNumberOfSteps - 1 ) / data.totalNumberOfSteps;
+          bytesToSkip = data.stepNumber * data.blockSize;
+          if ( bytesToSkip > 0 && bytesToSkip >= uncompressedSize ) {
+            // EOF in this file, can't read a block in this step copy
+            data.eofReached = true;
+            return false;
+          }
+          data.gzis = data.index.open( data.fis, bytesToSkip );
+          data.fileReadPosition = bytesToSkip;
+        } else {
+          data.blockSize = 2 * data.bufferSize; // for now.
+          bytesToSkip = data.stepNumber * data.blockSize;
+        }
         if ( bytesToSkip > 0 ) {
           // Get into position for block 0
           //
           logBasic( "Skipping "
             + bytesToSkip + " bytes to go to position " + bytesToSkip + " for step copy " + data.stepNumber );
 
-          long bytesSkipped = 0L;
-          while ( bytesSkipped < bytesToSkip ) {
-            long n = data.gzis.skip( bytesToSkip - bytesSkipped );
-            if ( n <= 0 ) {
-              // EOF in this file, can't read a block in this step copy
-              data.eofReached = true;
-              return false;
+          if ( data.index == null ) {
+            long bytesSkipped = 0L;
+            while ( bytesSkipped < bytesToSkip ) {
+              long n = data.gzis.skip( bytesToSkip - bytesSkipped );
+              if ( n <= 0 ) {
+                // EOF in this file, can't read a block in this step copy
+                data.eofReached = true;
+                return false;
+              }
+              bytesSkipped += n;
             }
-            bytesSkipped += n;
-          }
 
-          // Keep track of the file pointer!
-          //
-          data.fileReadPosition += bytesSkipped;
+            // Keep track of the file pointer!
+            //
+            data.fileReadPosition += bytesSkipped;
+          }
 
           // Reset the bytes read in the current block of data
           //
@@ -391,6 +441,82 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Get the seek index of a file: built or loaded before in this JVM, loaded from next to the file or built and saved
+   * next to the file for the next reads. The step copies reading the same file wait for the one building the index.
+   *
+   * @return the index or null if the file can't be indexed
+   */
+  private GzipIndex getSeekIndex( FileObject fileObject ) {
+    String filename = HopVFS.getFilename( fileObject );
+    try {
+      long size = fileObject.getContent().getSize();
+      long lastModified = fileObject.getContent().getLastModifiedTime();
+      synchronized ( seekIndexLocks.computeIfAbsent( filename, f -> new Object() ) ) {
+        GzipIndex index = seekIndexes.get( filename );
+        if ( index == null || !index.isCurrent( size, lastModified ) ) {
+          index = loadSeekIndex( filename, size, lastModified );
+          if ( index == null ) {
+            index = buildSeekIndex( fileObject, filename, size, lastModified );
+          }
+          seekIndexes.put( filename, index );
+        }
+        return index;
+      }
+    } catch ( Exception e ) {
+      logError( BaseMessages.getString( PKG, "ParGzipCsvInput.Log.UnableToUseSeekIndex", filename ), e );
+      return null;
+    }
+  }
+
+  private GzipIndex loadSeekIndex( String filename, long size, long lastModified ) {
+    String indexFilename = filename + GzipIndex.EXTENSION;
+    try {
+      FileObject indexFile = HopVFS.getFileObject( indexFilename, getTransMeta() );
+      if ( indexFile.exists() ) {
+        try ( InputStream in = new BufferedInputStream( HopVFS.getInputStream( indexFile ) ) ) {
+          GzipIndex index = GzipIndex.read( in );
+          if ( index.isCurrent( size, lastModified ) ) {
+            logBasic( BaseMessages.getString( PKG, "ParGzipCsvInput.Log.SeekIndexLoaded", indexFilename,
+              Integer.toString( index.getAccessPointCount() ) ) );
+            return index;
+          }
+        }
+      }
+    } catch ( Exception e ) {
+      logBasic( BaseMessages.getString( PKG, "ParGzipCsvInput.Log.UnableToLoadSeekIndex", indexFilename,
+        e.getMessage() ) );
+    }
+    return null;
+  }
+
+  private GzipIndex buildSeekIndex( FileObject fileObject, String filename, long size, long lastModified )
+    throws Exception {
+    logBasic( BaseMessages.getString( PKG, "ParGzipCsvInput.Log.BuildingSeekIndex", filename ) );
+    long start = System.currentTimeMillis();
+    GzipIndex index;
+    try ( InputStream in = HopVFS.getInputStream( fileObject ) ) {
+      index = GzipIndex.build( in, size, lastModified );
+    }
+    logBasic( BaseMessages.getString( PKG, "ParGzipCsvInput.Log.SeekIndexBuilt",
+      Integer.toString( index.getAccessPointCount() ), Long.toString( System.currentTimeMillis() - start ) ) );
+
+    // Save it for the next reads. It is written completely before it replaces an older index.
+    //
+    String indexFilename = filename + GzipIndex.EXTENSION;
+    try {
+      FileObject tempFile = HopVFS.getFileObject( indexFilename + "." + UUID.randomUUID() + ".tmp", getTransMeta() );
+      try ( OutputStream out = new BufferedOutputStream( HopVFS.getOutputStream( tempFile, false ) ) ) {
+        index.write( out );
+      }
+      tempFile.moveTo( HopVFS.getFileObject( indexFilename, getTransMeta() ) );
+    } catch ( Exception e ) {
+      logBasic( BaseMessages.getString( PKG, "ParGzipCsvInput.Log.UnableToSaveSeekIndex", indexFilename,
+        e.getMessage() ) );
+    }
+    return index;
+  }
+
   private void clearBuffer() {
     data.startBuffer = 0;
     data.endBuffer = 0;
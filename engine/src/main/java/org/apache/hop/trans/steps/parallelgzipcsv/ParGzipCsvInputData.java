@@ -29,7 +29,6 @@ import org.apache.hop.trans.step.StepDataInterface;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.zip.GZIPInputStream;
 
 /**
  * @author Matt
@@ -55,7 +54,12 @@ public class ParGzipCsvInputData extends BaseStepData implements StepDataInterfa
   public boolean parallel;
   public int filenameFieldIndex;
   public int rownumFieldIndex;
-  public GZIPInputStream gzis;
+  public InputStream gzis;
+
+  /**
+   * The seek index of the current file when every step copy decompresses only its own region of it
+   */
+  public GzipIndex index;
   public int bufferSize;
   public byte[] delimiter;
   public byte[] enclosure;
@@ -94,6 +94,8 @@ public class ParGzipCsvInputMeta extends BaseStepMeta implements StepMetaInterfa
 
   private boolean runningInParallel;
 
+  private boolean usingSeekIndex;
+
   private String encoding;
 
   public ParGzipCsvInputMeta() {
@@ -125,6 +127,7 @@ public class ParGzipCsvInputMeta extends BaseStepMeta implements StepMetaInterfa
     lazyConversionActive = true;
     isaddresult = false;
     bufferSize = "50000";
+    usingSeekIndex = true;
   }
 
   private void readData( Node stepnode ) throws HopXMLException {
@@ -140,6 +143,7 @@ public class ParGzipCsvInputMeta extends BaseStepMeta implements StepMetaInterfa
       lazyConversionActive = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "lazy_conversion" ) );
       isaddresult = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "add_filename_result" ) );
       runningInParallel = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "parallel" ) );
+      usingSeekIndex = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "seek_index" ) );
       encoding = XMLHandler.getTagValue( stepnode, "encoding" );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
@@ -186,6 +190,7 @@ public class ParGzipCsvInputMeta extends BaseStepMeta implements StepMetaInterfa
     retval.append( "    " ).append( XMLHandler.addTagValue( "lazy_conversion", lazyConversionActive ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "add_filename_result", isaddresult ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "parallel", runningInParallel ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "seek_index", usingSeekIndex ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "encoding", encoding ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
@@ -572,6 +577,22 @@ public class ParGzipCsvInputMeta extends BaseStepMeta implements StepMetaInterfa
     this.runningInParallel = runningInParallel;
   }
 
+  /**
+   * @return true if the step copies running in parallel use a seek index, saved next to the file, to decompress only
+   * their own region of the file
+   */
+  public boolean isUsingSeekIndex() {
+    return usingSeekIndex;
+  }
+
+  /**
+   * @param usingSeekIndex true if the step copies running in parallel should use a seek index, saved next to the file,
+   *                       to decompress only their own region of the file
+   */
+  public void setUsingSeekIndex( boolean usingSeekIndex ) {
+    this.usingSeekIndex = usingSeekIndex;
+  }
+
   /**
    * @return the encoding
    */
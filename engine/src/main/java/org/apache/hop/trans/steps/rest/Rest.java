@@ -23,6 +23,7 @@
 package org.apache.hop.trans.steps.rest;
 
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.UniformInterfaceException;
 import com.sun.jersey.api.client.WebResource;
@@ -36,7 +37,9 @@ import com.sun.jersey.core.util.MultivaluedMapImpl;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.trans.Trans;
@@ -50,6 +53,7 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.json.simple.JSONObject;
 
 import javax.net.ssl.HostnameVerifier;
@@ -92,6 +96,30 @@ public class Rest extends BaseStep implements StepInterface {
   }
 
   protected Object[] callRest( Object[] rowData ) throws HopException {
+    Request request = createRequest( rowData );
+    try {
+      return addResponse( rowData, executeRequest( request ) );
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", request.url ), e );
+    }
+  }
+
+  /**
+   * The client is created once per step copy so that its connections are kept alive between the rows, it is
+   * destroyed when the step is disposed.
+   */
+  private Client getClient() {
+    if ( data.client == null ) {
+      // create an instance of the com.sun.jersey.api.client.Client class
+      data.client = ApacheHttpClient4.create( data.config );
+      if ( data.basicAuthentication != null ) {
+        data.client.addFilter( data.basicAuthentication );
+      }
+    }
+    return data.client;
+  }
+
+  private Request createRequest( Object[] rowData ) throws HopException {
     // get dynamic url ?
     if ( meta.isUrlInField() ) {
       data.realUrl = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
@@ -103,26 +131,14 @@ public class Rest extends BaseStep implements StepInterface {
         throw new HopException( BaseMessages.getString( PKG, "Rest.Error.MethodMissing" ) );
       }
     }
-    WebResource webResource = null;
-    Client client = null;
-    Object[] newRow = null;
-    if ( rowData != null ) {
-      newRow = rowData.clone();
-    }
+    Request request = new Request( rowData, data.realUrl, data.method );
     try {
       if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", data.realUrl ) );
-      }
-      // create an instance of the com.sun.jersey.api.client.Client class
-      client = ApacheHttpClient4.create( data.config );
-      if ( data.basicAuthentication != null ) {
-        client.addFilter( data.basicAuthentication );
+        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", request.url ) );
       }
+      Client client = getClient();
       // create a WebResource object, which encapsulates a web resource for the client
-      webResource = client.resource( data.realUrl );
-
-      // used for calculating the responseTime
-      long startTime = System.currentTimeMillis();
+      WebResource webResource = client.resource( request.url );
 
       if ( data.useMatrixParams ) {
         // Add matrix parameters
@@ -150,17 +166,16 @@ public class Rest extends BaseStep implements StepInterface {
       if ( isDebug() ) {
         logDebug( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", webResource.getURI() ) );
       }
-      WebResource.Builder builder = webResource.getRequestBuilder();
-      String contentType = null; // media type override, if not null
+      request.builder = webResource.getRequestBuilder();
       if ( data.useHeaders ) {
         // Add headers
         for ( int i = 0; i < data.nrheader; i++ ) {
           String value = data.inputRowMeta.getString( rowData, data.indexOfHeaderFields[ i ] );
 
           // unsure if an already set header will be returned to builder
-          builder = builder.header( data.headerNames[ i ], value );
+          request.builder = request.builder.header( data.headerNames[ i ], value );
           if ( "Content-Type".equals( data.headerNames[ i ] ) ) {
-            contentType = value;
+            request.contentType = value;
           }
           if ( isDebug() ) {
             logDebug( BaseMessages.getString( PKG, "Rest.Log.HeaderValue", data.headerNames[ i ], value ) );
@@ -168,123 +183,157 @@ public class Rest extends BaseStep implements StepInterface {
         }
       }
 
-      ClientResponse response = null;
-      String entityString = null;
       if ( data.useBody ) {
         // Set Http request entity
-        entityString = Const.NVL( data.inputRowMeta.getString( rowData, data.indexOfBodyField ), null );
+        request.entityString = Const.NVL( data.inputRowMeta.getString( rowData, data.indexOfBodyField ), null );
         if ( isDebug() ) {
-          logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", entityString ) );
-        }
-      }
-      try {
-        if ( data.method.equals( RestMeta.HTTP_METHOD_GET ) ) {
-          response = builder.get( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_POST ) ) {
-          if ( null != contentType ) {
-            response = builder.type( contentType ).post( ClientResponse.class, entityString );
-          } else {
-            response = builder.type( data.mediaType ).post( ClientResponse.class, entityString );
-          }
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
-          if ( null != contentType ) {
-            response = builder.type( contentType ).put( ClientResponse.class, entityString );
-          } else {
-            response = builder.type( data.mediaType ).put( ClientResponse.class, entityString );
-          }
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
-          response = builder.delete( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
-          response = builder.head();
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
-          response = builder.options( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
-          if ( null != contentType ) {
-            response = builder.type( contentType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class, entityString );
-          } else {
-            response = builder.type( data.mediaType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class,
-              entityString );
-          }
-        } else {
-          throw new HopException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", data.method ) );
+          logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", request.entityString ) );
         }
-      } catch ( UniformInterfaceException u ) {
-        response = u.getResponse();
-      }
-      // Get response time
-      long responseTime = System.currentTimeMillis() - startTime;
-      if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), data.realUrl ) );
       }
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", request.url ), e );
+    }
+    return request;
+  }
 
-      // Get status
-      int status = response.getStatus();
-      // Display status code
-      if ( isDebug() ) {
-        logDebug( BaseMessages.getString( PKG, "Rest.Log.ResponseCode", "" + status ) );
-      }
+  /**
+   * Sends the request and reads the response. This doesn't touch the row metadata, so it can run on the request
+   * threads of the {@link HttpRequestEngine}.
+   */
+  private Response executeRequest( Request request ) throws Exception {
+    WebResource.Builder builder = request.builder;
+    String contentType = request.contentType; // media type override, if not null
+    String entityString = request.entityString;
 
-      // Get Response
-      String body;
-      String headerString = null;
-      try {
-        body = response.getEntity( String.class );
-      } catch ( UniformInterfaceException ex ) {
-        body = "";
-      }
-      // get Header
-      MultivaluedMap<String, String> headers = searchForHeaders( response );
-      JSONObject json = new JSONObject();
-      for ( java.util.Map.Entry<String, List<String>> entry : headers.entrySet() ) {
-        String name = entry.getKey();
-        List<String> value = entry.getValue();
-        if ( value.size() > 1 ) {
-          json.put( name, value );
+    // used for calculating the responseTime
+    long startTime = System.currentTimeMillis();
+
+    ClientResponse response = null;
+    try {
+      if ( request.method.equals( RestMeta.HTTP_METHOD_GET ) ) {
+        response = builder.get( ClientResponse.class );
+      } else if ( request.method.equals( RestMeta.HTTP_METHOD_POST ) ) {
+        if ( null != contentType ) {
+          response = builder.type( contentType ).post( ClientResponse.class, entityString );
         } else {
-          json.put( name, value.get( 0 ) );
+          response = builder.type( data.mediaType ).post( ClientResponse.class, entityString );
         }
+      } else if ( request.method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
+        if ( null != contentType ) {
+          response = builder.type( contentType ).put( ClientResponse.class, entityString );
+        } else {
+          response = builder.type( data.mediaType ).put( ClientResponse.class, entityString );
+        }
+      } else if ( request.method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
+        response = builder.delete( ClientResponse.class );
+      } else if ( request.method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
+        response = builder.head();
+      } else if ( request.method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
+        response = builder.options( ClientResponse.class );
+      } else if ( request.method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
+        if ( null != contentType ) {
+          response = builder.type( contentType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class, entityString );
+        } else {
+          response = builder.type( data.mediaType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class,
+            entityString );
+        }
+      } else {
+        throw new HopException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", request.method ) );
       }
-      headerString = json.toJSONString();
-      // for output
-      int returnFieldsOffset = data.inputRowMeta.size();
-      // add response to output
-      if ( !Utils.isEmpty( data.resultFieldName ) ) {
-        newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, body );
-        returnFieldsOffset++;
-      }
+    } catch ( UniformInterfaceException u ) {
+      response = u.getResponse();
+    }
+    // Get response time
+    long responseTime = System.currentTimeMillis() - startTime;
+    if ( isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), request.url ) );
+    }
 
-      // add status to output
-      if ( !Utils.isEmpty( data.resultCodeFieldName ) ) {
-        newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( status ) );
-        returnFieldsOffset++;
-      }
+    // Get status
+    int status = response.getStatus();
+    // Display status code
+    if ( isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "Rest.Log.ResponseCode", "" + status ) );
+    }
 
-      // add response time to output
-      if ( !Utils.isEmpty( data.resultResponseFieldName ) ) {
-        newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( responseTime ) );
-        returnFieldsOffset++;
-      }
-      // add response header to output
-      if ( !Utils.isEmpty( data.resultHeaderFieldName ) ) {
-        newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, headerString );
-      }
-    } catch ( Exception e ) {
-      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", data.realUrl ), e );
-    } finally {
-      if ( webResource != null ) {
-        webResource = null;
+    // Get Response
+    String body;
+    try {
+      body = response.getEntity( String.class );
+    } catch ( UniformInterfaceException ex ) {
+      body = "";
+    }
+    // get Header
+    MultivaluedMap<String, String> headers = searchForHeaders( response );
+    JSONObject json = new JSONObject();
+    for ( java.util.Map.Entry<String, List<String>> entry : headers.entrySet() ) {
+      String name = entry.getKey();
+      List<String> value = entry.getValue();
+      if ( value.size() > 1 ) {
+        json.put( name, value );
+      } else {
+        json.put( name, value.get( 0 ) );
       }
-      if ( client != null ) {
-        client.destroy();
+    }
+    return new Response( status, body, responseTime, json.toJSONString() );
+  }
+
+  /**
+   * Jersey wraps connection problems in a runtime exception, unwrap them so that the request engine retries them.
+   */
+  private Response exchange( Request request ) throws Exception {
+    try {
+      return executeRequest( request );
+    } catch ( ClientHandlerException e ) {
+      if ( e.getCause() instanceof IOException ) {
+        throw (IOException) e.getCause();
       }
+      throw e;
+    }
+  }
+
+  private Object[] addResponse( Object[] rowData, Response response ) {
+    Object[] newRow = null;
+    if ( rowData != null ) {
+      newRow = rowData.clone();
+    }
+    // for output
+    int returnFieldsOffset = data.inputRowMeta.size();
+    // add response to output
+    if ( !Utils.isEmpty( data.resultFieldName ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, response.body );
+      returnFieldsOffset++;
+    }
+
+    // add status to output
+    if ( !Utils.isEmpty( data.resultCodeFieldName ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( response.statusCode ) );
+      returnFieldsOffset++;
+    }
+
+    // add response time to output
+    if ( !Utils.isEmpty( data.resultResponseFieldName ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, new Long( response.responseTime ) );
+      returnFieldsOffset++;
+    }
+    // add response header to output
+    if ( !Utils.isEmpty( data.resultHeaderFieldName ) ) {
+      newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, response.headers );
     }
     return newRow;
   }
 
-  private void setConfig() throws HopException {
+  private void setConfig( int concurrentRequests ) throws HopException {
     if ( data.config == null ) {
       // Use ApacheHttpClient for supporting proxy authentication.
       data.config = new DefaultApacheHttpClient4Config();
+      if ( concurrentRequests > 1 ) {
+        // The default connection manager of the client only handles a single request at a time
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal( concurrentRequests );
+        connectionManager.setDefaultMaxPerRoute( concurrentRequests );
+        data.config.getProperties().put( ApacheHttpClient4Config.PROPERTY_CONNECTION_MANAGER, connectionManager );
+      }
       if ( !Utils.isEmpty( data.realProxyHost ) ) {
         // PROXY CONFIGURATION
         data.config.getProperties().put( ApacheHttpClient4Config.PROPERTY_PROXY_URI, "http://" + data.realProxyHost + ":" + data.realProxyPort );
@@ -353,6 +402,9 @@ public class Rest extends BaseStep implements StepInterface {
 
     if ( r == null ) {
       // no more input to be expected...
+      if ( data.requestEngine != null && !putFinishedRequests( true ) ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -465,6 +517,9 @@ public class Rest extends BaseStep implements StepInterface {
         }
       }
     } // end if first
+    if ( data.requestEngine != null ) {
+      return submitRequest( r );
+    }
     try {
       Object[] outputRowData = callRest( r );
       putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
@@ -474,23 +529,88 @@ public class Rest extends BaseStep implements StepInterface {
         }
       }
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "Rest.ErrorInStepRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        logError( Const.getStackTracker( e ) );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "Rest001" );
+      return handleRowError( r, e );
+    }
+    return true;
+  }
+
+  private boolean handleRowError( Object[] r, HopException e ) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError( BaseMessages.getString( PKG, "Rest.ErrorInStepRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      logError( Const.getStackTracker( e ) );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if ( sendToErrorRow ) {
+      // Simply add this row to the error row
+      putError( getInputRowMeta(), r, 1, errorMessage, null, "Rest001" );
+    }
+    return true;
+  }
+
+  /**
+   * Hands the row to the request engine and passes on the rows whose responses came in, in input order.
+   */
+  private boolean submitRequest( Object[] r ) throws HopException {
+    try {
+      Request request = createRequest( r );
+      data.requestEngine.submit( request, () -> exchange( request ),
+        HttpRequestEngine.isIdempotent( request.method ) );
+    } catch ( HopException e ) {
+      return handleRowError( r, e );
+    }
+    return putFinishedRequests( false );
+  }
+
+  /**
+   * Passes on the rows of the finished requests. Waits for requests while the engine is full or, at the end of the
+   * input, until all requests are done.
+   *
+   * @return false if the step stopped on an error
+   */
+  private boolean putFinishedRequests( boolean all ) throws HopException {
+    try {
+      while ( !isStopped() ) {
+        HttpRequestEngine.Call<Request, Response> call;
+        if ( all ? data.requestEngine.getOutstanding() > 0 : data.requestEngine.isFull() ) {
+          call = data.requestEngine.take( 100 );
+          if ( call == null ) {
+            continue;
+          }
+        } else {
+          call = data.requestEngine.poll();
+          if ( call == null ) {
+            return true;
+          }
+        }
+
+        Object[] r = call.getTag().row;
+        try {
+          if ( call.getError() != null ) {
+            throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", call.getTag().url ),
+              call.getError() );
+          }
+          putRow( data.outputRowMeta, addResponse( r, call.getResult() ) );
+          if ( checkFeedback( getLinesRead() ) ) {
+            if ( isDetailed() ) {
+              logDetailed( BaseMessages.getString( PKG, "Rest.LineNumber" ) + getLinesRead() );
+            }
+          }
+        } catch ( HopException e ) {
+          if ( !handleRowError( r, e ) ) {
+            return false;
+          }
+        }
       }
+    } catch ( InterruptedException e ) {
+      throw new HopException( e );
     }
     return true;
   }
@@ -542,12 +662,22 @@ public class Rest extends BaseStep implements StepInterface {
       } else {
         data.mediaType = MediaType.TEXT_PLAIN_TYPE;
       }
+      int concurrentRequests = Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ), 1 );
+      int maxRetries = Const.toInt( environmentSubstitute( meta.getMaxRetries() ), 0 );
+      double requestsPerSecond = Const.toDouble( environmentSubstitute( meta.getRequestsPerSecond() ), 0 );
       try {
-        setConfig();
+        setConfig( concurrentRequests );
       } catch ( Exception e ) {
         logError( BaseMessages.getString( PKG, "Rest.Error.Config" ), e );
         return false;
       }
+      if ( concurrentRequests > 1 || maxRetries > 0 || requestsPerSecond > 0 ) {
+        data.requestEngine = new HttpRequestEngine<>( getStepname(), concurrentRequests );
+        data.requestEngine.setRetries( maxRetries, Const.toLong( environmentSubstitute( meta.getRetryDelay() ),
+          RestMeta.DEFAULT_RETRY_DELAY ),
+          ( response, idempotent ) -> HttpRequestEngine.isRetryableStatus( response.statusCode, idempotent ) );
+        data.requestEngine.setMaxRequestsPerSecond( requestsPerSecond );
+      }
       return true;
     }
     return false;
@@ -557,6 +687,20 @@ public class Rest extends BaseStep implements StepInterface {
     meta = (RestMeta) smi;
     data = (RestData) sdi;
 
+    if ( data.requestEngine != null ) {
+      data.requestEngine.shutdown();
+      LatencyHistogram latency = data.requestEngine.getLatency();
+      if ( isDetailed() && latency.getCount() > 0 ) {
+        logDetailed( BaseMessages.getString( PKG, "Rest.Log.RequestStatistics", latency.getCount(),
+          data.requestEngine.getRetries(), latency.getValueAtPercentile( 50.0 ) / 1000000L,
+          latency.getValueAtPercentile( 99.0 ) / 1000000L, latency.getMax() / 1000000L ) );
+      }
+      data.requestEngine = null;
+    }
+    if ( data.client != null ) {
+      data.client.destroy();
+      data.client = null;
+    }
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
@@ -564,4 +708,38 @@ public class Rest extends BaseStep implements StepInterface {
     super.dispose( smi, sdi );
   }
 
+  /**
+   * A row and the request prepared for it
+   */
+  static class Request {
+    final Object[] row;
+    final String url;
+    final String method;
+    WebResource.Builder builder;
+    String contentType;
+    String entityString;
+
+    Request( Object[] row, String url, String method ) {
+      this.row = row;
+      this.url = url;
+      this.method = method;
+    }
+  }
+
+  /**
+   * What is kept of a response to add it to the row
+   */
+  static class Response {
+    final int statusCode;
+    final String body;
+    final long responseTime;
+    final String headers;
+
+    Response( int statusCode, String body, long responseTime, String headers ) {
+      this.statusCode = statusCode;
+      this.body = body;
+      this.responseTime = responseTime;
+      this.headers = headers;
+    }
+  }
 }
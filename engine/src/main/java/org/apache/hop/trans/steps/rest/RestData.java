@@ -22,9 +22,11 @@
 
 package org.apache.hop.trans.steps.rest;
 
+import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 
@@ -126,6 +128,10 @@ public class RestData extends BaseStepData implements StepDataInterface {
 
   public MediaType mediaType;
 
+  public Client client;
+
+  public HttpRequestEngine<Rest.Request, Rest.Response> requestEngine;
+
   public RestData() {
     super();
     this.indexOfUrlField = -1;
@@ -80,6 +80,12 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
   public static final String HTTP_METHOD_OPTIONS = "OPTIONS";
   public static final String HTTP_METHOD_PATCH = "PATCH";
 
+  // the number of requests a step copy keeps in flight
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+
+  // the delay before the first retry of a failed request (milliseconds), doubled for every next retry
+  public static final int DEFAULT_RETRY_DELAY = 1000;
+
   /**
    * URL / service to be called
    */
@@ -140,6 +146,14 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
   private String trustStoreFile;
   private String trustStorePassword;
 
+  /**
+   * Concurrent requests and retries
+   **/
+  private String concurrentRequests;
+  private String maxRetries;
+  private String retryDelay;
+  private String requestsPerSecond;
+
   public RestMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -407,6 +421,10 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
+    this.concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    this.maxRetries = "0";
+    this.retryDelay = String.valueOf( DEFAULT_RETRY_DELAY );
+    this.requestsPerSecond = "";
   }
 
   @Override
@@ -463,6 +481,11 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " ).append(
       XMLHandler.addTagValue( "trustStorePassword", Encr.encryptPasswordIfNotUsingVariables( trustStorePassword ) ) );
 
+    retval.append( "    " ).append( XMLHandler.addTagValue( "concurrentRequests", concurrentRequests ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "maxRetries", maxRetries ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "retryDelay", retryDelay ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "requestsPerSecond", requestsPerSecond ) );
+
     retval.append( "    <headers>" ).append( Const.CR );
     for ( int i = 0, len = ( headerName != null ? headerName.length : 0 ); i < len; i++ ) {
       retval.append( "      <header>" ).append( Const.CR );
@@ -522,6 +545,11 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
       trustStorePassword =
         Encr.decryptPasswordOptionallyEncrypted( XMLHandler.getTagValue( stepnode, "trustStorePassword" ) );
 
+      concurrentRequests = XMLHandler.getTagValue( stepnode, "concurrentRequests" );
+      maxRetries = XMLHandler.getTagValue( stepnode, "maxRetries" );
+      retryDelay = XMLHandler.getTagValue( stepnode, "retryDelay" );
+      requestsPerSecond = XMLHandler.getTagValue( stepnode, "requestsPerSecond" );
+
       Node headernode = XMLHandler.getSubNode( stepnode, "headers" );
       int nrheaders = XMLHandler.countNodes( headernode, "header" );
       Node paramnode = XMLHandler.getSubNode( stepnode, "parameters" );
@@ -775,6 +803,62 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
     return trustStorePassword;
   }
 
+  /**
+   * @return the number of requests a step copy keeps in flight
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests the number of requests a step copy keeps in flight
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return the number of times a failed request is retried
+   */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @param maxRetries the number of times a failed request is retried
+   */
+  public void setMaxRetries( String maxRetries ) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * @return the delay before the first retry in milliseconds
+   */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /**
+   * @param retryDelay the delay before the first retry in milliseconds
+   */
+  public void setRetryDelay( String retryDelay ) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * @return the maximum number of requests per second of a step copy, empty or 0 for no limit
+   */
+  public String getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * @param requestsPerSecond the maximum number of requests per second of a step copy, empty or 0 for no limit
+   */
+  public void setRequestsPerSecond( String requestsPerSecond ) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
   public String getResponseTimeFieldName() {
     return responseTimeFieldName;
   }
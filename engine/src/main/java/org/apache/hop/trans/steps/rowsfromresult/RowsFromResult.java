@@ -23,6 +23,7 @@
 package org.apache.hop.trans.steps.rowsfromresult;
 
 import org.apache.hop.core.Result;
+import org.apache.hop.core.ResultRowList;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.i18n.BaseMessages;
@@ -53,16 +54,35 @@ public class RowsFromResult extends BaseStep implements StepInterface {
   }
 
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws HopException {
-    Result previousResult = getTrans().getPreviousResult();
-    if ( previousResult == null || getLinesRead() >= previousResult.getRows().size() ) {
+    if ( !getInputRowSets().isEmpty() ) {
+      // The rows are injected one batch at a time by a transformation executor re-using this transformation
+      //
+      Object[] row = getRow();
+      if ( row == null ) {
+        setOutputDone();
+        return false;
+      }
+      putRow( getInputRowMeta(), row );
+      return true;
+    }
+
+    data = (RowsFromResultData) sdi;
+
+    if ( data.rows == null ) {
+      Result previousResult = getTrans().getPreviousResult();
+      if ( previousResult == null || previousResult.getRows() == null ) {
+        setOutputDone();
+        return false;
+      }
+      data.rows = previousResult.getRows().iterator();
+    }
+    if ( !data.rows.hasNext() ) {
       setOutputDone();
       return false;
     }
-    RowMetaAndData row = previousResult.getRows().get( (int) getLinesRead() );
+    RowMetaAndData row = data.rows.next();
     incrementLinesRead();
 
-    data = (RowsFromResultData) sdi;
-
     // We don't get the meta-data from the previous steps (there aren't any) but from the previous transformation or job
     //
     data.outputRowMeta = row.getRowMeta();
@@ -79,4 +99,17 @@ public class RowsFromResult extends BaseStep implements StepInterface {
 
     return true;
   }
+
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (RowsFromResultData) sdi;
+
+    // The transformation can be stopped before all the rows are read, don't keep the result file open
+    //
+    if ( data.rows != null ) {
+      ResultRowList.close( data.rows );
+      data.rows = null;
+    }
+    super.dispose( smi, sdi );
+  }
 }
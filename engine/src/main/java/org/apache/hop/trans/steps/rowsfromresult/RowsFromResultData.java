@@ -22,10 +22,13 @@
 
 package org.apache.hop.trans.steps.rowsfromresult;
 
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 
+import java.util.Iterator;
+
 /**
  * @author Matt
  * @since 24-jan-2005
@@ -33,6 +36,11 @@ import org.apache.hop.trans.step.StepDataInterface;
 public class RowsFromResultData extends BaseStepData implements StepDataInterface {
   public RowMetaInterface outputRowMeta;
 
+  /**
+   * Streams the result rows of the previous transformation or job, these can be kept on disk.
+   */
+  public Iterator<RowMetaAndData> rows;
+
   public RowsFromResultData() {
     super();
   }
@@ -59,6 +59,7 @@ public class RowsToResult extends BaseStep implements StepInterface {
     if ( r == null ) { // no more input to be expected...
 
       getTrans().getResultRows().addAll( data.rows );
+      data.rows.clear();
 
       setOutputDone();
       return false;
@@ -78,6 +79,17 @@ public class RowsToResult extends BaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * When the transformation runs one batch of rows at a time the result rows are published at the end of every batch.
+   */
+  @Override
+  public void batchComplete() throws HopException {
+    if ( data != null ) {
+      getTrans().getResultRows().addAll( data.rows );
+      data.rows.clear();
+    }
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (RowsToResultMeta) smi;
     data = (RowsToResultData) sdi;
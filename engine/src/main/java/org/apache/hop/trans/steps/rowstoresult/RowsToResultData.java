@@ -22,12 +22,12 @@
 
 package org.apache.hop.trans.steps.rowstoresult;
 
+import org.apache.hop.core.ResultRowList;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,7 +41,7 @@ public class RowsToResultData extends BaseStepData implements StepDataInterface
   public RowsToResultData() {
     super();
 
-    rows = new ArrayList<RowMetaAndData>();
+    rows = new ResultRowList();
   }
 
 }
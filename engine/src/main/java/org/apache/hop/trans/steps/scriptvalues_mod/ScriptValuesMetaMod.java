@@ -117,6 +117,13 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "OPTIMIZATION_LEVEL" )
   private String optimizationLevel;
 
+  /**
+   * Compile the scripts once per transformation and share them across the step copies. The used fields are then bound
+   * to the script scope as plain typed values instead of being wrapped into new scriptable objects for every row.
+   */
+  @Injection( name = "SHARED_COMPILED_SCRIPT" )
+  private boolean sharedCompiledScript;
+
   public ScriptValuesMetaMod() {
     super(); // allocate BaseStepMeta
     compatible = true;
@@ -314,6 +321,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
       String script = XMLHandler.getTagValue( stepnode, "script" );
       String strCompatible = XMLHandler.getTagValue( stepnode, "compatible" );
       optimizationLevel = XMLHandler.getTagValue( stepnode, "optimizationLevel" );
+      sharedCompiledScript = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "sharedCompiledScript" ) );
 
       if ( strCompatible == null ) {
         compatible = true;
@@ -385,6 +393,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
 
     compatible = false;
     optimizationLevel = OPTIMIZATION_LEVEL_DEFAULT;
+    sharedCompiledScript = false;
   }
 
   public void getFields( RowMetaInterface row, String originStepname, RowMetaInterface[] info, StepMeta nextStep,
@@ -446,6 +455,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "compatible", compatible ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "optimizationLevel", optimizationLevel ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "sharedCompiledScript", sharedCompiledScript ) );
 
     retval.append( "    <jsScripts>" );
     for ( int i = 0; i < jsScripts.length; i++ ) {
@@ -987,4 +997,18 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
   public String getOptimizationLevel() {
     return this.optimizationLevel;
   }
+
+  /**
+   * @return true if the scripts are compiled once per transformation and shared across the step copies
+   */
+  public boolean isSharedCompiledScript() {
+    return sharedCompiledScript;
+  }
+
+  /**
+   * @param sharedCompiledScript true to compile the scripts once per transformation and share them across the step copies
+   */
+  public void setSharedCompiledScript( boolean sharedCompiledScript ) {
+    this.sharedCompiledScript = sharedCompiledScript;
+  }
 }
@@ -29,6 +29,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.logging.Metrics;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
@@ -50,6 +51,7 @@ import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 
@@ -75,6 +77,8 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
 
   public static final int CONTINUE_TRANSFORMATION = 0;
 
+  private static final String SHARED_SCRIPTS_KEY = ScriptValuesMod.class.getName() + ".sharedScripts";
+
   private boolean bWithTransStat = false;
 
   private boolean bRC = false;
@@ -153,6 +157,19 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
       //
       determineUsedFields( rowMeta );
 
+      // Bind the used fields once, re-used for every row
+      //
+      if ( meta.isSharedCompiledScript() && !meta.isCompatible() ) {
+        data.fieldBindings = new ScriptValuesModFieldBinding[ data.fields_used.length ];
+        for ( int i = 0; i < data.fields_used.length; i++ ) {
+          data.fieldBindings[ i ] =
+            new ScriptValuesModFieldBinding( data.fields_used[ i ], rowMeta.getValueMeta( data.fields_used[ i ] ) );
+        }
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "ScriptValuesMod.Log.UsingSharedCompiledScript" ) );
+        }
+      }
+
       // Get the indexes of the replaced fields...
       //
       data.replaceIndex = new int[ meta.getFieldname().length ];
@@ -228,33 +245,9 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
           data.scope.put( "row", data.scope, jsrow );
         }
 
-        // Add the used fields...
-        //
-        for ( int i = 0; i < data.fields_used.length; i++ ) {
-          ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-          Object valueData = row[ data.fields_used[ i ] ];
-
-          if ( meta.isCompatible() ) {
-            data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
-
-            Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          } else {
-            Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
-            } else {
-              jsarg = null;
-            }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          }
-        }
-
-        // also add the meta information for the whole row
+        // Add the used fields and the meta information for the whole row...
         //
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        bindUsedFields( rowMeta, row );
 
         // Modification for Additional Script parsing
         //
@@ -299,7 +292,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         try {
           // Checking for StartScript
           if ( strStartScript != null && strStartScript.length() > 0 ) {
-            Script startScript = data.cx.compileString( strStartScript, "trans_Start", 1, null );
+            Script startScript = compileScript( strStartScript, "trans_Start" );
             startScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "Start Script found!" ) );
@@ -316,7 +309,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
 
         }
         // Now Compile our Script
-        data.script = data.cx.compileString( strTransformScript, "script", 1, null );
+        data.script = compileScript( strTransformScript, "script" );
       } catch ( Exception e ) {
         throw new HopValueException( BaseMessages.getString(
           PKG, "ScriptValuesMod.Log.CouldNotCompileJavascript" ), e );
@@ -356,36 +349,21 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
           data.scope.put( "row", data.scope, jsrow );
         }
 
-        for ( int i = 0; i < data.fields_used.length; i++ ) {
-          ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-          Object valueData = row[ data.fields_used[ i ] ];
-
-          if ( meta.isCompatible() ) {
-            data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
-
-            Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          } else {
-            Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
-            } else {
-              jsarg = null;
-            }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
+        if ( data.fieldBindings != null ) {
+          // The row metadata was already added to the scope for the first row, it doesn't change afterwards.
+          //
+          for ( ScriptValuesModFieldBinding fieldBinding : data.fieldBindings ) {
+            fieldBinding.bind( row, data.scope );
           }
+        } else {
+          bindUsedFields( rowMeta, row );
         }
-
-        // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
       } catch ( Exception e ) {
         throw new HopValueException( BaseMessages.getString( PKG, "ScriptValuesMod.Log.UnexpectedeError" ), e );
       }
 
       // Executing our Script
-      data.script.exec( data.cx, data.scope );
+      executeScript();
 
       if ( bFirstRun ) {
         bFirstRun = false;
@@ -477,6 +455,89 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
     return bRC;
   }
 
+  private void bindUsedFields( RowMetaInterface rowMeta, Object[] row ) throws HopValueException {
+    for ( int i = 0; i < data.fields_used.length; i++ ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
+      Object valueData = row[ data.fields_used[ i ] ];
+
+      if ( meta.isCompatible() ) {
+        data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
+
+        Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
+        data.scope.put( valueMeta.getName(), data.scope, jsarg );
+      } else {
+        Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
+        Scriptable jsarg;
+        if ( normalStorageValueData != null ) {
+          jsarg = Context.toObject( normalStorageValueData, data.scope );
+        } else {
+          jsarg = null;
+        }
+        data.scope.put( valueMeta.getName(), data.scope, jsarg );
+      }
+    }
+
+    // also add the meta information for the whole row
+    Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
+    data.scope.put( "rowMeta", data.scope, jsrowMeta );
+  }
+
+  private void executeScript() {
+    if ( !log.isGatheringMetrics() ) {
+      data.script.exec( data.cx, data.scope );
+      return;
+    }
+
+    long startTime = System.nanoTime();
+    try {
+      data.script.exec( data.cx, data.scope );
+    } finally {
+      long time = System.nanoTime() - startTime;
+      log.snap( Metrics.METRIC_STEP_SCRIPT_ROW_SUM_TIME, getStepname(), time );
+      log.snap( Metrics.METRIC_STEP_SCRIPT_ROW_MIN_TIME, getStepname(), time );
+      log.snap( Metrics.METRIC_STEP_SCRIPT_ROW_MAX_TIME, getStepname(), time );
+      log.snap( Metrics.METRIC_STEP_SCRIPT_ROW_COUNT, getStepname() );
+    }
+  }
+
+  /**
+   * Compile the given script. In shared mode the script is compiled only once per transformation: all copies of this
+   * step execute the same compiled script, each in its own context and scope.
+   */
+  private Script compileScript( String source, String sourceName ) {
+    Map<String, Script> sharedScripts = meta.isSharedCompiledScript() ? getSharedScripts() : null;
+    if ( sharedScripts == null ) {
+      return data.cx.compileString( source, sourceName, 1, null );
+    }
+
+    String key = getStepname() + "/" + sourceName;
+    synchronized ( sharedScripts ) {
+      Script script = sharedScripts.get( key );
+      if ( script == null ) {
+        script = data.cx.compileString( source, sourceName, 1, null );
+        sharedScripts.put( key, script );
+      }
+      return script;
+    }
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private Map<String, Script> getSharedScripts() {
+    Trans trans = getTrans();
+    Map<String, Object> extensionDataMap = trans == null ? null : trans.getExtensionDataMap();
+    if ( extensionDataMap == null ) {
+      return null;
+    }
+    synchronized ( extensionDataMap ) {
+      Map<String, Script> sharedScripts = (Map<String, Script>) extensionDataMap.get( SHARED_SCRIPTS_KEY );
+      if ( sharedScripts == null ) {
+        sharedScripts = new HashMap<>();
+        extensionDataMap.put( SHARED_SCRIPTS_KEY, sharedScripts );
+      }
+      return sharedScripts;
+    }
+  }
+
   public Object getValueFromJScript( Object result, int i ) throws HopValueException {
     String fieldName = meta.getFieldname()[ i ];
     if ( !Utils.isEmpty( fieldName ) ) {
@@ -510,7 +571,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         if ( data.cx != null ) {
           // Checking for EndScript
           if ( strEndScript != null && strEndScript.length() > 0 ) {
-            Script endScript = data.cx.compileString( strEndScript, "trans_End", 1, null );
+            Script endScript = compileScript( strEndScript, "trans_End" );
             endScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "End Script found!" ) );
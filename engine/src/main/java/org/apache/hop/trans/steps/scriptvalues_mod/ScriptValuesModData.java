@@ -41,6 +41,7 @@ public class ScriptValuesModData extends BaseStepData implements StepDataInterfa
 
   public int[] fields_used;
   public Value[] values_used;
+  public ScriptValuesModFieldBinding[] fieldBindings;
 
   public RowMetaInterface outputRowMeta;
   public int[] replaceIndex;
@@ -0,0 +1,89 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.scriptvalues_mod;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.ValueMetaInterface;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Binds one input field to a variable in the script scope. The binding is created once for the step and re-used for
+ * every row: strings, integers, numbers and booleans are handed to the script as plain JavaScript primitives, only the
+ * other data types are wrapped into a scriptable object.
+ */
+public class ScriptValuesModFieldBinding {
+
+  private final int index;
+  private final String name;
+  private final ValueMetaInterface valueMeta;
+  private final boolean primitive;
+
+  public ScriptValuesModFieldBinding( int index, ValueMetaInterface valueMeta ) {
+    this.index = index;
+    this.name = valueMeta.getName();
+    this.valueMeta = valueMeta;
+
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_NUMBER:
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        primitive = true;
+        break;
+      default:
+        primitive = false;
+        break;
+    }
+  }
+
+  /**
+   * Put the value of the bound field of the given row in the scope.
+   *
+   * @param row   the input row
+   * @param scope the script scope to bind the value in
+   * @throws HopValueException in case the value can't be converted to normal storage
+   */
+  public void bind( Object[] row, Scriptable scope ) throws HopValueException {
+    Object value = row[ index ];
+    if ( value != null && !valueMeta.isStorageNormal() ) {
+      value = valueMeta.convertToNormalStorageType( value );
+    }
+
+    if ( value == null ) {
+      scope.put( name, scope, null );
+    } else if ( primitive ) {
+      scope.put( name, scope, value );
+    } else {
+      scope.put( name, scope, Context.toObject( value, scope ) );
+    }
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -71,8 +71,8 @@ public class TableOutput extends BaseStep implements StepInterface {
     meta = (TableOutputMeta) smi;
     data = (TableOutputData) sdi;
 
-    Object[] r = getRow(); // this also waits for a previous step to be finished.
-    if ( r == null ) { // no more input to be expected...
+    Object[][] rows = getRows( ROW_BATCH_SIZE ); // this also waits for a previous step to be finished.
+    if ( rows == null ) { // no more input to be expected...
       // truncate the table if there are no rows at all coming into this step
       if ( first && meta.truncateTable() ) {
         truncateTable();
@@ -121,12 +121,17 @@ public class TableOutput extends BaseStep implements StepInterface {
       }
     }
 
+    Object[][] outputRows = new Object[ rows.length ][];
+    int nrOutputRows = 0;
     try {
-      Object[] outputRowData = writeToTable( getInputRowMeta(), r );
-      if ( outputRowData != null ) {
-        putRow( data.outputRowMeta, outputRowData ); // in case we want it go further...
-        incrementLinesOutput();
+      for ( Object[] r : rows ) {
+        Object[] outputRowData = writeToTable( getInputRowMeta(), r );
+        if ( outputRowData != null ) {
+          outputRows[ nrOutputRows++ ] = outputRowData;
+          incrementLinesOutput();
+        }
       }
+      putRows( data.outputRowMeta, outputRows, nrOutputRows ); // in case we want them to go further...
 
       if ( checkFeedback( getLinesRead() ) ) {
         if ( log.isBasic() ) {
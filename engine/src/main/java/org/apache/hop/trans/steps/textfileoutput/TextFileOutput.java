@@ -310,7 +310,7 @@ public class TextFileOutput extends BaseStep implements StepInterface {
       }
       first = false;
       writeRow( data.outputRowMeta, row );
-      putRow( data.outputRowMeta, row ); // in case we want it to go further...
+      passRowOn( row ); // in case we want it to go further...
 
       if ( checkFeedback( getLinesOutput() ) ) {
         logBasic( "linenr " + getLinesOutput() );
@@ -386,7 +386,7 @@ public class TextFileOutput extends BaseStep implements StepInterface {
       }
 
       writeRow( data.outputRowMeta, row );
-      putRow( data.outputRowMeta, row ); // in case we want it to go further...
+      passRowOn( row ); // in case we want it to go further...
 
       if ( checkFeedback( getLinesOutput() ) ) {
         logBasic( "linenr " + getLinesOutput() );
@@ -442,9 +442,9 @@ public class TextFileOutput extends BaseStep implements StepInterface {
       meta.setEncoding( CharsetToolkit.getDefaultSystemCharset().name() );
     }
 
-    Object[] row = getRow(); // This also waits for a row to be finished.
+    Object[][] rows = getRows( ROW_BATCH_SIZE ); // This also waits for a row to be finished.
 
-    if ( row != null && first ) {
+    if ( rows != null && first ) {
       data.outputRowMeta = getInputRowMeta().clone();
     }
 
@@ -452,12 +452,49 @@ public class TextFileOutput extends BaseStep implements StepInterface {
       initBinaryDataFields();
       if ( data.outputRowMeta != null ) {
         initFieldNumbers( data.outputRowMeta, meta.getOutputFields() );
-        if ( row != null ) {
+        if ( rows != null ) {
           meta.getFields( data.outputRowMeta, getStepname(), null, null, this, metaStore );
         }
       }
     }
-    return writeRowTo( row );
+
+    if ( rows == null ) {
+      return writeRowTo( null );
+    }
+
+    // Write the whole batch, the written rows go further in one go
+    //
+    data.passOnRows = new Object[ rows.length ][];
+    data.nrPassOnRows = 0;
+    boolean result = true;
+    try {
+      for ( Object[] row : rows ) {
+        if ( !writeRowTo( row ) ) {
+          // Stop like the single row path does, the rows written so far still go further
+          result = false;
+          break;
+        }
+      }
+      putRows( data.outputRowMeta, data.passOnRows, data.nrPassOnRows );
+    } finally {
+      data.passOnRows = null;
+    }
+    return result;
+  }
+
+  /**
+   * Pass a written row on to the next steps. During {@link #processRow(StepMetaInterface, StepDataInterface)} the rows
+   * are collected and put once the batch is written.
+   *
+   * @param row the written row
+   * @throws HopStepException
+   */
+  protected void passRowOn( Object[] row ) throws HopStepException {
+    if ( data.passOnRows != null ) {
+      data.passOnRows[ data.nrPassOnRows++ ] = row;
+    } else {
+      putRow( data.outputRowMeta, row );
+    }
   }
 
   protected boolean writeRowTo( Object[] row ) throws HopException {
@@ -441,6 +441,12 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
 
   public int splitEvery;
 
+  /**
+   * The rows written in the current batch, they are passed on to the next steps once the batch is written
+   */
+  public Object[][] passOnRows;
+  public int nrPassOnRows;
+
   public TextFileOutputData() {
     super();
 
@@ -65,7 +65,7 @@ public class TextFileOutputLegacy extends TextFileOutput {
       }
       first = false;
       writeRow( data.outputRowMeta, row );
-      putRow( data.outputRowMeta, row ); // in case we want it to go further...
+      passRowOn( row ); // in case we want it to go further...
 
       if ( checkFeedback( getLinesOutput() ) ) {
         logBasic( "linenr " + getLinesOutput() );
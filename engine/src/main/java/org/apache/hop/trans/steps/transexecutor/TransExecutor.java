@@ -36,16 +36,20 @@ import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.job.DelegationListener;
+import org.apache.hop.trans.SingleThreadedTransExecutor;
 import org.apache.hop.trans.StepWithMappingMeta;
 import org.apache.hop.trans.Trans;
 import org.apache.hop.trans.TransExecutionConfiguration;
 import org.apache.hop.trans.TransMeta;
+import org.apache.hop.trans.TransMeta.TransformationType;
 import org.apache.hop.trans.step.BaseStep;
 import org.apache.hop.trans.step.StepDataInterface;
 import org.apache.hop.trans.step.StepInterface;
 import org.apache.hop.trans.step.StepMeta;
+import org.apache.hop.trans.step.StepMetaDataCombi;
 import org.apache.hop.trans.step.StepMetaInterface;
 import org.apache.hop.trans.steps.TransStepUtil;
+import org.apache.hop.trans.steps.rowsfromresult.RowsFromResultMeta;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -203,21 +207,18 @@ public class TransExecutor extends BaseStep implements StepInterface {
     }
     transExecutorData.groupTimeStart = System.currentTimeMillis();
 
+    if ( meta.isReusingTransformation() ) {
+      collectGroupResults( executeGroupInReusedTrans( incomingFieldValues ) );
+      return;
+    }
+
     if ( first ) {
       discardLogLines( transExecutorData );
     }
 
     Trans executorTrans = createInternalTrans();
     transExecutorData.setExecutorTrans( executorTrans );
-    if ( incomingFieldValues != null ) {
-      // Pass parameter values
-      passParametersToTrans( incomingFieldValues );
-    } else {
-      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
-      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
-      // If not still pass the null parameter values
-      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
-    }
+    passGroupParametersToTrans( incomingFieldValues );
 
 
     // keep track for drill down in Spoon...
@@ -250,6 +251,10 @@ public class TransExecutor extends BaseStep implements StepInterface {
       result.setNrErrors( 1 );
     }
 
+    collectGroupResults( result );
+  }
+
+  private void collectGroupResults( Result result ) throws HopException {
     if ( result.isSafeStop() ) {
       getTrans().safeStop();
     }
@@ -258,7 +263,161 @@ public class TransExecutor extends BaseStep implements StepInterface {
     collectExecutionResults( result );
     collectExecutionResultFiles( result );
 
-    transExecutorData.groupBuffer.clear();
+    getData().groupBuffer.clear();
+  }
+
+  private void passGroupParametersToTrans( List<String> incomingFieldValues ) throws HopException {
+    if ( incomingFieldValues != null ) {
+      // Pass parameter values
+      passParametersToTrans( incomingFieldValues );
+    } else {
+      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
+      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
+      // If not still pass the null parameter values
+      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+    }
+  }
+
+  /**
+   * Run the rows of the current group as one batch through the transformation which is kept initialized between the
+   * groups. The transformation is started with the parameters of the first group and only started again after a group
+   * failed or stopped it.
+   *
+   * @param incomingFieldValues the values of the fields of the current row, used for the parameters
+   * @return the result of this group only
+   */
+  @VisibleForTesting
+  Result executeGroupInReusedTrans( List<String> incomingFieldValues ) throws HopException {
+    TransExecutorData transExecutorData = getData();
+    try {
+      if ( transExecutorData.getReusedExecutor() == null ) {
+        startReusedTrans( incomingFieldValues );
+      }
+      SingleThreadedTransExecutor executor = transExecutorData.getReusedExecutor();
+
+      for ( RowMetaAndData row : transExecutorData.groupBuffer ) {
+        transExecutorData.getReusedRowProducer().putRow( row.getRowMeta(), row.getData() );
+      }
+      boolean more = executor.oneIteration();
+
+      Result result = takeGroupResult( executor.getTrans() );
+      if ( !more || result.getNrErrors() > 0 ) {
+        // The steps can't take another batch, the next group gets a fresh transformation
+        //
+        stopReusedTrans();
+      }
+      return result;
+    } catch ( HopException e ) {
+      log.logError( BaseMessages.getString( PKG, "TransExecutor.Log.ErrorExecTrans" ), e );
+      stopReusedTrans();
+
+      Result result = new Result();
+      result.setResult( false );
+      result.setNrErrors( 1 );
+      return result;
+    }
+  }
+
+  private void startReusedTrans( List<String> incomingFieldValues ) throws HopException {
+    TransExecutorData transExecutorData = getData();
+    discardLogLines( transExecutorData );
+
+    // Only the single threaded engine can run the steps a batch of rows at a time
+    //
+    transExecutorData.getExecutorTransMeta().setTransformationType( TransformationType.SingleThreaded );
+
+    Trans executorTrans = createInternalTrans();
+    transExecutorData.setExecutorTrans( executorTrans );
+    passGroupParametersToTrans( incomingFieldValues );
+
+    // keep track for drill down in Spoon...
+    getTrans().addActiveSubTransformation( getStepname(), executorTrans );
+
+    executorTrans.setPreviousResult( new Result() );
+    executorTrans.prepareExecution( getTrans().getArguments() );
+
+    // The rows of every group are injected into the "Get rows from result" step
+    //
+    StepMetaDataCombi rowsFromResult = null;
+    for ( StepMetaDataCombi combi : executorTrans.getSteps() ) {
+      if ( combi.meta instanceof RowsFromResultMeta ) {
+        if ( rowsFromResult != null ) {
+          throw new HopException(
+            BaseMessages.getString( PKG, "TransExecutor.Exception.ReuseNeedsOneRowsFromResult" ) );
+        }
+        rowsFromResult = combi;
+      }
+    }
+    if ( rowsFromResult == null ) {
+      throw new HopException( BaseMessages.getString( PKG, "TransExecutor.Exception.ReuseNeedsOneRowsFromResult" ) );
+    }
+    transExecutorData.setReusedRowProducer(
+      executorTrans.addRowProducer( rowsFromResult.stepname, rowsFromResult.copy ) );
+
+    executorTrans.startThreads();
+
+    // Inform the parent transformation we started something here...
+    for ( DelegationListener delegationListener : getTrans().getDelegationListeners() ) {
+      delegationListener.transformationDelegationStarted( executorTrans, new TransExecutionConfiguration() );
+    }
+
+    SingleThreadedTransExecutor executor = new SingleThreadedTransExecutor( executorTrans );
+    if ( !executor.init() ) {
+      throw new HopException( BaseMessages.getString( PKG, "TransExecutor.Exception.UnableToInitReusedTrans" ) );
+    }
+    transExecutorData.setReusedExecutor( executor );
+    transExecutorData.setReusedTransTotals( new Result() );
+  }
+
+  /**
+   * The counters of the steps keep on adding up over the groups, the result of a group is the difference with the
+   * totals after the previous group.
+   */
+  private Result takeGroupResult( Trans executorTrans ) {
+    TransExecutorData transExecutorData = getData();
+    Result previous = transExecutorData.getReusedTransTotals();
+    Result totals = executorTrans.getResult();
+
+    Result result = new Result();
+    result.setNrErrors( totals.getNrErrors() - previous.getNrErrors() );
+    result.setResult( result.getNrErrors() == 0 );
+    result.setNrLinesRead( totals.getNrLinesRead() - previous.getNrLinesRead() );
+    result.setNrLinesWritten( totals.getNrLinesWritten() - previous.getNrLinesWritten() );
+    result.setNrLinesInput( totals.getNrLinesInput() - previous.getNrLinesInput() );
+    result.setNrLinesOutput( totals.getNrLinesOutput() - previous.getNrLinesOutput() );
+    result.setNrLinesUpdated( totals.getNrLinesUpdated() - previous.getNrLinesUpdated() );
+    result.setNrLinesRejected( totals.getNrLinesRejected() - previous.getNrLinesRejected() );
+    result.setSafeStop( totals.isSafeStop() );
+    result.setStopped( totals.isStopped() );
+    result.setLogChannelId( totals.getLogChannelId() );
+    for ( Map.Entry<String, ResultFile> entry : totals.getResultFiles().entrySet() ) {
+      if ( !previous.getResultFiles().containsKey( entry.getKey() ) ) {
+        result.getResultFiles().put( entry.getKey(), entry.getValue() );
+      }
+    }
+
+    // The result rows of this batch were published at the end of the batch
+    //
+    result.setRows( new ArrayList<>( executorTrans.getResultRows() ) );
+    executorTrans.getResultRows().clear();
+
+    transExecutorData.setReusedTransTotals( totals );
+    return result;
+  }
+
+  private void stopReusedTrans() {
+    TransExecutorData transExecutorData = getData();
+    SingleThreadedTransExecutor executor = transExecutorData.getReusedExecutor();
+    transExecutorData.setReusedExecutor( null );
+    transExecutorData.setReusedRowProducer( null );
+    transExecutorData.setReusedTransTotals( null );
+    if ( executor != null ) {
+      try {
+        executor.dispose();
+      } catch ( HopException e ) {
+        log.logError( "Error disposing of the transformation: ", e );
+      }
+    }
   }
 
   @VisibleForTesting
@@ -508,6 +667,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     TransExecutorData transExecutorData = getData();
+    stopReusedTrans();
     transExecutorData.groupBuffer = null;
     super.dispose( smi, sdi );
   }
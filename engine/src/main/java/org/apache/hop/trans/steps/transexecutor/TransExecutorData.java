@@ -22,10 +22,13 @@
 
 package org.apache.hop.trans.steps.transexecutor;
 
+import org.apache.hop.core.Result;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.RowSet;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.row.ValueMetaInterface;
+import org.apache.hop.trans.RowProducer;
+import org.apache.hop.trans.SingleThreadedTransExecutor;
 import org.apache.hop.trans.Trans;
 import org.apache.hop.trans.TransMeta;
 import org.apache.hop.trans.step.BaseStepData;
@@ -63,6 +66,10 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
   private RowSet resultFilesRowSet;
   private RowSet executionResultRowSet;
 
+  private SingleThreadedTransExecutor reusedExecutor;
+  private RowProducer reusedRowProducer;
+  private Result reusedTransTotals;
+
   public TransExecutorData() {
     super();
   }
@@ -154,4 +161,34 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
   public void setExecutionResultRowSet( RowSet executionResultRowSet ) {
     this.executionResultRowSet = executionResultRowSet;
   }
+
+  /**
+   * @return the engine running the transformation which is re-used for every group, null if it's not started
+   */
+  public SingleThreadedTransExecutor getReusedExecutor() {
+    return reusedExecutor;
+  }
+
+  public void setReusedExecutor( SingleThreadedTransExecutor reusedExecutor ) {
+    this.reusedExecutor = reusedExecutor;
+  }
+
+  public RowProducer getReusedRowProducer() {
+    return reusedRowProducer;
+  }
+
+  public void setReusedRowProducer( RowProducer reusedRowProducer ) {
+    this.reusedRowProducer = reusedRowProducer;
+  }
+
+  /**
+   * @return the result totals of the re-used transformation after the previous group
+   */
+  public Result getReusedTransTotals() {
+    return reusedTransTotals;
+  }
+
+  public void setReusedTransTotals( Result reusedTransTotals ) {
+    this.reusedTransTotals = reusedTransTotals;
+  }
 }
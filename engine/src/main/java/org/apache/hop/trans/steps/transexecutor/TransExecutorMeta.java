@@ -91,6 +91,12 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
    */
   private String groupTime;
 
+  /**
+   * Keep the transformation initialized and run every group of rows through it as a batch instead of preparing and
+   * starting a new transformation for every group (false default)
+   */
+  private boolean reusingTransformation;
+
   private TransExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -233,6 +239,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "reuse_transformation", reusingTransformation ) );
 
     // Add the mapping parameters too
     //
@@ -294,6 +301,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      reusingTransformation = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "reuse_transformation" ) );
 
       // Load the mapping parameters too..
       //
@@ -349,6 +357,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    reusingTransformation = false;
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -837,6 +846,20 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return true if the transformation is initialized once and every group of rows is run through it as a batch
+   */
+  public boolean isReusingTransformation() {
+    return reusingTransformation;
+  }
+
+  /**
+   * @param reusingTransformation true to initialize the transformation once and run every group of rows through it
+   */
+  public void setReusingTransformation( boolean reusingTransformation ) {
+    this.reusingTransformation = reusingTransformation;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
@@ -26,6 +26,7 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.StagingTable;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
@@ -44,9 +45,14 @@ import org.apache.hop.trans.step.StepMetaInterface;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Update data in a database table, does NOT ever perform an insert.
+ * <p>
+ * In set-based mode the rows are loaded into a staging table instead, and the table is updated from it with one
+ * statement every commit size rows. That only works with "=" key conditions, and the rows found are updated whether
+ * something changed or not.
  *
  * @author Matt
  * @since 26-apr-2003
@@ -54,6 +60,11 @@ import java.util.ArrayList;
 public class Update extends BaseStep implements StepInterface {
   private static Class<?> PKG = UpdateMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /**
+   * The number of rows updated at a time in set-based mode without a commit size.
+   */
+  private static final int DEFAULT_CHUNK_SIZE = 1000;
+
   private UpdateMeta meta;
   private UpdateData data;
 
@@ -212,6 +223,9 @@ public class Update extends BaseStep implements StepInterface {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
 
+      if ( data.setBased && !first && !updateChunk() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -286,33 +300,46 @@ public class Update extends BaseStep implements StepInterface {
             + "" + data.valuenrs[ i ] );
         }
       }
-      if ( meta.isSkipLookup() ) {
-        // We skip lookup
-        // but we need fields for update
-        data.lookupParameterRowMeta = new RowMeta();
-        for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
-          if ( "BETWEEN".equalsIgnoreCase( meta.getKeyCondition()[ i ] ) ) {
-            data.lookupParameterRowMeta.addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream()[ i ] ) );
-            data.lookupParameterRowMeta
-              .addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream2()[ i ] ) );
-          } else {
-            if ( "= ~NULL".equalsIgnoreCase( meta.getKeyCondition()[ i ] ) ) {
-              data.lookupParameterRowMeta
-                .addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream()[ i ] ) );
-              data.lookupParameterRowMeta.addValueMeta( getInputRowMeta()
-                .searchValueMeta( meta.getKeyStream()[ i ] ).clone() );
-            } else if ( !"IS NULL".equalsIgnoreCase( meta.getKeyCondition()[ i ] )
-              && !"IS NOT NULL".equalsIgnoreCase( meta.getKeyCondition()[ i ] ) ) {
+      if ( data.setBased ) {
+        data.setBased = prepareSetBased( getInputRowMeta() );
+      }
+      if ( !data.setBased ) {
+        if ( meta.isSkipLookup() ) {
+          // We skip lookup
+          // but we need fields for update
+          data.lookupParameterRowMeta = new RowMeta();
+          for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+            if ( "BETWEEN".equalsIgnoreCase( meta.getKeyCondition()[ i ] ) ) {
+              data.lookupParameterRowMeta.addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream()[ i ] ) );
               data.lookupParameterRowMeta
-                .addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream()[ i ] ) );
-            }
+                .addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream2()[ i ] ) );
+            } else {
+              if ( "= ~NULL".equalsIgnoreCase( meta.getKeyCondition()[ i ] ) ) {
+                data.lookupParameterRowMeta
+                  .addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream()[ i ] ) );
+                data.lookupParameterRowMeta.addValueMeta( getInputRowMeta()
+                  .searchValueMeta( meta.getKeyStream()[ i ] ).clone() );
+              } else if ( !"IS NULL".equalsIgnoreCase( meta.getKeyCondition()[ i ] )
+                && !"IS NOT NULL".equalsIgnoreCase( meta.getKeyCondition()[ i ] ) ) {
+                data.lookupParameterRowMeta
+                  .addValueMeta( getInputRowMeta().searchValueMeta( meta.getKeyStream()[ i ] ) );
+              }
 
+            }
           }
+        } else {
+          setLookup( getInputRowMeta() );
         }
-      } else {
-        setLookup( getInputRowMeta() );
+        prepareUpdate( getInputRowMeta() );
+      }
+    }
+
+    if ( data.setBased ) {
+      data.stagingTable.addRow( r );
+      if ( data.stagingTable.getChunkRows().size() >= data.chunkSize ) {
+        return updateChunk();
       }
-      prepareUpdate( getInputRowMeta() );
+      return true;
     }
 
     try {
@@ -477,6 +504,152 @@ public class Update extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Create the staging table and the statement to update the target table from it. The staging table has a column for
+   * every key and every update field, with the type of the column in the target table.
+   *
+   * @return false if the database can't update from the staging table, the rows are then handled one by one
+   */
+  public boolean prepareSetBased( RowMetaInterface rowMeta ) throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    StagingTable stagingTable = new StagingTable( data.db );
+    data.keyFields = new String[ meta.getKeyLookup().length ];
+    data.keyRowMeta = new RowMeta();
+    for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+      stagingTable.addColumn( meta.getKeyLookup()[ i ], meta.getKeyStream()[ i ] );
+      data.keyFields[ i ] = databaseMeta.quoteField( meta.getKeyLookup()[ i ] );
+      data.keyRowMeta.addValueMeta( rowMeta.getValueMeta( data.keynrs[ i ] ) );
+    }
+    List<String> updateFields = new ArrayList<String>();
+    for ( int i = 0; i < meta.getUpdateLookup().length; i++ ) {
+      // Keys are equal anyway
+      if ( stagingTable.addColumn( meta.getUpdateLookup()[ i ], meta.getUpdateStream()[ i ] ) ) {
+        updateFields.add( databaseMeta.quoteField( meta.getUpdateLookup()[ i ] ) );
+      }
+    }
+
+    if ( !updateFields.isEmpty() ) {
+      data.updateFromStatement = databaseMeta.getUpdateFromStatement( data.schemaTable, stagingTable.getName(),
+        data.keyFields, updateFields.toArray( new String[ 0 ] ) );
+      if ( data.updateFromStatement == null ) {
+        logBasic( BaseMessages.getString( PKG, "Update.Log.SetBasedNotSupported" ) );
+        return false;
+      }
+    }
+
+    stagingTable.create( environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTableName() ),
+      rowMeta, data.keynrs );
+    data.stagingTable = stagingTable;
+    // Keep the staging table when a chunk is rolled back
+    data.db.commit();
+
+    if ( log.isDetailed() ) {
+      logDetailed( "Updating rows with [" + data.updateFromStatement + "]" );
+    }
+    return true;
+  }
+
+  /**
+   * Load the current chunk into the staging table and update the target table from it.
+   *
+   * @return false if the step has to stop
+   */
+  private boolean updateChunk() throws HopException {
+    List<Object[]> rows = data.stagingTable.getChunkRows();
+    if ( rows.isEmpty() ) {
+      return true;
+    }
+    try {
+      data.stagingTable.load();
+
+      if ( !meta.isErrorIgnored() ) {
+        if ( getStepMeta().isDoingErrorHandling() ) {
+          // Only the rows that can't be found go to the error rows, like they do row by row
+          //
+          for ( Object[] row : data.stagingTable.removeRowsNotIn( data.schemaTable, data.keyFields ) ) {
+            putKeyNotFoundError( row );
+          }
+        } else {
+          long notFound = data.stagingTable.countRowsNotIn( data.schemaTable, data.keyFields );
+          if ( notFound > 0 ) {
+            throw new HopDatabaseException( BaseMessages.getString( PKG, "Update.Exception.KeysNotFound", notFound ) );
+          }
+        }
+      }
+      int affected = data.updateFromStatement == null ? 0 : data.stagingTable.execute( data.updateFromStatement );
+
+      long updated = Math.min( affected + data.stagingTable.getNrDuplicates(), rows.size() );
+      setLinesUpdated( getLinesUpdated() + updated );
+      setLinesSkipped( getLinesSkipped() + rows.size() - updated );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "Update.Log.ChunkUpdated", rows.size(), updated ) );
+      }
+
+      for ( Object[] row : rows ) {
+        putRow( data.outputRowMeta, row );
+      }
+      data.stagingTable.clear();
+      data.db.commit();
+      if ( checkFeedback( getLinesRead() ) ) {
+        if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "Update.Log.LineNumber" ) + getLinesRead() );
+        }
+      }
+    } catch ( HopException e ) {
+      if ( !getStepMeta().isDoingErrorHandling() ) {
+        logError( BaseMessages.getString( PKG, "Update.Log.ErrorInStep" ), e );
+        setErrors( 1 );
+        stopAll();
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+
+      // The update works on the chunk as a whole, we can't tell which row caused the problem: all of them go to the
+      // error rows
+      //
+      data.db.rollback();
+      for ( Object[] row : rows ) {
+        putError( getInputRowMeta(), row, 1, e.toString(), null, "UPD001" );
+      }
+      data.stagingTable.clear();
+    }
+    return true;
+  }
+
+  private void putKeyNotFoundError( Object[] row ) throws HopException {
+    Object[] key = new Object[ data.keynrs.length ];
+    for ( int i = 0; i < key.length; i++ ) {
+      key[ i ] = row[ data.keynrs[ i ] ];
+    }
+    if ( data.stringFieldnames == null ) {
+      data.stringFieldnames = "";
+      for ( int i = 0; i < data.keyRowMeta.size(); i++ ) {
+        if ( i > 0 ) {
+          data.stringFieldnames += ", ";
+        }
+        data.stringFieldnames += data.keyRowMeta.getValueMeta( i ).getName();
+      }
+    }
+    putError( getInputRowMeta(), row, 1L, BaseMessages.getString( PKG, "Update.Exception.KeyCouldNotFound" )
+      + data.keyRowMeta.getString( key ), data.stringFieldnames, "UPD001" );
+  }
+
+  /**
+   * @return true if the table can be updated in one statement per chunk
+   */
+  private boolean isSetBasedPossible() {
+    if ( !Utils.isEmpty( meta.getIgnoreFlagField() ) || meta.getKeyCondition().length == 0 ) {
+      return false;
+    }
+    for ( String condition : meta.getKeyCondition() ) {
+      if ( !"=".equals( condition ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (UpdateMeta) smi;
     data = (UpdateData) sdi;
@@ -503,6 +676,14 @@ public class Update extends BaseStep implements StepInterface {
 
         data.db.setCommit( meta.getCommitSize( this ) );
 
+        if ( meta.isSetBased() ) {
+          data.setBased = isSetBasedPossible();
+          if ( !data.setBased ) {
+            logBasic( BaseMessages.getString( PKG, "Update.Log.SetBasedNotPossible" ) );
+          }
+          data.chunkSize = meta.getCommitSize( this ) > 0 ? meta.getCommitSize( this ) : DEFAULT_CHUNK_SIZE;
+        }
+
         return true;
       } catch ( HopException ke ) {
         logError( BaseMessages.getString( PKG, "Update.Log.ErrorOccurred" ) + ke.getMessage() );
@@ -528,6 +709,13 @@ public class Update extends BaseStep implements StepInterface {
         }
         data.db.closePreparedStatement( data.prepStatementUpdate );
         data.db.closePreparedStatement( data.prepStatementLookup );
+        if ( data.stagingTable != null ) {
+          data.stagingTable.drop();
+          data.stagingTable = null;
+          if ( !data.db.isAutoCommit() ) {
+            data.db.commit();
+          }
+        }
       } catch ( HopDatabaseException e ) {
         logError( BaseMessages.getString( PKG, "Update.Log.UnableToCommitUpdateConnection" )
           + data.db + "] :" + e.toString() );
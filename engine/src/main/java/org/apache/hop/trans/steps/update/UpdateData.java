@@ -23,6 +23,7 @@
 package org.apache.hop.trans.steps.update;
 
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.StagingTable;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
@@ -55,6 +56,13 @@ public class UpdateData extends BaseStepData implements StepDataInterface {
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface updateParameterRowMeta;
 
+  public boolean setBased;
+  public int chunkSize;
+  public StagingTable stagingTable;
+  public String[] keyFields; // The quoted key columns of the target table
+  public RowMetaInterface keyRowMeta; // The key fields of the input rows
+  public String updateFromStatement;
+
   public UpdateData() {
     super();
 
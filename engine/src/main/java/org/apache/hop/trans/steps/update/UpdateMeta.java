@@ -148,6 +148,12 @@ public class UpdateMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "BATCH_UPDATE" )
   private boolean useBatchUpdate;
 
+  /**
+   * Load the rows into a staging table and update the table from it one commit size at a time
+   */
+  @Injection( name = "SET_BASED" )
+  private boolean setBased;
+
   @Injection( name = "CONNECTIONNAME" )
   public void setConnection( String connectionName ) {
     try {
@@ -400,6 +406,7 @@ public class UpdateMeta extends BaseStepMeta implements StepMetaInterface {
       commitSize = ( csize == null ) ? "0" : csize;
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "use_batch" ) );
       skipLookup = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "skip_lookup" ) );
+      setBased = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "set_based" ) );
       errorIgnored = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "error_ignored" ) );
       ignoreFlagField = XMLHandler.getTagValue( stepnode, "ignore_flag_field" );
       schemaName = XMLHandler.getTagValue( stepnode, "lookup", "schema" );
@@ -475,6 +482,7 @@ public class UpdateMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "skip_lookup", skipLookup ) );
     retval.append( "    " + XMLHandler.addTagValue( "commit", commitSize ) );
     retval.append( "    " + XMLHandler.addTagValue( "use_batch", useBatchUpdate ) );
+    retval.append( "    " + XMLHandler.addTagValue( "set_based", setBased ) );
     retval.append( "    " + XMLHandler.addTagValue( "error_ignored", errorIgnored ) );
     retval.append( "    " + XMLHandler.addTagValue( "ignore_flag_field", ignoreFlagField ) );
     retval.append( "    <lookup>" + Const.CR );
@@ -861,6 +869,20 @@ public class UpdateMeta extends BaseStepMeta implements StepMetaInterface {
     this.useBatchUpdate = useBatchUpdate;
   }
 
+  /**
+   * @return true if the table is updated from a staging table instead of row by row
+   */
+  public boolean isSetBased() {
+    return setBased;
+  }
+
+  /**
+   * @param setBased true to update the table from a staging table instead of row by row
+   */
+  public void setSetBased( boolean setBased ) {
+    this.setBased = setBased;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
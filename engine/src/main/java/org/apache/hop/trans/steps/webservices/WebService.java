@@ -28,11 +28,13 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopStepException;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.xml.XMLHandler;
 import org.apache.hop.core.xml.XMLParserFactoryProducer;
@@ -82,6 +84,7 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -91,6 +94,7 @@ import java.math.BigDecimal;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -182,6 +186,7 @@ public class WebService extends BaseStep implements StepInterface {
       // Input from previous steps, no longer getting any rows, call it a day...
       //
       if ( vCurrentRow == null ) {
+        putFinishedBatches( true );
         setOutputDone();
         return false;
       }
@@ -195,12 +200,17 @@ public class WebService extends BaseStep implements StepInterface {
     if ( ( vCurrentRow == null && ( nbRowProcess % meta.getCallStep() != 0 ) )
       || ( vCurrentRow != null && ( ( nbRowProcess > 0 && nbRowProcess % meta.getCallStep() == 0 ) ) )
       || ( vCurrentRow == null && ( !meta.hasFieldsIn() ) ) ) {
-      requestSOAP( vCurrentRow, getInputRowMeta() );
+      if ( data.requestEngine != null ) {
+        submitSOAP( vCurrentRow, getInputRowMeta() );
+      } else {
+        requestSOAP( vCurrentRow, getInputRowMeta() );
+      }
     }
 
     // No input received, this one lookup execution is all we're going to do.
     //
     if ( vCurrentRow == null ) {
+      putFinishedBatches( true );
       setOutputDone();
     }
     return vCurrentRow != null;
@@ -390,27 +400,14 @@ public class WebService extends BaseStep implements StepInterface {
         charSet = contentType.getCharset();
         processRows( httpEntity.getContent(), rowData, rowMeta, cachedWsdl.getWsdlTypes()
           .isElementFormQualified( cachedWsdl.getTargetNamespace() ), charSet.toString() );
-      } else if ( responseCode == HttpStatus.SC_UNAUTHORIZED ) {
-        throw new HopStepException( BaseMessages.getString( PKG, "WebServices.ERROR0011.Authentication",
-          cachedURLService ) );
-      } else if ( responseCode == HttpStatus.SC_NOT_FOUND ) {
-        throw new HopStepException( BaseMessages.getString( PKG,
-          "WebServices.ERROR0012.NotFound", cachedURLService ) );
       } else {
-        throw new HopStepException( BaseMessages.getString( PKG,
-          "WebServices.ERROR0001.ServerError", Integer.toString( responseCode ),
-          Const.NVL( new String( EntityUtils.toString( httpEntity, charSet.toString() ) ), "" ), cachedURLService ) );
+        httpEntity = httpResponse.getEntity();
+        throw responseError( responseCode, httpEntity == null ? null
+          : EntityUtils.toString( httpEntity, charSet.toString() ), cachedURLService );
       }
       // requestTime += Const.nanoTime() - currentRequestTime;
-    } catch ( UnknownHostException e ) {
-      throw new HopStepException( BaseMessages
-        .getString( PKG, "WebServices.ERROR0013.UnknownHost", cachedURLService ), e );
-    } catch ( IOException e ) {
-      throw new HopStepException( BaseMessages
-        .getString( PKG, "WebServices.ERROR0005.IOException", cachedURLService ), e );
-    } catch ( URISyntaxException e ) {
-      throw new HopStepException( BaseMessages.getString( PKG, "WebServices.ERROR0002.InvalidURI",
-        cachedURLService ), e );
+    } catch ( IOException | URISyntaxException e ) {
+      throw requestError( e, cachedURLService );
     } finally {
       data.argumentRows.clear(); // ready for the next batch.
       if ( vHttpMethod != null ) {
@@ -419,6 +416,137 @@ public class WebService extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Hands the batch to the request engine and passes on the rows of the calls that came back, in input order. The
+   * SOAP envelope is built here, the worker thread only posts it and reads the reply.
+   */
+  private void submitSOAP( Object[] rowData, RowMetaInterface rowMeta ) throws HopException {
+    initWsdlEnv();
+    String urlService = cachedURLService;
+    HttpClient httpClient = cachedHttpClient;
+    boolean qualified = cachedWsdl.getWsdlTypes().isElementFormQualified( cachedWsdl.getTargetNamespace() );
+    HttpPost method;
+    try {
+      String xml = getRequestXML( cachedOperation, qualified );
+
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "WebServices.Log.SOAPEnvelope" ) );
+        logDetailed( xml );
+      }
+
+      method = getHttpMethod( urlService );
+      method.setEntity( new ByteArrayEntity( xml.getBytes( StandardCharsets.UTF_8 ) ) );
+    } catch ( URISyntaxException e ) {
+      throw requestError( e, urlService );
+    } finally {
+      data.argumentRows.clear(); // ready for the next batch.
+    }
+
+    // A SOAP call is a POST, it is only sent again when it can't have reached the service
+    //
+    data.requestEngine.submit( new Batch( rowData, rowMeta, urlService, qualified ),
+      () -> postSOAP( httpClient, method ), false );
+    putFinishedBatches( false );
+  }
+
+  /**
+   * Posts a SOAP envelope and reads the reply, called on a worker thread of the request engine.
+   */
+  private Reply postSOAP( HttpClient httpClient, HttpPost method ) throws IOException, URISyntaxException {
+    HttpPost vHttpMethod = method;
+    try {
+      HttpResponse httpResponse = httpClient.execute( vHttpMethod );
+      int responseCode = httpResponse.getStatusLine().getStatusCode();
+      if ( responseCode == HttpStatus.SC_MOVED_PERMANENTLY ) {
+        String newLocation = getLocationFrom( vHttpMethod );
+        vHttpMethod.releaseConnection();
+        vHttpMethod = getHttpMethod( newLocation );
+        vHttpMethod.setEntity( method.getEntity() );
+        httpResponse = httpClient.execute( vHttpMethod );
+        responseCode = httpResponse.getStatusLine().getStatusCode();
+      }
+      HttpEntity httpEntity = httpResponse.getEntity();
+      if ( httpEntity == null ) {
+        return new Reply( responseCode, new byte[ 0 ], Charset.defaultCharset().name() );
+      }
+      Charset charSet = ContentType.getOrDefault( httpEntity ).getCharset();
+      return new Reply( responseCode, EntityUtils.toByteArray( httpEntity ),
+        ( charSet == null ? Charset.defaultCharset() : charSet ).name() );
+    } finally {
+      vHttpMethod.releaseConnection();
+    }
+  }
+
+  /**
+   * Passes on the rows of the finished calls. Waits for calls while the engine is full or, at the end of the input,
+   * until all calls are done.
+   */
+  private void putFinishedBatches( boolean all ) throws HopException {
+    if ( data.requestEngine == null ) {
+      return;
+    }
+    try {
+      while ( !isStopped() ) {
+        HttpRequestEngine.Call<Batch, Reply> call;
+        if ( all ? data.requestEngine.getOutstanding() > 0 : data.requestEngine.isFull() ) {
+          call = data.requestEngine.take( 100 );
+          if ( call == null ) {
+            continue;
+          }
+        } else {
+          call = data.requestEngine.poll();
+          if ( call == null ) {
+            return;
+          }
+        }
+
+        Batch batch = call.getTag();
+        if ( call.getError() != null ) {
+          throw requestError( call.getError(), batch.urlService );
+        }
+        Reply reply = call.getResult();
+        if ( reply.statusCode != HttpStatus.SC_OK ) {
+          throw responseError( reply.statusCode, new String( reply.body, reply.charset ), batch.urlService );
+        }
+        processRows( new ByteArrayInputStream( reply.body ), batch.row, batch.rowMeta, batch.qualified,
+          reply.charset );
+      }
+    } catch ( InterruptedException e ) {
+      throw new HopException( e );
+    } catch ( IOException e ) {
+      throw new HopStepException( e );
+    }
+  }
+
+  private HopStepException responseError( int responseCode, String body, String urlService ) {
+    if ( responseCode == HttpStatus.SC_UNAUTHORIZED ) {
+      return new HopStepException( BaseMessages.getString( PKG, "WebServices.ERROR0011.Authentication",
+        urlService ) );
+    } else if ( responseCode == HttpStatus.SC_NOT_FOUND ) {
+      return new HopStepException( BaseMessages.getString( PKG,
+        "WebServices.ERROR0012.NotFound", urlService ) );
+    } else {
+      return new HopStepException( BaseMessages.getString( PKG,
+        "WebServices.ERROR0001.ServerError", Integer.toString( responseCode ), Const.NVL( body, "" ), urlService ) );
+    }
+  }
+
+  private HopStepException requestError( Exception e, String urlService ) {
+    if ( e instanceof HopStepException ) {
+      return (HopStepException) e;
+    } else if ( e instanceof UnknownHostException ) {
+      return new HopStepException( BaseMessages
+        .getString( PKG, "WebServices.ERROR0013.UnknownHost", urlService ), e );
+    } else if ( e instanceof IOException ) {
+      return new HopStepException( BaseMessages
+        .getString( PKG, "WebServices.ERROR0005.IOException", urlService ), e );
+    } else if ( e instanceof URISyntaxException ) {
+      return new HopStepException( BaseMessages.getString( PKG, "WebServices.ERROR0002.InvalidURI",
+        urlService ), e );
+    }
+    return new HopStepException( e );
+  }
+
   private void initWsdlEnv() throws HopException {
     if ( meta.equals( cachedMeta ) ) {
       return;
@@ -504,13 +632,38 @@ public class WebService extends BaseStep implements StepInterface {
     data.indexMap = new Hashtable<String, Integer>();
     data.realUrl = environmentSubstitute( meta.getUrl() );
 
-    return super.init( smi, sdi );
+    if ( !super.init( smi, sdi ) ) {
+      return false;
+    }
+
+    int concurrentRequests = Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ), 1 );
+    int maxRetries = Const.toInt( environmentSubstitute( meta.getMaxRetries() ), 0 );
+    double requestsPerSecond = Const.toDouble( environmentSubstitute( meta.getRequestsPerSecond() ), 0 );
+    if ( concurrentRequests > 1 || maxRetries > 0 || requestsPerSecond > 0 ) {
+      data.requestEngine = new HttpRequestEngine<>( getStepname(), concurrentRequests );
+      data.requestEngine.setRetries( maxRetries, Const.toLong( environmentSubstitute( meta.getRetryDelay() ),
+        WebServiceMeta.DEFAULT_RETRY_DELAY ),
+        ( reply, idempotent ) -> HttpRequestEngine.isRetryableStatus( reply.statusCode, idempotent ) );
+      data.requestEngine.setMaxRequestsPerSecond( requestsPerSecond );
+    }
+    return true;
   }
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (WebServiceMeta) smi;
     data = (WebServiceData) sdi;
 
+    if ( data.requestEngine != null ) {
+      data.requestEngine.shutdown();
+      LatencyHistogram latency = data.requestEngine.getLatency();
+      if ( isDetailed() && latency.getCount() > 0 ) {
+        logDetailed( BaseMessages.getString( PKG, "WebServices.Log.RequestStatistics", latency.getCount(),
+          data.requestEngine.getRetries(), latency.getValueAtPercentile( 50.0 ) / 1000000L,
+          latency.getValueAtPercentile( 99.0 ) / 1000000L, latency.getMax() / 1000000L ) );
+      }
+      data.requestEngine = null;
+    }
+
     super.dispose( smi, sdi );
   }
 
@@ -1120,4 +1273,35 @@ public class WebService extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * A batch of rows waiting for its reply in the request engine
+   */
+  static class Batch {
+    final Object[] row;
+    final RowMetaInterface rowMeta;
+    final String urlService;
+    final boolean qualified;
+
+    Batch( Object[] row, RowMetaInterface rowMeta, String urlService, boolean qualified ) {
+      this.row = row;
+      this.rowMeta = rowMeta;
+      this.urlService = urlService;
+      this.qualified = qualified;
+    }
+  }
+
+  /**
+   * The reply of the service to a batch, read completely on the worker thread
+   */
+  static class Reply {
+    final int statusCode;
+    final byte[] body;
+    final String charset;
+
+    Reply( int statusCode, byte[] body, String charset ) {
+      this.statusCode = statusCode;
+      this.body = body;
+      this.charset = charset;
+    }
+  }
 }
@@ -23,6 +23,7 @@
 package org.apache.hop.trans.steps.webservices;
 
 import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.util.HttpRequestEngine;
 import org.apache.hop.trans.step.BaseStepData;
 import org.apache.hop.trans.step.StepDataInterface;
 
@@ -39,6 +40,8 @@ public class WebServiceData extends BaseStepData implements StepDataInterface {
 
   public List<Object[]> argumentRows;
 
+  public HttpRequestEngine<WebService.Batch, WebService.Reply> requestEngine;
+
   public WebServiceData() {
     argumentRows = new ArrayList<Object[]>();
   }
@@ -52,6 +52,12 @@ public class WebServiceMeta extends BaseStepMeta implements StepMetaInterface {
 
   public static final int DEFAULT_STEP = 1000;
 
+  // the number of calls a step copy keeps in flight
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+
+  // the delay before the first retry of a failed call (milliseconds), doubled for every next retry
+  public static final int DEFAULT_RETRY_DELAY = 1000;
+
   /**
    * The input web service fields
    */
@@ -135,6 +141,11 @@ public class WebServiceMeta extends BaseStepMeta implements StepMetaInterface {
    */
   private boolean returningReplyAsString;
 
+  private String concurrentRequests;
+  private String maxRetries;
+  private String retryDelay;
+  private String requestsPerSecond;
+
   public WebServiceMeta() {
     super();
     fieldsIn = new ArrayList<WebServiceField>();
@@ -191,6 +202,10 @@ public class WebServiceMeta extends BaseStepMeta implements StepMetaInterface {
 
   public void setDefault() {
     passingInputData = true; // Pass input data by default.
+    concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    maxRetries = "0";
+    retryDelay = String.valueOf( DEFAULT_RETRY_DELAY );
+    requestsPerSecond = "";
   }
 
   public void check( List<CheckResultInterface> remarks, TransMeta transMeta, StepMeta stepMeta,
@@ -244,6 +259,10 @@ public class WebServiceMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "compatible", isCompatible() ) );
     retval.append( "    " + XMLHandler.addTagValue( "repeating_element", getRepeatingElementName() ) );
     retval.append( "    " + XMLHandler.addTagValue( "reply_as_string", isReturningReplyAsString() ) );
+    retval.append( "    " + XMLHandler.addTagValue( "concurrentRequests", getConcurrentRequests() ) );
+    retval.append( "    " + XMLHandler.addTagValue( "maxRetries", getMaxRetries() ) );
+    retval.append( "    " + XMLHandler.addTagValue( "retryDelay", getRetryDelay() ) );
+    retval.append( "    " + XMLHandler.addTagValue( "requestsPerSecond", getRequestsPerSecond() ) );
 
     // Store the field parameters
     //
@@ -301,6 +320,10 @@ public class WebServiceMeta extends BaseStepMeta implements StepMetaInterface {
     setCompatible( Utils.isEmpty( compat ) || "Y".equalsIgnoreCase( compat ) );
     setRepeatingElementName( XMLHandler.getTagValue( stepnode, "repeating_element" ) );
     setReturningReplyAsString( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "reply_as_string" ) ) );
+    setConcurrentRequests( XMLHandler.getTagValue( stepnode, "concurrentRequests" ) );
+    setMaxRetries( XMLHandler.getTagValue( stepnode, "maxRetries" ) );
+    setRetryDelay( XMLHandler.getTagValue( stepnode, "retryDelay" ) );
+    setRequestsPerSecond( XMLHandler.getTagValue( stepnode, "requestsPerSecond" ) );
 
     // Load the input fields mapping
     //
@@ -459,6 +482,62 @@ public class WebServiceMeta extends BaseStepMeta implements StepMetaInterface {
     this.callStep = callStep;
   }
 
+  /**
+   * @return the number of calls a step copy keeps in flight
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests the number of calls a step copy keeps in flight
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return the number of times a failed call is retried
+   */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @param maxRetries the number of times a failed call is retried
+   */
+  public void setMaxRetries( String maxRetries ) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * @return the delay before the first retry in milliseconds
+   */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /**
+   * @param retryDelay the delay before the first retry in milliseconds
+   */
+  public void setRetryDelay( String retryDelay ) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * @return the maximum number of calls per second of a step copy, empty or 0 for no limit
+   */
+  public String getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * @param requestsPerSecond the maximum number of calls per second of a step copy, empty or 0 for no limit
+   */
+  public void setRequestsPerSecond( String requestsPerSecond ) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
   public String getOperationNamespace() {
     return operationNamespace;
   }
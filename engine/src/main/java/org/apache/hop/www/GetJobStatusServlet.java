@@ -110,6 +110,12 @@ public class GetJobStatusServlet extends BaseHttpServlet implements HopServerPlu
    * <td>Start line number of the execution log to be included into response.</td>
    * <td>integer, optional</td>
    * </tr>
+   * <tr>
+   * <td>log</td>
+   * <td>Boolean flag, <code>N</code> leaves the execution log out of the XML response. Use this to poll the status
+   * only and get the log incrementally from {@link GetLogServlet}.</td>
+   * <td>boolean, optional</td>
+   * </tr>
    * </tbody>
    * </table>
    *
@@ -199,6 +205,7 @@ public class GetJobStatusServlet extends BaseHttpServlet implements HopServerPlu
     String prefix = isJettyMode() ? StatusServletUtils.STATIC_PATH : root + StatusServletUtils.RESOURCES_PATH;
     boolean useXML = "Y".equalsIgnoreCase( request.getParameter( "xml" ) );
     int startLineNr = Const.toInt( request.getParameter( "from" ), 0 );
+    boolean includeLog = !"N".equalsIgnoreCase( request.getParameter( "log" ) );
 
     response.setStatus( HttpServletResponse.SC_OK );
 
@@ -247,15 +254,16 @@ public class GetJobStatusServlet extends BaseHttpServlet implements HopServerPlu
           byte[] data = null;
           String logId = job.getLogChannelId();
           boolean finishedOrStopped = job.isFinished() || job.isStopped();
-          if ( finishedOrStopped && ( data = cache.get( logId, startLineNr ) ) != null ) {
+          if ( finishedOrStopped && includeLog && ( data = cache.get( logId, startLineNr ) ) != null ) {
             response.setContentLength( XML_HEADER.length + data.length );
             out = response.getOutputStream();
             out.write( XML_HEADER );
             out.write( data );
             out.flush();
           } else {
-            int lastLineNr = HopLogStore.getLastBufferLineNr();
-            String logText = getLogText( job, startLineNr, lastLineNr );
+            // Without the log the cursor stays where the client is
+            //
+            int lastLineNr = includeLog ? HopLogStore.getLastBufferLineNr() : startLineNr;
 
             response.setContentType( "text/xml" );
             response.setCharacterEncoding( Const.XML_ENCODING );
@@ -270,8 +278,11 @@ public class GetJobStatusServlet extends BaseHttpServlet implements HopServerPlu
 
 
             // of bytes to handle this one.
-            String loggingString = HttpUtil.encodeBase64ZippedString( logText );
-            jobStatus.setLoggingString( loggingString );
+            if ( includeLog ) {
+              String logText = getLogText( job, startLineNr, lastLineNr );
+              String loggingString = HttpUtil.encodeBase64ZippedString( logText );
+              jobStatus.setLoggingString( loggingString );
+            }
 
             // Also set the result object...
             //
@@ -285,7 +296,8 @@ public class GetJobStatusServlet extends BaseHttpServlet implements HopServerPlu
             out.write( XML_HEADER );
             out.write( data );
             out.flush();
-            if ( finishedOrStopped && ( jobStatus.isFinished() || jobStatus.isStopped() ) && logId != null ) {
+            if ( finishedOrStopped && ( jobStatus.isFinished() || jobStatus.isStopped() ) && logId != null
+              && includeLog ) {
               cache.put( logId, xml, startLineNr );
             }
           }
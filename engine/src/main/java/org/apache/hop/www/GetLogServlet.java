@@ -0,0 +1,480 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.logging.HopLogLayout;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.HopLoggingEvent;
+import org.apache.hop.core.logging.HopLoggingEventListener;
+import org.apache.hop.core.logging.LogMessage;
+import org.apache.hop.core.logging.LoggingBuffer;
+import org.apache.hop.core.logging.LoggingObjectInterface;
+import org.apache.hop.core.logging.LoggingRegistry;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.job.Job;
+import org.apache.hop.job.JobAdapter;
+import org.apache.hop.job.JobListener;
+import org.apache.hop.trans.Trans;
+import org.apache.hop.trans.TransAdapter;
+import org.apache.hop.trans.TransListener;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Returns the execution log of a transformation or job incrementally. The client passes the number of the last log
+ * line it already has and only gets the lines after it, so polling a long running execution doesn't transfer the whole
+ * log over and over again. The status and metrics are left to {@link GetTransStatusServlet} and
+ * {@link GetJobStatusServlet} with <code>log=N</code>.
+ */
+public class GetLogServlet extends BaseHttpServlet implements HopServerPluginInterface {
+  private static Class<?> PKG = GetLogServlet.class; // for i18n purposes, needed by Translator2!!
+
+  private static final long serialVersionUID = -2853247616365290571L;
+
+  public static final String CONTEXT_PATH = "/hop/log";
+
+  public static final String TYPE_TRANS = "trans";
+  public static final String TYPE_JOB = "job";
+
+  /**
+   * The number of the last log line sent, to be passed as <code>from</code> in the next request.
+   */
+  public static final String HEADER_LAST_LINE_NR = "X-Hop-Last-Line-Nr";
+  public static final String HEADER_STATUS = "X-Hop-Status";
+  public static final String HEADER_FINISHED = "X-Hop-Finished";
+
+  /**
+   * The longest time in seconds a request waits for new log lines.
+   */
+  public static final int MAX_WAIT_SECONDS = 60;
+
+  /**
+   * The log lines are sent to the client in chunks of this many lines.
+   */
+  private static final int FLUSH_INTERVAL = 1000;
+
+  /**
+   * How far up the parents of a log channel are searched for the execution.
+   */
+  private static final int MAX_CHANNEL_DEPTH = 100;
+
+  public GetLogServlet() {
+  }
+
+  public GetLogServlet( TransformationMap transformationMap, JobMap jobMap ) {
+    super( transformationMap, jobMap );
+  }
+
+  /**
+   * <div id="mindtouch">
+   * <h1>/hop/log</h1>
+   * <a name="GET"></a>
+   * <h2>GET</h2>
+   * <p>Retrieves the new lines of the execution log of a transformation or job as plain text.
+   * The number of the last line sent is returned in the <code>X-Hop-Last-Line-Nr</code> header, pass it as
+   * <code>from</code> to get the lines logged after it. The <code>X-Hop-Status</code> and <code>X-Hop-Finished</code>
+   * headers hold the status of the execution.</p>
+   *
+   * <p><b>Example Request:</b><br />
+   * <pre function="syntax.xml">
+   * GET /hop/log/?name=dummy-trans&type=trans&from=1200&wait=30
+   * </pre>
+   *
+   * </p>
+   * <h3>Parameters</h3>
+   * <table class="pentaho-table">
+   * <tbody>
+   * <tr>
+   * <th>name</th>
+   * <th>description</th>
+   * <th>type</th>
+   * </tr>
+   * <tr>
+   * <td>name</td>
+   * <td>Name of the transformation or job.</td>
+   * <td>query</td>
+   * </tr>
+   * <tr>
+   * <td>id</td>
+   * <td>HopServer id of the transformation or job.</td>
+   * <td>query, optional</td>
+   * </tr>
+   * <tr>
+   * <td>type</td>
+   * <td><code>trans</code> (default) or <code>job</code>.</td>
+   * <td>query, optional</td>
+   * </tr>
+   * <tr>
+   * <td>from</td>
+   * <td>Number of the last log line the client already has, 0 to get the complete log.</td>
+   * <td>integer, optional</td>
+   * </tr>
+   * <tr>
+   * <td>wait</td>
+   * <td>Number of seconds to wait for new log lines if there are none yet and the execution is still running,
+   * at most 60. The request is suspended while waiting, it doesn't hold on to a server thread. Doesn't wait by
+   * default, nor when the servlet container doesn't support asynchronous requests.</td>
+   * <td>integer, optional</td>
+   * </tr>
+   * </tbody>
+   * </table>
+   *
+   * <h3>Response Body</h3>
+   * <table class="pentaho-table">
+   * <tbody>
+   * <tr>
+   * <td align="right">media types:</td>
+   * <td>text/plain</td>
+   * </tr>
+   * </tbody>
+   * </table>
+   * <p>The log lines after <code>from</code>, one per line.</p>
+   *
+   * <h3>Status Codes</h3>
+   * <table class="pentaho-table">
+   * <tbody>
+   * <tr>
+   * <th>code</th>
+   * <th>description</th>
+   * </tr>
+   * <tr>
+   * <td>200</td>
+   * <td>Request was processed.</td>
+   * </tr>
+   * <tr>
+   * <td>404</td>
+   * <td>The transformation or job was not found.</td>
+   * </tr>
+   * </tbody>
+   * </table>
+   * </div>
+   */
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    String name = request.getParameter( "name" );
+    String id = request.getParameter( "id" );
+    boolean job = TYPE_JOB.equalsIgnoreCase( request.getParameter( "type" ) );
+    int from = Const.toInt( request.getParameter( "from" ), 0 );
+    int waitSeconds = Math.min( Const.toInt( request.getParameter( "wait" ), 0 ), MAX_WAIT_SECONDS );
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "GetLogServlet.Log.LogRequested", name, from ) );
+    }
+
+    response.setCharacterEncoding( "UTF-8" );
+    response.setContentType( "text/plain;charset=UTF-8" );
+
+    Execution execution = job ? findJob( name, id ) : findTrans( name, id );
+    if ( execution == null ) {
+      response.setStatus( HttpServletResponse.SC_NOT_FOUND );
+      String messageKey = job ? "GetLogServlet.Log.JobNotFound" : "GetLogServlet.Log.TransNotFound";
+      response.getWriter().println( BaseMessages.getString( PKG, messageKey, name ) );
+      return;
+    }
+
+    LoggingBuffer appender = HopLogStore.getAppender();
+    int lastLineNr = appender.getLastBufferLineNr();
+    Iterator<HopLoggingEvent> events =
+      appender.getLogBufferIterator( execution.getLogChannelId(), false, from, lastLineNr );
+
+    if ( !events.hasNext() && waitSeconds > 0 && !execution.isFinished() && request.isAsyncSupported() ) {
+      // Don't hold on to a server thread while waiting: the response is written once the execution logs something,
+      // finishes or the time is up.
+      //
+      AsyncContext asyncContext = request.startAsync();
+      asyncContext.setTimeout( waitSeconds * 1000L );
+      new LogWaiter( asyncContext, appender, execution, from ).start();
+      return;
+    }
+
+    writeLines( response, appender, execution, from, lastLineNr, events );
+  }
+
+  /**
+   * Write the headers and the log lines. The lines are written while going over the log buffer and flushed every so
+   * many lines, so the response is sent in chunks instead of being built in memory first.
+   */
+  private static void writeLines( HttpServletResponse response, LoggingBuffer appender, Execution execution, int from,
+                                  int lastLineNr, Iterator<HopLoggingEvent> events ) throws IOException {
+    response.setStatus( HttpServletResponse.SC_OK );
+    response.setHeader( HEADER_LAST_LINE_NR, Integer.toString( Math.max( from, lastLineNr ) ) );
+    response.setHeader( HEADER_STATUS, execution.getStatus() );
+    response.setHeader( HEADER_FINISHED, execution.isFinished() ? "Y" : "N" );
+
+    HopLogLayout layout = appender.getLayout();
+    PrintWriter out = response.getWriter();
+    int nrLines = 0;
+    while ( events.hasNext() ) {
+      out.print( layout.format( events.next() ) );
+      out.print( Const.CR );
+      if ( ++nrLines % FLUSH_INTERVAL == 0 ) {
+        out.flush();
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Waits for the execution to log something after the given line or to finish, without a thread of its own. The log
+   * buffer and the execution notify it; the response is written on a thread of the server.
+   */
+  private class LogWaiter implements HopLoggingEventListener, AsyncListener {
+    private final AsyncContext asyncContext;
+    private final LoggingBuffer appender;
+    private final Execution execution;
+    private final int from;
+
+    private final AtomicBoolean responded = new AtomicBoolean();
+
+    /**
+     * Whether the events of a log channel belong to the execution, since only those wake us up
+     */
+    private final Map<String, Boolean> ownChannels = new ConcurrentHashMap<>();
+
+    private Runnable removeFinishedListener;
+
+    LogWaiter( AsyncContext asyncContext, LoggingBuffer appender, Execution execution, int from ) {
+      this.asyncContext = asyncContext;
+      this.appender = appender;
+      this.execution = execution;
+      this.from = from;
+    }
+
+    void start() {
+      asyncContext.addListener( this );
+      appender.addLoggingEventListener( this );
+      removeFinishedListener = execution.addFinishedListener( this::respondLater );
+
+      // Something might have been logged or the execution finished before we were listening
+      //
+      if ( execution.isFinished() || appender
+        .getLogBufferIterator( execution.getLogChannelId(), false, from, appender.getLastBufferLineNr() ).hasNext() ) {
+        respondLater();
+      }
+    }
+
+    @Override
+    public void eventAdded( HopLoggingEvent event ) {
+      Object message = event.getMessage();
+      if ( !responded.get() && message instanceof LogMessage && isOwnChannel( ( (LogMessage) message )
+        .getLogChannelId() ) ) {
+        respondLater();
+      }
+    }
+
+    private boolean isOwnChannel( String logChannelId ) {
+      if ( logChannelId == null ) {
+        return false;
+      }
+      return ownChannels.computeIfAbsent( logChannelId, id -> {
+        // Also covers the channels the execution created after we started waiting
+        //
+        LoggingObjectInterface loggingObject = LoggingRegistry.getInstance().getLoggingObject( id );
+        for ( int depth = 0; loggingObject != null && depth < MAX_CHANNEL_DEPTH; depth++ ) {
+          if ( execution.getLogChannelId().equals( loggingObject.getLogChannelId() ) ) {
+            return true;
+          }
+          loggingObject = loggingObject.getParent();
+        }
+        return false;
+      } );
+    }
+
+    /**
+     * Respond on a server thread, not on the thread that's logging.
+     */
+    private void respondLater() {
+      if ( responded.compareAndSet( false, true ) ) {
+        asyncContext.start( this::respond );
+      }
+    }
+
+    private void respond() {
+      try {
+        int lastLineNr = appender.getLastBufferLineNr();
+        writeLines( (HttpServletResponse) asyncContext.getResponse(), appender, execution, from, lastLineNr,
+          appender.getLogBufferIterator( execution.getLogChannelId(), false, from, lastLineNr ) );
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "GetLogServlet.Error.WriteLog" ), e );
+      } finally {
+        asyncContext.complete();
+      }
+    }
+
+    @Override
+    public void onTimeout( AsyncEvent event ) {
+      if ( responded.compareAndSet( false, true ) ) {
+        respond();
+      }
+    }
+
+    @Override
+    public void onComplete( AsyncEvent event ) {
+      stopListening();
+    }
+
+    @Override
+    public void onError( AsyncEvent event ) {
+      stopListening();
+    }
+
+    @Override
+    public void onStartAsync( AsyncEvent event ) {
+    }
+
+    private void stopListening() {
+      appender.removeLoggingEventListener( this );
+      if ( removeFinishedListener != null ) {
+        removeFinishedListener.run();
+      }
+    }
+  }
+
+  private Execution findTrans( String name, String id ) {
+    HopServerObjectEntry entry;
+    if ( Utils.isEmpty( id ) ) {
+      entry = getTransformationMap().getFirstCarteObjectEntry( name );
+    } else {
+      entry = new HopServerObjectEntry( name, id );
+    }
+    final Trans trans = entry == null ? null : getTransformationMap().getTransformation( entry );
+    if ( trans == null ) {
+      return null;
+    }
+    return new Execution() {
+      @Override
+      public String getLogChannelId() {
+        return trans.getLogChannelId();
+      }
+
+      @Override
+      public String getStatus() {
+        return trans.getStatus();
+      }
+
+      @Override
+      public boolean isFinished() {
+        return trans.isFinishedOrStopped();
+      }
+
+      @Override
+      public Runnable addFinishedListener( final Runnable listener ) {
+        final TransListener transListener = new TransAdapter() {
+          @Override
+          public void transFinished( Trans trans ) {
+            listener.run();
+          }
+        };
+        trans.addTransListener( transListener );
+        return () -> trans.getTransListeners().remove( transListener );
+      }
+    };
+  }
+
+  private Execution findJob( String name, String id ) {
+    HopServerObjectEntry entry;
+    if ( Utils.isEmpty( id ) ) {
+      entry = getJobMap().getFirstCarteObjectEntry( name );
+    } else {
+      entry = new HopServerObjectEntry( name, id );
+    }
+    final Job job = entry == null ? null : getJobMap().getJob( entry );
+    if ( job == null ) {
+      return null;
+    }
+    return new Execution() {
+      @Override
+      public String getLogChannelId() {
+        return job.getLogChannelId();
+      }
+
+      @Override
+      public String getStatus() {
+        return job.getStatus();
+      }
+
+      @Override
+      public boolean isFinished() {
+        return job.isFinished() || job.isStopped();
+      }
+
+      @Override
+      public Runnable addFinishedListener( final Runnable listener ) {
+        final JobListener jobListener = new JobAdapter() {
+          @Override
+          public void jobFinished( Job job ) {
+            listener.run();
+          }
+        };
+        job.addJobListener( jobListener );
+        return () -> job.removeJobListener( jobListener );
+      }
+    };
+  }
+
+  /**
+   * The part of a transformation or job this servlet needs.
+   */
+  private interface Execution {
+    String getLogChannelId();
+
+    String getStatus();
+
+    boolean isFinished();
+
+    /**
+     * @param listener called once the execution finished
+     * @return removes the listener again
+     */
+    Runnable addFinishedListener( Runnable listener );
+  }
+
+  public String toString() {
+    return "Execution log";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
@@ -213,10 +213,11 @@ public class GetStatusServlet extends BaseHttpServlet implements HopServerPlugin
       serverStatus.setStatusDescription( "Online" );
 
       getSystemInfo( serverStatus );
+      getQueueInfo( getTransformationMap().getScheduler(), serverStatus );
 
       for ( HopServerObjectEntry entry : transEntries ) {
         Trans trans = getTransformationMap().getTransformation( entry );
-        String status = trans.getStatus();
+        String status = getStatus( getTransformationMap().getScheduler(), entry, trans.getStatus() );
 
         SlaveServerTransStatus sstatus = new SlaveServerTransStatus( entry.getName(), entry.getId(), status );
         sstatus.setLogDate( trans.getLogDate() );
@@ -226,7 +227,7 @@ public class GetStatusServlet extends BaseHttpServlet implements HopServerPlugin
 
       for ( HopServerObjectEntry entry : jobEntries ) {
         Job job = getJobMap().getJob( entry );
-        String status = job.getStatus();
+        String status = getStatus( getJobMap().getScheduler(), entry, job.getStatus() );
         SlaveServerJobStatus jobStatus = new SlaveServerJobStatus( entry.getName(), entry.getId(), status );
         jobStatus.setLogDate( job.getLogDate() );
         serverStatus.getJobStatusList().add( jobStatus );
@@ -360,7 +361,7 @@ public class GetStatusServlet extends BaseHttpServlet implements HopServerPlugin
           String name = transEntries.get( i ).getName();
           String id = transEntries.get( i ).getId();
           Trans trans = getTransformationMap().getTransformation( transEntries.get( i ) );
-          String status = trans.getStatus();
+          String status = getStatus( getTransformationMap().getScheduler(), transEntries.get( i ), trans.getStatus() );
           String trClass = evenRow ? "cellTableEvenRow" : "cellTableOddRow"; // alternating row color
           String tdClass = evenRow ? "cellTableEvenRowCell" : "cellTableOddRowCell";
           evenRow = !evenRow; // flip
@@ -459,7 +460,7 @@ public class GetStatusServlet extends BaseHttpServlet implements HopServerPlugin
           String name = jobEntries.get( i ).getName();
           String id = jobEntries.get( i ).getId();
           Job job = getJobMap().getJob( jobEntries.get( i ) );
-          String status = job.getStatus();
+          String status = getStatus( getJobMap().getScheduler(), jobEntries.get( i ), job.getStatus() );
           String trClass = evenRow ? "cellTableEvenRow" : "cellTableOddRow"; // alternating row color
           String tdClass = evenRow ? "cellTableEvenRowCell" : "cellTableOddRowCell";
           evenRow = !evenRow; // flip
@@ -550,6 +551,33 @@ public class GetStatusServlet extends BaseHttpServlet implements HopServerPlugin
           + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableLastColumn\">" + maxObjAge
           + "</td> </tr>" );
 
+        // The limits on the number of running transformations and jobs
+        //
+        String maxTrans = serverConfig.getMaxConcurrentTransformations() <= 0
+          ? BaseMessages.getString( PKG, "GetStatusServlet.NoLimit" ) : "" + serverConfig.getMaxConcurrentTransformations();
+        String maxJobs = serverConfig.getMaxConcurrentJobs() <= 0
+          ? BaseMessages.getString( PKG, "GetStatusServlet.NoLimit" ) : "" + serverConfig.getMaxConcurrentJobs();
+        out.print( "<tr style=\"font-size: 12;\"> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableFirstColumn\">"
+          + BaseMessages.getString( PKG, "GetStatusServlet.Parameter.MaxConcurrentTransformations" )
+          + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableLastColumn\">" + maxTrans
+          + "</td> </tr>" );
+        out.print( "<tr style=\"font-size: 12;\"> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableFirstColumn\">"
+          + BaseMessages.getString( PKG, "GetStatusServlet.Parameter.MaxConcurrentJobs" )
+          + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableLastColumn\">" + maxJobs
+          + "</td> </tr>" );
+
+        // The transformations and jobs waiting to be started
+        //
+        HopServerScheduler scheduler = getTransformationMap().getScheduler();
+        if ( scheduler != null ) {
+          String queue = BaseMessages.getString( PKG, "GetStatusServlet.Queue.Value", scheduler.getQueueDepth(),
+            scheduler.getAverageWaitTime(), scheduler.getMaxWaitTime() );
+          out.print( "<tr style=\"font-size: 12;\"> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableFirstColumn\">"
+            + BaseMessages.getString( PKG, "GetStatusServlet.Parameter.Queue" )
+            + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell cellTableLastColumn\">" + queue
+            + "</td> </tr>" );
+        }
+
         out.print( "</table>" );
 
         String filename = serverConfig.getFilename();
@@ -878,6 +906,25 @@ public class GetStatusServlet extends BaseHttpServlet implements HopServerPlugin
     }
   }
 
+  /**
+   * @return the status of the transformation or job, Queued if it's waiting to be started
+   */
+  private static String getStatus( HopServerScheduler scheduler, HopServerObjectEntry entry, String status ) {
+    if ( scheduler != null && scheduler.isQueued( entry ) ) {
+      return HopServerScheduler.STRING_QUEUED;
+    }
+    return status;
+  }
+
+  private static void getQueueInfo( HopServerScheduler scheduler, SlaveServerStatus serverStatus ) {
+    if ( scheduler == null ) {
+      return;
+    }
+    serverStatus.setQueueDepth( scheduler.getQueueDepth() );
+    serverStatus.setAverageQueueWaitTime( scheduler.getAverageWaitTime() );
+    serverStatus.setMaxQueueWaitTime( scheduler.getMaxWaitTime() );
+  }
+
   private static void getSystemInfo( SlaveServerStatus serverStatus ) {
     OperatingSystemMXBean operatingSystemMXBean =
       java.lang.management.ManagementFactory.getOperatingSystemMXBean();
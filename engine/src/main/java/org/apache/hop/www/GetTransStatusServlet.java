@@ -114,6 +114,12 @@ public class GetTransStatusServlet extends BaseHttpServlet implements HopServerP
    * <td>Start line number of the execution log to be included into response.</td>
    * <td>integer, optional</td>
    * </tr>
+   * <tr>
+   * <td>log</td>
+   * <td>Boolean flag, <code>N</code> leaves the execution log out of the XML response. Use this to poll the status
+   * and metrics only and get the log incrementally from {@link GetLogServlet}.</td>
+   * <td>boolean, optional</td>
+   * </tr>
    * </tbody>
    * </table>
    *
@@ -216,6 +222,7 @@ public class GetTransStatusServlet extends BaseHttpServlet implements HopServerP
     String prefix = isJettyMode() ? StatusServletUtils.STATIC_PATH : root + StatusServletUtils.RESOURCES_PATH;
     boolean useXML = "Y".equalsIgnoreCase( request.getParameter( "xml" ) );
     int startLineNr = Const.toInt( request.getParameter( "from" ), 0 );
+    boolean includeLog = !"N".equalsIgnoreCase( request.getParameter( "log" ) );
 
     response.setStatus( HttpServletResponse.SC_OK );
 
@@ -257,7 +264,7 @@ public class GetTransStatusServlet extends BaseHttpServlet implements HopServerP
           String logId = trans.getLogChannelId();
           boolean finishedOrStopped = trans.isFinishedOrStopped();
           boolean sendResultXmlWithStatus = "Y".equalsIgnoreCase( request.getParameter( SEND_RESULT ) );
-          boolean dontUseCache = sendResultXmlWithStatus;
+          boolean dontUseCache = sendResultXmlWithStatus || !includeLog;
           if ( finishedOrStopped && ( data = cache.get( logId, startLineNr ) ) != null && !dontUseCache ) {
             response.setContentLength( XML_HEADER.length + data.length );
             out = response.getOutputStream();
@@ -265,9 +272,9 @@ public class GetTransStatusServlet extends BaseHttpServlet implements HopServerP
             out.write( data );
             out.flush();
           } else {
-            int lastLineNr = HopLogStore.getLastBufferLineNr();
-
-            String logText = getLogText( trans, startLineNr, lastLineNr );
+            // Without the log the cursor stays where the client is
+            //
+            int lastLineNr = includeLog ? HopLogStore.getLastBufferLineNr() : startLineNr;
 
             response.setContentType( "text/xml" );
             response.setCharacterEncoding( Const.XML_ENCODING );
@@ -289,9 +296,12 @@ public class GetTransStatusServlet extends BaseHttpServlet implements HopServerP
             // The log can be quite large at times, we are going to putIfAbsent a base64 encoding around a compressed
             // stream
             // of bytes to handle this one.
-            String loggingString = HttpUtil.encodeBase64ZippedString( logText );
-            transStatus.setLoggingString( loggingString );
-            //        transStatus.setLoggingUncompressedSize( logText.length() );
+            if ( includeLog ) {
+              String logText = getLogText( trans, startLineNr, lastLineNr );
+              String loggingString = HttpUtil.encodeBase64ZippedString( logText );
+              transStatus.setLoggingString( loggingString );
+              //        transStatus.setLoggingUncompressedSize( logText.length() );
+            }
 
             // Also set the result object...
             //
@@ -301,6 +311,10 @@ public class GetTransStatusServlet extends BaseHttpServlet implements HopServerP
             //
             transStatus.setPaused( trans.isPaused() );
 
+            // The end-to-end latencies in low latency streaming mode
+            //
+            transStatus.setEventLatencyHistogram( trans.getEventLatencyHistogram() );
+
             // Send the result back as XML
             //
             String xml = transStatus.getXML( sendResultXmlWithStatus );
@@ -83,6 +83,9 @@ public class HopServer {
     transformationMap.setSlaveServerConfig( config );
     final JobMap jobMap = HopServerSingleton.getInstance().getJobMap();
     jobMap.setSlaveServerConfig( config );
+    if ( transformationMap.getScheduler() != null ) {
+      transformationMap.getScheduler().setSlaveServerConfig( config );
+    }
     List<SlaveServerDetection> detections = new CopyOnWriteArrayList<SlaveServerDetection>();
     SocketRepository socketRepository = HopServerSingleton.getInstance().getSocketRepository();
 
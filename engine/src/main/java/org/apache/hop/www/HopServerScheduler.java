@@ -0,0 +1,431 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.logging.LogChannelInterface;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.job.Job;
+import org.apache.hop.job.JobAdapter;
+import org.apache.hop.trans.Trans;
+import org.apache.hop.trans.TransAdapter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Decides when the transformations and jobs started on this server actually run. At most the configured number of
+ * transformations and jobs run at the same time, see {@link SlaveServerConfig#getMaxConcurrentTransformations()} and
+ * {@link SlaveServerConfig#getMaxConcurrentJobs()}. Other executions wait in a queue, highest priority first and in
+ * order of arrival for the same priority. As long as something is running, nothing new is started while the free old
+ * generation heap after the last garbage collection is below {@link SlaveServerConfig#getMinFreeMemoryPercentage()}.
+ * Without limits configured everything starts right away.
+ * <p>
+ * Everything that starts a transformation or job on this server goes through {@link #submit}, see
+ * {@link #submitTransformation} and {@link #submitJob}.
+ */
+public class HopServerScheduler {
+  private static Class<?> PKG = HopServerScheduler.class; // for i18n purposes, needed by Translator2!!
+
+  public static final String STRING_QUEUED = "Queued";
+
+  public enum ExecutionType {
+    TRANSFORMATION, JOB
+  }
+
+  /**
+   * Starts a transformation or job and makes sure {@link HopServerScheduler#executionFinished(HopServerObjectEntry)}
+   * is called once it's done.
+   */
+  public interface ExecutionStarter {
+    void start() throws HopException;
+  }
+
+  public static class QueuedExecution {
+    private final HopServerObjectEntry entry;
+    private final ExecutionType type;
+    private final int priority;
+    private final long sequence;
+    private final long queuedTime;
+    private final ExecutionStarter starter;
+
+    QueuedExecution( HopServerObjectEntry entry, ExecutionType type, int priority, long sequence,
+                     ExecutionStarter starter ) {
+      this.entry = entry;
+      this.type = type;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.queuedTime = System.currentTimeMillis();
+      this.starter = starter;
+    }
+
+    public HopServerObjectEntry getEntry() {
+      return entry;
+    }
+
+    public ExecutionType getType() {
+      return type;
+    }
+
+    public int getPriority() {
+      return priority;
+    }
+
+    public long getQueuedTime() {
+      return queuedTime;
+    }
+
+    /**
+     * @return the number of milliseconds this execution is waiting
+     */
+    public long getWaitTime() {
+      return System.currentTimeMillis() - queuedTime;
+    }
+  }
+
+  private static final Comparator<QueuedExecution> QUEUE_ORDER = new Comparator<QueuedExecution>() {
+    @Override
+    public int compare( QueuedExecution o1, QueuedExecution o2 ) {
+      if ( o1.priority != o2.priority ) {
+        return o1.priority > o2.priority ? -1 : 1;
+      }
+      return Long.compare( o1.sequence, o2.sequence );
+    }
+  };
+
+  private final LogChannelInterface log;
+
+  private SlaveServerConfig slaveServerConfig;
+
+  private final TreeSet<QueuedExecution> queue;
+  private final Map<HopServerObjectEntry, ExecutionType> running;
+  private long sequence;
+
+  private long nrStarted;
+  private long nrRejected;
+  private long totalWaitTime;
+  private long maxWaitTime;
+
+  public HopServerScheduler( SlaveServerConfig slaveServerConfig ) {
+    this.slaveServerConfig = slaveServerConfig;
+    this.log = new LogChannel( "HopServer scheduler" );
+    this.queue = new TreeSet<>( QUEUE_ORDER );
+    this.running = new HashMap<>();
+  }
+
+  /**
+   * Start the given transformation or job now if the limits allow it, otherwise queue it.
+   *
+   * @param entry    the transformation or job to start
+   * @param type     transformation or job
+   * @param priority higher priorities are started first
+   * @param starter  starts the execution
+   * @return true if the execution was started, false if it was queued
+   * @throws HopException in case the queue is full or the execution failed to start
+   */
+  public boolean submit( HopServerObjectEntry entry, ExecutionType type, int priority, ExecutionStarter starter )
+    throws HopException {
+    QueuedExecution execution;
+    synchronized ( this ) {
+      if ( isQueued( entry ) ) {
+        return false;
+      }
+      // The queue bound only applies to executions that would have to wait
+      //
+      int maxQueued = slaveServerConfig == null ? 0 : slaveServerConfig.getMaxQueuedExecutions();
+      if ( maxQueued > 0 && queue.size() >= maxQueued && !canStart( type ) ) {
+        nrRejected++;
+        throw new HopException( BaseMessages.getString( PKG, "HopServerScheduler.Exception.QueueFull",
+          entry.getName(), maxQueued ) );
+      }
+      execution = new QueuedExecution( entry, type, priority, sequence++, starter );
+      queue.add( execution );
+    }
+
+    boolean started = false;
+    for ( QueuedExecution startable : takeStartableExecutions() ) {
+      if ( startable == execution ) {
+        started = true;
+      } else {
+        startQuietly( startable );
+      }
+    }
+    if ( started ) {
+      // Errors starting the submitted execution go back to the caller
+      //
+      start( execution );
+    } else if ( log.isBasic() ) {
+      log.logBasic( BaseMessages.getString( PKG, "HopServerScheduler.Log.Queued", entry.getName(), entry.getId(),
+        getQueueDepth() ) );
+    }
+    return started;
+  }
+
+  /**
+   * Submit a transformation, see {@link #submit}. The scheduler is told when it finishes.
+   *
+   * @param entry    the transformation to start
+   * @param trans    the transformation
+   * @param priority higher priorities are started first
+   * @param starter  starts the transformation
+   * @return true if the transformation was started, false if it was queued
+   * @throws HopException in case the queue is full or the transformation failed to start
+   */
+  public boolean submitTransformation( final HopServerObjectEntry entry, Trans trans, int priority,
+                                       final ExecutionStarter starter ) throws HopException {
+    return submit( entry, ExecutionType.TRANSFORMATION, priority, () -> {
+      trans.addTransListener( new TransAdapter() {
+        @Override
+        public void transFinished( Trans trans ) {
+          executionFinished( entry );
+        }
+      } );
+      starter.start();
+    } );
+  }
+
+  /**
+   * Submit a job, see {@link #submit}. The scheduler is told when it finishes.
+   *
+   * @param entry    the job to start
+   * @param job      the job
+   * @param priority higher priorities are started first
+   * @param starter  starts the job
+   * @return true if the job was started, false if it was queued
+   * @throws HopException in case the queue is full or the job failed to start
+   */
+  public boolean submitJob( final HopServerObjectEntry entry, Job job, int priority, final ExecutionStarter starter )
+    throws HopException {
+    return submit( entry, ExecutionType.JOB, priority, () -> {
+      job.addJobListener( new JobAdapter() {
+        @Override
+        public void jobFinished( Job job ) {
+          executionFinished( entry );
+        }
+      } );
+      starter.start();
+    } );
+  }
+
+  /**
+   * Signal that a transformation or job is done, so that the next queued executions can start.
+   *
+   * @param entry the transformation or job that finished
+   */
+  public void executionFinished( HopServerObjectEntry entry ) {
+    synchronized ( this ) {
+      if ( running.remove( entry ) == null ) {
+        return;
+      }
+    }
+    for ( QueuedExecution startable : takeStartableExecutions() ) {
+      startQuietly( startable );
+    }
+  }
+
+  /**
+   * Remove a transformation or job from the queue before it started.
+   *
+   * @param entry the transformation or job
+   * @return true if it was queued
+   */
+  public synchronized boolean cancel( HopServerObjectEntry entry ) {
+    Iterator<QueuedExecution> iterator = queue.iterator();
+    while ( iterator.hasNext() ) {
+      if ( iterator.next().entry.equals( entry ) ) {
+        iterator.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public synchronized boolean isQueued( HopServerObjectEntry entry ) {
+    for ( QueuedExecution execution : queue ) {
+      if ( execution.entry.equals( entry ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private synchronized List<QueuedExecution> takeStartableExecutions() {
+    List<QueuedExecution> startable = new ArrayList<>();
+    Iterator<QueuedExecution> iterator = queue.iterator();
+    while ( iterator.hasNext() ) {
+      QueuedExecution execution = iterator.next();
+      if ( !hasCapacity( execution.type ) ) {
+        continue;
+      }
+      // Always allow one execution to run, otherwise the queue would never drain
+      //
+      if ( !running.isEmpty() && !hasEnoughMemory() ) {
+        break;
+      }
+      iterator.remove();
+      running.put( execution.entry, execution.type );
+
+      long waitTime = execution.getWaitTime();
+      nrStarted++;
+      totalWaitTime += waitTime;
+      maxWaitTime = Math.max( maxWaitTime, waitTime );
+      startable.add( execution );
+    }
+    return startable;
+  }
+
+  /**
+   * @return true if an execution of this type would be started right away
+   */
+  private boolean canStart( ExecutionType type ) {
+    return hasCapacity( type ) && ( running.isEmpty() || hasEnoughMemory() );
+  }
+
+  private boolean hasCapacity( ExecutionType type ) {
+    if ( slaveServerConfig == null ) {
+      return true;
+    }
+    int max = type == ExecutionType.TRANSFORMATION
+      ? slaveServerConfig.getMaxConcurrentTransformations() : slaveServerConfig.getMaxConcurrentJobs();
+    return max <= 0 || getNrRunning( type ) < max;
+  }
+
+  private boolean hasEnoughMemory() {
+    int minFree = slaveServerConfig == null ? 0 : slaveServerConfig.getMinFreeMemoryPercentage();
+    return minFree <= 0 || getFreeMemoryPercentage() >= minFree;
+  }
+
+  /**
+   * The used heap includes garbage that wasn't collected yet, so it would refuse executions on a healthy heap. What is
+   * left in the old generation after the last collection is what the running executions really hold on to.
+   *
+   * @return the percentage of the old generation heap that was free after the last garbage collection, 100 if the JVM
+   * doesn't report it
+   */
+  protected int getFreeMemoryPercentage() {
+    for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+      // The young generation pools don't support a usage threshold
+      //
+      if ( pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported()
+        || !pool.isCollectionUsageThresholdSupported() ) {
+        continue;
+      }
+      MemoryUsage afterCollection = pool.getCollectionUsage();
+      long max = pool.getUsage().getMax();
+      if ( afterCollection == null || max <= 0 ) {
+        continue;
+      }
+      return (int) ( ( max - afterCollection.getUsed() ) * 100 / max );
+    }
+    return 100;
+  }
+
+  private void start( QueuedExecution execution ) throws HopException {
+    try {
+      execution.starter.start();
+    } catch ( HopException | RuntimeException e ) {
+      executionFinished( execution.entry );
+      throw e;
+    }
+  }
+
+  private void startQuietly( QueuedExecution execution ) {
+    try {
+      start( execution );
+      if ( log.isBasic() ) {
+        log.logBasic( BaseMessages.getString( PKG, "HopServerScheduler.Log.StartedFromQueue",
+          execution.entry.getName(), execution.entry.getId(), execution.getWaitTime() ) );
+      }
+    } catch ( Exception e ) {
+      log.logError( BaseMessages.getString( PKG, "HopServerScheduler.Error.UnableToStart",
+        execution.entry.getName(), execution.entry.getId() ), e );
+    }
+  }
+
+  /**
+   * @return the queued executions, in the order in which they will be started
+   */
+  public synchronized List<QueuedExecution> getQueuedExecutions() {
+    return new ArrayList<>( queue );
+  }
+
+  public synchronized int getQueueDepth() {
+    return queue.size();
+  }
+
+  public synchronized int getNrRunning( ExecutionType type ) {
+    int nr = 0;
+    for ( ExecutionType runningType : running.values() ) {
+      if ( runningType == type ) {
+        nr++;
+      }
+    }
+    return nr;
+  }
+
+  /**
+   * @return the number of executions started so far, right away or from the queue
+   */
+  public synchronized long getNrStarted() {
+    return nrStarted;
+  }
+
+  /**
+   * @return the number of executions refused because the queue was full
+   */
+  public synchronized long getNrRejected() {
+    return nrRejected;
+  }
+
+  /**
+   * @return the average number of milliseconds the started executions waited in the queue
+   */
+  public synchronized long getAverageWaitTime() {
+    return nrStarted == 0 ? 0L : totalWaitTime / nrStarted;
+  }
+
+  /**
+   * @return the longest number of milliseconds a started execution waited in the queue
+   */
+  public synchronized long getMaxWaitTime() {
+    return maxWaitTime;
+  }
+
+  public synchronized SlaveServerConfig getSlaveServerConfig() {
+    return slaveServerConfig;
+  }
+
+  public synchronized void setSlaveServerConfig( SlaveServerConfig slaveServerConfig ) {
+    this.slaveServerConfig = slaveServerConfig;
+  }
+}
@@ -70,6 +70,9 @@ public class HopServerSingleton {
     transformationMap.setSlaveServerConfig( config );
     jobMap = new JobMap();
     jobMap.setSlaveServerConfig( config );
+    HopServerScheduler scheduler = new HopServerScheduler( config );
+    transformationMap.setScheduler( scheduler );
+    jobMap.setScheduler( scheduler );
     detections = new ArrayList<SlaveServerDetection>();
     socketRepository = new SocketRepository( log );
 
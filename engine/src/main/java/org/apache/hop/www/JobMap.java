@@ -44,6 +44,8 @@ public class JobMap {
 
   private SlaveServerConfig slaveServerConfig;
 
+  private HopServerScheduler scheduler;
+
   public JobMap() {
     jobMap = new HashMap<>();
     configurationMap = new HashMap<>();
@@ -108,6 +110,9 @@ public class JobMap {
   }
 
   public synchronized void removeJob( HopServerObjectEntry entry ) {
+    if ( scheduler != null ) {
+      scheduler.cancel( entry );
+    }
     jobMap.remove( entry );
     configurationMap.remove( entry );
   }
@@ -139,6 +144,20 @@ public class JobMap {
     this.slaveServerConfig = slaveServerConfig;
   }
 
+  /**
+   * @return the scheduler deciding when the transformations and jobs of this server start, null to start right away
+   */
+  public HopServerScheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * @param scheduler the scheduler deciding when the transformations and jobs of this server start
+   */
+  public void setScheduler( HopServerScheduler scheduler ) {
+    this.scheduler = scheduler;
+  }
+
   /**
    * Find a job using the container/carte object ID.
    *
@@ -61,7 +61,9 @@ public class PrepareExecutionTransServlet extends BaseHttpServlet implements Hop
    * <a name="GET"></a>
    * <h2>GET</h2>
    * <p>Prepares previously loaded transformation for execution.
-   * Method is used for preparing previously uploaded transformation for execution by its name.</p>
+   * Method is used for preparing previously uploaded transformation for execution by its name.
+   * Preparing is never queued, even when this server limits the number of running transformations: the limits are
+   * applied when the prepared transformation is started with <code>/hop/startExec</code>.</p>
    *
    * <p><b>Example Request:</b><br />
    * <pre function="syntax.xml">
@@ -77,6 +77,14 @@ public class SlaveServerConfig {
 
   private int objectTimeoutMinutes;
 
+  private int maxConcurrentTransformations;
+
+  private int maxConcurrentJobs;
+
+  private int maxQueuedExecutions;
+
+  private int minFreeMemoryPercentage;
+
   private String filename;
 
   private List<DatabaseMeta> databases;
@@ -150,6 +158,10 @@ public class SlaveServerConfig {
     XMLHandler.addTagValue( "max_log_lines", maxLogLines );
     XMLHandler.addTagValue( "max_log_timeout_minutes", maxLogTimeoutMinutes );
     XMLHandler.addTagValue( "object_timeout_minutes", objectTimeoutMinutes );
+    xml.append( XMLHandler.addTagValue( "max_concurrent_transformations", maxConcurrentTransformations ) );
+    xml.append( XMLHandler.addTagValue( "max_concurrent_jobs", maxConcurrentJobs ) );
+    xml.append( XMLHandler.addTagValue( "max_queued_executions", maxQueuedExecutions ) );
+    xml.append( XMLHandler.addTagValue( "min_free_memory_percentage", minFreeMemoryPercentage ) );
 
     xml.append( XMLHandler.openTag( XML_TAG_SEQUENCES ) );
     for ( SlaveSequence slaveSequence : slaveSequences ) {
@@ -195,6 +207,10 @@ public class SlaveServerConfig {
     maxLogLines = Const.toInt( XMLHandler.getTagValue( node, "max_log_lines" ), 0 );
     maxLogTimeoutMinutes = Const.toInt( XMLHandler.getTagValue( node, "max_log_timeout_minutes" ), 0 );
     objectTimeoutMinutes = Const.toInt( XMLHandler.getTagValue( node, "object_timeout_minutes" ), 0 );
+    maxConcurrentTransformations = Const.toInt( XMLHandler.getTagValue( node, "max_concurrent_transformations" ), 0 );
+    maxConcurrentJobs = Const.toInt( XMLHandler.getTagValue( node, "max_concurrent_jobs" ), 0 );
+    maxQueuedExecutions = Const.toInt( XMLHandler.getTagValue( node, "max_queued_executions" ), 0 );
+    minFreeMemoryPercentage = Const.toInt( XMLHandler.getTagValue( node, "min_free_memory_percentage" ), 0 );
 
     // Read sequence information
     //
@@ -444,6 +460,65 @@ public class SlaveServerConfig {
     this.objectTimeoutMinutes = objectTimeoutMinutes;
   }
 
+  /**
+   * @return the maximum number of transformations running at the same time, 0 means no limit
+   */
+  public int getMaxConcurrentTransformations() {
+    return maxConcurrentTransformations;
+  }
+
+  /**
+   * @param maxConcurrentTransformations the maximum number of transformations running at the same time, 0 means no
+   *                                     limit
+   */
+  public void setMaxConcurrentTransformations( int maxConcurrentTransformations ) {
+    this.maxConcurrentTransformations = maxConcurrentTransformations;
+  }
+
+  /**
+   * @return the maximum number of jobs running at the same time, 0 means no limit
+   */
+  public int getMaxConcurrentJobs() {
+    return maxConcurrentJobs;
+  }
+
+  /**
+   * @param maxConcurrentJobs the maximum number of jobs running at the same time, 0 means no limit
+   */
+  public void setMaxConcurrentJobs( int maxConcurrentJobs ) {
+    this.maxConcurrentJobs = maxConcurrentJobs;
+  }
+
+  /**
+   * @return the maximum number of transformations and jobs waiting to be started, 0 means no limit
+   */
+  public int getMaxQueuedExecutions() {
+    return maxQueuedExecutions;
+  }
+
+  /**
+   * @param maxQueuedExecutions the maximum number of transformations and jobs waiting to be started, 0 means no limit
+   */
+  public void setMaxQueuedExecutions( int maxQueuedExecutions ) {
+    this.maxQueuedExecutions = maxQueuedExecutions;
+  }
+
+  /**
+   * @return the percentage of the old generation heap that needs to be free after garbage collection to start another
+   * transformation or job, 0 to disable
+   */
+  public int getMinFreeMemoryPercentage() {
+    return minFreeMemoryPercentage;
+  }
+
+  /**
+   * @param minFreeMemoryPercentage the percentage of the old generation heap that needs to be free after garbage
+   *                                collection to start another transformation or job, 0 to disable
+   */
+  public void setMinFreeMemoryPercentage( int minFreeMemoryPercentage ) {
+    this.minFreeMemoryPercentage = minFreeMemoryPercentage;
+  }
+
   /**
    * @return the filename
    */
@@ -59,6 +59,12 @@ public class SlaveServerStatus {
 
   private String osArchitecture;
 
+  private int queueDepth;
+
+  private long averageQueueWaitTime;
+
+  private long maxQueueWaitTime;
+
   public SlaveServerStatus() {
     transStatusList = new ArrayList<SlaveServerTransStatus>();
     jobStatusList = new ArrayList<SlaveServerJobStatus>();
@@ -102,6 +108,10 @@ public class SlaveServerStatus {
     xml.append( XMLHandler.addTagValue( "os_version", osVersion ) );
     xml.append( XMLHandler.addTagValue( "os_arch", osArchitecture ) );
 
+    xml.append( XMLHandler.addTagValue( "queue_depth", queueDepth ) );
+    xml.append( XMLHandler.addTagValue( "queue_average_wait_time", averageQueueWaitTime ) );
+    xml.append( XMLHandler.addTagValue( "queue_max_wait_time", maxQueueWaitTime ) );
+
     xml.append( "  <transstatuslist>" ).append( Const.CR );
     for ( int i = 0; i < transStatusList.size(); i++ ) {
       SlaveServerTransStatus transStatus = transStatusList.get( i );
@@ -141,6 +151,10 @@ public class SlaveServerStatus {
     osVersion = XMLHandler.getTagValue( statusNode, "os_version" );
     osArchitecture = XMLHandler.getTagValue( statusNode, "os_arch" );
 
+    queueDepth = Const.toInt( XMLHandler.getTagValue( statusNode, "queue_depth" ), 0 );
+    averageQueueWaitTime = Const.toLong( XMLHandler.getTagValue( statusNode, "queue_average_wait_time" ), 0L );
+    maxQueueWaitTime = Const.toLong( XMLHandler.getTagValue( statusNode, "queue_max_wait_time" ), 0L );
+
     Node listTransNode = XMLHandler.getSubNode( statusNode, "transstatuslist" );
     Node listJobsNode = XMLHandler.getSubNode( statusNode, "jobstatuslist" );
 
@@ -344,4 +358,37 @@ public class SlaveServerStatus {
   public String getOsArchitecture() {
     return osArchitecture;
   }
+
+  /**
+   * @return the number of transformations and jobs waiting to be started
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public void setQueueDepth( int queueDepth ) {
+    this.queueDepth = queueDepth;
+  }
+
+  /**
+   * @return the average number of milliseconds transformations and jobs waited before they were started
+   */
+  public long getAverageQueueWaitTime() {
+    return averageQueueWaitTime;
+  }
+
+  public void setAverageQueueWaitTime( long averageQueueWaitTime ) {
+    this.averageQueueWaitTime = averageQueueWaitTime;
+  }
+
+  /**
+   * @return the longest number of milliseconds a transformation or job waited before it was started
+   */
+  public long getMaxQueueWaitTime() {
+    return maxQueueWaitTime;
+  }
+
+  public void setMaxQueueWaitTime( long maxQueueWaitTime ) {
+    this.maxQueueWaitTime = maxQueueWaitTime;
+  }
 }
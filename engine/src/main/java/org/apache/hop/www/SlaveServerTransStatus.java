@@ -26,6 +26,7 @@ import org.apache.hop.cluster.HttpUtil;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.xml.XMLHandler;
@@ -65,6 +66,8 @@ public class SlaveServerTransStatus {
 
   private boolean paused;
 
+  private LatencyHistogram eventLatencyHistogram;
+
   public SlaveServerTransStatus() {
     stepStatusList = new ArrayList<StepStatus>();
   }
@@ -107,6 +110,12 @@ public class SlaveServerTransStatus {
     xml.append( "  " ).append( XMLHandler.addTagValue( "first_log_line_nr", firstLoggingLineNr ) );
     xml.append( "  " ).append( XMLHandler.addTagValue( "last_log_line_nr", lastLoggingLineNr ) );
 
+    if ( eventLatencyHistogram != null ) {
+      xml.append( "  " ).append( XMLHandler.openTag( "event_latency" ) ).append( Const.CR );
+      xml.append( eventLatencyHistogram.getXML() );
+      xml.append( "  " ).append( XMLHandler.closeTag( "event_latency" ) ).append( Const.CR );
+    }
+
     if ( result != null ) {
       String resultXML = sendResultXmlWithStatus ? result.getXML() : result.getBasicXml();
       xml.append( resultXML );
@@ -139,6 +148,11 @@ public class SlaveServerTransStatus {
     firstLoggingLineNr = Const.toInt( XMLHandler.getTagValue( transStatusNode, "first_log_line_nr" ), 0 );
     lastLoggingLineNr = Const.toInt( XMLHandler.getTagValue( transStatusNode, "last_log_line_nr" ), 0 );
 
+    Node eventLatencyNode = XMLHandler.getSubNode( transStatusNode, "event_latency" );
+    if ( eventLatencyNode != null ) {
+      eventLatencyHistogram = new LatencyHistogram( XMLHandler.getSubNode( eventLatencyNode, LatencyHistogram.XML_TAG ) );
+    }
+
     String loggingString64 = XMLHandler.getTagValue( transStatusNode, "logging_string" );
 
     if ( !Utils.isEmpty( loggingString64 ) ) {
@@ -342,6 +356,20 @@ public class SlaveServerTransStatus {
     this.paused = paused;
   }
 
+  /**
+   * @return the end-to-end latencies of the rows of a transformation in low latency streaming mode, null otherwise
+   */
+  public LatencyHistogram getEventLatencyHistogram() {
+    return eventLatencyHistogram;
+  }
+
+  /**
+   * @param eventLatencyHistogram the end-to-end latencies of the rows to set
+   */
+  public void setEventLatencyHistogram( LatencyHistogram eventLatencyHistogram ) {
+    this.eventLatencyHistogram = eventLatencyHistogram;
+  }
+
   /**
    * @return the lastLoggingLineNr
    */
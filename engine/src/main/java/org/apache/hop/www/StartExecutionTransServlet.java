@@ -56,7 +56,9 @@ public class StartExecutionTransServlet extends BaseHttpServlet implements HopSe
    * <h1>/hop/startExec</h1>
    * <a name="GET"></a>
    * <h2>GET</h2>
-   * <p>Starts transformation. If the transformation is not ready, an error is returned.</p>
+   * <p>Starts transformation. If the transformation is not ready, an error is returned. When this server limits the
+   * number of running transformations the prepared transformation can be queued, it then starts as soon as the server
+   * has room for it. Note that the transformation was already prepared, so it holds on to its memory while it waits.</p>
    *
    * <p><b>Example Request:</b><br />
    * <pre function="syntax.xml">
@@ -193,11 +195,12 @@ public class StartExecutionTransServlet extends BaseHttpServlet implements HopSe
 
       if ( trans != null ) {
         if ( trans.isReadyToStart() ) {
-          startThreads( trans );
+          boolean started = startExecution( entry, trans );
 
           if ( useXML ) {
-            out.println( WebResult.OK.getXML() );
-          } else {
+            out.println( started ? WebResult.OK.getXML() : new WebResult( WebResult.STRING_OK,
+              BaseMessages.getString( PKG, "StartTransServlet.Log.TransQueued", transName ) ).getXML() );
+          } else if ( started ) {
             out
               .println( "<H1>Transformation "
                 + Encode.forHtml( "\'" + transName + "\'" ) + " has been executed.</H1>" );
@@ -205,6 +208,14 @@ public class StartExecutionTransServlet extends BaseHttpServlet implements HopSe
               + convertContextPath( GetTransStatusServlet.CONTEXT_PATH ) + "?name="
               + URLEncoder.encode( transName, "UTF-8" ) + "&id=" + URLEncoder.encode( id, "UTF-8" )
               + "\">Back to the transformation status page</a><p>" );
+          } else {
+            out.println( "<H1>"
+              + Encode.forHtml( BaseMessages.getString( PKG, "StartTransServlet.Log.TransQueued", transName ) )
+              + "</H1>" );
+            out.println( "<a href=\""
+              + convertContextPath( GetTransStatusServlet.CONTEXT_PATH ) + "?name="
+              + URLEncoder.encode( transName, "UTF-8" ) + "&id=" + URLEncoder.encode( id, "UTF-8" )
+              + "\">Back to the transformation status page</a><p>" );
           }
         } else {
           String message =
@@ -260,6 +271,21 @@ public class StartExecutionTransServlet extends BaseHttpServlet implements HopSe
     return CONTEXT_PATH + " (" + toString() + ")";
   }
 
+  /**
+   * Start the threads of the prepared transformation now or, when this server limits the number of running
+   * transformations, as soon as the scheduler allows it.
+   *
+   * @return true if the transformation was started, false if it was queued
+   */
+  private boolean startExecution( final HopServerObjectEntry entry, final Trans trans ) throws HopException {
+    final HopServerScheduler scheduler = getTransformationMap().getScheduler();
+    if ( scheduler == null ) {
+      startThreads( trans );
+      return true;
+    }
+    return scheduler.submitTransformation( entry, trans, 0, () -> startThreads( trans ) );
+  }
+
   protected void startThreads( Trans trans ) throws HopException {
     trans.startThreads();
   }
@@ -100,6 +100,12 @@ public class StartJobServlet extends BaseHttpServlet implements HopServerPluginI
    * <td>HopServer job ID of the job to be executed. This parameter is optional when xml=Y is used.</td>
    * <td>query, optional</td>
    * </tr>
+   * <tr>
+   * <td>priority</td>
+   * <td>When this server limits the number of running jobs, queued jobs with a higher priority are
+   * started first. The default priority is 0.</td>
+   * <td>integer, optional</td>
+   * </tr>
    * </tbody>
    * </table>
    *
@@ -238,9 +244,11 @@ public class StartJobServlet extends BaseHttpServlet implements HopServerPluginI
           }
         }
 
-        runJob( job );
+        boolean started = startJob( entry, job, Const.toInt( request.getParameter( "priority" ), 0 ) );
 
-        String message = BaseMessages.getString( PKG, "StartJobServlet.Log.JobStarted", jobName );
+        String message = started
+          ? BaseMessages.getString( PKG, "StartJobServlet.Log.JobStarted", jobName )
+          : BaseMessages.getString( PKG, "StartJobServlet.Log.JobQueued", jobName );
         if ( useXML ) {
           out.println( new WebResult( WebResult.STRING_OK, message, id ).getXML() );
         } else {
@@ -291,6 +299,20 @@ public class StartJobServlet extends BaseHttpServlet implements HopServerPluginI
     return CONTEXT_PATH + " (" + toString() + ")";
   }
 
+  /**
+   * Run the job now or, when this server limits the number of running jobs, as soon as the scheduler allows it.
+   *
+   * @return true if the job was started, false if it was queued
+   */
+  private boolean startJob( final HopServerObjectEntry entry, final Job job, int priority ) throws HopException {
+    final HopServerScheduler scheduler = getJobMap().getScheduler();
+    if ( scheduler == null ) {
+      runJob( job );
+      return true;
+    }
+    return scheduler.submitJob( entry, job, priority, () -> runJob( job ) );
+  }
+
   protected void runJob( Job job ) throws HopException {
     job.start(); // runs the thread in the background...
   }
@@ -99,6 +99,12 @@ public class StartTransServlet extends BaseHttpServlet implements HopServerPlugi
    * <td>HopServer transformation ID of the transformation to be executed. This parameter is optional when xml=Y is used.</td>
    * <td>query, optional</td>
    * </tr>
+   * <tr>
+   * <td>priority</td>
+   * <td>When this server limits the number of running transformations, queued transformations with a higher priority are
+   * started first. The default priority is 0.</td>
+   * <td>integer, optional</td>
+   * </tr>
    * </tbody>
    * </table>
    *
@@ -222,9 +228,11 @@ public class StartTransServlet extends BaseHttpServlet implements HopServerPlugi
         servletLoggingObject.setLogLevel( trans.getLogLevel() );
         trans.setParent( servletLoggingObject );
 
-        executeTrans( trans );
+        boolean started = startTrans( entry, trans, Const.toInt( request.getParameter( "priority" ), 0 ) );
 
-        String message = BaseMessages.getString( PKG, "StartTransServlet.Log.TransStarted", transName );
+        String message = started
+          ? BaseMessages.getString( PKG, "StartTransServlet.Log.TransStarted", transName )
+          : BaseMessages.getString( PKG, "StartTransServlet.Log.TransQueued", transName );
         if ( useXML ) {
           out.println( new WebResult( WebResult.STRING_OK, message ).getXML() );
         } else {
@@ -275,6 +283,21 @@ public class StartTransServlet extends BaseHttpServlet implements HopServerPlugi
     return CONTEXT_PATH + " (" + toString() + ")";
   }
 
+  /**
+   * Execute the transformation now or, when this server limits the number of running transformations, as soon as the
+   * scheduler allows it.
+   *
+   * @return true if the transformation was started, false if it was queued
+   */
+  private boolean startTrans( final HopServerObjectEntry entry, final Trans trans, int priority ) throws HopException {
+    final HopServerScheduler scheduler = getTransformationMap().getScheduler();
+    if ( scheduler == null ) {
+      executeTrans( trans );
+      return true;
+    }
+    return scheduler.submitTransformation( entry, trans, priority, () -> executeTrans( trans ) );
+  }
+
   protected void executeTrans( Trans trans ) throws HopException {
     trans.execute( null );
   }
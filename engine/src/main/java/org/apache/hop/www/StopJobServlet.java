@@ -190,6 +190,11 @@ public class StopJobServlet extends BaseHttpServlet implements HopServerPluginIn
       }
 
       if ( job != null ) {
+        // A job that is still waiting to be started simply leaves the queue
+        //
+        if ( getJobMap().getScheduler() != null ) {
+          getJobMap().getScheduler().cancel( entry );
+        }
         job.stopAll();
 
         String message = BaseMessages.getString( PKG, "JobStatusServlet.Log.JobStopRequested", jobName );
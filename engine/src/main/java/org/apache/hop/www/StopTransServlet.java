@@ -196,6 +196,11 @@ public class StopTransServlet extends BaseHttpServlet implements HopServerPlugin
       }
 
       if ( trans != null ) {
+        // A transformation that is still waiting to be started simply leaves the queue
+        //
+        if ( getTransformationMap().getScheduler() != null ) {
+          getTransformationMap().getScheduler().cancel( entry );
+        }
         if ( inputOnly ) {
           trans.safeStop();
         } else {
@@ -49,6 +49,8 @@ public class TransformationMap {
 
   private SlaveServerConfig slaveServerConfig;
 
+  private HopServerScheduler scheduler;
+
   public TransformationMap() {
     transMap = new ConcurrentHashMap<>();
     hostServerSocketPortsMap = new ConcurrentHashMap<>();
@@ -122,6 +124,9 @@ public class TransformationMap {
    * @param entry the HopServer object entry
    */
   public void removeTransformation( HopServerObjectEntry entry ) {
+    if ( scheduler != null ) {
+      scheduler.cancel( entry );
+    }
     transMap.remove( entry );
   }
 
@@ -129,6 +134,20 @@ public class TransformationMap {
     return new ArrayList<>( transMap.keySet() );
   }
 
+  /**
+   * @return the scheduler deciding when the transformations and jobs of this server start, null to start right away
+   */
+  public HopServerScheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * @param scheduler the scheduler deciding when the transformations and jobs of this server start
+   */
+  public void setScheduler( HopServerScheduler scheduler ) {
+    this.scheduler = scheduler;
+  }
+
 
   /**
    * This is the meat of the whole problem. We'll allocate a port for a given slave, transformation and step copy,
@@ -228,6 +228,9 @@ public class WebServer {
       ServletContextHandler servletContext =
         new ServletContextHandler( contexts, getContextPath( servlet ), ServletContextHandler.SESSIONS );
       ServletHolder servletHolder = new ServletHolder( (Servlet) servlet );
+      // Lets servlets like GetLogServlet wait without holding on to a server thread
+      //
+      servletHolder.setAsyncSupported( true );
       servletContext.addServlet( servletHolder, "/*" );
     }
 
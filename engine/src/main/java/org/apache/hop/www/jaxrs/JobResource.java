@@ -32,6 +32,7 @@ import org.apache.hop.job.JobConfiguration;
 import org.apache.hop.job.JobExecutionConfiguration;
 import org.apache.hop.job.JobMeta;
 import org.apache.hop.www.HopServerObjectEntry;
+import org.apache.hop.www.HopServerScheduler;
 import org.apache.hop.www.HopServerSingleton;
 
 import javax.ws.rs.GET;
@@ -117,7 +118,20 @@ public class JobResource {
         job = newJob;
       }
     }
-    job.start();
+
+    // Respect the limits of the server like the start servlet does
+    //
+    HopServerScheduler scheduler = HopServerSingleton.getInstance().getJobMap().getScheduler();
+    if ( scheduler == null ) {
+      job.start();
+    } else {
+      final Job startJob = job;
+      try {
+        scheduler.submitJob( entry, startJob, 0, () -> startJob.start() );
+      } catch ( HopException e ) {
+        e.printStackTrace();
+      }
+    }
 
     return getJobStatus( id );
   }
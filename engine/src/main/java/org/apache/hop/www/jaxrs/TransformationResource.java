@@ -35,6 +35,7 @@ import org.apache.hop.trans.step.BaseStepData.StepExecutionStatus;
 import org.apache.hop.trans.step.StepInterface;
 import org.apache.hop.trans.step.StepStatus;
 import org.apache.hop.www.HopServerObjectEntry;
+import org.apache.hop.www.HopServerScheduler;
 import org.apache.hop.www.HopServerSingleton;
 
 import javax.ws.rs.GET;
@@ -112,7 +113,16 @@ public class TransformationResource {
       servletLoggingObject.setContainerObjectId( carteObjectId );
       servletLoggingObject.setLogLevel( trans.getLogLevel() );
       trans.setParent( servletLoggingObject );
-      trans.execute( null );
+
+      // Respect the limits of the server like the start servlet does
+      //
+      HopServerScheduler scheduler = HopServerSingleton.getInstance().getTransformationMap().getScheduler();
+      if ( scheduler == null ) {
+        trans.execute( null );
+      } else {
+        scheduler.submitTransformation( HopServerResource.getCarteObjectEntry( id ), trans, 0,
+          () -> trans.execute( null ) );
+      }
     } catch ( HopException e ) {
       e.printStackTrace();
     }
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.util;
+
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaSerializable;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SerializedKeyIndexTest {
+
+  private static RowMetaInterface keyMeta( ValueMetaInterface... valueMetas ) {
+    RowMetaInterface keyMeta = new RowMeta();
+    for ( ValueMetaInterface valueMeta : valueMetas ) {
+      keyMeta.addValueMeta( valueMeta );
+    }
+    return keyMeta;
+  }
+
+  @Test
+  public void testAddAndFind() throws Exception {
+    SerializedKeyIndex index = new SerializedKeyIndex(
+      keyMeta( new ValueMetaString( "name" ), new ValueMetaInteger( "nr" ), new ValueMetaDate( "date" ) ), 0 );
+
+    Date date = new Date( 1234567890L );
+    assertEquals( 0, index.add( new Object[] { "a", 1L, date } ) );
+    assertEquals( 1, index.add( new Object[] { "a", 2L, date } ) );
+    assertEquals( 2, index.add( new Object[] { null, null, null } ) );
+    assertEquals( 0, index.add( new Object[] { "a", 1L, new Date( 1234567890L ) } ) );
+    assertEquals( 3, index.size() );
+
+    assertEquals( 1, index.find( new Object[] { "a", 2L, date } ) );
+    assertEquals( 2, index.find( new Object[] { null, null, null } ) );
+    assertEquals( SerializedKeyIndex.NOT_FOUND, index.find( new Object[] { "a", null, date } ) );
+    assertEquals( SerializedKeyIndex.NOT_FOUND, index.find( new Object[] { "b", 1L, date } ) );
+  }
+
+  @Test
+  public void testBigNumberScale() throws Exception {
+    SerializedKeyIndex index = new SerializedKeyIndex( keyMeta( new ValueMetaBigNumber( "amount" ) ), 0 );
+
+    int entry = index.add( new Object[] { new BigDecimal( "1.50" ) } );
+    int zero = index.add( new Object[] { new BigDecimal( "0.00" ) } );
+    assertEquals( entry, index.find( new Object[] { new BigDecimal( "1.5" ) } ) );
+    assertEquals( zero, index.find( new Object[] { BigDecimal.ZERO } ) );
+  }
+
+  @Test
+  public void testGrowth() throws Exception {
+    SerializedKeyIndex index =
+      new SerializedKeyIndex( keyMeta( new ValueMetaString( "name" ), new ValueMetaInteger( "nr" ) ), 10 );
+
+    int count = 200000;
+    for ( int i = 0; i < count; i++ ) {
+      assertEquals( i, index.add( new Object[] { "key" + ( i % 1000 ), (long) i } ) );
+    }
+    assertEquals( count, index.size() );
+    for ( int i = 0; i < count; i++ ) {
+      assertEquals( i, index.find( new Object[] { "key" + ( i % 1000 ), (long) i } ) );
+    }
+    assertEquals( SerializedKeyIndex.NOT_FOUND, index.find( new Object[] { "key1", 0L } ) );
+  }
+
+  @Test
+  public void testCanIndex() {
+    assertTrue( SerializedKeyIndex.canIndex(
+      keyMeta( new ValueMetaString( "name" ), new ValueMetaInteger( "nr" ), new ValueMetaBigNumber( "amount" ) ) ) );
+
+    ValueMetaString caseInsensitive = new ValueMetaString( "name" );
+    caseInsensitive.setCaseInsensitive( true );
+    assertFalse( SerializedKeyIndex.canIndex( keyMeta( new ValueMetaInteger( "nr" ), caseInsensitive ) ) );
+
+    ValueMetaString ignoreWhitespace = new ValueMetaString( "name" );
+    ignoreWhitespace.setIgnoreWhitespace( true );
+    assertFalse( SerializedKeyIndex.canIndex( keyMeta( ignoreWhitespace ) ) );
+
+    assertFalse( SerializedKeyIndex.canIndex( keyMeta( new ValueMetaSerializable( "object" ) ) ) );
+  }
+}
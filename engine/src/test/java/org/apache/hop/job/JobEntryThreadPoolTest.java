@@ -0,0 +1,104 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.job;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JobEntryThreadPoolTest {
+
+  @Test
+  public void testMaxParallelEntriesOfAJob() throws Exception {
+    JobEntryThreadPool pool = new JobEntryThreadPool( 2 );
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+
+    List<FutureTask<Integer>> tasks = new ArrayList<>();
+    for ( int i = 0; i < 10; i++ ) {
+      final int nr = i;
+      tasks.add( pool.launch( () -> {
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet( now, Math::max );
+        Thread.sleep( 5 );
+        running.decrementAndGet();
+        return nr;
+      } ) );
+    }
+    for ( int i = 0; i < tasks.size(); i++ ) {
+      assertEquals( Integer.valueOf( i ), pool.join( tasks.get( i ) ) );
+    }
+    assertTrue( "Only the 2 threads of the job and the joining thread should run branches",
+      maxRunning.get() <= 3 );
+  }
+
+  @Test
+  public void testBranchesStartRightAwayWithoutLimit() throws Exception {
+    JobEntryThreadPool pool = new JobEntryThreadPool( JobEntryThreadPool.DEFAULT_JOB_MAX_PARALLEL_ENTRIES );
+    final CountDownLatch allStarted = new CountDownLatch( 50 );
+
+    // Every branch waits for all the others: this only finishes when none of them waits for a free thread.
+    //
+    List<FutureTask<Boolean>> tasks = new ArrayList<>();
+    for ( int i = 0; i < 50; i++ ) {
+      tasks.add( pool.launch( () -> {
+        allStarted.countDown();
+        return allStarted.await( 10, TimeUnit.SECONDS );
+      } ) );
+    }
+    for ( FutureTask<Boolean> task : tasks ) {
+      assertTrue( pool.join( task ) );
+    }
+  }
+
+  @Test
+  public void testJoinRunsBranchThatDidNotStart() throws Exception {
+    JobEntryThreadPool pool = new JobEntryThreadPool( 1 );
+    final CountDownLatch started = new CountDownLatch( 1 );
+    final CountDownLatch release = new CountDownLatch( 1 );
+
+    FutureTask<Thread> blocking = pool.launch( () -> {
+      started.countDown();
+      release.await( 10, TimeUnit.SECONDS );
+      return Thread.currentThread();
+    } );
+    assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+    // The only thread of this job is busy: the joining thread runs the next branch itself.
+    //
+    FutureTask<Thread> waiting = pool.launch( Thread::currentThread );
+    assertSame( Thread.currentThread(), pool.join( waiting ) );
+
+    release.countDown();
+    assertTrue( pool.join( blocking ) != Thread.currentThread() );
+  }
+}
@@ -0,0 +1,266 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.job;
+
+import org.apache.hop.core.CheckResultInterface;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.LogLevel;
+import org.apache.hop.core.variables.VariableSpace;
+import org.apache.hop.job.entries.special.JobEntrySpecial;
+import org.apache.hop.job.entry.JobEntryBase;
+import org.apache.hop.job.entry.JobEntryCopy;
+import org.apache.hop.job.entry.JobEntryInterface;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.metastore.api.IMetaStore;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs small jobs through the hop graph walk of {@link Job}.
+ */
+public class JobExecuteTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  /**
+   * A stack much smaller than the default one: walking the jobs below recursively would overflow it.
+   */
+  private static final long SMALL_STACK_SIZE = 256 * 1024;
+
+  private JobMeta jobMeta;
+  private JobEntryCopy start;
+
+  @Before
+  public void setUp() {
+    jobMeta = new JobMeta();
+    start = new JobEntryCopy( new JobEntrySpecial( JobMeta.STRING_SPECIAL_START, true, false ) );
+    jobMeta.addJobEntry( start );
+  }
+
+  @Test
+  public void testLongChainRunsInConstantStack() throws Exception {
+    JobEntryCopy previous = start;
+    CountingJobEntry[] entries = new CountingJobEntry[ 3000 ];
+    for ( int i = 0; i < entries.length; i++ ) {
+      entries[ i ] = new CountingJobEntry( "entry " + i, Integer.MAX_VALUE );
+      JobEntryCopy copy = addEntry( entries[ i ] );
+      addHop( previous, copy ).setUnconditional();
+      previous = copy;
+    }
+
+    Result result = executeWithSmallStack();
+    assertTrue( result.getResult() );
+    assertEquals( entries.length, result.getNrLinesWritten() );
+    for ( CountingJobEntry entry : entries ) {
+      assertEquals( 1, entry.executions.get() );
+    }
+  }
+
+  @Test
+  public void testLoopRunsInConstantStack() throws Exception {
+    int iterations = 10000;
+    CountingJobEntry work = new CountingJobEntry( "work", Integer.MAX_VALUE );
+    CountingJobEntry again = new CountingJobEntry( "again", iterations );
+    JobEntryCopy workCopy = addEntry( work );
+    JobEntryCopy againCopy = addEntry( again );
+    addHop( start, workCopy );
+    addHop( workCopy, againCopy ).setUnconditional();
+    addHop( againCopy, workCopy ).setEvaluation( true );
+
+    Result result = executeWithSmallStack();
+
+    // The last evaluation fails and ends the loop.
+    //
+    assertFalse( result.getResult() );
+    assertEquals( iterations + 1, work.executions.get() );
+    assertEquals( iterations + 1, again.executions.get() );
+    assertEquals( 2L * ( iterations + 1 ), result.getNrLinesWritten() );
+  }
+
+  @Test
+  public void testTrueFalseAndUnconditionalHops() throws Exception {
+    CountingJobEntry evaluation = new CountingJobEntry( "evaluation", 0 );
+    CountingJobEntry onTrue = new CountingJobEntry( "on true", Integer.MAX_VALUE );
+    CountingJobEntry onFalse = new CountingJobEntry( "on false", Integer.MAX_VALUE );
+    CountingJobEntry always = new CountingJobEntry( "always", Integer.MAX_VALUE );
+    JobEntryCopy evaluationCopy = addEntry( evaluation );
+    JobEntryCopy onTrueCopy = addEntry( onTrue );
+    JobEntryCopy onFalseCopy = addEntry( onFalse );
+    JobEntryCopy alwaysCopy = addEntry( always );
+    addHop( start, evaluationCopy );
+    addHop( evaluationCopy, onTrueCopy ).setEvaluation( true );
+    addHop( evaluationCopy, onFalseCopy ).setEvaluation( false );
+    addHop( onFalseCopy, alwaysCopy ).setUnconditional();
+
+    Result result = new Job( jobMeta ).execute( 0, new Result() );
+
+    assertTrue( result.getResult() );
+    assertEquals( 1, evaluation.executions.get() );
+    assertEquals( 0, onTrue.executions.get() );
+    assertEquals( 1, onFalse.executions.get() );
+    assertEquals( 1, always.executions.get() );
+    assertEquals( 3, result.getNrLinesWritten() );
+  }
+
+  @Test
+  public void testParallelResultsAreAggregated() throws Exception {
+    start.setLaunchingInParallel( true );
+    addHop( start, addEntry( new CountingJobEntry( "first", Integer.MAX_VALUE ) ) );
+    addHop( start, addEntry( new CountingJobEntry( "failing", 0 ) ) );
+    addHop( start, addEntry( new CountingJobEntry( "last", Integer.MAX_VALUE ) ) );
+
+    Result result = new Job( jobMeta ).execute( 0, new Result() );
+
+    // One failing branch fails the job entry that launched them all.
+    //
+    assertFalse( result.getResult() );
+    assertEquals( 1, result.getNrErrors() );
+    assertEquals( 3, result.getNrLinesWritten() );
+  }
+
+  @Test
+  public void testParallelBranchesAreJoined() throws Exception {
+    int nrBranches = 20;
+    CountDownLatch allStarted = new CountDownLatch( nrBranches );
+    CountingJobEntry after = new CountingJobEntry( "after", Integer.MAX_VALUE );
+    JobEntryCopy afterCopy = addEntry( after );
+
+    // The branches wait for each other, so they only finish when they all run at the same time.
+    //
+    start.setLaunchingInParallel( true );
+    CountingJobEntry[] branches = new CountingJobEntry[ nrBranches ];
+    for ( int i = 0; i < nrBranches; i++ ) {
+      branches[ i ] = new CountingJobEntry( "branch " + i, Integer.MAX_VALUE, allStarted );
+      JobEntryCopy branchCopy = addEntry( branches[ i ] );
+      addHop( start, branchCopy );
+      addHop( branchCopy, afterCopy ).setEvaluation( true );
+    }
+
+    Result result = new Job( jobMeta ).execute( 0, new Result() );
+
+    assertTrue( result.getResult() );
+    for ( CountingJobEntry branch : branches ) {
+      assertEquals( 1, branch.executions.get() );
+    }
+    // Every branch is waited for up to its last job entry.
+    //
+    assertEquals( nrBranches, after.executions.get() );
+    assertEquals( 2L * nrBranches, result.getNrLinesWritten() );
+  }
+
+  private JobEntryCopy addEntry( JobEntryInterface entry ) {
+    JobEntryCopy copy = new JobEntryCopy( entry );
+    jobMeta.addJobEntry( copy );
+    return copy;
+  }
+
+  private JobHopMeta addHop( JobEntryCopy from, JobEntryCopy to ) {
+    JobHopMeta hop = new JobHopMeta( from, to );
+    jobMeta.addJobHop( hop );
+    return hop;
+  }
+
+  private Result executeWithSmallStack() throws Exception {
+    final Job job = new Job( jobMeta );
+    job.setLogLevel( LogLevel.ERROR );
+    final AtomicReference<Result> result = new AtomicReference<>();
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread thread = new Thread( null, () -> {
+      try {
+        result.set( job.execute( 0, new Result() ) );
+      } catch ( Throwable e ) {
+        error.set( e );
+      }
+    }, "Small stack job", SMALL_STACK_SIZE );
+    thread.start();
+    thread.join();
+    assertNull( "The job failed: " + error.get(), error.get() );
+    return result.get();
+  }
+
+  /**
+   * A job entry that writes a line each time it is executed. It succeeds the first times, then fails with an error.
+   */
+  private static class CountingJobEntry extends JobEntryBase implements Cloneable, JobEntryInterface {
+    private final AtomicInteger executions = new AtomicInteger();
+    private final int successes;
+    private final CountDownLatch latch;
+
+    private CountingJobEntry( String name, int successes ) {
+      this( name, successes, null );
+    }
+
+    /**
+     * @param latch counted down on execution, the entry then waits until it's zero, null not to wait
+     */
+    private CountingJobEntry( String name, int successes, CountDownLatch latch ) {
+      super( name, "" );
+      this.successes = successes;
+      this.latch = latch;
+    }
+
+    @Override
+    public Result execute( Result previousResult, int nr ) throws HopException {
+      boolean success = executions.incrementAndGet() <= successes;
+      if ( latch != null ) {
+        latch.countDown();
+        try {
+          success &= latch.await( 10, TimeUnit.SECONDS );
+        } catch ( InterruptedException e ) {
+          throw new HopException( e );
+        }
+      }
+      previousResult.setNrLinesWritten( previousResult.getNrLinesWritten() + 1 );
+      previousResult.setResult( success );
+      previousResult.setNrErrors( success ? 0 : 1 );
+      return previousResult;
+    }
+
+    @Override
+    public boolean evaluates() {
+      return true;
+    }
+
+    @Override
+    public void loadXML( Node entrynode, IMetaStore metaStore ) {
+    }
+
+    @Override
+    public void check( List<CheckResultInterface> remarks, JobMeta jobMeta, VariableSpace space,
+                       IMetaStore metaStore ) {
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.job.entry;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.ResultRowList;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.logging.LogChannelInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.job.Job;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelRowExecutorTest {
+
+  private Job parentJob;
+  private LogChannelInterface log;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    parentJob = mock( Job.class );
+    log = mock( LogChannelInterface.class );
+  }
+
+  @Test
+  public void testResultsAreAddedInRowOrder() throws Exception {
+    Result result = createResult( 20 );
+
+    new ParallelRowExecutor( "test", 4, true, parentJob, log ).execute( result, rowResult -> {
+      long nr = rowResult.getRows().get( 0 ).getInteger( "nr", -1L );
+      // Let the later rows finish first
+      Thread.sleep( 20 - nr );
+      Result executionResult = new Result();
+      executionResult.setNrLinesOutput( nr );
+      executionResult.setRows( rowResult.getRows() );
+      return executionResult;
+    } );
+
+    assertEquals( 0, result.getNrErrors() );
+    assertEquals( 190, result.getNrLinesOutput() );
+    assertEquals( 20, result.getRows().size() );
+    for ( int i = 0; i < 20; i++ ) {
+      assertEquals( Long.valueOf( i ), result.getRows().get( i ).getInteger( "nr", -1L ) );
+    }
+  }
+
+  @Test
+  public void testParallelismIsBounded() throws Exception {
+    Result result = createResult( 50 );
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    new ParallelRowExecutor( "test", 3, true, parentJob, log ).execute( result, rowResult -> {
+      int nrRunning = running.incrementAndGet();
+      maxRunning.accumulateAndGet( nrRunning, Math::max );
+      Thread.sleep( 2 );
+      running.decrementAndGet();
+      return new Result();
+    } );
+
+    assertTrue( maxRunning.get() <= 3 );
+    assertEquals( 0, result.getNrErrors() );
+  }
+
+  @Test
+  public void testFailFastSkipsRowsAfterError() throws Exception {
+    Result result = createResult( 100 );
+    AtomicInteger executed = new AtomicInteger();
+
+    new ParallelRowExecutor( "test", 2, true, parentJob, log ).execute( result, rowResult -> {
+      executed.incrementAndGet();
+      Result executionResult = new Result();
+      if ( rowResult.getRows().get( 0 ).getInteger( "nr", -1L ) == 0L ) {
+        executionResult.setNrErrors( 1 );
+      } else {
+        Thread.sleep( 1 );
+      }
+      return executionResult;
+    } );
+
+    assertEquals( 1, result.getNrErrors() );
+    assertTrue( executed.get() < 100 );
+  }
+
+  @Test
+  public void testAllRowsExecuteWithoutFailFast() throws Exception {
+    Result result = createResult( 30 );
+    AtomicInteger executed = new AtomicInteger();
+
+    new ParallelRowExecutor( "test", 4, false, parentJob, log ).execute( result, rowResult -> {
+      executed.incrementAndGet();
+      if ( rowResult.getRows().get( 0 ).getInteger( "nr", -1L ) % 10 == 0 ) {
+        throw new IllegalStateException( "failing row" );
+      }
+      return new Result();
+    } );
+
+    assertEquals( 30, executed.get() );
+    assertEquals( 3, result.getNrErrors() );
+  }
+
+  @Test
+  public void testNothingExecutesAfterPreviousErrors() {
+    Result result = createResult( 5 );
+    result.setNrErrors( 1 );
+    AtomicInteger executed = new AtomicInteger();
+
+    new ParallelRowExecutor( "test", 4, true, parentJob, log ).execute( result, rowResult -> {
+      executed.incrementAndGet();
+      return new Result();
+    } );
+
+    assertEquals( 0, executed.get() );
+    assertEquals( 1, result.getNrErrors() );
+    assertEquals( 5, result.getRows().size() );
+  }
+
+  @Test
+  public void testStoppedJobSkipsRows() throws Exception {
+    Result result = createResult( 10 );
+    AtomicInteger executed = new AtomicInteger();
+    when( parentJob.isStopped() ).thenReturn( false, true );
+
+    new ParallelRowExecutor( "test", 1, false, parentJob, log ).execute( result, rowResult -> {
+      executed.incrementAndGet();
+      return new Result();
+    } );
+
+    assertEquals( 1, executed.get() );
+    assertEquals( 0, result.getNrErrors() );
+  }
+
+  @Test
+  public void testInputRowsAreCleared() throws Exception {
+    ResultRowList rows = new ResultRowList( 2 );
+    rows.addAll( createResult( 10 ).getRows() );
+    assertTrue( rows.isSpilled() );
+    Result result = new Result();
+    result.setRows( rows );
+
+    new ParallelRowExecutor( "test", 3, false, parentJob, log ).execute( result, rowResult -> {
+      Result executionResult = new Result();
+      executionResult.setRows( rowResult.getRows() );
+      return executionResult;
+    } );
+
+    assertTrue( rows.isEmpty() );
+    assertFalse( rows.isSpilled() );
+    assertEquals( 10, result.getRows().size() );
+    assertEquals( Long.valueOf( 9 ), result.getRows().get( 9 ).getInteger( "nr", -1L ) );
+  }
+
+  private Result createResult( int nrRows ) {
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( long i = 0; i < nrRows; i++ ) {
+      RowMetaAndData row = new RowMetaAndData();
+      row.addValue( new ValueMetaInteger( "nr" ), i );
+      rows.add( row );
+    }
+    Result result = new Result();
+    result.setRows( rows );
+    return result;
+  }
+}
@@ -0,0 +1,107 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopStepException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.trans.step.RowAdapter;
+import org.apache.hop.trans.step.StepMeta;
+import org.apache.hop.trans.steps.dummytrans.DummyTransMeta;
+import org.apache.hop.trans.steps.injector.InjectorMeta;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Measures how long a row takes to travel through a chain of steps, an Injector followed by Dummy steps. Only one row
+ * is in flight at a time, so the time is mostly spent handing the row over from one step thread to the next. Run it
+ * before and after a change to the row sets or to the way steps wait for rows to compare.
+ * Usage: TransLatencyBenchmark [number of steps] [number of rows] [low latency streaming: true or false]
+ */
+public class TransLatencyBenchmark {
+  public static void main( String[] args ) throws Exception {
+    int nrSteps = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 10;
+    int nrRows = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 10000;
+    boolean lowLatency = args.length > 2 && Boolean.parseBoolean( args[ 2 ] );
+    HopEnvironment.init( false );
+
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "latency" );
+    transMeta.setLowLatencyStreaming( lowLatency );
+    InjectorMeta injectorMeta = new InjectorMeta();
+    injectorMeta.allocate( 1 );
+    injectorMeta.getFieldname()[ 0 ] = "id";
+    injectorMeta.getType()[ 0 ] = ValueMetaInterface.TYPE_INTEGER;
+    injectorMeta.getLength()[ 0 ] = -1;
+    injectorMeta.getPrecision()[ 0 ] = -1;
+    StepMeta previous = new StepMeta( "Step 0", injectorMeta );
+    transMeta.addStep( previous );
+    for ( int i = 1; i < nrSteps; i++ ) {
+      StepMeta stepMeta = new StepMeta( "Step " + i, new DummyTransMeta() );
+      transMeta.addStep( stepMeta );
+      transMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+      previous = stepMeta;
+    }
+
+    Trans trans = new Trans( transMeta );
+    trans.prepareExecution( null );
+    RowProducer producer = trans.addRowProducer( "Step 0", 0 );
+    final BlockingQueue<Object[]> arrived = new ArrayBlockingQueue<>( 1 );
+    trans.getStepInterface( previous.getName(), 0 ).addRowListener( new RowAdapter() {
+      @Override
+      public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws HopStepException {
+        arrived.add( row );
+      }
+    } );
+    trans.startThreads();
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    // Warm up, then measure every row
+    //
+    for ( int i = 0; i < 1000; i++ ) {
+      producer.putRow( rowMeta, new Object[] { (long) i } );
+      arrived.take();
+    }
+    long[] nanos = new long[ nrRows ];
+    for ( int i = 0; i < nrRows; i++ ) {
+      long start = System.nanoTime();
+      producer.putRow( rowMeta, new Object[] { (long) i } );
+      arrived.take();
+      nanos[ i ] = System.nanoTime() - start;
+    }
+    producer.finished();
+    trans.waitUntilFinished();
+
+    Arrays.sort( nanos );
+    System.out.println( String.format( "%d steps, %d rows%s: median %d us, p90 %d us, p99 %d us, max %d us", nrSteps,
+      nrRows, lowLatency ? ", low latency streaming" : "", nanos[ nrRows / 2 ] / 1000, nanos[ nrRows * 9 / 10 ] / 1000,
+      nanos[ nrRows * 99 / 100 ] / 1000, nanos[ nrRows - 1 ] / 1000 ) );
+  }
+}
@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.NotePadMeta;
+import org.apache.hop.trans.step.StepMeta;
+import org.apache.hop.trans.steps.dummytrans.DummyTransMeta;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Compares loading a large generated transformation file completely in memory with loading it one step at a time.
+ * Usage: TransMetaLoadBenchmark [number of steps] [number of loads]
+ */
+public class TransMetaLoadBenchmark {
+  public static void main( String[] args ) throws Exception {
+    int nrSteps = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 10000;
+    int nrLoads = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 5;
+
+    // Every load has to read the file, not the cache
+    //
+    System.setProperty( Const.HOP_META_CACHE_SIZE, "0" );
+    HopEnvironment.init( false );
+
+    File file = File.createTempFile( "benchmark", ".ktr" );
+    file.deleteOnExit();
+    Files.write( file.toPath(), generate( nrSteps ).getXML().getBytes( StandardCharsets.UTF_8 ) );
+    System.out.println( "Generated " + nrSteps + " steps, " + file.length() / 1024 + " kB in " + file );
+
+    for ( int i = 0; i < nrLoads; i++ ) {
+      load( file, "in memory", "0" );
+      load( file, "streamed", "1" );
+    }
+  }
+
+  private static TransMeta generate( int nrSteps ) {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "benchmark" );
+    StepMeta previous = null;
+    for ( int i = 0; i < nrSteps; i++ ) {
+      StepMeta stepMeta = new StepMeta( "Step " + i, new DummyTransMeta() );
+      stepMeta.setLocation( ( i % 100 ) * 50, ( i / 100 ) * 50 );
+      transMeta.addStep( stepMeta );
+      if ( previous != null ) {
+        transMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+      }
+      previous = stepMeta;
+    }
+    transMeta.addNote( new NotePadMeta( "Generated with " + nrSteps + " steps", 0, 0, 100, 50 ) );
+    return transMeta;
+  }
+
+  private static void load( File file, String description, String threshold ) throws Exception {
+    System.setProperty( Const.HOP_META_STREAMING_THRESHOLD, threshold );
+    System.gc();
+    Runtime runtime = Runtime.getRuntime();
+    long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+    long start = System.nanoTime();
+
+    TransMeta transMeta = new TransMeta( file.getAbsolutePath(), null, true, null );
+
+    long millis = ( System.nanoTime() - start ) / 1000000;
+    long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+    System.out.println( String.format( "%-10s %6d ms, %6d MB heap growth, %d steps, %d hops", description, millis,
+      ( usedAfter - usedBefore ) / ( 1024 * 1024 ), transMeta.nrSteps(), transMeta.nrTransHops() ) );
+  }
+}
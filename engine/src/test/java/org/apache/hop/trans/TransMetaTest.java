@@ -468,6 +468,22 @@ public class TransMetaTest {
     }
   }
 
+  @Test
+  public void testLoadStreamedFile() throws Exception {
+    String filename = getClass().getResource( "one-step-trans.ktr" ).getPath();
+    TransMeta loaded = new TransMeta( filename, metaStore, true, null );
+
+    System.setProperty( Const.HOP_META_STREAMING_THRESHOLD, "1" );
+    try {
+      TransMeta streamed = new TransMeta( filename, metaStore, true, null );
+      assertEquals( loaded.nrSteps(), streamed.nrSteps() );
+      assertEquals( loaded.nrTransHops(), streamed.nrTransHops() );
+      assertEquals( loaded.getXML(), streamed.getXML() );
+    } finally {
+      System.clearProperty( Const.HOP_META_STREAMING_THRESHOLD );
+    }
+  }
+
   @Test
   public void testGetCacheVersion() throws Exception {
     TransMeta transMeta = new TransMeta( getClass().getResource( "one-step-trans.ktr" ).getPath(), metaStore, true, null );
@@ -40,6 +40,7 @@ import org.apache.hop.trans.step.StepDataInterface;
 import org.apache.hop.trans.step.StepInterface;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.step.StepMetaDataCombi;
+import org.apache.hop.trans.step.StepStatusCounters;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -252,6 +253,7 @@ public class TransTest {
   public void testSafeStop() {
     when( stepMock.isSafeStopped() ).thenReturn( false );
     when( stepMock.getStepname() ).thenReturn( "stepName" );
+    when( stepMock.getStatusCounters() ).thenReturn( new StepStatusCounters( 0, 0, 0, 0, 0, 0, 0, 0 ) );
 
     trans.setSteps( of( combi( stepMock, data, stepMeta ) ) );
     Result result = trans.getResult();
@@ -268,6 +268,125 @@ public class BaseStepTest {
     }
   }
 
+  @Test
+  public void getRowsAndPutRowsHandleBatches() throws Exception {
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setStopped( false );
+    baseStep.setRepartitioning( StepPartitioningMeta.PARTITIONING_METHOD_NONE );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+
+    RowSet input = new BlockingRowSet( 10 );
+    for ( long i = 0; i < 5; i++ ) {
+      input.putRow( rowMeta, new Object[] { i } );
+    }
+    input.setDone();
+    baseStep.addRowSetToInputRowSets( input );
+
+    RowSet rs1 = new BlockingRowSet( 10 );
+    RowSet rs2 = new BlockingRowSet( 10 );
+    baseStep.setOutputRowSets( Arrays.asList( rs1, rs2 ) );
+
+    Object[][] rows = baseStep.getRows( 3 );
+    assertEquals( 3, rows.length );
+    assertEquals( 0L, rows[ 0 ][ 0 ] );
+    assertEquals( 2L, rows[ 2 ][ 0 ] );
+    baseStep.putRows( rowMeta, rows, rows.length );
+
+    rows = baseStep.getRows( 10 );
+    assertEquals( 2, rows.length );
+    assertEquals( 4L, rows[ 1 ][ 0 ] );
+    baseStep.putRows( rowMeta, rows, 1 );
+
+    assertNull( baseStep.getRows( 10 ) );
+    assertEquals( 5, baseStep.getLinesRead() );
+    assertEquals( 8, baseStep.getLinesWritten() );
+
+    assertEquals( 4, rs1.size() );
+    assertEquals( 4, rs2.size() );
+    Object[] row1 = rs1.getRowImmediate();
+    Object[] row2 = rs2.getRowImmediate();
+    assertEquals( row1[ 0 ], row2[ 0 ] );
+    // the second output receives clones of the rows
+    assertFalse( row1 == row2 );
+  }
+
+  @Test
+  public void putRowsDistributesRoundRobinRowByRow() throws Exception {
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setStopped( false );
+    baseStep.setRepartitioning( StepPartitioningMeta.PARTITIONING_METHOD_NONE );
+    baseStep.setDistributed( true );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+
+    RowSet rs1 = new BlockingRowSet( 10 );
+    RowSet rs2 = new BlockingRowSet( 10 );
+    RowSet rs3 = new BlockingRowSet( 10 );
+    baseStep.setOutputRowSets( Arrays.asList( rs1, rs2, rs3 ) );
+
+    baseStep.putRows( rowMeta, new Object[][] { { 0L }, { 1L }, { 2L }, { 3L } }, 4 );
+    baseStep.putRow( rowMeta, new Object[] { 4L } );
+    baseStep.putRows( rowMeta, new Object[][] { { 5L }, { 6L }, { 7L } }, 2 );
+
+    assertEquals( 7, baseStep.getLinesWritten() );
+    assertEquals( 0L, rs1.getRowImmediate()[ 0 ] );
+    assertEquals( 3L, rs1.getRowImmediate()[ 0 ] );
+    assertEquals( 6L, rs1.getRowImmediate()[ 0 ] );
+    assertEquals( 1L, rs2.getRowImmediate()[ 0 ] );
+    assertEquals( 4L, rs2.getRowImmediate()[ 0 ] );
+    assertEquals( 2L, rs3.getRowImmediate()[ 0 ] );
+    assertEquals( 5L, rs3.getRowImmediate()[ 0 ] );
+    assertEquals( 0, rs1.size() + rs2.size() + rs3.size() );
+  }
+
+  @Test
+  public void statusCountersSnapshotHoldsAllCounters() {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.incrementLinesRead();
+    baseStep.incrementLinesRead();
+    baseStep.incrementLinesWritten();
+    baseStep.incrementLinesInput();
+    baseStep.incrementLinesOutput();
+    baseStep.setLinesUpdated( 5 );
+    baseStep.incrementLinesRejected();
+    baseStep.incrementLinesSkipped();
+    baseStep.setErrors( 2 );
+
+    StepStatusCounters counters = baseStep.getStatusCounters();
+    baseStep.incrementLinesRead();
+
+    assertEquals( 2, counters.getLinesRead() );
+    assertEquals( 1, counters.getLinesWritten() );
+    assertEquals( 1, counters.getLinesInput() );
+    assertEquals( 1, counters.getLinesOutput() );
+    assertEquals( 5, counters.getLinesUpdated() );
+    assertEquals( 1, counters.getLinesRejected() );
+    assertEquals( 1, counters.getLinesSkipped() );
+    assertEquals( 2, counters.getErrors() );
+    assertEquals( 3, baseStep.getLinesRead() );
+  }
+
+  @Test
+  public void counterUpdatesReturnTheRunningValue() {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    assertEquals( 1, baseStep.incrementLinesRead() );
+    assertEquals( 2, baseStep.incrementLinesRead() );
+    assertEquals( 1, baseStep.decrementLinesRead() );
+    baseStep.setLinesOutput( 10 );
+    assertEquals( 11, baseStep.incrementLinesOutput() );
+    assertEquals( 1, baseStep.incrementLinesWritten() );
+    assertEquals( 0, baseStep.decrementLinesWritten() );
+  }
+
   @Test
   public void outputRowMetasAreNotSharedAmongSeveralStreams() throws Exception {
     RowSet rs1 = new SingleRowRowSet();
@@ -0,0 +1,159 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.csvinput;
+
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.RowSet;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.trans.step.StepDataInterface;
+import org.apache.hop.trans.steps.StepMockUtil;
+import org.apache.hop.trans.steps.mock.StepMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvChunkReaderTest extends CsvInputUnitTestBase {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final String CONTENT = "h1,h2,h3\n"
+    + "a,\"b\nc\",d\r\n"
+    + "\"x\"\"y\",,\"z,\"\"\"\n"
+    + "e,f\n\n\n"
+    + "g,h,i,j\n"
+    + "last,\"q\r\nq\"";
+
+  private ForkJoinPool pool;
+  private StepMockHelper<CsvInputMeta, StepDataInterface> stepMockHelper;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool( 4 );
+    stepMockHelper = StepMockUtil.getStepMockHelper( CsvInputMeta.class, "CsvChunkReaderTest" );
+  }
+
+  @After
+  public void cleanUp() {
+    pool.shutdownNow();
+    stepMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testQuotedNewlinesInEveryChunkLayout() throws Exception {
+    File file = createTestFile( ENCODING, CONTENT );
+    List<String> expected = Arrays.asList(
+      "[a][b\nc][d]",
+      "[x\"y][][z,\"]",
+      "[e][f]-",
+      "[]--",
+      "[g][h][i]",
+      "[last][q\r\nq]-" );
+    for ( int chunkSize = 1; chunkSize <= CONTENT.length() + 1; chunkSize++ ) {
+      assertEquals( "Chunk size " + chunkSize, expected, read( file, true, chunkSize ) );
+    }
+  }
+
+  @Test
+  public void testRandomRecords() throws Exception {
+    String[] values = { "a", "bb", "\"q\nq\"", "\"\"", "\"x\"\"y\"", "\"p,q\"", "", "\"\r\n\"", "z\"z" };
+    String[] lineEnds = { "\n", "\r\n", "\r", "\n\n\n" };
+    Random random = new Random( 42 );
+    for ( int test = 0; test < 50; test++ ) {
+      StringBuilder content = new StringBuilder();
+      for ( int record = random.nextInt( 30 ); record > 0; record-- ) {
+        for ( int field = random.nextInt( 4 ); field >= 0; field-- ) {
+          content.append( values[ random.nextInt( values.length ) ] ).append( field > 0 ? "," : "" );
+        }
+        content.append( lineEnds[ random.nextInt( lineEnds.length ) ] );
+      }
+      File file = createTestFile( ENCODING, content.toString() );
+      boolean header = random.nextBoolean();
+      List<String> expected = read( file, header, Integer.MAX_VALUE );
+      for ( int chunkSize = 1; chunkSize <= 40; chunkSize++ ) {
+        assertEquals( content.toString(), expected, read( file, header, chunkSize ) );
+      }
+    }
+  }
+
+  @Test
+  public void testStepReadsChunksLikeSingleThread() throws Exception {
+    File file = createTestFile( ENCODING, CONTENT );
+    assertEquals( readWithStep( file, "1" ), readWithStep( file, "4" ) );
+  }
+
+  private List<String> read( File file, boolean header, int chunkSize ) throws Exception {
+    List<String> rows = new ArrayList<>();
+    try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+      CsvChunkReader reader =
+        new CsvChunkReader( channel, 0L, channel.size(), (byte) ',', '"', 3, 3, header, pool, chunkSize );
+      for ( List<Object[]> batch = reader.nextBatch(); batch != null; batch = reader.nextBatch() ) {
+        for ( Object[] row : batch ) {
+          StringBuilder fields = new StringBuilder();
+          for ( int i = 0; i < 3; i++ ) {
+            fields.append( row[ i ] == null ? "-" : "[" + new String( (byte[]) row[ i ], "UTF-8" ) + "]" );
+          }
+          rows.add( fields.toString() );
+        }
+      }
+    }
+    return rows;
+  }
+
+  private List<List<Object>> readWithStep( File file, String readerThreads ) throws Exception {
+    CsvInput csvInput = new CsvInput(
+      stepMockHelper.stepMeta, stepMockHelper.stepDataInterface, 0, stepMockHelper.transMeta,
+      stepMockHelper.trans );
+    CsvInputMeta meta = createMeta( file, createInputFileFields( "f1", "f2", "f3" ) );
+    meta.setHeaderPresent( true );
+    meta.setReaderThreads( readerThreads );
+    CsvInputData data = new CsvInputData();
+    RowSet output = new QueueRowSet();
+    csvInput.init( meta, data );
+    csvInput.addRowSetToOutputRowSets( output );
+    try {
+      while ( csvInput.processRow( meta, data ) ) {
+        // keep reading
+      }
+    } finally {
+      csvInput.dispose( meta, data );
+    }
+
+    List<List<Object>> rows = new ArrayList<>();
+    for ( Object[] row = output.getRowImmediate(); row != null; row = output.getRowImmediate() ) {
+      rows.add( Arrays.asList( row ).subList( 0, 3 ) );
+    }
+    assertEquals( 6, rows.size() );
+    return rows;
+  }
+}
@@ -0,0 +1,109 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.csvinput;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits a wide file with the pattern matchers CsvInput uses byte by byte and with the SWAR record splitter.
+ * Usage: CsvRecordSplitterBenchmark [number of columns] [number of rows]
+ */
+public class CsvRecordSplitterBenchmark {
+  public static void main( String[] args ) {
+    int columns = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 200;
+    int rows = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 5000;
+    StringBuilder content = new StringBuilder();
+    for ( int row = 0; row < rows; row++ ) {
+      for ( int column = 0; column < columns; column++ ) {
+        content.append( column > 0 ? "," : "" ).append( "value " ).append( row * column );
+      }
+      content.append( '\n' );
+    }
+    byte[] data = content.toString().getBytes( StandardCharsets.UTF_8 );
+
+    long[] matchers = null;
+    long[] splitter = null;
+    long matchersNanos = Long.MAX_VALUE;
+    long splitterNanos = Long.MAX_VALUE;
+    for ( int run = 0; run < 5; run++ ) {
+      long start = System.nanoTime();
+      matchers = splitWithMatchers( data );
+      matchersNanos = Math.min( matchersNanos, System.nanoTime() - start );
+      start = System.nanoTime();
+      splitter = splitWithSplitter( data );
+      splitterNanos = Math.min( splitterNanos, System.nanoTime() - start );
+    }
+    System.out.println( String.format( "%d rows of %d fields (%d bytes): %d ms with pattern matchers, %d ms scanning 8"
+      + " bytes at a time", rows, columns, data.length, matchersNanos / 1000000L, splitterNanos / 1000000L ) );
+
+    if ( matchers[ 0 ] != (long) rows * columns || !Arrays.equals( matchers, splitter ) ) {
+      throw new IllegalStateException( "The record splitter split the fields differently: " + Arrays.toString( matchers )
+        + " vs " + Arrays.toString( splitter ) );
+    }
+  }
+
+  /**
+   * @return the number of fields and their total length
+   */
+  private static long[] splitWithMatchers( byte[] data ) {
+    PatternMatcherInterface delimiterMatcher = new SingleBytePatternMatcher();
+    PatternMatcherInterface enclosureMatcher = new SingleBytePatternMatcher();
+    CrLfMatcherInterface crLfMatcher = new SingleByteCrLfMatcher();
+    byte[] delimiter = { ',' };
+    byte[] enclosure = { '"' };
+    long fields = 0;
+    long length = 0;
+    int fieldStart = 0;
+    for ( int i = 0; i < data.length; i++ ) {
+      if ( delimiterMatcher.matchesPattern( data, i, delimiter ) || crLfMatcher.isReturn( data, i )
+        || crLfMatcher.isLineFeed( data, i ) ) {
+        byte[] field = Arrays.copyOfRange( data, fieldStart, i );
+        fields++;
+        length += field.length;
+        fieldStart = i + 1;
+      } else if ( enclosureMatcher.matchesPattern( data, i, enclosure ) ) {
+        throw new IllegalStateException( "No enclosures in the benchmark data" );
+      }
+    }
+    return new long[] { fields, length };
+  }
+
+  private static long[] splitWithSplitter( byte[] data ) {
+    ByteBuffer buffer = ByteBuffer.wrap( data ).order( ByteOrder.LITTLE_ENDIAN );
+    CsvRecordSplitter splitter = new CsvRecordSplitter( (byte) ',', '"' );
+    long fields = 0;
+    long length = 0;
+    for ( int position = 0; position < data.length; ) {
+      position = splitter.splitRecord( buffer, position, data.length );
+      for ( int i = 0; i < splitter.getFieldCount(); i++ ) {
+        byte[] field = splitter.getField( buffer, i );
+        fields++;
+        length += field.length;
+      }
+    }
+    return new long[] { fields, length };
+  }
+}
@@ -0,0 +1,95 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.csvinput;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvRecordSplitterTest {
+
+  @Test
+  public void testMatchesEveryLane() {
+    for ( int b = 0; b < 256; b++ ) {
+      long pattern = CsvRecordSplitter.broadcast( (byte) b );
+      for ( int lane = 0; lane < 8; lane++ ) {
+        // Every other byte value in the other lanes, including the ones that differ in a single bit
+        long word = 0L;
+        for ( int other = 0; other < 8; other++ ) {
+          int value = other == lane ? b : ( b ^ ( 1 << other ) );
+          word |= (long) value << ( other * 8 );
+        }
+        assertEquals( 0x80L << ( lane * 8 ), CsvRecordSplitter.matches( word, pattern ) );
+      }
+    }
+  }
+
+  @Test
+  public void testScanRecords() {
+    ByteBuffer buffer = buffer( "plain,\"enclosed, with delimiter\",\"esc\"\"aped\",,trailing text that is long\r\n"
+      + "\"multi\nline\",x\"y\n"
+      + "last" );
+    CsvRecordSplitter splitter = new CsvRecordSplitter( (byte) ',', '"' );
+
+    int position = splitter.splitRecord( buffer, 0, buffer.limit() );
+    assertEquals( 5, splitter.getFieldCount() );
+    assertEquals( "plain", field( splitter, buffer, 0 ) );
+    assertEquals( "enclosed, with delimiter", field( splitter, buffer, 1 ) );
+    assertEquals( "esc\"aped", field( splitter, buffer, 2 ) );
+    assertEquals( "", field( splitter, buffer, 3 ) );
+    assertEquals( "trailing text that is long", field( splitter, buffer, 4 ) );
+
+    position = splitter.splitRecord( buffer, position, buffer.limit() );
+    assertEquals( 2, splitter.getFieldCount() );
+    assertEquals( "multi\nline", field( splitter, buffer, 0 ) );
+    // An enclosure that doesn't start a field is content
+    assertEquals( "x\"y", field( splitter, buffer, 1 ) );
+
+    position = splitter.splitRecord( buffer, position, buffer.limit() );
+    assertEquals( 1, splitter.getFieldCount() );
+    assertEquals( "last", field( splitter, buffer, 0 ) );
+    assertEquals( buffer.limit(), position );
+  }
+
+  @Test
+  public void testNoEnclosure() {
+    ByteBuffer buffer = buffer( "\"a\";b\n" );
+    CsvRecordSplitter splitter = new CsvRecordSplitter( (byte) ';', -1 );
+    splitter.splitRecord( buffer, 0, buffer.limit() );
+    assertEquals( 2, splitter.getFieldCount() );
+    assertEquals( "\"a\"", field( splitter, buffer, 0 ) );
+    assertEquals( "b", field( splitter, buffer, 1 ) );
+  }
+
+  private static ByteBuffer buffer( String content ) {
+    return ByteBuffer.wrap( content.getBytes( StandardCharsets.UTF_8 ) ).order( ByteOrder.LITTLE_ENDIAN );
+  }
+
+  private static String field( CsvRecordSplitter splitter, ByteBuffer buffer, int field ) {
+    return new String( splitter.getField( buffer, field ), StandardCharsets.UTF_8 );
+  }
+}
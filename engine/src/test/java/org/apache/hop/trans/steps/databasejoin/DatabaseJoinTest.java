@@ -24,6 +24,13 @@ package org.apache.hop.trans.steps.databasejoin;
 
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.VariableSpace;
+import org.apache.hop.metastore.api.IMetaStore;
 import org.apache.hop.trans.Trans;
 import org.apache.hop.trans.TransMeta;
 import org.apache.hop.trans.step.StepMeta;
@@ -34,11 +41,25 @@ import org.junit.Test;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -123,4 +144,120 @@ public class DatabaseJoinTest {
     verify( mockStepDataInterface.db, times( 0 ) ).cancelStatement( any( PreparedStatement.class ) );
     assertFalse( mockStepDataInterface.isCanceled );
   }
+
+  @Test
+  public void testConcurrentQueriesKeepInputOrder() throws Exception {
+    StepMeta stepMeta = mock( StepMeta.class );
+    TransMeta transMeta = mock( TransMeta.class );
+    when( stepMeta.getName() ).thenReturn( "Join" );
+    when( transMeta.findStep( anyString() ) ).thenReturn( stepMeta );
+    when( stepMeta.getTargetStepPartitioningMeta() ).thenReturn( mock( StepPartitioningMeta.class ) );
+
+    DatabaseJoinMeta meta = mock( DatabaseJoinMeta.class );
+    when( meta.getParameterField() ).thenReturn( new String[] { "id" } );
+    when( meta.getConcurrentQueries() ).thenReturn( 2 );
+    doAnswer( invocation -> {
+      ( (RowMetaInterface) invocation.getArguments()[ 0 ] ).addValueMeta( new ValueMetaString( "name" ) );
+      return null;
+    } ).when( meta ).getFields( any( RowMetaInterface.class ), anyString(), any( RowMetaInterface[].class ),
+      any( StepMeta.class ), any( VariableSpace.class ), any( IMetaStore.class ) );
+
+    // Id 1 is slow, the queries for the other ids finish first
+    final Map<ResultSet, Iterator<Object[]>> resultSets = new ConcurrentHashMap<>();
+    final AtomicInteger nrQueries = new AtomicInteger();
+    DatabaseJoinData data = new DatabaseJoinData();
+    data.connections = new ArrayList<>();
+    for ( int i = 0; i < 2; i++ ) {
+      Database db = mock( Database.class );
+      when( db.openQuery( any( PreparedStatement.class ), any( RowMetaInterface.class ), any( Object[].class ) ) )
+        .thenAnswer( invocation -> {
+          nrQueries.incrementAndGet();
+          long id = (Long) ( (Object[]) invocation.getArguments()[ 2 ] )[ 0 ];
+          if ( id == 1L ) {
+            Thread.sleep( 200 );
+          }
+          ResultSet rs = mock( ResultSet.class );
+          resultSets.put( rs, Collections.singletonList( new Object[] { "name" + id } ).iterator() );
+          return rs;
+        } );
+      when( db.getRow( any( ResultSet.class ) ) ).thenAnswer( invocation -> {
+        Iterator<Object[]> rows = resultSets.get( invocation.getArguments()[ 0 ] );
+        return rows.hasNext() ? rows.next() : null;
+      } );
+      data.connections.add( new DatabaseJoinData.JoinConnection( db, mock( PreparedStatement.class ) ) );
+    }
+    data.db = data.connections.get( 0 ).db;
+    data.freeConnections = new LinkedBlockingQueue<>( data.connections );
+    data.executor = Executors.newFixedThreadPool( 2 );
+    data.resultCache = new HashMap<>();
+
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    final Iterator<Object[]> input = Arrays.asList(
+      new Object[] { 1L }, new Object[] { 2L }, new Object[] { 1L }, new Object[] { 3L }, new Object[] { 2L } )
+      .iterator();
+
+    DatabaseJoin step = spy( new DatabaseJoin( stepMeta, data, 0, transMeta, mock( Trans.class ) ) );
+    doAnswer( invocation -> input.hasNext() ? input.next() : null ).when( step ).getRow();
+    doReturn( inputRowMeta ).when( step ).getInputRowMeta();
+    final List<Object[]> output = new ArrayList<>();
+    doAnswer( invocation -> output.add( (Object[]) invocation.getArguments()[ 1 ] ) )
+      .when( step ).putRow( any( RowMetaInterface.class ), any( Object[].class ) );
+
+    while ( step.processRow( meta, data ) ) {
+      // keep going
+    }
+    data.executor.shutdown();
+
+    assertEquals( 5, output.size() );
+    long[] ids = { 1L, 2L, 1L, 3L, 2L };
+    for ( int i = 0; i < ids.length; i++ ) {
+      assertEquals( ids[ i ], output.get( i )[ 0 ] );
+      assertEquals( "name" + ids[ i ], output.get( i )[ 1 ] );
+    }
+    // The repeated ids waited for the running query or came from the cache
+    assertEquals( 3, nrQueries.get() );
+    assertEquals( 0, step.getQueriesInFlight() );
+    assertEquals( 3, step.getQueryLatency().getCount() );
+  }
+
+  @Test
+  public void testResultCacheMatchesLazilyConvertedParameters() throws Exception {
+    StepMeta stepMeta = mock( StepMeta.class );
+    TransMeta transMeta = mock( TransMeta.class );
+    when( stepMeta.getName() ).thenReturn( "Join" );
+    when( transMeta.findStep( anyString() ) ).thenReturn( stepMeta );
+    when( stepMeta.getTargetStepPartitioningMeta() ).thenReturn( mock( StepPartitioningMeta.class ) );
+
+    DatabaseJoinMeta meta = mock( DatabaseJoinMeta.class );
+    when( meta.getParameterField() ).thenReturn( new String[] { "id" } );
+
+    DatabaseJoinData data = new DatabaseJoinData();
+    data.db = mock( Database.class );
+    when( data.db.openQuery( any( PreparedStatement.class ), any( RowMetaInterface.class ), any( Object[].class ) ) )
+      .thenReturn( mock( ResultSet.class ) );
+    data.resultCache = new HashMap<>();
+
+    // Lazy conversion hands over the ids as binary strings, every row has its own byte array
+    ValueMetaString id = new ValueMetaString( "id" );
+    id.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    id.setStorageMetadata( new ValueMetaString( "id" ) );
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( id );
+    final Iterator<Object[]> input = Arrays.asList(
+      new Object[] { "1".getBytes() }, new Object[] { "2".getBytes() }, new Object[] { "1".getBytes() } ).iterator();
+
+    DatabaseJoin step = spy( new DatabaseJoin( stepMeta, data, 0, transMeta, mock( Trans.class ) ) );
+    doAnswer( invocation -> input.hasNext() ? input.next() : null ).when( step ).getRow();
+    doReturn( inputRowMeta ).when( step ).getInputRowMeta();
+
+    while ( step.processRow( meta, data ) ) {
+      // keep going
+    }
+
+    verify( data.db, times( 2 ) ).openQuery( any( PreparedStatement.class ), any( RowMetaInterface.class ),
+      any( Object[].class ) );
+    assertEquals( 2, data.resultCache.size() );
+    assertEquals( 1, data.resultCacheHits );
+  }
 }
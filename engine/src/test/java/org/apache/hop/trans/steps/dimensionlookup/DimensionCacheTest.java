@@ -24,12 +24,21 @@ package org.apache.hop.trans.steps.dimensionlookup;
 
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.row.value.ValueMetaTimestamp;
 import org.apache.hop.core.util.Assert;
 import org.junit.Test;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DimensionCacheTest {
 
@@ -74,6 +83,99 @@ public class DimensionCacheTest {
     assertCompareDateInterval( dc, null, D4, D5, null, -1 ); // NPE
   }
 
+  @Test
+  public void testIndexedLookup() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "CODE" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+
+    long t0 = 1425300000000L;
+    final Date D1 = new Timestamp( t0 );
+    final Date D2 = new Timestamp( t0 + 3600000L );
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { 2L, "a", D1, D2 } );
+    rows.add( new Object[] { 4L, "b", null, null } );
+    rows.add( new Object[] { 1L, "a", null, D1 } );
+    rows.add( new Object[] { 3L, "a", D2, null } );
+    dc.setRowCache( rows );
+    dc.indexRows();
+
+    assertEquals( 2, dc.lookupRow( new Object[] { null, "a", new Timestamp( t0 - 1 ), null } ) );
+    assertEquals( 0, dc.lookupRow( new Object[] { null, "a", D1, null } ) );
+    assertEquals( 3, dc.lookupRow( new Object[] { null, "a", D2, null } ) );
+    assertEquals( 1, dc.lookupRow( new Object[] { null, "b", D2, null } ) );
+    assertTrue( dc.lookupRow( new Object[] { null, "c", D2, null } ) < 0 );
+
+    // A new version of an existing key is indexed as it is added
+    dc.addRow( new Object[] { 5L, "b", D2, null } );
+    assertEquals( 1, dc.lookupRow( new Object[] { null, "b", D1, null } ) );
+    assertEquals( 4, dc.lookupRow( new Object[] { null, "b", D2, null } ) );
+    assertEquals( 2, dc.getVersionIndex().getKeyCount() );
+    assertEquals( 5, dc.getVersionIndex().getVersionCount() );
+  }
+
+  @Test
+  public void testCaseInsensitiveKeyIsNotIndexed() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    ValueMetaString code = new ValueMetaString( "CODE" );
+    code.setCaseInsensitive( true );
+    rowMeta.addValueMeta( code );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+
+    final Date D1 = new Timestamp( 1425300000000L );
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { 2L, "b", null, null } );
+    rows.add( new Object[] { 1L, "A", D1, null } );
+    dc.setRowCache( rows );
+    dc.indexRows();
+
+    assertNull( dc.getVersionIndex() );
+    int index = dc.lookupRow( new Object[] { null, "a", D1, null } );
+    assertEquals( 1L, dc.getRow( index )[ 0 ] );
+  }
+
+  @Test
+  public void testReleaseIndexedValues() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "CODE" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NAME" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 3, 4 );
+
+    final Date D1 = new Timestamp( 1425300000000L );
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { 1L, "a", "first", null, D1 } );
+    rows.add( new Object[] { 2L, "a", "second", D1, null } );
+    dc.setRowCache( rows );
+    dc.indexRows();
+    dc.releaseIndexedValues( new int[] { 0, 2 } );
+
+    int index = dc.lookupRow( new Object[] { null, "a", null, D1, null } );
+    assertEquals( 1, index );
+    Object[] row = dc.getRow( index );
+    assertEquals( 5, row.length );
+    assertEquals( 2L, row[ 0 ] );
+    assertEquals( "second", row[ 2 ] );
+    assertNull( row[ 1 ] );
+    assertNull( row[ 3 ] );
+    assertNull( row[ 4 ] );
+
+    try {
+      dc.sortRows();
+      fail( "The released rows can't be sorted" );
+    } catch ( IllegalStateException e ) {
+      // expected
+    }
+  }
+
   private static void assertCompareDateInterval( DimensionCache dc, Object from1, Object to1, Object from2, Object to2,
                                                  int expectedValue ) {
 
@@ -0,0 +1,110 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.dimensionlookup;
+
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import static org.apache.hop.trans.steps.dimensionlookup.DimensionVersionIndex.NEGATIVE_INFINITY;
+import static org.apache.hop.trans.steps.dimensionlookup.DimensionVersionIndex.NOT_FOUND;
+import static org.apache.hop.trans.steps.dimensionlookup.DimensionVersionIndex.POSITIVE_INFINITY;
+import static org.junit.Assert.assertEquals;
+
+public class DimensionVersionIndexTest {
+
+  private static RowMetaInterface keyMeta() {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "code" ) );
+    keyMeta.addValueMeta( new ValueMetaInteger( "nr" ) );
+    return keyMeta;
+  }
+
+  @Test
+  public void testLookupVersions() throws Exception {
+    DimensionVersionIndex index = new DimensionVersionIndex( keyMeta(), 0 );
+    Object[] a = { "a", 1L };
+    index.addVersion( a, NEGATIVE_INFINITY, 100L, 0 );
+    index.addVersion( a, 100L, 200L, 1 );
+    index.addVersion( a, 200L, POSITIVE_INFINITY, 2 );
+    index.addVersion( new Object[] { "b", 1L }, 150L, 160L, 3 );
+
+    assertEquals( 0, index.lookup( a, -5000L ) );
+    assertEquals( 0, index.lookup( a, 99L ) );
+    assertEquals( 1, index.lookup( a, 100L ) );
+    assertEquals( 1, index.lookup( a, 199L ) );
+    assertEquals( 2, index.lookup( a, 200L ) );
+    assertEquals( 2, index.lookup( new Object[] { "a", 1L }, Long.MAX_VALUE - 1 ) );
+
+    assertEquals( NOT_FOUND, index.lookup( new Object[] { "b", 1L }, 149L ) );
+    assertEquals( 3, index.lookup( new Object[] { "b", 1L }, 150L ) );
+    assertEquals( NOT_FOUND, index.lookup( new Object[] { "b", 1L }, 160L ) );
+    assertEquals( NOT_FOUND, index.lookup( new Object[] { "c", 1L }, 150L ) );
+    assertEquals( NOT_FOUND, index.lookup( new Object[] { null, 1L }, 150L ) );
+
+    assertEquals( 2, index.getKeyCount() );
+    assertEquals( 4, index.getVersionCount() );
+  }
+
+  @Test
+  public void testVersionsOutOfOrder() throws Exception {
+    DimensionVersionIndex index = new DimensionVersionIndex( keyMeta(), 0 );
+    for ( int key = 0; key < 1000; key++ ) {
+      for ( int version = 9; version >= 0; version-- ) {
+        index.reserveVersion( new Object[] { "key", (long) key } );
+      }
+    }
+    // Interleave the keys and add the versions of each key backwards
+    for ( int version = 9; version >= 0; version-- ) {
+      for ( int key = 0; key < 1000; key++ ) {
+        index.addVersion( new Object[] { "key", (long) key }, version * 10L, version * 10L + 10L, key * 10 + version );
+      }
+    }
+    for ( int key = 0; key < 1000; key++ ) {
+      for ( int version = 0; version < 10; version++ ) {
+        assertEquals( key * 10 + version, index.lookup( new Object[] { "key", (long) key }, version * 10L + 5L ) );
+      }
+      assertEquals( NOT_FOUND, index.lookup( new Object[] { "key", (long) key }, 100L ) );
+    }
+  }
+
+  @Test
+  public void testAppendVersions() throws Exception {
+    DimensionVersionIndex index = new DimensionVersionIndex( keyMeta(), 0 );
+    // Without reserving, the segments of the keys grow as new versions come in
+    for ( int version = 0; version < 50; version++ ) {
+      for ( int key = 0; key < 100; key++ ) {
+        index.addVersion( new Object[] { "key", (long) key }, version * 10L, version * 10L + 10L, key * 100 + version );
+      }
+    }
+    assertEquals( 100, index.getKeyCount() );
+    assertEquals( 5000, index.getVersionCount() );
+    for ( int key = 0; key < 100; key++ ) {
+      for ( int version = 0; version < 50; version++ ) {
+        assertEquals( key * 100 + version, index.lookup( new Object[] { "key", (long) key }, version * 10L ) );
+      }
+    }
+  }
+}
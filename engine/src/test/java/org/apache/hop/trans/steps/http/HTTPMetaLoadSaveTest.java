@@ -50,7 +50,8 @@ public class HTTPMetaLoadSaveTest {
     PluginRegistry.init( false );
     List<String> attributes =
       Arrays.asList( "url", "urlInField", "urlField", "encoding", "httpLogin", "httpPassword", "proxyHost",
-        "proxyPort", "socketTimeout", "connectionTimeout", "closeIdleConnectionsTime", "argumentField",
+        "proxyPort", "socketTimeout", "connectionTimeout", "closeIdleConnectionsTime", "concurrentRequests",
+        "maxRetries", "retryDelay", "requestsPerSecond", "argumentField",
         "argumentParameter", "headerField", "headerParameter", "fieldName", "resultCodeFieldName",
         "responseTimeFieldName", "responseHeaderFieldName" );
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
@@ -55,7 +55,8 @@ public class HTTPPOSTMetaTest {
     List<String> attributes =
       Arrays.asList( "postAFile", "encoding", "url", "urlInField", "urlField", "requestEntity", "httpLogin",
         "httpPassword", "proxyHost", "proxyPort", "socketTimeout", "connectionTimeout",
-        "closeIdleConnectionsTime", "argumentField", "argumentParameter", "argumentHeader", "queryField",
+        "closeIdleConnectionsTime", "concurrentRequests", "maxRetries", "retryDelay",
+        "requestsPerSecond", "argumentField", "argumentParameter", "argumentHeader", "queryField",
         "queryParameter", "fieldName", "resultCodeFieldName", "responseTimeFieldName", "responseHeaderFieldName" );
 
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
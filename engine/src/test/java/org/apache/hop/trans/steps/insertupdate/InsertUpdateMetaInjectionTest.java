@@ -58,6 +58,11 @@ public class InsertUpdateMetaInjectionTest extends BaseMetadataInjectionTest<Ins
         return meta.isUpdateBypassed();
       }
     } );
+    check( "SET_BASED", new BooleanGetter() {
+      public boolean get() {
+        return meta.isSetBased();
+      }
+    } );
     check( "KEY_STREAM", new StringGetter() {
       public String get() {
         return meta.getKeyStream()[ 0 ];
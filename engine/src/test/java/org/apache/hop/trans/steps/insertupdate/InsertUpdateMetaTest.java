@@ -151,7 +151,7 @@ public class InsertUpdateMetaTest {
   public void setUpLoadSave() throws Exception {
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "databaseMeta", "keyStream", "keyLookup", "keyCondition",
-        "keyStream2", "updateLookup", "updateStream", "update", "commitSize", "updateBypassed" );
+        "keyStream2", "updateLookup", "updateStream", "update", "commitSize", "updateBypassed", "setBased" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
@@ -167,6 +167,7 @@ public class InsertUpdateMetaTest {
         put( "update", "getUpdate" );
         put( "commitSize", "getCommitSizeVar" );
         put( "updateBypassed", "isUpdateBypassed" );
+        put( "setBased", "isSetBased" );
       }
     };
 
@@ -184,6 +185,7 @@ public class InsertUpdateMetaTest {
         put( "update", "setUpdate" );
         put( "commitSize", "setCommitSize" );
         put( "updateBypassed", "setUpdateBypassed" );
+        put( "setBased", "setSetBased" );
       }
     };
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
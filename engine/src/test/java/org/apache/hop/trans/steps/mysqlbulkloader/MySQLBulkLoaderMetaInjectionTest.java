@@ -96,6 +96,16 @@ public class MySQLBulkLoaderMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.getBulkSize();
       }
     } );
+    check( "LOCAL_INFILE_STREAM", new BooleanGetter() {
+      public boolean get() {
+        return meta.isLocalInfileStream();
+      }
+    } );
+    check( "STREAM_BATCH_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getStreamBatchSize();
+      }
+    } );
     check( "FIELD_TABLE", new StringGetter() {
       public String get() {
         return meta.getFieldTable()[ 0 ];
@@ -46,6 +46,7 @@ public class MySQLBulkLoaderMetaTest {
     List<String> attributes =
       Arrays.asList( /*"connection",*/ "schema", "table", "encoding", "delimiter", "enclosure",
         "escape_char", "replace", "ignore", "local", "fifo_file_name", "bulk_size",
+        "local_infile_stream", "stream_batch_size",
         "stream_name", "field_name", "field_format_ok" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
@@ -61,6 +62,8 @@ public class MySQLBulkLoaderMetaTest {
     getterMap.put( "local", "isLocalFile" );
     getterMap.put( "fifo_file_name", "getFifoFileName" );
     getterMap.put( "bulk_size", "getBulkSize" );
+    getterMap.put( "local_infile_stream", "isLocalInfileStream" );
+    getterMap.put( "stream_batch_size", "getStreamBatchSize" );
     getterMap.put( "stream_name", "getFieldTable" );
     getterMap.put( "field_name", "getFieldStream" );
     getterMap.put( "field_format_ok", "getFieldFormatType" );
@@ -78,6 +81,8 @@ public class MySQLBulkLoaderMetaTest {
     setterMap.put( "local", "setLocalFile" );
     setterMap.put( "fifo_file_name", "setFifoFileName" );
     setterMap.put( "bulk_size", "setBulkSize" );
+    setterMap.put( "local_infile_stream", "setLocalInfileStream" );
+    setterMap.put( "stream_batch_size", "setStreamBatchSize" );
     setterMap.put( "stream_name", "setFieldTable" );
     setterMap.put( "field_name", "setFieldStream" );
     setterMap.put( "field_format_ok", "setFieldFormatType" );
@@ -0,0 +1,125 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.mysqlbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MySQLLocalInfileStreamTest {
+
+  private static final MySQLLocalInfileStream.RowEncoder ENCODER = ( out, row ) ->
+    out.write( ( row[ 0 ] + "\t" + row[ 1 ] + "\n" ).getBytes( StandardCharsets.UTF_8 ) );
+
+  @Test
+  public void testStreamsAllBatches() throws Exception {
+    MySQLLocalInfileStream stream = new MySQLLocalInfileStream( ENCODER, 16 );
+    stream.start( "encoder" );
+
+    StringBuilder expected = new StringBuilder();
+    Reader reader = new Reader( stream );
+    reader.start();
+    for ( int batch = 0; batch < 10; batch++ ) {
+      List<Object[]> rows = new ArrayList<>();
+      for ( int i = 0; i < 100; i++ ) {
+        rows.add( new Object[] { batch, i } );
+        expected.append( batch ).append( '\t' ).append( i ).append( '\n' );
+      }
+      stream.putRows( rows );
+    }
+    stream.finish();
+    reader.join();
+
+    assertEquals( null, reader.error );
+    assertEquals( expected.toString(), new String( reader.data.toByteArray(), StandardCharsets.UTF_8 ) );
+    assertEquals( expected.length(), stream.getBytes() );
+    assertEquals( -1, stream.read() );
+    stream.close();
+  }
+
+  @Test
+  public void testEncodingErrorReachesReader() throws Exception {
+    MySQLLocalInfileStream stream = new MySQLLocalInfileStream( ( out, row ) -> {
+      throw new HopException( "bad row" );
+    }, 16 );
+    stream.start( "encoder" );
+    stream.putRows( Arrays.<Object[]>asList( new Object[] { 1, 2 } ) );
+
+    try {
+      stream.read( new byte[ 10 ], 0, 10 );
+      fail( "The encoding error should be thrown to the driver" );
+    } catch ( IOException e ) {
+      assertTrue( e.getCause() instanceof HopException );
+    }
+    stream.close();
+  }
+
+  @Test
+  public void testCloseUnblocksStep() throws Exception {
+    MySQLLocalInfileStream stream = new MySQLLocalInfileStream( ENCODER, 16 );
+    stream.start( "encoder" );
+    stream.close();
+
+    try {
+      // Nobody reads anymore, the buffers and the queue fill up
+      for ( int i = 0; i < 10; i++ ) {
+        stream.putRows( Arrays.<Object[]>asList( new Object[] { i, i } ) );
+      }
+      fail( "Handing rows to a closed stream should fail" );
+    } catch ( HopException e ) {
+      // expected
+    }
+  }
+
+  private static class Reader extends Thread {
+    private final MySQLLocalInfileStream stream;
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+    private volatile Exception error;
+
+    Reader( MySQLLocalInfileStream stream ) {
+      this.stream = stream;
+    }
+
+    @Override
+    public void run() {
+      try {
+        byte[] buffer = new byte[ 7 ];
+        for ( int n = stream.read( buffer, 0, buffer.length ); n >= 0; n = stream.read( buffer, 0, buffer.length ) ) {
+          data.write( buffer, 0, n );
+        }
+      } catch ( Exception e ) {
+        error = e;
+      }
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.parallelgzipcsv;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads a gzip file in regions, like step copies running in parallel. Without an index every copy decompresses the
+ * file up to its region, with the index only from the access point before it.
+ * Usage: GzipIndexBenchmark [number of step copies] [uncompressed size]
+ */
+public class GzipIndexBenchmark {
+  public static void main( String[] args ) throws IOException {
+    int copies = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 4;
+    int size = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 20000000;
+    byte[] content = csv( size );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( GZIPOutputStream gzip = new GZIPOutputStream( out ) ) {
+      gzip.write( content );
+    }
+    byte[] gzip = out.toByteArray();
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( gzip ), gzip.length, 0L );
+    long regionSize = ( content.length + copies - 1 ) / copies;
+
+    long start = System.nanoTime();
+    long skippingRead = 0;
+    for ( int copy = 0; copy < copies; copy++ ) {
+      CountingInputStream compressed = new CountingInputStream( gzip );
+      InputStream in = new GZIPInputStream( compressed, 65536 );
+      long skipped = 0;
+      while ( skipped < copy * regionSize ) {
+        skipped += in.skip( copy * regionSize - skipped );
+      }
+      readRegion( in, regionSize );
+      skippingRead += compressed.count;
+    }
+    long skippingNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    long indexedRead = 0;
+    for ( int copy = 0; copy < copies; copy++ ) {
+      CountingInputStream compressed = new CountingInputStream( gzip );
+      readRegion( index.open( compressed, copy * regionSize ), regionSize );
+      indexedRead += compressed.count;
+    }
+    long indexedNanos = System.nanoTime() - start;
+
+    System.out.println( String.format( "%d step copies reading %d bytes: %d compressed bytes read in %d ms skipping "
+        + "from the start, %d compressed bytes read in %d ms with %d access points", copies, content.length,
+      skippingRead, skippingNanos / 1000000L, indexedRead, indexedNanos / 1000000L, index.getAccessPointCount() ) );
+  }
+
+  private static void readRegion( InputStream in, long regionSize ) throws IOException {
+    byte[] buffer = new byte[ 65536 ];
+    long read = 0;
+    while ( read < regionSize ) {
+      int n = in.read( buffer, 0, (int) Math.min( buffer.length, regionSize - read ) );
+      if ( n < 0 ) {
+        break;
+      }
+      read += n;
+    }
+    in.close();
+  }
+
+  private static byte[] csv( int size ) {
+    Random random = new Random( 1 );
+    String[] values = { "alpha", "beta", "gamma", "\"quoted, text\"", "12.5", "2018-01-01" };
+    StringBuilder csv = new StringBuilder( size + 100 );
+    while ( csv.length() < size ) {
+      for ( int field = 0; field < 8; field++ ) {
+        csv.append( field > 0 ? "," : "" ).append( values[ random.nextInt( values.length ) ] )
+          .append( random.nextInt( 100000 ) );
+      }
+      csv.append( '\n' );
+    }
+    return csv.toString().getBytes( StandardCharsets.UTF_8 );
+  }
+
+  private static class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    CountingInputStream( byte[] data ) {
+      super( new ByteArrayInputStream( data ) );
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      count += b < 0 ? 0 : 1;
+      return b;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+      int n = super.read( b, off, len );
+      count += Math.max( 0, n );
+      return n;
+    }
+  }
+}
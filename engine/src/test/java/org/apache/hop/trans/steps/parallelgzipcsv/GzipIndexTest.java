@@ -0,0 +1,219 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.parallelgzipcsv;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GzipIndexTest {
+
+  private static final byte[] CONTENT = csv( 3000000 );
+
+  @Test
+  public void testOpenAtAnyOffset() throws Exception {
+    for ( int level : new int[] { Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION,
+      Deflater.BEST_COMPRESSION } ) {
+      byte[] gzip = gzip( CONTENT, level );
+      GzipIndex index = GzipIndex.build( new ByteArrayInputStream( gzip ), gzip.length, 0L, 100000L );
+      assertEquals( CONTENT.length, index.getUncompressedSize() );
+      assertTrue( index.getAccessPointCount() > 10 );
+      checkOffsets( index, gzip, CONTENT );
+    }
+  }
+
+  @Test
+  public void testMultipleMembers() throws Exception {
+    // Concatenated gzip files, one of them empty
+    ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+    int[] ends = { 700000, 700000, 1900000, CONTENT.length };
+    int start = 0;
+    for ( int end : ends ) {
+      gzip.write( gzip( Arrays.copyOfRange( CONTENT, start, end ), Deflater.DEFAULT_COMPRESSION ) );
+      start = end;
+    }
+    GzipIndex index =
+      GzipIndex.build( new ByteArrayInputStream( gzip.toByteArray() ), gzip.size(), 0L, 100000L );
+    assertEquals( CONTENT.length, index.getUncompressedSize() );
+    checkOffsets( index, gzip.toByteArray(), CONTENT );
+  }
+
+  @Test
+  public void testBgzfMembersAreIndexedFromTheirHeaders() throws Exception {
+    byte[] gzip = bgzf( CONTENT );
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( gzip ), gzip.length, 0L, 100000L );
+    assertEquals( CONTENT.length, index.getUncompressedSize() );
+    checkOffsets( index, gzip, CONTENT );
+
+    // Without a window to keep for the access points the index is tiny
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    index.write( out );
+    assertTrue( out.size() < 2000 );
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    byte[] gzip = gzip( CONTENT, Deflater.DEFAULT_COMPRESSION );
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( gzip ), gzip.length, 1234L, 100000L );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    index.write( out );
+
+    GzipIndex read = GzipIndex.read( new ByteArrayInputStream( out.toByteArray() ) );
+    assertTrue( read.isCurrent( gzip.length, 1234L ) );
+    assertFalse( read.isCurrent( gzip.length, 1235L ) );
+    assertFalse( read.isCurrent( gzip.length + 1, 1234L ) );
+    assertEquals( index.getAccessPointCount(), read.getAccessPointCount() );
+    assertEquals( CONTENT.length, read.getUncompressedSize() );
+    checkOffsets( read, gzip, CONTENT );
+  }
+
+  @Test( expected = ZipException.class )
+  public void testNotGzip() throws Exception {
+    GzipIndex.build( new ByteArrayInputStream( CONTENT ), CONTENT.length, 0L );
+  }
+
+  /**
+   * Sync flushes end with an empty stored block and mix stored blocks for data that doesn't compress in between, so
+   * blocks start at any bit.
+   */
+  @Test
+  public void testSyncFlushedFile() throws Exception {
+    Random random = new Random( 7 );
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( GZIPOutputStream gzip = new GZIPOutputStream( out, true ) ) {
+      for ( int start = 0; start < CONTENT.length; start += 65536 ) {
+        byte[] chunk = Arrays.copyOfRange( CONTENT, start, Math.min( CONTENT.length, start + 65536 ) );
+        if ( random.nextInt( 4 ) == 0 ) {
+          random.nextBytes( chunk );
+        }
+        content.write( chunk );
+        gzip.write( chunk );
+        gzip.flush();
+      }
+    }
+    byte[] gzip = out.toByteArray();
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( gzip ), gzip.length, 0L, 100000L );
+    assertEquals( content.size(), index.getUncompressedSize() );
+    assertTrue( index.getAccessPointCount() > 10 );
+    checkOffsets( index, gzip, content.toByteArray() );
+  }
+
+  private static void checkOffsets( GzipIndex index, byte[] gzip, byte[] content ) throws IOException {
+    Random random = new Random( 42 );
+    for ( int i = 0; i < 30; i++ ) {
+      int offset = i == 0 ? 0 : i == 1 ? content.length : random.nextInt( content.length );
+      int length = Math.min( 100000, content.length - offset );
+      try ( InputStream in = index.open( new ByteArrayInputStream( gzip ), offset ) ) {
+        byte[] data = new byte[ length ];
+        new DataInputStream( in ).readFully( data );
+        assertArrayEquals( "Offset " + offset, Arrays.copyOfRange( content, offset, offset + length ), data );
+        if ( offset + length == content.length ) {
+          assertEquals( -1, in.read() );
+        }
+      }
+    }
+  }
+
+  private static byte[] csv( int size ) {
+    Random random = new Random( 1 );
+    String[] values = { "alpha", "beta", "gamma", "\"quoted, text\"", "12.5", "2018-01-01" };
+    StringBuilder csv = new StringBuilder( size + 100 );
+    while ( csv.length() < size ) {
+      for ( int field = 0; field < 8; field++ ) {
+        csv.append( field > 0 ? "," : "" ).append( values[ random.nextInt( values.length ) ] )
+          .append( random.nextInt( 100000 ) );
+      }
+      csv.append( '\n' );
+    }
+    return csv.toString().getBytes( StandardCharsets.UTF_8 );
+  }
+
+  private static byte[] gzip( byte[] content, final int level ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( GZIPOutputStream gzip = new GZIPOutputStream( out ) {
+      {
+        def.setLevel( level );
+      }
+    } ) {
+      gzip.write( content );
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Compress as bgzip does: members of at most 64KB with their size in a BC extra field, ending with an empty member.
+   */
+  private static byte[] bgzf( byte[] content ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] compressed = new byte[ 70000 ];
+    int start = 0;
+    while ( true ) {
+      int length = Math.min( 60000, content.length - start );
+      Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+      deflater.setInput( content, start, length );
+      deflater.finish();
+      int compressedLength = 0;
+      while ( !deflater.finished() ) {
+        compressedLength += deflater.deflate( compressed, compressedLength, compressed.length - compressedLength );
+      }
+      deflater.end();
+      CRC32 crc = new CRC32();
+      crc.update( content, start, length );
+
+      int blockSize = 18 + compressedLength + 8 - 1;
+      out.write( new byte[] { 31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0,
+        (byte) blockSize, (byte) ( blockSize >> 8 ) } );
+      out.write( compressed, 0, compressedLength );
+      writeInt( out, (int) crc.getValue() );
+      writeInt( out, length );
+      if ( length == 0 ) {
+        return out.toByteArray();
+      }
+      start += length;
+    }
+  }
+
+  private static void writeInt( ByteArrayOutputStream out, int value ) {
+    out.write( value );
+    out.write( value >> 8 );
+    out.write( value >> 16 );
+    out.write( value >> 24 );
+  }
+}
@@ -55,8 +55,8 @@ public class ParGzipCsvInputMetaTest implements InitializerInterface<StepMetaInt
     PluginRegistry.init( false );
     List<String> attributes =
       Arrays.asList( "filename", "filenameField", "includingFilename", "rowNumField", "headerPresent", "delimiter",
-        "enclosure", "bufferSize", "lazyConversionActive", "addResultFile", "runningInParallel", "encoding",
-        "inputFields" );
+        "enclosure", "bufferSize", "lazyConversionActive", "addResultFile", "runningInParallel", "usingSeekIndex",
+        "encoding", "inputFields" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     Map<String, String> setterMap = new HashMap<String, String>();
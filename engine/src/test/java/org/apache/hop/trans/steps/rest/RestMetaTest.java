@@ -73,7 +73,8 @@ public class RestMetaTest {
     List<String> attributes =
       Arrays.asList( "applicationType", "method", "url", "urlInField", "dynamicMethod", "methodFieldName",
         "urlField", "bodyField", "httpLogin", "httpPassword", "proxyHost", "proxyPort", "preemptive",
-        "trustStoreFile", "trustStorePassword", "headerField", "headerName", "parameterField", "parameterName",
+        "trustStoreFile", "trustStorePassword", "concurrentRequests", "maxRetries", "retryDelay",
+        "requestsPerSecond", "headerField", "headerName", "parameterField", "parameterName",
         "matrixParameterField", "matrixParameterName", "fieldName", "resultCodeFieldName", "responseTimeFieldName",
         "responseHeaderFieldName" );
 
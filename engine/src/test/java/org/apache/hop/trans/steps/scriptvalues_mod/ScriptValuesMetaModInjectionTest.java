@@ -56,6 +56,11 @@ public class ScriptValuesMetaModInjectionTest extends BaseMetadataInjectionTest<
         return meta.getOptimizationLevel();
       }
     } );
+    check( "SHARED_COMPILED_SCRIPT", new BooleanGetter() {
+      public boolean get() {
+        return meta.isSharedCompiledScript();
+      }
+    } );
     check( "FIELD_NAME", new StringGetter() {
       public String get() {
         return meta.getFieldname()[ 0 ];
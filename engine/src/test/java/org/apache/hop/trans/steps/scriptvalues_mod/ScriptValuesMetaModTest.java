@@ -61,7 +61,8 @@ public class ScriptValuesMetaModTest implements InitializerInterface<StepMetaInt
     HopEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-      Arrays.asList( "fieldname", "rename", "type", "length", "precision", "replace", "jsScripts", "compatible", "optimizationLevel" );
+      Arrays.asList( "fieldname", "rename", "type", "length", "precision", "replace", "jsScripts", "compatible", "optimizationLevel",
+        "sharedCompiledScript" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
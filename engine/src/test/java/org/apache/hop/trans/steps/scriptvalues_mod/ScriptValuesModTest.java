@@ -26,6 +26,7 @@ import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.trans.TransTestingUtil;
@@ -35,6 +36,8 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
@@ -112,4 +115,37 @@ public class ScriptValuesModTest {
     Object[] row = TransTestingUtil.execute( step, meta, data, 1, false ).get( 0 );
     TransTestingUtil.assertResult( expectedRow, row );
   }
+
+  @Test
+  public void sharedCompiledScriptBindsFieldsForEveryRow() throws Exception {
+    ScriptValuesMod step = StepMockUtil.getStep( ScriptValuesMod.class, ScriptValuesMetaMod.class, "test" );
+
+    RowMeta input = new RowMeta();
+    input.addValueMeta( new ValueMetaString( "str" ) );
+    input.addValueMeta( new ValueMetaInteger( "int" ) );
+    step.setInputRowMeta( input );
+
+    step = spy( step );
+    doReturn( new Object[] { "a", 1L } ).doReturn( new Object[] { "b", null } ).when( step ).getRow();
+
+    ScriptValuesMetaMod meta = new ScriptValuesMetaMod();
+    meta.setCompatible( false );
+    meta.setSharedCompiledScript( true );
+    meta.allocate( 2 );
+    meta.setFieldname( new String[] { "str", "int" } );
+    meta.setType( new int[] { ValueMetaInterface.TYPE_STRING, ValueMetaInterface.TYPE_INTEGER } );
+    meta.setReplace( new boolean[] { true, true } );
+
+    meta.setJSScripts( new ScriptValuesScript[] {
+      new ScriptValuesScript( ScriptValuesScript.TRANSFORM_SCRIPT, "script",
+        "str = str.toUpperCase() + str.length;\nint = int == null ? -1 : int + 1;" )
+    } );
+
+    ScriptValuesModData data = new ScriptValuesModData();
+    step.init( meta, data );
+
+    List<Object[]> expected = Arrays.asList( new Object[] { "A1", 2L }, new Object[] { "B1", -1L } );
+    List<Object[]> rows = TransTestingUtil.execute( step, meta, data, 2, false );
+    TransTestingUtil.assertResult( expected, rows );
+  }
 }
@@ -346,6 +346,13 @@ public class SelectValuesTest {
       rowMeta = rm;
     }
 
+    @Override
+    public void putRows( RowMetaInterface rm, Object[][] rows, int nrRows ) throws HopStepException {
+      for ( int i = 0; i < nrRows; i++ ) {
+        putRow( rm, rows[ i ] );
+      }
+    }
+
     /**
      * Find input row set.
      *
@@ -120,6 +120,11 @@ public class TextFileOutputTest {
 
     }
 
+    @Override
+    public void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws HopStepException {
+
+    }
+
     @Override
     public void logError( String message ) {
       errors.add( new HopException( message ) );
@@ -390,6 +395,7 @@ public class TextFileOutputTest {
 
     Mockito.when( rowSet.getRowWait( Mockito.anyInt(), Mockito.any( TimeUnit.class ) ) )
       .thenReturn( rows.isEmpty() ? null : rows.iterator().next() );
+    Mockito.when( rowSet.getRowImmediate() ).thenReturn( rows.isEmpty() ? null : rows.iterator().next() );
     Mockito.when( rowSet.getRowMeta() ).thenReturn( inputRowMeta );
     Mockito.when( inputRowMeta.clone() ).thenReturn( inputRowMeta );
 
@@ -536,6 +542,31 @@ public class TextFileOutputTest {
     assertEquals( 1, textFileOutputSpy.getResultFiles().size() );
   }
 
+  @Test
+  public void testProcessRowStopsBatchWhenRowIsNotWritten() throws Exception {
+    Mockito.when( stepMockHelper.processRowsStepMetaInterface.getEncoding() ).thenReturn( "UTF-8" );
+    Mockito.when( stepMockHelper.processRowsStepMetaInterface.getOutputFields() ).thenReturn( new TextFileField[ 0 ] );
+
+    textFileOutput =
+      new TextFileOutput( stepMockHelper.stepMeta, stepMockHelper.stepDataInterface, 0, stepMockHelper.transMeta,
+        stepMockHelper.trans );
+    textFileOutput.setInputRowMeta( new RowMeta() );
+
+    Object[][] rows = { { "one" }, { "two" }, { "three" } };
+    TextFileOutput textFileOutputSpy = Mockito.spy( textFileOutput );
+    Mockito.doReturn( rows ).when( textFileOutputSpy ).getRows( Mockito.anyInt() );
+    Mockito.doNothing().when( textFileOutputSpy ).initBinaryDataFields();
+    Mockito.doReturn( true ).doReturn( false ).when( textFileOutputSpy ).writeRowTo( Mockito.any( Object[].class ) );
+    Mockito.doNothing().when( textFileOutputSpy ).putRows( Mockito.any( RowMetaInterface.class ),
+      Mockito.any( Object[][].class ), Mockito.anyInt() );
+
+    Assert.assertFalse( textFileOutputSpy.processRow( stepMockHelper.processRowsStepMetaInterface,
+      new TextFileOutputData() ) );
+    Mockito.verify( textFileOutputSpy, Mockito.times( 2 ) ).writeRowTo( Mockito.any( Object[].class ) );
+    Mockito.verify( textFileOutputSpy ).putRows( Mockito.any( RowMetaInterface.class ),
+      Mockito.any( Object[][].class ), Mockito.anyInt() );
+  }
+
   /**
    * PDI-15650
    * File Exists=N Flag Set=N Add Header=Y Append=Y
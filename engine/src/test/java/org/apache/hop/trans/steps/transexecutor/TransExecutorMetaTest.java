@@ -81,7 +81,7 @@ public class TransExecutorMetaTest {
   public void setUp() throws Exception {
 
     List<String> attributes =
-      Arrays.asList( "fileName", "groupSize", "groupField", "groupTime",
+      Arrays.asList( "fileName", "groupSize", "groupField", "groupTime", "reusingTransformation",
         "executionTimeField", "executionFilesRetrievedField", "executionLogTextField",
         "executionLogChannelIdField", "executionResultField", "executionNrErrorsField", "executionLinesReadField",
         "executionLinesWrittenField", "executionLinesInputField", "executionLinesOutputField",
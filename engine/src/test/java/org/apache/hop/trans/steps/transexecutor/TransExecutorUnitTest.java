@@ -39,9 +39,12 @@ import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.variables.VariableSpace;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.trans.Trans;
+import org.apache.hop.trans.TransHopMeta;
 import org.apache.hop.trans.TransMeta;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.steps.StepMockUtil;
+import org.apache.hop.trans.steps.rowsfromresult.RowsFromResultMeta;
+import org.apache.hop.trans.steps.rowstoresult.RowsToResultMeta;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -522,6 +525,65 @@ public class TransExecutorUnitTest {
   }
 
 
+  @Test
+  public void reusesTransformationForEveryGroup() throws Exception {
+    TransMeta subTransMeta = new TransMeta();
+    StepMeta fromResult = new StepMeta( "Get rows from result", new RowsFromResultMeta() );
+    StepMeta toResult = new StepMeta( "Copy rows to result", new RowsToResultMeta() );
+    subTransMeta.addStep( fromResult );
+    subTransMeta.addStep( toResult );
+    subTransMeta.addTransHop( new TransHopMeta( fromResult, toResult ) );
+    doReturn( subTransMeta ).when( executor ).loadExecutorTransMeta();
+    doReturn( new Trans( subTransMeta ) ).when( executor ).createInternalTrans();
+
+    meta.setReusingTransformation( true );
+    executor.init( meta, data );
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "value" ) );
+
+    data.groupBuffer.add( new RowMetaAndData( rowMeta, "a" ) );
+    Result first = executor.executeGroupInReusedTrans( null );
+    data.groupBuffer.clear();
+
+    data.groupBuffer.add( new RowMetaAndData( rowMeta, "b" ) );
+    data.groupBuffer.add( new RowMetaAndData( rowMeta, "c" ) );
+    Result second = executor.executeGroupInReusedTrans( null );
+
+    assertEquals( 0, first.getNrErrors() );
+    assertEquals( 1, first.getRows().size() );
+    assertEquals( "a", first.getRows().get( 0 ).getData()[ 0 ] );
+
+    assertEquals( 0, second.getNrErrors() );
+    assertEquals( 2, second.getRows().size() );
+    assertEquals( "b", second.getRows().get( 0 ).getData()[ 0 ] );
+    assertEquals( "c", second.getRows().get( 1 ).getData()[ 0 ] );
+
+    // Both groups ran through the same initialized transformation
+    verify( executor, times( 1 ) ).createInternalTrans();
+    assertNotNull( data.getReusedExecutor() );
+
+    executor.dispose( meta, data );
+    assertNull( data.getReusedExecutor() );
+  }
+
+  @Test
+  public void reusedTransformationNeedsRowsFromResultStep() throws Exception {
+    TransMeta subTransMeta = new TransMeta();
+    subTransMeta.addStep( new StepMeta( "Copy rows to result", new RowsToResultMeta() ) );
+    doReturn( subTransMeta ).when( executor ).loadExecutorTransMeta();
+    doReturn( new Trans( subTransMeta ) ).when( executor ).createInternalTrans();
+
+    meta.setReusingTransformation( true );
+    executor.init( meta, data );
+    data.groupBuffer.add( new RowMetaAndData( new RowMeta(), new Object[ 0 ] ) );
+
+    Result result = executor.executeGroupInReusedTrans( null );
+    assertEquals( 1, result.getNrErrors() );
+    assertFalse( result.getResult() );
+    assertNull( data.getReusedExecutor() );
+  }
+
   @Test
   public void testSafeStop() throws Exception {
     prepareOneRowForExecutor();
@@ -63,6 +63,11 @@ public class UpdateMetaInjectionTest extends BaseMetadataInjectionTest<UpdateMet
         return meta.isSkipLookup();
       }
     } );
+    check( "SET_BASED", new BooleanGetter() {
+      public boolean get() {
+        return meta.isSetBased();
+      }
+    } );
     check( "IGNORE_LOOKUP_FAILURE", new BooleanGetter() {
       public boolean get() {
         return meta.isErrorIgnored();
@@ -96,7 +96,7 @@ public class UpdateMetaTest implements InitializerInterface<StepMetaInterface> {
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "commitSize", "errorIgnored", "ignoreFlagField",
         "skipLookup", "useBatchUpdate", "keyStream", "keyLookup", "keyCondition", "keyStream2",
-        "updateLookup", "updateStream", "databaseMeta" );
+        "updateLookup", "updateStream", "databaseMeta", "setBased" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
@@ -114,6 +114,7 @@ public class UpdateMetaTest implements InitializerInterface<StepMetaInterface> {
         put( "updateLookup", "getUpdateLookup" );
         put( "updateStream", "getUpdateStream" );
         put( "databaseMeta", "getDatabaseMeta" );
+        put( "setBased", "isSetBased" );
       }
     };
     Map<String, String> setterMap = new HashMap<String, String>() {
@@ -132,6 +133,7 @@ public class UpdateMetaTest implements InitializerInterface<StepMetaInterface> {
         put( "updateLookup", "setUpdateLookup" );
         put( "updateStream", "setUpdateStream" );
         put( "databaseMeta", "setDatabaseMeta" );
+        put( "setBased", "setSetBased" );
       }
     };
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
@@ -54,7 +54,7 @@ public class WebServiceMetaLoadSaveTest {
       Arrays.asList( "url", "operationName", "operationRequestName", "operationNamespace", "inFieldContainerName",
         "inFieldArgumentName", "outFieldContainerName", "outFieldArgumentName", "proxyHost", "proxyPort", "httpLogin",
         "httpPassword", "passingInputData", "callStep", "compatible", "repeatingElementName", "returningReplyAsString",
-        "fieldsIn", "fieldsOut" );
+        "concurrentRequests", "maxRetries", "retryDelay", "requestsPerSecond", "fieldsIn", "fieldsOut" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     Map<String, String> setterMap = new HashMap<String, String>();
@@ -0,0 +1,208 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.trans.Trans;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GetLogServletTest {
+  private TransformationMap transformationMap;
+  private JobMap jobMap;
+  private GetLogServlet servlet;
+
+  private LogChannel logChannel;
+  private Trans trans;
+
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private StringWriter output;
+
+  @BeforeClass
+  public static void initLogging() {
+    HopLogStore.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    transformationMap = mock( TransformationMap.class );
+    jobMap = mock( JobMap.class );
+    servlet = new GetLogServlet( transformationMap, jobMap );
+
+    logChannel = new LogChannel( "GetLogServletTest" );
+    trans = mock( Trans.class );
+    when( trans.getLogChannelId() ).thenReturn( logChannel.getLogChannelId() );
+    when( trans.getStatus() ).thenReturn( Trans.STRING_RUNNING );
+    when( transformationMap.getTransformation( any( HopServerObjectEntry.class ) ) ).thenReturn( trans );
+
+    request = mock( HttpServletRequest.class );
+    when( request.getContextPath() ).thenReturn( GetLogServlet.CONTEXT_PATH );
+    when( request.getParameter( "name" ) ).thenReturn( "trans" );
+    when( request.getParameter( "id" ) ).thenReturn( "id" );
+
+    response = mock( HttpServletResponse.class );
+    output = new StringWriter();
+    when( response.getWriter() ).thenReturn( new PrintWriter( output ) );
+  }
+
+  @Test
+  public void testOnlyNewLinesAreReturned() throws Exception {
+    logChannel.logBasic( "first line" );
+    int cursor = HopLogStore.getLastBufferLineNr();
+    logChannel.logBasic( "second line" );
+
+    when( request.getParameter( "from" ) ).thenReturn( Integer.toString( cursor ) );
+    servlet.doGet( request, response );
+
+    assertFalse( output.toString().contains( "first line" ) );
+    assertTrue( output.toString().contains( "second line" ) );
+    verify( response ).setStatus( HttpServletResponse.SC_OK );
+    verify( response ).setHeader( GetLogServlet.HEADER_LAST_LINE_NR,
+      Integer.toString( HopLogStore.getLastBufferLineNr() ) );
+    verify( response ).setHeader( GetLogServlet.HEADER_STATUS, Trans.STRING_RUNNING );
+    verify( response ).setHeader( GetLogServlet.HEADER_FINISHED, "N" );
+  }
+
+  @Test
+  public void testWaitsForNewLines() throws Exception {
+    logChannel.logBasic( "old line" );
+    int cursor = HopLogStore.getLastBufferLineNr();
+
+    when( request.getParameter( "from" ) ).thenReturn( Integer.toString( cursor ) );
+    when( request.getParameter( "wait" ) ).thenReturn( "10" );
+    final CountDownLatch completed = mockAsyncContext();
+
+    Thread logger = new Thread( new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep( 200 );
+        } catch ( InterruptedException e ) {
+          return;
+        }
+        logChannel.logBasic( "new line" );
+      }
+    } );
+    logger.start();
+
+    servlet.doGet( request, response );
+    verify( response, never() ).setStatus( HttpServletResponse.SC_OK );
+
+    assertTrue( completed.await( 10, TimeUnit.SECONDS ) );
+    logger.join();
+    assertFalse( output.toString().contains( "old line" ) );
+    assertTrue( output.toString().contains( "new line" ) );
+    verify( response ).setStatus( HttpServletResponse.SC_OK );
+  }
+
+  @Test
+  public void testDoesNotWaitWithoutAsyncSupport() throws Exception {
+    when( request.getParameter( "from" ) ).thenReturn( Integer.toString( HopLogStore.getLastBufferLineNr() ) );
+    when( request.getParameter( "wait" ) ).thenReturn( "60" );
+
+    servlet.doGet( request, response );
+
+    verify( request, never() ).startAsync();
+    verify( response ).setStatus( HttpServletResponse.SC_OK );
+    verify( response ).setHeader( GetLogServlet.HEADER_FINISHED, "N" );
+  }
+
+  /**
+   * Makes the request asynchronous the way the server would, running the responses on a thread of their own.
+   *
+   * @return counted down once the response is complete
+   */
+  private CountDownLatch mockAsyncContext() {
+    final CountDownLatch completed = new CountDownLatch( 1 );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    when( request.isAsyncSupported() ).thenReturn( true );
+    when( request.startAsync() ).thenReturn( asyncContext );
+    when( asyncContext.getResponse() ).thenReturn( response );
+    doAnswer( new Answer<Void>() {
+      @Override
+      public Void answer( InvocationOnMock invocation ) {
+        new Thread( (Runnable) invocation.getArguments()[ 0 ] ).start();
+        return null;
+      }
+    } ).when( asyncContext ).start( any( Runnable.class ) );
+    doAnswer( new Answer<Void>() {
+      @Override
+      public Void answer( InvocationOnMock invocation ) {
+        completed.countDown();
+        return null;
+      }
+    } ).when( asyncContext ).complete();
+    return completed;
+  }
+
+  @Test
+  public void testDoesNotWaitForFinishedExecution() throws Exception {
+    when( trans.isFinishedOrStopped() ).thenReturn( true );
+    when( trans.getStatus() ).thenReturn( Trans.STRING_FINISHED );
+    when( request.getParameter( "from" ) ).thenReturn( Integer.toString( HopLogStore.getLastBufferLineNr() ) );
+    when( request.getParameter( "wait" ) ).thenReturn( "60" );
+
+    long start = System.currentTimeMillis();
+    servlet.doGet( request, response );
+
+    assertTrue( System.currentTimeMillis() - start < 5000 );
+    assertEquals( "", output.toString() );
+    verify( response ).setHeader( GetLogServlet.HEADER_FINISHED, "Y" );
+  }
+
+  @Test
+  public void testJobNotFound() throws Exception {
+    when( request.getParameter( "type" ) ).thenReturn( GetLogServlet.TYPE_JOB );
+    when( jobMap.getJob( any( HopServerObjectEntry.class ) ) ).thenReturn( null );
+
+    servlet.doGet( request, response );
+
+    verify( response ).setStatus( HttpServletResponse.SC_NOT_FOUND );
+    verify( response, never() ).setHeader( eq( GetLogServlet.HEADER_LAST_LINE_NR ), anyString() );
+  }
+}
@@ -0,0 +1,197 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.trans.Trans;
+import org.apache.hop.trans.TransListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HopServerSchedulerTest {
+
+  private SlaveServerConfig config;
+  private HopServerScheduler scheduler;
+  private List<String> started;
+
+  @Before
+  public void setUp() {
+    config = mock( SlaveServerConfig.class );
+    scheduler = new HopServerScheduler( config );
+    started = new ArrayList<>();
+  }
+
+  private boolean submitTrans( String name, int priority ) throws HopException {
+    return scheduler.submit( new HopServerObjectEntry( name, name ), HopServerScheduler.ExecutionType.TRANSFORMATION,
+      priority, () -> started.add( name ) );
+  }
+
+  private void finish( String name ) {
+    scheduler.executionFinished( new HopServerObjectEntry( name, name ) );
+  }
+
+  @Test
+  public void testStartsEverythingWithoutLimits() throws Exception {
+    assertTrue( submitTrans( "a", 0 ) );
+    assertTrue( submitTrans( "b", 0 ) );
+    assertEquals( 2, started.size() );
+    assertEquals( 0, scheduler.getQueueDepth() );
+    assertEquals( 2, scheduler.getNrRunning( HopServerScheduler.ExecutionType.TRANSFORMATION ) );
+  }
+
+  @Test
+  public void testQueuesBeyondTheLimitInPriorityOrder() throws Exception {
+    when( config.getMaxConcurrentTransformations() ).thenReturn( 1 );
+
+    assertTrue( submitTrans( "a", 0 ) );
+    assertFalse( submitTrans( "b", 0 ) );
+    assertFalse( submitTrans( "c", 5 ) );
+    assertFalse( submitTrans( "d", 0 ) );
+    assertEquals( 3, scheduler.getQueueDepth() );
+    assertTrue( scheduler.isQueued( new HopServerObjectEntry( "c", "c" ) ) );
+
+    // Jobs have their own limit
+    //
+    assertTrue( scheduler.submit( new HopServerObjectEntry( "job", "job" ), HopServerScheduler.ExecutionType.JOB, 0,
+      () -> started.add( "job" ) ) );
+
+    finish( "a" );
+    finish( "c" );
+    finish( "b" );
+    assertEquals( "[a, job, c, b, d]", started.toString() );
+    assertEquals( 0, scheduler.getQueueDepth() );
+    assertEquals( 5, scheduler.getNrStarted() );
+  }
+
+  @Test
+  public void testRejectsWhenTheQueueIsFull() throws Exception {
+    when( config.getMaxConcurrentTransformations() ).thenReturn( 1 );
+    when( config.getMaxQueuedExecutions() ).thenReturn( 1 );
+
+    submitTrans( "a", 0 );
+    submitTrans( "b", 0 );
+    try {
+      submitTrans( "c", 0 );
+      fail( "The queue is full" );
+    } catch ( HopException e ) {
+      // Expected
+    }
+    assertEquals( 1, scheduler.getNrRejected() );
+    assertEquals( 1, scheduler.getQueueDepth() );
+  }
+
+  @Test
+  public void testFullQueueDoesntRejectWhatCanStartRightAway() throws Exception {
+    when( config.getMaxConcurrentJobs() ).thenReturn( 1 );
+    when( config.getMaxQueuedExecutions() ).thenReturn( 1 );
+
+    assertTrue( scheduler.submit( new HopServerObjectEntry( "job1", "job1" ), HopServerScheduler.ExecutionType.JOB, 0,
+      () -> started.add( "job1" ) ) );
+    assertFalse( scheduler.submit( new HopServerObjectEntry( "job2", "job2" ), HopServerScheduler.ExecutionType.JOB, 0,
+      () -> started.add( "job2" ) ) );
+
+    // Transformations have free slots
+    assertTrue( submitTrans( "a", 0 ) );
+    assertEquals( 0, scheduler.getNrRejected() );
+    assertEquals( "[job1, a]", started.toString() );
+  }
+
+  @Test
+  public void testFinishedTransformationFreesItsSlot() throws Exception {
+    when( config.getMaxConcurrentTransformations() ).thenReturn( 1 );
+    Trans trans = mock( Trans.class );
+
+    assertTrue( scheduler.submitTransformation( new HopServerObjectEntry( "a", "a" ), trans, 0,
+      () -> started.add( "a" ) ) );
+    assertFalse( submitTrans( "b", 0 ) );
+
+    ArgumentCaptor<TransListener> listener = ArgumentCaptor.forClass( TransListener.class );
+    verify( trans ).addTransListener( listener.capture() );
+    listener.getValue().transFinished( trans );
+    assertEquals( "[a, b]", started.toString() );
+  }
+
+  @Test
+  public void testFreeMemoryIsAPercentage() {
+    int free = new HopServerScheduler( config ).getFreeMemoryPercentage();
+    assertTrue( free >= 0 && free <= 100 );
+  }
+
+  @Test
+  public void testCancelQueuedExecution() throws Exception {
+    when( config.getMaxConcurrentTransformations() ).thenReturn( 1 );
+
+    submitTrans( "a", 0 );
+    submitTrans( "b", 0 );
+    assertTrue( scheduler.cancel( new HopServerObjectEntry( "b", "b" ) ) );
+    assertFalse( scheduler.cancel( new HopServerObjectEntry( "b", "b" ) ) );
+
+    finish( "a" );
+    assertEquals( "[a]", started.toString() );
+  }
+
+  @Test
+  public void testWaitsForMemoryWhileSomethingRuns() throws Exception {
+    when( config.getMinFreeMemoryPercentage() ).thenReturn( 50 );
+    scheduler = new HopServerScheduler( config ) {
+      @Override
+      protected int getFreeMemoryPercentage() {
+        return 10;
+      }
+    };
+
+    assertTrue( submitTrans( "a", 0 ) );
+    assertFalse( submitTrans( "b", 0 ) );
+    finish( "a" );
+    assertEquals( "[a, b]", started.toString() );
+  }
+
+  @Test
+  public void testFailedStartFreesTheSlot() throws Exception {
+    when( config.getMaxConcurrentTransformations() ).thenReturn( 1 );
+
+    try {
+      scheduler.submit( new HopServerObjectEntry( "a", "a" ), HopServerScheduler.ExecutionType.TRANSFORMATION, 0,
+        () -> {
+          throw new HopException( "failed" );
+        } );
+      fail( "The start error should be passed on" );
+    } catch ( HopException e ) {
+      // Expected
+    }
+    assertEquals( 0, scheduler.getNrRunning( HopServerScheduler.ExecutionType.TRANSFORMATION ) );
+    assertTrue( submitTrans( "b", 0 ) );
+  }
+}
@@ -25,6 +25,7 @@ package org.apache.hop.www;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.metrics.LatencyHistogram;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.xml.XMLHandler;
@@ -106,6 +107,24 @@ public class SlaveServerTransStatusTest {
     tester.testSerialization();
   }
 
+  @Test
+  public void testEventLatencyHistogram() throws HopException {
+    SlaveServerTransStatus transStatus = new SlaveServerTransStatus( "testLatency", UUID.randomUUID().toString(),
+      Trans.STRING_RUNNING );
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record( 150000L );
+    histogram.record( 2500000L );
+    transStatus.setEventLatencyHistogram( histogram );
+
+    String resultXML = transStatus.getXML();
+    SlaveServerTransStatus restored = SlaveServerTransStatus.fromXML( resultXML );
+
+    assertEquals( resultXML, restored.getXML() );
+    assertEquals( 2, restored.getEventLatencyHistogram().getCount() );
+    assertEquals( 2500000L, restored.getEventLatencyHistogram().getMax() );
+    Assert.assertNull( new SlaveServerTransStatus().getEventLatencyHistogram() );
+  }
+
   @Test
   public void testGetXML() throws HopException {
     SlaveServerTransStatus transStatus = new SlaveServerTransStatus();
@@ -42,11 +42,15 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith( PowerMockRunner.class )
@@ -111,4 +115,41 @@ public class StartExecutionTransServletTest {
     PowerMockito.verifyStatic( atLeastOnce() );
     Encode.forHtml( anyString() );
   }
+
+  @Test
+  public void testStartExecutionIsQueuedByTheScheduler() throws Exception {
+    HopLogStore.init();
+    SlaveServerConfig config = mock( SlaveServerConfig.class );
+    when( config.getMaxConcurrentTransformations() ).thenReturn( 1 );
+    HopServerScheduler scheduler = new HopServerScheduler( config );
+    when( mockTransformationMap.getScheduler() ).thenReturn( scheduler );
+
+    // Another transformation is running already
+    //
+    HopServerObjectEntry running = new HopServerObjectEntry( "running", "running-id" );
+    scheduler.submit( running, HopServerScheduler.ExecutionType.TRANSFORMATION, 0, () -> { } );
+
+    HttpServletRequest mockHttpServletRequest = mock( HttpServletRequest.class );
+    HttpServletResponse mockHttpServletResponse = mock( HttpServletResponse.class );
+    Trans mockTrans = mock( Trans.class );
+    StringWriter out = new StringWriter();
+    when( mockHttpServletRequest.getContextPath() ).thenReturn( StartExecutionTransServlet.CONTEXT_PATH );
+    when( mockHttpServletRequest.getParameter( "name" ) ).thenReturn( "trans" );
+    when( mockHttpServletRequest.getParameter( "id" ) ).thenReturn( "trans-id" );
+    when( mockHttpServletRequest.getParameter( "xml" ) ).thenReturn( "Y" );
+    when( mockHttpServletResponse.getWriter() ).thenReturn( new PrintWriter( out ) );
+    when( mockTransformationMap.getTransformation( any( HopServerObjectEntry.class ) ) ).thenReturn( mockTrans );
+    when( mockTrans.isReadyToStart() ).thenReturn( true );
+
+    startExecutionTransServlet.doGet( mockHttpServletRequest, mockHttpServletResponse );
+
+    verify( mockTrans, never() ).startThreads();
+    assertTrue( scheduler.isQueued( new HopServerObjectEntry( "trans", "trans-id" ) ) );
+    assertTrue( out.toString().contains( WebResult.STRING_OK ) );
+
+    scheduler.executionFinished( running );
+
+    verify( mockTrans ).startThreads();
+    assertEquals( 0, scheduler.getQueueDepth() );
+  }
 }
@@ -0,0 +1,106 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.combinationlookup;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.util.SerializedKeyIndex;
+
+import java.util.Arrays;
+
+/**
+ * A compact index from natural key combinations to technical keys, able to hold a complete junk dimension in memory.
+ * <p>
+ * The natural keys are held in a {@link SerializedKeyIndex}, the technical keys are kept as primitive longs next to
+ * it. Only use it for keys where {@link SerializedKeyIndex#canIndex(RowMetaInterface)} holds.
+ * <p>
+ * The values handed to the index need to be in normal storage and of the type of the key metadata.
+ */
+public class CombinationKeyIndex {
+
+  /**
+   * Returned by {@link #get(Object[])} for a key combination that is not in the index
+   */
+  public static final long NOT_FOUND = Long.MIN_VALUE;
+
+  private final SerializedKeyIndex keys;
+
+  // The technical key of every entry of the key index
+  //
+  private long[] technicalKeys;
+
+  /**
+   * @param keyMeta      the layout of the natural key, the values are serialized in normal storage
+   * @param expectedSize the number of entries to size the index for
+   */
+  public CombinationKeyIndex( RowMetaInterface keyMeta, int expectedSize ) {
+    keys = new SerializedKeyIndex( keyMeta, expectedSize );
+    technicalKeys = new long[ Math.max( 16, Math.min( expectedSize, 1 << 20 ) ) ];
+  }
+
+  /**
+   * @param key the natural key values
+   * @return the technical key of the combination or {@link #NOT_FOUND}
+   */
+  public long get( Object[] key ) throws HopException {
+    int entry = keys.find( key );
+    return entry == SerializedKeyIndex.NOT_FOUND ? NOT_FOUND : technicalKeys[ entry ];
+  }
+
+  /**
+   * Add a key combination or change its technical key.
+   *
+   * @param key          the natural key values
+   * @param technicalKey the technical key
+   * @return the previous technical key of the combination or {@link #NOT_FOUND}
+   */
+  public long put( Object[] key, long technicalKey ) throws HopException {
+    int size = keys.size();
+    int entry = keys.add( key );
+    if ( entry < size ) {
+      long previous = technicalKeys[ entry ];
+      technicalKeys[ entry ] = technicalKey;
+      return previous;
+    }
+
+    if ( entry == technicalKeys.length ) {
+      technicalKeys = Arrays.copyOf( technicalKeys, technicalKeys.length + ( technicalKeys.length >> 1 ) );
+    }
+    technicalKeys[ entry ] = technicalKey;
+    return NOT_FOUND;
+  }
+
+  /**
+   * @return the number of key combinations in the index
+   */
+  public int size() {
+    return keys.size();
+  }
+
+  /**
+   * @return an estimate of the memory used by the index, in bytes
+   */
+  public long getMemorySize() {
+    return keys.getMemorySize() + 8L * technicalKeys.length;
+  }
+}
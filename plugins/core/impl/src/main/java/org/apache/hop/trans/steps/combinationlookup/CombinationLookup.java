@@ -36,6 +36,7 @@ import org.apache.hop.core.row.RowMetaInterface;
 import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.core.row.value.ValueMetaDate;
 import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.util.SerializedKeyIndex;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.trans.Trans;
@@ -212,6 +213,17 @@ public class CombinationLookup extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Looks up a key combination in the compact key index, leaving its normalized values in data.indexKey.
+   */
+  private Long lookupInIndex( Object[] hashRow ) throws HopException {
+    for ( int i = 0; i < data.indexKey.length; i++ ) {
+      data.indexKey[ i ] = data.hashRowMeta.getValueMeta( i ).convertToNormalStorageType( hashRow[ i ] );
+    }
+    long tk = data.keyIndex.get( data.indexKey );
+    return tk == CombinationKeyIndex.NOT_FOUND ? null : tk;
+  }
+
   protected boolean isAutoIncrement() {
     return techKeyCreation == CREATION_METHOD_AUTOINC;
   }
@@ -225,7 +237,7 @@ public class CombinationLookup extends BaseStep implements StepInterface {
     Object[] lookupRow = new Object[ data.lookupRowMeta.size() ];
     int lookupIndex = 0;
 
-    if ( meta.useHash() || meta.getCacheSize() >= 0 ) {
+    if ( meta.useHash() || meta.getCacheSize() >= 0 || data.keyIndex != null ) {
       hashRow = new Object[ data.hashRowMeta.size() ];
       for ( int i = 0; i < meta.getKeyField().length; i++ ) {
         hashRow[ i ] = row[ data.keynrs[ i ] ];
@@ -258,11 +270,19 @@ public class CombinationLookup extends BaseStep implements StepInterface {
     }
 
     // Before doing the actual lookup in the database, see if it's not in the cache...
-    val_key = lookupInCache( data.hashRowMeta, hashRow );
+    if ( data.keyIndex != null ) {
+      val_key = lookupInIndex( hashRow );
+    } else {
+      val_key = lookupInCache( data.hashRowMeta, hashRow );
+    }
     if ( val_key == null ) {
-      data.db.setValues( data.lookupRowMeta, lookupRow, data.prepStatementLookup );
-      Object[] add = data.db.getLookup( data.prepStatementLookup );
-      incrementLinesInput();
+      // The key index holds the complete dimension: a combination that isn't in it is new
+      Object[] add = null;
+      if ( data.keyIndex == null ) {
+        data.db.setValues( data.lookupRowMeta, lookupRow, data.prepStatementLookup );
+        add = data.db.getLookup( data.prepStatementLookup );
+        incrementLinesInput();
+      }
 
       if ( add == null ) { // The dimension entry was not found, we need to add it!
         // First try to use an AUTOINCREMENT field
@@ -297,7 +317,11 @@ public class CombinationLookup extends BaseStep implements StepInterface {
         }
 
         // Also store it in our Hashtable...
-        addToCache( data.hashRowMeta, hashRow, val_key );
+        if ( data.keyIndex != null ) {
+          data.keyIndex.put( data.indexKey, val_key );
+        } else {
+          addToCache( data.hashRowMeta, hashRow, val_key );
+        }
       } else {
         // Entry already exists...
         //
@@ -334,6 +358,11 @@ public class CombinationLookup extends BaseStep implements StepInterface {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     // if no more input to be expected set done
     if ( r == null ) {
+      // Send the last batch of new combinations
+      if ( data.batchInserts && data.prepStatementInsert != null ) {
+        data.db.emptyAndCommit( data.prepStatementInsert, true );
+        data.prepStatementInsert = null;
+      }
       setOutputDone();
       return false;
     }
@@ -383,7 +412,21 @@ public class CombinationLookup extends BaseStep implements StepInterface {
       }
 
       setCombiLookup( getInputRowMeta() );
-      preloadCache( data.hashRowMeta );
+      if ( meta.getCompactCache() && SerializedKeyIndex.canIndex( data.hashRowMeta ) ) {
+        preloadKeyIndex();
+      } else {
+        if ( meta.getCompactCache() ) {
+          // The index would tell keys apart that the lookup considers the same, e.g. strings ignoring case
+          logBasic( BaseMessages.getString( PKG, "CombinationLookup.Log.KeyIndexNotUsed" ) );
+        }
+        preloadCache( data.hashRowMeta );
+      }
+
+      // Without lookups in between, the technical keys of new combinations are known up front and the inserts can be
+      // sent in batches. Generated keys need an insert per row.
+      //
+      data.batchInserts = data.keyIndex != null && !isAutoIncrement() && !getStepMeta().isDoingErrorHandling()
+        && meta.getCommitSize() > 0 && data.db.getUseBatchInsert( true );
     }
 
     try {
@@ -630,7 +673,7 @@ public class CombinationLookup extends BaseStep implements StepInterface {
       data.db.setValues( data.insertRowMeta, insertRow, data.prepStatementInsert );
 
       debug = "Insert row";
-      data.db.insertRow( data.prepStatementInsert );
+      data.db.insertRow( data.prepStatementInsert, data.batchInserts );
 
       debug = "Retrieve key";
       if ( isAutoIncrement() && databaseMeta.supportsAutoGeneratedKeys() ) {
@@ -807,5 +850,57 @@ public class CombinationLookup extends BaseStep implements StepInterface {
 
   }
 
+  /**
+   * Streams the complete dimension into a compact key index. The index is never reduced so a combination that isn't in
+   * it doesn't exist in the dimension: no more lookups are needed. This assumes no one else adds combinations to the
+   * dimension while the step runs.
+   *
+   * @throws HopException If something went wrong while reading the dimension
+   */
+  private void preloadKeyIndex() throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    /* SELECT <retval>, key1, key2, key3 FROM <table>
+     */
+    String sql = "SELECT " + databaseMeta.quoteField( meta.getTechnicalKeyField() );
+    for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+      sql += ", " + databaseMeta.quoteField( meta.getKeyLookup()[ i ] );
+    }
+    sql += Const.CR + "FROM " + data.schemaTable + Const.CR;
+
+    if ( log.isDebug() ) {
+      logDebug( "Using key index preload statement:" + Const.CR + sql );
+    }
 
+    data.keyIndex = new CombinationKeyIndex( data.hashRowMeta, Math.max( meta.getCacheSize(), 0 ) );
+    data.indexKey = new Object[ data.hashRowMeta.size() ];
+
+    ResultSet resultSet = data.db.openQuery( databaseMeta.stripCR( sql ) );
+    try {
+      RowMetaInterface dimensionRowMeta = data.db.getReturnRowMeta();
+      for ( Object[] dimensionRow = data.db.getRow( resultSet ); dimensionRow != null;
+            dimensionRow = data.db.getRow( resultSet ) ) {
+        Long tk = dimensionRowMeta.getInteger( dimensionRow, 0 );
+        if ( tk == null ) {
+          continue;
+        }
+        for ( int i = 0; i < data.indexKey.length; i++ ) {
+          ValueMetaInterface keyMeta = data.hashRowMeta.getValueMeta( i );
+          data.indexKey[ i ] = keyMeta.convertData( dimensionRowMeta.getValueMeta( i + 1 ), dimensionRow[ i + 1 ] );
+        }
+
+        // Keep the smallest technical key of duplicate combinations, like the cache preload does
+        long previous = data.keyIndex.put( data.indexKey, tk );
+        if ( previous != CombinationKeyIndex.NOT_FOUND && previous < tk ) {
+          data.keyIndex.put( data.indexKey, previous );
+        }
+        incrementLinesInput();
+      }
+    } finally {
+      data.db.closeQuery( resultSet );
+    }
+
+    logBasic( BaseMessages.getString( PKG, "CombinationLookup.Log.KeyIndexPreloaded", data.keyIndex.size(),
+      data.keyIndex.getMemorySize() / ( 1024 * 1024 ) ) );
+  }
 }
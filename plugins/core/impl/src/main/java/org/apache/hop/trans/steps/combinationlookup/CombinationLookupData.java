@@ -41,6 +41,17 @@ public class CombinationLookupData extends BaseStepData implements StepDataInter
 
   public Map<RowMetaAndData, Long> cache;
 
+  /**
+   * The complete dimension, when preloaded into a compact index
+   */
+  public CombinationKeyIndex keyIndex;
+  public Object[] indexKey;
+
+  /**
+   * Insert new combinations in batches, when the key index makes the lookups unnecessary
+   */
+  public boolean batchInserts;
+
   public RowMetaInterface outputRowMeta;
   public RowMetaInterface lookupRowMeta;
   public RowMetaInterface insertRowMeta;
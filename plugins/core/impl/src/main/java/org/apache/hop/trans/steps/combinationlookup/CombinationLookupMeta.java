@@ -153,6 +153,12 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
   @Injection( name = "PRELOAD_CACHE" )
   private boolean preloadCache = false;
 
+  /**
+   * Preload the complete dimension into a compact key index, defaults to false
+   */
+  @Injection( name = "COMPACT_CACHE" )
+  private boolean compactCache = false;
+
   /**
    * Limit the cache size to this!
    */
@@ -314,6 +320,20 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
     return preloadCache;
   }
 
+  /**
+   * @param compactCache true to preload the complete dimension into a compact key index
+   */
+  public void setCompactCache( boolean compactCache ) {
+    this.compactCache = compactCache;
+  }
+
+  /**
+   * @return Returns true if the complete dimension is preloaded into a compact key index.
+   */
+  public boolean getCompactCache() {
+    return compactCache;
+  }
+
   /**
    * @return Returns the sequenceFrom.
    */
@@ -424,6 +444,7 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
 
       replaceFields = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "replace" ) );
       preloadCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preloadCache" ) );
+      compactCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compactCache" ) );
       useHash = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "crc" ) );
 
       hashField = XMLHandler.getTagValue( stepnode, "crcfield" );
@@ -465,6 +486,7 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
     cacheSize = DEFAULT_CACHE_SIZE;
     replaceFields = false;
     preloadCache = false;
+    compactCache = false;
     useHash = false;
     hashField = "hashcode";
     int nrkeys = 0;
@@ -512,6 +534,7 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
     retval.append( "      " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "replace", replaceFields ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "preloadCache", preloadCache ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "compactCache", compactCache ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "crc", useHash ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "crcfield", hashField ) );
 
@@ -1004,6 +1027,9 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
     if ( getPreloadCache() != o.getPreloadCache() ) {
       return false;
     }
+    if ( getCompactCache() != o.getCompactCache() ) {
+      return false;
+    }
     if ( ( getSequenceFrom() == null && o.getSequenceFrom() != null )
       || ( getSequenceFrom() != null && o.getSequenceFrom() == null )
       || ( getSequenceFrom() != null && o.getSequenceFrom() != null && !getSequenceFrom().equals(
@@ -1047,7 +1073,8 @@ public class CombinationLookupMeta extends BaseStepMeta implements StepMetaInter
   @Override
   public int hashCode() {
     return Objects.hash( getCommitSize(), getCacheSize(), getTechKeyCreation(), replaceFields(), useHash(),
-      getPreloadCache(), getSequenceFrom(), getSchemaName(), getTableName(), getHashField(), getTechnicalKeyField() );
+      getPreloadCache(), getCompactCache(), getSequenceFrom(), getSchemaName(), getTableName(), getHashField(),
+      getTechnicalKeyField() );
   }
 
   /**
@@ -0,0 +1,93 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.combinationlookup;
+
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class CombinationKeyIndexTest {
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "name" ) );
+    keyMeta.addValueMeta( new ValueMetaInteger( "nr" ) );
+    keyMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    CombinationKeyIndex index = new CombinationKeyIndex( keyMeta, 0 );
+
+    Date date = new Date( 1234567890L );
+    assertEquals( CombinationKeyIndex.NOT_FOUND, index.put( new Object[] { "a", 1L, date }, 10L ) );
+    assertEquals( CombinationKeyIndex.NOT_FOUND, index.put( new Object[] { "a", 2L, date }, 11L ) );
+    assertEquals( CombinationKeyIndex.NOT_FOUND, index.put( new Object[] { null, null, null }, 12L ) );
+
+    assertEquals( 10L, index.get( new Object[] { "a", 1L, new Date( 1234567890L ) } ) );
+    assertEquals( 11L, index.get( new Object[] { "a", 2L, date } ) );
+    assertEquals( 12L, index.get( new Object[] { null, null, null } ) );
+    assertEquals( CombinationKeyIndex.NOT_FOUND, index.get( new Object[] { "a", null, date } ) );
+    assertEquals( CombinationKeyIndex.NOT_FOUND, index.get( new Object[] { "b", 1L, date } ) );
+
+    assertEquals( 10L, index.put( new Object[] { "a", 1L, date }, 20L ) );
+    assertEquals( 20L, index.get( new Object[] { "a", 1L, date } ) );
+    assertEquals( 3, index.size() );
+  }
+
+  @Test
+  public void testBigNumberScale() throws Exception {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaBigNumber( "amount" ) );
+    CombinationKeyIndex index = new CombinationKeyIndex( keyMeta, 0 );
+
+    index.put( new Object[] { new BigDecimal( "1.50" ) }, 1L );
+    index.put( new Object[] { new BigDecimal( "0.00" ) }, 2L );
+    assertEquals( 1L, index.get( new Object[] { new BigDecimal( "1.5" ) } ) );
+    assertEquals( 2L, index.get( new Object[] { BigDecimal.ZERO } ) );
+  }
+
+  @Test
+  public void testGrowth() throws Exception {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "name" ) );
+    keyMeta.addValueMeta( new ValueMetaInteger( "nr" ) );
+    CombinationKeyIndex index = new CombinationKeyIndex( keyMeta, 10 );
+
+    int count = 200000;
+    for ( int i = 0; i < count; i++ ) {
+      index.put( new Object[] { "key" + ( i % 1000 ), (long) i }, i * 2L );
+    }
+    assertEquals( count, index.size() );
+    for ( int i = 0; i < count; i++ ) {
+      assertEquals( i * 2L, index.get( new Object[] { "key" + ( i % 1000 ), (long) i } ) );
+    }
+    assertEquals( CombinationKeyIndex.NOT_FOUND, index.get( new Object[] { "key1", 0L } ) );
+  }
+}
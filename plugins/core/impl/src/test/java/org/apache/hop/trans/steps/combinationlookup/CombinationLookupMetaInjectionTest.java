@@ -93,6 +93,11 @@ public class CombinationLookupMetaInjectionTest extends BaseMetadataInjectionTes
         return meta.getPreloadCache();
       }
     } );
+    check( "COMPACT_CACHE", new BooleanGetter() {
+      public boolean get() {
+        return meta.getCompactCache();
+      }
+    } );
     check( "CACHE_SIZE", new IntGetter() {
       public int get() {
         return meta.getCacheSize();
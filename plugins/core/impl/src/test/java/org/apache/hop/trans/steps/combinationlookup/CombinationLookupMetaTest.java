@@ -61,7 +61,8 @@ public class CombinationLookupMetaTest implements InitializerInterface<StepMetaI
     HopEnvironment.init();
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "databaseMeta", "replaceFields", "keyField", "keyLookup",
-        "useHash", "hashField", "technicalKeyField", "sequenceFrom", "commitSize", "preloadCache", "cacheSize",
+        "useHash", "hashField", "technicalKeyField", "sequenceFrom", "commitSize", "preloadCache", "compactCache",
+        "cacheSize",
         "useAutoinc", "techKeyCreation", "lastUpdateField" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
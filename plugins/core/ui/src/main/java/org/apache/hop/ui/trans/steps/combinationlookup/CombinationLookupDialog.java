@@ -105,6 +105,9 @@ public class CombinationLookupDialog extends BaseStepDialog implements StepDialo
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlCompactCache;
+  private Button wCompactCache;
+
   private Label wlTk;
   private Text wTk;
 
@@ -335,6 +338,24 @@ public class CombinationLookupDialog extends BaseStepDialog implements StepDialo
     fdPreloadCache.right = new FormAttachment( 100, 0 );
     wPreloadCache.setLayoutData( fdPreloadCache );
 
+    // Compact Cache
+    wlCompactCache = new Label( shell, SWT.RIGHT );
+    wlCompactCache.setText( BaseMessages.getString( PKG, "CombinationLookupDialog.CompactCache.Label" ) );
+    props.setLook( wlCompactCache );
+    FormData fdlCompactCache = new FormData();
+    fdlCompactCache.top = new FormAttachment( wPreloadCache, margin );
+    fdlCompactCache.left = new FormAttachment( wCommit, margin );
+    fdlCompactCache.right = new FormAttachment( middle + 2 * ( 100 - middle ) / 3, -margin );
+    wlCompactCache.setLayoutData( fdlCompactCache );
+    wCompactCache = new Button( shell, SWT.CHECK );
+    props.setLook( wCompactCache );
+    FormData fdCompactCache = new FormData();
+    fdCompactCache.top = new FormAttachment( wPreloadCache, margin );
+    fdCompactCache.left = new FormAttachment( wlCompactCache, margin );
+    fdCompactCache.right = new FormAttachment( 100, 0 );
+    wCompactCache.setLayoutData( fdCompactCache );
+    wCompactCache.setToolTipText( BaseMessages.getString( PKG, "CombinationLookupDialog.CompactCache.ToolTip" ) );
+
     //
     // The Lookup fields: usually the (business) key
     //
@@ -343,7 +364,7 @@ public class CombinationLookupDialog extends BaseStepDialog implements StepDialo
     props.setLook( wlKey );
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wlPreloadCache, margin );
+    fdlKey.top = new FormAttachment( wlCompactCache, margin );
     fdlKey.right = new FormAttachment( 100, 0 );
     wlKey.setLayoutData( fdlKey );
 
@@ -784,6 +805,7 @@ public class CombinationLookupDialog extends BaseStepDialog implements StepDialo
     }
 
     wPreloadCache.setSelection( input.getPreloadCache() );
+    wCompactCache.setSelection( input.getCompactCache() );
     wReplace.setSelection( input.replaceFields() );
     wHashcode.setSelection( input.useHash() );
     wHashfield.setEnabled( input.useHash() );
@@ -901,6 +923,7 @@ public class CombinationLookupDialog extends BaseStepDialog implements StepDialo
     }
 
     in.setPreloadCache( wPreloadCache.getSelection() );
+    in.setCompactCache( wCompactCache.getSelection() );
     in.setUseAutoinc( wAutoinc.getSelection() && wAutoinc.isEnabled() );
     in.setReplaceFields( wReplace.getSelection() );
     in.setUseHash( wHashcode.getSelection() );
@@ -89,6 +89,11 @@ public class DB2DatabaseMeta extends BaseDatabaseMeta implements DatabaseInterfa
     return "ALTER TABLE " + tableName + " ACTIVATE NOT LOGGED INITIALLY WITH EMPTY TABLE";
   }
 
+  @Override
+  public boolean supportsMergeStatement() {
+    return true;
+  }
+
   /**
    * Generates the SQL statement to add a column to the specified table
    *
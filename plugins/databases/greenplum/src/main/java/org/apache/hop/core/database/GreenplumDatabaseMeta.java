@@ -54,4 +54,12 @@ public class GreenplumDatabaseMeta extends PostgreSQLDatabaseMeta implements Dat
   public boolean supportsErrorHandlingOnBatchUpdates() {
     return false;
   }
+
+  /**
+   * @return false: Greenplum doesn't know INSERT ... ON CONFLICT
+   */
+  @Override
+  public boolean supportsMergeStatement() {
+    return false;
+  }
 }
@@ -39,6 +39,7 @@ public class GreeplumDatabaseMetaTest extends PostgreSQLDatabaseMetaTest {
     assertTrue( ( meta1Reserved.length + 1 ) == ( meta2Reserved.length ) ); // adds ERRORS
     assertEquals( "ERRORS", meta2Reserved[ meta2Reserved.length - 1 ] );
     assertFalse( meta2.supportsErrorHandlingOnBatchUpdates() );
+    assertFalse( meta2.supportsMergeStatement() );
   }
 
 
@@ -548,4 +548,33 @@ public class MSSQLServerDatabaseMeta extends BaseDatabaseMeta implements Databas
     return true;
   }
 
+  @Override
+  public boolean supportsMergeStatement() {
+    return true;
+  }
+
+  /**
+   * @return a local temporary table, only visible to this connection
+   */
+  @Override
+  public String getStagingTableName( String tableName ) {
+    return "#" + tableName;
+  }
+
+  /**
+   * SQL Server wants a MERGE statement to be terminated.
+   */
+  @Override
+  public String getMergeStatement( String tableName, String stagingTableName, String[] keyFields,
+                                   String[] insertFields, String[] updateFields ) {
+    return super.getMergeStatement( tableName, stagingTableName, keyFields, insertFields, updateFields ) + ";";
+  }
+
+  @Override
+  public String getUpdateFromStatement( String tableName, String stagingTableName, String[] keyFields,
+                                        String[] updateFields ) {
+    return "UPDATE t SET " + getStagingSetClause( "s", updateFields ) + " FROM " + tableName + " t INNER JOIN "
+      + stagingTableName + " s ON " + getStagingJoinCondition( "t", "s", keyFields );
+  }
+
 }
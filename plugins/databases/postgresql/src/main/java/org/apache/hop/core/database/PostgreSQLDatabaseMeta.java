@@ -510,6 +510,45 @@ public class PostgreSQLDatabaseMeta extends BaseDatabaseMeta implements Database
     return false;
   }
 
+  /**
+   * @return true: INSERT ... ON CONFLICT is available as of PostgreSQL 9.5
+   */
+  @Override
+  public boolean supportsMergeStatement() {
+    return true;
+  }
+
+  @Override
+  public String getCreateStagingTableStatement( String tableName, String fieldDefinitions ) {
+    return "CREATE TEMPORARY TABLE " + tableName + " ( " + fieldDefinitions + " )";
+  }
+
+  /**
+   * ON CONFLICT needs a unique index or constraint on the key fields of the target table.
+   */
+  @Override
+  public String getMergeStatement( String tableName, String stagingTableName, String[] keyFields,
+                                   String[] insertFields, String[] updateFields ) {
+    String fields = String.join( ", ", insertFields );
+    StringBuilder sql = new StringBuilder( 200 );
+    sql.append( "INSERT INTO " ).append( tableName ).append( " ( " ).append( fields ).append( " ) SELECT " )
+      .append( fields ).append( " FROM " ).append( stagingTableName ).append( " ON CONFLICT ( " )
+      .append( String.join( ", ", keyFields ) ).append( " ) DO " );
+    if ( updateFields.length > 0 ) {
+      sql.append( "UPDATE SET " ).append( getStagingSetClause( "EXCLUDED", updateFields ) );
+    } else {
+      sql.append( "NOTHING" );
+    }
+    return sql.toString();
+  }
+
+  @Override
+  public String getUpdateFromStatement( String tableName, String stagingTableName, String[] keyFields,
+                                        String[] updateFields ) {
+    return "UPDATE " + tableName + " t SET " + getStagingSetClause( "s", updateFields ) + " FROM "
+      + stagingTableName + " s WHERE " + getStagingJoinCondition( "t", "s", keyFields );
+  }
+
   /**
    * PG needs the extra E in front of the string before it allows you to quote it. Imagine that.
    *
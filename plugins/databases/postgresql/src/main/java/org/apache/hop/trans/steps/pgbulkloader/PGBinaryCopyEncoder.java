@@ -0,0 +1,378 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * Writes rows in the binary format of COPY ... FROM STDIN (FORMAT binary). The values are taken in their native form
+ * from the value metadata and sent in the binary representation of the type of the target column, which saves
+ * formatting them as text on our side and parsing them again on the server.
+ */
+public class PGBinaryCopyEncoder implements PGCopyEncoder {
+
+  /**
+   * The file header signature: PGCOPY\n\377\r\n\0
+   */
+  static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+  /**
+   * PostgreSQL counts dates and timestamps from 2000-01-01
+   */
+  private static final long PG_EPOCH_DAY = LocalDate.of( 2000, 1, 1 ).toEpochDay();
+  private static final long PG_EPOCH_SECONDS = PG_EPOCH_DAY * 86400L;
+  private static final LocalDateTime PG_EPOCH = LocalDateTime.of( 2000, 1, 1, 0, 0 );
+
+  private static final int NUMERIC_POS = 0x0000;
+  private static final int NUMERIC_NEG = 0x4000;
+
+  private static final int TYPE_INT2 = 1;
+  private static final int TYPE_INT4 = 2;
+  private static final int TYPE_INT8 = 3;
+  private static final int TYPE_FLOAT4 = 4;
+  private static final int TYPE_FLOAT8 = 5;
+  private static final int TYPE_NUMERIC = 6;
+  private static final int TYPE_BOOL = 7;
+  private static final int TYPE_TEXT = 8;
+  private static final int TYPE_DATE = 9;
+  private static final int TYPE_TIMESTAMP = 10;
+  private static final int TYPE_TIMESTAMPTZ = 11;
+  private static final int TYPE_BYTEA = 12;
+
+  private final int[] keynrs;
+  private final int[] types;
+  private final Charset clientEncoding;
+  private final byte[] scratch = new byte[ 8 ];
+
+  /**
+   * @param keynrs         the indexes of the fields to load in the rows
+   * @param columnTypes    the PostgreSQL type names of the target columns, in the same order
+   * @param clientEncoding the encoding of the connection, used for the text types
+   * @throws HopException in case one of the column types is not supported, see {@link #isSupported(String)}
+   */
+  public PGBinaryCopyEncoder( int[] keynrs, String[] columnTypes, Charset clientEncoding ) throws HopException {
+    this.keynrs = keynrs;
+    this.clientEncoding = clientEncoding;
+    this.types = new int[ columnTypes.length ];
+    for ( int i = 0; i < columnTypes.length; i++ ) {
+      types[ i ] = getType( columnTypes[ i ] );
+      if ( types[ i ] < 0 ) {
+        throw new HopException( "Column type " + columnTypes[ i ] + " is not supported in the binary COPY format" );
+      }
+    }
+  }
+
+  /**
+   * @param columnType the PostgreSQL type name of a column, as reported by the JDBC driver
+   * @return true if values can be sent in binary for columns of this type
+   */
+  public static boolean isSupported( String columnType ) {
+    return getType( columnType ) >= 0;
+  }
+
+  private static int getType( String columnType ) {
+    if ( columnType == null ) {
+      return -1;
+    }
+    switch ( columnType.toLowerCase() ) {
+      case "int2":
+        return TYPE_INT2;
+      case "int4":
+      case "serial":
+        return TYPE_INT4;
+      case "int8":
+      case "bigserial":
+        return TYPE_INT8;
+      case "float4":
+        return TYPE_FLOAT4;
+      case "float8":
+        return TYPE_FLOAT8;
+      case "numeric":
+        return TYPE_NUMERIC;
+      case "bool":
+        return TYPE_BOOL;
+      case "text":
+      case "varchar":
+      case "bpchar":
+        return TYPE_TEXT;
+      case "date":
+        return TYPE_DATE;
+      case "timestamp":
+        return TYPE_TIMESTAMP;
+      case "timestamptz":
+        return TYPE_TIMESTAMPTZ;
+      case "bytea":
+        return TYPE_BYTEA;
+      default:
+        return -1;
+    }
+  }
+
+  @Override
+  public void writeHeader( OutputStream out ) throws IOException {
+    out.write( SIGNATURE );
+    writeInt( out, 0 ); // flags
+    writeInt( out, 0 ); // header extension length
+  }
+
+  @Override
+  public void writeRow( OutputStream out, RowMetaInterface rowMeta, Object[] row ) throws HopException, IOException {
+    writeShort( out, keynrs.length );
+
+    for ( int i = 0; i < keynrs.length; i++ ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( keynrs[ i ] );
+      Object valueData = row[ keynrs[ i ] ];
+      if ( valueData == null ) {
+        writeInt( out, -1 );
+        continue;
+      }
+
+      switch ( types[ i ] ) {
+        case TYPE_INT2:
+        case TYPE_INT4:
+        case TYPE_INT8:
+          writeInteger( out, valueMeta, valueMeta.getInteger( valueData ), types[ i ] );
+          break;
+        case TYPE_FLOAT4:
+          Double float4 = valueMeta.getNumber( valueData );
+          if ( float4 == null ) {
+            writeInt( out, -1 );
+          } else {
+            writeInt( out, 4 );
+            writeInt( out, Float.floatToIntBits( float4.floatValue() ) );
+          }
+          break;
+        case TYPE_FLOAT8:
+          Double float8 = valueMeta.getNumber( valueData );
+          if ( float8 == null ) {
+            writeInt( out, -1 );
+          } else {
+            writeInt( out, 8 );
+            writeLong( out, Double.doubleToLongBits( float8 ) );
+          }
+          break;
+        case TYPE_NUMERIC:
+          writeNumeric( out, valueMeta.getBigNumber( valueData ) );
+          break;
+        case TYPE_BOOL:
+          Boolean bool = valueMeta.getBoolean( valueData );
+          if ( bool == null ) {
+            writeInt( out, -1 );
+          } else {
+            writeInt( out, 1 );
+            out.write( bool ? 1 : 0 );
+          }
+          break;
+        case TYPE_TEXT:
+          String string = valueMeta.getString( valueData );
+          writeBytes( out, string == null ? null : string.getBytes( clientEncoding ) );
+          break;
+        case TYPE_DATE:
+          Date date = valueMeta.getDate( valueData );
+          if ( date == null ) {
+            writeInt( out, -1 );
+          } else {
+            writeInt( out, 4 );
+            writeInt( out, (int) ( toLocalDateTime( date ).toLocalDate().toEpochDay() - PG_EPOCH_DAY ) );
+          }
+          break;
+        case TYPE_TIMESTAMP:
+          Date timestamp = valueMeta.getDate( valueData );
+          if ( timestamp == null ) {
+            writeInt( out, -1 );
+          } else {
+            // Without a time zone we send the wall clock time, the same thing the CSV format does
+            //
+            writeInt( out, 8 );
+            writeLong( out, ChronoUnit.MICROS.between( PG_EPOCH, toLocalDateTime( timestamp ) ) );
+          }
+          break;
+        case TYPE_TIMESTAMPTZ:
+          Date instant = valueMeta.getDate( valueData );
+          if ( instant == null ) {
+            writeInt( out, -1 );
+          } else {
+            writeInt( out, 8 );
+            writeLong( out, toEpochMicros( instant ) - PG_EPOCH_SECONDS * 1000000L );
+          }
+          break;
+        case TYPE_BYTEA:
+          writeBytes( out, valueMeta.getBinary( valueData ) );
+          break;
+        default:
+          throw new HopException( "Unexpected binary column type " + types[ i ] );
+      }
+    }
+  }
+
+  @Override
+  public void writeTrailer( OutputStream out ) throws IOException {
+    writeShort( out, -1 );
+  }
+
+  private void writeInteger( OutputStream out, ValueMetaInterface valueMeta, Long value, int type )
+    throws HopException, IOException {
+    if ( value == null ) {
+      writeInt( out, -1 );
+      return;
+    }
+    long l = value;
+    switch ( type ) {
+      case TYPE_INT2:
+        if ( l < Short.MIN_VALUE || l > Short.MAX_VALUE ) {
+          throw new HopException( "Value " + l + " of field " + valueMeta.getName() + " doesn't fit in a smallint" );
+        }
+        writeInt( out, 2 );
+        writeShort( out, (int) l );
+        break;
+      case TYPE_INT4:
+        if ( l < Integer.MIN_VALUE || l > Integer.MAX_VALUE ) {
+          throw new HopException( "Value " + l + " of field " + valueMeta.getName() + " doesn't fit in an integer" );
+        }
+        writeInt( out, 4 );
+        writeInt( out, (int) l );
+        break;
+      default:
+        writeInt( out, 8 );
+        writeLong( out, l );
+        break;
+    }
+  }
+
+  /**
+   * Numeric values are sent as a sequence of base 10000 digits, with the weight of the first digit, the sign and the
+   * display scale.
+   */
+  void writeNumeric( OutputStream out, BigDecimal value ) throws IOException {
+    if ( value == null ) {
+      writeInt( out, -1 );
+      return;
+    }
+    int dscale = Math.max( value.scale(), 0 );
+    String plain = value.abs().setScale( dscale ).toPlainString();
+    int point = plain.indexOf( '.' );
+    String integerPart = point < 0 ? plain : plain.substring( 0, point );
+    String fractionPart = point < 0 ? "" : plain.substring( point + 1 );
+
+    // Align both parts on groups of 4 decimal digits around the decimal point
+    //
+    int integerGroups = ( integerPart.length() + 3 ) / 4;
+    int fractionGroups = ( fractionPart.length() + 3 ) / 4;
+    int[] digits = new int[ integerGroups + fractionGroups ];
+    int integerOffset = integerGroups * 4 - integerPart.length();
+    for ( int c = 0; c < integerPart.length(); c++ ) {
+      int position = integerOffset + c;
+      digits[ position / 4 ] = digits[ position / 4 ] * 10 + ( integerPart.charAt( c ) - '0' );
+    }
+    for ( int c = 0; c < fractionGroups * 4; c++ ) {
+      int digit = c < fractionPart.length() ? fractionPart.charAt( c ) - '0' : 0;
+      digits[ integerGroups + c / 4 ] = digits[ integerGroups + c / 4 ] * 10 + digit;
+    }
+
+    // Leading and trailing zero digits are left out
+    //
+    int weight = integerGroups - 1;
+    int first = 0;
+    while ( first < digits.length && digits[ first ] == 0 ) {
+      first++;
+      weight--;
+    }
+    int last = digits.length;
+    while ( last > first && digits[ last - 1 ] == 0 ) {
+      last--;
+    }
+    if ( first == last ) {
+      weight = 0;
+    }
+
+    int ndigits = last - first;
+    writeInt( out, 8 + 2 * ndigits );
+    writeShort( out, ndigits );
+    writeShort( out, weight );
+    writeShort( out, value.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS );
+    writeShort( out, dscale );
+    for ( int d = first; d < last; d++ ) {
+      writeShort( out, digits[ d ] );
+    }
+  }
+
+  private static LocalDateTime toLocalDateTime( Date date ) {
+    if ( date instanceof Timestamp ) {
+      return ( (Timestamp) date ).toLocalDateTime();
+    }
+    return LocalDateTime.ofInstant( Instant.ofEpochMilli( date.getTime() ), ZoneId.systemDefault() );
+  }
+
+  private static long toEpochMicros( Date date ) {
+    if ( date instanceof Timestamp ) {
+      Timestamp timestamp = (Timestamp) date;
+      return Math.floorDiv( timestamp.getTime(), 1000L ) * 1000000L + timestamp.getNanos() / 1000;
+    }
+    return date.getTime() * 1000L;
+  }
+
+  private void writeBytes( OutputStream out, byte[] bytes ) throws IOException {
+    if ( bytes == null ) {
+      writeInt( out, -1 );
+    } else {
+      writeInt( out, bytes.length );
+      out.write( bytes );
+    }
+  }
+
+  private void writeShort( OutputStream out, int value ) throws IOException {
+    scratch[ 0 ] = (byte) ( value >>> 8 );
+    scratch[ 1 ] = (byte) value;
+    out.write( scratch, 0, 2 );
+  }
+
+  private void writeInt( OutputStream out, int value ) throws IOException {
+    scratch[ 0 ] = (byte) ( value >>> 24 );
+    scratch[ 1 ] = (byte) ( value >>> 16 );
+    scratch[ 2 ] = (byte) ( value >>> 8 );
+    scratch[ 3 ] = (byte) value;
+    out.write( scratch, 0, 4 );
+  }
+
+  private void writeLong( OutputStream out, long value ) throws IOException {
+    for ( int i = 7; i >= 0; i-- ) {
+      scratch[ i ] = (byte) value;
+      value >>>= 8;
+    }
+    out.write( scratch, 0, 8 );
+  }
+}
@@ -36,8 +36,8 @@ import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.LoggingObjectInterface;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.RowMetaInterface;
-import org.apache.hop.core.row.ValueMetaInterface;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.trans.Trans;
@@ -47,15 +47,14 @@ import org.apache.hop.trans.step.StepDataInterface;
 import org.apache.hop.trans.step.StepInterface;
 import org.apache.hop.trans.step.StepMeta;
 import org.apache.hop.trans.step.StepMetaInterface;
-import org.postgresql.PGConnection;
-import org.postgresql.copy.PGCopyOutputStream;
 
-import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 
 /**
  * Performs a bulk load to a postgres table.
@@ -68,10 +67,19 @@ import java.sql.Statement;
 public class PGBulkLoader extends BaseStep implements StepInterface {
   private static Class<?> PKG = PGBulkLoaderMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /**
+   * The number of rows handed over to a parallel COPY stream at once
+   */
+  static final int BATCH_SIZE = 1000;
+
+  /**
+   * The number of batches that can be waiting for each parallel COPY stream
+   */
+  static final int QUEUE_CAPACITY = 4;
+
   private Charset clientEncoding = Charset.defaultCharset();
   private PGBulkLoaderMeta meta;
   private PGBulkLoaderData data;
-  private PGCopyOutputStream pgCopyOut;
 
   public PGBulkLoader( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                        Trans trans ) {
@@ -127,9 +135,13 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
     contents.append( " FROM STDIN" ); // FIFO file
 
     // The "FORMAT" clause
-    contents.append( " WITH CSV DELIMITER AS '" ).append( environmentSubstitute( meta.getDelimiter() ) )
-      .append( "' QUOTE AS '" ).append(
-      environmentSubstitute( meta.getEnclosure() ) ).append( "'" );
+    if ( data.binaryFormat ) {
+      contents.append( " (FORMAT binary)" );
+    } else {
+      contents.append( " WITH CSV DELIMITER AS '" ).append( environmentSubstitute( meta.getDelimiter() ) )
+        .append( "' QUOTE AS '" ).append(
+        environmentSubstitute( meta.getEnclosure() ) ).append( "'" );
+    }
     contents.append( ";" ).append( Const.CR );
 
     return contents.toString();
@@ -160,22 +172,120 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
 
   private void do_copy( PGBulkLoaderMeta meta, boolean wait ) throws HopException {
     data.db = getDatabase( this, meta );
-    String copyCmd = getCopyCommand();
+    String copyCmd = null;
     try {
       connect();
 
       checkClientEncoding();
 
+      // Truncating on the main connection before any of the streams start keeps them from waiting on its lock
+      //
       processTruncate();
 
-      logBasic( "Launching command: " + copyCmd );
-      pgCopyOut = new PGCopyOutputStream( (PGConnection) data.db.getConnection(), copyCmd );
-
+      String[] columnTypes = meta.isBinaryFormat() ? getBinaryColumnTypes() : null;
+      data.binaryFormat = columnTypes != null;
+      copyCmd = getCopyCommand();
+
+      int nrStreams = getNrStreams();
+      data.streams = new ArrayList<>( nrStreams );
+      if ( nrStreams == 1 ) {
+        PGCopyStream stream =
+          new PGCopyStream( 0, data.db, getInputRowMeta(), createEncoder( data.keynrs, columnTypes ) );
+        data.streams.add( stream );
+        logBasic( "Launching command: " + copyCmd );
+        stream.open( copyCmd );
+      } else {
+        // The worker threads get rows with just the fields to load and their own copy of the metadata
+        //
+        int[] fieldnrs = new int[ data.keynrs.length ];
+        for ( int i = 0; i < fieldnrs.length; i++ ) {
+          fieldnrs[ i ] = i;
+        }
+        for ( int i = 0; i < nrStreams; i++ ) {
+          PGCopyStream stream =
+            new PGCopyStream( i, getDatabase( this, meta ), getLoadRowMeta(), createEncoder( fieldnrs, columnTypes ) );
+          data.streams.add( stream );
+          stream.getDatabase().connect( getPartitionID() );
+          stream.getDatabase().setAutoCommit( false );
+          logBasic( "Launching command on stream " + i + ": " + copyCmd );
+          stream.open( copyCmd );
+          stream.start( getStepname() + " - COPY stream " + i, QUEUE_CAPACITY );
+        }
+        data.batch = new ArrayList<>( BATCH_SIZE );
+        data.nextStream = 0;
+      }
     } catch ( Exception ex ) {
       throw new HopException( "Error while preparing the COPY " + copyCmd, ex );
     }
   }
 
+  /**
+   * @return the number of parallel streams to load over, always one with unique connections since all the steps then
+   * share a single connection
+   */
+  int getNrStreams() {
+    int nrStreams = Math.max( Const.toInt( environmentSubstitute( meta.getParallelStreams() ), 1 ), 1 );
+    if ( nrStreams > 1 && getTransMeta().isUsingUniqueConnections() ) {
+      logBasic( BaseMessages.getString( PKG, "PGBulkLoader.Log.ParallelStreamsWithUniqueConnections" ) );
+      return 1;
+    }
+    return nrStreams;
+  }
+
+  /**
+   * Look up the types of the target columns, to see if the rows can be sent in binary format.
+   *
+   * @return the PostgreSQL type names of the target columns, or null if one of them can't be loaded in binary format
+   */
+  String[] getBinaryColumnTypes() throws Exception {
+    DatabaseMeta dm = meta.getDatabaseMeta();
+    String[] tableFields = meta.getFieldTable();
+
+    StringBuilder sql = new StringBuilder( "SELECT " );
+    for ( int i = 0; i < tableFields.length; i++ ) {
+      if ( i != 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( dm.quoteField( tableFields[ i ] ) );
+    }
+    sql.append( " FROM " ).append( dm.getQuotedSchemaTableCombination(
+      environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTableName() ) ) );
+    sql.append( " WHERE 1=0" );
+
+    String[] columnTypes = new String[ tableFields.length ];
+    try ( Statement statement = data.db.getConnection().createStatement();
+          ResultSet rs = statement.executeQuery( sql.toString() ) ) {
+      ResultSetMetaData metaData = rs.getMetaData();
+      for ( int i = 0; i < columnTypes.length; i++ ) {
+        columnTypes[ i ] = metaData.getColumnTypeName( i + 1 );
+        if ( !PGBinaryCopyEncoder.isSupported( columnTypes[ i ] ) ) {
+          logBasic( BaseMessages.getString( PKG, "PGBulkLoader.Log.BinaryFormatNotSupported", tableFields[ i ],
+            columnTypes[ i ] ) );
+          return null;
+        }
+      }
+    }
+    return columnTypes;
+  }
+
+  private PGCopyEncoder createEncoder( int[] fieldnrs, String[] columnTypes ) throws HopException {
+    if ( columnTypes != null ) {
+      return new PGBinaryCopyEncoder( fieldnrs, columnTypes, clientEncoding );
+    }
+    return new PGCsvCopyEncoder( data, fieldnrs, clientEncoding );
+  }
+
+  /**
+   * @return a copy of the metadata of the fields to load, in the order of the target columns
+   */
+  private RowMetaInterface getLoadRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    for ( int keynr : data.keynrs ) {
+      rowMeta.addValueMeta( getInputRowMeta().getValueMeta( keynr ).clone() );
+    }
+    return rowMeta;
+  }
+
   @VisibleForTesting
   Database getDatabase( LoggingObjectInterface parentObject, PGBulkLoaderMeta pgBulkLoaderMeta ) {
     DatabaseMeta dbMeta = pgBulkLoaderMeta.getDatabaseMeta();
@@ -234,12 +344,10 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
 
         setOutputDone();
 
-        // Close the output stream...
+        // End the COPY on the streams...
         // will be null if no records (empty stream)
-        if ( data != null && pgCopyOut != null ) {
-          pgCopyOut.flush();
-          pgCopyOut.endCopy();
-
+        if ( data != null && data.streams != null ) {
+          endCopy();
         }
 
         return false;
@@ -255,7 +363,7 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
           data.keynrs[ i ] = getInputRowMeta().indexOfValue( meta.getFieldStream()[ i ] );
         }
 
-        // execute the copy statement... pgCopyOut is setup there
+        // execute the copy statement... the COPY streams are set up there
         //
         do_copy( meta, true );
 
@@ -264,7 +372,7 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
         //
       }
 
-      writeRowToPostgres( getInputRowMeta(), r );
+      writeRowToPostgres( r );
 
       putRow( getInputRowMeta(), r );
       incrementLinesOutput();
@@ -279,160 +387,95 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
     }
   }
 
-  private void writeRowToPostgres( RowMetaInterface rowMeta, Object[] r ) throws HopException {
+  private void writeRowToPostgres( Object[] r ) throws HopException {
+    if ( !isParallel() ) {
+      data.streams.get( 0 ).writeRow( r );
+      return;
+    }
 
-    try {
-      // So, we have this output stream to which we can write CSV data to.
-      // Basically, what we need to do is write the binary data (from strings to it as part of this proof of concept)
-      //
-      // Let's assume the data is in the correct format here too.
-      //
-      for ( int i = 0; i < data.keynrs.length; i++ ) {
-        if ( i > 0 ) {
-          // Write a separator
-          //
-          pgCopyOut.write( data.separator );
-        }
+    // Only hand the fields to load over to the worker threads, later steps are free to change the row
+    //
+    Object[] values = new Object[ data.keynrs.length ];
+    for ( int i = 0; i < data.keynrs.length; i++ ) {
+      values[ i ] = r[ data.keynrs[ i ] ];
+    }
+    data.batch.add( values );
+    if ( data.batch.size() >= BATCH_SIZE ) {
+      sendBatch();
+    }
+  }
 
-        int index = data.keynrs[ i ];
-        ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
-        Object valueData = r[ index ];
-
-        if ( valueData != null ) {
-          switch ( valueMeta.getType() ) {
-            case ValueMetaInterface.TYPE_STRING:
-              pgCopyOut.write( data.quote );
-
-              // No longer dump the bytes for a Lazy Conversion;
-              // We need to escape the quote characters in every string
-              String quoteStr = new String( data.quote );
-              String escapedString = valueMeta.getString( valueData ).replace( quoteStr, quoteStr + quoteStr );
-              pgCopyOut.write( escapedString.getBytes( clientEncoding ) );
-
-              pgCopyOut.write( data.quote );
-              break;
-            case ValueMetaInterface.TYPE_INTEGER:
-              if ( valueMeta.isStorageBinaryString() ) {
-                pgCopyOut.write( (byte[]) valueData );
-              } else {
-                pgCopyOut.write( Long.toString( valueMeta.getInteger( valueData ) ).getBytes( clientEncoding ) );
-              }
-              break;
-            case ValueMetaInterface.TYPE_DATE:
-              // Format the date in the right format.
-              //
-              switch ( data.dateFormatChoices[ i ] ) {
-                // Pass the data along in the format chosen by the user OR in binary format...
-                //
-                case PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH:
-                  if ( valueMeta.isStorageBinaryString() ) {
-                    pgCopyOut.write( (byte[]) valueData );
-                  } else {
-                    String dateString = valueMeta.getString( valueData );
-                    if ( dateString != null ) {
-                      pgCopyOut.write( dateString.getBytes( clientEncoding ) );
-                    }
-                  }
-                  break;
-
-                // Convert to a "YYYY-MM-DD" format
-                //
-                case PGBulkLoaderMeta.NR_DATE_MASK_DATE:
-                  String dateString = data.dateMeta.getString( valueMeta.getDate( valueData ) );
-                  if ( dateString != null ) {
-                    pgCopyOut.write( dateString.getBytes( clientEncoding ) );
-                  }
-                  break;
-
-                // Convert to a "YYYY-MM-DD HH:MM:SS.mmm" format
-                //
-                case PGBulkLoaderMeta.NR_DATE_MASK_DATETIME:
-                  String dateTimeString = data.dateTimeMeta.getString( valueMeta.getDate( valueData ) );
-                  if ( dateTimeString != null ) {
-                    pgCopyOut.write( dateTimeString.getBytes( clientEncoding ) );
-                  }
-                  break;
-
-                default:
-                  throw new HopException( "PGBulkLoader doesn't know how to handle date (neither passthrough, nor date or datetime for field " + valueMeta.getName() );
-              }
-              break;
-            case ValueMetaInterface.TYPE_TIMESTAMP:
-              // Format the date in the right format.
-              //
-              switch ( data.dateFormatChoices[ i ] ) {
-                // Pass the data along in the format chosen by the user OR in binary format...
-                //
-                case PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH:
-                  if ( valueMeta.isStorageBinaryString() ) {
-                    pgCopyOut.write( (byte[]) valueData );
-                  } else {
-                    String dateString = valueMeta.getString( valueData );
-                    if ( dateString != null ) {
-                      pgCopyOut.write( dateString.getBytes( clientEncoding ) );
-                    }
-                  }
-                  break;
-
-                // Convert to a "YYYY-MM-DD" format
-                //
-                case PGBulkLoaderMeta.NR_DATE_MASK_DATE:
-                  String dateString = data.dateMeta.getString( valueMeta.getDate( valueData ) );
-                  if ( dateString != null ) {
-                    pgCopyOut.write( dateString.getBytes( clientEncoding ) );
-                  }
-                  break;
-
-                // Convert to a "YYYY-MM-DD HH:MM:SS.mmm" format
-                //
-                case PGBulkLoaderMeta.NR_DATE_MASK_DATETIME:
-                  String dateTimeString = data.dateTimeMeta.getString( valueMeta.getDate( valueData ) );
-                  if ( dateTimeString != null ) {
-                    pgCopyOut.write( dateTimeString.getBytes( clientEncoding ) );
-                  }
-                  break;
-
-                default:
-                  throw new HopException( "PGBulkLoader doesn't know how to handle timestamp (neither passthrough, nor date or datetime for field " + valueMeta.getName() );
-              }
-              break;
-            case ValueMetaInterface.TYPE_BOOLEAN:
-              if ( valueMeta.isStorageBinaryString() ) {
-                pgCopyOut.write( (byte[]) valueData );
-              } else {
-                pgCopyOut.write( Double.toString( valueMeta.getNumber( valueData ) ).getBytes( clientEncoding ) );
-              }
-              break;
-            case ValueMetaInterface.TYPE_NUMBER:
-              if ( valueMeta.isStorageBinaryString() ) {
-                pgCopyOut.write( (byte[]) valueData );
-              } else {
-                pgCopyOut.write( Double.toString( valueMeta.getNumber( valueData ) ).getBytes( clientEncoding ) );
-              }
-              break;
-            case ValueMetaInterface.TYPE_BIGNUMBER:
-              if ( valueMeta.isStorageBinaryString() ) {
-                pgCopyOut.write( (byte[]) valueData );
-              } else {
-                BigDecimal big = valueMeta.getBigNumber( valueData );
-                if ( big != null ) {
-                  pgCopyOut.write( big.toString().getBytes( clientEncoding ) );
-                }
-              }
-              break;
-            default:
-              throw new HopException( "PGBulkLoader doesn't handle the type " + valueMeta.getTypeDesc() );
-          }
-        }
+  /**
+   * Hand the current batch of rows to the next parallel stream, round robin.
+   */
+  private void sendBatch() throws HopException {
+    data.streams.get( data.nextStream ).put( data.batch );
+    data.nextStream = ( data.nextStream + 1 ) % data.streams.size();
+    data.batch = new ArrayList<>( BATCH_SIZE );
+  }
+
+  /**
+   * End the COPY on all streams. A single stream runs in auto-commit mode like before. Parallel streams each run in a
+   * transaction on their own connection: these are only committed once every stream has loaded all of its rows, and
+   * all of them are rolled back otherwise, by {@link #dispose(StepMetaInterface, StepDataInterface)}. The commits
+   * can't be made atomic across the connections though: if one of them fails, the rows of the streams committed before
+   * it stay loaded.
+   */
+  private void endCopy() throws HopException {
+    if ( !isParallel() ) {
+      PGCopyStream stream = data.streams.get( 0 );
+      stream.endCopy();
+      logStatistics( stream );
+      data.streams = null;
+      return;
+    }
+
+    if ( !data.batch.isEmpty() ) {
+      sendBatch();
+    }
+    for ( PGCopyStream stream : data.streams ) {
+      stream.finish();
+    }
+    for ( PGCopyStream stream : data.streams ) {
+      try {
+        stream.getDatabase().commit();
+      } catch ( HopException e ) {
+        throw new HopException( BaseMessages.getString( PKG, "PGBulkLoader.Exception.StreamCommitFailed",
+          String.valueOf( stream.getNr() ) ), e );
       }
+    }
+    for ( PGCopyStream stream : data.streams ) {
+      logStatistics( stream );
+      stream.getDatabase().disconnect();
+    }
+    data.streams = null;
+  }
 
-      // Now write a newline
-      //
-      pgCopyOut.write( data.newline );
-    } catch ( Exception e ) {
-      throw new HopException( "Error serializing rows of data to the COPY command", e );
+  /**
+   * Stop all parallel streams and roll back whatever they haven't committed.
+   */
+  private void rollbackStreams() {
+    for ( PGCopyStream stream : data.streams ) {
+      stream.cancel();
+      try {
+        stream.getDatabase().rollback();
+      } catch ( HopException e ) {
+        logError( "Error rolling back COPY stream " + stream.getNr(), e );
+      }
     }
+    logBasic( BaseMessages.getString( PKG, "PGBulkLoader.Log.StreamsRolledBack", String.valueOf( data.streams.size() ) ) );
+  }
+
+  private void logStatistics( PGCopyStream stream ) {
+    long millis = Math.max( stream.getDuration(), 1L );
+    logBasic( BaseMessages.getString( PKG, "PGBulkLoader.Log.StreamStatistics",
+      String.valueOf( stream.getNr() ), String.valueOf( stream.getRows() ), String.valueOf( stream.getBytes() ),
+      String.valueOf( millis ), String.valueOf( stream.getRows() * 1000L / millis ),
+      String.valueOf( stream.getBytes() * 1000L / millis ) ) );
+  }
 
+  private boolean isParallel() {
+    return data.streams.size() > 1;
   }
 
   protected void verifyDatabaseConnection() throws HopException {
@@ -489,4 +532,33 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
     return false;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    meta = (PGBulkLoaderMeta) smi;
+    data = (PGBulkLoaderData) sdi;
+
+    // The streams are still around when the load didn't finish successfully
+    //
+    if ( data.streams != null ) {
+      if ( isParallel() ) {
+        // Roll back what isn't committed yet, disconnecting would commit it
+        //
+        rollbackStreams();
+        for ( PGCopyStream stream : data.streams ) {
+          stream.getDatabase().disconnect();
+        }
+      } else {
+        for ( PGCopyStream stream : data.streams ) {
+          stream.cancel();
+        }
+      }
+      data.streams = null;
+    }
+    if ( data.db != null ) {
+      data.db.disconnect();
+      data.db = null;
+    }
+
+    super.dispose( smi, sdi );
+  }
 }
@@ -31,6 +31,7 @@ import org.apache.hop.trans.step.StepDataInterface;
 import org.postgresql.PGConnection;
 
 import java.io.OutputStream;
+import java.util.List;
 
 /**
  * Stores data for the GPBulkLoader step.
@@ -62,6 +63,13 @@ public class PGBulkLoaderData extends BaseStepData implements StepDataInterface
   public ValueMetaInterface dateMeta;
   public ValueMetaInterface dateTimeMeta;
 
+  public boolean binaryFormat;
+
+  public List<PGCopyStream> streams;
+
+  public List<Object[]> batch;
+  public int nextStream;
+
   /**
    * Default constructor.
    */
@@ -130,6 +130,14 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
   private Button wStopOnError;
   private FormData fdlStopOnError, fdStopOnError;
 
+  private Label wlParallelStreams;
+  private TextVar wParallelStreams;
+  private FormData fdlParallelStreams, fdParallelStreams;
+
+  private Label wlBinaryFormat;
+  private Button wBinaryFormat;
+  private FormData fdlBinaryFormat, fdBinaryFormat;
+
   private PGBulkLoaderMeta input;
 
   private static final String[] ALL_FILETYPES = new String[] { BaseMessages.getString(
@@ -355,6 +363,49 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
       }
     } );
 
+    // Parallel streams
+    wlParallelStreams = new Label( shell, SWT.RIGHT );
+    wlParallelStreams.setText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.ParallelStreams.Label" ) );
+    props.setLook( wlParallelStreams );
+    fdlParallelStreams = new FormData();
+    fdlParallelStreams.left = new FormAttachment( 0, 0 );
+    fdlParallelStreams.top = new FormAttachment( wStopOnError, margin );
+    fdlParallelStreams.right = new FormAttachment( middle, -margin );
+    wlParallelStreams.setLayoutData( fdlParallelStreams );
+    wParallelStreams = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wParallelStreams.setToolTipText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.ParallelStreams.Tooltip" ) );
+    props.setLook( wParallelStreams );
+    wParallelStreams.addModifyListener( lsMod );
+    fdParallelStreams = new FormData();
+    fdParallelStreams.left = new FormAttachment( middle, 0 );
+    fdParallelStreams.top = new FormAttachment( wStopOnError, margin );
+    fdParallelStreams.right = new FormAttachment( 100, 0 );
+    wParallelStreams.setLayoutData( fdParallelStreams );
+
+    // Binary format line
+    wlBinaryFormat = new Label( shell, SWT.RIGHT );
+    wlBinaryFormat.setText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.BinaryFormat.Label" ) );
+    props.setLook( wlBinaryFormat );
+    fdlBinaryFormat = new FormData();
+    fdlBinaryFormat.left = new FormAttachment( 0, 0 );
+    fdlBinaryFormat.top = new FormAttachment( wParallelStreams, margin );
+    fdlBinaryFormat.right = new FormAttachment( middle, -margin );
+    wlBinaryFormat.setLayoutData( fdlBinaryFormat );
+    wBinaryFormat = new Button( shell, SWT.CHECK );
+    wBinaryFormat.setToolTipText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.BinaryFormat.Tooltip" ) );
+    props.setLook( wBinaryFormat );
+    fdBinaryFormat = new FormData();
+    fdBinaryFormat.left = new FormAttachment( middle, 0 );
+    fdBinaryFormat.top = new FormAttachment( wParallelStreams, margin );
+    fdBinaryFormat.right = new FormAttachment( 100, 0 );
+    wBinaryFormat.setLayoutData( fdBinaryFormat );
+
+    wBinaryFormat.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     // THE BUTTONS
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -371,7 +422,7 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
     props.setLook( wlReturn );
     fdlReturn = new FormData();
     fdlReturn.left = new FormAttachment( 0, 0 );
-    fdlReturn.top = new FormAttachment( wStopOnError, margin );
+    fdlReturn.top = new FormAttachment( wBinaryFormat, margin );
     wlReturn.setLayoutData( fdlReturn );
 
     int UpInsCols = 3;
@@ -491,6 +542,8 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
     wEnclosure.addSelectionListener( lsDef );
     wDelimiter.addSelectionListener( lsDef );
     wStopOnError.addSelectionListener( lsDef );
+    wParallelStreams.addSelectionListener( lsDef );
+    wBinaryFormat.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -569,6 +622,10 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
       wEnclosure.setText( input.getEnclosure() );
     }
     wStopOnError.setSelection( input.isStopOnError() );
+    if ( input.getParallelStreams() != null ) {
+      wParallelStreams.setText( input.getParallelStreams() );
+    }
+    wBinaryFormat.setSelection( input.isBinaryFormat() );
     if ( input.getDbNameOverride() != null ) {
       wDbNameOverride.setText( input.getDbNameOverride() );
     }
@@ -762,6 +819,8 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
     inf.setDelimiter( wDelimiter.getText() );
     inf.setEnclosure( wEnclosure.getText() );
     inf.setStopOnError( wStopOnError.getSelection() );
+    inf.setParallelStreams( wParallelStreams.getText() );
+    inf.setBinaryFormat( wBinaryFormat.getSelection() );
 
     /*
      * /* Set the loadaction
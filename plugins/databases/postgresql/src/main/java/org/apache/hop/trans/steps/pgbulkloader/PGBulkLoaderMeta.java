@@ -130,6 +130,16 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
    */
   private boolean stopOnError;
 
+  /**
+   * The number of connections to spread the load over, each with its own COPY stream
+   */
+  private String parallelStreams;
+
+  /**
+   * Send the rows in the binary COPY format rather than as CSV
+   */
+  private boolean binaryFormat;
+
   /*
    * Do not translate following values!!! They are will end up in the job export.
    */
@@ -250,6 +260,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
       loadAction = XMLHandler.getTagValue( stepnode, "load_action" );
       dbNameOverride = XMLHandler.getTagValue( stepnode, "dbname_override" );
       stopOnError = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "stop_on_error" ) );
+      parallelStreams = Const.NVL( XMLHandler.getTagValue( stepnode, "parallel_streams" ), "1" );
+      binaryFormat = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "binary_format" ) );
 
       int nrvalues = XMLHandler.countNodes( stepnode, "mapping" );
       allocate( nrvalues );
@@ -290,6 +302,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
     delimiter = ";";
     enclosure = "\"";
     stopOnError = false;
+    parallelStreams = "1";
+    binaryFormat = false;
     int nrvalues = 0;
     allocate( nrvalues );
   }
@@ -307,6 +321,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
     retval.append( "    " ).append( XMLHandler.addTagValue( "enclosure", enclosure ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "delimiter", delimiter ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "stop_on_error", stopOnError ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "parallel_streams", parallelStreams ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "binary_format", binaryFormat ) );
 
     for ( int i = 0; i < fieldTable.length; i++ ) {
       retval.append( "      <mapping>" ).append( Const.CR );
@@ -646,6 +662,28 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
     this.stopOnError = value;
   }
 
+  /**
+   * @return the number of parallel connections and COPY streams to load over, may contain variables
+   */
+  public String getParallelStreams() {
+    return parallelStreams;
+  }
+
+  /**
+   * @param parallelStreams the number of parallel connections and COPY streams to load over
+   */
+  public void setParallelStreams( String parallelStreams ) {
+    this.parallelStreams = parallelStreams;
+  }
+
+  public boolean isBinaryFormat() {
+    return binaryFormat;
+  }
+
+  public void setBinaryFormat( boolean binaryFormat ) {
+    this.binaryFormat = binaryFormat;
+  }
+
   public StepMetaInjectionInterface getStepMetaInjectionInterface() {
     return this;
   }
@@ -679,6 +717,10 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
           delimiter = (String) entry.getValue();
         } else if ( entry.getKey().equals( "STOPONERROR" ) ) {
           stopOnError = (Boolean) entry.getValue();
+        } else if ( entry.getKey().equals( "PARALLELSTREAMS" ) ) {
+          parallelStreams = (String) entry.getValue();
+        } else if ( entry.getKey().equals( "BINARYFORMAT" ) ) {
+          binaryFormat = (Boolean) entry.getValue();
         } else {
           throw new RuntimeException( "Unhandled metadata injection of attribute: "
             + attr.toString() + " - " + attr.getDescription() );
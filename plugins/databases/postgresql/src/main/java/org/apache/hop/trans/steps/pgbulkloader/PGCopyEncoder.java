@@ -0,0 +1,55 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMetaInterface;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Turns rows into the data of a COPY ... FROM STDIN command in one of the formats PostgreSQL accepts. An encoder is
+ * only ever used by one thread at a time.
+ */
+public interface PGCopyEncoder {
+
+  /**
+   * Write what needs to come before the first row.
+   */
+  void writeHeader( OutputStream out ) throws IOException;
+
+  /**
+   * Write the fields of a row that are loaded.
+   *
+   * @param out     the stream to write to
+   * @param rowMeta the layout of the row
+   * @param row     the row data
+   */
+  void writeRow( OutputStream out, RowMetaInterface rowMeta, Object[] row ) throws HopException, IOException;
+
+  /**
+   * Write what needs to come after the last row.
+   */
+  void writeTrailer( OutputStream out ) throws IOException;
+}
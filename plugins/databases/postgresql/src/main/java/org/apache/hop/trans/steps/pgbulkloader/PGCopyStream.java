@@ -0,0 +1,253 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.pgbulkloader;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A COPY ... FROM STDIN command running on a database connection. The rows are either written to it directly by the
+ * step, or handed over in batches to a worker thread of its own with {@link #start(String, int)} and
+ * {@link #put(List)}, so that several streams can encode and send rows in parallel. The stream keeps track of the
+ * number of rows and bytes it sent.
+ */
+public class PGCopyStream implements Runnable {
+
+  private static final List<Object[]> END_OF_DATA = new ArrayList<>( 0 );
+
+  private final int nr;
+  private final Database db;
+  private final RowMetaInterface rowMeta;
+  private final PGCopyEncoder encoder;
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream( 1024 );
+
+  private PGCopyOutputStream copyOut;
+  private BlockingQueue<List<Object[]>> queue;
+  private Thread thread;
+  private volatile Exception error;
+
+  private long rows;
+  private long bytes;
+  private long startTime;
+  private long endTime;
+
+  /**
+   * @param nr      the number of the stream, used in messages
+   * @param db      the connected database to run the COPY on
+   * @param rowMeta the layout of the rows, only used by this stream
+   * @param encoder the encoder for the rows, only used by this stream
+   */
+  public PGCopyStream( int nr, Database db, RowMetaInterface rowMeta, PGCopyEncoder encoder ) {
+    this.nr = nr;
+    this.db = db;
+    this.rowMeta = rowMeta;
+    this.encoder = encoder;
+  }
+
+  /**
+   * Start the COPY command.
+   *
+   * @param copyCommand the COPY ... FROM STDIN command
+   */
+  public void open( String copyCommand ) throws HopException {
+    try {
+      copyOut = new PGCopyOutputStream( (PGConnection) db.getConnection(), copyCommand );
+      startTime = System.currentTimeMillis();
+      encoder.writeHeader( buffer );
+      send();
+    } catch ( SQLException | IOException e ) {
+      throw new HopException( "Error while starting COPY stream " + nr + " : " + copyCommand, e );
+    }
+  }
+
+  /**
+   * Encode and send a row.
+   */
+  public void writeRow( Object[] row ) throws HopException {
+    try {
+      encoder.writeRow( buffer, rowMeta, row );
+      send();
+    } catch ( IOException e ) {
+      throw new HopException( "Error serializing rows of data to COPY stream " + nr, e );
+    }
+    rows++;
+  }
+
+  private void send() throws IOException {
+    bytes += buffer.size();
+    buffer.writeTo( copyOut );
+    buffer.reset();
+  }
+
+  /**
+   * End the COPY command, after the last row.
+   *
+   * @return the number of rows the database reports to have loaded
+   */
+  public long endCopy() throws HopException {
+    try {
+      encoder.writeTrailer( buffer );
+      send();
+      long loaded = copyOut.endCopy();
+      endTime = System.currentTimeMillis();
+      return loaded;
+    } catch ( SQLException | IOException e ) {
+      throw new HopException( "Error while ending COPY stream " + nr, e );
+    }
+  }
+
+  /**
+   * Start a worker thread that takes batches of rows from a queue, writes them and ends the COPY once
+   * {@link #finish()} is called.
+   *
+   * @param threadName the name of the worker thread
+   * @param capacity   the number of batches that can be waiting for the worker
+   */
+  public void start( String threadName, int capacity ) {
+    queue = new ArrayBlockingQueue<>( capacity );
+    thread = new Thread( this, threadName );
+    thread.setDaemon( true );
+    thread.start();
+  }
+
+  /**
+   * Hand a batch of rows over to the worker thread, waiting for room in the queue if needed.
+   */
+  public void put( List<Object[]> batch ) throws HopException {
+    checkError();
+    try {
+      queue.put( batch );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while handing rows to COPY stream " + nr, e );
+    }
+  }
+
+  /**
+   * Let the worker thread end the COPY after the batches handed over so far and wait for it.
+   */
+  public void finish() throws HopException {
+    put( END_OF_DATA );
+    try {
+      thread.join();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while waiting for COPY stream " + nr, e );
+    }
+    thread = null;
+    checkError();
+  }
+
+  private void checkError() throws HopException {
+    if ( error != null ) {
+      throw new HopException( "COPY stream " + nr + " failed", error );
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      for ( List<Object[]> batch = queue.take(); batch != END_OF_DATA; batch = queue.take() ) {
+        // After an error we keep taking batches so that the step never blocks on a full queue
+        //
+        if ( error == null ) {
+          try {
+            for ( Object[] row : batch ) {
+              writeRow( row );
+            }
+          } catch ( Exception e ) {
+            error = e;
+          }
+        }
+      }
+      if ( error == null ) {
+        endCopy();
+      }
+    } catch ( Exception e ) {
+      // Also when interrupted by cancel()
+      error = e;
+    }
+  }
+
+  /**
+   * Stop the worker thread, if any, and cancel the COPY command if it's still running.
+   */
+  public void cancel() {
+    if ( thread != null ) {
+      thread.interrupt();
+      try {
+        thread.join();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
+    }
+    if ( copyOut != null && copyOut.isActive() ) {
+      try {
+        copyOut.cancelCopy();
+      } catch ( SQLException e ) {
+        // The transaction gets rolled back, nothing more we can do
+      }
+    }
+  }
+
+  public int getNr() {
+    return nr;
+  }
+
+  public Database getDatabase() {
+    return db;
+  }
+
+  /**
+   * @return the number of rows sent
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * @return the number of bytes sent, in the COPY format used
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * @return the number of milliseconds between the start of the COPY and its end, or now if it hasn't ended
+   */
+  public long getDuration() {
+    return ( endTime > 0 ? endTime : System.currentTimeMillis() ) - startTime;
+  }
+}
@@ -0,0 +1,181 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.ValueMetaInterface;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+
+/**
+ * Writes rows as CSV, with the delimiter and enclosure of the step, formatting the dates according to the date mask
+ * chosen per field.
+ */
+public class PGCsvCopyEncoder implements PGCopyEncoder {
+
+  private final int[] keynrs;
+  private final int[] dateFormatChoices;
+  private final byte[] quote;
+  private final byte[] separator;
+  private final byte[] newline;
+  private final String quoteString;
+  private final Charset clientEncoding;
+
+  // Date formatting isn't thread safe, every encoder gets its own copy
+  //
+  private final ValueMetaInterface dateMeta;
+  private final ValueMetaInterface dateTimeMeta;
+
+  /**
+   * @param data           the step data holding the enclosure, separator, newline, date format choices and date metadata
+   * @param keynrs         the indexes of the fields to load in the rows
+   * @param clientEncoding the encoding of the connection
+   */
+  public PGCsvCopyEncoder( PGBulkLoaderData data, int[] keynrs, Charset clientEncoding ) {
+    this.keynrs = keynrs;
+    this.dateFormatChoices = data.dateFormatChoices;
+    this.quote = data.quote;
+    this.separator = data.separator;
+    this.newline = data.newline;
+    this.quoteString = new String( data.quote );
+    this.clientEncoding = clientEncoding;
+    this.dateMeta = data.dateMeta.clone();
+    this.dateTimeMeta = data.dateTimeMeta.clone();
+  }
+
+  @Override
+  public void writeHeader( OutputStream out ) {
+    // Nothing to do for CSV
+  }
+
+  @Override
+  public void writeRow( OutputStream out, RowMetaInterface rowMeta, Object[] r ) throws HopException, IOException {
+    for ( int i = 0; i < keynrs.length; i++ ) {
+      if ( i > 0 ) {
+        // Write a separator
+        //
+        out.write( separator );
+      }
+
+      int index = keynrs[ i ];
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+      Object valueData = r[ index ];
+
+      if ( valueData != null ) {
+        switch ( valueMeta.getType() ) {
+          case ValueMetaInterface.TYPE_STRING:
+            out.write( quote );
+
+            // No longer dump the bytes for a Lazy Conversion;
+            // We need to escape the quote characters in every string
+            String escapedString = valueMeta.getString( valueData ).replace( quoteString, quoteString + quoteString );
+            out.write( escapedString.getBytes( clientEncoding ) );
+
+            out.write( quote );
+            break;
+          case ValueMetaInterface.TYPE_INTEGER:
+            if ( valueMeta.isStorageBinaryString() ) {
+              out.write( (byte[]) valueData );
+            } else {
+              out.write( Long.toString( valueMeta.getInteger( valueData ) ).getBytes( clientEncoding ) );
+            }
+            break;
+          case ValueMetaInterface.TYPE_DATE:
+          case ValueMetaInterface.TYPE_TIMESTAMP:
+            // Format the date in the right format.
+            //
+            switch ( dateFormatChoices[ i ] ) {
+              // Pass the data along in the format chosen by the user OR in binary format...
+              //
+              case PGBulkLoaderMeta.NR_DATE_MASK_PASS_THROUGH:
+                if ( valueMeta.isStorageBinaryString() ) {
+                  out.write( (byte[]) valueData );
+                } else {
+                  String dateString = valueMeta.getString( valueData );
+                  if ( dateString != null ) {
+                    out.write( dateString.getBytes( clientEncoding ) );
+                  }
+                }
+                break;
+
+              // Convert to a "YYYY-MM-DD" format
+              //
+              case PGBulkLoaderMeta.NR_DATE_MASK_DATE:
+                String dateString = dateMeta.getString( valueMeta.getDate( valueData ) );
+                if ( dateString != null ) {
+                  out.write( dateString.getBytes( clientEncoding ) );
+                }
+                break;
+
+              // Convert to a "YYYY-MM-DD HH:MM:SS.mmm" format
+              //
+              case PGBulkLoaderMeta.NR_DATE_MASK_DATETIME:
+                String dateTimeString = dateTimeMeta.getString( valueMeta.getDate( valueData ) );
+                if ( dateTimeString != null ) {
+                  out.write( dateTimeString.getBytes( clientEncoding ) );
+                }
+                break;
+
+              default:
+                throw new HopException( "PGBulkLoader doesn't know how to handle " + valueMeta.getTypeDesc()
+                  + " (neither passthrough, nor date or datetime for field " + valueMeta.getName() );
+            }
+            break;
+          case ValueMetaInterface.TYPE_BOOLEAN:
+          case ValueMetaInterface.TYPE_NUMBER:
+            if ( valueMeta.isStorageBinaryString() ) {
+              out.write( (byte[]) valueData );
+            } else {
+              out.write( Double.toString( valueMeta.getNumber( valueData ) ).getBytes( clientEncoding ) );
+            }
+            break;
+          case ValueMetaInterface.TYPE_BIGNUMBER:
+            if ( valueMeta.isStorageBinaryString() ) {
+              out.write( (byte[]) valueData );
+            } else {
+              BigDecimal big = valueMeta.getBigNumber( valueData );
+              if ( big != null ) {
+                out.write( big.toString().getBytes( clientEncoding ) );
+              }
+            }
+            break;
+          default:
+            throw new HopException( "PGBulkLoader doesn't handle the type " + valueMeta.getTypeDesc() );
+        }
+      }
+    }
+
+    // Now write a newline
+    //
+    out.write( newline );
+  }
+
+  @Override
+  public void writeTrailer( OutputStream out ) {
+    // Nothing to do for CSV
+  }
+}
@@ -257,4 +257,19 @@ public class PostgreSQLDatabaseMetaTest {
     assertNull( nativeMeta.getSQLUnlockTables( new String[] { "FOO" } ) );
   }
 
+  @Test
+  public void testStagingStatements() {
+    assertTrue( nativeMeta.supportsMergeStatement() );
+    assertEquals( "CREATE TEMPORARY TABLE STG ( ID INTEGER )",
+      nativeMeta.getCreateStagingTableStatement( "STG", "ID INTEGER" ) );
+    assertEquals( "INSERT INTO FOO ( ID, NAME ) SELECT ID, NAME FROM STG ON CONFLICT ( ID ) DO UPDATE SET NAME = EXCLUDED.NAME",
+      nativeMeta.getMergeStatement( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[] { "NAME" } ) );
+    assertEquals( "INSERT INTO FOO ( ID, NAME ) SELECT ID, NAME FROM STG ON CONFLICT ( ID ) DO NOTHING",
+      nativeMeta.getMergeStatement( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[ 0 ] ) );
+    assertEquals( "UPDATE FOO t SET NAME = s.NAME, NR = s.NR FROM STG s WHERE t.ID = s.ID",
+      nativeMeta.getUpdateFromStatement( "FOO", "STG", new String[] { "ID" }, new String[] { "NAME", "NR" } ) );
+  }
+
 }
@@ -0,0 +1,164 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2018 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.trans.steps.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowMetaInterface;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PGBinaryCopyEncoderTest {
+
+  @Test
+  public void testHeaderAndTrailer() throws Exception {
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( new int[ 0 ], new String[ 0 ], StandardCharsets.UTF_8 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    encoder.writeHeader( out );
+    encoder.writeTrailer( out );
+
+    byte[] bytes = out.toByteArray();
+    assertEquals( 11 + 4 + 4 + 2, bytes.length );
+    assertArrayEquals( PGBinaryCopyEncoder.SIGNATURE, Arrays.copyOf( bytes, 11 ) );
+    DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes, 11, bytes.length - 11 ) );
+    assertEquals( 0, in.readInt() );
+    assertEquals( 0, in.readInt() );
+    assertEquals( -1, in.readShort() );
+  }
+
+  @Test
+  public void testWriteRow() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "ignored" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "flag" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "day" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "moment" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "empty" ) );
+
+    Date day = new GregorianCalendar( 2000, Calendar.JANUARY, 3 ).getTime();
+    Date moment = new GregorianCalendar( 2000, Calendar.JANUARY, 1, 0, 0, 1 ).getTime();
+    Object[] row = { "x", 42L, "héllo", 1.5, true, day, moment, null };
+
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( new int[] { 1, 2, 3, 4, 5, 6, 7 },
+      new String[] { "int4", "varchar", "float8", "bool", "date", "timestamp", "text" }, StandardCharsets.UTF_8 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    encoder.writeRow( out, rowMeta, row );
+
+    DataInputStream in = new DataInputStream( new ByteArrayInputStream( out.toByteArray() ) );
+    assertEquals( 7, in.readShort() );
+    assertEquals( 4, in.readInt() );
+    assertEquals( 42, in.readInt() );
+    byte[] name = "héllo".getBytes( StandardCharsets.UTF_8 );
+    assertEquals( name.length, in.readInt() );
+    byte[] text = new byte[ name.length ];
+    in.readFully( text );
+    assertArrayEquals( name, text );
+    assertEquals( 8, in.readInt() );
+    assertEquals( 1.5, in.readDouble(), 0.0 );
+    assertEquals( 1, in.readInt() );
+    assertEquals( 1, in.readByte() );
+    assertEquals( 4, in.readInt() );
+    assertEquals( 2, in.readInt() );
+    assertEquals( 8, in.readInt() );
+    assertEquals( 1000000L, in.readLong() );
+    assertEquals( -1, in.readInt() );
+    assertEquals( 0, in.available() );
+  }
+
+  @Test
+  public void testWriteNumeric() throws Exception {
+    assertArrayEquals( new short[] { 2, 0, 0, 2, 123, 4500 }, encodeNumeric( new BigDecimal( "123.45" ) ) );
+    assertArrayEquals( new short[] { 1, -1, 0x4000, 3, 10 }, encodeNumeric( new BigDecimal( "-0.001" ) ) );
+    assertArrayEquals( new short[] { 1, 1, 0, 0, 1 }, encodeNumeric( new BigDecimal( "10000" ) ) );
+    assertArrayEquals( new short[] { 3, 2, 0, 0, 1, 2345, 6789 }, encodeNumeric( new BigDecimal( "123456789" ) ) );
+    assertArrayEquals( new short[] { 0, 0, 0, 2 }, encodeNumeric( new BigDecimal( "0.00" ) ) );
+    assertArrayEquals( new short[] { 1, 1, 0, 0, 12 }, encodeNumeric( new BigDecimal( "1.2E5" ) ) );
+  }
+
+  @Test
+  public void testIntegerOutOfRange() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "small" ) );
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( new int[] { 0 }, new String[] { "int2" },
+      StandardCharsets.UTF_8 );
+    try {
+      encoder.writeRow( new ByteArrayOutputStream(), rowMeta, new Object[] { 40000L } );
+      fail( "A value that doesn't fit in a smallint should not be written" );
+    } catch ( HopException e ) {
+      assertTrue( e.getMessage().contains( "smallint" ) );
+    }
+  }
+
+  @Test
+  public void testSupportedTypes() throws Exception {
+    assertTrue( PGBinaryCopyEncoder.isSupported( "int8" ) );
+    assertTrue( PGBinaryCopyEncoder.isSupported( "timestamptz" ) );
+    assertFalse( PGBinaryCopyEncoder.isSupported( "json" ) );
+    assertFalse( PGBinaryCopyEncoder.isSupported( null ) );
+
+    try {
+      new PGBinaryCopyEncoder( new int[] { 0 }, new String[] { "uuid" }, StandardCharsets.UTF_8 );
+      fail( "Unsupported column types should be refused" );
+    } catch ( HopException e ) {
+      assertTrue( e.getMessage().contains( "uuid" ) );
+    }
+  }
+
+  private static short[] encodeNumeric( BigDecimal value ) throws Exception {
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( new int[ 0 ], new String[ 0 ], StandardCharsets.UTF_8 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    encoder.writeNumeric( out, value );
+
+    DataInputStream in = new DataInputStream( new ByteArrayInputStream( out.toByteArray() ) );
+    int length = in.readInt();
+    short[] words = new short[ length / 2 ];
+    for ( int i = 0; i < words.length; i++ ) {
+      words[ i ] = in.readShort();
+    }
+    assertEquals( 0, in.available() );
+    return words;
+  }
+}
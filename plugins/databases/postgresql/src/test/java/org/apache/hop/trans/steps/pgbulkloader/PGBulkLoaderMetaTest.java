@@ -74,7 +74,8 @@ public class PGBulkLoaderMetaTest {
     PluginRegistry.init( false );
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "loadAction", "dbNameOverride", "delimiter",
-        "enclosure", "stopOnError", "fieldTable", "fieldStream", "dateMask", "databaseMeta" );
+        "enclosure", "stopOnError", "fieldTable", "fieldStream", "dateMask", "databaseMeta", "parallelStreams",
+        "binaryFormat" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
@@ -89,6 +90,8 @@ public class PGBulkLoaderMetaTest {
         put( "fieldStream", "getFieldStream" );
         put( "dateMask", "getDateMask" );
         put( "databaseMeta", "getDatabaseMeta" );
+        put( "parallelStreams", "getParallelStreams" );
+        put( "binaryFormat", "isBinaryFormat" );
       }
     };
     Map<String, String> setterMap = new HashMap<String, String>() {
@@ -104,6 +107,8 @@ public class PGBulkLoaderMetaTest {
         put( "fieldStream", "setFieldStream" );
         put( "dateMask", "setDateMask" );
         put( "databaseMeta", "setDatabaseMeta" );
+        put( "parallelStreams", "setParallelStreams" );
+        put( "binaryFormat", "setBinaryFormat" );
       }
     };
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
@@ -161,7 +166,7 @@ public class PGBulkLoaderMetaTest {
       List<StepInjectionMetaEntry> entries =
         loader.getStepMeta().getStepMetaInterface().getStepMetaInjectionInterface().getStepInjectionMetadataEntries();
 
-      String masterKeys = "SCHEMA TABLE LOADACTION STOPONERROR DELIMITER ENCLOSURE DBNAMEOVERRIDE MAPPINGS ";
+      String masterKeys = "SCHEMA TABLE LOADACTION STOPONERROR DELIMITER ENCLOSURE DBNAMEOVERRIDE PARALLELSTREAMS BINARYFORMAT MAPPINGS ";
 
       for ( StepInjectionMetaEntry entry : entries ) {
         String key = entry.getKey();
@@ -256,6 +261,8 @@ public class PGBulkLoaderMetaTest {
       assertEquals( "Enclosure not properly injected... ", "new_ENCLOSURE", lm.getEnclosure() );
       assertEquals( "Load action not properly injected... ", "new_LOADACTION", lm.getLoadAction() );
       assertEquals( "Stop on error not properly injected... ", Boolean.TRUE, lm.isStopOnError() );
+      assertEquals( "Parallel streams not properly injected... ", "new_PARALLELSTREAMS", lm.getParallelStreams() );
+      assertEquals( "Binary format not properly injected... ", Boolean.TRUE, lm.isBinaryFormat() );
 
       assertEquals( "Field name not properly injected... ", "new_FIELDNAME", lm.getFieldTable()[ 0 ] );
       assertEquals( "Stream name not properly injected... ", "new_STREAMNAME", lm.getFieldStream()[ 0 ] );
@@ -88,4 +88,12 @@ public class RedshiftDatabaseMeta extends PostgreSQLDatabaseMeta {
   public boolean supportsSetMaxRows() {
     return false;
   }
+
+  /**
+   * @return false: Redshift doesn't know INSERT ... ON CONFLICT
+   */
+  @Override
+  public boolean supportsMergeStatement() {
+    return false;
+  }
 }
@@ -143,7 +143,7 @@ public class JobEntryJobDialog extends JobEntryBaseDialog implements JobEntryDia
     props.setLook( wPassExport );
     FormData fdPassExport = new FormData();
     fdPassExport.left = new FormAttachment( 0, 0 );
-    fdPassExport.top = new FormAttachment( wEveryRow, 10 );
+    fdPassExport.top = new FormAttachment( wFailFast, 10 );
     fdPassExport.right = new FormAttachment( 100, 0 );
     wPassExport.setLayoutData( fdPassExport );
 
@@ -389,6 +389,8 @@ public class JobEntryJobDialog extends JobEntryBaseDialog implements JobEntryDia
     wPrevious.setSelection( jobEntry.argFromPrevious );
     wPrevToParams.setSelection( jobEntry.paramsFromPrevious );
     wEveryRow.setSelection( jobEntry.execPerRow );
+    wParallelism.setText( Const.NVL( jobEntry.getParallelism(), "" ) );
+    wFailFast.setSelection( jobEntry.isFailingFast() );
     wSetLogfile.setSelection( jobEntry.setLogfile );
     if ( jobEntry.logfile != null ) {
       wLogfile.setText( jobEntry.logfile );
@@ -515,6 +517,8 @@ public class JobEntryJobDialog extends JobEntryBaseDialog implements JobEntryDia
     jej.argFromPrevious = wPrevious.getSelection();
     jej.paramsFromPrevious = wPrevToParams.getSelection();
     jej.execPerRow = wEveryRow.getSelection();
+    jej.setParallelism( wParallelism.getText() );
+    jej.setFailingFast( wFailFast.getSelection() );
     jej.setPassingExport( wPassExport.getSelection() );
     jej.setAppendLogfile = wAppendLogfile.getSelection();
     jej.setWaitingToFinish( wWaitingToFinish.getSelection() );
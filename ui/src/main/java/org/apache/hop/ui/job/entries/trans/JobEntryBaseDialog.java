@@ -124,6 +124,11 @@ public abstract class JobEntryBaseDialog extends JobEntryDialog {
 
   protected Button wEveryRow;
 
+  protected Label wlParallelism;
+  protected TextVar wParallelism;
+
+  protected Button wFailFast;
+
   protected Button wClearRows;
 
   protected Button wClearFiles;
@@ -274,6 +279,31 @@ public abstract class JobEntryBaseDialog extends JobEntryDialog {
     fdbExecute.top = new FormAttachment( 0, 0 );
     wEveryRow.setLayoutData( fdbExecute );
 
+    wlParallelism = new Label( gExecution, SWT.LEFT );
+    props.setLook( wlParallelism );
+    wlParallelism.setText( BaseMessages.getString( PKG, "JobTrans.Parallelism.Label" ) );
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.left = new FormAttachment( 0, 0 );
+    fdlParallelism.top = new FormAttachment( wEveryRow, 10 );
+    wlParallelism.setLayoutData( fdlParallelism );
+
+    wParallelism = new TextVar( jobMeta, gExecution, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wParallelism );
+    wParallelism.setToolTipText( BaseMessages.getString( PKG, "JobTrans.Parallelism.Tooltip" ) );
+    FormData fdParallelism = new FormData();
+    fdParallelism.width = 250;
+    fdParallelism.left = new FormAttachment( 0, 0 );
+    fdParallelism.top = new FormAttachment( wlParallelism, 5 );
+    wParallelism.setLayoutData( fdParallelism );
+
+    wFailFast = new Button( gExecution, SWT.CHECK );
+    props.setLook( wFailFast );
+    wFailFast.setText( BaseMessages.getString( PKG, "JobTrans.FailFast.Label" ) );
+    FormData fdFailFast = new FormData();
+    fdFailFast.left = new FormAttachment( 0, 0 );
+    fdFailFast.top = new FormAttachment( wParallelism, 10 );
+    wFailFast.setLayoutData( fdFailFast );
+
     wOptionsTab.setControl( wOptions );
 
     FormData fdOptions = new FormData();
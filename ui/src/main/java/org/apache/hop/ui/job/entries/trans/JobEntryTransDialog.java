@@ -139,7 +139,7 @@ public class JobEntryTransDialog extends JobEntryBaseDialog implements JobEntryD
     wClearRows.setText( BaseMessages.getString( PKG, "JobTrans.ClearResultList.Label" ) );
     FormData fdbClearRows = new FormData();
     fdbClearRows.left = new FormAttachment( 0, 0 );
-    fdbClearRows.top = new FormAttachment( wEveryRow, 10 );
+    fdbClearRows.top = new FormAttachment( wFailFast, 10 );
     wClearRows.setLayoutData( fdbClearRows );
 
     wClearFiles = new Button( gExecution, SWT.CHECK );
@@ -388,6 +388,8 @@ public class JobEntryTransDialog extends JobEntryBaseDialog implements JobEntryD
     wPrevious.setSelection( jobEntry.argFromPrevious );
     wPrevToParams.setSelection( jobEntry.paramsFromPrevious );
     wEveryRow.setSelection( jobEntry.execPerRow );
+    wParallelism.setText( Const.NVL( jobEntry.getParallelism(), "" ) );
+    wFailFast.setSelection( jobEntry.isFailingFast() );
     wSetLogfile.setSelection( jobEntry.setLogfile );
     wAddDate.setSelection( jobEntry.addDate );
     wAddTime.setSelection( jobEntry.addTime );
@@ -506,6 +508,8 @@ public class JobEntryTransDialog extends JobEntryBaseDialog implements JobEntryD
     jet.argFromPrevious = wPrevious.getSelection();
     jet.paramsFromPrevious = wPrevToParams.getSelection();
     jet.execPerRow = wEveryRow.getSelection();
+    jet.setParallelism( wParallelism.getText() );
+    jet.setFailingFast( wFailFast.getSelection() );
     jet.setLogfile = wSetLogfile.getSelection();
     jet.addDate = wAddDate.getSelection();
     jet.addTime = wAddTime.getSelection();
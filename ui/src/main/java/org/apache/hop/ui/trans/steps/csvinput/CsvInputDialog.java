@@ -116,6 +116,8 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
   private TextVar wDelimiter;
   private TextVar wEnclosure;
   private TextVar wBufferSize;
+  private Label wlReaderThreads;
+  private TextVar wReaderThreads;
   private Button wLazyConversion;
   private Button wHeaderPresent;
   private FormData fdAddResult;
@@ -359,6 +361,27 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wBufferSize.setLayoutData( fdBufferSize );
     lastControl = wBufferSize;
 
+    // readerThreads
+    //
+    wlReaderThreads = new Label( shell, SWT.RIGHT );
+    wlReaderThreads.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "READER_THREADS" ) ) );
+    props.setLook( wlReaderThreads );
+    FormData fdlReaderThreads = new FormData();
+    fdlReaderThreads.top = new FormAttachment( lastControl, margin );
+    fdlReaderThreads.left = new FormAttachment( 0, 0 );
+    fdlReaderThreads.right = new FormAttachment( middle, -margin );
+    wlReaderThreads.setLayoutData( fdlReaderThreads );
+    wReaderThreads = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wReaderThreads );
+    wReaderThreads.setToolTipText( BaseMessages.getString( PKG, inputMeta.getTooltip( "READER_THREADS" ) ) );
+    wReaderThreads.addModifyListener( lsMod );
+    FormData fdReaderThreads = new FormData();
+    fdReaderThreads.top = new FormAttachment( lastControl, margin );
+    fdReaderThreads.left = new FormAttachment( middle, 0 );
+    fdReaderThreads.right = new FormAttachment( 100, 0 );
+    wReaderThreads.setLayoutData( fdReaderThreads );
+    lastControl = wReaderThreads;
+
     // performingLazyConversion?
     //
     Label wlLazyConversion = new Label( shell, SWT.RIGHT );
@@ -640,6 +663,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wDelimiter.addSelectionListener( lsDef );
     wEnclosure.addSelectionListener( lsDef );
     wBufferSize.addSelectionListener( lsDef );
+    wReaderThreads.addSelectionListener( lsDef );
     wRowNumField.addSelectionListener( lsDef );
 
     // Allow the insertion of tabs as separator...
@@ -715,6 +739,10 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     if ( !parallelPossible ) {
       wRunningInParallel.setSelection( false );
     }
+    // The same goes for reading a file in chunks
+    //
+    wlReaderThreads.setEnabled( parallelPossible );
+    wReaderThreads.setEnabled( parallelPossible );
   }
 
   private void setEncodings() {
@@ -774,6 +802,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wDelimiter.setText( Const.NVL( inputMeta.getDelimiter(), "" ) );
     wEnclosure.setText( Const.NVL( inputMeta.getEnclosure(), "" ) );
     wBufferSize.setText( Const.NVL( inputMeta.getBufferSize(), "" ) );
+    wReaderThreads.setText( Const.NVL( inputMeta.getReaderThreads(), "" ) );
     wLazyConversion.setSelection( inputMeta.isLazyConversionActive() );
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
@@ -830,6 +859,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     inputMeta.setDelimiter( wDelimiter.getText() );
     inputMeta.setEnclosure( wEnclosure.getText() );
     inputMeta.setBufferSize( wBufferSize.getText() );
+    inputMeta.setReaderThreads( wReaderThreads.getText() );
     inputMeta.setLazyConversionActive( wLazyConversion.getSelection() );
     inputMeta.setHeaderPresent( wHeaderPresent.getSelection() );
     inputMeta.setRowNumField( wRowNumField.getText() );
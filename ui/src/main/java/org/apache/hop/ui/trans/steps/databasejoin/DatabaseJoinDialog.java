@@ -99,6 +99,18 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
   private Button wuseVars;
   private FormData fdluseVars, fduseVars;
 
+  private Label wlConcurrent;
+  private Text wConcurrent;
+  private FormData fdlConcurrent, fdConcurrent;
+
+  private Label wlUnordered;
+  private Button wUnordered;
+  private FormData fdlUnordered, fdUnordered;
+
+  private Label wlCacheSize;
+  private Text wCacheSize;
+  private FormData fdlCacheSize, fdCacheSize;
+
   private Button wGet;
   private Listener lsGet;
 
@@ -181,7 +193,7 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
     fdSQL.left = new FormAttachment( 0, 0 );
     fdSQL.top = new FormAttachment( wlSQL, margin );
     fdSQL.right = new FormAttachment( 100, -2 * margin );
-    fdSQL.bottom = new FormAttachment( 60, 0 );
+    fdSQL.bottom = new FormAttachment( 50, 0 );
     wSQL.setLayoutData( fdSQL );
 
     wSQL.addModifyListener( new ModifyListener() {
@@ -298,6 +310,69 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
       }
     } );
 
+    // Number of concurrent queries
+    wlConcurrent = new Label( shell, SWT.RIGHT );
+    wlConcurrent.setText( BaseMessages.getString( PKG, "DatabaseJoinDialog.ConcurrentQueries.Label" ) );
+    wlConcurrent.setToolTipText( BaseMessages.getString( PKG, "DatabaseJoinDialog.ConcurrentQueries.Tooltip" ) );
+    props.setLook( wlConcurrent );
+    fdlConcurrent = new FormData();
+    fdlConcurrent.left = new FormAttachment( 0, 0 );
+    fdlConcurrent.right = new FormAttachment( middle, -margin );
+    fdlConcurrent.top = new FormAttachment( wuseVars, margin );
+    wlConcurrent.setLayoutData( fdlConcurrent );
+    wConcurrent = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wConcurrent );
+    wConcurrent.setToolTipText( wlConcurrent.getToolTipText() );
+    wConcurrent.addModifyListener( lsMod );
+    fdConcurrent = new FormData();
+    fdConcurrent.left = new FormAttachment( middle, 0 );
+    fdConcurrent.right = new FormAttachment( 100, 0 );
+    fdConcurrent.top = new FormAttachment( wuseVars, margin );
+    wConcurrent.setLayoutData( fdConcurrent );
+
+    // Pass on rows as the queries finish?
+    wlUnordered = new Label( shell, SWT.RIGHT );
+    wlUnordered.setText( BaseMessages.getString( PKG, "DatabaseJoinDialog.UnorderedOutput.Label" ) );
+    wlUnordered.setToolTipText( BaseMessages.getString( PKG, "DatabaseJoinDialog.UnorderedOutput.Tooltip" ) );
+    props.setLook( wlUnordered );
+    fdlUnordered = new FormData();
+    fdlUnordered.left = new FormAttachment( 0, 0 );
+    fdlUnordered.right = new FormAttachment( middle, -margin );
+    fdlUnordered.top = new FormAttachment( wConcurrent, margin );
+    wlUnordered.setLayoutData( fdlUnordered );
+    wUnordered = new Button( shell, SWT.CHECK );
+    props.setLook( wUnordered );
+    wUnordered.setToolTipText( wlUnordered.getToolTipText() );
+    fdUnordered = new FormData();
+    fdUnordered.left = new FormAttachment( middle, 0 );
+    fdUnordered.top = new FormAttachment( wConcurrent, margin );
+    wUnordered.setLayoutData( fdUnordered );
+    wUnordered.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
+    // Result cache size
+    wlCacheSize = new Label( shell, SWT.RIGHT );
+    wlCacheSize.setText( BaseMessages.getString( PKG, "DatabaseJoinDialog.ResultCacheSize.Label" ) );
+    wlCacheSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseJoinDialog.ResultCacheSize.Tooltip" ) );
+    props.setLook( wlCacheSize );
+    fdlCacheSize = new FormData();
+    fdlCacheSize.left = new FormAttachment( 0, 0 );
+    fdlCacheSize.right = new FormAttachment( middle, -margin );
+    fdlCacheSize.top = new FormAttachment( wUnordered, margin );
+    wlCacheSize.setLayoutData( fdlCacheSize );
+    wCacheSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wCacheSize );
+    wCacheSize.setToolTipText( wlCacheSize.getToolTipText() );
+    wCacheSize.addModifyListener( lsMod );
+    fdCacheSize = new FormData();
+    fdCacheSize.left = new FormAttachment( middle, 0 );
+    fdCacheSize.right = new FormAttachment( 100, 0 );
+    fdCacheSize.top = new FormAttachment( wUnordered, margin );
+    wCacheSize.setLayoutData( fdCacheSize );
+
     // THE BUTTONS
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -314,7 +389,7 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
     props.setLook( wlParam );
     fdlParam = new FormData();
     fdlParam.left = new FormAttachment( 0, 0 );
-    fdlParam.top = new FormAttachment( wuseVars, margin );
+    fdlParam.top = new FormAttachment( wCacheSize, margin );
     wlParam.setLayoutData( fdlParam );
 
     int nrKeyCols = 2;
@@ -394,6 +469,8 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
 
     wStepname.addSelectionListener( lsDef );
     wLimit.addSelectionListener( lsDef );
+    wConcurrent.addSelectionListener( lsDef );
+    wCacheSize.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -462,6 +539,9 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
     wLimit.setText( "" + input.getRowLimit() );
     wOuter.setSelection( input.isOuterJoin() );
     wuseVars.setSelection( input.isVariableReplace() );
+    wConcurrent.setText( "" + input.getConcurrentQueries() );
+    wUnordered.setSelection( input.isUnorderedOutput() );
+    wCacheSize.setText( "" + input.getResultCacheSize() );
     if ( input.getParameterField() != null ) {
       for ( int i = 0; i < input.getParameterField().length; i++ ) {
         TableItem item = wParam.table.getItem( i );
@@ -505,6 +585,9 @@ public class DatabaseJoinDialog extends BaseStepDialog implements StepDialogInte
 
     input.setOuterJoin( wOuter.getSelection() );
     input.setVariableReplace( wuseVars.getSelection() );
+    input.setConcurrentQueries( Const.toInt( wConcurrent.getText(), 1 ) );
+    input.setUnorderedOutput( wUnordered.getSelection() );
+    input.setResultCacheSize( Const.toInt( wCacheSize.getText(), 0 ) );
     logDebug( BaseMessages.getString( PKG, "DatabaseJoinDialog.Log.ParametersFound" ) + nrparam + " parameters" );
     //CHECKSTYLE:Indentation:OFF
     for ( int i = 0; i < nrparam; i++ ) {
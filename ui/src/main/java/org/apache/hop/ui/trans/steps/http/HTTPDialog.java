@@ -156,6 +156,18 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
   private Label wlCloseIdleConnectionsTime;
   private TextVar wCloseIdleConnectionsTime;
 
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+
+  private Label wlMaxRetries;
+  private TextVar wMaxRetries;
+
+  private Label wlRetryDelay;
+  private TextVar wRetryDelay;
+
+  private Label wlRequestsPerSecond;
+  private TextVar wRequestsPerSecond;
+
   public HTTPDialog( Shell parent, Object in, TransMeta transMeta, String sname ) {
     super( parent, (BaseStepMeta) in, transMeta, sname );
     input = (HTTPMeta) in;
@@ -406,6 +418,78 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     fdCloseIdleConnectionsTime.right = new FormAttachment( 100, 0 );
     wCloseIdleConnectionsTime.setLayoutData( fdCloseIdleConnectionsTime );
 
+    wlConcurrentRequests = new Label( gSettings, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "HTTPDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdlConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlConcurrentRequests.setLayoutData( fdlConcurrentRequests );
+    wConcurrentRequests = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.addModifyListener( lsMod );
+    wConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wConcurrentRequests.setLayoutData( fdConcurrentRequests );
+
+    wlMaxRetries = new Label( gSettings, SWT.RIGHT );
+    wlMaxRetries.setText( BaseMessages.getString( PKG, "HTTPDialog.MaxRetries.Label" ) );
+    props.setLook( wlMaxRetries );
+    FormData fdlMaxRetries = new FormData();
+    fdlMaxRetries.top = new FormAttachment( wConcurrentRequests, margin );
+    fdlMaxRetries.left = new FormAttachment( 0, 0 );
+    fdlMaxRetries.right = new FormAttachment( middle, -margin );
+    wlMaxRetries.setLayoutData( fdlMaxRetries );
+    wMaxRetries = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxRetries.addModifyListener( lsMod );
+    wMaxRetries.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    FormData fdMaxRetries = new FormData();
+    fdMaxRetries.top = new FormAttachment( wConcurrentRequests, margin );
+    fdMaxRetries.left = new FormAttachment( middle, 0 );
+    fdMaxRetries.right = new FormAttachment( 100, 0 );
+    wMaxRetries.setLayoutData( fdMaxRetries );
+
+    wlRetryDelay = new Label( gSettings, SWT.RIGHT );
+    wlRetryDelay.setText( BaseMessages.getString( PKG, "HTTPDialog.RetryDelay.Label" ) );
+    props.setLook( wlRetryDelay );
+    FormData fdlRetryDelay = new FormData();
+    fdlRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdlRetryDelay.left = new FormAttachment( 0, 0 );
+    fdlRetryDelay.right = new FormAttachment( middle, -margin );
+    wlRetryDelay.setLayoutData( fdlRetryDelay );
+    wRetryDelay = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRetryDelay.addModifyListener( lsMod );
+    wRetryDelay.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.RetryDelay.Tooltip" ) );
+    props.setLook( wRetryDelay );
+    FormData fdRetryDelay = new FormData();
+    fdRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdRetryDelay.left = new FormAttachment( middle, 0 );
+    fdRetryDelay.right = new FormAttachment( 100, 0 );
+    wRetryDelay.setLayoutData( fdRetryDelay );
+
+    wlRequestsPerSecond = new Label( gSettings, SWT.RIGHT );
+    wlRequestsPerSecond.setText( BaseMessages.getString( PKG, "HTTPDialog.RequestsPerSecond.Label" ) );
+    props.setLook( wlRequestsPerSecond );
+    FormData fdlRequestsPerSecond = new FormData();
+    fdlRequestsPerSecond.top = new FormAttachment( wRetryDelay, margin );
+    fdlRequestsPerSecond.left = new FormAttachment( 0, 0 );
+    fdlRequestsPerSecond.right = new FormAttachment( middle, -margin );
+    wlRequestsPerSecond.setLayoutData( fdlRequestsPerSecond );
+    wRequestsPerSecond = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRequestsPerSecond.addModifyListener( lsMod );
+    wRequestsPerSecond.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.RequestsPerSecond.Tooltip" ) );
+    props.setLook( wRequestsPerSecond );
+    FormData fdRequestsPerSecond = new FormData();
+    fdRequestsPerSecond.top = new FormAttachment( wRetryDelay, margin );
+    fdRequestsPerSecond.left = new FormAttachment( middle, 0 );
+    fdRequestsPerSecond.right = new FormAttachment( 100, 0 );
+    wRequestsPerSecond.setLayoutData( fdRequestsPerSecond );
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, 0 );
     fdSettings.right = new FormAttachment( 100, 0 );
@@ -926,6 +1010,10 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     wSocketTimeOut.setText( Const.NVL( input.getSocketTimeout(), "" ) );
     wConnectionTimeOut.setText( Const.NVL( input.getConnectionTimeout(), "" ) );
     wCloseIdleConnectionsTime.setText( Const.NVL( input.getCloseIdleConnectionsTime(), "" ) );
+    wConcurrentRequests.setText( Const.NVL( input.getConcurrentRequests(), "" ) );
+    wMaxRetries.setText( Const.NVL( input.getMaxRetries(), "" ) );
+    wRetryDelay.setText( Const.NVL( input.getRetryDelay(), "" ) );
+    wRequestsPerSecond.setText( Const.NVL( input.getRequestsPerSecond(), "" ) );
 
     wUrl.setText( Const.NVL( input.getUrl(), "" ) );
     wUrlInField.setSelection( input.isUrlInField() );
@@ -1015,6 +1103,10 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     input.setSocketTimeout( wSocketTimeOut.getText() );
     input.setConnectionTimeout( wConnectionTimeOut.getText() );
     input.setCloseIdleConnectionsTime( wCloseIdleConnectionsTime.getText() );
+    input.setConcurrentRequests( wConcurrentRequests.getText() );
+    input.setMaxRetries( wMaxRetries.getText() );
+    input.setRetryDelay( wRetryDelay.getText() );
+    input.setRequestsPerSecond( wRequestsPerSecond.getText() );
 
     stepname = wStepname.getText(); // return value
 
@@ -112,6 +112,10 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
   private Button wUpdateBypassed;
   private FormData fdlUpdateBypassed, fdUpdateBypassed;
 
+  private Label wlSetBased;
+  private Button wSetBased;
+  private FormData fdlSetBased, fdSetBased;
+
   private Button wGetLU;
   private FormData fdGetLU;
   private Listener lsGetLU;
@@ -288,12 +292,32 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
     wUpdateBypassed.setLayoutData( fdUpdateBypassed );
     wUpdateBypassed.addSelectionListener( new ComponentSelectionListener( input ) );
 
+    // SetBased line
+    wlSetBased = new Label( shell, SWT.RIGHT );
+    wlSetBased.setText( BaseMessages.getString( PKG, "InsertUpdateDialog.SetBased.Label" ) );
+    wlSetBased.setToolTipText( BaseMessages.getString( PKG, "InsertUpdateDialog.SetBased.Tooltip" ) );
+    props.setLook( wlSetBased );
+    fdlSetBased = new FormData();
+    fdlSetBased.left = new FormAttachment( 0, 0 );
+    fdlSetBased.top = new FormAttachment( wUpdateBypassed, margin );
+    fdlSetBased.right = new FormAttachment( middle, -margin );
+    wlSetBased.setLayoutData( fdlSetBased );
+    wSetBased = new Button( shell, SWT.CHECK );
+    wSetBased.setToolTipText( BaseMessages.getString( PKG, "InsertUpdateDialog.SetBased.Tooltip" ) );
+    props.setLook( wSetBased );
+    fdSetBased = new FormData();
+    fdSetBased.left = new FormAttachment( middle, 0 );
+    fdSetBased.top = new FormAttachment( wUpdateBypassed, margin );
+    fdSetBased.right = new FormAttachment( 100, 0 );
+    wSetBased.setLayoutData( fdSetBased );
+    wSetBased.addSelectionListener( new ComponentSelectionListener( input ) );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "InsertUpdateDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wUpdateBypassed, margin );
+    fdlKey.top = new FormAttachment( wSetBased, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -662,6 +686,7 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
 
     wCommit.setText( input.getCommitSizeVar() );
     wUpdateBypassed.setSelection( input.isUpdateBypassed() );
+    wSetBased.setSelection( input.isSetBased() );
 
     if ( input.getKeyStream() != null ) {
       for ( int i = 0; i < input.getKeyStream().length; i++ ) {
@@ -732,6 +757,7 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
 
     inf.setCommitSize( wCommit.getText() );
     inf.setUpdateBypassed( wUpdateBypassed.getSelection() );
+    inf.setSetBased( wSetBased.getSelection() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "InsertUpdateDialog.Log.FoundKeys", nrkeys + "" ) );
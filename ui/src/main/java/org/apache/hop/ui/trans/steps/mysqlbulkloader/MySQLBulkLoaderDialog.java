@@ -113,6 +113,14 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
   private Button wLocal;
   private FormData fdlLocal, fdLocal;
 
+  private Label wlLocalInfileStream;
+  private Button wLocalInfileStream;
+  private FormData fdlLocalInfileStream, fdLocalInfileStream;
+
+  private Label wlStreamBatchSize;
+  private TextVar wStreamBatchSize;
+  private FormData fdlStreamBatchSize, fdStreamBatchSize;
+
   private Label wlDelimiter;
   private Button wbDelimiter;
   private TextVar wDelimiter;
@@ -463,6 +471,53 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
       }
     } );
 
+    // LocalInfileStream line...
+    wlLocalInfileStream = new Label( shell, SWT.RIGHT );
+    wlLocalInfileStream.setText( BaseMessages.getString( PKG, "MySQLBulkLoaderDialog.LocalInfileStream.Label" ) );
+    wlLocalInfileStream.setToolTipText(
+      BaseMessages.getString( PKG, "MySQLBulkLoaderDialog.LocalInfileStream.Tooltip" ) );
+    props.setLook( wlLocalInfileStream );
+    fdlLocalInfileStream = new FormData();
+    fdlLocalInfileStream.left = new FormAttachment( 0, 0 );
+    fdlLocalInfileStream.right = new FormAttachment( middle, -margin );
+    fdlLocalInfileStream.top = new FormAttachment( wLocal, margin * 2 );
+    wlLocalInfileStream.setLayoutData( fdlLocalInfileStream );
+
+    wLocalInfileStream = new Button( shell, SWT.CHECK | SWT.LEFT );
+    wLocalInfileStream.setToolTipText(
+      BaseMessages.getString( PKG, "MySQLBulkLoaderDialog.LocalInfileStream.Tooltip" ) );
+    props.setLook( wLocalInfileStream );
+    fdLocalInfileStream = new FormData();
+    fdLocalInfileStream.left = new FormAttachment( middle, 0 );
+    fdLocalInfileStream.top = new FormAttachment( wLocal, margin * 2 );
+    fdLocalInfileStream.right = new FormAttachment( 100, 0 );
+    wLocalInfileStream.setLayoutData( fdLocalInfileStream );
+    wLocalInfileStream.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent arg0 ) {
+        input.setChanged();
+        setStreamingFlags();
+      }
+    } );
+
+    // StreamBatchSize line...
+    wlStreamBatchSize = new Label( shell, SWT.RIGHT );
+    wlStreamBatchSize.setText( BaseMessages.getString( PKG, "MySQLBulkLoaderDialog.StreamBatchSize.Label" ) );
+    props.setLook( wlStreamBatchSize );
+    fdlStreamBatchSize = new FormData();
+    fdlStreamBatchSize.left = new FormAttachment( 0, 0 );
+    fdlStreamBatchSize.right = new FormAttachment( middle, -margin );
+    fdlStreamBatchSize.top = new FormAttachment( wLocalInfileStream, margin );
+    wlStreamBatchSize.setLayoutData( fdlStreamBatchSize );
+    wStreamBatchSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wStreamBatchSize );
+    wStreamBatchSize.addModifyListener( lsMod );
+    fdStreamBatchSize = new FormData();
+    fdStreamBatchSize.left = new FormAttachment( middle, 0 );
+    fdStreamBatchSize.top = new FormAttachment( wLocalInfileStream, margin );
+    fdStreamBatchSize.right = new FormAttachment( 100, 0 );
+    wStreamBatchSize.setLayoutData( fdStreamBatchSize );
+
     // THE BUTTONS
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -479,7 +534,7 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
     props.setLook( wlReturn );
     fdlReturn = new FormData();
     fdlReturn.left = new FormAttachment( 0, 0 );
-    fdlReturn.top = new FormAttachment( wLocal, margin );
+    fdlReturn.top = new FormAttachment( wStreamBatchSize, margin );
     wlReturn.setLayoutData( fdlReturn );
 
     int UpInsCols = 3;
@@ -598,6 +653,7 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
     wEnclosure.addSelectionListener( lsDef );
     wCharSet.addSelectionListener( lsDef );
     wBulkSize.addSelectionListener( lsDef );
+    wStreamBatchSize.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -762,6 +818,8 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
     wIgnore.setSelection( input.isIgnoringErrors() );
     wLocal.setSelection( input.isLocalFile() );
     wBulkSize.setText( Const.NVL( input.getBulkSize(), "" ) );
+    wLocalInfileStream.setSelection( input.isLocalInfileStream() );
+    wStreamBatchSize.setText( Const.NVL( input.getStreamBatchSize(), "" ) );
 
     if ( input.getFieldTable() != null ) {
       for ( int i = 0; i < input.getFieldTable().length; i++ ) {
@@ -792,6 +850,8 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
     wReturn.setRowNums();
     wReturn.optWidth( true );
 
+    setStreamingFlags();
+
     wStepname.selectAll();
     wStepname.setFocus();
   }
@@ -813,6 +873,19 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
     ciReturn[ 1 ].setComboValues( fieldNames );
   }
 
+  /**
+   * The FIFO file and the local flag don't apply when streaming through the JDBC driver.
+   */
+  private void setStreamingFlags() {
+    boolean streaming = wLocalInfileStream.getSelection();
+    wlFifoFile.setEnabled( !streaming );
+    wFifoFile.setEnabled( !streaming );
+    wlLocal.setEnabled( !streaming );
+    wLocal.setEnabled( !streaming );
+    wlStreamBatchSize.setEnabled( streaming );
+    wStreamBatchSize.setEnabled( streaming );
+  }
+
   private void cancel() {
     stepname = null;
     input.setChanged( changed );
@@ -832,6 +905,8 @@ public class MySQLBulkLoaderDialog extends BaseStepDialog implements StepDialogI
     inf.setIgnoringErrors( wIgnore.getSelection() );
     inf.setLocalFile( wLocal.getSelection() );
     inf.setBulkSize( wBulkSize.getText() );
+    inf.setLocalInfileStream( wLocalInfileStream.getSelection() );
+    inf.setStreamBatchSize( wStreamBatchSize.getText() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "MySQLBulkLoaderDialog.Log.FoundFields", "" + nrfields ) );
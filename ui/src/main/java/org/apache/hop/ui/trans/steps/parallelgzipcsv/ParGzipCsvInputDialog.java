@@ -113,6 +113,8 @@ public class ParGzipCsvInputDialog extends BaseStepDialog implements StepDialogI
   private Button wAddResult;
   private boolean isReceivingInput;
   private Button wRunningInParallel;
+  private Label wlUsingSeekIndex;
+  private Button wUsingSeekIndex;
   private ComboVar wEncoding;
 
   private boolean gotEncodings = false;
@@ -415,8 +417,32 @@ public class ParGzipCsvInputDialog extends BaseStepDialog implements StepDialogI
     fdRunningInParallel.top = new FormAttachment( lastControl, margin );
     fdRunningInParallel.left = new FormAttachment( middle, 0 );
     wRunningInParallel.setLayoutData( fdRunningInParallel );
+    wRunningInParallel.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        setFlags();
+      }
+    } );
     lastControl = wRunningInParallel;
 
+    // Use a seek index when running in parallel?
+    //
+    wlUsingSeekIndex = new Label( shell, SWT.RIGHT );
+    wlUsingSeekIndex.setText( BaseMessages.getString( PKG, "ParGzipCsvInputDialog.UsingSeekIndex.Label" ) );
+    props.setLook( wlUsingSeekIndex );
+    FormData fdlUsingSeekIndex = new FormData();
+    fdlUsingSeekIndex.top = new FormAttachment( lastControl, margin );
+    fdlUsingSeekIndex.left = new FormAttachment( 0, 0 );
+    fdlUsingSeekIndex.right = new FormAttachment( middle, -margin );
+    wlUsingSeekIndex.setLayoutData( fdlUsingSeekIndex );
+    wUsingSeekIndex = new Button( shell, SWT.CHECK );
+    props.setLook( wUsingSeekIndex );
+    wUsingSeekIndex.setToolTipText( BaseMessages.getString( PKG, "ParGzipCsvInputDialog.UsingSeekIndex.Tooltip" ) );
+    FormData fdUsingSeekIndex = new FormData();
+    fdUsingSeekIndex.top = new FormAttachment( lastControl, margin );
+    fdUsingSeekIndex.left = new FormAttachment( middle, 0 );
+    wUsingSeekIndex.setLayoutData( fdUsingSeekIndex );
+    lastControl = wUsingSeekIndex;
+
     // Encoding
     Label wlEncoding = new Label( shell, SWT.RIGHT );
     wlEncoding.setText( BaseMessages.getString( PKG, "ParGzipCsvInputDialog.Encoding.Label" ) );
@@ -671,6 +697,7 @@ public class ParGzipCsvInputDialog extends BaseStepDialog implements StepDialogI
     wLazyConversion.setSelection( inputMeta.isLazyConversionActive() );
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
+    wUsingSeekIndex.setSelection( inputMeta.isUsingSeekIndex() );
     wRowNumField.setText( Const.NVL( inputMeta.getRowNumField(), "" ) );
     wAddResult.setSelection( inputMeta.isAddResultFile() );
     wEncoding.setText( Const.NVL( inputMeta.getEncoding(), "" ) );
@@ -694,10 +721,19 @@ public class ParGzipCsvInputDialog extends BaseStepDialog implements StepDialogI
     wFields.setRowNums();
     wFields.optWidth( true );
 
+    setFlags();
+
     wStepname.selectAll();
     wStepname.setFocus();
   }
 
+  private void setFlags() {
+    // The seek index is only used by step copies running in parallel
+    //
+    wlUsingSeekIndex.setEnabled( wRunningInParallel.getSelection() );
+    wUsingSeekIndex.setEnabled( wRunningInParallel.getSelection() );
+  }
+
   private void cancel() {
     stepname = null;
     inputMeta.setChanged( changed );
@@ -721,6 +757,7 @@ public class ParGzipCsvInputDialog extends BaseStepDialog implements StepDialogI
     inputMeta.setRowNumField( wRowNumField.getText() );
     inputMeta.setAddResultFile( wAddResult.getSelection() );
     inputMeta.setRunningInParallel( wRunningInParallel.getSelection() );
+    inputMeta.setUsingSeekIndex( wUsingSeekIndex.getSelection() );
     inputMeta.setEncoding( wEncoding.getText() );
 
     int nrNonEmptyFields = wFields.nrNonEmpty();
@@ -176,6 +176,18 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
 
   private Label wlTrustStorePassword;
   private TextVar wTrustStorePassword;
+
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+
+  private Label wlMaxRetries;
+  private TextVar wMaxRetries;
+
+  private Label wlRetryDelay;
+  private TextVar wRetryDelay;
+
+  private Label wlRequestsPerSecond;
+  private TextVar wRequestsPerSecond;
   private FormData fdlTrustStorePassword, fdTrustStorePassword;
 
   private Label wlTrustStoreFile;
@@ -482,6 +494,78 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
       }
     } );
 
+    wlConcurrentRequests = new Label( gSettings, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "RestDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.top = new FormAttachment( wApplicationType, margin );
+    fdlConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlConcurrentRequests.setLayoutData( fdlConcurrentRequests );
+    wConcurrentRequests = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.addModifyListener( lsMod );
+    wConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "RestDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment( wApplicationType, margin );
+    fdConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wConcurrentRequests.setLayoutData( fdConcurrentRequests );
+
+    wlMaxRetries = new Label( gSettings, SWT.RIGHT );
+    wlMaxRetries.setText( BaseMessages.getString( PKG, "RestDialog.MaxRetries.Label" ) );
+    props.setLook( wlMaxRetries );
+    FormData fdlMaxRetries = new FormData();
+    fdlMaxRetries.top = new FormAttachment( wConcurrentRequests, margin );
+    fdlMaxRetries.left = new FormAttachment( 0, 0 );
+    fdlMaxRetries.right = new FormAttachment( middle, -margin );
+    wlMaxRetries.setLayoutData( fdlMaxRetries );
+    wMaxRetries = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxRetries.addModifyListener( lsMod );
+    wMaxRetries.setToolTipText( BaseMessages.getString( PKG, "RestDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    FormData fdMaxRetries = new FormData();
+    fdMaxRetries.top = new FormAttachment( wConcurrentRequests, margin );
+    fdMaxRetries.left = new FormAttachment( middle, 0 );
+    fdMaxRetries.right = new FormAttachment( 100, 0 );
+    wMaxRetries.setLayoutData( fdMaxRetries );
+
+    wlRetryDelay = new Label( gSettings, SWT.RIGHT );
+    wlRetryDelay.setText( BaseMessages.getString( PKG, "RestDialog.RetryDelay.Label" ) );
+    props.setLook( wlRetryDelay );
+    FormData fdlRetryDelay = new FormData();
+    fdlRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdlRetryDelay.left = new FormAttachment( 0, 0 );
+    fdlRetryDelay.right = new FormAttachment( middle, -margin );
+    wlRetryDelay.setLayoutData( fdlRetryDelay );
+    wRetryDelay = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRetryDelay.addModifyListener( lsMod );
+    wRetryDelay.setToolTipText( BaseMessages.getString( PKG, "RestDialog.RetryDelay.Tooltip" ) );
+    props.setLook( wRetryDelay );
+    FormData fdRetryDelay = new FormData();
+    fdRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdRetryDelay.left = new FormAttachment( middle, 0 );
+    fdRetryDelay.right = new FormAttachment( 100, 0 );
+    wRetryDelay.setLayoutData( fdRetryDelay );
+
+    wlRequestsPerSecond = new Label( gSettings, SWT.RIGHT );
+    wlRequestsPerSecond.setText( BaseMessages.getString( PKG, "RestDialog.RequestsPerSecond.Label" ) );
+    props.setLook( wlRequestsPerSecond );
+    FormData fdlRequestsPerSecond = new FormData();
+    fdlRequestsPerSecond.top = new FormAttachment( wRetryDelay, margin );
+    fdlRequestsPerSecond.left = new FormAttachment( 0, 0 );
+    fdlRequestsPerSecond.right = new FormAttachment( middle, -margin );
+    wlRequestsPerSecond.setLayoutData( fdlRequestsPerSecond );
+    wRequestsPerSecond = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRequestsPerSecond.addModifyListener( lsMod );
+    wRequestsPerSecond.setToolTipText( BaseMessages.getString( PKG, "RestDialog.RequestsPerSecond.Tooltip" ) );
+    props.setLook( wRequestsPerSecond );
+    FormData fdRequestsPerSecond = new FormData();
+    fdRequestsPerSecond.top = new FormAttachment( wRetryDelay, margin );
+    fdRequestsPerSecond.left = new FormAttachment( middle, 0 );
+    fdRequestsPerSecond.right = new FormAttachment( 100, 0 );
+    wRequestsPerSecond.setLayoutData( fdRequestsPerSecond );
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, 0 );
     fdSettings.right = new FormAttachment( 100, 0 );
@@ -1334,6 +1418,10 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
     }
 
     wApplicationType.setText( Const.NVL( input.getApplicationType(), "" ) );
+    wConcurrentRequests.setText( Const.NVL( input.getConcurrentRequests(), "" ) );
+    wMaxRetries.setText( Const.NVL( input.getMaxRetries(), "" ) );
+    wRetryDelay.setText( Const.NVL( input.getRetryDelay(), "" ) );
+    wRequestsPerSecond.setText( Const.NVL( input.getRequestsPerSecond(), "" ) );
 
     wFields.setRowNums();
     wFields.optWidth( true );
@@ -1399,6 +1487,10 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
     input.setTrustStoreFile( wTrustStoreFile.getText() );
     input.setTrustStorePassword( wTrustStorePassword.getText() );
     input.setApplicationType( wApplicationType.getText() );
+    input.setConcurrentRequests( wConcurrentRequests.getText() );
+    input.setMaxRetries( wMaxRetries.getText() );
+    input.setRetryDelay( wRetryDelay.getText() );
+    input.setRequestsPerSecond( wRequestsPerSecond.getText() );
     stepname = wStepname.getText(); // return value
 
     dispose();
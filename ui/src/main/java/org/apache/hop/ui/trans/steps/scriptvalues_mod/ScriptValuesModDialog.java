@@ -215,6 +215,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
   private ScriptValuesHelp scVHelp;
   private ScriptValuesHighlight lineStyler = new ScriptValuesHighlight();
   private Button wCompatible;
+  private Button wSharedCompiledScript;
   private TextVar wOptimizationLevel;
 
   private TreeItem iteminput;
@@ -400,11 +401,33 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
       }
     } );
 
+    Label wlSharedCompiledScript = new Label( wTop, SWT.NONE );
+    wlSharedCompiledScript.setText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.SharedCompiledScript.Label" ) );
+    props.setLook( wlSharedCompiledScript );
+    FormData fdlSharedCompiledScript = new FormData();
+    fdlSharedCompiledScript.left = new FormAttachment( wCompatible, margin * 2 );
+    fdlSharedCompiledScript.top = new FormAttachment( wlPosition, margin );
+    wlSharedCompiledScript.setLayoutData( fdlSharedCompiledScript );
+
+    wSharedCompiledScript = new Button( wTop, SWT.CHECK );
+    wSharedCompiledScript.setToolTipText( BaseMessages.getString(
+      PKG, "ScriptValuesDialogMod.SharedCompiledScript.Tooltip" ) );
+    props.setLook( wSharedCompiledScript );
+    FormData fdSharedCompiledScript = new FormData();
+    fdSharedCompiledScript.left = new FormAttachment( wlSharedCompiledScript, margin );
+    fdSharedCompiledScript.top = new FormAttachment( wlPosition, margin );
+    wSharedCompiledScript.setLayoutData( fdSharedCompiledScript );
+    wSharedCompiledScript.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged( true );
+      }
+    } );
+
     Label wlOptimizationLevel = new Label( wTop, SWT.NONE );
     wlOptimizationLevel.setText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.OptimizationLevel.Label" ) );
     props.setLook( wlOptimizationLevel );
     FormData fdlOptimizationLevel = new FormData();
-    fdlOptimizationLevel.left = new FormAttachment( wCompatible, margin * 2 );
+    fdlOptimizationLevel.left = new FormAttachment( wSharedCompiledScript, margin * 2 );
     fdlOptimizationLevel.top = new FormAttachment( wlPosition, margin );
     wlOptimizationLevel.setLayoutData( fdlOptimizationLevel );
 
@@ -942,6 +965,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
    */
   public void getData() {
     wCompatible.setSelection( input.isCompatible() );
+    wSharedCompiledScript.setSelection( input.isSharedCompiledScript() );
     if ( !Utils.isEmpty( Const.trim( input.getOptimizationLevel() ) ) ) {
       wOptimizationLevel.setText( input.getOptimizationLevel().trim() );
     } else {
@@ -1041,6 +1065,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
 
   private void getInfo( ScriptValuesMetaMod meta ) {
     meta.setCompatible( wCompatible.getSelection() );
+    meta.setSharedCompiledScript( wSharedCompiledScript.getSelection() );
     meta.setOptimizationLevel( wOptimizationLevel.getText() );
     int nrfields = wFields.nrNonEmpty();
     meta.allocate( nrfields );
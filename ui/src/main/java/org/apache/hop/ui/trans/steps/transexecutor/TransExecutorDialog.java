@@ -107,6 +107,8 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
   private Label wlGroupTime;
   private TextVar wGroupTime;
 
+  private Button wReuseTrans;
+
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -422,6 +424,7 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     wGroupSize.setText( Const.NVL( transExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( transExecutorMeta.getGroupTime(), "" ) );
     wGroupField.setText( Const.NVL( transExecutorMeta.getGroupField(), "" ) );
+    wReuseTrans.setSelection( transExecutorMeta.isReusingTransformation() );
 
     wExecutionResultTarget.setText( transExecutorMeta.getExecutionResultTargetStepMeta() == null ? ""
       : transExecutorMeta.getExecutionResultTargetStepMeta().getName() );
@@ -675,6 +678,23 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Re-use the transformation for every group
+    //
+    wReuseTrans = new Button( wInputComposite, SWT.CHECK );
+    props.setLook( wReuseTrans );
+    wReuseTrans.setText( BaseMessages.getString( PKG, "TransExecutorDialog.ReuseTransformation.Label" ) );
+    wReuseTrans.setToolTipText( BaseMessages.getString( PKG, "TransExecutorDialog.ReuseTransformation.Tooltip" ) );
+    FormData fdReuseTrans = new FormData();
+    fdReuseTrans.top = new FormAttachment( wGroupTime, 15 );
+    fdReuseTrans.left = new FormAttachment( 0, 0 );
+    wReuseTrans.setLayoutData( fdReuseTrans );
+    wReuseTrans.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        transExecutorMeta.setChanged();
+      }
+    } );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -1020,6 +1040,7 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     transExecutorMeta.setGroupSize( wGroupSize.getText() );
     transExecutorMeta.setGroupField( wGroupField.getText() );
     transExecutorMeta.setGroupTime( wGroupTime.getText() );
+    transExecutorMeta.setReusingTransformation( wReuseTrans.getSelection() );
 
     transExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     transExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );
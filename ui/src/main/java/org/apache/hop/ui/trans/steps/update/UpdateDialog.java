@@ -130,6 +130,10 @@ public class UpdateDialog extends BaseStepDialog implements StepDialogInterface
   private Button wSkipLookup;
   private FormData fdlSkipLookup, fdSkipLookup;
 
+  private Label wlSetBased;
+  private Button wSetBased;
+  private FormData fdlSetBased, fdSetBased;
+
   /**
    * List of ColumnInfo that should have the field names of the selected database table
    */
@@ -320,12 +324,35 @@ public class UpdateDialog extends BaseStepDialog implements StepDialogInterface
       }
     } );
 
+    wlSetBased = new Label( shell, SWT.RIGHT );
+    wlSetBased.setText( BaseMessages.getString( PKG, "UpdateDialog.SetBased.Label" ) );
+    wlSetBased.setToolTipText( BaseMessages.getString( PKG, "UpdateDialog.SetBased.Tooltip" ) );
+    props.setLook( wlSetBased );
+    fdlSetBased = new FormData();
+    fdlSetBased.left = new FormAttachment( 0, 0 );
+    fdlSetBased.top = new FormAttachment( wSkipLookup, margin );
+    fdlSetBased.right = new FormAttachment( middle, -margin );
+    wlSetBased.setLayoutData( fdlSetBased );
+    wSetBased = new Button( shell, SWT.CHECK );
+    wSetBased.setToolTipText( BaseMessages.getString( PKG, "UpdateDialog.SetBased.Tooltip" ) );
+    props.setLook( wSetBased );
+    fdSetBased = new FormData();
+    fdSetBased.left = new FormAttachment( middle, 0 );
+    fdSetBased.top = new FormAttachment( wSkipLookup, margin );
+    fdSetBased.right = new FormAttachment( 100, 0 );
+    wSetBased.setLayoutData( fdSetBased );
+    wSetBased.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     wlErrorIgnored = new Label( shell, SWT.RIGHT );
     wlErrorIgnored.setText( BaseMessages.getString( PKG, "UpdateDialog.ErrorIgnored.Label" ) );
     props.setLook( wlErrorIgnored );
     fdlErrorIgnored = new FormData();
     fdlErrorIgnored.left = new FormAttachment( 0, 0 );
-    fdlErrorIgnored.top = new FormAttachment( wSkipLookup, margin );
+    fdlErrorIgnored.top = new FormAttachment( wSetBased, margin );
     fdlErrorIgnored.right = new FormAttachment( middle, -margin );
     wlErrorIgnored.setLayoutData( fdlErrorIgnored );
 
@@ -334,7 +361,7 @@ public class UpdateDialog extends BaseStepDialog implements StepDialogInterface
     wErrorIgnored.setToolTipText( BaseMessages.getString( PKG, "UpdateDialog.ErrorIgnored.ToolTip" ) );
     fdErrorIgnored = new FormData();
     fdErrorIgnored.left = new FormAttachment( middle, 0 );
-    fdErrorIgnored.top = new FormAttachment( wSkipLookup, margin );
+    fdErrorIgnored.top = new FormAttachment( wSetBased, margin );
     wErrorIgnored.setLayoutData( fdErrorIgnored );
     wErrorIgnored.addSelectionListener( new SelectionAdapter() {
       public void widgetSelected( SelectionEvent e ) {
@@ -348,14 +375,14 @@ public class UpdateDialog extends BaseStepDialog implements StepDialogInterface
     props.setLook( wlIgnoreFlagField );
     fdlIgnoreFlagField = new FormData();
     fdlIgnoreFlagField.left = new FormAttachment( wErrorIgnored, margin );
-    fdlIgnoreFlagField.top = new FormAttachment( wSkipLookup, margin );
+    fdlIgnoreFlagField.top = new FormAttachment( wSetBased, margin );
     wlIgnoreFlagField.setLayoutData( fdlIgnoreFlagField );
     wIgnoreFlagField = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wIgnoreFlagField );
     wIgnoreFlagField.addModifyListener( lsMod );
     fdIgnoreFlagField = new FormData();
     fdIgnoreFlagField.left = new FormAttachment( wlIgnoreFlagField, margin );
-    fdIgnoreFlagField.top = new FormAttachment( wSkipLookup, margin );
+    fdIgnoreFlagField.top = new FormAttachment( wSetBased, margin );
     fdIgnoreFlagField.right = new FormAttachment( 100, 0 );
     wIgnoreFlagField.setLayoutData( fdIgnoreFlagField );
 
@@ -676,6 +703,7 @@ public class UpdateDialog extends BaseStepDialog implements StepDialogInterface
     wCommit.setText( input.getCommitSizeVar() );
     wBatch.setSelection( input.useBatchUpdate() );
     wSkipLookup.setSelection( input.isSkipLookup() );
+    wSetBased.setSelection( input.isSetBased() );
     wErrorIgnored.setSelection( input.isErrorIgnored() );
     if ( input.getIgnoreFlagField() != null ) {
       wIgnoreFlagField.setText( input.getIgnoreFlagField() );
@@ -748,6 +776,7 @@ public class UpdateDialog extends BaseStepDialog implements StepDialogInterface
     inf.setCommitSize( wCommit.getText() );
     inf.setUseBatchUpdate( wBatch.getSelection() );
     inf.setSkipLookup( wSkipLookup.getSelection() );
+    inf.setSetBased( wSetBased.getSelection() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "UpdateDialog.Log.FoundKeys", nrkeys + "" ) );
@@ -123,6 +123,18 @@ public class WebServiceDialog extends BaseStepDialog implements StepDialogInterf
   private Label wlReplyAsString;
   private Button wReplyAsString;
 
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+
+  private Label wlMaxRetries;
+  private TextVar wMaxRetries;
+
+  private Label wlRetryDelay;
+  private TextVar wRetryDelay;
+
+  private Label wlRequestsPerSecond;
+  private TextVar wRequestsPerSecond;
+
   private Label wlHttpLogin;
   private TextVar wHttpLogin;
 
@@ -665,6 +677,10 @@ public class WebServiceDialog extends BaseStepDialog implements StepDialogInterf
     wCompatible.setSelection( meta.isCompatible() );
     wRepeatingElement.setText( Const.NVL( meta.getRepeatingElementName(), "" ) );
     wReplyAsString.setSelection( meta.isReturningReplyAsString() );
+    wConcurrentRequests.setText( Const.NVL( meta.getConcurrentRequests(), "" ) );
+    wMaxRetries.setText( Const.NVL( meta.getMaxRetries(), "" ) );
+    wRetryDelay.setText( Const.NVL( meta.getRetryDelay(), "" ) );
+    wRequestsPerSecond.setText( Const.NVL( meta.getRequestsPerSecond(), "" ) );
 
     if ( wURL.getText() != null && !"".equals( wURL.getText() ) ) {
       wOperation.setText( meta.getOperationName() == null ? "" : meta.getOperationName() );
@@ -720,6 +736,10 @@ public class WebServiceDialog extends BaseStepDialog implements StepDialogInterf
     webServiceMeta.setCompatible( wCompatible.getSelection() );
     webServiceMeta.setRepeatingElementName( wRepeatingElement.getText() );
     webServiceMeta.setReturningReplyAsString( wReplyAsString.getSelection() );
+    webServiceMeta.setConcurrentRequests( wConcurrentRequests.getText() );
+    webServiceMeta.setMaxRetries( wMaxRetries.getText() );
+    webServiceMeta.setRetryDelay( wRetryDelay.getText() );
+    webServiceMeta.setRequestsPerSecond( wRequestsPerSecond.getText() );
     webServiceMeta.setOperationRequestName( wOperationRequest.getText() );
     webServiceMeta.setOperationName( wOperation.getText() );
 
@@ -1069,6 +1089,80 @@ public class WebServiceDialog extends BaseStepDialog implements StepDialogInterf
     fdBodyAsString.right = new FormAttachment( 100, 0 );
     wReplyAsString.setLayoutData( fdBodyAsString );
 
+    // Calls in flight, retries and rate limit
+    //
+    wlConcurrentRequests = new Label( compositeTabWebService, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "WebServiceDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlConcurrentRequests.top = new FormAttachment( wReplyAsString, margin );
+    fdlConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlConcurrentRequests.setLayoutData( fdlConcurrentRequests );
+    wConcurrentRequests = new TextVar( transMeta, compositeTabWebService, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.addModifyListener( lsMod );
+    wConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "WebServiceDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment( wReplyAsString, margin );
+    fdConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wConcurrentRequests.setLayoutData( fdConcurrentRequests );
+
+    wlMaxRetries = new Label( compositeTabWebService, SWT.RIGHT );
+    wlMaxRetries.setText( BaseMessages.getString( PKG, "WebServiceDialog.MaxRetries.Label" ) );
+    props.setLook( wlMaxRetries );
+    FormData fdlMaxRetries = new FormData();
+    fdlMaxRetries.left = new FormAttachment( 0, 0 );
+    fdlMaxRetries.top = new FormAttachment( wConcurrentRequests, margin );
+    fdlMaxRetries.right = new FormAttachment( middle, -margin );
+    wlMaxRetries.setLayoutData( fdlMaxRetries );
+    wMaxRetries = new TextVar( transMeta, compositeTabWebService, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxRetries.addModifyListener( lsMod );
+    wMaxRetries.setToolTipText( BaseMessages.getString( PKG, "WebServiceDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    FormData fdMaxRetries = new FormData();
+    fdMaxRetries.top = new FormAttachment( wConcurrentRequests, margin );
+    fdMaxRetries.left = new FormAttachment( middle, 0 );
+    fdMaxRetries.right = new FormAttachment( 100, 0 );
+    wMaxRetries.setLayoutData( fdMaxRetries );
+
+    wlRetryDelay = new Label( compositeTabWebService, SWT.RIGHT );
+    wlRetryDelay.setText( BaseMessages.getString( PKG, "WebServiceDialog.RetryDelay.Label" ) );
+    props.setLook( wlRetryDelay );
+    FormData fdlRetryDelay = new FormData();
+    fdlRetryDelay.left = new FormAttachment( 0, 0 );
+    fdlRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdlRetryDelay.right = new FormAttachment( middle, -margin );
+    wlRetryDelay.setLayoutData( fdlRetryDelay );
+    wRetryDelay = new TextVar( transMeta, compositeTabWebService, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRetryDelay.addModifyListener( lsMod );
+    wRetryDelay.setToolTipText( BaseMessages.getString( PKG, "WebServiceDialog.RetryDelay.Tooltip" ) );
+    props.setLook( wRetryDelay );
+    FormData fdRetryDelay = new FormData();
+    fdRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdRetryDelay.left = new FormAttachment( middle, 0 );
+    fdRetryDelay.right = new FormAttachment( 100, 0 );
+    wRetryDelay.setLayoutData( fdRetryDelay );
+
+    wlRequestsPerSecond = new Label( compositeTabWebService, SWT.RIGHT );
+    wlRequestsPerSecond.setText( BaseMessages.getString( PKG, "WebServiceDialog.RequestsPerSecond.Label" ) );
+    props.setLook( wlRequestsPerSecond );
+    FormData fdlRequestsPerSecond = new FormData();
+    fdlRequestsPerSecond.left = new FormAttachment( 0, 0 );
+    fdlRequestsPerSecond.top = new FormAttachment( wRetryDelay, margin );
+    fdlRequestsPerSecond.right = new FormAttachment( middle, -margin );
+    wlRequestsPerSecond.setLayoutData( fdlRequestsPerSecond );
+    wRequestsPerSecond = new TextVar( transMeta, compositeTabWebService, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRequestsPerSecond.addModifyListener( lsMod );
+    wRequestsPerSecond.setToolTipText( BaseMessages.getString( PKG, "WebServiceDialog.RequestsPerSecond.Tooltip" ) );
+    props.setLook( wRequestsPerSecond );
+    FormData fdRequestsPerSecond = new FormData();
+    fdRequestsPerSecond.top = new FormAttachment( wRetryDelay, margin );
+    fdRequestsPerSecond.left = new FormAttachment( middle, 0 );
+    fdRequestsPerSecond.right = new FormAttachment( 100, 0 );
+    wRequestsPerSecond.setLayoutData( fdRequestsPerSecond );
+
     // ////////////////////////
     // START HTTP AUTH GROUP
 
@@ -1121,7 +1215,7 @@ public class WebServiceDialog extends BaseStepDialog implements StepDialogInterf
     FormData fdHttpAuth = new FormData();
     fdHttpAuth.left = new FormAttachment( 0, 0 );
     fdHttpAuth.right = new FormAttachment( 100, 0 );
-    fdHttpAuth.top = new FormAttachment( wReplyAsString, margin );
+    fdHttpAuth.top = new FormAttachment( wRequestsPerSecond, margin );
     gHttpAuth.setLayoutData( fdHttpAuth );
 
     // END HTTP AUTH GROUP